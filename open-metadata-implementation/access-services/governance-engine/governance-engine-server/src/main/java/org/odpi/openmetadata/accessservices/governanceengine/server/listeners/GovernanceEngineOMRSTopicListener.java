@@ -24,6 +24,7 @@ import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class GovernanceEngineOMRSTopicListener extends OMRSTopicListenerBase {
@@ -52,6 +53,11 @@ public class GovernanceEngineOMRSTopicListener extends OMRSTopicListenerBase {
         this.serverUserName = serverUserName;
         this.supportedZones = supportedZones;
         publisher = new GovernanceEnginePublisher(openMetadataTopicConnector, auditLog);
+
+        setInstanceEventTypesOfInterest(Arrays.asList(OMRSInstanceEventType.CLASSIFIED_ENTITY_EVENT,
+                                                      OMRSInstanceEventType.RECLASSIFIED_ENTITY_EVENT,
+                                                      OMRSInstanceEventType.DELETED_ENTITY_EVENT,
+                                                      OMRSInstanceEventType.DECLASSIFIED_ENTITY_EVENT));
     }
 
     /**
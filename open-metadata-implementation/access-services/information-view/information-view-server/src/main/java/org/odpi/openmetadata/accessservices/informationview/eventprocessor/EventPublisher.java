@@ -533,6 +533,20 @@ public class EventPublisher extends OMRSInstanceEventProcessor {
                                           String         originatorOrganizationName,
                                           InstanceGraph  instances)
     {
+        if (instances == null) {
+            return;
+        }
+
+        if (instances.getEntities() != null) {
+            for (EntityDetail entity : instances.getEntities()) {
+                processNewEntityEvent(sourceName, originatorMetadataCollectionId, originatorServerName, originatorServerType, originatorOrganizationName, entity);
+            }
+        }
 
+        if (instances.getRelationships() != null) {
+            for (Relationship relationship : instances.getRelationships()) {
+                processNewRelationshipEvent(sourceName, originatorMetadataCollectionId, originatorServerName, originatorServerType, originatorOrganizationName, relationship);
+            }
+        }
     }
 }
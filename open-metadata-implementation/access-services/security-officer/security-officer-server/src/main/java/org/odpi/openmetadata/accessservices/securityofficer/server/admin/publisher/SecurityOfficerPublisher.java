@@ -212,6 +212,21 @@ public class SecurityOfficerPublisher extends OMRSInstanceEventProcessor {
 
     @Override
     public void processInstanceBatchEvent(String sourceName, String originatorMetadataCollectionId, String originatorServerName, String originatorServerType, String originatorOrganizationName, InstanceGraph instances) {
+        if (instances == null) {
+            return;
+        }
+
+        if (instances.getEntities() != null) {
+            for (EntityDetail entity : instances.getEntities()) {
+                processNewEntityEvent(sourceName, originatorMetadataCollectionId, originatorServerName, originatorServerType, originatorOrganizationName, entity);
+            }
+        }
+
+        if (instances.getRelationships() != null) {
+            for (Relationship relationship : instances.getRelationships()) {
+                processNewRelationshipEvent(sourceName, originatorMetadataCollectionId, originatorServerName, originatorServerType, originatorOrganizationName, relationship);
+            }
+        }
     }
 
     @Override
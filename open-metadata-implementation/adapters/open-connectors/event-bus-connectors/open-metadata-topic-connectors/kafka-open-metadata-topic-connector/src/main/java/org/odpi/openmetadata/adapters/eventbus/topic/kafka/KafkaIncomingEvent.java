@@ -10,6 +10,7 @@ import org.odpi.openmetadata.repositoryservices.connectors.openmetadatatopic.Inc
 public class KafkaIncomingEvent extends IncomingEvent
 {
     private final long offset;
+    private final long serializedSize;
     
     /**
      * Constructor
@@ -18,10 +19,24 @@ public class KafkaIncomingEvent extends IncomingEvent
      * @param offset the kafka offset of the message
      */
     public KafkaIncomingEvent(String json, long offset)
+    {
+        this(json, offset, 0);
+    }
+
+
+    /**
+     * Constructor
+     *
+     * @param json message content
+     * @param offset the kafka offset of the message
+     * @param serializedSize the number of bytes in the serialized key and value of the message
+     */
+    public KafkaIncomingEvent(String json, long offset, long serializedSize)
     {
         //use the offset as the message id
         super(json, String.valueOf(offset));
         this.offset = offset;
+        this.serializedSize = serializedSize;
     }
 
     /**
@@ -33,4 +48,15 @@ public class KafkaIncomingEvent extends IncomingEvent
     {
         return offset;
     }
+
+
+    /**
+     * Gets the number of bytes in the serialized key and value of this message, as received from Kafka.
+     *
+     * @return number of bytes
+     */
+    public long getSerializedSize()
+    {
+        return serializedSize;
+    }
 }
\ No newline at end of file
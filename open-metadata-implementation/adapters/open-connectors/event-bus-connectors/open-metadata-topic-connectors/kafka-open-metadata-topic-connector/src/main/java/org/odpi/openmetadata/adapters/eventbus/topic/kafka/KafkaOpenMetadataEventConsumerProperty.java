@@ -14,6 +14,24 @@ public enum KafkaOpenMetadataEventConsumerProperty
 	 * required to prevent Kafka from treating the consumer as dead.
 	 */
 	MAX_QUEUE_SIZE("event_bus_max_queue_size", "100"),
+
+	/*
+	 * Controls the maximum amount of memory, in bytes, used by the unprocessed kafka
+	 * events.  This limit applies alongside the maximum queue size so that a backlog of
+	 * large events does not exhaust the heap.
+	 */
+	MAX_QUEUE_BYTES("event_bus_max_queue_bytes", "104857600"),
+
+	/*
+	 * The number of threads that pass received events to the topic listeners.  Each
+	 * partition is handled by one thread so the events in a partition are processed in
+	 * order, while the events in different partitions may be processed in parallel.
+	 * With the default of 1, all events are passed to the listeners by the connector's
+	 * listener thread.  The default stays at 1 because the existing topic listeners
+	 * assume they are called by one thread at a time.  Each dispatcher thread queues at
+	 * most event_bus_max_queue_size events.
+	 */
+	PARTITION_DISPATCHER_THREADS("partition_dispatcher_threads", "1"),
 	
 	/*
 	 * In order to ensure that Kafka does not treat our consumer as dead, we need to
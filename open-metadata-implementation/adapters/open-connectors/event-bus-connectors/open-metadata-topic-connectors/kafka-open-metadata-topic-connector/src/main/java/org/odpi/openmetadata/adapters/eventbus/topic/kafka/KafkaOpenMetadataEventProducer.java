@@ -8,12 +8,13 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.errors.RetriableException;
 import org.apache.kafka.common.errors.WakeupException;
 import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
-import org.odpi.openmetadata.frameworks.connectors.ffdc.ConnectorCheckedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * KafkaOpenMetadataEventProducer manages the sending of events on Apache Kafka.  This is done through called to
@@ -22,11 +23,18 @@ import java.util.concurrent.ExecutionException;
  * Kafka is not always running.  When this occurs, the call to publish events hangs and this is disruptive to the
  * rest of the server.  So the role of this class is to manage the sending of events in a separate thread
  * and manage the logging of errors to alert the operations team that Kafka needs restarting.
+ *
+ * Events are placed in an outbound buffer by sendEvent().  The producer thread takes them from the buffer in
+ * batches and passes them to the Kafka Producer without waiting for each one to be acknowledged, so the
+ * Kafka Producer can group them into requests (see the batch.size and linger.ms producer properties).
+ * The acknowledgement of each event is tracked through a callback.  Once an event fails, no more events are
+ * passed to the Kafka Producer.  When the events already passed to it have completed, the failed event and every
+ * event after it are sent again, in their original order, before any new events.  This means an event that was
+ * sent after a failed event may be sent twice, but it always arrives after the failed event.  The outbound buffer
+ * is a bounded queue; once it is full, sendEvent() waits until the producer thread has taken events from it.
  */
 public class KafkaOpenMetadataEventProducer implements Runnable
 {
-    private volatile List<String> sendBuffer = new ArrayList<>();
-
     private static final Logger log = LoggerFactory.getLogger(KafkaOpenMetadataEventProducer.class);
 
     private static final String       defaultThreadName = "KafkaProducer for topic ";
@@ -38,6 +46,7 @@ public class KafkaOpenMetadataEventProducer implements Runnable
     private              String   topicName;
     private              int      sleepTime            = 1000;
     private static final long     recoverySleepTimeSec = 10L;
+    private static final int      maxSendAttempts      = 10;
 
     private String                          localServerId;
     private Properties                      producerProperties;
@@ -45,22 +54,54 @@ public class KafkaOpenMetadataEventProducer implements Runnable
 
     private KafkaOpenMetadataTopicConnector connector;
 
-    private long    messageSendCount = 0;
+    private final BlockingQueue<String> outboundEvents;
+    private final int                   outboundBatchSize;
+
+    private final TreeMap<Long, UnsentEvent> unconfirmedEvents  = new TreeMap<>();
+    private       boolean                    sendFailed         = false;
+    private final AtomicLong                 messageSendCount   = new AtomicLong(0);
+    private       long                       nextSequenceNumber = 0;
+
+
+    /**
+     * An event that has been passed to the Kafka Producer and is not yet known to be in its place on the topic.
+     * This is because it has not been acknowledged, it failed, or an event sent before it has not been
+     * acknowledged.  The sequence number records the order the events were sent.
+     */
+    private static class UnsentEvent
+    {
+        private final long   sequenceNumber;
+        private final String event;
+        private       int    attempts     = 0;
+        private boolean      acknowledged = false;
+        private Exception    error        = null;
+
+        UnsentEvent(long sequenceNumber, String event)
+        {
+            this.sequenceNumber = sequenceNumber;
+            this.event = event;
+        }
+    }
 
 
     /**
      *
-     * Constructor for the event consumer.
+     * Constructor for the event producer.
      *
      * @param topicName name of the topic to listen on.
      * @param localServerId identifier to enable receiver to identify that an event came from this server.
      * @param producerProperties properties for the consumer.
+     * @param outboundEvents bounded buffer of events waiting to be sent - this is owned by the connector so it
+     *                       survives a restart of the producer
+     * @param outboundBatchSize maximum number of events taken from the buffer at a time
      * @param connector connector holding the inbound listeners.
      * @param auditLog  audit log for this component.
      */
     KafkaOpenMetadataEventProducer(String                          topicName,
                                    String                          localServerId,
                                    Properties                      producerProperties,
+                                   BlockingQueue<String>           outboundEvents,
+                                   int                             outboundBatchSize,
                                    KafkaOpenMetadataTopicConnector connector,
                                    AuditLog                        auditLog)
     {
@@ -69,6 +110,8 @@ public class KafkaOpenMetadataEventProducer implements Runnable
         this.localServerId = localServerId;
         this.connector = connector;
         this.producerProperties = producerProperties;
+        this.outboundEvents = outboundEvents;
+        this.outboundBatchSize = outboundBatchSize;
         this.listenerThreadName = defaultThreadName + topicName;
 
         final String           actionDescription = "new producer";
@@ -80,99 +123,203 @@ public class KafkaOpenMetadataEventProducer implements Runnable
     }
 
 
+    /**
+     * Constructor for the event producer that supplies the Kafka Producer to use.  This is used in testing.
+     *
+     * @param topicName name of the topic to listen on.
+     * @param localServerId identifier to enable receiver to identify that an event came from this server.
+     * @param producer Kafka producer
+     * @param outboundEvents bounded buffer of events waiting to be sent
+     * @param outboundBatchSize maximum number of events taken from the buffer at a time
+     * @param auditLog  audit log for this component.
+     */
+    KafkaOpenMetadataEventProducer(String                   topicName,
+                                   String                   localServerId,
+                                   Producer<String, String> producer,
+                                   BlockingQueue<String>    outboundEvents,
+                                   int                      outboundBatchSize,
+                                   AuditLog                 auditLog)
+    {
+        this(topicName, localServerId, new Properties(), outboundEvents, outboundBatchSize, null, auditLog);
+
+        this.producer = producer;
+    }
+
 
     /**
-     * Sends the supplied event to the topic.  It retries if Kafka is not responding.
+     * Pass a batch of events to the Kafka Producer.  Events that need to be sent again are sent first.  The Kafka
+     * Producer sends the events asynchronously; the outcome of each send is recorded by sendComplete().  If a
+     * send fails, the rest of the events are held back until the failure has been dealt with.
      *
-     * @param event object containing the event properties.
-     * @throws ConnectorCheckedException the connector is not able to communicate with the event bus
+     * @param newEvents events taken from the outbound buffer.
      */
-    private void publishEvent(String event) throws ConnectorCheckedException
+    private void publishEvents(List<String> newEvents)
     {
-        final String methodName = "publishEvent";
+        List<UnsentEvent> eventsToSend = new ArrayList<>(this.getEventsToResend());
 
-        boolean                  eventSent = false;
-        long                     eventRetryCount = 0;
+        for (String event : newEvents)
+        {
+            eventsToSend.add(new UnsentEvent(nextSequenceNumber++, event));
+        }
 
         if (producer == null)
         {
             log.debug("Creating Producer");
             producer = new KafkaProducer<>(producerProperties);
         }
-        while (!eventSent)
+
+        for (UnsentEvent unsentEvent : eventsToSend)
         {
+            synchronized (unconfirmedEvents)
+            {
+                unconfirmedEvents.put(unsentEvent.sequenceNumber, unsentEvent);
+
+                if (sendFailed)
+                {
+                    /*
+                     * Sent again after the failed event.
+                     */
+                    continue;
+                }
+            }
+
             try
             {
-                log.debug("Sending message {0}" + event);
-                ProducerRecord<String, String> record = new ProducerRecord<>(topicName, localServerId, event);
-                producer.send(record).get();
-                eventSent = true;
-                messageSendCount++;
+                log.debug("Sending message {0}" + unsentEvent.event);
+                ProducerRecord<String, String> record = new ProducerRecord<>(topicName, localServerId, unsentEvent.event);
+
+                unsentEvent.attempts++;
+                producer.send(record, (metadata, error) -> sendComplete(unsentEvent, error));
+            }
+            catch (WakeupException error)
+            {
+                log.error("Wake up for shut down " + error.toString());
+                this.sendComplete(unsentEvent, error);
             }
-            catch (ExecutionException error)
+            catch (Exception error)
             {
                 /*
-                 * This may be a simple timeout or something else more
+                 * The Kafka Producer rejected the event before sending it - for example, because its own buffer
+                 * is full.
                  */
-                log.debug("Kafka had trouble sending event: " + event + "exception message is " + error.getMessage());
+                log.debug("Kafka had trouble sending event: " + unsentEvent.event + "exception message is " + error.getMessage());
+                this.sendComplete(unsentEvent, error);
+            }
+        }
+    }
 
-                if (!isExceptionRetryable(error))
-                {
-                    /* kafka thinks this isn't a retryable problem */
-                    /* so let the caller try */
-
-                    producer.close();
-                    producer = null;
-
-                    throw new ConnectorCheckedException(KafkaOpenMetadataTopicConnectorErrorCode.ERROR_SENDING_EVENT.getMessageDefinition(error.getClass().getName(),
-                                                                                                                                          topicName,
-                                                                                                                                          error.getMessage()),
-                            this.getClass().getName(),
-                            methodName,
-                            error);
-                }
-                if (eventRetryCount == 10)
-                {
-                    /* we've retried now let the caller retry */
-                    producer.close();
-                    producer = null;
-                    log.error("Retryable Exception closed producer ");
-                    break;
-                }
-                else
+
+    /**
+     * Called by the Kafka Producer when it has finished sending an event.  Events are confirmed in the order
+     * they were sent, so an event that is acknowledged after an earlier event failed stays unconfirmed and is
+     * sent again after the failed event.
+     *
+     * @param unsentEvent event that was sent
+     * @param error null if the event was sent; otherwise the reason it failed
+     */
+    private void sendComplete(UnsentEvent unsentEvent,
+                              Exception   error)
+    {
+        synchronized (unconfirmedEvents)
+        {
+            if (error == null)
+            {
+                unsentEvent.acknowledged = true;
+
+                while ((! unconfirmedEvents.isEmpty()) && (unconfirmedEvents.firstEntry().getValue().acknowledged))
                 {
-                    if (eventRetryCount == 0)
-                    {
-                        auditLog.logMessage(methodName,
-                                            KafkaOpenMetadataTopicConnectorAuditCode.EVENT_SEND_IN_ERROR_LOOP.getMessageDefinition(topicName,
-                                                                                                                                   Long.toString(messageSendCount),
-                                                                                                                                   Long.toString(this.getSendBufferSize()),
-                                                                                                                                   error.getMessage()));
-                    }
-
-                    eventRetryCount++;
+                    unconfirmedEvents.pollFirstEntry();
+                    messageSendCount.incrementAndGet();
                 }
             }
-            catch (WakeupException error)
+            else
             {
-                log.error("Wake up for shut down " + error.toString());
+                log.debug("Kafka had trouble sending event: " + unsentEvent.event + "exception message is " + error.getMessage());
+
+                unsentEvent.error = error;
+                sendFailed = true;
             }
-            catch (Throwable error)
+        }
+    }
+
+
+    /**
+     * Return the events that should be sent again, in the order they were first sent.  This is the first
+     * failed event and every event after it.  Failed events with an error that is not retriable, or that have
+     * failed too many times, are logged and discarded.  If any events failed, the thread waits for the events
+     * that the Kafka Producer is still sending to complete, and then waits for the error to clear.
+     *
+     * @return list of events to send again
+     */
+    private List<UnsentEvent> getEventsToResend()
+    {
+        final String methodName = "getEventsToResend";
+
+        List<UnsentEvent> eventsToRetry = new ArrayList<>();
+
+        synchronized (unconfirmedEvents)
+        {
+            if (! sendFailed)
+            {
+                return eventsToRetry;
+            }
+        }
+
+        /*
+         * Wait for the events that are in flight so all of the failures are known.
+         */
+        if (producer != null)
+        {
+            producer.flush();
+            log.debug("Failed events flushed producer");
+        }
+
+        List<UnsentEvent> eventsToResend;
+
+        synchronized (unconfirmedEvents)
+        {
+            eventsToResend = new ArrayList<>(unconfirmedEvents.values());
+            unconfirmedEvents.clear();
+            sendFailed = false;
+        }
+
+        Exception firstError = null;
+
+        for (UnsentEvent unsentEvent : eventsToResend)
+        {
+            if ((unsentEvent.error != null) && ((! isExceptionRetryable(unsentEvent.error)) || (unsentEvent.attempts >= maxSendAttempts)))
             {
-                producer.close();
-                producer = null;
-                log.debug("Send Events Throwable catch block closed producer");
-                log.error("Exception in sendEvent " + error.toString());
-
-                throw new ConnectorCheckedException(KafkaOpenMetadataTopicConnectorErrorCode.ERROR_SENDING_EVENT.getMessageDefinition(error.getClass().getName(),
-                                                                                                                                      topicName,
-                                                                                                                                      error.getMessage()),
-                                                    this.getClass().getName(),
-                                                    methodName,
-                                                    error);
+                auditLog.logMessage(methodName,
+                                    KafkaOpenMetadataTopicConnectorAuditCode.EVENT_DISCARDED.getMessageDefinition(topicName,
+                                                                                                                  Integer.toString(unsentEvent.attempts),
+                                                                                                                  unsentEvent.error.getMessage()),
+                                    unsentEvent.event);
+            }
+            else
+            {
+                if ((firstError == null) && (unsentEvent.error != null))
+                {
+                    firstError = unsentEvent.error;
+                }
+
+                unsentEvent.acknowledged = false;
+                unsentEvent.error = null;
+                eventsToRetry.add(unsentEvent);
             }
         }
 
+        if (firstError != null)
+        {
+            auditLog.logMessage(methodName,
+                                KafkaOpenMetadataTopicConnectorAuditCode.EVENT_SEND_IN_ERROR_LOOP.getMessageDefinition(topicName,
+                                                                                                                       Long.toString(messageSendCount.get()),
+                                                                                                                       Long.toString(this.getSendBufferSize() + eventsToRetry.size()),
+                                                                                                                       firstError.getMessage()));
+
+            this.recoverAfterError();
+        }
+
+        return eventsToRetry;
     }
 
 
@@ -186,7 +333,7 @@ public class KafkaOpenMetadataEventProducer implements Runnable
 
         auditLog.logMessage(actionDescription,
                             KafkaOpenMetadataTopicConnectorAuditCode.KAFKA_PRODUCER_START.getMessageDefinition(topicName,
-                                                                                                               Integer.toString(sendBuffer.size())),
+                                                                                                               Integer.toString(outboundEvents.size())),
                             this.producerProperties.toString());
 
 
@@ -194,26 +341,20 @@ public class KafkaOpenMetadataEventProducer implements Runnable
         {
             try
             {
-                String bufferedEvent = this.getEvent();
+                List<String> newEvents     = new ArrayList<>();
+                String       bufferedEvent = outboundEvents.poll(sleepTime, TimeUnit.MILLISECONDS);
 
-                /*
-                 * If there are no events waiting then sleep
-                 */
-                if (bufferedEvent == null)
-                {
-                    Thread.sleep(sleepTime);
-                }
-                else
+                if (bufferedEvent != null)
                 {
-                    /*
-                     * Send all waiting events
-                     */
-                    while (bufferedEvent != null)
-                    {
-                        publishEvent(bufferedEvent);
-                        bufferedEvent = this.getEvent();
-                    }
+                    newEvents.add(bufferedEvent);
+                    outboundEvents.drainTo(newEvents, outboundBatchSize - 1);
                 }
+
+                /*
+                 * Send all waiting events.  This is called even if there are no new events so that failed
+                 * events are retried.
+                 */
+                publishEvents(newEvents);
             }
             catch (InterruptedException   error)
             {
@@ -234,7 +375,9 @@ public class KafkaOpenMetadataEventProducer implements Runnable
             }
         }
 
-        /* producer may have already closed by exception handler in publishEvent */
+        /*
+         * Closing the producer waits for the events that have been passed to it to be sent.
+         */
         if(producer != null) {
             log.debug("");
             producer.close();
@@ -244,57 +387,66 @@ public class KafkaOpenMetadataEventProducer implements Runnable
         auditLog.logMessage(actionDescription,
                             KafkaOpenMetadataTopicConnectorAuditCode.KAFKA_PRODUCER_SHUTDOWN.getMessageDefinition(topicName,
                                                                                                                   Integer.toString(getSendBufferSize()),
-                                                                                                                  Long.toString(messageSendCount)),
+                                                                                                                  Long.toString(messageSendCount.get())),
                            this.producerProperties.toString());
     }
 
 
     /**
-     * Supports putting events to the in memory OMRS Topic
+     * Returns the number of events that have not been sent.  This includes the events in the outbound buffer,
+     * the events waiting to be acknowledged by Apache Kafka and the events waiting to be sent again.
      *
-     * @param newEvent  event to publish
+     * @return int
      */
-    private synchronized void putEvent(String  newEvent)
+    int getSendBufferSize()
     {
-        sendBuffer.add(newEvent);
-    }
+        int unconfirmedEventCount;
 
+        synchronized (unconfirmedEvents)
+        {
+            unconfirmedEventCount = unconfirmedEvents.size();
+        }
 
-    /**
-     * Returns the size of the send buffer
-     *
-     * @return int
-     */
-    private synchronized int getSendBufferSize()
-    {
-        return sendBuffer.size();
+        return outboundEvents.size() + unconfirmedEventCount;
     }
 
 
     /**
-     * Returns all of the events found on the in memory OMRS Topic.
+     * Returns the number of events that Apache Kafka has acknowledged, along with every event sent before them.
      *
-     * @return list of received events.
+     * @return count of sent events
      */
-    private synchronized String getEvent()
+    long getMessageSendCount()
     {
-        if (sendBuffer.isEmpty())
-        {
-            return null;
-        }
-
-        return sendBuffer.remove(0);
+        return messageSendCount.get();
     }
 
 
     /**
-     * Sends the supplied event to the topic.
+     * Sends the supplied event to the topic.  The event is added to the outbound buffer.  If the buffer is full,
+     * the caller waits until there is space.  Events that can not be added to a full buffer after the producer
+     * has been stopped are not sent.
      *
      * @param event  OMRSEvent object containing the event properties.
      */
     public void sendEvent(String event)
     {
-        this.putEvent(event);
+        try
+        {
+            while (! outboundEvents.offer(event, sleepTime, TimeUnit.MILLISECONDS))
+            {
+                if (! isRunning())
+                {
+                    log.debug("Event not sent because the producer is stopped: " + event);
+                    return;
+                }
+            }
+        }
+        catch (InterruptedException interrupted)
+        {
+            Thread.currentThread().interrupt();
+            log.debug("Event not sent because the sender was interrupted: " + event);
+        }
     }
 
 
@@ -346,6 +498,9 @@ public class KafkaOpenMetadataEventProducer implements Runnable
 
     private boolean isExceptionRetryable( Throwable throwable)
     {
+        if (throwable instanceof RetriableException) {
+            return true;
+        }
 
         Throwable nested = null;
         while ((nested = throwable.getCause()) != null) {
@@ -3,11 +3,11 @@
 package org.odpi.openmetadata.adapters.eventbus.topic.kafka;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.odpi.openmetadata.frameworks.connectors.ffdc.ConnectorCheckedException;
 import org.odpi.openmetadata.frameworks.connectors.properties.EndpointProperties;
@@ -37,11 +37,17 @@ public class KafkaOpenMetadataTopicConnector extends OpenMetadataTopicConnector
 
     private String       topicName          = null;
     private String       serverId           = null;
-    /* this buffer is for consumed events */
-    private List<IncomingEvent> incomingEventsList = Collections.synchronizedList(new ArrayList<>());
-
+    /* this buffer is for events waiting to be sent - it is kept when the producer restarts */
+    private BlockingQueue<String> outboundEvents        = null;
+    private int                   outgoingEventQueueSize = 1000;
+    private int                   outgoingEventBatchSize = 100;
     private KafkaProducerExecutor executor = null;
 
+    /* received events that have not yet been passed to the listeners */
+    private final AtomicLong              unprocessedEventBytes = new AtomicLong(0);
+    private final List<PartitionDispatcher> partitionDispatchers = new ArrayList<>();
+    private volatile boolean              dispatching          = false;
+
     final String                   threadHeader = "Kafka-";
     Thread                         consumerThread;
     Thread                         producerThread;
@@ -57,28 +63,70 @@ public class KafkaOpenMetadataTopicConnector extends OpenMetadataTopicConnector
         public void afterExecute(Runnable r, Throwable t) {
             super.afterExecute(r, t);
 
-            /* we don't care why the thread ended , we just restart it */
+            /* we don't care why the thread ended , we just restart it unless the connector is disconnecting */
             /* The thread will log on exit and on restart already, so no need to let anyone know */
-            producer = new KafkaOpenMetadataEventProducer(topicName, serverId, producerProperties, KafkaOpenMetadataTopicConnector.this, auditLog);
-            producerThread = new Thread(producer, threadHeader + "Producer-" + topicName);
-            executor.execute(producerThread);
+            if (! isShutdown())
+            {
+                producer = newProducer();
+                producerThread = new Thread(producer, threadHeader + "Producer-" + topicName);
+                executor.execute(producerThread);
+            }
+        }
+    }
+
+    /**
+     * A thread that passes the received events for a subset of the topic's partitions to the listeners.
+     * The events in a partition are always passed by the same thread, in the order they were received.
+     */
+    private class PartitionDispatcher implements Runnable
+    {
+        private final BlockingQueue<IncomingEvent> queue;
+        private Thread                              thread = null;
+
+        PartitionDispatcher(int queueCapacity)
+        {
+            queue = new LinkedBlockingQueue<>(queueCapacity);
+        }
+
+        @Override
+        public void run()
+        {
+            while (dispatching)
+            {
+                try
+                {
+                    distributeEvent(queue.take());
+                }
+                catch (InterruptedException wakeUp)
+                {
+                    log.debug("Partition dispatcher woken up");
+                }
+                catch (Throwable error)
+                {
+                    log.error("Bad exception from distributing event", error);
+                }
+            }
         }
     }
+
+
     /**
      * Constructor sets up the default properties for the producer and consumer.  Any properties passed through
      * the connection's additional properties will override these values.  For most environments,
      * The caller only needs to provide details of the bootstrap servers as the default properties
-     * will support the open metadata workloads.
+     * will support the open metadata workloads.  Received events are queued with addIncomingEvent() so the
+     * listener thread does not poll.
      */
     public KafkaOpenMetadataTopicConnector()
     {
-        super();
+        super(false);
 
         producerProperties.put("bootstrap.servers", "localhost:9092");
         producerProperties.put("acks", "all");
-        producerProperties.put("retries", 1);
+        producerProperties.put("retries", 10);
+        producerProperties.put("max.in.flight.requests.per.connection", 1);
         producerProperties.put("batch.size", 16384);
-        producerProperties.put("linger.ms", 0);
+        producerProperties.put("linger.ms", 10);
         producerProperties.put("buffer.memory", 33554432);
         producerProperties.put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
         producerProperties.put("value.serializer", "org.apache.kafka.common.serialization.StringSerializer");
@@ -120,6 +168,20 @@ public class KafkaOpenMetadataTopicConnector extends OpenMetadataTopicConnector
                 serverId = (String) configurationProperties.get(KafkaOpenMetadataTopicProvider.serverIdPropertyName);
                 consumerProperties.put("group.id", serverId);
 
+                Object   outgoingEventQueueSize = configurationProperties.get(KafkaOpenMetadataTopicProvider.outgoingEventQueueSizePropertyName);
+
+                if ((outgoingEventQueueSize instanceof Integer) && ((Integer)outgoingEventQueueSize > 0))
+                {
+                    this.outgoingEventQueueSize = (Integer)outgoingEventQueueSize;
+                }
+
+                Object   outgoingEventBatchSize = configurationProperties.get(KafkaOpenMetadataTopicProvider.outgoingEventBatchSizePropertyName);
+
+                if ((outgoingEventBatchSize instanceof Integer) && ((Integer)outgoingEventBatchSize > 0))
+                {
+                    this.outgoingEventBatchSize = (Integer)outgoingEventBatchSize;
+                }
+
                 if (auditLog != null)
                 {
                     auditLog.logMessage(actionDescription,
@@ -213,13 +275,28 @@ public class KafkaOpenMetadataTopicConnector extends OpenMetadataTopicConnector
     {
 
         this.initializeTopic();
-        
+
+        outboundEvents = new LinkedBlockingQueue<>(outgoingEventQueueSize);
+
         KafkaOpenMetadataEventConsumerConfiguration consumerConfig = new KafkaOpenMetadataEventConsumerConfiguration(consumerEgeriaProperties, auditLog);
         consumer = new KafkaOpenMetadataEventConsumer(topicName, serverId, consumerConfig, consumerProperties, this, auditLog);
         consumerThread = new Thread(consumer, threadHeader + "Consumer-" + topicName);
+
+        /*
+         * With more than one dispatcher thread, received events are passed to the listeners by the dispatchers
+         * rather than the connector's listener thread.
+         */
+        int dispatcherCount = consumerConfig.getIntProperty(KafkaOpenMetadataEventConsumerProperty.PARTITION_DISPATCHER_THREADS);
+
+        if (dispatcherCount > 1)
+        {
+            startPartitionDispatchers(dispatcherCount,
+                                      consumerConfig.getIntProperty(KafkaOpenMetadataEventConsumerProperty.MAX_QUEUE_SIZE));
+        }
+
         consumerThread.start();
 
-        producer = new KafkaOpenMetadataEventProducer(topicName, serverId, producerProperties, this, auditLog);
+        producer = newProducer();
         producerThread = new Thread(producer, threadHeader + "Producer-" + topicName);
         executor = new KafkaProducerExecutor();
         executor.execute(producerThread);
@@ -229,7 +306,67 @@ public class KafkaOpenMetadataTopicConnector extends OpenMetadataTopicConnector
 
 
     /**
-     * Sends the supplied event to the topic.
+     * Start the threads that pass received events to the listeners.  Each thread has a bounded queue so
+     * the consumer waits rather than filling the heap if the events for one partition are received faster
+     * than they are processed.
+     *
+     * @param dispatcherCount number of threads
+     * @param queueCapacity maximum number of events queued for each thread
+     */
+    void startPartitionDispatchers(int dispatcherCount,
+                                   int queueCapacity)
+    {
+        dispatching = true;
+
+        for (int i = 0; i < dispatcherCount; i++)
+        {
+            PartitionDispatcher dispatcher = new PartitionDispatcher(Math.max(queueCapacity, 1));
+
+            dispatcher.thread = new Thread(dispatcher, threadHeader + "Dispatcher-" + i + "-" + topicName);
+            dispatcher.thread.setDaemon(true);
+            dispatcher.thread.start();
+
+            partitionDispatchers.add(dispatcher);
+        }
+    }
+
+
+    /**
+     * Stop the threads that pass received events to the listeners.  Events still queued for them are
+     * not passed on.
+     */
+    void stopPartitionDispatchers()
+    {
+        dispatching = false;
+
+        for (PartitionDispatcher dispatcher : partitionDispatchers)
+        {
+            dispatcher.thread.interrupt();
+        }
+    }
+
+
+    /**
+     * Create a new producer.  The producer uses the connector's outbound buffer so that the events waiting to be
+     * sent are not lost if the producer is restarted.
+     *
+     * @return producer
+     */
+    private KafkaOpenMetadataEventProducer newProducer()
+    {
+        return new KafkaOpenMetadataEventProducer(topicName,
+                                                  serverId,
+                                                  producerProperties,
+                                                  outboundEvents,
+                                                  outgoingEventBatchSize,
+                                                  this,
+                                                  auditLog);
+    }
+
+
+    /**
+     * Sends the supplied event to the topic.  The event is sent asynchronously.  If the producer's outbound
+     * buffer is full, the caller waits until there is space.
      *
      * @param event object containing the event properties.
      * @throws ConnectorCheckedException the connector is not able to communicate with the event bus
@@ -244,39 +381,83 @@ public class KafkaOpenMetadataTopicConnector extends OpenMetadataTopicConnector
 
 
     /**
-     * Look to see if there is one of more new events to process.
+     * Distribute events to other listeners.  The event is queued for the dispatcher thread that handles its
+     * partition or, if there are no dispatcher threads, for the listener thread managed by
+     * OpenMetadataTopicConnector (superclass).  If the queue is full, the caller waits until there is space.
      *
-     * @return a list of received events or null
+     * @param event object containing the event properties.
+     * @param partition partition that the event was received from.
      */
-    @Override
-    protected List<IncomingEvent> checkForIncomingEvents()
+    void distributeToListeners(IncomingEvent event,
+                               int           partition)
     {
-        List<IncomingEvent> newEvents = null;
+        log.debug("distribute event to listeners" + event);
 
-        // This method is called periodically from a independent thread managed by OpenMetadataTopic
-        // (superclass) so it should not block.
+        unprocessedEventBytes.addAndGet(getEventSize(event));
 
-        if ((incomingEventsList != null) && (!incomingEventsList.isEmpty()))
+        if (partitionDispatchers.isEmpty())
         {
-            log.debug("Checking for events.  Number of found events: {0}", incomingEventsList.size());
-            newEvents = new ArrayList<>(incomingEventsList);
+            super.addIncomingEvent(event);
+            return;
+        }
+
+        BlockingQueue<IncomingEvent> queue = partitionDispatchers.get((partition & Integer.MAX_VALUE) % partitionDispatchers.size()).queue;
 
-            // empty incomingEventsList otherwise same events will be sent again
-            incomingEventsList.removeAll(newEvents);
+        try
+        {
+            while (! queue.offer(event, 1000, TimeUnit.MILLISECONDS))
+            {
+                if (! dispatching)
+                {
+                    log.debug("Event ignored because the partition dispatchers are stopped");
+                    unprocessedEventBytes.addAndGet(- getEventSize(event));
+                    return;
+                }
+            }
         }
+        catch (InterruptedException interrupted)
+        {
+            Thread.currentThread().interrupt();
+            unprocessedEventBytes.addAndGet(- getEventSize(event));
+        }
+    }
+
 
-        return newEvents;
+    /**
+     * Pass an event to the listeners.  Once the listeners have seen the event, it no longer counts towards the
+     * memory used by unprocessed events.
+     *
+     * @param event OMRSEvent to distribute
+     */
+    @Override
+    protected void distributeEvent(IncomingEvent event)
+    {
+        try
+        {
+            super.distributeEvent(event);
+        }
+        finally
+        {
+            unprocessedEventBytes.addAndGet(- getEventSize(event));
+        }
     }
 
+
     /**
-     * Distribute events to other listeners.
+     * Return the memory used by an event.  This is the size of the event's key and value as they were
+     * received from Kafka.
      *
-     * @param event object containing the event properties.
+     * @param event received event
+     * @return number of bytes
      */
-    void distributeToListeners(IncomingEvent event)
+    private long getEventSize(IncomingEvent event)
     {
-        log.debug("distribute event to listeners" + event);
-        incomingEventsList.add(event);
+        if (event instanceof KafkaIncomingEvent)
+        {
+            return ((KafkaIncomingEvent) event).getSerializedSize();
+        }
+
+        return 0;
     }
 
 
@@ -290,19 +471,62 @@ public class KafkaOpenMetadataTopicConnector extends OpenMetadataTopicConnector
         final String           actionDescription = "disconnect";
 
         consumer.safeCloseConsumer();
+        executor.shutdown();
         producer.safeCloseProducer();
 
+        stopPartitionDispatchers();
+
         super.disconnect();
 
         auditLog.logMessage(actionDescription, KafkaOpenMetadataTopicConnectorAuditCode.SERVICE_SHUTDOWN.getMessageDefinition(topicName));
     }
     
     /**
-     * Gets the number of events that have not been processed yet.
+     * Gets the number of events that have not been processed yet.  This includes the events queued for
+     * the partition dispatchers.
      * 
      * @return int
      */
     int getNumberOfUnprocessedEvents() {
-    	return incomingEventsList.size();
+        int unprocessedEvents = super.getNumberOfQueuedEvents();
+
+        for (PartitionDispatcher dispatcher : partitionDispatchers)
+        {
+            unprocessedEvents = unprocessedEvents + dispatcher.queue.size();
+        }
+
+        return unprocessedEvents;
+    }
+
+
+    /**
+     * Gets the memory used by the events that have not been processed yet, wherever they are queued.
+     *
+     * @return number of bytes
+     */
+    long getUnprocessedEventBytes()
+    {
+        return unprocessedEventBytes.get();
+    }
+
+
+    /**
+     * Gets the number of outbound events that have not been sent yet.
+     *
+     * @return int
+     */
+    int getNumberOfUnsentEvents()
+    {
+        if (producer != null)
+        {
+            return producer.getSendBufferSize();
+        }
+
+        if (outboundEvents != null)
+        {
+            return outboundEvents.size();
+        }
+
+        return 0;
     }
 }
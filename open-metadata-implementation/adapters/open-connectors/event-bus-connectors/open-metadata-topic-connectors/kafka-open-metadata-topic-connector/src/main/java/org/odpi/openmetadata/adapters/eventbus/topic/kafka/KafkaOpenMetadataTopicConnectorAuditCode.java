@@ -100,7 +100,14 @@ public enum KafkaOpenMetadataTopicConnectorAuditCode implements AuditLogMessageS
              OMRSAuditLogRecordSeverity.ERROR,
              "Property {0} is missing from the Kafka Event Bus configuration",
              "The system is unable to connect to the event bus.",
-             "Add the missing property to the event bus properties in the server configuration.")
+             "Add the missing property to the event bus properties in the server configuration."),
+
+    EVENT_DISCARDED("OCF-KAFKA-TOPIC-CONNECTOR-0014",
+             OMRSAuditLogRecordSeverity.ERROR,
+             "An event for topic {0} has been discarded after {1} attempts to send it.  The latest error message is {2}",
+             "The Apache Kafka event bus did not accept the event.  The event is logged with this message.",
+             "Review the error message and the operational status of Apache Kafka.  Other members of the cohort " +
+                                     "will not receive this event so it may be necessary to refresh the affected metadata.")
 
     ;
 
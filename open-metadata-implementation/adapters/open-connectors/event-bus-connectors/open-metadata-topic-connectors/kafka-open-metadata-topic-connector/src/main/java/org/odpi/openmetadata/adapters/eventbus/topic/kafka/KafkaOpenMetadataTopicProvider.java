@@ -22,6 +22,8 @@ public class KafkaOpenMetadataTopicProvider extends OpenMetadataTopicProvider
     public static final String  consumerPropertyName = "consumer";
     public static final String  egeriaConsumerPropertyName = "egeria_kafka_consumer";
     public static final String  serverIdPropertyName = "local.server.id";
+    public static final String  outgoingEventQueueSizePropertyName = "outgoingEventQueueSize";
+    public static final String  outgoingEventBatchSizePropertyName = "outgoingEventBatchSize";
 
     /**
      * Constructor used to initialize the ConnectorProviderBase with the Java class name of the specific
@@ -46,6 +48,8 @@ public class KafkaOpenMetadataTopicProvider extends OpenMetadataTopicProvider
         recognizedPropertyNames.add(consumerPropertyName);
         recognizedPropertyNames.add(serverIdPropertyName);
         recognizedPropertyNames.add(sleepTimeProperty);
+        recognizedPropertyNames.add(outgoingEventQueueSizePropertyName);
+        recognizedPropertyNames.add(outgoingEventBatchSizePropertyName);
 
         connectorType.setRecognizedConfigurationProperties(recognizedPropertyNames);
 
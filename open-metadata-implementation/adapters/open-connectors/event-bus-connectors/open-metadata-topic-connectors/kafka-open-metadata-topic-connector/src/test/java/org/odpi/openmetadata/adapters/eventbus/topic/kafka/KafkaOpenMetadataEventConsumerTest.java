@@ -0,0 +1,366 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.eventbus.topic.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogDestination;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogRecord;
+import org.odpi.openmetadata.repositoryservices.connectors.openmetadatatopic.OpenMetadataTopicListener;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * KafkaOpenMetadataEventConsumerTest receives events from a mock Kafka consumer and passes them through the
+ * connector's partition dispatchers to a test listener.
+ */
+public class KafkaOpenMetadataEventConsumerTest
+{
+    private static final String topicName      = "TestTopic";
+    private static final String serverId       = "TestServer";
+    private static final String remoteServerId = "RemoteServer";
+
+
+    /**
+     * Listener that records the events it receives and the thread that passed each one.
+     */
+    private static class TestListener implements OpenMetadataTopicListener
+    {
+        private final List<String>   events        = Collections.synchronizedList(new ArrayList<>());
+        private final List<String>   threadNames   = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch firstEventGate;
+
+        TestListener(CountDownLatch firstEventGate)
+        {
+            this.firstEventGate = firstEventGate;
+        }
+
+        @Override
+        public void processEvent(String event)
+        {
+            try
+            {
+                firstEventGate.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            threadNames.add(Thread.currentThread().getName());
+            events.add(event);
+        }
+    }
+
+
+    /**
+     * Mock consumer that records the order of the commits.
+     */
+    private static class CommitRecordingConsumer extends MockConsumer<String, String>
+    {
+        private final List<String> commits      = Collections.synchronizedList(new ArrayList<>());
+        private       boolean      inCommitSync = false;
+
+        CommitRecordingConsumer()
+        {
+            super(OffsetResetStrategy.EARLIEST);
+        }
+
+        @Override
+        public synchronized void commitAsync(Map<TopicPartition, OffsetAndMetadata> offsets, OffsetCommitCallback callback)
+        {
+            /*
+             * MockConsumer.commitSync() is implemented with commitAsync().
+             */
+            if (! inCommitSync)
+            {
+                commits.add("async " + offsets);
+            }
+
+            super.commitAsync(offsets, callback);
+        }
+
+        @Override
+        public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets)
+        {
+            commits.add("sync " + offsets);
+
+            inCommitSync = true;
+            try
+            {
+                super.commitSync(offsets);
+            }
+            finally
+            {
+                inCommitSync = false;
+            }
+        }
+    }
+
+
+    private AuditLog getAuditLog()
+    {
+        return new AuditLog(new AuditLogDestination(null)
+        {
+            @Override
+            public void addLogRecord(AuditLogRecord logRecord)
+            {
+            }
+        }, 0, "Test", "Test", null);
+    }
+
+
+    private KafkaOpenMetadataEventConsumer getConsumer(MockConsumer<String, String>    mockConsumer,
+                                                       KafkaOpenMetadataTopicConnector connector,
+                                                       Properties                      egeriaProperties,
+                                                       boolean                         autoCommit)
+    {
+        Properties kafkaProperties = new Properties();
+
+        kafkaProperties.put("key.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
+        kafkaProperties.put("value.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
+        kafkaProperties.put(KafkaOpenMetadataTopicConnector.ENABLE_AUTO_COMMIT_PROPERTY, Boolean.toString(autoCommit));
+
+        AuditLog auditLog = getAuditLog();
+
+        return new KafkaOpenMetadataEventConsumer(topicName,
+                                                  serverId,
+                                                  new KafkaOpenMetadataEventConsumerConfiguration(egeriaProperties, auditLog),
+                                                  kafkaProperties,
+                                                  mockConsumer,
+                                                  connector,
+                                                  auditLog);
+    }
+
+
+    private void assignPartitions(MockConsumer<String, String> mockConsumer, int partitionCount)
+    {
+        List<TopicPartition> partitions      = new ArrayList<>();
+        Map<TopicPartition, Long> beginnings = new HashMap<>();
+
+        for (int partition = 0; partition < partitionCount; partition++)
+        {
+            TopicPartition topicPartition = new TopicPartition(topicName, partition);
+
+            partitions.add(topicPartition);
+            beginnings.put(topicPartition, 0L);
+        }
+
+        mockConsumer.rebalance(partitions);
+        mockConsumer.updateBeginningOffsets(beginnings);
+    }
+
+
+    private ConsumerRecord<String, String> getRecord(int partition, long offset, int valueSize)
+    {
+        return new ConsumerRecord<>(topicName, partition, offset, 0L, TimestampType.CREATE_TIME, 0L,
+                                    remoteServerId.length(), valueSize, remoteServerId, partition + ":" + offset);
+    }
+
+
+    private void waitFor(List<String> events, int eventCount) throws InterruptedException
+    {
+        for (int i = 0; (i < 100) && (events.size() < eventCount); i++)
+        {
+            Thread.sleep(100);
+        }
+    }
+
+
+    @Test public void testPartitionEventsPassedInOrderByOneThread() throws Exception
+    {
+        final int partitionCount = 4;
+        final int eventCount     = 10;
+
+        MockConsumer<String, String>    mockConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        KafkaOpenMetadataTopicConnector connector    = new KafkaOpenMetadataTopicConnector();
+        TestListener                    listener     = new TestListener(new CountDownLatch(0));
+
+        connector.registerListener(listener);
+        connector.startPartitionDispatchers(2, 5);
+
+        KafkaOpenMetadataEventConsumer consumer       = getConsumer(mockConsumer, connector, new Properties(), true);
+        Thread                         consumerThread = new Thread(consumer);
+
+        assignPartitions(mockConsumer, partitionCount);
+
+        for (int offset = 0; offset < eventCount; offset++)
+        {
+            for (int partition = 0; partition < partitionCount; partition++)
+            {
+                mockConsumer.addRecord(getRecord(partition, offset, 100));
+            }
+        }
+
+        consumerThread.start();
+
+        waitFor(listener.events, partitionCount * eventCount);
+
+        consumer.safeCloseConsumer();
+        consumerThread.join(10000);
+        connector.stopPartitionDispatchers();
+
+        assertEquals(listener.events.size(), partitionCount * eventCount);
+
+        Map<Integer, List<Long>>  offsetsByPartition = new HashMap<>();
+        Map<Integer, String>      threadByPartition  = new HashMap<>();
+
+        for (int i = 0; i < listener.events.size(); i++)
+        {
+            String[] event      = listener.events.get(i).split(":");
+            int      partition  = Integer.parseInt(event[0]);
+            String   threadName = listener.threadNames.get(i);
+
+            offsetsByPartition.computeIfAbsent(partition, newPartition -> new ArrayList<>()).add(Long.parseLong(event[1]));
+            assertEquals(threadByPartition.computeIfAbsent(partition, newPartition -> threadName), threadName);
+            assertNotEquals(threadName, consumerThread.getName());
+        }
+
+        for (int partition = 0; partition < partitionCount; partition++)
+        {
+            List<Long> expectedOffsets = new ArrayList<>();
+
+            for (long offset = 0; offset < eventCount; offset++)
+            {
+                expectedOffsets.add(offset);
+            }
+
+            assertEquals(offsetsByPartition.get(partition), expectedOffsets);
+        }
+
+        /*
+         * Partitions are shared between the two dispatchers.
+         */
+        assertEquals(threadByPartition.get(0), threadByPartition.get(2));
+        assertEquals(threadByPartition.get(1), threadByPartition.get(3));
+        assertNotEquals(threadByPartition.get(0), threadByPartition.get(1));
+    }
+
+
+    @Test public void testFetchingPausedWhileUnprocessedBytesOverLimit() throws Exception
+    {
+        MockConsumer<String, String>    mockConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        KafkaOpenMetadataTopicConnector connector    = new KafkaOpenMetadataTopicConnector();
+        CountDownLatch                  gate         = new CountDownLatch(1);
+        TestListener                    listener     = new TestListener(gate);
+        Properties                      properties   = new Properties();
+
+        properties.put(KafkaOpenMetadataEventConsumerProperty.MAX_QUEUE_BYTES.getPropertyName(), "1000");
+
+        connector.registerListener(listener);
+        connector.startPartitionDispatchers(1, 100);
+
+        KafkaOpenMetadataEventConsumer consumer       = getConsumer(mockConsumer, connector, properties, true);
+        Thread                         consumerThread = new Thread(consumer);
+
+        assignPartitions(mockConsumer, 1);
+
+        mockConsumer.addRecord(getRecord(0, 0, 600));
+        mockConsumer.addRecord(getRecord(0, 1, 600));
+
+        consumerThread.start();
+
+        /*
+         * The listener holds on to the first event so the two received events stay over the byte limit.
+         */
+        for (int i = 0; (i < 100) && (mockConsumer.paused().isEmpty()); i++)
+        {
+            Thread.sleep(100);
+        }
+
+        assertEquals(mockConsumer.paused(), Collections.singleton(new TopicPartition(topicName, 0)));
+        assertTrue(connector.getUnprocessedEventBytes() > 1000);
+
+        mockConsumer.addRecord(getRecord(0, 2, 600));
+        Thread.sleep(500);
+
+        assertTrue(listener.events.isEmpty());
+        assertEquals(connector.getNumberOfUnprocessedEvents(), 1);
+
+        gate.countDown();
+
+        waitFor(listener.events, 3);
+
+        consumer.safeCloseConsumer();
+        consumerThread.join(10000);
+        connector.stopPartitionDispatchers();
+
+        assertEquals(listener.events, Arrays.asList("0:0", "0:1", "0:2"));
+        assertTrue(mockConsumer.paused().isEmpty());
+        assertEquals(connector.getUnprocessedEventBytes(), 0);
+    }
+
+
+    @Test public void testOffsetsCommittedAsynchronouslyThenSynchronouslyOnShutdown() throws Exception
+    {
+        CommitRecordingConsumer         mockConsumer = new CommitRecordingConsumer();
+        KafkaOpenMetadataTopicConnector connector    = new KafkaOpenMetadataTopicConnector();
+        TestListener                    listener     = new TestListener(new CountDownLatch(0));
+        Properties                      properties   = new Properties();
+
+        properties.put(KafkaOpenMetadataEventConsumerProperty.COMMIT_CHECK_INTERVAL_MS.getPropertyName(), "100");
+
+        connector.registerListener(listener);
+        connector.startPartitionDispatchers(1, 100);
+
+        KafkaOpenMetadataEventConsumer consumer       = getConsumer(mockConsumer, connector, properties, false);
+        Thread                         consumerThread = new Thread(consumer);
+
+        assignPartitions(mockConsumer, 1);
+
+        for (int offset = 0; offset < 3; offset++)
+        {
+            mockConsumer.addRecord(getRecord(0, offset, 100));
+        }
+
+        consumerThread.start();
+
+        waitFor(listener.events, 3);
+
+        for (int i = 0; (i < 100) && (mockConsumer.commits.isEmpty()); i++)
+        {
+            Thread.sleep(100);
+        }
+
+        consumer.safeCloseConsumer();
+        consumerThread.join(10000);
+        connector.stopPartitionDispatchers();
+
+        TopicPartition partition       = new TopicPartition(topicName, 0);
+        String         expectedOffsets = Collections.singletonMap(partition, new OffsetAndMetadata(3)).toString();
+
+        /*
+         * The events may be committed in more than one asynchronous commit, but the last of these covers every
+         * event and is followed by the synchronous commit on shutdown.
+         */
+        List<String> commits = mockConsumer.commits;
+
+        assertTrue(commits.size() >= 2);
+        for (int i = 0; i < commits.size() - 1; i++)
+        {
+            assertTrue(commits.get(i).startsWith("async "));
+        }
+        assertEquals(commits.get(commits.size() - 2), "async " + expectedOffsets);
+        assertEquals(commits.get(commits.size() - 1), "sync " + expectedOffsets);
+        assertTrue(mockConsumer.closed());
+    }
+}
@@ -0,0 +1,167 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.eventbus.topic.kafka;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogDestination;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogRecord;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * KafkaOpenMetadataEventProducerTest sends events through the producer to a mock Kafka producer.
+ */
+public class KafkaOpenMetadataEventProducerTest
+{
+    private static final String topicName = "TestTopic";
+    private static final String serverId  = "TestServer";
+
+
+    private AuditLog getAuditLog()
+    {
+        return new AuditLog(new AuditLogDestination(null)
+        {
+            @Override
+            public void addLogRecord(AuditLogRecord logRecord)
+            {
+            }
+        }, 0, "Test", "Test", null);
+    }
+
+
+    @Test public void testEventsSentInOrder() throws Exception
+    {
+        final int eventCount = 1000;
+
+        MockProducer<String, String>   mockProducer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+        KafkaOpenMetadataEventProducer producer     = new KafkaOpenMetadataEventProducer(topicName,
+                                                                                         serverId,
+                                                                                         mockProducer,
+                                                                                         new LinkedBlockingQueue<>(10),
+                                                                                         5,
+                                                                                         getAuditLog());
+        Thread                         producerThread = new Thread(producer);
+
+        producerThread.start();
+
+        /*
+         * The buffer only holds 10 events so the sender waits for the producer thread many times.
+         */
+        for (int i = 0; i < eventCount; i++)
+        {
+            producer.sendEvent("Event " + i);
+        }
+
+        for (int i = 0; (i < 100) && (producer.getSendBufferSize() > 0); i++)
+        {
+            Thread.sleep(100);
+        }
+
+        producer.safeCloseProducer();
+        producerThread.join(10000);
+
+        List<ProducerRecord<String, String>> sentRecords = mockProducer.history();
+
+        assertEquals(sentRecords.size(), eventCount);
+        assertEquals(producer.getMessageSendCount(), eventCount);
+        assertEquals(producer.getSendBufferSize(), 0);
+
+        for (int i = 0; i < eventCount; i++)
+        {
+            assertEquals(sentRecords.get(i).value(), "Event " + i);
+            assertEquals(sentRecords.get(i).key(), serverId);
+            assertEquals(sentRecords.get(i).topic(), topicName);
+        }
+    }
+
+
+    @Test public void testFailedEventResentBeforeLaterEvents() throws Exception
+    {
+        MockProducer<String, String>   mockProducer = new MockProducer<>(false, new StringSerializer(), new StringSerializer());
+        KafkaOpenMetadataEventProducer producer     = new KafkaOpenMetadataEventProducer(topicName,
+                                                                                         serverId,
+                                                                                         mockProducer,
+                                                                                         new LinkedBlockingQueue<>(10),
+                                                                                         10,
+                                                                                         getAuditLog())
+        {
+            @Override
+            protected void recoverAfterError()
+            {
+                // no need to wait for the mock producer to recover
+            }
+        };
+        Thread                         producerThread = new Thread(producer);
+
+        producerThread.start();
+
+        for (int i = 0; i < 5; i++)
+        {
+            producer.sendEvent("Event " + i);
+        }
+
+        for (int i = 0; (i < 100) && (mockProducer.history().size() < 5); i++)
+        {
+            Thread.sleep(100);
+        }
+
+        assertEquals(mockProducer.history().size(), 5);
+
+        /*
+         * The second event fails after the first is acknowledged.  The third is acknowledged after the failure.
+         */
+        mockProducer.completeNext();
+        mockProducer.errorNext(new TimeoutException("Test failure"));
+        mockProducer.completeNext();
+
+        for (int i = 5; i < 10; i++)
+        {
+            producer.sendEvent("Event " + i);
+        }
+
+        for (int i = 0; (i < 100) && (producer.getSendBufferSize() > 0); i++)
+        {
+            mockProducer.completeNext();
+            Thread.sleep(100);
+        }
+
+        producer.safeCloseProducer();
+        producerThread.join(10000);
+
+        assertEquals(producer.getSendBufferSize(), 0);
+        assertEquals(producer.getMessageSendCount(), 10);
+
+        /*
+         * Every event after the failed event is sent again after it, so the events that follow the original
+         * send of the failed event are in order.
+         */
+        List<String> sentEvents = new ArrayList<>();
+
+        for (ProducerRecord<String, String> sentRecord : mockProducer.history())
+        {
+            sentEvents.add(sentRecord.value());
+        }
+
+        List<String> expectedEvents = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++)
+        {
+            expectedEvents.add("Event " + i);
+        }
+        for (int i = 1; i < 10; i++)
+        {
+            expectedEvents.add("Event " + i);
+        }
+
+        assertEquals(sentEvents, expectedEvents);
+    }
+}
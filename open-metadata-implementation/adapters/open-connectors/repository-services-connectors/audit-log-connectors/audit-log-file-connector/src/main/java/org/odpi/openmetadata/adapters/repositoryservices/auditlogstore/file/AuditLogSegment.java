@@ -0,0 +1,442 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.repositoryservices.auditlogstore.file;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogRecord;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * AuditLogSegment manages one segment file of the file based audit log store.  A segment is an append-only file
+ * of audit log records, one JSON record per line.  New records are added to a buffer that is written to the
+ * file when it fills or when the segment is flushed.  The segment's AuditLogSegmentIndex is maintained as records
+ * are added and is saved in an index file when the segment is closed.  A segment whose index file is missing or
+ * out of date (for example, because the server stopped without closing the segment) is re-indexed by reading it.
+ * Records are stored in the Audit Log Framework's format since the deprecated OMRS fields of the record can be
+ * rebuilt from it.
+ */
+class AuditLogSegment
+{
+    static final String SEGMENT_FILE_PREFIX = "audit-log-segment-";
+    static final String SEGMENT_FILE_SUFFIX = ".log";
+    static final String INDEX_FILE_SUFFIX   = ".idx";
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogSegment.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectReader recordReader = objectMapper.readerFor(AuditLogRecord.class);
+    private static final ObjectWriter recordWriter = objectMapper.writerFor(AuditLogRecord.class);
+    private static final ObjectReader indexReader  = objectMapper.readerFor(AuditLogSegmentIndex.class);
+    private static final ObjectWriter indexWriter  = objectMapper.writerFor(AuditLogSegmentIndex.class);
+
+    private static final int writeBufferSize = 65536;
+
+    private final File                 segmentFile;
+    private final File                 indexFile;
+    private final long                 creationTime;
+    private final int                  indexInterval;
+    private       AuditLogSegmentIndex index;
+    private       OutputStream         segmentOutputStream = null;
+    private       long                 flushedSize         = 0;
+
+
+    /**
+     * Consumer of the records read from a segment.
+     */
+    interface RecordConsumer
+    {
+        /**
+         * Process a record.
+         *
+         * @param logRecord record read from the segment
+         * @return false to stop reading
+         */
+        boolean accept(OMRSAuditLogRecord logRecord);
+    }
+
+
+    /**
+     * Create a new, empty segment.
+     *
+     * @param directory directory for the segment's files
+     * @param creationTime time the segment was created - this is used in the file name so the segments sort
+     *                     in the order they were created
+     * @param indexInterval number of records between the entries in the sparse time index
+     */
+    AuditLogSegment(File directory,
+                    long creationTime,
+                    int  indexInterval)
+    {
+        String baseName = SEGMENT_FILE_PREFIX + String.format("%020d", creationTime);
+
+        this.segmentFile = new File(directory, baseName + SEGMENT_FILE_SUFFIX);
+        this.indexFile = new File(directory, baseName + INDEX_FILE_SUFFIX);
+        this.creationTime = creationTime;
+        this.indexInterval = indexInterval;
+        this.index = new AuditLogSegmentIndex();
+    }
+
+
+    /**
+     * Open an existing segment for reading.  The index is loaded from the index file or, if it does not match
+     * the segment file, rebuilt by reading the segment file.
+     *
+     * @param segmentFile existing segment file
+     * @param indexInterval number of records between the entries in the sparse time index
+     * @throws IOException the segment could not be read
+     */
+    AuditLogSegment(File segmentFile,
+                    int  indexInterval) throws IOException
+    {
+        String fileName = segmentFile.getName();
+        String baseName = fileName.substring(0, fileName.length() - SEGMENT_FILE_SUFFIX.length());
+
+        this.segmentFile = segmentFile;
+        this.indexFile = new File(segmentFile.getParentFile(), baseName + INDEX_FILE_SUFFIX);
+        this.creationTime = Long.parseLong(baseName.substring(SEGMENT_FILE_PREFIX.length()));
+        this.indexInterval = indexInterval;
+        this.flushedSize = segmentFile.length();
+
+        if (indexFile.exists())
+        {
+            try
+            {
+                this.index = indexReader.readValue(indexFile);
+            }
+            catch (IOException error)
+            {
+                log.debug("Unable to read audit log segment index " + indexFile.getName(), error);
+            }
+        }
+
+        if ((index == null) || (index.getSegmentSize() != flushedSize))
+        {
+            log.debug("Rebuilding audit log segment index " + indexFile.getName());
+            this.rebuildIndex();
+        }
+    }
+
+
+    /**
+     * Rebuild the index by reading the segment file.
+     *
+     * @throws IOException the segment could not be read
+     */
+    private void rebuildIndex() throws IOException
+    {
+        AuditLogSegmentIndex newIndex = new AuditLogSegmentIndex();
+        long                 offset   = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(segmentFile), StandardCharsets.UTF_8)))
+        {
+            String line;
+
+            while ((line = reader.readLine()) != null)
+            {
+                long recordSize = line.getBytes(StandardCharsets.UTF_8).length + 1;
+
+                try
+                {
+                    OMRSAuditLogRecord logRecord = readRecord(line);
+
+                    newIndex.addRecord(offset,
+                                       recordSize,
+                                       getTimeStamp(logRecord),
+                                       logRecord.getSeverity(),
+                                       getComponentName(logRecord),
+                                       indexInterval);
+                }
+                catch (IOException error)
+                {
+                    log.debug("Skipping unreadable audit log record in " + segmentFile.getName(), error);
+                }
+
+                offset = offset + recordSize;
+            }
+        }
+
+        newIndex.setSegmentSize(flushedSize);
+        this.index = newIndex;
+        this.writeIndex();
+    }
+
+
+    /**
+     * Add a record to the end of the segment.  The record is buffered until the segment is flushed.
+     *
+     * @param logRecord record to add
+     * @throws IOException the record could not be written
+     */
+    synchronized void addRecord(OMRSAuditLogRecord logRecord) throws IOException
+    {
+        byte[] recordBytes = (recordWriter.writeValueAsString(logRecord) + "\n").getBytes(StandardCharsets.UTF_8);
+
+        if (segmentOutputStream == null)
+        {
+            segmentOutputStream = new BufferedOutputStream(new FileOutputStream(segmentFile, true), writeBufferSize);
+        }
+
+        long offset = index.getSegmentSize();
+
+        segmentOutputStream.write(recordBytes);
+
+        index.addRecord(offset,
+                        recordBytes.length,
+                        getTimeStamp(logRecord),
+                        logRecord.getSeverity(),
+                        getComponentName(logRecord),
+                        indexInterval);
+    }
+
+
+    /**
+     * Write any buffered records to the segment file.
+     *
+     * @throws IOException the records could not be written
+     */
+    synchronized void flush() throws IOException
+    {
+        if (segmentOutputStream != null)
+        {
+            segmentOutputStream.flush();
+            flushedSize = index.getSegmentSize();
+        }
+    }
+
+
+    /**
+     * Write any buffered records, close the segment file and save the index.  No more records can be added.
+     *
+     * @throws IOException the segment could not be closed
+     */
+    synchronized void close() throws IOException
+    {
+        if (segmentOutputStream != null)
+        {
+            this.flush();
+            segmentOutputStream.close();
+            segmentOutputStream = null;
+
+            this.writeIndex();
+        }
+    }
+
+
+    /**
+     * Save the index in the index file.
+     *
+     * @throws IOException the index could not be written
+     */
+    private void writeIndex() throws IOException
+    {
+        indexWriter.writeValue(indexFile, index);
+    }
+
+
+    /**
+     * Delete the segment's files.
+     */
+    void delete()
+    {
+        if (! segmentFile.delete())
+        {
+            log.debug("Unable to delete audit log segment " + segmentFile.getName());
+        }
+
+        if ((indexFile.exists()) && (! indexFile.delete()))
+        {
+            log.debug("Unable to delete audit log segment index " + indexFile.getName());
+        }
+    }
+
+
+    /**
+     * Read the records in the segment that may be from a time period, in the order they were written.  Only the
+     * records that have been flushed are read.  The caller must check the time stamp of each record.
+     *
+     * @param startTime start of time period
+     * @param endTime end of time period
+     * @param severity severity of the requested records - null for any - used to skip the segment
+     * @param component component of the requested records - null for any - used to skip the segment
+     * @param recordConsumer consumer of the records
+     * @return false if the consumer stopped the read
+     * @throws IOException the segment could not be read
+     */
+    boolean readRecords(long           startTime,
+                        long           endTime,
+                        String         severity,
+                        String         component,
+                        RecordConsumer recordConsumer) throws IOException
+    {
+        long startOffset;
+        long endOffset;
+
+        synchronized (this)
+        {
+            if (! index.mayMatch(startTime, endTime, severity, component))
+            {
+                return true;
+            }
+
+            startOffset = index.getStartOffset(startTime);
+            endOffset = flushedSize;
+        }
+
+        return this.readRecords(startOffset, endOffset, null, recordConsumer);
+    }
+
+
+    /**
+     * Read the records in the segment.  Lines that do not contain the filter string are skipped without
+     * parsing them.
+     *
+     * @param startOffset byte offset of the first record
+     * @param endOffset byte offset after the last record
+     * @param lineFilter string that must be present in the record - null for all records
+     * @param recordConsumer consumer of the records
+     * @return false if the consumer stopped the read
+     * @throws IOException the segment could not be read
+     */
+    boolean readRecords(long           startOffset,
+                        long           endOffset,
+                        String         lineFilter,
+                        RecordConsumer recordConsumer) throws IOException
+    {
+        try (FileInputStream inputStream = new FileInputStream(segmentFile))
+        {
+            long offset = inputStream.skip(startOffset);
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            String         line;
+
+            while ((offset < endOffset) && ((line = reader.readLine()) != null))
+            {
+                offset = offset + line.getBytes(StandardCharsets.UTF_8).length + 1;
+
+                if ((lineFilter == null) || (line.contains(lineFilter)))
+                {
+                    try
+                    {
+                        if (! recordConsumer.accept(readRecord(line)))
+                        {
+                            return false;
+                        }
+                    }
+                    catch (IOException error)
+                    {
+                        log.debug("Skipping unreadable audit log record in " + segmentFile.getName(), error);
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Parse a record from a line of the segment file.
+     *
+     * @param line JSON record
+     * @return record
+     * @throws IOException the line is not a valid record
+     */
+    private OMRSAuditLogRecord readRecord(String line) throws IOException
+    {
+        AuditLogRecord logRecord = recordReader.readValue(line);
+
+        return new OMRSAuditLogRecord(logRecord);
+    }
+
+
+    /**
+     * Return the number of bytes that have been flushed to the segment file.
+     *
+     * @return byte offset
+     */
+    synchronized long getFlushedSize()
+    {
+        return flushedSize;
+    }
+
+
+    /**
+     * Return the number of bytes written to the segment, including buffered records.
+     *
+     * @return number of bytes
+     */
+    synchronized long getSize()
+    {
+        return index.getSegmentSize();
+    }
+
+
+    /**
+     * Return the time the segment was created.
+     *
+     * @return milliseconds since the epoch
+     */
+    long getCreationTime()
+    {
+        return creationTime;
+    }
+
+
+    /**
+     * Return the latest time stamp of the records in the segment.
+     *
+     * @return milliseconds since the epoch
+     */
+    synchronized long getMaxTimeStamp()
+    {
+        return index.getMaxTimeStamp();
+    }
+
+
+    /**
+     * Return the time stamp of a record.
+     *
+     * @param logRecord record
+     * @return milliseconds since the epoch
+     */
+    static long getTimeStamp(OMRSAuditLogRecord logRecord)
+    {
+        if (logRecord.getTimeStamp() == null)
+        {
+            return 0;
+        }
+
+        return logRecord.getTimeStamp().getTime();
+    }
+
+
+    /**
+     * Return the name of the component that wrote a record.
+     *
+     * @param logRecord record
+     * @return component name or null
+     */
+    static String getComponentName(OMRSAuditLogRecord logRecord)
+    {
+        if (logRecord.getOriginatorComponent() == null)
+        {
+            return null;
+        }
+
+        return logRecord.getOriginatorComponent().getComponentName();
+    }
+}
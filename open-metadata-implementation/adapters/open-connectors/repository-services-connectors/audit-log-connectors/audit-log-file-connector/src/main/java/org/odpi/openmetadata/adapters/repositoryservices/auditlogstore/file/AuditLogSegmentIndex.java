@@ -0,0 +1,314 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.repositoryservices.auditlogstore.file;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * AuditLogSegmentIndex summarizes the contents of an audit log segment file.  It records the range of time stamps,
+ * the severities and the components of the records in the segment so that queries can skip segments that
+ * do not contain matching records.  It also holds a sparse time index: at regular intervals, the byte offset
+ * of a record is stored along with the latest time stamp of the records before it.  A query for a time period
+ * starts reading at the last of these offsets whose preceding records are all earlier than the period.
+ * The index is written alongside the segment file when the segment is closed.
+ */
+@JsonAutoDetect(getterVisibility=PUBLIC_ONLY, setterVisibility=PUBLIC_ONLY, fieldVisibility=NONE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown=true)
+class AuditLogSegmentIndex
+{
+    private long        segmentSize     = 0;
+    private long        recordCount     = 0;
+    private long        minTimeStamp    = Long.MAX_VALUE;
+    private long        maxTimeStamp    = Long.MIN_VALUE;
+    private Set<String> severities      = new HashSet<>();
+    private Set<String> components      = new HashSet<>();
+    private List<Long>  indexOffsets    = new ArrayList<>();
+    private List<Long>  indexTimeStamps = new ArrayList<>();
+
+
+    /**
+     * Default constructor
+     */
+    AuditLogSegmentIndex()
+    {
+    }
+
+
+    /**
+     * Add the details of a record that is about to be written at the end of the segment.
+     *
+     * @param offset byte offset of the record in the segment file
+     * @param recordSize number of bytes in the record
+     * @param timeStamp time stamp of the record
+     * @param severity severity of the record
+     * @param component name of the component that wrote the record
+     * @param indexInterval number of records between the entries in the sparse time index
+     */
+    void addRecord(long   offset,
+                   long   recordSize,
+                   long   timeStamp,
+                   String severity,
+                   String component,
+                   int    indexInterval)
+    {
+        if (recordCount % indexInterval == 0)
+        {
+            indexOffsets.add(offset);
+            indexTimeStamps.add(maxTimeStamp);
+        }
+
+        segmentSize = offset + recordSize;
+        recordCount++;
+        minTimeStamp = Math.min(minTimeStamp, timeStamp);
+        maxTimeStamp = Math.max(maxTimeStamp, timeStamp);
+
+        if (severity != null)
+        {
+            severities.add(severity);
+        }
+
+        if (component != null)
+        {
+            components.add(component);
+        }
+    }
+
+
+    /**
+     * Return whether the segment may hold records that match a query.
+     *
+     * @param startTime start of time period
+     * @param endTime end of time period
+     * @param severity severity of the requested records - null for any
+     * @param component component of the requested records - null for any
+     * @return false if the segment has no matching records
+     */
+    boolean mayMatch(long   startTime,
+                     long   endTime,
+                     String severity,
+                     String component)
+    {
+        if ((recordCount == 0) || (maxTimeStamp < startTime) || (minTimeStamp > endTime))
+        {
+            return false;
+        }
+
+        if ((severity != null) && (! severities.contains(severity)))
+        {
+            return false;
+        }
+
+        return (component == null) || (components.contains(component));
+    }
+
+
+    /**
+     * Return the byte offset to start reading from to find the records from a time period.
+     *
+     * @param startTime start of time period
+     * @return byte offset
+     */
+    long getStartOffset(long startTime)
+    {
+        long startOffset = 0;
+
+        for (int i = 0; i < indexOffsets.size(); i++)
+        {
+            if (indexTimeStamps.get(i) >= startTime)
+            {
+                break;
+            }
+
+            startOffset = indexOffsets.get(i);
+        }
+
+        return startOffset;
+    }
+
+
+    /**
+     * Return the number of bytes in the segment file.
+     *
+     * @return number of bytes
+     */
+    public long getSegmentSize()
+    {
+        return segmentSize;
+    }
+
+
+    /**
+     * Set up the number of bytes in the segment file.
+     *
+     * @param segmentSize number of bytes
+     */
+    public void setSegmentSize(long segmentSize)
+    {
+        this.segmentSize = segmentSize;
+    }
+
+
+    /**
+     * Return the number of records in the segment.
+     *
+     * @return count of records
+     */
+    public long getRecordCount()
+    {
+        return recordCount;
+    }
+
+
+    /**
+     * Set up the number of records in the segment.
+     *
+     * @param recordCount count of records
+     */
+    public void setRecordCount(long recordCount)
+    {
+        this.recordCount = recordCount;
+    }
+
+
+    /**
+     * Return the earliest time stamp of the records in the segment.
+     *
+     * @return milliseconds since the epoch
+     */
+    public long getMinTimeStamp()
+    {
+        return minTimeStamp;
+    }
+
+
+    /**
+     * Set up the earliest time stamp of the records in the segment.
+     *
+     * @param minTimeStamp milliseconds since the epoch
+     */
+    public void setMinTimeStamp(long minTimeStamp)
+    {
+        this.minTimeStamp = minTimeStamp;
+    }
+
+
+    /**
+     * Return the latest time stamp of the records in the segment.
+     *
+     * @return milliseconds since the epoch
+     */
+    public long getMaxTimeStamp()
+    {
+        return maxTimeStamp;
+    }
+
+
+    /**
+     * Set up the latest time stamp of the records in the segment.
+     *
+     * @param maxTimeStamp milliseconds since the epoch
+     */
+    public void setMaxTimeStamp(long maxTimeStamp)
+    {
+        this.maxTimeStamp = maxTimeStamp;
+    }
+
+
+    /**
+     * Return the severities of the records in the segment.
+     *
+     * @return set of severity names
+     */
+    public Set<String> getSeverities()
+    {
+        return severities;
+    }
+
+
+    /**
+     * Set up the severities of the records in the segment.
+     *
+     * @param severities set of severity names
+     */
+    public void setSeverities(Set<String> severities)
+    {
+        this.severities = severities;
+    }
+
+
+    /**
+     * Return the names of the components that wrote the records in the segment.
+     *
+     * @return set of component names
+     */
+    public Set<String> getComponents()
+    {
+        return components;
+    }
+
+
+    /**
+     * Set up the names of the components that wrote the records in the segment.
+     *
+     * @param components set of component names
+     */
+    public void setComponents(Set<String> components)
+    {
+        this.components = components;
+    }
+
+
+    /**
+     * Return the byte offsets of the records in the sparse time index.
+     *
+     * @return list of offsets
+     */
+    public List<Long> getIndexOffsets()
+    {
+        return indexOffsets;
+    }
+
+
+    /**
+     * Set up the byte offsets of the records in the sparse time index.
+     *
+     * @param indexOffsets list of offsets
+     */
+    public void setIndexOffsets(List<Long> indexOffsets)
+    {
+        this.indexOffsets = indexOffsets;
+    }
+
+
+    /**
+     * Return the latest time stamp of the records before each offset in the sparse time index.
+     *
+     * @return list of time stamps
+     */
+    public List<Long> getIndexTimeStamps()
+    {
+        return indexTimeStamps;
+    }
+
+
+    /**
+     * Set up the latest time stamp of the records before each offset in the sparse time index.
+     *
+     * @param indexTimeStamps list of time stamps
+     */
+    public void setIndexTimeStamps(List<Long> indexTimeStamps)
+    {
+        this.indexTimeStamps = indexTimeStamps;
+    }
+}
@@ -2,9 +2,9 @@
 /* Copyright Contributors to the ODPi Egeria project. */
 package org.odpi.openmetadata.adapters.repositoryservices.auditlogstore.file;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.io.FileUtils;
 import org.odpi.openmetadata.frameworks.connectors.properties.EndpointProperties;
+import org.odpi.openmetadata.repositoryservices.ffdc.OMRSErrorCode;
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.RepositoryErrorException;
 import org.odpi.openmetadata.frameworks.connectors.ffdc.ConnectorCheckedException;
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.InvalidParameterException;
@@ -16,22 +16,53 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * FileBasedAuditLogStoreConnector provides a connector implementation for a file based audit log.
- * The audit log is stored in a directory and each audit log record is stored as a file with a filename build
- * from the record's unique identifier (guid).
+ * The audit log is stored in a directory as a series of append-only segment files.  Each segment holds many
+ * audit log records, one JSON record per line.  A new segment is started when the current one reaches
+ * maxSegmentBytes or is maxSegmentAgeMinutes old.  Records are buffered and written to the segment in groups -
+ * the buffer is flushed every flushIntervalMs milliseconds, before a query and when the connector disconnects.
+ * <p>
+ * Each segment has an index (see AuditLogSegmentIndex) that lets the queries skip segments that have no
+ * matching records and seek to the start of a time period within a segment.  If retentionPeriodHours is set,
+ * segments whose records are all older than the retention period are deleted when a new segment is started.
+ * The indexes do not hold the GUIDs of the records, so retrieving a record by GUID reads every segment.
+ * </p>
  */
 public class FileBasedAuditLogStoreConnector extends OMRSAuditLogStoreConnectorBase
 {
     private static final String defaultDirectoryTemplate = "omag.server.auditlog";
 
+    static final String maxSegmentBytesProperty      = "maxSegmentBytes";
+    static final String maxSegmentAgeMinutesProperty = "maxSegmentAgeMinutes";
+    static final String retentionPeriodHoursProperty = "retentionPeriodHours";
+    static final String flushIntervalMsProperty      = "flushIntervalMs";
+    static final String indexIntervalProperty        = "indexInterval";
+
     private static final Logger log = LoggerFactory.getLogger(FileBasedAuditLogStoreConnector.class);
 
     private String configStoreTemplateName  = null;
 
+    private long   maxSegmentBytes      = 64L * 1024 * 1024;
+    private long   maxSegmentAgeMinutes = 60;
+    private long   retentionPeriodHours = 0;
+    private long   flushIntervalMs      = 1000;
+    private int    indexInterval        = 1000;
+
+    private final List<AuditLogSegment> segments       = new ArrayList<>();
+    private       AuditLogSegment       currentSegment = null;
+    private       ScheduledExecutorService flushTimer  = null;
+
 
     /**
      * Default constructor used by the connector provider.
@@ -42,7 +73,7 @@ public class FileBasedAuditLogStoreConnector extends OMRSAuditLogStoreConnectorB
 
 
     /**
-     * Set up the name of the file store
+     * Set up the name of the file store, load the indexes of the existing segments and start the flush timer.
      *
      * @throws ConnectorCheckedException something went wrong
      */
@@ -63,21 +94,85 @@ public class FileBasedAuditLogStoreConnector extends OMRSAuditLogStoreConnectorB
             configStoreTemplateName = defaultDirectoryTemplate;
         }
 
+        Map<String, Object> configurationProperties = connectionProperties.getConfigurationProperties();
+
+        if (configurationProperties != null)
+        {
+            maxSegmentBytes = getLongProperty(configurationProperties, maxSegmentBytesProperty, maxSegmentBytes);
+            maxSegmentAgeMinutes = getLongProperty(configurationProperties, maxSegmentAgeMinutesProperty, maxSegmentAgeMinutes);
+            retentionPeriodHours = getLongProperty(configurationProperties, retentionPeriodHoursProperty, retentionPeriodHours);
+            flushIntervalMs = getLongProperty(configurationProperties, flushIntervalMsProperty, flushIntervalMs);
+            indexInterval = (int)getLongProperty(configurationProperties, indexIntervalProperty, indexInterval);
+        }
+
         try
         {
             File         configStoreDirectory = new File(configStoreTemplateName);
 
             FileUtils.forceMkdir(configStoreDirectory);
+
+            File[] segmentFiles = configStoreDirectory.listFiles((directory, fileName) ->
+                    fileName.startsWith(AuditLogSegment.SEGMENT_FILE_PREFIX) && fileName.endsWith(AuditLogSegment.SEGMENT_FILE_SUFFIX));
+
+            if (segmentFiles != null)
+            {
+                Arrays.sort(segmentFiles);
+
+                for (File segmentFile : segmentFiles)
+                {
+                    synchronized (segments)
+                    {
+                        segments.add(new AuditLogSegment(segmentFile, indexInterval));
+                    }
+                }
+            }
         }
         catch (IOException ioException)
         {
             log.error("Unusable Server Audit Log Store :(", ioException);
         }
+
+        if (flushIntervalMs > 0)
+        {
+            flushTimer = Executors.newSingleThreadScheduledExecutor((runnable) ->
+            {
+                Thread flushThread = new Thread(runnable, "AuditLogStoreFlush: " + configStoreTemplateName);
+
+                flushThread.setDaemon(true);
+                return flushThread;
+            });
+
+            flushTimer.scheduleWithFixedDelay(this::flushCurrentSegment, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+
+    /**
+     * Return a numeric configuration property.
+     *
+     * @param configurationProperties configuration properties from the connection
+     * @param propertyName name of the property
+     * @param defaultValue value to use if the property is not set
+     * @return property value
+     */
+    private long getLongProperty(Map<String, Object> configurationProperties,
+                                 String              propertyName,
+                                 long                defaultValue)
+    {
+        Object propertyValue = configurationProperties.get(propertyName);
+
+        if ((propertyValue instanceof Number) && (((Number)propertyValue).longValue() >= 0))
+        {
+            return ((Number)propertyValue).longValue();
+        }
+
+        return defaultValue;
     }
 
 
     /**
-     * Store the audit log record in the audit log store.
+     * Store the audit log record in the audit log store.  The record is added to the current segment's
+     * buffer.
      *
      * @param logRecord  log record to store
      * @return unique identifier assigned to the log record
@@ -93,12 +188,15 @@ public class FileBasedAuditLogStoreConnector extends OMRSAuditLogStoreConnectorB
         {
             try
             {
-                File configStoreFile =
-                        new File(configStoreTemplateName + "/log-record-" + logRecord.getGUID());
-                ObjectMapper objectMapper    = new ObjectMapper();
-
-                String configStoreFileContents = objectMapper.writeValueAsString(logRecord);
-                FileUtils.writeStringToFile(configStoreFile, configStoreFileContents, (String)null, false);
+                synchronized (segments)
+                {
+                    this.getCurrentSegment().addRecord(logRecord);
+
+                    if (flushIntervalMs == 0)
+                    {
+                        currentSegment.flush();
+                    }
+                }
             }
             catch (IOException ioException)
             {
@@ -111,7 +209,185 @@ public class FileBasedAuditLogStoreConnector extends OMRSAuditLogStoreConnectorB
 
 
     /**
-     * Retrieve a specific audit log record.
+     * Return the segment that new records are added to.  A new segment is started if the current one is full
+     * or too old.  Starting a new segment also deletes the segments that are past the retention period.
+     *
+     * @return segment
+     * @throws IOException the current segment could not be closed
+     */
+    private AuditLogSegment getCurrentSegment() throws IOException
+    {
+        long currentTime = System.currentTimeMillis();
+
+        if ((currentSegment != null) &&
+            ((currentSegment.getSize() >= maxSegmentBytes) ||
+             (currentTime - currentSegment.getCreationTime() >= TimeUnit.MINUTES.toMillis(maxSegmentAgeMinutes))))
+        {
+            currentSegment.close();
+            currentSegment = null;
+        }
+
+        if (currentSegment == null)
+        {
+            /*
+             * Segment files are named after their creation time, so make sure it is later than any existing segment.
+             */
+            long creationTime = currentTime;
+
+            if (! segments.isEmpty())
+            {
+                creationTime = Math.max(creationTime, segments.get(segments.size() - 1).getCreationTime() + 1);
+            }
+
+            currentSegment = new AuditLogSegment(new File(configStoreTemplateName), creationTime, indexInterval);
+            segments.add(currentSegment);
+
+            this.deleteExpiredSegments(currentTime);
+        }
+
+        return currentSegment;
+    }
+
+
+    /**
+     * Delete the segments whose records are all older than the retention period.  The current segment is
+     * never deleted.
+     *
+     * @param currentTime current time
+     */
+    private void deleteExpiredSegments(long currentTime)
+    {
+        if (retentionPeriodHours > 0)
+        {
+            long              expiryTime = currentTime - TimeUnit.HOURS.toMillis(retentionPeriodHours);
+            Iterator<AuditLogSegment> iterator = segments.iterator();
+
+            while (iterator.hasNext())
+            {
+                AuditLogSegment segment = iterator.next();
+
+                if ((segment != currentSegment) && (segment.getMaxTimeStamp() < expiryTime))
+                {
+                    segment.delete();
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Write the buffered records of the current segment to its file.  This is called by the flush timer.
+     */
+    private void flushCurrentSegment()
+    {
+        try
+        {
+            synchronized (segments)
+            {
+                if (currentSegment != null)
+                {
+                    currentSegment.flush();
+                }
+            }
+        }
+        catch (IOException ioException)
+        {
+            log.error("Unusable Server Audit Log Store :(", ioException);
+        }
+    }
+
+
+    /**
+     * Flush the current segment and return the list of segments to query.
+     *
+     * @return copy of the list of segments
+     */
+    private List<AuditLogSegment> getSegmentsToQuery()
+    {
+        this.flushCurrentSegment();
+
+        synchronized (segments)
+        {
+            return new ArrayList<>(segments);
+        }
+    }
+
+
+    /**
+     * Retrieve the records from a time period that match the severity and component (if supplied).
+     *
+     * @param startDate start of time period - null for the earliest record
+     * @param endDate end of time period - null for the latest record
+     * @param severity required severity - null for any
+     * @param component required component name - null for any
+     * @param offset offset of full collection to begin the return results
+     * @param maximumRecords maximum number of log records to return - zero for no limit
+     * @param methodName calling method
+     * @return list of log records
+     * @throws RepositoryErrorException the audit log store could not be read
+     */
+    private List<OMRSAuditLogRecord> getAuditLogRecords(Date   startDate,
+                                                        Date   endDate,
+                                                        String severity,
+                                                        String component,
+                                                        int    offset,
+                                                        int    maximumRecords,
+                                                        String methodName) throws RepositoryErrorException
+    {
+        long                     startTime = (startDate == null) ? Long.MIN_VALUE : startDate.getTime();
+        long                     endTime   = (endDate == null) ? Long.MAX_VALUE : endDate.getTime();
+        List<OMRSAuditLogRecord> results   = new ArrayList<>();
+        int[]                    skipCount = { Math.max(offset, 0) };
+
+        try
+        {
+            for (AuditLogSegment segment : this.getSegmentsToQuery())
+            {
+                boolean moreWanted = segment.readRecords(startTime, endTime, severity, component, (logRecord) ->
+                {
+                    long timeStamp = AuditLogSegment.getTimeStamp(logRecord);
+
+                    if ((timeStamp >= startTime) && (timeStamp <= endTime) &&
+                        ((severity == null) || (severity.equals(logRecord.getSeverity()))) &&
+                        ((component == null) || (component.equals(AuditLogSegment.getComponentName(logRecord)))))
+                    {
+                        if (skipCount[0] > 0)
+                        {
+                            skipCount[0]--;
+                        }
+                        else
+                        {
+                            results.add(logRecord);
+                        }
+                    }
+
+                    return (maximumRecords <= 0) || (results.size() < maximumRecords);
+                });
+
+                if (! moreWanted)
+                {
+                    break;
+                }
+            }
+        }
+        catch (IOException ioException)
+        {
+            throw new RepositoryErrorException(OMRSErrorCode.AUDIT_LOG_STORE_NOT_AVAILABLE.getMessageDefinition(super.getDestinationName(),
+                                                                                                                ioException.getMessage()),
+                                               this.getClass().getName(),
+                                               methodName,
+                                               ioException);
+        }
+
+        return results;
+    }
+
+
+    /**
+     * Retrieve a specific audit log record.  The segment indexes do not record GUIDs, so this is a full scan of
+     * the segments.  Lines that do not contain the GUID are skipped without parsing them, but the cost of the
+     * lookup still grows with the size of the audit log.
      *
      * @param logRecordId unique identifier for the log record
      * @return requested audit log record
@@ -123,6 +399,43 @@ public class FileBasedAuditLogStoreConnector extends OMRSAuditLogStoreConnectorB
     {
         final String methodName = "getAuditLogRecord";
 
+        if (logRecordId == null)
+        {
+            return null;
+        }
+
+        List<OMRSAuditLogRecord> results = new ArrayList<>();
+
+        try
+        {
+            for (AuditLogSegment segment : this.getSegmentsToQuery())
+            {
+                boolean moreWanted = segment.readRecords(0, segment.getFlushedSize(), logRecordId, (logRecord) ->
+                {
+                    if (logRecordId.equals(logRecord.getGUID()))
+                    {
+                        results.add(logRecord);
+                        return false;
+                    }
+
+                    return true;
+                });
+
+                if (! moreWanted)
+                {
+                    return results.get(0);
+                }
+            }
+        }
+        catch (IOException ioException)
+        {
+            throw new RepositoryErrorException(OMRSErrorCode.AUDIT_LOG_STORE_NOT_AVAILABLE.getMessageDefinition(super.getDestinationName(),
+                                                                                                                ioException.getMessage()),
+                                               this.getClass().getName(),
+                                               methodName,
+                                               ioException);
+        }
+
         return null;
     }
 
@@ -149,7 +462,7 @@ public class FileBasedAuditLogStoreConnector extends OMRSAuditLogStoreConnectorB
     {
         final String methodName = "getAuditLogRecordsByTimeStamp";
 
-        return null;
+        return this.getAuditLogRecords(startDate, endDate, null, null, offset, maximumRecords, methodName);
     }
 
 
@@ -177,7 +490,7 @@ public class FileBasedAuditLogStoreConnector extends OMRSAuditLogStoreConnectorB
     {
         final String methodName = "getAuditLogRecordsBySeverity";
 
-        return null;
+        return this.getAuditLogRecords(startDate, endDate, severity, null, offset, maximumRecords, methodName);
     }
 
 
@@ -205,7 +518,7 @@ public class FileBasedAuditLogStoreConnector extends OMRSAuditLogStoreConnectorB
     {
         final String methodName = "getAuditLogRecordsByComponent";
 
-        return null;
+        return this.getAuditLogRecords(startDate, endDate, null, component, offset, maximumRecords, methodName);
     }
 
 
@@ -216,6 +529,29 @@ public class FileBasedAuditLogStoreConnector extends OMRSAuditLogStoreConnectorB
      */
     public  void disconnect() throws ConnectorCheckedException
     {
+        if (flushTimer != null)
+        {
+            flushTimer.shutdown();
+            flushTimer = null;
+        }
+
+        synchronized (segments)
+        {
+            if (currentSegment != null)
+            {
+                try
+                {
+                    currentSegment.close();
+                }
+                catch (IOException ioException)
+                {
+                    log.error("Unusable Server Audit Log Store :(", ioException);
+                }
+
+                currentSegment = null;
+            }
+        }
+
         super.disconnect();
     }
 }
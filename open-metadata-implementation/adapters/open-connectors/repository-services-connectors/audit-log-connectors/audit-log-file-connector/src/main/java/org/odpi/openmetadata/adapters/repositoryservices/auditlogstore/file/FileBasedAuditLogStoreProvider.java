@@ -5,6 +5,8 @@ package org.odpi.openmetadata.adapters.repositoryservices.auditlogstore.file;
 import org.odpi.openmetadata.frameworks.connectors.properties.beans.ConnectorType;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogStoreProviderBase;
 
+import java.util.List;
+
 /**
  * FileBasedAuditLogStoreProvider is the OCF connector provider for the file based audit log store.
  */
@@ -32,6 +34,14 @@ public class FileBasedAuditLogStoreProvider extends OMRSAuditLogStoreProviderBas
         connectorType.setDescription(connectorTypeDescription);
         connectorType.setConnectorProviderClassName(this.getClass().getName());
 
+        List<String> recognizedConfigurationProperties = super.getRecognizedConfigurationProperties();
+        recognizedConfigurationProperties.add(FileBasedAuditLogStoreConnector.maxSegmentBytesProperty);
+        recognizedConfigurationProperties.add(FileBasedAuditLogStoreConnector.maxSegmentAgeMinutesProperty);
+        recognizedConfigurationProperties.add(FileBasedAuditLogStoreConnector.retentionPeriodHoursProperty);
+        recognizedConfigurationProperties.add(FileBasedAuditLogStoreConnector.flushIntervalMsProperty);
+        recognizedConfigurationProperties.add(FileBasedAuditLogStoreConnector.indexIntervalProperty);
+        connectorType.setRecognizedConfigurationProperties(recognizedConfigurationProperties);
+
         super.connectorTypeBean = connectorType;
     }
 }
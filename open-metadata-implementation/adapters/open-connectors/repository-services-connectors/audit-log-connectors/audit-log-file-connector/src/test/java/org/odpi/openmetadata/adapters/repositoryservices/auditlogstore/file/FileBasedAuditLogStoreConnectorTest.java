@@ -0,0 +1,354 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.repositoryservices.auditlogstore.file;
+
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogReportingComponent;
+import org.odpi.openmetadata.frameworks.connectors.properties.ConnectionProperties;
+import org.odpi.openmetadata.frameworks.connectors.properties.beans.Connection;
+import org.odpi.openmetadata.frameworks.connectors.properties.beans.Endpoint;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogRecord;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verify that the FileBasedAuditLogStoreConnector starts new segments, finds the records in existing segments
+ * after a restart, uses the segment indexes to answer queries and deletes segments past the retention period.
+ */
+public class FileBasedAuditLogStoreConnectorTest
+{
+    private File directory;
+
+
+    @BeforeMethod
+    public void createDirectory() throws Exception
+    {
+        directory = Files.createTempDirectory("auditlog").toFile();
+    }
+
+
+    @AfterMethod
+    public void deleteDirectory()
+    {
+        File[] files = directory.listFiles();
+
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+
+        directory.delete();
+    }
+
+
+    private FileBasedAuditLogStoreConnector getConnector(Map<String, Object> configurationProperties) throws Exception
+    {
+        Endpoint endpoint = new Endpoint();
+        endpoint.setAddress(directory.getPath());
+
+        /*
+         * Flush every record so the tests do not depend on the flush timer.
+         */
+        configurationProperties.put(FileBasedAuditLogStoreConnector.flushIntervalMsProperty, 0);
+
+        Connection connection = new Connection();
+        connection.setEndpoint(endpoint);
+        connection.setConfigurationProperties(configurationProperties);
+
+        FileBasedAuditLogStoreConnector connector = new FileBasedAuditLogStoreConnector();
+
+        connector.initialize(UUID.randomUUID().toString(), new ConnectionProperties(connection));
+        connector.start();
+
+        return connector;
+    }
+
+
+    private FileBasedAuditLogStoreConnector getConnector() throws Exception
+    {
+        return getConnector(new HashMap<>());
+    }
+
+
+    private OMRSAuditLogRecord getLogRecord(String messageText, long timeStamp, String severity, String component)
+    {
+        OMRSAuditLogRecord logRecord = new OMRSAuditLogRecord();
+
+        logRecord.setGUID(UUID.randomUUID().toString());
+        logRecord.setMessageText(messageText);
+        logRecord.setTimeStamp(new Date(timeStamp));
+        logRecord.setSeverity(severity);
+        logRecord.setOriginatorProperties(new HashMap<>());
+        logRecord.setOriginatorComponent(new AuditLogReportingComponent(1, component, component, null));
+
+        return logRecord;
+    }
+
+
+    private OMRSAuditLogRecord getLogRecord(String messageText)
+    {
+        return getLogRecord(messageText, System.currentTimeMillis(), "Information", "Test");
+    }
+
+
+    private List<String> getMessageTexts(List<OMRSAuditLogRecord> logRecords)
+    {
+        List<String> messageTexts = new ArrayList<>();
+
+        for (OMRSAuditLogRecord logRecord : logRecords)
+        {
+            messageTexts.add(logRecord.getMessageText());
+        }
+
+        return messageTexts;
+    }
+
+
+    private List<String> getAllMessageTexts(FileBasedAuditLogStoreConnector connector) throws Exception
+    {
+        return getMessageTexts(connector.getAuditLogRecordsByTimeStamp(null, null, 0, 0));
+    }
+
+
+    private List<String> getExpectedMessageTexts(String... messageTexts)
+    {
+        List<String> expectedMessageTexts = new ArrayList<>();
+
+        for (String messageText : messageTexts)
+        {
+            expectedMessageTexts.add(messageText);
+        }
+
+        return expectedMessageTexts;
+    }
+
+
+    private File[] getSegmentFiles()
+    {
+        return directory.listFiles((segmentDirectory, fileName) -> fileName.endsWith(AuditLogSegment.SEGMENT_FILE_SUFFIX));
+    }
+
+
+    @Test public void testNewSegmentWhenFull() throws Exception
+    {
+        Map<String, Object> configurationProperties = new HashMap<>();
+        configurationProperties.put(FileBasedAuditLogStoreConnector.maxSegmentBytesProperty, 1);
+
+        FileBasedAuditLogStoreConnector connector = getConnector(configurationProperties);
+
+        for (int i = 0; i < 4; i++)
+        {
+            connector.storeLogRecord(getLogRecord("Record " + i));
+        }
+
+        assertEquals(getSegmentFiles().length, 4);
+        assertEquals(getAllMessageTexts(connector), getExpectedMessageTexts("Record 0", "Record 1", "Record 2", "Record 3"));
+
+        connector.disconnect();
+    }
+
+
+    @Test public void testNewSegmentWhenOld() throws Exception
+    {
+        /*
+         * With a maximum age of zero every segment is too old for a second record.
+         */
+        Map<String, Object> configurationProperties = new HashMap<>();
+        configurationProperties.put(FileBasedAuditLogStoreConnector.maxSegmentAgeMinutesProperty, 0);
+
+        FileBasedAuditLogStoreConnector connector = getConnector(configurationProperties);
+
+        for (int i = 0; i < 3; i++)
+        {
+            connector.storeLogRecord(getLogRecord("Record " + i));
+        }
+
+        assertEquals(getSegmentFiles().length, 3);
+        assertEquals(getAllMessageTexts(connector), getExpectedMessageTexts("Record 0", "Record 1", "Record 2"));
+
+        connector.disconnect();
+    }
+
+
+    @Test public void testExistingSegmentsReopened() throws Exception
+    {
+        FileBasedAuditLogStoreConnector connector = getConnector();
+
+        connector.storeLogRecord(getLogRecord("Record 0"));
+        connector.storeLogRecord(getLogRecord("Record 1"));
+        connector.disconnect();
+
+        /*
+         * The second connector is not disconnected, so its segment has no index file and is re-indexed
+         * when it is reopened.
+         */
+        FileBasedAuditLogStoreConnector unclosedConnector = getConnector();
+        OMRSAuditLogRecord              logRecord         = getLogRecord("Record 2");
+
+        unclosedConnector.storeLogRecord(logRecord);
+
+        FileBasedAuditLogStoreConnector reopenedConnector = getConnector();
+
+        assertEquals(getSegmentFiles().length, 2);
+        assertEquals(getAllMessageTexts(reopenedConnector), getExpectedMessageTexts("Record 0", "Record 1", "Record 2"));
+        assertEquals(reopenedConnector.getAuditLogRecord(logRecord.getGUID()).getMessageText(), "Record 2");
+
+        reopenedConnector.storeLogRecord(getLogRecord("Record 3"));
+
+        assertEquals(getAllMessageTexts(reopenedConnector), getExpectedMessageTexts("Record 0", "Record 1", "Record 2", "Record 3"));
+
+        reopenedConnector.disconnect();
+    }
+
+
+    @Test public void testTimeIndexSkipsEarlierRecords()
+    {
+        AuditLogSegmentIndex index = new AuditLogSegmentIndex();
+
+        for (int i = 0; i < 6; i++)
+        {
+            index.addRecord(i * 10, 10, (i + 1) * 100, "Information", "Test", 2);
+        }
+
+        /*
+         * The index has entries for the first, third and fifth records.  A query starts at the last entry whose
+         * preceding records are all earlier than the start of the query.
+         */
+        assertEquals(index.getIndexOffsets().size(), 3);
+        assertEquals(index.getStartOffset(50), 0);
+        assertEquals(index.getStartOffset(300), 20);
+        assertEquals(index.getStartOffset(350), 20);
+        assertEquals(index.getStartOffset(500), 40);
+        assertEquals(index.getStartOffset(1000), 40);
+    }
+
+
+    @Test public void testQueriesByTime() throws Exception
+    {
+        Map<String, Object> configurationProperties = new HashMap<>();
+        configurationProperties.put(FileBasedAuditLogStoreConnector.indexIntervalProperty, 2);
+
+        FileBasedAuditLogStoreConnector connector = getConnector(configurationProperties);
+        long                            baseTime  = System.currentTimeMillis() - 10000;
+
+        for (int i = 0; i < 8; i++)
+        {
+            connector.storeLogRecord(getLogRecord("Record " + i, baseTime + i * 1000, "Information", "Test"));
+        }
+
+        assertEquals(getMessageTexts(connector.getAuditLogRecordsByTimeStamp(new Date(baseTime + 3000), new Date(baseTime + 5000), 0, 0)),
+                     getExpectedMessageTexts("Record 3", "Record 4", "Record 5"));
+        assertEquals(getMessageTexts(connector.getAuditLogRecordsByTimeStamp(new Date(baseTime + 3000), null, 1, 2)),
+                     getExpectedMessageTexts("Record 4", "Record 5"));
+
+        connector.disconnect();
+    }
+
+
+    @Test public void testSegmentsSkippedBySeverityAndComponent() throws Exception
+    {
+        Map<String, Object> configurationProperties = new HashMap<>();
+        configurationProperties.put(FileBasedAuditLogStoreConnector.maxSegmentBytesProperty, 1);
+
+        FileBasedAuditLogStoreConnector connector = getConnector(configurationProperties);
+        long                            timeStamp = System.currentTimeMillis();
+
+        connector.storeLogRecord(getLogRecord("Information from A", timeStamp, "Information", "ComponentA"));
+        connector.storeLogRecord(getLogRecord("Error from B", timeStamp, "Error", "ComponentB"));
+        connector.storeLogRecord(getLogRecord("Error from A", timeStamp, "Error", "ComponentA"));
+
+        AuditLogSegmentIndex index = new AuditLogSegmentIndex();
+        index.addRecord(0, 10, timeStamp, "Information", "ComponentA", 1000);
+
+        assertTrue(index.mayMatch(timeStamp, timeStamp, "Information", "ComponentA"));
+        assertFalse(index.mayMatch(timeStamp, timeStamp, "Error", null));
+        assertFalse(index.mayMatch(timeStamp, timeStamp, null, "ComponentB"));
+        assertFalse(index.mayMatch(timeStamp + 1, timeStamp + 2, null, null));
+
+        assertEquals(getMessageTexts(connector.getAuditLogRecordsBySeverity("Error", null, null, 0, 0)),
+                     getExpectedMessageTexts("Error from B", "Error from A"));
+        assertEquals(getMessageTexts(connector.getAuditLogRecordsByComponent("ComponentA", null, null, 0, 0)),
+                     getExpectedMessageTexts("Information from A", "Error from A"));
+        assertEquals(getMessageTexts(connector.getAuditLogRecordsByComponent("ComponentC", null, null, 0, 0)),
+                     getExpectedMessageTexts());
+
+        connector.disconnect();
+    }
+
+
+    @Test public void testSegmentsPastRetentionPeriodDeleted() throws Exception
+    {
+        Map<String, Object> configurationProperties = new HashMap<>();
+        configurationProperties.put(FileBasedAuditLogStoreConnector.maxSegmentBytesProperty, 1);
+        configurationProperties.put(FileBasedAuditLogStoreConnector.retentionPeriodHoursProperty, 1);
+
+        FileBasedAuditLogStoreConnector connector = getConnector(configurationProperties);
+        long                            oldTime   = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(3);
+
+        connector.storeLogRecord(getLogRecord("Old record 0", oldTime, "Information", "Test"));
+        connector.storeLogRecord(getLogRecord("Old record 1", oldTime, "Information", "Test"));
+
+        /*
+         * Starting the segment for the new record deletes the segments whose records are all too old.  The current
+         * segment is kept even though its record is too old.
+         */
+        assertEquals(getSegmentFiles().length, 1);
+
+        connector.storeLogRecord(getLogRecord("New record"));
+
+        assertEquals(getSegmentFiles().length, 1);
+        assertEquals(getAllMessageTexts(connector), getExpectedMessageTexts("New record"));
+
+        connector.disconnect();
+    }
+
+
+    @Test public void testTornFinalRecordSkipped() throws Exception
+    {
+        FileBasedAuditLogStoreConnector connector = getConnector();
+
+        connector.storeLogRecord(getLogRecord("Record 0"));
+        connector.storeLogRecord(getLogRecord("Record 1"));
+
+        /*
+         * Simulate the server stopping part way through writing a record.
+         */
+        File[] segmentFiles = getSegmentFiles();
+
+        assertEquals(segmentFiles.length, 1);
+
+        try (FileOutputStream segmentStream = new FileOutputStream(segmentFiles[0], true))
+        {
+            segmentStream.write("{\"guid\":\"torn\",\"messageText\":\"Rec".getBytes(StandardCharsets.UTF_8));
+        }
+
+        FileBasedAuditLogStoreConnector reopenedConnector = getConnector();
+
+        assertEquals(getAllMessageTexts(reopenedConnector), getExpectedMessageTexts("Record 0", "Record 1"));
+
+        reopenedConnector.storeLogRecord(getLogRecord("Record 2"));
+
+        assertEquals(getAllMessageTexts(reopenedConnector), getExpectedMessageTexts("Record 0", "Record 1", "Record 2"));
+
+        reopenedConnector.disconnect();
+    }
+}
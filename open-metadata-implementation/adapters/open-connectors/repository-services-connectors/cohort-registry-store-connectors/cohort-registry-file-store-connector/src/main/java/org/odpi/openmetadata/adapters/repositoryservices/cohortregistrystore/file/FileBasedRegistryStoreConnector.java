@@ -3,6 +3,8 @@
 package org.odpi.openmetadata.adapters.repositoryservices.cohortregistrystore.file;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.odpi.openmetadata.frameworks.connectors.properties.beans.Connection;
 import org.odpi.openmetadata.frameworks.connectors.properties.beans.Endpoint;
 import org.slf4j.Logger;
@@ -16,17 +18,30 @@ import org.odpi.openmetadata.repositoryservices.connectors.stores.cohortregistry
 
 import org.apache.commons.io.FileUtils;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 
 /**
  * FileBasedRegistryStoreConnector uses JSON to store details of the membership of the open metadata repository
- * cohort on behalf of the OMRSCohortRegistry.
+ * cohort on behalf of the OMRSCohortRegistry.  The registry is held in memory once it is loaded.  Each change
+ * is appended to a journal file alongside the registry file.  When the journal reaches the compaction threshold,
+ * and when the registry is loaded or closed, the registry is written to a new file that replaces the registry file
+ * with a rename, and the journal is emptied.  This means a change only writes one small journal entry and the
+ * registry file is never partly written.
  */
 public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConnectorBase
 {
@@ -35,10 +50,39 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
      */
     private static final String defaultFilename = "cohort.registry";
 
+    /*
+     * Suffixes added to the registry file name for the journal and for the new registry file during compaction.
+     */
+    private static final String journalFileSuffix   = ".journal";
+    private static final String temporaryFileSuffix = ".tmp";
+
+    /*
+     * Name of the configuration property for the number of journal entries that triggers compaction.
+     */
+    static final String journalCompactionThresholdProperty = "journalCompactionThreshold";
+
+    private static final int defaultJournalCompactionThreshold = 100;
+
+    private static final ObjectMapper objectMapper       = new ObjectMapper();
+    private static final ObjectReader registryReader     = objectMapper.readerFor(CohortMembership.class);
+    private static final ObjectWriter registryWriter     = objectMapper.writerFor(CohortMembership.class);
+    private static final ObjectReader journalEntryReader = objectMapper.readerFor(RegistryJournalEntry.class);
+    private static final ObjectWriter journalEntryWriter = objectMapper.writerFor(RegistryJournalEntry.class);
+
     /*
      * Variables used in writing to the file.
      */
-    private String           registryStoreName       = defaultFilename;
+    private String           registryStoreName          = defaultFilename;
+    private int              journalCompactionThreshold = defaultJournalCompactionThreshold;
+    private FileOutputStream journalStream              = null;
+    private int              journalEntryCount          = 0;
+
+    /*
+     * In-memory copy of the registry.
+     */
+    private boolean                         registryLoaded       = false;
+    private MemberRegistration              localRegistration    = null;
+    private Map<String, MemberRegistration> remoteRegistrations  = new LinkedHashMap<>();
 
     /*
      * Variables used for logging and debug.
@@ -67,6 +111,18 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
                 registryStoreName = defaultFilename;
             }
         }
+
+        Map<String, Object> configurationProperties = connectionProperties.getConfigurationProperties();
+
+        if (configurationProperties != null)
+        {
+            Object thresholdProperty = configurationProperties.get(journalCompactionThresholdProperty);
+
+            if ((thresholdProperty instanceof Number) && (((Number)thresholdProperty).intValue() > 0))
+            {
+                journalCompactionThreshold = ((Number)thresholdProperty).intValue();
+            }
+        }
     }
 
 
@@ -81,11 +137,9 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
     {
         if (localRegistration != null)
         {
-            CohortMembership registryStoreProperties = this.retrieveRegistryStoreProperties();
-
-            registryStoreProperties.setLocalRegistration(localRegistration);
-
-            this.writeRegistryStoreProperties(registryStoreProperties);
+            this.recordChange(new RegistryJournalEntry(RegistryJournalEntry.ChangeType.SAVE_LOCAL_REGISTRATION,
+                                                       new MemberRegistration(localRegistration),
+                                                       null));
         }
         else
         {
@@ -110,9 +164,7 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
      */
     public synchronized MemberRegistration retrieveLocalRegistration()
     {
-        CohortMembership registryStoreProperties = this.retrieveRegistryStoreProperties();
-
-        MemberRegistration localRegistration = registryStoreProperties.getLocalRegistration();
+        this.loadRegistry();
 
         if (log.isDebugEnabled())
         {
@@ -131,7 +183,12 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
             }
         }
 
-        return localRegistration;
+        if (localRegistration == null)
+        {
+            return null;
+        }
+
+        return new MemberRegistration(localRegistration);
     }
 
 
@@ -146,38 +203,7 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
     {
         log.debug("Removing local repository from  cohort registry store.");
 
-        CohortMembership registryStoreProperties = this.retrieveRegistryStoreProperties();
-
-        registryStoreProperties.setLocalRegistration(null);
-
-        this.writeRegistryStoreProperties(registryStoreProperties);
-    }
-
-
-    /**
-     * Return the remote members from the store as a map from metadata collection id to member registration.
-     * Any value of the remote member may change from registration to registration except the
-     * metadata collection id.
-     *
-     * @param remoteMembersList values from the store
-     * @return remote member map
-     */
-    private Map<String, MemberRegistration> getRemoteMemberMap(List<MemberRegistration> remoteMembersList)
-    {
-        Map<String, MemberRegistration>  remoteMemberMap = new HashMap<>();
-
-        if ((remoteMembersList != null) && (! remoteMembersList.isEmpty()))
-        {
-            for (MemberRegistration remoteMember : remoteMembersList)
-            {
-                if ((remoteMember != null) && (remoteMember.getMetadataCollectionId() != null))
-                {
-                    remoteMemberMap.put(remoteMember.getMetadataCollectionId(), remoteMember);
-                }
-            }
-        }
-
-        return remoteMemberMap;
+        this.recordChange(new RegistryJournalEntry(RegistryJournalEntry.ChangeType.REMOVE_LOCAL_REGISTRATION, null, null));
     }
 
 
@@ -191,29 +217,13 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
     {
         if ((remoteRegistration != null) && (remoteRegistration.getMetadataCollectionId() != null))
         {
-            /*
-             * Retrieve the current properties from the file is necessary.
-             */
-            CohortMembership registryStoreProperties = this.retrieveRegistryStoreProperties();
-
             /*
              * It is possible that the remote repository already has an entry in the cohort registry and if this is
              * the case, it will be overwritten.  Otherwise the new remote properties are added.
-             * The map is used to ensure duplicates can not be stored.
              */
-            Map<String, MemberRegistration>  remoteMemberMap = this.getRemoteMemberMap(registryStoreProperties.getRemoteRegistrations());
-
-            /*
-             * Now add the new member to the map.  This will overwrite any previous registration.
-             */
-            remoteMemberMap.put(remoteRegistration.getMetadataCollectionId(), remoteRegistration);
-
-            registryStoreProperties.setRemoteRegistrations(new ArrayList<>(remoteMemberMap.values()));
-
-            /*
-             * Write out the new cohort registry content.
-             */
-            this.writeRegistryStoreProperties(registryStoreProperties);
+            this.recordChange(new RegistryJournalEntry(RegistryJournalEntry.ChangeType.SAVE_REMOTE_REGISTRATION,
+                                                       new MemberRegistration(remoteRegistration),
+                                                       null));
         }
         else
         {
@@ -236,19 +246,22 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
      */
     public synchronized List<MemberRegistration> retrieveRemoteRegistrations()
     {
-        /*
-         * Ensure the current properties are retrieved from the registry.
-         */
-        CohortMembership registryStoreProperties = this.retrieveRegistryStoreProperties();
-        Map<String, MemberRegistration>  remoteMemberMap = this.getRemoteMemberMap(registryStoreProperties.getRemoteRegistrations());
+        this.loadRegistry();
 
-        if (remoteMemberMap.isEmpty())
+        if (remoteRegistrations.isEmpty())
         {
             return null;
         }
         else
         {
-            return new ArrayList<>(remoteMemberMap.values());
+            List<MemberRegistration> remoteMembers = new ArrayList<>();
+
+            for (MemberRegistration remoteMember : remoteRegistrations.values())
+            {
+                remoteMembers.add(new MemberRegistration(remoteMember));
+            }
+
+            return remoteMembers;
         }
     }
 
@@ -266,13 +279,9 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
 
         if (metadataCollectionId != null)
         {
-            /*
-             * Ensure the current properties are retrieved from the registry.
-             */
-            CohortMembership registryStoreProperties = this.retrieveRegistryStoreProperties();
-            Map<String, MemberRegistration>  remoteMemberMap = this.getRemoteMemberMap(registryStoreProperties.getRemoteRegistrations());
+            this.loadRegistry();
 
-            remoteRegistration = remoteMemberMap.get(metadataCollectionId);
+            remoteRegistration = remoteRegistrations.get(metadataCollectionId);
         }
         else
         {
@@ -289,9 +298,11 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
         if (remoteRegistration == null)
         {
             log.debug("No remote registrations");
+
+            return null;
         }
 
-        return remoteRegistration;
+        return new MemberRegistration(remoteRegistration);
     }
 
 
@@ -304,21 +315,13 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
     {
         if (metadataCollectionId != null)
         {
-            /*
-             * Ensure the current properties are retrieved from the registry.
-             */
-            CohortMembership registryStoreProperties = this.retrieveRegistryStoreProperties();
-            Map<String, MemberRegistration> remoteMemberMap = this.getRemoteMemberMap(registryStoreProperties.getRemoteRegistrations());
-
-            /*
-             * Remove the requested properties
-             */
-            MemberRegistration removedMember = remoteMemberMap.remove(metadataCollectionId);
+            this.loadRegistry();
 
-            if (removedMember != null)
+            if (remoteRegistrations.containsKey(metadataCollectionId))
             {
-                registryStoreProperties.setRemoteRegistrations(new ArrayList<>(remoteMemberMap.values()));
-                writeRegistryStoreProperties(registryStoreProperties);
+                this.recordChange(new RegistryJournalEntry(RegistryJournalEntry.ChangeType.REMOVE_REMOTE_REGISTRATION,
+                                                           null,
+                                                           metadataCollectionId));
             }
             else
             {
@@ -352,17 +355,25 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
      * Remove the local and remote registrations from the cohort registry store since the local server has
      * unregistered from the cohort.
      */
-    public void clearAllRegistrations()
+    public synchronized void clearAllRegistrations()
     {
-        writeRegistryStoreProperties(null);
+        this.recordChange(new RegistryJournalEntry(RegistryJournalEntry.ChangeType.CLEAR_ALL_REGISTRATIONS, null, null));
+        this.compactRegistry();
     }
 
 
     /**
      * Close the config file
      */
-    public void disconnect()
+    public synchronized void disconnect()
     {
+        if (journalEntryCount > 0)
+        {
+            this.compactRegistry();
+        }
+
+        this.closeJournal();
+
         try
         {
             super.disconnect();
@@ -377,7 +388,248 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
 
 
     /**
-     * Refresh the registry store properties with the current values in the file base registry store.
+     * Load the registry into memory, if this has not already been done, by reading the registry file and
+     * replaying the changes in the journal.  If the journal has any entries, the registry is compacted.
+     * A journal entry that can not be read, which happens when the server stopped while it was being written,
+     * ends the replay.
+     */
+    private void loadRegistry()
+    {
+        if (registryLoaded)
+        {
+            return;
+        }
+
+        CohortMembership registryStoreProperties = this.retrieveRegistryStoreProperties();
+
+        localRegistration = registryStoreProperties.getLocalRegistration();
+        remoteRegistrations = new LinkedHashMap<>(this.getRemoteMemberMap(registryStoreProperties.getRemoteRegistrations()));
+        registryLoaded = true;
+
+        File journalFile = new File(registryStoreName + journalFileSuffix);
+
+        if (journalFile.exists())
+        {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8)))
+            {
+                String line;
+
+                while ((line = reader.readLine()) != null)
+                {
+                    RegistryJournalEntry journalEntry;
+
+                    try
+                    {
+                        journalEntry = journalEntryReader.readValue(line);
+                    }
+                    catch (IOException  badEntry)
+                    {
+                        log.debug("Ignoring incomplete cohort registry journal entry", badEntry);
+                        break;
+                    }
+
+                    this.applyChange(journalEntry);
+                    journalEntryCount++;
+                }
+            }
+            catch (IOException   ioException)
+            {
+                log.debug("Unable to read cohort registry journal", ioException);
+            }
+
+            this.compactRegistry();
+        }
+    }
+
+
+    /**
+     * Return the remote members from the store as a map from metadata collection id to member registration.
+     * Any value of the remote member may change from registration to registration except the
+     * metadata collection id.
+     *
+     * @param remoteMembersList values from the store
+     * @return remote member map
+     */
+    private Map<String, MemberRegistration> getRemoteMemberMap(List<MemberRegistration> remoteMembersList)
+    {
+        Map<String, MemberRegistration>  remoteMemberMap = new HashMap<>();
+
+        if ((remoteMembersList != null) && (! remoteMembersList.isEmpty()))
+        {
+            for (MemberRegistration remoteMember : remoteMembersList)
+            {
+                if ((remoteMember != null) && (remoteMember.getMetadataCollectionId() != null))
+                {
+                    remoteMemberMap.put(remoteMember.getMetadataCollectionId(), remoteMember);
+                }
+            }
+        }
+
+        return remoteMemberMap;
+    }
+
+
+    /**
+     * Apply a change to the in-memory registry.
+     *
+     * @param journalEntry change
+     */
+    private void applyChange(RegistryJournalEntry   journalEntry)
+    {
+        if (journalEntry.getChangeType() == null)
+        {
+            return;
+        }
+
+        switch (journalEntry.getChangeType())
+        {
+            case SAVE_LOCAL_REGISTRATION:
+                localRegistration = journalEntry.getRegistration();
+                break;
+
+            case REMOVE_LOCAL_REGISTRATION:
+                localRegistration = null;
+                break;
+
+            case SAVE_REMOTE_REGISTRATION:
+                if ((journalEntry.getRegistration() != null) && (journalEntry.getRegistration().getMetadataCollectionId() != null))
+                {
+                    remoteRegistrations.put(journalEntry.getRegistration().getMetadataCollectionId(), journalEntry.getRegistration());
+                }
+                break;
+
+            case REMOVE_REMOTE_REGISTRATION:
+                if (journalEntry.getMetadataCollectionId() != null)
+                {
+                    remoteRegistrations.remove(journalEntry.getMetadataCollectionId());
+                }
+                break;
+
+            case CLEAR_ALL_REGISTRATIONS:
+                localRegistration = null;
+                remoteRegistrations.clear();
+                break;
+        }
+    }
+
+
+    /**
+     * Apply a change to the in-memory registry and append it to the journal.  The registry is compacted when
+     * the journal reaches the compaction threshold.
+     *
+     * @param journalEntry change
+     */
+    private void recordChange(RegistryJournalEntry   journalEntry)
+    {
+        this.loadRegistry();
+        this.applyChange(journalEntry);
+        this.validateRegistryStore(this.getRegistryStoreProperties());
+
+        try
+        {
+            log.debug("Writing cohort registry journal entry " + journalEntry.getChangeType());
+
+            if (journalStream == null)
+            {
+                journalStream = new FileOutputStream(registryStoreName + journalFileSuffix, true);
+            }
+
+            journalStream.write((journalEntryWriter.writeValueAsString(journalEntry) + "\n").getBytes(StandardCharsets.UTF_8));
+            journalStream.getFD().sync();
+            journalEntryCount++;
+        }
+        catch (IOException   ioException)
+        {
+            if (auditLog != null)
+            {
+                String actionDescription = "Writing Cohort Registry Journal";
+
+                auditLog.logException(actionDescription,
+                                      OMRSAuditCode.UNUSABLE_REGISTRY_FILE.getMessageDefinition(registryStoreName),
+                                      ioException);
+            }
+
+            log.debug("Unusable Cohort Registry Store :(", ioException);
+        }
+
+        if (journalEntryCount >= journalCompactionThreshold)
+        {
+            this.compactRegistry();
+        }
+    }
+
+
+    /**
+     * Write the in-memory registry to the registry file and empty the journal.
+     */
+    private void compactRegistry()
+    {
+        log.debug("Compacting cohort registry store after " + journalEntryCount + " changes");
+
+        this.closeJournal();
+
+        if (this.writeRegistryStoreProperties(this.getRegistryStoreProperties()))
+        {
+            File journalFile = new File(registryStoreName + journalFileSuffix);
+
+            if ((journalFile.exists()) && (! journalFile.delete()))
+            {
+                log.debug("Unable to delete cohort registry journal " + journalFile.getName());
+            }
+
+            journalEntryCount = 0;
+        }
+    }
+
+
+    /**
+     * Close the journal file if it is open.
+     */
+    private void closeJournal()
+    {
+        if (journalStream != null)
+        {
+            try
+            {
+                journalStream.close();
+            }
+            catch (IOException   ioException)
+            {
+                log.debug("Unable to close cohort registry journal", ioException);
+            }
+
+            journalStream = null;
+        }
+    }
+
+
+    /**
+     * Return the in-memory registry in the format of the registry file.
+     *
+     * @return registry contents or null if there are no registrations
+     */
+    private CohortMembership getRegistryStoreProperties()
+    {
+        if ((localRegistration == null) && (remoteRegistrations.isEmpty()))
+        {
+            return null;
+        }
+
+        CohortMembership registryStoreProperties = new CohortMembership();
+
+        registryStoreProperties.setLocalRegistration(localRegistration);
+
+        if (! remoteRegistrations.isEmpty())
+        {
+            registryStoreProperties.setRemoteRegistrations(new ArrayList<>(remoteRegistrations.values()));
+        }
+
+        return registryStoreProperties;
+    }
+
+
+    /**
+     * Read the registry store properties from the file based registry store.
      *
      * @return CohortRegistryProperties object containing the currently stored properties.
      */
@@ -392,8 +644,7 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
 
             String registryStoreFileContents = FileUtils.readFileToString(registryStoreFile, "UTF-8");
 
-            ObjectMapper objectMapper = new ObjectMapper();
-            newRegistryStoreProperties = objectMapper.readValue(registryStoreFileContents, CohortMembership.class);
+            newRegistryStoreProperties = registryReader.readValue(registryStoreFileContents);
         }
         catch (IOException   ioException)
         {
@@ -573,32 +824,48 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
 
 
     /**
-     * Writes the supplied registry store properties to the registry store.
+     * Writes the supplied registry store properties to the registry store.  The properties are written to a
+     * temporary file that then replaces the registry file.
      *
-     * @param newRegistryStoreProperties - contents of the registry store
+     * @param newRegistryStoreProperties - contents of the registry store - null to delete the registry file
+     * @return boolean indicating whether the registry file was written
      */
-    private void writeRegistryStoreProperties(CohortMembership   newRegistryStoreProperties)
+    private boolean writeRegistryStoreProperties(CohortMembership   newRegistryStoreProperties)
     {
         File    registryStoreFile = new File(registryStoreName);
 
-        this.validateRegistryStore(newRegistryStoreProperties);
-
         try
         {
             log.debug("Writing cohort registry store properties" + newRegistryStoreProperties);
 
             if (newRegistryStoreProperties == null)
             {
-                registryStoreFile.delete();
+                Files.deleteIfExists(registryStoreFile.toPath());
             }
             else
             {
-                ObjectMapper objectMapper = new ObjectMapper();
+                File temporaryFile = new File(registryStoreName + temporaryFileSuffix);
 
-                String registryStoreFileContents = objectMapper.writeValueAsString(newRegistryStoreProperties);
+                try (FileOutputStream temporaryStream = new FileOutputStream(temporaryFile))
+                {
+                    temporaryStream.write(registryWriter.writeValueAsBytes(newRegistryStoreProperties));
+                    temporaryStream.getFD().sync();
+                }
 
-                FileUtils.writeStringToFile(registryStoreFile, registryStoreFileContents, (String)null,false);
+                try
+                {
+                    Files.move(temporaryFile.toPath(),
+                               registryStoreFile.toPath(),
+                               StandardCopyOption.REPLACE_EXISTING,
+                               StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch (AtomicMoveNotSupportedException notSupported)
+                {
+                    Files.move(temporaryFile.toPath(), registryStoreFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
             }
+
+            return true;
         }
         catch (IOException   ioException)
         {
@@ -613,6 +880,8 @@ public class FileBasedRegistryStoreConnector extends OMRSCohortRegistryStoreConn
 
             log.debug("Unusable Cohort Registry Store :(", ioException);
         }
+
+        return false;
     }
 
 
@@ -5,6 +5,9 @@ package org.odpi.openmetadata.adapters.repositoryservices.cohortregistrystore.fi
 import org.odpi.openmetadata.frameworks.connectors.properties.beans.ConnectorType;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.cohortregistrystore.OMRSCohortRegistryStoreProviderBase;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * FileBasedRegistryStoreProvider is the OCF connector provider for the file based cohort registry store.
  */
@@ -32,6 +35,10 @@ public class FileBasedRegistryStoreProvider extends OMRSCohortRegistryStoreProvi
         connectorType.setDescription(connectorTypeDescription);
         connectorType.setConnectorProviderClassName(this.getClass().getName());
 
+        List<String> recognizedConfigurationProperties = new ArrayList<>();
+        recognizedConfigurationProperties.add(FileBasedRegistryStoreConnector.journalCompactionThresholdProperty);
+        connectorType.setRecognizedConfigurationProperties(recognizedConfigurationProperties);
+
         super.connectorTypeBean = connectorType;
     }
 }
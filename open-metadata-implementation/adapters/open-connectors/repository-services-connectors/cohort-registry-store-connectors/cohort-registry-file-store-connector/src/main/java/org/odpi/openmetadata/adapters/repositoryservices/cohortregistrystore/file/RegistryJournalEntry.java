@@ -0,0 +1,129 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.repositoryservices.cohortregistrystore.file;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.cohortregistrystore.properties.MemberRegistration;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * RegistryJournalEntry describes one change to the cohort registry.  The FileBasedRegistryStoreConnector appends
+ * a journal entry to the registry journal file for each change and replays the entries over the registry file
+ * when the registry is loaded.
+ */
+@JsonAutoDetect(getterVisibility=PUBLIC_ONLY, setterVisibility=PUBLIC_ONLY, fieldVisibility=NONE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown=true)
+class RegistryJournalEntry
+{
+    /**
+     * The types of change to the cohort registry.
+     */
+    enum ChangeType
+    {
+        SAVE_LOCAL_REGISTRATION,
+        REMOVE_LOCAL_REGISTRATION,
+        SAVE_REMOTE_REGISTRATION,
+        REMOVE_REMOTE_REGISTRATION,
+        CLEAR_ALL_REGISTRATIONS
+    }
+
+    private ChangeType         changeType           = null;
+    private MemberRegistration registration         = null;
+    private String             metadataCollectionId = null;
+
+
+    /**
+     * Default constructor
+     */
+    RegistryJournalEntry()
+    {
+    }
+
+
+    /**
+     * Constructor for a new change.
+     *
+     * @param changeType type of change
+     * @param registration registration that is saved - null for other changes
+     * @param metadataCollectionId identifier of the remote registration that is removed - null for other changes
+     */
+    RegistryJournalEntry(ChangeType         changeType,
+                         MemberRegistration registration,
+                         String             metadataCollectionId)
+    {
+        this.changeType = changeType;
+        this.registration = registration;
+        this.metadataCollectionId = metadataCollectionId;
+    }
+
+
+    /**
+     * Return the type of change.
+     *
+     * @return change type
+     */
+    public ChangeType getChangeType()
+    {
+        return changeType;
+    }
+
+
+    /**
+     * Set up the type of change.
+     *
+     * @param changeType change type
+     */
+    public void setChangeType(ChangeType changeType)
+    {
+        this.changeType = changeType;
+    }
+
+
+    /**
+     * Return the registration that is saved.
+     *
+     * @return member registration
+     */
+    public MemberRegistration getRegistration()
+    {
+        return registration;
+    }
+
+
+    /**
+     * Set up the registration that is saved.
+     *
+     * @param registration member registration
+     */
+    public void setRegistration(MemberRegistration registration)
+    {
+        this.registration = registration;
+    }
+
+
+    /**
+     * Return the identifier of the remote registration that is removed.
+     *
+     * @return metadata collection id
+     */
+    public String getMetadataCollectionId()
+    {
+        return metadataCollectionId;
+    }
+
+
+    /**
+     * Set up the identifier of the remote registration that is removed.
+     *
+     * @param metadataCollectionId metadata collection id
+     */
+    public void setMetadataCollectionId(String metadataCollectionId)
+    {
+        this.metadataCollectionId = metadataCollectionId;
+    }
+}
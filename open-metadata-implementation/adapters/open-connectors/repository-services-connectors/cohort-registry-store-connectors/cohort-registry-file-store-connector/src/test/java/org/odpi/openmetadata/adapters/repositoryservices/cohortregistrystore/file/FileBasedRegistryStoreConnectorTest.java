@@ -0,0 +1,123 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.repositoryservices.cohortregistrystore.file;
+
+import org.odpi.openmetadata.frameworks.connectors.properties.ConnectionProperties;
+import org.odpi.openmetadata.frameworks.connectors.properties.beans.Connection;
+import org.odpi.openmetadata.frameworks.connectors.properties.beans.Endpoint;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.cohortregistrystore.properties.MemberRegistration;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verify that the FileBasedRegistryStoreConnector recovers the registry from its journal after the server stops
+ * without closing the store, and that it compacts the journal into the registry file.
+ */
+public class FileBasedRegistryStoreConnectorTest
+{
+    private FileBasedRegistryStoreConnector getConnector(String registryStoreName) throws Exception
+    {
+        Endpoint endpoint = new Endpoint();
+        endpoint.setAddress(registryStoreName);
+
+        Map<String, Object> configurationProperties = new HashMap<>();
+        configurationProperties.put(FileBasedRegistryStoreConnector.journalCompactionThresholdProperty, 3);
+
+        Connection connection = new Connection();
+        connection.setEndpoint(endpoint);
+        connection.setConfigurationProperties(configurationProperties);
+
+        FileBasedRegistryStoreConnector connector = new FileBasedRegistryStoreConnector();
+
+        connector.initialize(UUID.randomUUID().toString(), new ConnectionProperties(connection));
+        connector.start();
+
+        return connector;
+    }
+
+
+    private MemberRegistration getMemberRegistration(String name)
+    {
+        MemberRegistration member = new MemberRegistration();
+
+        member.setMetadataCollectionId(name + "MetadataCollectionId");
+        member.setServerName(name + "ServerName");
+        member.setRegistrationTime(new Date());
+        member.setRepositoryConnection(new Connection());
+
+        return member;
+    }
+
+
+    @Test public void testJournalRecovery() throws Exception
+    {
+        File   directory         = Files.createTempDirectory("registry").toFile();
+        String registryStoreName = new File(directory, "Test.registrystore").getPath();
+        File   registryFile      = new File(registryStoreName);
+        File   journalFile       = new File(registryStoreName + ".journal");
+
+        MemberRegistration local = getMemberRegistration("Local");
+        MemberRegistration fred  = getMemberRegistration("Fred");
+        MemberRegistration joe   = getMemberRegistration("Joe");
+        MemberRegistration bob   = getMemberRegistration("Bob");
+
+        FileBasedRegistryStoreConnector connector = getConnector(registryStoreName);
+
+        /*
+         * The third change reaches the compaction threshold.
+         */
+        connector.saveLocalRegistration(local);
+        connector.saveRemoteRegistration(fred);
+        connector.saveRemoteRegistration(joe);
+
+        assertTrue(registryFile.exists());
+        assertFalse(journalFile.exists());
+
+        connector.saveRemoteRegistration(bob);
+        connector.removeRemoteRegistration(fred.getMetadataCollectionId());
+
+        assertTrue(journalFile.exists());
+        assertNull(connector.retrieveRemoteRegistration(fred.getMetadataCollectionId()));
+
+        /*
+         * Simulate the server stopping part way through writing a journal entry.
+         */
+        try (FileOutputStream journalStream = new FileOutputStream(journalFile, true))
+        {
+            journalStream.write("{\"changeType\":\"SAVE_REMOTE".getBytes(StandardCharsets.UTF_8));
+        }
+
+        FileBasedRegistryStoreConnector recoveredConnector = getConnector(registryStoreName);
+
+        assertEquals(recoveredConnector.retrieveLocalRegistration(), local);
+        assertEquals(recoveredConnector.retrieveRemoteRegistrations().size(), 2);
+        assertEquals(recoveredConnector.retrieveRemoteRegistration(joe.getMetadataCollectionId()), joe);
+        assertEquals(recoveredConnector.retrieveRemoteRegistration(bob.getMetadataCollectionId()), bob);
+        assertNull(recoveredConnector.retrieveRemoteRegistration(fred.getMetadataCollectionId()));
+        assertFalse(journalFile.exists());
+
+        recoveredConnector.clearAllRegistrations();
+
+        assertFalse(registryFile.exists());
+        assertFalse(journalFile.exists());
+        assertNull(recoveredConnector.retrieveLocalRegistration());
+        assertNull(recoveredConnector.retrieveRemoteRegistrations());
+
+        recoveredConnector.disconnect();
+
+        assertTrue(directory.delete());
+    }
+}
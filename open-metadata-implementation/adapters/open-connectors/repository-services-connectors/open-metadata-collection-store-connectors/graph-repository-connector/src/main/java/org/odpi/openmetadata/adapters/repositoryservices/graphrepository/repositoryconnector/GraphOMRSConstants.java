@@ -65,6 +65,10 @@ public class GraphOMRSConstants {
         put(PROPERTY_NAME_ENTITY_IS_PROXY,                "java.lang.Boolean");
         put(PROPERTY_NAME_REPLICATED_BY,                  "java.lang.String");
         put(PROPERTY_NAME_MAPPING_PROPERTIES,             "java.lang.String");     // map of string->serializable stored in serialized form
+        put(PROPERTY_NAME_VERSION_TIME,                   "java.lang.Long");       // history only - time in milliseconds
+        put(PROPERTY_NAME_INSTANCE,                       "java.lang.String");     // history only - instance stored in serialized form
+        put(PROPERTY_NAME_END_ONE_GUID,                   "java.lang.String");     // history only - guid of the entity at end 1 of a relationship
+        put(PROPERTY_NAME_END_TWO_GUID,                   "java.lang.String");     // history only - guid of the entity at end 2 of a relationship
     }};
 
 
@@ -226,6 +230,35 @@ public class GraphOMRSConstants {
 
 
 
+    /*
+     *  HISTORY
+     */
+
+    // Each stored version of an entity or relationship is also recorded in a history vertex that holds the serialized
+    // instance. A history vertex without an instance records the removal of the instance from the repository.
+    // A relationship history vertex also records the guids of the entities at the ends of the relationship.
+
+    public static final String PROPERTY_NAME_VERSION_TIME                      = "versionTime";
+    public static final String PROPERTY_NAME_INSTANCE                          = "instance";
+    public static final String PROPERTY_NAME_END_ONE_GUID                      = "endOneGUID";
+    public static final String PROPERTY_NAME_END_TWO_GUID                      = "endTwoGUID";
+
+    public static final String PROPERTY_KEY_PREFIX_HISTORY                     = "vh";
+
+    public static final String PROPERTY_KEY_HISTORY_GUID                       = PROPERTY_KEY_PREFIX_HISTORY+PROPERTY_NAME_GUID;
+    public static final String PROPERTY_KEY_HISTORY_TYPE_NAME                  = PROPERTY_KEY_PREFIX_HISTORY+PROPERTY_NAME_TYPE_NAME;
+    public static final String PROPERTY_KEY_HISTORY_VERSION_TIME               = PROPERTY_KEY_PREFIX_HISTORY+PROPERTY_NAME_VERSION_TIME;
+    public static final String PROPERTY_KEY_HISTORY_INSTANCE                   = PROPERTY_KEY_PREFIX_HISTORY+PROPERTY_NAME_INSTANCE;
+    public static final String PROPERTY_KEY_HISTORY_END_ONE_GUID               = PROPERTY_KEY_PREFIX_HISTORY+PROPERTY_NAME_END_ONE_GUID;
+    public static final String PROPERTY_KEY_HISTORY_END_TWO_GUID               = PROPERTY_KEY_PREFIX_HISTORY+PROPERTY_NAME_END_TWO_GUID;
+
+    // The number of days that superseded versions are kept in the history.  This is read from the configuration
+    // properties of the repository connector.  If it is not set, the history is kept indefinitely.
+
+    public static final String HISTORY_RETENTION_DAYS_PROPERTY                 = "historyRetentionDays";
+
+
+
     public enum ElementType {
         Vertex,
         Edge
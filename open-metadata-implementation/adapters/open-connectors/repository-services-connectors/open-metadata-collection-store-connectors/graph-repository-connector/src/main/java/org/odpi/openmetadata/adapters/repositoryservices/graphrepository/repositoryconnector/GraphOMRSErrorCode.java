@@ -116,6 +116,10 @@ public enum GraphOMRSErrorCode implements ExceptionMessageSet
             "There is an already a relationship with GUID {0} so cannot honor request to create relationship in {1} method of class {2} to open metadata repository {3}",
             "The system is unable to perform the request because there is already a relationship with the same GUID.",
             "Correct the caller's code and retry the create request."),
+    UNIT_OF_WORK_NOT_COMMITTED(500, "OMRS-GRAPH-REPOSITORY-500-001",
+            "The changes made in a unit of work in the {0} method of class {1} were not committed to open metadata repository {2} because an operation in the unit of work failed",
+            "The system rolled back all of the changes made in the unit of work.",
+            "Check the errors reported for the individual operations and retry the request."),
 
     ;
 
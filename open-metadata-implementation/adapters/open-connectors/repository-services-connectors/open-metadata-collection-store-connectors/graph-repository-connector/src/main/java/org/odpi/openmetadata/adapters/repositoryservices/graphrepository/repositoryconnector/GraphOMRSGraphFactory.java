@@ -281,6 +281,11 @@ public class GraphOMRSGraphFactory {
                 management.makeVertexLabel("Entity").make();
             if (management.getVertexLabel("Classification") == null)
                 management.makeVertexLabel("Classification").make();
+            // History vertices record the versions of entities and relationships - they are not connected to other vertices
+            if (management.getVertexLabel("EntityHistory") == null)
+                management.makeVertexLabel("EntityHistory").make();
+            if (management.getVertexLabel("RelationshipHistory") == null)
+                management.makeVertexLabel("RelationshipHistory").make();
             // Each edge has a label that reflects the TypeDefCategory - i.e. Relationship
             if (management.getEdgeLabel("Relationship") == null)
                 management.makeEdgeLabel("Relationship").make();
@@ -391,6 +396,26 @@ public class GraphOMRSGraphFactory {
             createMixedIndexForVertexCoreProperty(PROPERTY_NAME_REPLICATED_BY,            PROPERTY_KEY_CLASSIFICATION_REPLICATED_BY);
             createMixedIndexForVertexCoreProperty(PROPERTY_NAME_MAPPING_PROPERTIES,       PROPERTY_KEY_CLASSIFICATION_MAPPING_PROPERTIES);
 
+            /*
+             *  History property indexes
+             */
+
+            // A history vertex (for either an entity or a relationship) has the following properties and indexes:
+            // guid                                -   composite - not unique, there is a vertex per version of the instance
+            // typeName                            -   composite - used to find candidate instances for historic searches
+            // versionTime                         -   mixed     - historic queries select versions made at or before a time,
+            //                                                     and composite indexes only answer equality conditions
+            // instance                            -   none
+            // endOneGUID, endTwoGUID              -   composite - relationship history only, used to find the relationships
+            //                                                     of an entity at a past time
+
+            createCompositeIndexForVertexProperty(PROPERTY_NAME_GUID,                     PROPERTY_KEY_HISTORY_GUID,      false);
+            createCompositeIndexForVertexProperty(PROPERTY_NAME_TYPE_NAME,                PROPERTY_KEY_HISTORY_TYPE_NAME, false);
+            createCompositeIndexForVertexProperty(PROPERTY_NAME_END_ONE_GUID,             PROPERTY_KEY_HISTORY_END_ONE_GUID, false);
+            createCompositeIndexForVertexProperty(PROPERTY_NAME_END_TWO_GUID,             PROPERTY_KEY_HISTORY_END_TWO_GUID, false);
+
+            createMixedIndexForVertexCoreProperty(PROPERTY_NAME_VERSION_TIME,             PROPERTY_KEY_HISTORY_VERSION_TIME);
+
         }
         catch (Exception e) {
 
@@ -436,6 +461,8 @@ public class GraphOMRSGraphFactory {
         put(PROPERTY_KEY_CLASSIFICATION_REPLICATED_BY,             MixedIndexMapping.String);
         put(PROPERTY_KEY_CLASSIFICATION_MAPPING_PROPERTIES,        MixedIndexMapping.Text  );    // mappingProperties is stored as a serialized map of String,Serializable so uses Text mapping
 
+        put(PROPERTY_KEY_HISTORY_VERSION_TIME,                     MixedIndexMapping.Default);   // versionTime is a Long so uses the default (numeric) mapping
+
     }};
 
 
@@ -12,11 +12,14 @@ import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollec
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityProxy;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntitySummary;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceGraph;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePage;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceProperties;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceProvenanceType;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceStatus;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceType;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Relationship;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchClassifications;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchProperties;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDef;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDefCategory;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDefGallery;
@@ -403,6 +406,121 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
     }
 
 
+    // getEntityDetail - historical version
+    public EntityDetail getEntityDetail(String     userId,
+                                        String     guid,
+                                        Date       asOfTime)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException,
+            EntityNotKnownException,
+            EntityProxyOnlyException,
+            UserNotAuthorizedException
+    {
+        final String methodName = "getEntityDetail";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstanceParameterValidation(userId, guid, asOfTime, methodName);
+
+        /*
+         * Perform operation
+         */
+
+        EntityDetail entity = graphStore.getEntityDetailFromHistory(guid, asOfTime);
+
+        repositoryValidator.validateEntityFromStore(repositoryName, guid, entity, methodName);
+        repositoryValidator.validateEntityIsNotDeleted(repositoryName, entity, methodName);
+
+        return entity;
+    }
+
+
+    // areEntitiesKnown
+    @Override
+    public List<EntityDetail> areEntitiesKnown(String        userId,
+                                               List<String>  guids)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException,
+            UserNotAuthorizedException
+    {
+        final String methodName = "areEntitiesKnown";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null) {
+            return null;
+        }
+
+        /*
+         * Perform operation - all of the entities are retrieved in a single traversal
+         */
+
+        Map<String, EntityDetail> entityMap = graphStore.getEntityDetailsFromStore(guids);
+
+        List<EntityDetail> entities = new ArrayList<>();
+        for (String guid : guids) {
+            EntityDetail entity = entityMap.get(guid);
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
+
+        return entities.isEmpty() ? null : entities;
+    }
+
+
+    // getEntityDetails
+    @Override
+    public List<EntityDetail> getEntityDetails(String        userId,
+                                               List<String>  guids)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException,
+            EntityNotKnownException,
+            EntityProxyOnlyException,
+            UserNotAuthorizedException
+    {
+        final String methodName = "getEntityDetails";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null) {
+            return null;
+        }
+
+        /*
+         * Perform operation - all of the entities are retrieved in a single traversal
+         */
+
+        Map<String, EntityDetail> entityMap = graphStore.getEntityDetailsFromStore(guids);
+
+        List<EntityDetail> entities = new ArrayList<>();
+        for (String guid : guids) {
+            EntityDetail entity = entityMap.get(guid);
+            if (entity == null) {
+                // Retrieve the single entity to report whether it is unknown or only a proxy
+                entity = graphStore.getEntityDetailFromStore(guid);
+            }
+
+            repositoryValidator.validateEntityFromStore(repositoryName, guid, entity, methodName);
+            repositoryValidator.validateEntityIsNotDeleted(repositoryName, entity, methodName);
+
+            entities.add(entity);
+        }
+
+        return entities;
+    }
+
+
     // addRelationship
     public Relationship addRelationship(String               userId,
                                         String               relationshipTypeGUID,
@@ -479,6 +597,44 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
     }
 
 
+    /*
+     * Add the batch in a single graph transaction so that either all of the new instances are committed or none
+     * of them are.  The instances are not visible to other requests until the transaction is committed.
+     */
+    public InstanceGraph addEntitiesAndRelationships(String         userId,
+                                                     InstanceGraph  newInstances)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException,
+            TypeErrorException,
+            PropertyErrorException,
+            ClassificationErrorException,
+            EntityNotKnownException,
+            StatusNotSupportedException,
+            UserNotAuthorizedException,
+            FunctionNotSupportedException
+    {
+        final String methodName = "addEntitiesAndRelationships";
+
+        super.validateNewInstanceBatch(newInstances, methodName);
+
+        List<EntityDetail> newEntities      = new ArrayList<>();
+        List<Relationship> newRelationships = new ArrayList<>();
+
+        graphStore.beginUnitOfWork();
+        try {
+            super.addNewInstances(userId, newInstances, newEntities, newRelationships);
+        }
+        catch (Exception e) {
+            graphStore.rollbackUnitOfWork();
+            throw e;
+        }
+        graphStore.commitUnitOfWork();
+
+        return new InstanceGraph(newEntities, newRelationships);
+    }
+
+
     // addExternalRelationship
     public Relationship addExternalRelationship(String               userId,
                                                 String               relationshipTypeGUID,
@@ -587,6 +743,112 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
     }
 
 
+    // getRelationship - historical version
+    public Relationship getRelationship(String    userId,
+                                        String    guid,
+                                        Date      asOfTime)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException,
+            RelationshipNotKnownException,
+            UserNotAuthorizedException
+    {
+        final String  methodName = "getRelationship";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstanceParameterValidation(userId, guid, asOfTime, methodName);
+
+        /*
+         * Process operation
+         */
+        Relationship  relationship = graphStore.getRelationshipFromHistory(guid, asOfTime);
+
+        repositoryValidator.validateRelationshipFromStore(repositoryName, guid, relationship, methodName);
+        repositoryValidator.validateRelationshipIsNotDeleted(repositoryName, relationship, methodName);
+
+        return relationship;
+    }
+
+
+    // areRelationshipsKnown
+    @Override
+    public List<Relationship> areRelationshipsKnown(String        userId,
+                                                    List<String>  guids)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException,
+            UserNotAuthorizedException
+    {
+        final String  methodName = "areRelationshipsKnown";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null) {
+            return null;
+        }
+
+        /*
+         * Process operation - all of the relationships are retrieved in a single traversal
+         */
+        Map<String, Relationship> relationshipMap = graphStore.getRelationshipsFromStore(guids);
+
+        List<Relationship> relationships = new ArrayList<>();
+        for (String guid : guids) {
+            Relationship relationship = relationshipMap.get(guid);
+            if (relationship != null) {
+                relationships.add(relationship);
+            }
+        }
+
+        return relationships.isEmpty() ? null : relationships;
+    }
+
+
+    // getRelationships
+    @Override
+    public List<Relationship> getRelationships(String        userId,
+                                               List<String>  guids)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException,
+            RelationshipNotKnownException,
+            UserNotAuthorizedException
+    {
+        final String  methodName = "getRelationships";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null) {
+            return null;
+        }
+
+        /*
+         * Process operation - all of the relationships are retrieved in a single traversal
+         */
+        Map<String, Relationship> relationshipMap = graphStore.getRelationshipsFromStore(guids);
+
+        List<Relationship> relationships = new ArrayList<>();
+        for (String guid : guids) {
+            Relationship relationship = relationshipMap.get(guid);
+
+            repositoryValidator.validateRelationshipFromStore(repositoryName, guid, relationship, methodName);
+            repositoryValidator.validateRelationshipIsNotDeleted(repositoryName, relationship, methodName);
+
+            relationships.add(relationship);
+        }
+
+        return relationships;
+    }
+
+
     // updateEntityStatus
     public EntityDetail updateEntityStatus(String           userId,
                                            String           entityGUID,
@@ -1108,56 +1370,241 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
                 pageSize);
 
         /*
-         * Perform operation
+         * Perform operation - a historical request uses the versions of the entity and its relationships at the asOfTime.
+         * An entity that has no version in the history (for example a proxy) is validated as it is now.
+         */
+        EntitySummary  entity = null;
+        if (asOfTime != null) {
+            entity = graphStore.getEntityDetailFromHistory(entityGUID, asOfTime);
+        }
+        if (entity == null) {
+            entity = this.getEntitySummary(userId, entityGUID);
+        }
+
+        repositoryValidator.validateEntityFromStore(repositoryName, entityGUID, entity, methodName);
+        repositoryValidator.validateEntityIsNotDeleted(repositoryName, entity, methodName);
+
+        List<Relationship> filteredRelationships = new ArrayList<>();
+        List<Relationship> relationships;
+        if (asOfTime != null) {
+            relationships = graphStore.getRelationshipsForEntityFromHistory(entityGUID, asOfTime);
+        }
+        else {
+            relationships = graphStore.getRelationshipsForEntity(entityGUID);
+        }
+
+        for (Relationship  relationship : relationships) {
+
+            if (relationship != null) {
+
+                if (relationship.getStatus() != InstanceStatus.DELETED) {
+                    // exclude DELETED relationships
+
+                    // filter results according to status filter parameter
+                    if (  limitResultsByStatus == null
+                          || (   limitResultsByStatus != null
+                              && !limitResultsByStatus.isEmpty()
+                              && limitResultsByStatus.contains(relationship.getStatus()))) {
+
+                        // filter by typeGUID if necessary
+                        if (relationshipTypeGUID == null  || relationshipTypeGUID.equals(relationship.getType().getTypeDefGUID())) {
+                            filteredRelationships.add(relationship);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (filteredRelationships.isEmpty())
+        {
+            return null;
+        }
+
+        return repositoryHelper.formatRelationshipResults(filteredRelationships,
+                fromRelationshipElement,
+                sequencingProperty,
+                sequencingOrder,
+                pageSize);
+    }
+
+
+    // countRelationshipsForEntity
+    @Override
+    public int countRelationshipsForEntity(String                     userId,
+                                           String                     entityGUID,
+                                           String                     relationshipTypeGUID,
+                                           List<InstanceStatus>       limitResultsByStatus,
+                                           List<String>               excludedHomeMetadataCollectionIds)
+            throws
+            InvalidParameterException,
+            TypeErrorException,
+            RepositoryErrorException,
+            EntityNotKnownException,
+            UserNotAuthorizedException
+    {
+        final String  methodName = "countRelationshipsForEntity";
+
+        /*
+         * Validate parameters
+         */
+        super.countRelationshipsForEntityParameterValidation(userId, entityGUID, relationshipTypeGUID, methodName);
+
+        /*
+         * Perform operation - the relationships are counted in the graph rather than retrieved
          */
         EntitySummary  entity = this.getEntitySummary(userId, entityGUID);
 
         repositoryValidator.validateEntityFromStore(repositoryName, entityGUID, entity, methodName);
         repositoryValidator.validateEntityIsNotDeleted(repositoryName, entity, methodName);
 
-        List<Relationship> entityRelationships = new ArrayList<>();
+        String relationshipTypeName = null;
+        if (relationshipTypeGUID != null) {
+            TypeDef typeDef = repositoryHelper.getTypeDef(repositoryName, "relationshipTypeGUID", relationshipTypeGUID, methodName);
+            relationshipTypeName = typeDef.getName();
+        }
 
-        if (asOfTime != null) {
-            log.error("{} does not support asOfTime searches", methodName);
+        long count = graphStore.countRelationshipsForEntity(entityGUID, relationshipTypeName, limitResultsByStatus,
+                excludedHomeMetadataCollectionIds);
 
-            super.reportUnsupportedOptionalFunction(methodName);
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+
+    // countEntities
+    /*
+     * A count by type and status is performed in the graph without retrieving the entities.  Counts that
+     * match properties or classifications, or that restrict the subtypes, are performed by retrieving the entities.
+     */
+    @Override
+    public int countEntities(String                    userId,
+                             String                    entityTypeGUID,
+                             List<String>              entitySubtypeGUIDs,
+                             SearchProperties          matchProperties,
+                             List<InstanceStatus>      limitResultsByStatus,
+                             SearchClassifications     matchClassifications,
+                             List<String>              excludedHomeMetadataCollectionIds)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException,
+            TypeErrorException,
+            PropertyErrorException,
+            FunctionNotSupportedException,
+            UserNotAuthorizedException
+    {
+        final String methodName = "countEntities";
+        final String entityTypeGUIDParameterName = "entityTypeGUID";
+
+        if (entitySubtypeGUIDs != null || matchProperties != null || matchClassifications != null) {
+            return super.countEntities(userId, entityTypeGUID, entitySubtypeGUIDs, matchProperties,
+                    limitResultsByStatus, matchClassifications, excludedHomeMetadataCollectionIds);
         }
 
-        List<Relationship> filteredRelationships = new ArrayList<>();
-        List<Relationship> relationships = graphStore.getRelationshipsForEntity(entityGUID);
+        /*
+         * Validate parameters
+         */
+        super.countEntitiesParameterValidation(userId, entityTypeGUID, null, null, null, methodName);
 
-        for (Relationship  relationship : relationships) {
+        /*
+         * Perform operation
+         */
+        String specifiedTypeName = null;
+        if (entityTypeGUID != null) {
+            TypeDef typeDef = repositoryHelper.getTypeDef(repositoryName, entityTypeGUIDParameterName, entityTypeGUID, methodName);
+            specifiedTypeName = typeDef.getName();
+        }
 
-            if (relationship != null) {
+        long count = graphStore.countEntities(getTypeDefNames(getEntityTypeDefsForSearch(specifiedTypeName)),
+                limitResultsByStatus, excludedHomeMetadataCollectionIds);
+
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+
+    // countRelationships
+    /*
+     * A count by type and status is performed in the graph without retrieving the relationships.  Counts that
+     * match properties, or that restrict the subtypes, are performed by retrieving the relationships.
+     */
+    @Override
+    public int countRelationships(String                    userId,
+                                  String                    relationshipTypeGUID,
+                                  List<String>              relationshipSubtypeGUIDs,
+                                  SearchProperties          matchProperties,
+                                  List<InstanceStatus>      limitResultsByStatus,
+                                  List<String>              excludedHomeMetadataCollectionIds)
+            throws
+            InvalidParameterException,
+            TypeErrorException,
+            RepositoryErrorException,
+            PropertyErrorException,
+            FunctionNotSupportedException,
+            UserNotAuthorizedException
+    {
+        final String methodName = "countRelationships";
+        final String relationshipTypeGUIDParameterName = "relationshipTypeGUID";
+
+        if (relationshipSubtypeGUIDs != null || matchProperties != null) {
+            return super.countRelationships(userId, relationshipTypeGUID, relationshipSubtypeGUIDs, matchProperties,
+                    limitResultsByStatus, excludedHomeMetadataCollectionIds);
+        }
+
+        /*
+         * Validate parameters
+         */
+        super.countRelationshipsParameterValidation(userId, relationshipTypeGUID, null, null, methodName);
+
+        /*
+         * Perform operation
+         */
+        long count = graphStore.countRelationships(getRelationshipTypeNamesForSearch(relationshipTypeGUID,
+                relationshipTypeGUIDParameterName, methodName), limitResultsByStatus, excludedHomeMetadataCollectionIds);
+
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+
+    // getRelationshipsForEntityWithCursor
+    /*
+     * The cursor is the GUID of the last relationship returned.  The relationships are retrieved from the graph
+     * in GUID order so each page resumes where the previous one finished.
+     */
+    @Override
+    public InstancePage<Relationship> getRelationshipsForEntityWithCursor(String                     userId,
+                                                                          String                     entityGUID,
+                                                                          String                     relationshipTypeGUID,
+                                                                          String                     cursor,
+                                                                          List<InstanceStatus>       limitResultsByStatus,
+                                                                          int                        pageSize)
+            throws
+            InvalidParameterException,
+            TypeErrorException,
+            RepositoryErrorException,
+            EntityNotKnownException,
+            PagingErrorException,
+            UserNotAuthorizedException
+    {
+        final String  methodName = "getRelationshipsForEntityWithCursor";
 
-                if (relationship.getStatus() != InstanceStatus.DELETED) {
-                    // exclude DELETED relationships
+        /*
+         * Validate parameters
+         */
+        super.getRelationshipsForEntityWithCursorParameterValidation(userId, entityGUID, relationshipTypeGUID, pageSize, methodName);
 
-                    // filter results according to status filter parameter
-                    if (  limitResultsByStatus == null
-                          || (   limitResultsByStatus != null
-                              && !limitResultsByStatus.isEmpty()
-                              && limitResultsByStatus.contains(relationship.getStatus()))) {
+        /*
+         * Perform operation
+         */
+        EntitySummary  entity = this.getEntitySummary(userId, entityGUID);
 
-                        // filter by typeGUID if necessary
-                        if (relationshipTypeGUID == null  || relationshipTypeGUID.equals(relationship.getType().getTypeDefGUID())) {
-                            filteredRelationships.add(relationship);
-                        }
-                    }
-                }
-            }
-        }
+        repositoryValidator.validateEntityFromStore(repositoryName, entityGUID, entity, methodName);
+        repositoryValidator.validateEntityIsNotDeleted(repositoryName, entity, methodName);
 
-        if (filteredRelationships.isEmpty())
-        {
-            return null;
+        String relationshipTypeName = null;
+        if (relationshipTypeGUID != null) {
+            TypeDef typeDef = repositoryHelper.getTypeDef(repositoryName, "relationshipTypeGUID", relationshipTypeGUID, methodName);
+            relationshipTypeName = typeDef.getName();
         }
 
-        return repositoryHelper.formatRelationshipResults(filteredRelationships,
-                fromRelationshipElement,
-                sequencingProperty,
-                sequencingOrder,
-                pageSize);
+        return graphStore.getRelationshipsForEntityAfter(entityGUID, relationshipTypeName, limitResultsByStatus, cursor, pageSize);
     }
 
 
@@ -1202,26 +1649,114 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
                 pageSize);
 
 
+        /*
+         * Perform operation
+         */
+
+        String specifiedTypeName = null;
+        if (entityTypeGUID != null) {
+            TypeDef typeDef = repositoryHelper.getTypeDef(repositoryName, entityTypeGUIDParameterName, entityTypeGUID, methodName);
+            specifiedTypeName = typeDef.getName();
+        }
+
+        List<TypeDef> typeDefs = getEntityTypeDefsForSearch(specifiedTypeName);
+
+        // A historical search filters the versions of the entities at the asOfTime.
+        // Paging is performed by the store unless the results need to be sorted on a property value.
         if (asOfTime != null) {
-            log.error("{} does not support asOfTime searches", methodName);
+            GraphOMRSMetadataStore.HistoryFilter<EntityDetail> filter = entity ->    (entity.getStatus() != InstanceStatus.DELETED)
+                                                                                  && (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, entity))
+                                                                                  && (repositoryValidator.verifyEntityIsClassified(limitResultsByClassification, entity))
+                                                                                  && (repositoryValidator.verifyMatchingInstancePropertyValues(matchProperties, entity, entity.getProperties(), matchCriteria));
 
-            super.reportUnsupportedOptionalFunction(methodName);
+            if (sequencingProperty == null) {
+                List<EntityDetail> returned = graphStore.findEntitiesInHistory(getTypeDefNames(typeDefs), asOfTime, filter, fromEntityElement, pageSize);
+
+                return repositoryHelper.formatEntityResults(returned, 0, null, sequencingOrder, pageSize);
+            }
+
+            List<EntityDetail> returned = graphStore.findEntitiesInHistory(getTypeDefNames(typeDefs), asOfTime, filter, 0, 0);
+
+            return repositoryHelper.formatEntityResults(returned, fromEntityElement, sequencingProperty, sequencingOrder, pageSize);
         }
 
+        // Search all of the types in one traversal. The search will expect the regexp to match fully to the value.
+        // Paging is performed by the graph unless the results need to be sorted on a property value.
+        if (sequencingProperty == null) {
+            List<EntityDetail> returnEntities = graphStore.findEntitiesByProperty(typeDefs, matchProperties, matchCriteria, true,
+                    limitResultsByStatus, limitResultsByClassification, fromEntityElement, pageSize);
 
-        /*
-         * Perform operation
-         */
+            log.info("{}: found {} entities", methodName, returnEntities.size());
 
-        ArrayList<EntityDetail> returnEntities = null;
+            return repositoryHelper.formatEntityResults(returnEntities, 0, null, sequencingOrder, pageSize);
+        }
+        else {
+            List<EntityDetail> returnEntities = graphStore.findEntitiesByProperty(typeDefs, matchProperties, matchCriteria, true,
+                    limitResultsByStatus, limitResultsByClassification, 0, 0);
+
+            log.info("{}: found {} entities", methodName, returnEntities.size());
+
+            return repositoryHelper.formatEntityResults(returnEntities, fromEntityElement, sequencingProperty, sequencingOrder, pageSize);
+        }
+    }
+
+
+    // findEntitiesByPropertyWithCursor
+    /*
+     * The cursor is the GUID of the last entity returned.  The search is run in the graph in GUID order so each
+     * page resumes where the previous one finished.
+     */
+    @Override
+    public InstancePage<EntityDetail> findEntitiesByPropertyWithCursor(String                 userId,
+                                                                       String                 entityTypeGUID,
+                                                                       InstanceProperties     matchProperties,
+                                                                       MatchCriteria          matchCriteria,
+                                                                       String                 cursor,
+                                                                       List<InstanceStatus>   limitResultsByStatus,
+                                                                       List<String>           limitResultsByClassification,
+                                                                       int                    pageSize)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException,
+            TypeErrorException,
+            PagingErrorException,
+            UserNotAuthorizedException
+    {
+        final String methodName = "findEntitiesByPropertyWithCursor";
+        final String entityTypeGUIDParameterName = "entityTypeGUID";
 
+        /*
+         * Validate parameters
+         */
+        super.findEntitiesByPropertyWithCursorParameterValidation(userId,
+                entityTypeGUID,
+                matchProperties,
+                matchCriteria,
+                pageSize,
+                methodName);
 
+        /*
+         * Perform operation
+         */
         String specifiedTypeName = null;
         if (entityTypeGUID != null) {
             TypeDef typeDef = repositoryHelper.getTypeDef(repositoryName, entityTypeGUIDParameterName, entityTypeGUID, methodName);
             specifiedTypeName = typeDef.getName();
         }
 
+        return graphStore.findEntitiesByPropertyAfter(getEntityTypeDefsForSearch(specifiedTypeName), matchProperties, matchCriteria, true,
+                limitResultsByStatus, limitResultsByClassification, cursor, pageSize);
+    }
+
+
+    /*
+     * Return the entity types to include in a search - the specified type and its subtypes, or all entity types
+     * if no type is specified.
+     */
+    private List<TypeDef> getEntityTypeDefsForSearch(String specifiedTypeName)
+    {
+        List<TypeDef> typeDefs = new ArrayList<>();
+
         TypeDefGallery activeTypes = repositoryHelper.getActiveTypeDefGallery();
         List<TypeDef> allTypeDefs = activeTypes.getTypeDefs();
 
@@ -1230,53 +1765,30 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
 
                 String actualTypeName = typeDef.getName();
 
-                // If entityTypeGUID parameter is not null there is an expected type, so check whether the
-                // current type matches the expected type or is one of its sub-types.
-
-                if (specifiedTypeName != null) {
-
-                    boolean typeMatch = repositoryHelper.isTypeOf(metadataCollectionId, actualTypeName, specifiedTypeName);
-                    if (!typeMatch) {
-                        continue;
-                    }
-
-                }
-
-                // Invoke a type specific search. The search will expect the regexp to match fully to the value.
-                List<EntityDetail> entitiesForCurrentType = graphStore.findEntitiesByProperty(actualTypeName, matchProperties, matchCriteria, true);
+                // If there is an expected type, check whether the current type matches the expected type or is one of its sub-types.
 
-                if (entitiesForCurrentType != null && !entitiesForCurrentType.isEmpty()) {
-                    if (returnEntities == null) {
-                        returnEntities = new ArrayList<>();
-                    }
-                    log.info("{}: for type {} found {} entities", methodName, typeDef.getName(), entitiesForCurrentType.size());
-                    returnEntities.addAll(entitiesForCurrentType);
-                } else {
-                    log.info("{}: for type {} found no entities", methodName, typeDef.getName());
+                if (specifiedTypeName == null || repositoryHelper.isTypeOf(metadataCollectionId, actualTypeName, specifiedTypeName)) {
+                    typeDefs.add(typeDef);
                 }
-
             }
         }
 
-        // Eliminate soft deleted entities and apply status and classification filtering if any was requested
-        if (returnEntities == null) {
-            return null;
-        }
-        else {
-            List<EntityDetail> retainedEntities = new ArrayList<>();
-            for (EntityDetail entity : returnEntities) {
-                if (entity != null) {
-                    if ((entity.getStatus() != InstanceStatus.DELETED)
-                            && (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, entity))
-                            && (repositoryValidator.verifyEntityIsClassified(limitResultsByClassification, entity))) {
+        return typeDefs;
+    }
 
-                        retainedEntities.add(entity);
-                    }
-                }
-            }
 
-            return repositoryHelper.formatEntityResults(retainedEntities, fromEntityElement, sequencingProperty, sequencingOrder, pageSize);
+    /*
+     * Return the names of the types to include in a search.
+     */
+    private List<String> getTypeDefNames(List<TypeDef> typeDefs)
+    {
+        List<String> typeDefNames = new ArrayList<>();
+
+        for (TypeDef typeDef : typeDefs) {
+            typeDefNames.add(typeDef.getName());
         }
+
+        return typeDefNames;
     }
 
 
@@ -1320,10 +1832,22 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
         this.validateTypeGUID(repositoryName, guidParameterName, relationshipTypeGUID, methodName);
 
 
+        // A historical search filters the versions of the relationships at the asOfTime.
+        // Paging is performed by the store unless the results need to be sorted on a property value.
         if (asOfTime != null) {
-            log.error("{} does not support asOfTime searches", methodName);
+            GraphOMRSMetadataStore.HistoryFilter<Relationship> filter = relationship ->    (relationship.getStatus() != InstanceStatus.DELETED)
+                                                                                        && (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, relationship))
+                                                                                        && (repositoryValidator.verifyMatchingInstancePropertyValues(matchProperties, relationship, relationship.getProperties(), matchCriteria));
 
-            super.reportUnsupportedOptionalFunction(methodName);
+            if (sequencingProperty == null) {
+                List<Relationship> returned = graphStore.findRelationshipsInHistory(getRelationshipTypeNamesForSearch(relationshipTypeGUID, guidParameterName, methodName), asOfTime, filter, fromRelationshipElement, pageSize);
+
+                return repositoryHelper.formatRelationshipResults(returned, 0, null, sequencingOrder, pageSize);
+            }
+
+            List<Relationship> returned = graphStore.findRelationshipsInHistory(getRelationshipTypeNamesForSearch(relationshipTypeGUID, guidParameterName, methodName), asOfTime, filter, 0, 0);
+
+            return repositoryHelper.formatRelationshipResults(returned, fromRelationshipElement, sequencingProperty, sequencingOrder, pageSize);
         }
 
 
@@ -1420,6 +1944,34 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
 
 
 
+    /*
+     * Return the names of the relationship types to include in a search - the specified type, or all relationship
+     * types if no type is specified.
+     */
+    private List<String> getRelationshipTypeNamesForSearch(String relationshipTypeGUID,
+                                                           String guidParameterName,
+                                                           String methodName)
+            throws
+            TypeErrorException
+    {
+        List<String> typeDefNames = new ArrayList<>();
+
+        if (relationshipTypeGUID != null) {
+            TypeDef typeDef = repositoryHelper.getTypeDef(repositoryName, guidParameterName, relationshipTypeGUID, methodName);
+            typeDefNames.add(typeDef.getName());
+        }
+        else {
+            for (TypeDef typeDef : repositoryHelper.getActiveTypeDefGallery().getTypeDefs()) {
+                if (typeDef.getCategory() == TypeDefCategory.RELATIONSHIP_DEF) {
+                    typeDefNames.add(typeDef.getName());
+                }
+            }
+        }
+
+        return typeDefNames;
+    }
+
+
     public  void validateTypeGUID(String sourceName,
                                   String guidParameterName,
                                   String guid,
@@ -1478,19 +2030,10 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
                 pageSize);
 
 
-        if (asOfTime != null) {
-            log.error("{} does not support asOfTime searches", methodName);
-
-            super.reportUnsupportedOptionalFunction(methodName);
-        }
-
-
         /*
          * Perform operation
          */
 
-        List<EntityDetail> returnEntities = null;
-
         // Include subtypes
 
         String specifiedTypeName = null;
@@ -1499,64 +2042,44 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
             specifiedTypeName = typeDef.getName();
         }
 
-        TypeDefGallery activeTypes = repositoryHelper.getActiveTypeDefGallery();
-        List<TypeDef> allTypeDefs = activeTypes.getTypeDefs();
-
-        for (TypeDef typeDef : allTypeDefs) {
-            if (typeDef.getCategory() == TypeDefCategory.ENTITY_DEF) {
-
-                String actualTypeName = typeDef.getName();
-
-                // If entityTypeGUID parameter is not null there is an expected type, so check whether the
-                // current type matches the expected type or is one of its sub-types.
-
-                if (specifiedTypeName != null) {
+        List<TypeDef> typeDefs = getEntityTypeDefsForSearch(specifiedTypeName);
 
-                    boolean typeMatch = repositoryHelper.isTypeOf(metadataCollectionId, actualTypeName, specifiedTypeName);
-                    if (!typeMatch) {
-                        continue;
-                    }
-
-                }
+        // A historical search filters the versions of the entities at the asOfTime.
+        // Paging is performed by the store unless the results need to be sorted on a property value.
+        if (asOfTime != null) {
+            GraphOMRSMetadataStore.HistoryFilter<EntityDetail> filter = entity ->    (entity.getStatus() != InstanceStatus.DELETED)
+                                                                                  && (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, entity))
+                                                                                  && (repositoryValidator.verifyEntityIsClassified(limitResultsByClassification, entity))
+                                                                                  && (repositoryValidator.verifyInstancePropertiesMatchSearchCriteria(repositoryName, entity.getProperties(), searchCriteria, methodName));
 
-                InstanceProperties matchProperties = graphStore.constructMatchPropertiesForSearchCriteria(typeDef, searchCriteria, GraphOMRSConstants.ElementType.Vertex);
+            if (sequencingProperty == null) {
+                List<EntityDetail> returned = graphStore.findEntitiesInHistory(getTypeDefNames(typeDefs), asOfTime, filter, fromEntityElement, pageSize);
 
+                return repositoryHelper.formatEntityResults(returned, 0, null, sequencingOrder, pageSize);
+            }
 
-                // Do not tolerate substring matches - instead always the regex must match the whole value - i.e. set fullMatch parameter to true.
-                List<EntityDetail> entitiesForCurrentType = graphStore.findEntitiesByProperty(actualTypeName, matchProperties, MatchCriteria.ANY, true);
+            List<EntityDetail> returned = graphStore.findEntitiesInHistory(getTypeDefNames(typeDefs), asOfTime, filter, 0, 0);
 
+            return repositoryHelper.formatEntityResults(returned, fromEntityElement, sequencingProperty, sequencingOrder, pageSize);
+        }
 
-                if (entitiesForCurrentType != null && !entitiesForCurrentType.isEmpty()) {
-                    if (returnEntities == null) {
-                        returnEntities = new ArrayList<>();
-                    }
-                    log.info("{}: for type {} found {} entities", methodName, typeDef.getName(), entitiesForCurrentType.size());
-                    returnEntities.addAll(entitiesForCurrentType);
-                } else {
-                    log.info("{}: for type {} found no entities", methodName, typeDef.getName());
-                }
+        // Search all of the types in one traversal.
+        // Paging is performed by the graph unless the results need to be sorted on a property value.
+        if (sequencingProperty == null) {
+            List<EntityDetail> returnEntities = graphStore.findEntitiesByPropertyValue(typeDefs, searchCriteria,
+                    limitResultsByStatus, limitResultsByClassification, fromEntityElement, pageSize);
 
-            }
-        }
+            log.info("{}: found {} entities", methodName, returnEntities.size());
 
-        // Eliminate soft deleted entities and apply status and classification filtering if any was requested
-        if (returnEntities ==  null) {
-            return null;
+            return repositoryHelper.formatEntityResults(returnEntities, 0, null, sequencingOrder, pageSize);
         }
         else {
-            List<EntityDetail> retainedEntities = new ArrayList<>();
-            for (EntityDetail entity : returnEntities) {
-                if (entity != null) {
-                    if ((entity.getStatus() != InstanceStatus.DELETED)
-                            && (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, entity))
-                            && (repositoryValidator.verifyEntityIsClassified(limitResultsByClassification, entity))) {
+            List<EntityDetail> returnEntities = graphStore.findEntitiesByPropertyValue(typeDefs, searchCriteria,
+                    limitResultsByStatus, limitResultsByClassification, 0, 0);
 
-                        retainedEntities.add(entity);
-                    }
-                }
-            }
+            log.info("{}: found {} entities", methodName, returnEntities.size());
 
-            return repositoryHelper.formatEntityResults(retainedEntities, fromEntityElement, sequencingProperty, sequencingOrder, pageSize);
+            return repositoryHelper.formatEntityResults(returnEntities, fromEntityElement, sequencingProperty, sequencingOrder, pageSize);
         }
     }
 
@@ -1599,10 +2122,22 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
                 pageSize);
 
 
+        // A historical search filters the versions of the relationships at the asOfTime.
+        // Paging is performed by the store unless the results need to be sorted on a property value.
         if (asOfTime != null) {
-            log.error("{} does not support asOfTime searches", methodName);
+            GraphOMRSMetadataStore.HistoryFilter<Relationship> filter = relationship ->    (relationship.getStatus() != InstanceStatus.DELETED)
+                                                                                        && (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, relationship))
+                                                                                        && (repositoryValidator.verifyInstancePropertiesMatchSearchCriteria(repositoryName, relationship.getProperties(), searchCriteria, methodName));
 
-            super.reportUnsupportedOptionalFunction(methodName);
+            if (sequencingProperty == null) {
+                List<Relationship> returned = graphStore.findRelationshipsInHistory(getRelationshipTypeNamesForSearch(relationshipTypeGUID, relationshipTypeGUIDParameterName, methodName), asOfTime, filter, fromRelationshipElement, pageSize);
+
+                return repositoryHelper.formatRelationshipResults(returned, 0, null, sequencingOrder, pageSize);
+            }
+
+            List<Relationship> returned = graphStore.findRelationshipsInHistory(getRelationshipTypeNamesForSearch(relationshipTypeGUID, relationshipTypeGUIDParameterName, methodName), asOfTime, filter, 0, 0);
+
+            return repositoryHelper.formatRelationshipResults(returned, fromRelationshipElement, sequencingProperty, sequencingOrder, pageSize);
         }
 
         /*
@@ -1855,6 +2390,31 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
     }
 
 
+    /*
+     * Return true if the entity has the named classification and the classification's properties match.
+     */
+    private boolean verifyClassificationMatches(EntityDetail       entity,
+                                                String             classificationName,
+                                                InstanceProperties matchClassificationProperties,
+                                                MatchCriteria      matchCriteria)
+            throws
+            InvalidParameterException
+    {
+        if (entity.getClassifications() != null) {
+            for (Classification classification : entity.getClassifications()) {
+                if (classification != null && classificationName.equals(classification.getName())) {
+                    return repositoryValidator.verifyMatchingInstancePropertyValues(matchClassificationProperties,
+                                                                                    classification,
+                                                                                    classification.getProperties(),
+                                                                                    matchCriteria);
+                }
+            }
+        }
+
+        return false;
+    }
+
+
     // findEntitiesByClassification
     public  List<EntityDetail> findEntitiesByClassification(String                    userId,
                                                             String                    entityTypeGUID,
@@ -1897,13 +2457,6 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
                 pageSize);
 
 
-        if (asOfTime != null) {
-            log.error("{} does not support asOfTime searches", methodName);
-
-            super.reportUnsupportedOptionalFunction(methodName);
-        }
-
-
         /*
          * Perform operation
          */
@@ -1918,42 +2471,34 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
             specifiedTypeName = typeDef.getName();
         }
 
-        TypeDefGallery activeTypes = repositoryHelper.getActiveTypeDefGallery();
-        List<TypeDef> allTypeDefs = activeTypes.getTypeDefs();
-
-        for (TypeDef typeDef : allTypeDefs) {
-            if (typeDef.getCategory() == TypeDefCategory.ENTITY_DEF) {
-
-                String actualTypeName = typeDef.getName();
-
-                // If entityTypeGUID parameter is not null there is an expected type, so check whether the
-                // current type matches the expected type or is one of its sub-types.
+        List<String> typeDefNames = getTypeDefNames(getEntityTypeDefsForSearch(specifiedTypeName));
 
-                if (specifiedTypeName != null) {
+        // A historical search filters the versions of the entities at the asOfTime.
+        // Paging is performed by the store unless the results need to be sorted on a property value.
+        if (asOfTime != null) {
+            GraphOMRSMetadataStore.HistoryFilter<EntityDetail> filter = entity ->    (entity.getStatus() != InstanceStatus.DELETED)
+                                                                                  && (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, entity))
+                                                                                  && (verifyClassificationMatches(entity, classificationName, matchClassificationProperties, matchCriteria));
 
-                    boolean typeMatch = repositoryHelper.isTypeOf(metadataCollectionId, actualTypeName, specifiedTypeName);
-                    if (!typeMatch) {
-                        continue;
-                    }
+            if (sequencingProperty == null) {
+                List<EntityDetail> returned = graphStore.findEntitiesInHistory(typeDefNames, asOfTime, filter, fromEntityElement, pageSize);
 
-                }
+                return repositoryHelper.formatEntityResults(returned, 0, null, sequencingOrder, pageSize);
+            }
 
-                // Find all entities of this type that have the matching classification.
-                //
-                List<EntityDetail> entitiesForCurrentType = graphStore.findEntitiesByClassification(classificationName, matchClassificationProperties, matchCriteria, actualTypeName);
+            List<EntityDetail> returned = graphStore.findEntitiesInHistory(typeDefNames, asOfTime, filter, 0, 0);
 
+            return repositoryHelper.formatEntityResults(returned, fromEntityElement, sequencingProperty, sequencingOrder, pageSize);
+        }
 
-                if (entitiesForCurrentType != null && !entitiesForCurrentType.isEmpty()) {
-                    if (returnEntities == null) {
-                        returnEntities = new ArrayList<>();
-                    }
-                    log.info("{}: for type {} found {} entities", methodName, typeDef.getName(), entitiesForCurrentType.size());
-                    returnEntities.addAll(entitiesForCurrentType);
-                } else {
-                    log.info("{}: for type {} found no entities", methodName, typeDef.getName());
-                }
+        // Find all entities of these types that have the matching classification.
+        List<EntityDetail> entitiesForTypes = graphStore.findEntitiesByClassification(classificationName, matchClassificationProperties, matchCriteria, typeDefNames);
 
-            }
+        if (entitiesForTypes != null && !entitiesForTypes.isEmpty()) {
+            log.info("{}: found {} entities", methodName, entitiesForTypes.size());
+            returnEntities = new ArrayList<>(entitiesForTypes);
+        } else {
+            log.info("{}: found no entities", methodName);
         }
 
 
@@ -2827,6 +3372,49 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
     }
 
 
+    /*
+     * Save the reference copies in a single graph transaction rather than committing each instance separately.
+     * If any of the instances cannot be saved, or the transaction cannot be committed - for example because of a
+     * locking conflict - the transaction is rolled back and the instances are saved one at a time.  The result is
+     * then the same as the default implementation: the instances before the one in error are saved and the error
+     * is thrown.
+     */
+    public void saveInstanceReferenceCopies(String         userId,
+                                            InstanceGraph  instances)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException,
+            TypeErrorException,
+            EntityNotKnownException,
+            PropertyErrorException,
+            EntityConflictException,
+            RelationshipConflictException,
+            InvalidEntityException,
+            InvalidRelationshipException,
+            FunctionNotSupportedException,
+            UserNotAuthorizedException
+    {
+        final String methodName = "saveInstanceReferenceCopies";
+
+        try {
+            graphStore.beginUnitOfWork();
+            try {
+                super.saveInstanceReferenceCopies(userId, instances);
+            }
+            catch (Exception e) {
+                graphStore.rollbackUnitOfWork();
+                throw e;
+            }
+            graphStore.commitUnitOfWork();
+        }
+        catch (Exception e) {
+            log.debug("{} could not save instances in a single transaction, saving them individually: {}", methodName, e.getMessage());
+
+            super.saveInstanceReferenceCopies(userId, instances);
+        }
+    }
+
+
     // getEntityNeighborhood
     public InstanceGraph getEntityNeighborhood(String               userId,
                                                String               entityGUID,
@@ -2890,17 +3478,14 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
         }
 
 
-        if (asOfTime != null) {
-            // Not supported
-            log.error("{} does not support asOfTime parameter", methodName);
-
-            super.reportUnsupportedOptionalFunction(methodName);
-        }
-
         /*
          * Delegate to the graph store
          */
 
+        if (asOfTime != null) {
+            return graphStore.getSubGraphFromHistory(entityGUID, entityTypeGUIDs, relationshipTypeGUIDs, limitResultsByStatus, limitResultsByClassification, level, asOfTime);
+        }
+
         return graphStore.getSubGraph(entityGUID, entityTypeGUIDs, relationshipTypeGUIDs, limitResultsByStatus, limitResultsByClassification, level);
     }
 
@@ -2951,16 +3536,10 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
                 pageSize);
 
 
-        if (asOfTime != null) {
-            log.error("{} does not support asOfTime searches", methodName);
-
-            super.reportUnsupportedOptionalFunction(methodName);
-        }
-
         /*
          * Perform operation
          */
-        InstanceGraph adjacentGraph = this.getEntityNeighborhood( userId, startEntityGUID, entityTypeGUIDs, null, limitResultsByStatus, limitResultsByClassification, null, -1);
+        InstanceGraph adjacentGraph = this.getEntityNeighborhood( userId, startEntityGUID, entityTypeGUIDs, null, limitResultsByStatus, limitResultsByClassification, asOfTime, -1);
 
         if (adjacentGraph != null) {
 
@@ -3001,6 +3580,8 @@ public class GraphOMRSMetadataCollection extends OMRSDynamicTypeMetadataCollecti
                 asOfTime);
 
 
+        // The path search is only performed over the current graph - the history records versions of instances
+        // rather than the graph of relationships between them.
         if (asOfTime != null) {
             log.error("{} does not support asOfTime searches", methodName);
 
@@ -3,10 +3,14 @@
 
 package org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
@@ -19,7 +23,9 @@ import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollec
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityProxy;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntitySummary;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceAuditHeader;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceGraph;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePage;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceProperties;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePropertyCategory;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePropertyValue;
@@ -41,26 +47,45 @@ import org.odpi.openmetadata.repositoryservices.ffdc.exception.TypeErrorExceptio
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.apache.tinkerpop.gremlin.process.traversal.P.within;
 import static org.apache.tinkerpop.gremlin.process.traversal.P.without;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.without;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
+import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.HISTORY_RETENTION_DAYS_PROPERTY;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_CLASSIFICATION_CLASSIFICATION_NAME;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_ENTITY_GUID;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_ENTITY_IS_PROXY;
+import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_ENTITY_METADATACOLLECTION_ID;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_ENTITY_STATUS;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_ENTITY_TYPE_NAME;
+import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_HISTORY_END_ONE_GUID;
+import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_HISTORY_END_TWO_GUID;
+import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_HISTORY_GUID;
+import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_HISTORY_INSTANCE;
+import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_HISTORY_TYPE_NAME;
+import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_HISTORY_VERSION_TIME;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_PREFIX_CLASSIFICATION;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_PREFIX_ENTITY;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_PREFIX_RELATIONSHIP;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_RELATIONSHIP_GUID;
+import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_RELATIONSHIP_METADATACOLLECTION_ID;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_RELATIONSHIP_STATUS;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_KEY_RELATIONSHIP_TYPE_NAME;
 import static org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector.GraphOMRSConstants.PROPERTY_NAME_TYPE_NAME;
@@ -99,6 +124,27 @@ class GraphOMRSMetadataStore {
     private GraphOMRSEntityMapper entityMapper;
     private GraphOMRSClassificationMapper classificationMapper;
 
+    // Readers do not lock - each thread uses its own (thread-local) JanusGraph transaction.
+    // Writers are serialized so that the existence checks made by an operation remain valid until it commits.
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // The unit of work (if any) in progress on each thread.
+
+    private final ThreadLocal<UnitOfWork> currentUnitOfWork = new ThreadLocal<>();
+
+    // Serializes the versions of instances recorded in the history.
+
+    private static final ObjectMapper historyMapper = new ObjectMapper();
+
+    // The number of instances whose versions are retrieved from the history in one traversal.
+
+    private static final int HISTORY_BATCH_SIZE = 100;
+
+    // The time that superseded versions are kept in the history, or -1 to keep them indefinitely.
+
+    private long historyRetentionMillis = -1;
+
 
 
     /**
@@ -126,12 +172,17 @@ class GraphOMRSMetadataStore {
         this.repositoryName = repositoryName;
         this.repositoryHelper = repositoryHelper;
 
-
+        // The history retention is a setting of this store rather than of the graph database.
+        Map<String, Object> graphProperties = storageProperties;
+        if (storageProperties != null && storageProperties.containsKey(HISTORY_RETENTION_DAYS_PROPERTY)) {
+            graphProperties = new HashMap<>(storageProperties);
+            this.historyRetentionMillis = getHistoryRetentionMillis(graphProperties.remove(HISTORY_RETENTION_DAYS_PROPERTY));
+        }
 
         try {
             graphFactory = new GraphOMRSGraphFactory();
             synchronized (GraphOMRSMetadataStore.class) {
-                instanceGraph = graphFactory.open(metadataCollectionId, repositoryName, auditLog, storageProperties);
+                instanceGraph = graphFactory.open(metadataCollectionId, repositoryName, auditLog, graphProperties);
             }
         }
         catch (RepositoryErrorException e) {
@@ -146,48 +197,176 @@ class GraphOMRSMetadataStore {
     }
 
 
+    /*
+     * A unit of work groups many store operations into a single graph transaction, so that they are committed together
+     * rather than each operation paying for its own commit.  The unit of work belongs to the thread that begins it and
+     * holds the write lock until it is committed or rolled back, so every beginUnitOfWork() must be followed by exactly
+     * one commitUnitOfWork() or rollbackUnitOfWork() on the same thread.
+     *
+     * If any operation in the unit of work fails, none of the changes made in the unit of work are committed.
+     */
+    private static class UnitOfWork {
+        private boolean rollbackOnly = false;
+    }
+
+
+    /*
+     * A filter applied to the versions of instances retrieved from the history, so that the paging of a historical
+     * search is applied to the instances that match the search.
+     */
+    interface HistoryFilter<T> {
+        boolean accept(T instance) throws InvalidParameterException, RepositoryErrorException;
+    }
+
+
+    void beginUnitOfWork()
+    {
+        writeLock.lock();
+        currentUnitOfWork.set(new UnitOfWork());
+    }
+
+
+    void commitUnitOfWork()
+            throws
+            RepositoryErrorException
+    {
+        final String methodName = "commitUnitOfWork";
+
+        UnitOfWork unitOfWork = currentUnitOfWork.get();
+        currentUnitOfWork.remove();
+
+        try {
+            if (unitOfWork.rollbackOnly) {
+                instanceGraph.tx().rollback();
+
+                throw new RepositoryErrorException(GraphOMRSErrorCode.UNIT_OF_WORK_NOT_COMMITTED.getMessageDefinition(methodName,
+                                                                                                                      this.getClass().getName(),
+                                                                                                                      repositoryName),
+                        this.getClass().getName(),
+                        methodName);
+            }
+
+            log.debug("{} Commit tx containing unit of work", methodName);
+            instanceGraph.tx().commit();
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+
+    void rollbackUnitOfWork()
+    {
+        currentUnitOfWork.remove();
+
+        try {
+            instanceGraph.tx().rollback();
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+
+    /*
+     * Commit the changes made by an operation - unless the operation is part of a unit of work, in which case
+     * they are committed with the rest of the unit of work.
+     */
+    private void commitTransaction(GraphTraversalSource g)
+    {
+        if (currentUnitOfWork.get() == null) {
+            g.tx().commit();
+        }
+    }
+
+
+    /*
+     * Discard the changes made by a failed operation.  Inside a unit of work the transaction is shared with the
+     * operations that have already completed, so the whole unit of work is marked to be rolled back instead.
+     */
+    private void rollbackTransaction(GraphTraversalSource g)
+    {
+        UnitOfWork unitOfWork = currentUnitOfWork.get();
+
+        if (unitOfWork == null) {
+            g.tx().rollback();
+        }
+        else {
+            unitOfWork.rollbackOnly = true;
+        }
+    }
+
+
+    /*
+     * Discard the transaction state of a failed read.  A read makes no changes, so inside a unit of work the shared
+     * transaction is left alone - a failed read, such as looking for an instance that does not exist, must not
+     * prevent the unit of work from committing.
+     */
+    private void rollbackReadTransaction(GraphTraversalSource g)
+    {
+        if (currentUnitOfWork.get() == null) {
+            g.tx().rollback();
+        }
+    }
+
+
     // A note on existence checking:
     // The MDC will NOT have already checked that there is not already an entity or entity proxy wth the same GUID.
     // Although we KNOW that this is an attempt to create a new entity and that the GUID has just been generated,
     // so we COULD re-spin it, we should NOT do that here - it should be in the MDC layer and RepoHelper layer.
     // Therefore if we get a GUID clash here we throw an exception.
     //
-    synchronized EntityDetail createEntityInStore(EntityDetail entity)
+    EntityDetail createEntityInStore(EntityDetail entity)
             throws
             RepositoryErrorException,
             InvalidParameterException
     {
-        final String methodName = "createEntityInStore";
+        writeLock.lock();
+        try {
+            final String methodName = "createEntityInStore";
 
-        Vertex vertex;
+            Vertex vertex;
 
-        GraphTraversalSource g = instanceGraph.traversal();
-        Iterator<Vertex> vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entity.getGUID());
+            GraphTraversalSource g = instanceGraph.traversal();
+            Iterator<Vertex> vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entity.getGUID());
 
-        if (vertexIt.hasNext()) {
+            if (vertexIt.hasNext()) {
 
-            vertex = vertexIt.next();
-            log.debug("{} found existing vertex {}", methodName, vertex);
+                vertex = vertexIt.next();
+                log.debug("{} found existing vertex {}", methodName, vertex);
 
-            /*
-             * If the existing vertex is for a proxy entity then check that the supplied entity is a ref copy (i.e.
-             * metadataCollection is not local) and if so, clear flag and use the same vertex for the ref copy.
-             * If the existing vertex is NOT for a proxy entity OR we find it is a local entity then throw error.
-             */
+                /*
+                 * If the existing vertex is for a proxy entity then check that the supplied entity is a ref copy (i.e.
+                 * metadataCollection is not local) and if so, clear flag and use the same vertex for the ref copy.
+                 * If the existing vertex is NOT for a proxy entity OR we find it is a local entity then throw error.
+                 */
+
+                if (entityMapper.isProxy(vertex)) {
 
-            if (entityMapper.isProxy(vertex)) {
 
+                    if (!metadataCollectionId.equals(entity.getMetadataCollectionId())) {
+                        log.debug("{} existing vertex is a proxy", methodName);
+                        // Replace the proxy with the ref copy - make sure the proxy flag is cleared then proceed to populating it below...
+                        entityMapper.clearProxy(vertex);
 
-                if (!metadataCollectionId.equals(entity.getMetadataCollectionId())) {
-                    log.debug("{} existing vertex is a proxy", methodName);
-                    // Replace the proxy with the ref copy - make sure the proxy flag is cleared then proceed to populating it below...
-                    entityMapper.clearProxy(vertex);
+                    } else {
+                        log.error("{} existing vertex apparently a proxy, but has local metadataCollectionId", methodName);
+                        rollbackTransaction(g);
+
+                        final String parameterName = "metadataCollectionId";
 
+                        throw new InvalidParameterException(GraphOMRSErrorCode.ENTITY_ALREADY_EXISTS.getMessageDefinition(entity.getGUID(), methodName,
+                                                                                                                          this.getClass().getName(),
+                                                                                                                          repositoryName),
+                                                            this.getClass().getName(),
+                                                            methodName,
+                                                            parameterName);
+                    }
                 } else {
-                    log.error("{} existing vertex apparently a proxy, but has local metadataCollectionId", methodName);
-                    g.tx().rollback();
+                    log.error("{} existing vertex for GUID {} and it is not a proxy", methodName, entity.getGUID());
+                    rollbackTransaction(g);
 
-                    final String parameterName = "metadataCollectionId";
+                    String parameterName = "entity";
 
                     throw new InvalidParameterException(GraphOMRSErrorCode.ENTITY_ALREADY_EXISTS.getMessageDefinition(entity.getGUID(), methodName,
                                                                                                                       this.getClass().getName(),
@@ -197,56 +376,49 @@ class GraphOMRSMetadataStore {
                                                         parameterName);
                 }
             } else {
-                log.error("{} existing vertex for GUID {} and it is not a proxy", methodName, entity.getGUID());
-                g.tx().rollback();
-
-                String parameterName = "entity";
 
-                throw new InvalidParameterException(GraphOMRSErrorCode.ENTITY_ALREADY_EXISTS.getMessageDefinition(entity.getGUID(), methodName,
-                                                                                                                  this.getClass().getName(),
-                                                                                                                  repositoryName),
-                                                    this.getClass().getName(),
-                                                    methodName,
-                                                    parameterName);
+                // No existing vertex found - create one
+                log.debug("{} create vertex for entity {}", methodName, entity.getGUID());
+                vertex = g.addV("Entity").next();
             }
-        } else {
 
-            // No existing vertex found - create one
-            log.debug("{} create vertex for entity {}", methodName, entity.getGUID());
-            vertex = g.addV("Entity").next();
-        }
-
-        // Whether created new or reusing old proxy, populate the vertex.
+            // Whether created new or reusing old proxy, populate the vertex.
 
-        try {
-            entityMapper.mapEntityDetailToVertex(entity, vertex);
-
-            // Create a vertex per classification and link them to the entity vertex
-            List<Classification> classifications = entity.getClassifications();
-            if (classifications != null) {
-                for (Classification classification : classifications) {
-                    log.debug("{} add classification: {} ", methodName, classification.getName());
-                    Vertex classificationVertex = g.addV("Classification").next();
-                    classificationMapper.mapClassificationToVertex(classification, classificationVertex);
-                    Edge classifierEdge = vertex.addEdge("Classifier", classificationVertex);
+            try {
+                entityMapper.mapEntityDetailToVertex(entity, vertex);
+
+                // Create a vertex per classification and link them to the entity vertex
+                List<Classification> classifications = entity.getClassifications();
+                if (classifications != null) {
+                    for (Classification classification : classifications) {
+                        log.debug("{} add classification: {} ", methodName, classification.getName());
+                        Vertex classificationVertex = g.addV("Classification").next();
+                        classificationMapper.mapClassificationToVertex(classification, classificationVertex);
+                        Edge classifierEdge = vertex.addEdge("Classifier", classificationVertex);
+                    }
                 }
-            }
 
-        } catch (Exception e) {
-            log.error("{} Caught exception from entity mapper {}", methodName, e.getMessage());
-            g.tx().rollback();
+                addEntityHistory(g, entity);
 
-            throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_CREATED.getMessageDefinition(entity.getGUID(), methodName,
-                                                                                                          this.getClass().getName(),
-                                                                                                          repositoryName),
-                    this.getClass().getName(),
-                    methodName, e);
-        }
+            } catch (Exception e) {
+                log.error("{} Caught exception from entity mapper {}", methodName, e.getMessage());
+                rollbackTransaction(g);
 
+                throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_CREATED.getMessageDefinition(entity.getGUID(), methodName,
+                                                                                                              this.getClass().getName(),
+                                                                                                              repositoryName),
+                        this.getClass().getName(),
+                        methodName, e);
+            }
 
-        g.tx().commit();
 
-        return entity;
+            commitTransaction(g);
+
+            return entity;
+        }
+        finally {
+            writeLock.unlock();
+        }
     }
 
     // A note on existence checking:
@@ -255,57 +427,62 @@ class GraphOMRSMetadataStore {
     // If the MDC found that an entity (of any description, entity, proxy or reference copy) is present - then it will not have asked you to create the proxy
     // So - if we do find that there is a GUID clash then throw exception.
     //
-    synchronized void createEntityProxyInStore(EntityProxy entityProxy)
+    void createEntityProxyInStore(EntityProxy entityProxy)
             throws
             RepositoryErrorException,
             InvalidParameterException
     {
-        final String methodName = "createEntityProxyInStore";
+        writeLock.lock();
+        try {
+            final String methodName = "createEntityProxyInStore";
 
-        GraphTraversalSource g = instanceGraph.traversal();
-        Iterator<Vertex> vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityProxy.getGUID());
-        if (vertexIt.hasNext()) {
-            Vertex vertex = vertexIt.next();
-            log.error("{} createEntityProxyInStore found existing vertex {}", methodName, vertex);
-            g.tx().rollback();
+            GraphTraversalSource g = instanceGraph.traversal();
+            Iterator<Vertex> vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityProxy.getGUID());
+            if (vertexIt.hasNext()) {
+                Vertex vertex = vertexIt.next();
+                log.error("{} createEntityProxyInStore found existing vertex {}", methodName, vertex);
+                rollbackTransaction(g);
 
-            throw new InvalidParameterException(GraphOMRSErrorCode.ENTITY_ALREADY_EXISTS.getMessageDefinition(entityProxy.getGUID(), methodName,
-                                                                                                              this.getClass().getName(),
-                                                                                                              repositoryName),
-                    this.getClass().getName(),
-                    methodName,
-                    "entityProxy");
-        }
+                throw new InvalidParameterException(GraphOMRSErrorCode.ENTITY_ALREADY_EXISTS.getMessageDefinition(entityProxy.getGUID(), methodName,
+                                                                                                                  this.getClass().getName(),
+                                                                                                                  repositoryName),
+                        this.getClass().getName(),
+                        methodName,
+                        "entityProxy");
+            }
 
-        Vertex vertex = g.addV("Entity").next();
+            Vertex vertex = g.addV("Entity").next();
 
-        try {
-            entityMapper.mapEntityProxyToVertex(entityProxy, vertex);
-
-            // Create a vertex per classification and link them to the entity vertex
-            List<Classification> classifications = entityProxy.getClassifications();
-            if (classifications != null) {
-                for (Classification classification : classifications) {
-                    log.debug("{} add classification {}", methodName, classification.getName());
-                    Vertex classificationVertex = g.addV("Classification").next();
-                    classificationMapper.mapClassificationToVertex(classification, classificationVertex);
-                    Edge classifierEdge = vertex.addEdge("Classifier", classificationVertex);
+            try {
+                entityMapper.mapEntityProxyToVertex(entityProxy, vertex);
+
+                // Create a vertex per classification and link them to the entity vertex
+                List<Classification> classifications = entityProxy.getClassifications();
+                if (classifications != null) {
+                    for (Classification classification : classifications) {
+                        log.debug("{} add classification {}", methodName, classification.getName());
+                        Vertex classificationVertex = g.addV("Classification").next();
+                        classificationMapper.mapClassificationToVertex(classification, classificationVertex);
+                        Edge classifierEdge = vertex.addEdge("Classifier", classificationVertex);
+                    }
                 }
-            }
-
-        } catch (Exception e) {
-            log.error("{} Caught exception from entity mapper {}", methodName, e.getMessage());
-            g.tx().rollback();
 
-            throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_CREATED.getMessageDefinition(entityProxy.getGUID(), methodName,
-                                                                                                          this.getClass().getName(),
-                                                                                                          repositoryName),
-                    this.getClass().getName(),
-                    methodName, e);
-        }
+            } catch (Exception e) {
+                log.error("{} Caught exception from entity mapper {}", methodName, e.getMessage());
+                rollbackTransaction(g);
 
-        g.tx().commit();
+                throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_CREATED.getMessageDefinition(entityProxy.getGUID(), methodName,
+                                                                                                              this.getClass().getName(),
+                                                                                                              repositoryName),
+                        this.getClass().getName(),
+                        methodName, e);
+            }
 
+            commitTransaction(g);
+        }
+        finally {
+            writeLock.unlock();
+        }
     }
 
 
@@ -347,98 +524,105 @@ class GraphOMRSMetadataStore {
      *         else
      *             error
      */
-    synchronized void saveEntityReferenceCopyToStore(EntityDetail entity)
+    void saveEntityReferenceCopyToStore(EntityDetail entity)
         throws
             InvalidParameterException,
             RepositoryErrorException
 
     {
+        writeLock.lock();
+        try {
+            final String methodName = "saveEntityReferenceCopyToStore";
 
-        final String methodName = "saveEntityReferenceCopyToStore";
+            Vertex vertex;
 
-        Vertex vertex;
+            GraphTraversalSource g = instanceGraph.traversal();
+            Iterator<Vertex> vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entity.getGUID());
 
-        GraphTraversalSource g = instanceGraph.traversal();
-        Iterator<Vertex> vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entity.getGUID());
+            if (vertexIt.hasNext()) {
 
-        if (vertexIt.hasNext()) {
+                vertex = vertexIt.next();
+                log.debug("{} found existing vertex {}", methodName, vertex);
 
-            vertex = vertexIt.next();
-            log.debug("{} found existing vertex {}", methodName, vertex);
+                /*
+                 * Check the metadataCollectionId is not local and that it matches the metadataCollectionId of the
+                 * passed entity
+                 */
+                String vertexMetadataCollectionId = entityMapper.getEntityMetadataCollectionId(vertex);
 
-            /*
-             * Check the metadataCollectionId is not local and that it matches the metadataCollectionId of the
-             * passed entity
-             */
-            String vertexMetadataCollectionId = entityMapper.getEntityMetadataCollectionId(vertex);
+                if (   metadataCollectionId.equals(entity.getMetadataCollectionId())
+                    || !vertexMetadataCollectionId.equals(entity.getMetadataCollectionId()) ) {
 
-            if (   metadataCollectionId.equals(entity.getMetadataCollectionId())
-                || !vertexMetadataCollectionId.equals(entity.getMetadataCollectionId()) ) {
+                    /*
+                     *  Error condition
+                     *  Either the locsl repository is being asked to save a reference copy of something it already owns,
+                     *  or it already has a proxy or reference copy of an entity from a repository other than the one that
+                     *  submitted this reference copy.
+                     */
 
-                /*
-                 *  Error condition
-                 *  Either the locsl repository is being asked to save a reference copy of something it already owns,
-                 *  or it already has a proxy or reference copy of an entity from a repository other than the one that
-                 *  submitted this reference copy.
-                 */
+                    log.error("{} found an existing vertex from a different source, with metadataCollectionId {}", methodName, vertexMetadataCollectionId);
+                    rollbackTransaction(g);
 
-                log.error("{} found an existing vertex from a different source, with metadataCollectionId {}", methodName, vertexMetadataCollectionId);
-                g.tx().rollback();
+                    throw new InvalidParameterException(GraphOMRSErrorCode.ENTITY_ALREADY_EXISTS.getMessageDefinition(entity.getGUID(), methodName,
+                                                                                                                      this.getClass().getName(),
+                                                                                                                      repositoryName),
+                            this.getClass().getName(),
+                            methodName,
+                            "entity");
+                }
 
-                throw new InvalidParameterException(GraphOMRSErrorCode.ENTITY_ALREADY_EXISTS.getMessageDefinition(entity.getGUID(), methodName,
-                                                                                                                  this.getClass().getName(),
-                                                                                                                  repositoryName),
-                        this.getClass().getName(),
-                        methodName,
-                        "entity");
+            } else {
+
+                // No existing vertex found - create one
+                log.debug("{} create vertex for entity {}", methodName, entity.getGUID());
+                vertex = g.addV("Entity").next();
             }
 
-        } else {
+            /*
+             * Whether this just created a new vertex or is reusing an existing vertex (for a reference copy or proxy),
+             * populate the vertex.
+             * The mapping of an entity detail to the vertex will clear the proxy flag, even if previously set.
+             */
 
-            // No existing vertex found - create one
-            log.debug("{} create vertex for entity {}", methodName, entity.getGUID());
-            vertex = g.addV("Entity").next();
-        }
 
-        /*
-         * Whether this just created a new vertex or is reusing an existing vertex (for a reference copy or proxy),
-         * populate the vertex.
-         * The mapping of an entity detail to the vertex will clear the proxy flag, even if previously set.
-         */
+            try {
+                entityMapper.mapEntityDetailToVertex(entity, vertex);
+
+                // Create a vertex per classification and link them to the entity vertex
+                List<Classification> classifications = entity.getClassifications();
+                if (classifications != null) {
+                    for (Classification classification : classifications) {
+                        log.debug("{} add classification: {} ", methodName, classification.getName());
+                        Vertex classificationVertex = g.addV("Classification").next();
+                        classificationMapper.mapClassificationToVertex(classification, classificationVertex);
+                        Edge classifierEdge = vertex.addEdge("Classifier", classificationVertex);
+                    }
+                }
 
+                addEntityHistory(g, entity);
 
-        try {
-            entityMapper.mapEntityDetailToVertex(entity, vertex);
-
-            // Create a vertex per classification and link them to the entity vertex
-            List<Classification> classifications = entity.getClassifications();
-            if (classifications != null) {
-                for (Classification classification : classifications) {
-                    log.debug("{} add classification: {} ", methodName, classification.getName());
-                    Vertex classificationVertex = g.addV("Classification").next();
-                    classificationMapper.mapClassificationToVertex(classification, classificationVertex);
-                    Edge classifierEdge = vertex.addEdge("Classifier", classificationVertex);
-                }
+            } catch (Exception e) {
+                log.error("{} Caught exception from entity mapper {}", methodName, e.getMessage());
+                rollbackTransaction(g);
+
+                throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_CREATED.getMessageDefinition(entity.getGUID(), methodName,
+                                                                                                              this.getClass().getName(),
+                                                                                                              repositoryName),
+                        this.getClass().getName(),
+                        methodName, e);
             }
 
-        } catch (Exception e) {
-            log.error("{} Caught exception from entity mapper {}", methodName, e.getMessage());
-            g.tx().rollback();
 
-            throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_CREATED.getMessageDefinition(entity.getGUID(), methodName,
-                                                                                                          this.getClass().getName(),
-                                                                                                          repositoryName),
-                    this.getClass().getName(),
-                    methodName, e);
+            commitTransaction(g);
+        }
+        finally {
+            writeLock.unlock();
         }
-
-
-        g.tx().commit();
     }
 
 
 
-    synchronized EntityDetail getEntityDetailFromStore(String guid)
+    EntityDetail getEntityDetailFromStore(String guid)
             throws
             EntityNotKnownException,
             EntityProxyOnlyException,
@@ -478,7 +662,7 @@ class GraphOMRSMetadataStore {
                     else {
                         // We know this is a proxy - throw the appropriate exception
                         log.error("{} found entity but it is only a proxy, guid {}", methodName, guid);
-                        g.tx().rollback();
+                        rollbackReadTransaction(g);
 
                         throw new EntityProxyOnlyException(GraphOMRSErrorCode.ENTITY_PROXY_ONLY.getMessageDefinition(guid, methodName,
                                                                                                                      this.getClass().getName(),
@@ -493,7 +677,7 @@ class GraphOMRSMetadataStore {
             catch (RepositoryErrorException e) {
 
                 log.error("{} Caught exception {}", methodName, e.getMessage());
-                g.tx().rollback();
+                rollbackReadTransaction(g);
 
                 throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(guid, methodName,
                                                                                                             this.getClass().getName(),
@@ -506,7 +690,7 @@ class GraphOMRSMetadataStore {
 
             // Entity was not found by GUID
             log.error("{} entity with GUID {} not found", methodName, guid);
-            g.tx().rollback();
+            rollbackReadTransaction(g);
 
             throw new EntityNotKnownException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(guid, methodName,
                                                                                                        this.getClass().getName(),
@@ -516,12 +700,60 @@ class GraphOMRSMetadataStore {
         }
 
 
-        g.tx().commit();
+        commitTransaction(g);
 
         return entity;
     }
 
-    synchronized EntitySummary getEntitySummaryFromStore(String guid)
+    /*
+     * Retrieve the requested entities with a single traversal.  The result maps each entity's guid to the entity -
+     * requested guids that are not found, or are only proxies, are not in the map.
+     */
+    Map<String, EntityDetail> getEntityDetailsFromStore(List<String> guids)
+            throws
+            RepositoryErrorException
+    {
+        String methodName = "getEntityDetailsFromStore";
+
+        Map<String, EntityDetail> entities = new HashMap<>();
+
+        // Look in the graph
+        GraphTraversalSource g = instanceGraph.traversal();
+
+        GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, within(guids));
+
+        while (gt.hasNext()) {
+            Vertex vertex = gt.next();
+            log.debug("{} found entity vertex {}", methodName, vertex);
+
+            try {
+                EntityDetail entity = new EntityDetail();
+                entityMapper.mapVertexToEntityDetail(vertex, entity);
+                entities.put(entity.getGUID(), entity);
+            }
+            catch (EntityProxyOnlyException e) {
+                // Proxies are left out - the caller decides how to report them
+                log.debug("{} entity vertex {} is a proxy", methodName, vertex);
+            }
+            catch (RepositoryErrorException e) {
+
+                log.error("{} Caught exception {}", methodName, e.getMessage());
+                rollbackReadTransaction(g);
+
+                throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(entityMapper.getEntityGUID(vertex), methodName,
+                                                                                                            this.getClass().getName(),
+                                                                                                            repositoryName),
+                        this.getClass().getName(),
+                        methodName, e);
+            }
+        }
+
+        commitTransaction(g);
+
+        return entities;
+    }
+
+    EntitySummary getEntitySummaryFromStore(String guid)
             throws
             EntityNotKnownException,
             RepositoryErrorException
@@ -552,7 +784,7 @@ class GraphOMRSMetadataStore {
             catch (RepositoryErrorException e) {
 
                 log.error("{} Caught exception {}", methodName, e.getMessage());
-                g.tx().rollback();
+                rollbackReadTransaction(g);
 
                 throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(guid, methodName,
                                                                                                             this.getClass().getName(),
@@ -565,7 +797,7 @@ class GraphOMRSMetadataStore {
 
             // Entity was not found by GUID
             log.error("{} entity with GUID {} not found", methodName, guid);
-            g.tx().rollback();
+            rollbackReadTransaction(g);
 
             throw new EntityNotKnownException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(guid, methodName,
                                                                                                        this.getClass().getName(),
@@ -575,13 +807,13 @@ class GraphOMRSMetadataStore {
         }
 
 
-        g.tx().commit();
+        commitTransaction(g);
 
         return entity;
     }
 
 
-    synchronized EntityProxy getEntityProxyFromStore(String guid)
+    EntityProxy getEntityProxyFromStore(String guid)
             throws
             RepositoryErrorException
     {
@@ -611,7 +843,7 @@ class GraphOMRSMetadataStore {
                 }
             } catch (Exception e) {
                 log.error("{} Caught exception from entity mapper {}", methodName, e.getMessage());
-                g.tx().rollback();
+                rollbackReadTransaction(g);
 
                 throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(guid, methodName,
                                                                                                             this.getClass().getName(),
@@ -621,7 +853,7 @@ class GraphOMRSMetadataStore {
             }
         }
 
-        g.tx().commit();
+        commitTransaction(g);
 
         return entityProxy;
     }
@@ -633,84 +865,91 @@ class GraphOMRSMetadataStore {
     // This method needs to locate the vertices so that the edge can be created in the graph.
     // If either of these fails then throw exception
     //
-    synchronized void createRelationshipInStore(Relationship relationship)
+    void createRelationshipInStore(Relationship relationship)
             throws
             RepositoryErrorException,
             InvalidParameterException
 
     {
-        String methodName = "createRelationshipInStore";
+        writeLock.lock();
+        try {
+            String methodName = "createRelationshipInStore";
 
-        // Begin a graph transaction. Locate the vertices for the ends, and create an edge between them.
+            // Begin a graph transaction. Locate the vertices for the ends, and create an edge between them.
 
-        GraphTraversalSource g = instanceGraph.traversal();
+            GraphTraversalSource g = instanceGraph.traversal();
 
-        Iterator<Edge> edgeIt = g.E().hasLabel("Relationship").has(PROPERTY_KEY_RELATIONSHIP_GUID, relationship.getGUID());
-        if (edgeIt.hasNext()) {
-            Edge edge = edgeIt.next();
-            log.error("{} found existing edge {}", methodName, edge);
-            g.tx().rollback();
+            Iterator<Edge> edgeIt = g.E().hasLabel("Relationship").has(PROPERTY_KEY_RELATIONSHIP_GUID, relationship.getGUID());
+            if (edgeIt.hasNext()) {
+                Edge edge = edgeIt.next();
+                log.error("{} found existing edge {}", methodName, edge);
+                rollbackTransaction(g);
 
-            throw new InvalidParameterException(GraphOMRSErrorCode.RELATIONSHIP_ALREADY_EXISTS.getMessageDefinition(relationship.getGUID(),
-                                                                                                                    methodName,
-                                                                                                                    this.getClass().getName(),
-                                                                                                                    repositoryName),
-                    this.getClass().getName(),
-                    methodName, "relationship");
-        }
+                throw new InvalidParameterException(GraphOMRSErrorCode.RELATIONSHIP_ALREADY_EXISTS.getMessageDefinition(relationship.getGUID(),
+                                                                                                                        methodName,
+                                                                                                                        this.getClass().getName(),
+                                                                                                                        repositoryName),
+                        this.getClass().getName(),
+                        methodName, "relationship");
+            }
 
 
-        String entityOneGUID = relationship.getEntityOneProxy().getGUID();
-        String entityTwoGUID = relationship.getEntityTwoProxy().getGUID();
+            String entityOneGUID = relationship.getEntityOneProxy().getGUID();
+            String entityTwoGUID = relationship.getEntityTwoProxy().getGUID();
 
-        Vertex vertexOne = null;
-        Vertex vertexTwo = null;
+            Vertex vertexOne = null;
+            Vertex vertexTwo = null;
 
-        Iterator<Vertex> vi = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityOneGUID);
-        if (vi.hasNext()) {
-            vertexOne = vi.next();
-            log.debug("{} found entityOne vertex {}", methodName, vertexOne);
-        }
+            Iterator<Vertex> vi = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityOneGUID);
+            if (vi.hasNext()) {
+                vertexOne = vi.next();
+                log.debug("{} found entityOne vertex {}", methodName, vertexOne);
+            }
 
-        vi = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityTwoGUID);
-        if (vi.hasNext()) {
-            vertexTwo = vi.next();
-            log.debug("{} found entityTwo vertex {}", methodName, vertexTwo);
-        }
+            vi = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityTwoGUID);
+            if (vi.hasNext()) {
+                vertexTwo = vi.next();
+                log.debug("{} found entityTwo vertex {}", methodName, vertexTwo);
+            }
 
-        // If either end vertex does not exist then abandon the attempt - there should be at least a proxy if not a full entity in the store for each end
-        if (vertexOne == null || vertexTwo == null) {
-            log.error("{} Could not find both ends for relationship {}", methodName, relationship.getGUID());
-            g.tx().rollback();
+            // If either end vertex does not exist then abandon the attempt - there should be at least a proxy if not a full entity in the store for each end
+            if (vertexOne == null || vertexTwo == null) {
+                log.error("{} Could not find both ends for relationship {}", methodName, relationship.getGUID());
+                rollbackTransaction(g);
 
-            throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_CREATED.getMessageDefinition(relationship.getGUID(), methodName,
-                                                                                                                this.getClass().getName(),
-                                                                                                                repositoryName),
-                    this.getClass().getName(),
-                    methodName);
-        }
+                throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_CREATED.getMessageDefinition(relationship.getGUID(), methodName,
+                                                                                                                    this.getClass().getName(),
+                                                                                                                    repositoryName),
+                        this.getClass().getName(),
+                        methodName);
+            }
 
-        Edge edge = vertexOne.addEdge("Relationship", vertexTwo);
+            Edge edge = vertexOne.addEdge("Relationship", vertexTwo);
 
-        try {
+            try {
 
-            relationshipMapper.mapRelationshipToEdge(relationship, edge);
+                relationshipMapper.mapRelationshipToEdge(relationship, edge);
 
-        } catch (Exception e) {
-            log.error("{} Caught exception from relationship mapper {}", methodName, e.getMessage());
-            g.tx().rollback();
+                addRelationshipHistory(g, relationship);
 
+            } catch (Exception e) {
+                log.error("{} Caught exception from relationship mapper {}", methodName, e.getMessage());
+                rollbackTransaction(g);
 
-            throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_CREATED.getMessageDefinition(relationship.getGUID(), methodName,
-                                                                                                                this.getClass().getName(),
-                                                                                                                repositoryName),
-                    this.getClass().getName(),
-                    methodName, e);
-        }
 
-        log.debug("{} Commit tx containing creation of edge", methodName);
-        g.tx().commit();
+                throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_CREATED.getMessageDefinition(relationship.getGUID(), methodName,
+                                                                                                                    this.getClass().getName(),
+                                                                                                                    repositoryName),
+                        this.getClass().getName(),
+                        methodName, e);
+            }
 
+            log.debug("{} Commit tx containing creation of edge", methodName);
+            commitTransaction(g);
+        }
+        finally {
+            writeLock.unlock();
+        }
     }
 
 
@@ -762,174 +1001,181 @@ class GraphOMRSMetadataStore {
      *       - else metadataCollectionId is not local and values match
      *             update existing edge by mapping relationship
      */
-    synchronized void saveRelationshipReferenceCopyToStore(Relationship relationship)
+    void saveRelationshipReferenceCopyToStore(Relationship relationship)
             throws
             InvalidParameterException,
             RepositoryErrorException
 
     {
+        writeLock.lock();
+        try {
+            final String methodName = "saveRelationshipReferenceCopyToStore";
 
-        final String methodName = "saveRelationshipReferenceCopyToStore";
+            GraphTraversalSource g = instanceGraph.traversal();
 
-        GraphTraversalSource g = instanceGraph.traversal();
+            Vertex vertex;
 
-        Vertex vertex;
+            // Process end 1
+            EntityProxy entityOne = relationship.getEntityOneProxy();
 
-        // Process end 1
-        EntityProxy entityOne = relationship.getEntityOneProxy();
+            Iterator<Vertex> vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityOne.getGUID());
 
-        Iterator<Vertex> vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityOne.getGUID());
+            if (vertexIt.hasNext()) {
 
-        if (vertexIt.hasNext()) {
+                /*
+                 * There is a vertex for the entity.
+                 * It could be the master, a ref copy or a proxy. In any of these cases
+                 * it will be reused.
+                 * There is no point performing validation checks on type, home metadataCollection, etc
+                 * because there could be pending events that this repository has not seen yet. Any
+                 * updates to the entity will be handled via entity instance events.
+                 */
 
-            /*
-             * There is a vertex for the entity.
-             * It could be the master, a ref copy or a proxy. In any of these cases
-             * it will be reused.
-             * There is no point performing validation checks on type, home metadataCollection, etc
-             * because there could be pending events that this repository has not seen yet. Any
-             * updates to the entity will be handled via entity instance events.
-             */
+                vertex = vertexIt.next();
+                log.debug("{} found existing vertex for end1 {}", methodName, vertex);
 
-            vertex = vertexIt.next();
-            log.debug("{} found existing vertex for end1 {}", methodName, vertex);
+            }
+            else {
+                // Entity does not exist, create proxy
+                createEntityProxyInStore(entityOne);
+            }
 
-        }
-        else {
-            // Entity does not exist, create proxy
-            createEntityProxyInStore(entityOne);
-        }
+            // Process end 2
+            EntityProxy entityTwo = relationship.getEntityTwoProxy();
+            vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityTwo.getGUID());
+
+            if (vertexIt.hasNext()) {
+
+                /*
+                 * There is a vertex for the entity.
+                 * It could be the master, a ref copy or a proxy. In any of these cases
+                 * it will be reused.
+                 * There is no point performing validation checks on type, home metadataCollection, etc
+                 * because there could be pending events that this repository has not seen yet. Any
+                 * updates to the entity will be handled via entity instance events.
+                 */
 
-        // Process end 2
-        EntityProxy entityTwo = relationship.getEntityTwoProxy();
-        vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityTwo.getGUID());
+                vertex = vertexIt.next();
+                log.debug("{} found existing vertex for end2 {}", methodName, vertex);
+            }
+            else {
+                // Entity does not exist, create proxy
+                createEntityProxyInStore(entityTwo);
+            }
 
-        if (vertexIt.hasNext()) {
 
             /*
-             * There is a vertex for the entity.
-             * It could be the master, a ref copy or a proxy. In any of these cases
-             * it will be reused.
-             * There is no point performing validation checks on type, home metadataCollection, etc
-             * because there could be pending events that this repository has not seen yet. Any
-             * updates to the entity will be handled via entity instance events.
+             * Both ends have been checked and there are vertices for both.
+             * Because we might have either created or retrieved the vertices for the entities, re-fetch them here
+             * and throw an exception on any error.
              */
 
-            vertex = vertexIt.next();
-            log.debug("{} found existing vertex for end2 {}", methodName, vertex);
-        }
-        else {
-            // Entity does not exist, create proxy
-            createEntityProxyInStore(entityTwo);
-        }
-
+            Vertex vertexOne = null;
+            Vertex vertexTwo = null;
 
-        /*
-         * Both ends have been checked and there are vertices for both.
-         * Because we might have either created or retrieved the vertices for the entities, re-fetch them here
-         * and throw an exception on any error.
-         */
+            vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityOne.getGUID());
+            if (vertexIt.hasNext()) {
+                vertexOne = vertexIt.next();
+            }
+            vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityTwo.getGUID());
+            if (vertexIt.hasNext()) {
+                vertexTwo = vertexIt.next();
+            }
+            if (vertexOne == null || vertexTwo == null) {
 
-        Vertex vertexOne = null;
-        Vertex vertexTwo = null;
+                // Error!!
+                log.error("{} Could not locate or create vertex for entity with guid {} used in relationship {}", methodName, vertexOne==null?entityOne.getGUID():entityTwo.getGUID(),relationship.getGUID());
+                rollbackTransaction(g);
 
-        vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityOne.getGUID());
-        if (vertexIt.hasNext()) {
-            vertexOne = vertexIt.next();
-        }
-        vertexIt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityTwo.getGUID());
-        if (vertexIt.hasNext()) {
-            vertexTwo = vertexIt.next();
-        }
-        if (vertexOne == null || vertexTwo == null) {
+                throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_CREATED.getMessageDefinition(relationship.getGUID(), methodName,
+                                                                                                                    this.getClass().getName(),
+                                                                                                                    repositoryName),
+                        this.getClass().getName(),
+                        methodName);
+            }
 
-            // Error!!
-            log.error("{} Could not locate or create vertex for entity with guid {} used in relationship {}", methodName, vertexOne==null?entityOne.getGUID():entityTwo.getGUID(),relationship.getGUID());
-            g.tx().rollback();
 
-            throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_CREATED.getMessageDefinition(relationship.getGUID(), methodName,
-                                                                                                                this.getClass().getName(),
-                                                                                                                repositoryName),
-                    this.getClass().getName(),
-                    methodName);
-        }
 
+            // Process relationship
+            Edge  edge;
 
+            Iterator<Edge> edgeIt = g.E().hasLabel("Relationship").has(PROPERTY_KEY_RELATIONSHIP_GUID, relationship.getGUID());
 
-        // Process relationship
-        Edge  edge;
+            if (edgeIt.hasNext()) {
 
-        Iterator<Edge> edgeIt = g.E().hasLabel("Relationship").has(PROPERTY_KEY_RELATIONSHIP_GUID, relationship.getGUID());
+                edge = edgeIt.next();
+                log.debug("{} found existing edge {}", methodName, edge);
 
-        if (edgeIt.hasNext()) {
+                /*
+                 * Check the metadataCollectionId is not local and that it matches the metadataCollectionId of the
+                 * passed relationship
+                 */
+                String edgeMetadataCollectionId = relationshipMapper.getRelationshipMetadataCollectionId(edge);
 
-            edge = edgeIt.next();
-            log.debug("{} found existing edge {}", methodName, edge);
+                if (    metadataCollectionId.equals(relationship.getMetadataCollectionId())
+                    || !edgeMetadataCollectionId.equals(relationship.getMetadataCollectionId()) ) {
 
-            /*
-             * Check the metadataCollectionId is not local and that it matches the metadataCollectionId of the
-             * passed relationship
-             */
-            String edgeMetadataCollectionId = relationshipMapper.getRelationshipMetadataCollectionId(edge);
+                    /*
+                     *  Error condition
+                     *  Either the local repository is being asked to save a reference copy of something it already owns,
+                     *  or it already has a reference copy of a relationship from a repository other than the one that
+                     *  submitted this reference copy.
+                     */
 
-            if (    metadataCollectionId.equals(relationship.getMetadataCollectionId())
-                || !edgeMetadataCollectionId.equals(relationship.getMetadataCollectionId()) ) {
+                    log.error("{} found an existing edge from a different source, with metadataCollectionId {}", methodName, edgeMetadataCollectionId);
+                    rollbackTransaction(g);
 
-                /*
-                 *  Error condition
-                 *  Either the local repository is being asked to save a reference copy of something it already owns,
-                 *  or it already has a reference copy of a relationship from a repository other than the one that
-                 *  submitted this reference copy.
-                 */
+                    final String parameterName = "relationship";
 
-                log.error("{} found an existing edge from a different source, with metadataCollectionId {}", methodName, edgeMetadataCollectionId);
-                g.tx().rollback();
+                    throw new InvalidParameterException(GraphOMRSErrorCode.RELATIONSHIP_ALREADY_EXISTS.getMessageDefinition(relationship.getGUID(),
+                                                                                                                            methodName,
+                                                                                                                            this.getClass().getName(),
+                                                                                                                            repositoryName),
+                                                        this.getClass().getName(),
+                                                        methodName,
+                                                        parameterName);
+                }
 
-                final String parameterName = "relationship";
 
-                throw new InvalidParameterException(GraphOMRSErrorCode.RELATIONSHIP_ALREADY_EXISTS.getMessageDefinition(relationship.getGUID(),
-                                                                                                                        methodName,
-                                                                                                                        this.getClass().getName(),
-                                                                                                                        repositoryName),
-                                                    this.getClass().getName(),
-                                                    methodName,
-                                                    parameterName);
+            }
+            else {
+                // No existing edge found. Create an edge for the relationship
+                edge = vertexOne.addEdge("Relationship", vertexTwo);
             }
 
 
-        }
-        else {
-            // No existing edge found. Create an edge for the relationship
-            edge = vertexOne.addEdge("Relationship", vertexTwo);
-        }
+            // Populate the edge with the relationship
+            try {
 
+                relationshipMapper.mapRelationshipToEdge(relationship, edge);
 
-        // Populate the edge with the relationship
-        try {
+                addRelationshipHistory(g, relationship);
+
+            }
+            catch (Exception e) {
+                log.error("{} Caught exception from relationship mapper {}", methodName, e.getMessage());
+                rollbackTransaction(g);
 
-            relationshipMapper.mapRelationshipToEdge(relationship, edge);
+                throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_CREATED.getMessageDefinition(relationship.getGUID(),
+                                                                                                                    methodName,
+                                                                                                                    this.getClass().getName(),
+                                                                                                                    repositoryName),
+                        this.getClass().getName(),
+                        methodName, e);
+            }
 
+            log.debug("{} Commit tx containing creation or update of edge", methodName);
+            commitTransaction(g);
         }
-        catch (Exception e) {
-            log.error("{} Caught exception from relationship mapper {}", methodName, e.getMessage());
-            g.tx().rollback();
-
-            throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_CREATED.getMessageDefinition(relationship.getGUID(),
-                                                                                                                methodName,
-                                                                                                                this.getClass().getName(),
-                                                                                                                repositoryName),
-                    this.getClass().getName(),
-                    methodName, e);
+        finally {
+            writeLock.unlock();
         }
-
-        log.debug("{} Commit tx containing creation or update of edge", methodName);
-        g.tx().commit();
     }
 
 
 
 
-    synchronized Relationship getRelationshipFromStore(String guid)
+    Relationship getRelationshipFromStore(String guid)
             throws RepositoryErrorException
     {
         String methodName = "getRelationshipFromStore";
@@ -943,157 +1189,206 @@ class GraphOMRSMetadataStore {
             Edge edge = edgeIt.next();
             log.debug("{} found existing edge {}", methodName, edge);
 
-            relationship = new Relationship();
+            relationship = getRelationshipFromEdge(edge, g, methodName);
+        }
 
-            // Map the properties
-            relationshipMapper.mapEdgeToRelationship(edge, relationship);
+        commitTransaction(g);
 
-            // Set the relationship ends...
-            Vertex vertex = null;
-            try {
+        return relationship;
 
-                vertex = edge.outVertex();
+    }
 
-                // Could test here whether each vertex is for a proxy, but it doesn't matter whether the vertex represents a full entity
-                // (i.e. EntityDetail of a local/reference copy) as opposed to an EntityProxy. It can be retrieved as a proxy anyway...
 
-                if (vertex != null) {
-                    log.debug("{} entity vertex {}", methodName, vertex);
-                    EntityProxy entityOneProxy = new EntityProxy();
-                    entityMapper.mapVertexToEntityProxy(vertex, entityOneProxy);
-                    log.debug("{} entityOneProxy {}", methodName, entityOneProxy);
-                    relationship.setEntityOneProxy(entityOneProxy);
-                }
+    /*
+     * Retrieve the requested relationships with a single traversal.  The result maps each relationship's guid to the
+     * relationship - requested guids that are not found are not in the map.
+     */
+    Map<String, Relationship> getRelationshipsFromStore(List<String> guids)
+            throws RepositoryErrorException
+    {
+        String methodName = "getRelationshipsFromStore";
 
-                vertex = edge.inVertex();
+        Map<String, Relationship> relationships = new HashMap<>();
 
-                if (vertex != null) {
-                    log.debug("{} entity vertex {}", methodName, vertex);
-                    EntityProxy entityTwoProxy = new EntityProxy();
-                    entityMapper.mapVertexToEntityProxy(vertex, entityTwoProxy);
-                    log.debug("{} entityTwoProxy {}", methodName, entityTwoProxy);
-                    relationship.setEntityTwoProxy(entityTwoProxy);
-                }
+        GraphTraversalSource g = instanceGraph.traversal();
 
-            } catch (Exception e) {
-                log.error("{} Caught exception from entity mapper {}", methodName, e.getMessage());
-                g.tx().rollback();
+        Iterator<Edge> edgeIt = g.E().hasLabel("Relationship").has(PROPERTY_KEY_RELATIONSHIP_GUID, within(guids));
+        while (edgeIt.hasNext()) {
+            Edge edge = edgeIt.next();
+            log.debug("{} found existing edge {}", methodName, edge);
 
-                throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_FOUND.getMessageDefinition(entityMapper.getEntityGUID(vertex), methodName,
-                                                                                                                  this.getClass().getName(),
-                                                                                                                  repositoryName),
-                        this.getClass().getName(),
-                        methodName, e);
-            }
+            Relationship relationship = getRelationshipFromEdge(edge, g, methodName);
+            relationships.put(relationship.getGUID(), relationship);
         }
 
-        g.tx().commit();
+        commitTransaction(g);
 
-        return relationship;
+        return relationships;
+    }
+
+
+    private Relationship getRelationshipFromEdge(Edge                 edge,
+                                                 GraphTraversalSource g,
+                                                 String               methodName)
+            throws RepositoryErrorException
+    {
+        Relationship relationship = new Relationship();
+
+        // Map the properties
+        relationshipMapper.mapEdgeToRelationship(edge, relationship);
+
+        // Set the relationship ends...
+        Vertex vertex = null;
+        try {
+
+            vertex = edge.outVertex();
+
+            // Could test here whether each vertex is for a proxy, but it doesn't matter whether the vertex represents a full entity
+            // (i.e. EntityDetail of a local/reference copy) as opposed to an EntityProxy. It can be retrieved as a proxy anyway...
+
+            if (vertex != null) {
+                log.debug("{} entity vertex {}", methodName, vertex);
+                EntityProxy entityOneProxy = new EntityProxy();
+                entityMapper.mapVertexToEntityProxy(vertex, entityOneProxy);
+                log.debug("{} entityOneProxy {}", methodName, entityOneProxy);
+                relationship.setEntityOneProxy(entityOneProxy);
+            }
+
+            vertex = edge.inVertex();
+
+            if (vertex != null) {
+                log.debug("{} entity vertex {}", methodName, vertex);
+                EntityProxy entityTwoProxy = new EntityProxy();
+                entityMapper.mapVertexToEntityProxy(vertex, entityTwoProxy);
+                log.debug("{} entityTwoProxy {}", methodName, entityTwoProxy);
+                relationship.setEntityTwoProxy(entityTwoProxy);
+            }
+
+        } catch (Exception e) {
+            log.error("{} Caught exception from entity mapper {}", methodName, e.getMessage());
+            rollbackReadTransaction(g);
+
+            throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_FOUND.getMessageDefinition(entityMapper.getEntityGUID(vertex), methodName,
+                                                                                                              this.getClass().getName(),
+                                                                                                              repositoryName),
+                    this.getClass().getName(),
+                    methodName, e);
+        }
 
+        return relationship;
     }
 
 
-    synchronized void updateEntityInStore(EntityDetail entity)
+    void updateEntityInStore(EntityDetail entity)
             throws
             RepositoryErrorException
     {
+        writeLock.lock();
+        try {
+            String methodName = "updateEntityInStore";
 
-        String methodName = "updateEntityInStore";
+            // Look in the graph
+            String guid = entity.getGUID();
+            GraphTraversalSource g = instanceGraph.traversal();
 
-        // Look in the graph
-        String guid = entity.getGUID();
-        GraphTraversalSource g = instanceGraph.traversal();
+            GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, guid);
 
-        GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, guid);
+            // Only looking for non-proxy entities:
+            gt = gt.has(PROPERTY_KEY_ENTITY_IS_PROXY, false);
 
-        // Only looking for non-proxy entities:
-        gt = gt.has(PROPERTY_KEY_ENTITY_IS_PROXY, false);
+            if (gt.hasNext()) {
 
-        if (gt.hasNext()) {
+                Vertex vertex = gt.next();
+               log.debug("{} found entity vertex {}", methodName, vertex);
 
-            Vertex vertex = gt.next();
-           log.debug("{} found entity vertex {}", methodName, vertex);
+                try {
 
-            try {
+                    // Check if we have stumbled on a proxy somehow, and if so avoid processing it.
+                    Boolean isProxy = entityMapper.isProxy(vertex);
+                    if (!isProxy) {
 
-                // Check if we have stumbled on a proxy somehow, and if so avoid processing it.
-                Boolean isProxy = entityMapper.isProxy(vertex);
-                if (!isProxy) {
+                        entityMapper.mapEntityDetailToVertex(entity, vertex);
 
-                    entityMapper.mapEntityDetailToVertex(entity, vertex);
+                        updateEntityClassifications(entity, vertex, g);
 
-                    updateEntityClassifications(entity, vertex, g);
-                }
+                        addEntityHistory(g, entity);
+                    }
 
-            } catch (Exception e) {
-                log.error("{} caught exception {}", methodName, e.getMessage());
-                g.tx().rollback();
+                } catch (Exception e) {
+                    log.error("{} caught exception {}", methodName, e.getMessage());
+                    rollbackTransaction(g);
 
-                throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_UPDATED.getMessageDefinition(entity.getGUID(), methodName,
-                                                                                                              this.getClass().getName(),
-                                                                                                              repositoryName),
-                        this.getClass().getName(),
-                        methodName, e);
+                    throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_UPDATED.getMessageDefinition(entity.getGUID(), methodName,
+                                                                                                                  this.getClass().getName(),
+                                                                                                                  repositoryName),
+                            this.getClass().getName(),
+                            methodName, e);
+                }
             }
-        }
-
-       log.debug("{} commit entity update tx: ", methodName);
-        g.tx().commit();
 
+           log.debug("{} commit entity update tx: ", methodName);
+            commitTransaction(g);
+        }
+        finally {
+            writeLock.unlock();
+        }
     }
 
-    synchronized void updateEntityProxyInStore(EntityProxy entityProxy)
+    void updateEntityProxyInStore(EntityProxy entityProxy)
             throws
             RepositoryErrorException
     {
+        writeLock.lock();
+        try {
+            String methodName = "updateEntityProxyInStore";
 
-        String methodName = "updateEntityProxyInStore";
-
-        log.debug("{}", methodName);
+            log.debug("{}", methodName);
 
-        // Look in the graph
-        String guid = entityProxy.getGUID();
-        GraphTraversalSource g = instanceGraph.traversal();
+            // Look in the graph
+            String guid = entityProxy.getGUID();
+            GraphTraversalSource g = instanceGraph.traversal();
 
-        GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, guid);
+            GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, guid);
 
-        // Only looking for proxy entities:
-        gt = gt.has(PROPERTY_KEY_ENTITY_IS_PROXY, true);
+            // Only looking for proxy entities:
+            gt = gt.has(PROPERTY_KEY_ENTITY_IS_PROXY, true);
 
-        if (gt.hasNext()) {
+            if (gt.hasNext()) {
 
-            Vertex vertex = gt.next();
+                Vertex vertex = gt.next();
 
-            log.debug("{} found entity vertex {}", methodName, vertex);
+                log.debug("{} found entity vertex {}", methodName, vertex);
 
-            try {
+                try {
 
-                // Check if we have stumbled on a proxy somehow, and if so avoid processing it.
-                Boolean isProxy = entityMapper.isProxy(vertex);
-                if (isProxy) {
+                    // Check if we have stumbled on a proxy somehow, and if so avoid processing it.
+                    Boolean isProxy = entityMapper.isProxy(vertex);
+                    if (isProxy) {
 
-                    entityMapper.mapEntityProxyToVertex(entityProxy, vertex);
+                        entityMapper.mapEntityProxyToVertex(entityProxy, vertex);
 
-                    updateEntityClassifications(entityProxy, vertex, g);
-                }
+                        updateEntityClassifications(entityProxy, vertex, g);
+                    }
 
-            } catch (Exception e) {
-                log.error("{} caught exception {}", methodName, e.getMessage());
-                g.tx().rollback();
+                } catch (Exception e) {
+                    log.error("{} caught exception {}", methodName, e.getMessage());
+                    rollbackTransaction(g);
 
-                throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_UPDATED.getMessageDefinition(entityProxy.getGUID(),
-                                                                                                              methodName,
-                                                                                                              this.getClass().getName(),
-                                                                                                              repositoryName),
-                        this.getClass().getName(),
-                        methodName, e);
+                    throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_NOT_UPDATED.getMessageDefinition(entityProxy.getGUID(),
+                                                                                                                  methodName,
+                                                                                                                  this.getClass().getName(),
+                                                                                                                  repositoryName),
+                            this.getClass().getName(),
+                            methodName, e);
+                }
             }
-        }
-
-         log.debug("{} commit entity proxy update tx: ", methodName);
-        g.tx().commit();
 
+             log.debug("{} commit entity proxy update tx: ", methodName);
+            commitTransaction(g);
+        }
+        finally {
+            writeLock.unlock();
+        }
     }
 
 
@@ -1174,168 +1469,792 @@ class GraphOMRSMetadataStore {
 
 
     // updateRelationshipInStore
-    synchronized void updateRelationshipInStore(Relationship relationship)
+    void updateRelationshipInStore(Relationship relationship)
             throws
             RepositoryErrorException
     {
+        writeLock.lock();
+        try {
+            String methodName = "updateRelationshipInStore";
 
-        String methodName = "updateRelationshipInStore";
+            String guid = relationship.getGUID();
+            GraphTraversalSource g = instanceGraph.traversal();
 
-        String guid = relationship.getGUID();
-        GraphTraversalSource g = instanceGraph.traversal();
+            Iterator<Edge> edgeIt = g.E().hasLabel("Relationship").has(PROPERTY_KEY_RELATIONSHIP_GUID, guid);
 
-        Iterator<Edge> edgeIt = g.E().hasLabel("Relationship").has(PROPERTY_KEY_RELATIONSHIP_GUID, guid);
+            if (edgeIt.hasNext()) {
+                Edge edge = edgeIt.next();
+                log.debug("{} found existing edge {}", methodName, edge);
 
-        if (edgeIt.hasNext()) {
-            Edge edge = edgeIt.next();
-            log.debug("{} found existing edge {}", methodName, edge);
+                try {
 
-            try {
+                    relationshipMapper.mapRelationshipToEdge(relationship, edge);
 
-                relationshipMapper.mapRelationshipToEdge(relationship, edge);
+                    addRelationshipHistory(g, relationship);
 
-            } catch (Exception e) {
+                } catch (Exception e) {
 
-                log.error("{} Caught exception from relationship mapper {}", methodName, e.getMessage());
-                g.tx().rollback();
-                throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_UPDATED.getMessageDefinition(relationship.getGUID(), methodName,
-                                                                                                                    this.getClass().getName(),
-                                                                                                                    repositoryName),
-                        this.getClass().getName(),
-                        methodName, e);
+                    log.error("{} Caught exception from relationship mapper {}", methodName, e.getMessage());
+                    rollbackTransaction(g);
+                    throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_UPDATED.getMessageDefinition(relationship.getGUID(), methodName,
+                                                                                                                        this.getClass().getName(),
+                                                                                                                        repositoryName),
+                            this.getClass().getName(),
+                            methodName, e);
+                }
             }
-        }
 
-        g.tx().commit();
+            commitTransaction(g);
+        }
+        finally {
+            writeLock.unlock();
+        }
     }
 
     // removeEntityFromStore
     //
     // This method will remove the entity vertex and any classifier edges and classification vertices linked off it
 
-    synchronized void removeEntityFromStore(String entityGUID)
+    void removeEntityFromStore(String entityGUID)
     {
-        final String methodName = "removeEntityFromStore";
+        writeLock.lock();
+        try {
+            final String methodName = "removeEntityFromStore";
+
+            // Look in the graph
+            String guid = entityGUID;
+            GraphTraversalSource g = instanceGraph.traversal();
+
+            GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityGUID);
+
+            // Only looking for non-proxy entities:
+            gt = gt.has(PROPERTY_KEY_ENTITY_IS_PROXY, false);
+
+            if (gt.hasNext()) {
+                Vertex vertex = gt.next();
+
+                Boolean isProxy = entityMapper.isProxy(vertex);
+                if (!isProxy) {
+
+                    log.debug("{} found entity vertex {} to be removed", methodName, vertex);
+
+                    // Look for associated classifications.
+                    Iterator<Edge> classifierEdges = vertex.edges(Direction.OUT, "Classifier");
+                    while (classifierEdges.hasNext()) {
+                        Edge classifierEdge = classifierEdges.next();
+                        Vertex classificationVertex = classifierEdge.inVertex();
+                        // Get the classification's name for debug/info only
+                        Classification existingClassification = new Classification();
+                        try {
+                            classificationMapper.mapVertexToClassification(classificationVertex, existingClassification);
+                        } catch (Exception e) {
+                            log.error("{} caught exception from classification mapper for classification {}", methodName, existingClassification.getName());
+                            // Nothing you can do - just keep going
+                        }
+                        log.debug("{} removing classification {} from entity", methodName, existingClassification.getName());
+                        classifierEdge.remove();
+                        classificationVertex.remove();
+                    }
+
+                    // Removing the vertex also removes the relationships attached to it, so record their removal too
+                    addRemovalHistory(g, "EntityHistory", entityGUID);
+                    addRelationshipRemovalHistory(g, vertex);
+
+                    // Finally remove the entity vertex...
+                    vertex.remove();
+
+                    log.debug("{} removed entity vertex with guid {}", methodName, entityGUID);
+                }
+            }
+            commitTransaction(g);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    // removeEntityProxyFromStore
+    void removeEntityProxyFromStore(String entityGUID)
+    {
+        writeLock.lock();
+        try {
+            final String methodName = "removeEntityProxyFromStore";
+
+            // Look in the graph
+
+            GraphTraversalSource g = instanceGraph.traversal();
+
+
+            GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityGUID);
+
+            // Only looking for proxy entities:
+            gt = gt.has(PROPERTY_KEY_ENTITY_IS_PROXY, true);
+
+            if (gt.hasNext()) {
+                Vertex vertex = gt.next();
+
+                Boolean isProxy = entityMapper.isProxy(vertex);
+                if (isProxy) {
+
+                    log.debug("{} found entity proxy vertex {} to be removed", methodName, vertex);
+
+                    // Look for associated classifications.
+                    Iterator<Edge> classifierEdges = vertex.edges(Direction.OUT, "Classifier");
+                    while (classifierEdges.hasNext()) {
+                        Edge classifierEdge = classifierEdges.next();
+                        Vertex classificationVertex = classifierEdge.inVertex();
+                        // Get the classification's name for debug/info only
+                        Classification existingClassification = new Classification();
+                        try {
+                            classificationMapper.mapVertexToClassification(classificationVertex, existingClassification);
+                        } catch (Exception e) {
+                            log.error("{} caught exception from classification mapper for classification {}", methodName, existingClassification.getName());
+                            // Nothing you can do - just keep going
+                        }
+                        log.debug("{} removing classification {} from entity proxy", methodName, existingClassification.getName());
+                        classifierEdge.remove();
+                        classificationVertex.remove();
+                    }
+
+                    // Removing the vertex also removes the relationships attached to it, so record their removal
+                    addRelationshipRemovalHistory(g, vertex);
+
+                    // Finally remove the entity vertex...
+                    vertex.remove();
+
+                    log.debug("{} removed entity proxy vertex with guid {}", methodName, entityGUID);
+                }
+            }
+            commitTransaction(g);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    // removeRelationshipFromStore
+    void removeRelationshipFromStore(String relationshipGUID)
+    {
+        writeLock.lock();
+        try {
+            final String methodName = "removeRelationshipFromStore";
+
+            // Look in the graph
+            GraphTraversalSource g = instanceGraph.traversal();
+
+            Iterator<Edge> edgeIt = g.E().hasLabel("Relationship").has(PROPERTY_KEY_RELATIONSHIP_GUID, relationshipGUID);
+            if (edgeIt.hasNext()) {
+                Edge edge = edgeIt.next();
+                log.debug("{} found existing edge {}", methodName, edge);
+                addRemovalHistory(g, "RelationshipHistory", relationshipGUID);
+                edge.remove();
+                log.debug("{} removed relationship edge with guid {}", methodName, relationshipGUID);
+            }
+            commitTransaction(g);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /*
+     * Instance history
+     *
+     * Each version of an entity or relationship that is stored is also recorded in a history vertex that holds the
+     * serialized instance, together with its GUID, type name and the time the version was made.  Removal of an instance
+     * from the store is recorded as a history vertex with no instance.  The history is used to answer queries with an
+     * asOfTime - the version of an instance at a given time is the latest version made at or before that time.
+     *
+     * The history vertices are written in the same graph transaction as the change to the instance.  Instances that
+     * were stored before the history was recorded have no history vertices until they are next changed, so queries
+     * with an asOfTime do not return them.
+     *
+     * By default the history is kept indefinitely.  If the historyRetentionDays storage property is set, versions that
+     * were superseded more than that many days ago are dropped, so queries with an asOfTime earlier than the retention
+     * period may return the version at the start of the period, or nothing.
+     */
+    private void addEntityHistory(GraphTraversalSource g, EntityDetail entity)
+            throws
+            JsonProcessingException
+    {
+        addHistory(g, "EntityHistory", entity.getGUID(), entity.getType().getTypeDefName(), getVersionTime(entity), historyMapper.writeValueAsString(entity));
+    }
+
+    private void addRelationshipHistory(GraphTraversalSource g, Relationship relationship)
+            throws
+            JsonProcessingException
+    {
+        Vertex historyVertex = addHistory(g, "RelationshipHistory", relationship.getGUID(), relationship.getType().getTypeDefName(), getVersionTime(relationship), historyMapper.writeValueAsString(relationship));
+        if (relationship.getEntityOneProxy() != null) {
+            historyVertex.property(PROPERTY_KEY_HISTORY_END_ONE_GUID, relationship.getEntityOneProxy().getGUID());
+        }
+        if (relationship.getEntityTwoProxy() != null) {
+            historyVertex.property(PROPERTY_KEY_HISTORY_END_TWO_GUID, relationship.getEntityTwoProxy().getGUID());
+        }
+    }
+
+    private void addRemovalHistory(GraphTraversalSource g, String label, String guid)
+    {
+        addHistory(g, label, guid, null, System.currentTimeMillis(), null);
+    }
+
+    private void addRelationshipRemovalHistory(GraphTraversalSource g, Vertex vertex)
+    {
+        Iterator<Edge> relationshipEdges = vertex.edges(Direction.BOTH, "Relationship");
+        while (relationshipEdges.hasNext()) {
+            Edge edge = relationshipEdges.next();
+            addRemovalHistory(g, "RelationshipHistory", edge.value(PROPERTY_KEY_RELATIONSHIP_GUID));
+        }
+    }
+
+    private Vertex addHistory(GraphTraversalSource g, String label, String guid, String typeName, long versionTime, String instance)
+    {
+        Vertex historyVertex = g.addV(label).next();
+        historyVertex.property(PROPERTY_KEY_HISTORY_GUID, guid);
+        if (typeName != null) {
+            historyVertex.property(PROPERTY_KEY_HISTORY_TYPE_NAME, typeName);
+        }
+        historyVertex.property(PROPERTY_KEY_HISTORY_VERSION_TIME, versionTime);
+        if (instance != null) {
+            historyVertex.property(PROPERTY_KEY_HISTORY_INSTANCE, instance);
+        }
+
+        pruneHistory(g, label, guid);
+
+        return historyVertex;
+    }
+
+    /*
+     * If a retention period is configured, drop the versions of the instance that were superseded before the start of
+     * the retention period.  The latest version made before the start of the period is kept because it is the version
+     * of the instance at the start of the period.  The history of an instance is only pruned when it is next changed.
+     */
+    private void pruneHistory(GraphTraversalSource g, String label, String guid)
+    {
+        if (historyRetentionMillis >= 0) {
+            long retentionStart = System.currentTimeMillis() - historyRetentionMillis;
+
+            latestVersionsFirst(g.V().hasLabel(label)
+                                     .has(PROPERTY_KEY_HISTORY_GUID, guid)
+                                     .has(PROPERTY_KEY_HISTORY_VERSION_TIME, P.lt(retentionStart)))
+                    .skip(1)
+                    .drop()
+                    .iterate();
+        }
+    }
+
+    private long getVersionTime(InstanceAuditHeader instance)
+    {
+        if (instance.getUpdateTime() != null) {
+            return instance.getUpdateTime().getTime();
+        }
+        if (instance.getCreateTime() != null) {
+            return instance.getCreateTime().getTime();
+        }
+        return System.currentTimeMillis();
+    }
+
+    /*
+     * Return the number of milliseconds that superseded versions are kept in the history, or -1 if the history
+     * is kept indefinitely.
+     */
+    private long getHistoryRetentionMillis(Object retentionDays)
+    {
+        final String methodName = "getHistoryRetentionMillis";
+
+        try {
+            long days = retentionDays instanceof Number ? ((Number) retentionDays).longValue() : Long.parseLong(retentionDays.toString().trim());
+            if (days >= 0) {
+                return TimeUnit.DAYS.toMillis(days);
+            }
+        }
+        catch (NumberFormatException | NullPointerException e) {
+            // reported below
+        }
+
+        log.error("{} ignoring invalid {} value {} - the history will be kept indefinitely", methodName, HISTORY_RETENTION_DAYS_PROPERTY, retentionDays);
+        return -1;
+    }
+
+
+    // getEntityDetailFromHistory
+    //
+    // Returns the version of the entity at the asOfTime, or null if the entity did not exist at that time.
+    EntityDetail getEntityDetailFromHistory(String guid, Date asOfTime)
+            throws
+            RepositoryErrorException
+    {
+        final String methodName = "getEntityDetailFromHistory";
 
-        // Look in the graph
-        String guid = entityGUID;
         GraphTraversalSource g = instanceGraph.traversal();
 
-        GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityGUID);
+        EntityDetail entity = getInstanceFromHistory(g, "EntityHistory", guid, asOfTime, EntityDetail.class, GraphOMRSErrorCode.ENTITY_NOT_FOUND, methodName);
 
-        // Only looking for non-proxy entities:
-        gt = gt.has(PROPERTY_KEY_ENTITY_IS_PROXY, false);
+        commitTransaction(g);
+
+        return entity;
+    }
 
-        if (gt.hasNext()) {
-            Vertex vertex = gt.next();
 
-            Boolean isProxy = entityMapper.isProxy(vertex);
-            if (!isProxy) {
-
-                log.debug("{} found entity vertex {} to be removed", methodName, vertex);
-
-                // Look for associated classifications.
-                Iterator<Edge> classifierEdges = vertex.edges(Direction.OUT, "Classifier");
-                while (classifierEdges.hasNext()) {
-                    Edge classifierEdge = classifierEdges.next();
-                    Vertex classificationVertex = classifierEdge.inVertex();
-                    // Get the classification's name for debug/info only
-                    Classification existingClassification = new Classification();
-                    try {
-                        classificationMapper.mapVertexToClassification(classificationVertex, existingClassification);
-                    } catch (Exception e) {
-                        log.error("{} caught exception from classification mapper for classification {}", methodName, existingClassification.getName());
-                        // Nothing you can do - just keep going
+    // getRelationshipFromHistory
+    //
+    // Returns the version of the relationship at the asOfTime, or null if the relationship did not exist at that time.
+    Relationship getRelationshipFromHistory(String guid, Date asOfTime)
+            throws
+            RepositoryErrorException
+    {
+        final String methodName = "getRelationshipFromHistory";
+
+        GraphTraversalSource g = instanceGraph.traversal();
+
+        Relationship relationship = getInstanceFromHistory(g, "RelationshipHistory", guid, asOfTime, Relationship.class, GraphOMRSErrorCode.RELATIONSHIP_NOT_FOUND, methodName);
+
+        commitTransaction(g);
+
+        return relationship;
+    }
+
+
+    // findEntitiesInHistory
+    //
+    // Returns a page of the versions at the asOfTime of the entities of the given types that existed at that time
+    // and are accepted by the filter.  The entities are returned in GUID order.  A pageSize of 0 means no limit.
+    List<EntityDetail> findEntitiesInHistory(List<String>              entityTypeNames,
+                                             Date                      asOfTime,
+                                             HistoryFilter<EntityDetail> filter,
+                                             int                       fromElement,
+                                             int                       pageSize)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException
+    {
+        final String methodName = "findEntitiesInHistory";
+
+        return findInstancesInHistory("EntityHistory", entityTypeNames, asOfTime, filter, fromElement, pageSize, EntityDetail.class, GraphOMRSErrorCode.ENTITY_NOT_FOUND, methodName);
+    }
+
+
+    // findRelationshipsInHistory
+    //
+    // Returns a page of the versions at the asOfTime of the relationships of the given types that existed at that time
+    // and are accepted by the filter.  The relationships are returned in GUID order.  A pageSize of 0 means no limit.
+    List<Relationship> findRelationshipsInHistory(List<String>              relationshipTypeNames,
+                                                  Date                      asOfTime,
+                                                  HistoryFilter<Relationship> filter,
+                                                  int                       fromElement,
+                                                  int                       pageSize)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException
+    {
+        final String methodName = "findRelationshipsInHistory";
+
+        return findInstancesInHistory("RelationshipHistory", relationshipTypeNames, asOfTime, filter, fromElement, pageSize, Relationship.class, GraphOMRSErrorCode.RELATIONSHIP_NOT_FOUND, methodName);
+    }
+
+
+    private <T extends InstanceAuditHeader> List<T> findInstancesInHistory(String             label,
+                                                                          List<String>       typeNames,
+                                                                          Date               asOfTime,
+                                                                          HistoryFilter<T>   filter,
+                                                                          int                fromElement,
+                                                                          int                pageSize,
+                                                                          Class<T>           instanceClass,
+                                                                          GraphOMRSErrorCode errorCode,
+                                                                          String             methodName)
+            throws
+            InvalidParameterException,
+            RepositoryErrorException
+    {
+        GraphTraversalSource g = instanceGraph.traversal();
+
+        // Any instance with a version of one of the types made by the asOfTime is a candidate.  The time range is
+        // answered by the mixed index on the version time.
+        List<String> candidateGUIDs = g.V().has(PROPERTY_KEY_HISTORY_VERSION_TIME, P.lte(asOfTime.getTime()))
+                                           .hasLabel(label)
+                                           .has(PROPERTY_KEY_HISTORY_TYPE_NAME, within(typeNames))
+                                           .<String>values(PROPERTY_KEY_HISTORY_GUID)
+                                           .dedup()
+                                           .order()
+                                           .toList();
+
+        // The version of each candidate at the asOfTime may be a removal or (if the instance was retyped) of a different
+        // type, so the candidates are resolved a batch at a time, in GUID order, until the requested page is filled.
+        List<T> instances = new ArrayList<>();
+        int     skipped   = 0;
+
+        for (int batchStart = 0; batchStart < candidateGUIDs.size(); batchStart += HISTORY_BATCH_SIZE) {
+            List<String> batch = candidateGUIDs.subList(batchStart, Math.min(batchStart + HISTORY_BATCH_SIZE, candidateGUIDs.size()));
+
+            for (T instance : readLatestVersionsFromHistory(g, label, batch, asOfTime, instanceClass, errorCode, methodName).values()) {
+                boolean accepted;
+                try {
+                    accepted = typeNames.contains(instance.getType().getTypeDefName()) && filter.accept(instance);
+                }
+                catch (InvalidParameterException | RepositoryErrorException e) {
+                    rollbackReadTransaction(g);
+                    throw e;
+                }
+
+                if (accepted) {
+                    if (skipped < fromElement) {
+                        skipped++;
+                    }
+                    else {
+                        instances.add(instance);
+                        if (pageSize > 0 && instances.size() == pageSize) {
+                            commitTransaction(g);
+                            return instances;
+                        }
                     }
-                    log.debug("{} removing classification {} from entity", methodName, existingClassification.getName());
-                    classifierEdge.remove();
-                    classificationVertex.remove();
                 }
+            }
+        }
 
-                // Finally remove the entity vertex...
-                vertex.remove();
+        commitTransaction(g);
+
+        return instances;
+    }
+
+
+    // getRelationshipsForEntityFromHistory
+    //
+    // Returns the versions at the asOfTime of the relationships that were connected to the entity at that time.
+    // The caller is responsible for filtering the relationships by type and status.
+    List<Relationship> getRelationshipsForEntityFromHistory(String entityGUID, Date asOfTime)
+            throws
+            RepositoryErrorException
+    {
+        final String methodName = "getRelationshipsForEntityFromHistory";
 
-                log.debug("{} removed entity vertex with guid {}", methodName, entityGUID);
+        GraphTraversalSource g = instanceGraph.traversal();
+
+        List<Relationship> relationships = findRelationshipsForEntitiesInHistory(g, Collections.singleton(entityGUID), asOfTime, methodName);
+
+        commitTransaction(g);
+
+        return relationships;
+    }
+
+
+    /*
+     * Return the versions at the asOfTime of the relationships that were connected to any of the entities at that time.
+     * The candidates are found through the indexes on the end guids of the relationship versions.
+     */
+    private List<Relationship> findRelationshipsForEntitiesInHistory(GraphTraversalSource g,
+                                                                     Collection<String>   entityGUIDs,
+                                                                     Date                 asOfTime,
+                                                                     String               methodName)
+            throws
+            RepositoryErrorException
+    {
+        Set<String> candidateGUIDs = new TreeSet<>();
+        for (String endKey : Arrays.asList(PROPERTY_KEY_HISTORY_END_ONE_GUID, PROPERTY_KEY_HISTORY_END_TWO_GUID)) {
+            candidateGUIDs.addAll(g.V().hasLabel("RelationshipHistory")
+                                       .has(endKey, within(entityGUIDs))
+                                       .has(PROPERTY_KEY_HISTORY_VERSION_TIME, P.lte(asOfTime.getTime()))
+                                       .<String>values(PROPERTY_KEY_HISTORY_GUID)
+                                       .toList());
+        }
+
+        List<Relationship> relationships = new ArrayList<>();
+        for (Relationship relationship : readLatestVersionsFromHistory(g, "RelationshipHistory", new ArrayList<>(candidateGUIDs), asOfTime,
+                                                                       Relationship.class, GraphOMRSErrorCode.RELATIONSHIP_NOT_FOUND, methodName).values()) {
+            if (   (relationship.getEntityOneProxy() != null && entityGUIDs.contains(relationship.getEntityOneProxy().getGUID()))
+                || (relationship.getEntityTwoProxy() != null && entityGUIDs.contains(relationship.getEntityTwoProxy().getGUID()))) {
+                relationships.add(relationship);
             }
         }
-        g.tx().commit();
 
+        return relationships;
     }
 
-    // removeEntityProxyFromStore
-    synchronized void removeEntityProxyFromStore(String entityGUID)
+
+    // getSubGraphFromHistory
+    //
+    // Returns the neighbourhood of the entity as it was at the asOfTime.  The filters have the same meaning as for
+    // getSubGraph.  The neighbourhood is explored one level at a time from the versions of the relationships and
+    // entities at the asOfTime.  An entity that has no version in the history (for example a proxy) is traversed
+    // through, but is only reported in the relationships that reach it.
+    InstanceGraph getSubGraphFromHistory(String               entityGUID,
+                                         List<String>         entityTypeGUIDs,
+                                         List<String>         relationshipTypeGUIDs,
+                                         List<InstanceStatus> limitResultsByStatus,
+                                         List<String>         limitResultsByClassification,
+                                         int                  level,
+                                         Date                 asOfTime)
+            throws
+            TypeErrorException,
+            EntityNotKnownException,
+            RepositoryErrorException
     {
-        final String methodName = "removeEntityProxyFromStore";
-        // TODO - could capture existing entity and move it to 'history'
+        final String methodName = "getSubGraphFromHistory";
 
-        // Look in the graph
+        List<String> entityTypeNames       = getTypeNamesForTraversal(entityTypeGUIDs, "entityTypeGUIDs", GraphOMRSErrorCode.ENTITY_TYPE_GUID_NOT_KNOWN, methodName);
+        List<String> relationshipTypeNames = getTypeNamesForTraversal(relationshipTypeGUIDs, "relationshipTypeGUIDs", GraphOMRSErrorCode.RELATIONSHIP_TYPE_GUID_NOT_KNOWN, methodName);
 
         GraphTraversalSource g = instanceGraph.traversal();
 
+        EntityDetail rootEntity = getInstanceFromHistory(g, "EntityHistory", entityGUID, asOfTime, EntityDetail.class, GraphOMRSErrorCode.ENTITY_NOT_FOUND, methodName);
+        if (rootEntity == null) {
+            log.error("{} could not retrieve start entity with GUID {} at time {}", methodName, entityGUID, asOfTime);
+            rollbackReadTransaction(g);
+
+            throw new EntityNotKnownException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(entityGUID, methodName,
+                                                                                                       this.getClass().getName(),
+                                                                                                       repositoryName),
+                    this.getClass().getName(),
+                    methodName);
+        }
+
+        List<EntityDetail> entities      = new ArrayList<>();
+        List<Relationship> relationships = new ArrayList<>();
+        entities.add(rootEntity);
+
+        Set<String> visitedEntityGUIDs        = new HashSet<>();
+        Set<String> reportedRelationshipGUIDs = new HashSet<>();
+        Set<String> levelEntityGUIDs          = new HashSet<>();
+        visitedEntityGUIDs.add(entityGUID);
+        levelEntityGUIDs.add(entityGUID);
+
+        for (int depth = 0; !levelEntityGUIDs.isEmpty() && (level == -1 || depth < level); depth++) {
+
+            // The relationships from this level that pass the relationship filters, with the entity proxies they lead to.
+            Map<Relationship, List<EntityProxy>> levelRelationships = new LinkedHashMap<>();
+            Set<String> farEntityGUIDs = new HashSet<>();
+
+            for (Relationship relationship : findRelationshipsForEntitiesInHistory(g, levelEntityGUIDs, asOfTime, methodName)) {
+                if (   !reportedRelationshipGUIDs.contains(relationship.getGUID())
+                    && hasTraversableStatus(relationship.getStatus(), limitResultsByStatus)
+                    && (relationshipTypeNames == null || relationshipTypeNames.contains(relationship.getType().getTypeDefName()))) {
+
+                    List<EntityProxy> farEnds = new ArrayList<>();
+                    if (levelEntityGUIDs.contains(relationship.getEntityOneProxy().getGUID())) {
+                        farEnds.add(relationship.getEntityTwoProxy());
+                    }
+                    if (levelEntityGUIDs.contains(relationship.getEntityTwoProxy().getGUID())) {
+                        farEnds.add(relationship.getEntityOneProxy());
+                    }
+                    for (EntityProxy farEnd : farEnds) {
+                        farEntityGUIDs.add(farEnd.getGUID());
+                    }
+                    levelRelationships.put(relationship, farEnds);
+                }
+            }
+
+            farEntityGUIDs.removeAll(visitedEntityGUIDs);
+            Map<String, EntityDetail> farEntities = readLatestVersionsFromHistory(g, "EntityHistory", new ArrayList<>(farEntityGUIDs), asOfTime,
+                                                                                  EntityDetail.class, GraphOMRSErrorCode.ENTITY_NOT_FOUND, methodName);
+
+            Set<String> nextLevelEntityGUIDs = new HashSet<>();
+            for (Map.Entry<Relationship, List<EntityProxy>> levelRelationship : levelRelationships.entrySet()) {
+                for (EntityProxy farEnd : levelRelationship.getValue()) {
+                    EntityDetail  farEntity  = farEntities.get(farEnd.getGUID());
+                    EntitySummary farSummary = farEntity != null ? farEntity : farEnd;
+
+                    if (   hasTraversableStatus(farSummary.getStatus(), limitResultsByStatus)
+                        && (entityTypeNames == null || entityTypeNames.contains(farSummary.getType().getTypeDefName()))
+                        && hasTraversableClassification(farSummary, limitResultsByClassification)) {
+
+                        if (reportedRelationshipGUIDs.add(levelRelationship.getKey().getGUID())) {
+                            relationships.add(levelRelationship.getKey());
+                        }
+                        if (visitedEntityGUIDs.add(farEnd.getGUID())) {
+                            nextLevelEntityGUIDs.add(farEnd.getGUID());
+                            if (farEntity != null) {
+                                entities.add(farEntity);
+                            }
+                        }
+                    }
+                }
+            }
 
-        GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityGUID);
+            levelEntityGUIDs = nextLevelEntityGUIDs;
+        }
 
-        // Only looking for proxy entities:
-        gt = gt.has(PROPERTY_KEY_ENTITY_IS_PROXY, true);
+        commitTransaction(g);
+
+        InstanceGraph subGraph = new InstanceGraph();
+        subGraph.setEntities(entities);
+        subGraph.setRelationships(relationships);
+
+        return subGraph;
+    }
+
+
+    /*
+     * Return the names of the types for a traversal filter, or null if there is no filter.
+     */
+    private List<String> getTypeNamesForTraversal(List<String>       typeGUIDs,
+                                                  String             parameterName,
+                                                  GraphOMRSErrorCode errorCode,
+                                                  String             methodName)
+            throws
+            TypeErrorException
+    {
+        if (typeGUIDs == null) {
+            return null;
+        }
+
+        List<String> typeNames = new ArrayList<>();
+        for (String typeGUID : typeGUIDs) {
+            try {
+                typeNames.add(repositoryHelper.getTypeDef(repositoryName, parameterName, typeGUID, methodName).getName());
+            } catch (Exception e) {
+                log.error("{} caught exception from repository helper trying to resolve type with GUID {}", methodName, typeGUID);
+
+                throw new TypeErrorException(errorCode.getMessageDefinition(typeGUID,
+                                                                            methodName,
+                                                                            this.getClass().getName(),
+                                                                            repositoryName),
+                        this.getClass().getName(),
+                        methodName, e);
+            }
+        }
+
+        return typeNames;
+    }
+
+
+    /*
+     * If no status filter is specified, DELETED instances are not traversed.  Otherwise only instances with one of
+     * the specified statuses are traversed.
+     */
+    private boolean hasTraversableStatus(InstanceStatus status, List<InstanceStatus> limitResultsByStatus)
+    {
+        if (limitResultsByStatus == null) {
+            return status != InstanceStatus.DELETED;
+        }
+        return limitResultsByStatus.contains(status);
+    }
+
+
+    /*
+     * If a classification filter is specified, only entities with one of the specified classifications are traversed.
+     */
+    private boolean hasTraversableClassification(EntitySummary entity, List<String> limitResultsByClassification)
+    {
+        if (limitResultsByClassification == null) {
+            return true;
+        }
+        if (entity.getClassifications() != null) {
+            for (Classification classification : entity.getClassifications()) {
+                if (limitResultsByClassification.contains(classification.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    private <T> T getInstanceFromHistory(GraphTraversalSource g,
+                                         String               label,
+                                         String               guid,
+                                         Date                 asOfTime,
+                                         Class<T>             instanceClass,
+                                         GraphOMRSErrorCode   errorCode,
+                                         String               methodName)
+            throws
+            RepositoryErrorException
+    {
+        // Find the latest version made at or before the asOfTime.
+        Vertex latestVertex = latestVersionsFirst(g.V().hasLabel(label)
+                                                       .has(PROPERTY_KEY_HISTORY_GUID, guid)
+                                                       .has(PROPERTY_KEY_HISTORY_VERSION_TIME, P.lte(asOfTime.getTime())))
+                .limit(1)
+                .tryNext()
+                .orElse(null);
+
+        return readInstanceFromHistory(g, latestVertex, guid, instanceClass, errorCode, methodName);
+    }
 
-        if (gt.hasNext()) {
-            Vertex vertex = gt.next();
 
-            Boolean isProxy = entityMapper.isProxy(vertex);
-            if (isProxy) {
-
-                log.debug("{} found entity proxy vertex {} to be removed", methodName, vertex);
-
-                // Look for associated classifications.
-                Iterator<Edge> classifierEdges = vertex.edges(Direction.OUT, "Classifier");
-                while (classifierEdges.hasNext()) {
-                    Edge classifierEdge = classifierEdges.next();
-                    Vertex classificationVertex = classifierEdge.inVertex();
-                    // Get the classification's name for debug/info only
-                    Classification existingClassification = new Classification();
-                    try {
-                        classificationMapper.mapVertexToClassification(classificationVertex, existingClassification);
-                    } catch (Exception e) {
-                        log.error("{} caught exception from classification mapper for classification {}", methodName, existingClassification.getName());
-                        // Nothing you can do - just keep going
-                    }
-                    log.debug("{} removing classification {} from entity proxy", methodName, existingClassification.getName());
-                    classifierEdge.remove();
-                    classificationVertex.remove();
+    /*
+     * Return the instances at the asOfTime, keyed and ordered by the supplied guids.  Instances that did not exist at
+     * the asOfTime are omitted.  The versions are retrieved a batch of guids at a time.
+     */
+    private <T> Map<String, T> readLatestVersionsFromHistory(GraphTraversalSource g,
+                                                             String               label,
+                                                             List<String>         guids,
+                                                             Date                 asOfTime,
+                                                             Class<T>             instanceClass,
+                                                             GraphOMRSErrorCode   errorCode,
+                                                             String               methodName)
+            throws
+            RepositoryErrorException
+    {
+        Map<String, T> instances = new LinkedHashMap<>();
+
+        for (int batchStart = 0; batchStart < guids.size(); batchStart += HISTORY_BATCH_SIZE) {
+            List<String> batch = guids.subList(batchStart, Math.min(batchStart + HISTORY_BATCH_SIZE, guids.size()));
+
+            // The versions are ordered by the graph and the first version of each instance is kept.  This is not left
+            // to dedup() because the traversal strategies may move a dedup() ahead of the order().
+            Map<String, Vertex> latestVertices = new HashMap<>();
+            latestVersionsFirst(g.V().hasLabel(label)
+                                     .has(PROPERTY_KEY_HISTORY_GUID, within(batch))
+                                     .has(PROPERTY_KEY_HISTORY_VERSION_TIME, P.lte(asOfTime.getTime())))
+                    .forEachRemaining(vertex -> latestVertices.putIfAbsent(vertex.value(PROPERTY_KEY_HISTORY_GUID), vertex));
+
+            for (String guid : batch) {
+                T instance = readInstanceFromHistory(g, latestVertices.get(guid), guid, instanceClass, errorCode, methodName);
+                if (instance != null) {
+                    instances.put(guid, instance);
                 }
-
-                // Finally remove the entity vertex...
-                vertex.remove();
-
-                log.debug("{} removed entity proxy vertex with guid {}", methodName, entityGUID);
             }
         }
-        g.tx().commit();
 
+        return instances;
     }
 
-    // removeRelationshipFromStore
-    synchronized void removeRelationshipFromStore(String relationshipGUID)
+
+    /*
+     * Order history vertices from the latest version to the earliest.  If a removal was made at the same time as
+     * another version the removal is treated as the later of the two.
+     */
+    private GraphTraversal<Vertex, Vertex> latestVersionsFirst(GraphTraversal<Vertex, Vertex> versions)
     {
-        final String methodName = "removeRelationshipFromStore";
-        // TODO - could capture existing relationship and move it to 'history'
+        return versions.order()
+                       .by(PROPERTY_KEY_HISTORY_VERSION_TIME, Order.desc)
+                       .by(__.properties(PROPERTY_KEY_HISTORY_INSTANCE).count(), Order.asc);
+    }
 
-        // Look in the graph
-        GraphTraversalSource g = instanceGraph.traversal();
 
-        Iterator<Edge> edgeIt = g.E().hasLabel("Relationship").has(PROPERTY_KEY_RELATIONSHIP_GUID, relationshipGUID);
-        if (edgeIt.hasNext()) {
-            Edge edge = edgeIt.next();
-            log.debug("{} found existing edge {}", methodName, edge);
-            edge.remove();
-            log.debug("{} removed relationship edge with guid {}", methodName, relationshipGUID);
+    /*
+     * Return the instance recorded in a history vertex, or null if there is no vertex or it records a removal.
+     */
+    private <T> T readInstanceFromHistory(GraphTraversalSource g,
+                                          Vertex               historyVertex,
+                                          String               guid,
+                                          Class<T>             instanceClass,
+                                          GraphOMRSErrorCode   errorCode,
+                                          String               methodName)
+            throws
+            RepositoryErrorException
+    {
+        if (historyVertex == null || !historyVertex.property(PROPERTY_KEY_HISTORY_INSTANCE).isPresent()) {
+            return null;
+        }
+
+        try {
+            return historyMapper.readValue((String) historyVertex.value(PROPERTY_KEY_HISTORY_INSTANCE), instanceClass);
         }
-        g.tx().commit();
+        catch (IOException e) {
+            log.error("{} could not read version of instance with guid {} from history", methodName, guid);
+            rollbackReadTransaction(g);
 
+            throw new RepositoryErrorException(errorCode.getMessageDefinition(guid, methodName,
+                                                                              this.getClass().getName(),
+                                                                              repositoryName),
+                    this.getClass().getName(),
+                    methodName, e);
+        }
     }
 
+
     // getRelationshipsForEntity
-    synchronized List<Relationship> getRelationshipsForEntity(String entityGUID)
+    List<Relationship> getRelationshipsForEntity(String entityGUID)
 
             throws
             TypeErrorException,
@@ -1389,7 +2308,7 @@ class GraphOMRSMetadataStore {
 
                 } catch (Exception e) {
                     log.error("{} Caught exception from entity mapper {}", methodName, e.getMessage());
-                    g.tx().rollback();
+                    rollbackReadTransaction(g);
 
                     throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_NOT_FOUND.getMessageDefinition(entityMapper.getEntityGUID(vertex), methodName,
                                                                                                                       this.getClass().getName(),
@@ -1402,37 +2321,376 @@ class GraphOMRSMetadataStore {
             }
         }
 
-        g.tx().commit();
+        commitTransaction(g);
 
         return relationships;
     }
 
 
+    // countRelationshipsForEntity
+    /*
+     * Count the relationships attached to an entity in the graph without mapping them.  Deleted relationships
+     * and relationships whose home is one of the excluded metadata collections are left out, and the type and
+     * status filtering is performed in the graph.
+     */
+    long countRelationshipsForEntity(String               entityGUID,
+                                     String               relationshipTypeName,
+                                     List<InstanceStatus> limitResultsByStatus,
+                                     List<String>         excludedHomeMetadataCollectionIds)
+    {
+        final String methodName = "countRelationshipsForEntity";
+
+        GraphTraversalSource g = instanceGraph.traversal();
+
+        GraphTraversal<Vertex, Edge> gt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityGUID).bothE("Relationship");
+
+        if (relationshipTypeName != null) {
+            gt = gt.has(PROPERTY_KEY_RELATIONSHIP_TYPE_NAME, relationshipTypeName);
+        }
+
+        // Eliminate soft deleted relationships and apply status filtering if any was requested
+        if (limitResultsByStatus != null) {
+            List<Integer> statusOrdinals = new ArrayList<>();
+            for (InstanceStatus status : limitResultsByStatus) {
+                if (status != null && status != InstanceStatus.DELETED) {
+                    statusOrdinals.add(status.getOrdinal());
+                }
+            }
+            gt = gt.has(PROPERTY_KEY_RELATIONSHIP_STATUS, within(statusOrdinals));
+        }
+        else {
+            DefaultGraphTraversal t = new DefaultGraphTraversal();
+            t = (DefaultGraphTraversal) t.has(PROPERTY_KEY_RELATIONSHIP_STATUS, InstanceStatus.DELETED.getOrdinal());
+            gt = gt.not(t);
+        }
+
+        if (excludedHomeMetadataCollectionIds != null) {
+            gt = gt.has(PROPERTY_KEY_RELATIONSHIP_METADATACOLLECTION_ID, without(excludedHomeMetadataCollectionIds));
+        }
+
+        // A relationship from the entity to itself is found from both ends
+        long count = gt.dedup().count().next();
+
+        log.debug("{} entity {} has {} relationships", methodName, entityGUID, count);
+
+        commitTransaction(g);
+
+        return count;
+    }
+
+
+    // countEntities
+    /*
+     * Count the entities of the requested types in the graph without mapping them.  Proxies, deleted entities and
+     * entities whose home is one of the excluded metadata collections are left out, and the status filtering is
+     * performed in the graph.
+     */
+    long countEntities(List<String>         entityTypeNames,
+                       List<InstanceStatus> limitResultsByStatus,
+                       List<String>         excludedHomeMetadataCollectionIds)
+    {
+        final String methodName = "countEntities";
+
+        GraphTraversalSource g = instanceGraph.traversal();
+
+        GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity")
+                .has(PROPERTY_KEY_ENTITY_IS_PROXY, false)
+                .has(PROPERTY_KEY_ENTITY_TYPE_NAME, within(entityTypeNames));
+
+        // Eliminate soft deleted entities and apply status filtering if any was requested
+        if (limitResultsByStatus != null) {
+            List<Integer> statusOrdinals = new ArrayList<>();
+            for (InstanceStatus status : limitResultsByStatus) {
+                if (status != null && status != InstanceStatus.DELETED) {
+                    statusOrdinals.add(status.getOrdinal());
+                }
+            }
+            gt = gt.has(PROPERTY_KEY_ENTITY_STATUS, within(statusOrdinals));
+        }
+        else {
+            DefaultGraphTraversal t = new DefaultGraphTraversal();
+            t = (DefaultGraphTraversal) t.has(PROPERTY_KEY_ENTITY_STATUS, InstanceStatus.DELETED.getOrdinal());
+            gt = gt.not(t);
+        }
+
+        if (excludedHomeMetadataCollectionIds != null) {
+            gt = gt.has(PROPERTY_KEY_ENTITY_METADATACOLLECTION_ID, without(excludedHomeMetadataCollectionIds));
+        }
+
+        long count = gt.count().next();
+
+        log.debug("{} found {} entities", methodName, count);
+
+        commitTransaction(g);
+
+        return count;
+    }
+
+
+    // countRelationships
+    /*
+     * Count the relationships of the requested types in the graph without mapping them.  Deleted relationships and
+     * relationships whose home is one of the excluded metadata collections are left out, and the status filtering
+     * is performed in the graph.
+     */
+    long countRelationships(List<String>         relationshipTypeNames,
+                            List<InstanceStatus> limitResultsByStatus,
+                            List<String>         excludedHomeMetadataCollectionIds)
+    {
+        final String methodName = "countRelationships";
+
+        GraphTraversalSource g = instanceGraph.traversal();
+
+        GraphTraversal<Edge, Edge> gt = g.E().hasLabel("Relationship")
+                .has(PROPERTY_KEY_RELATIONSHIP_TYPE_NAME, within(relationshipTypeNames));
+
+        // Eliminate soft deleted relationships and apply status filtering if any was requested
+        if (limitResultsByStatus != null) {
+            List<Integer> statusOrdinals = new ArrayList<>();
+            for (InstanceStatus status : limitResultsByStatus) {
+                if (status != null && status != InstanceStatus.DELETED) {
+                    statusOrdinals.add(status.getOrdinal());
+                }
+            }
+            gt = gt.has(PROPERTY_KEY_RELATIONSHIP_STATUS, within(statusOrdinals));
+        }
+        else {
+            DefaultGraphTraversal t = new DefaultGraphTraversal();
+            t = (DefaultGraphTraversal) t.has(PROPERTY_KEY_RELATIONSHIP_STATUS, InstanceStatus.DELETED.getOrdinal());
+            gt = gt.not(t);
+        }
+
+        if (excludedHomeMetadataCollectionIds != null) {
+            gt = gt.has(PROPERTY_KEY_RELATIONSHIP_METADATACOLLECTION_ID, without(excludedHomeMetadataCollectionIds));
+        }
+
+        long count = gt.count().next();
+
+        log.debug("{} found {} relationships", methodName, count);
+
+        commitTransaction(g);
+
+        return count;
+    }
+
+
+    // getRelationshipsForEntityAfter
+    /*
+     * Retrieve a page of the relationships attached to an entity, in the order of their GUIDs, starting after
+     * the supplied GUID.  Deleted relationships are excluded and the type and status filtering is performed
+     * in the graph.
+     */
+    InstancePage<Relationship> getRelationshipsForEntityAfter(String               entityGUID,
+                                                              String               relationshipTypeName,
+                                                              List<InstanceStatus> limitResultsByStatus,
+                                                              String               afterGUID,
+                                                              int                  pageSize)
+            throws
+            RepositoryErrorException
+    {
+        final String methodName = "getRelationshipsForEntityAfter";
+
+        List<Relationship> relationships = new ArrayList<>();
+
+        GraphTraversalSource g = instanceGraph.traversal();
+
+        GraphTraversal<Vertex, Edge> gt = g.V().hasLabel("Entity").has(PROPERTY_KEY_ENTITY_GUID, entityGUID).bothE("Relationship");
+
+        if (relationshipTypeName != null) {
+            gt = gt.has(PROPERTY_KEY_RELATIONSHIP_TYPE_NAME, relationshipTypeName);
+        }
+
+        // Eliminate soft deleted relationships and apply status filtering if any was requested
+        if (limitResultsByStatus != null) {
+            List<Integer> statusOrdinals = new ArrayList<>();
+            for (InstanceStatus status : limitResultsByStatus) {
+                if (status != null && status != InstanceStatus.DELETED) {
+                    statusOrdinals.add(status.getOrdinal());
+                }
+            }
+            gt = gt.has(PROPERTY_KEY_RELATIONSHIP_STATUS, within(statusOrdinals));
+        }
+        else {
+            DefaultGraphTraversal t = new DefaultGraphTraversal();
+            t = (DefaultGraphTraversal) t.has(PROPERTY_KEY_RELATIONSHIP_STATUS, InstanceStatus.DELETED.getOrdinal());
+            gt = gt.not(t);
+        }
+
+        if (afterGUID != null) {
+            gt = gt.has(PROPERTY_KEY_RELATIONSHIP_GUID, P.gt(afterGUID));
+        }
+
+        // A relationship from the entity to itself is found from both ends
+        gt = gt.dedup().order().by(PROPERTY_KEY_RELATIONSHIP_GUID, Order.asc);
+
+        if (pageSize > 0) {
+            gt = gt.limit(pageSize);
+        }
+
+        log.debug("{} traversal looks like this --> {} ", methodName, gt);
+
+        while (gt.hasNext()) {
+            relationships.add(getRelationshipFromEdge(gt.next(), g, methodName));
+        }
+
+        commitTransaction(g);
+
+        if ((pageSize > 0) && (relationships.size() == pageSize)) {
+            return new InstancePage<>(relationships, relationships.get(relationships.size() - 1).getGUID());
+        }
+
+        return new InstancePage<>(relationships, null);
+    }
+
+
     // findEntitiesByProperty
-    List<EntityDetail> findEntitiesByProperty(String             typeDefName,
-                                              InstanceProperties matchProperties,
-                                              MatchCriteria      matchCriteria,
-                                              Boolean            fullMatch)
+    List<EntityDetail> findEntitiesByProperty(List<TypeDef>        typeDefs,
+                                              InstanceProperties   matchProperties,
+                                              MatchCriteria        matchCriteria,
+                                              Boolean              fullMatch,
+                                              List<InstanceStatus> limitResultsByStatus,
+                                              List<String>         limitResultsByClassification,
+                                              int                  fromElement,
+                                              int                  pageSize)
             throws
             RepositoryErrorException,
             InvalidParameterException
 
     {
+        /*
+         * Types that share the same property criteria are searched by the same branch of the traversal.  When the
+         * criteria only use attributes inherited from a common supertype this means the whole type closure is
+         * searched with a single has(typeName, within(...)) step that the graph indexes can satisfy.
+         */
+        Map<String, EntityPropertyCriteria> criteriaBySignature = new LinkedHashMap<>();
 
-        final String methodName = "findEntitiesByProperty";
+        for (TypeDef typeDef : typeDefs) {
+            addEntityPropertyCriteria(criteriaBySignature, typeDef, matchProperties, matchCriteria, fullMatch);
+        }
 
-        List<EntityDetail> entities = new ArrayList<>();
+        return findEntities(criteriaBySignature.values(), limitResultsByStatus, limitResultsByClassification, fromElement, pageSize);
+    }
 
-        GraphTraversalSource g = instanceGraph.traversal();
 
-        GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity");
-        if (typeDefName != null) {
-            gt = gt.has(PROPERTY_KEY_ENTITY_TYPE_NAME, typeDefName);
+    // findEntitiesByPropertyAfter
+    InstancePage<EntityDetail> findEntitiesByPropertyAfter(List<TypeDef>        typeDefs,
+                                                           InstanceProperties   matchProperties,
+                                                           MatchCriteria        matchCriteria,
+                                                           Boolean              fullMatch,
+                                                           List<InstanceStatus> limitResultsByStatus,
+                                                           List<String>         limitResultsByClassification,
+                                                           String               afterGUID,
+                                                           int                  pageSize)
+            throws
+            RepositoryErrorException,
+            InvalidParameterException
+
+    {
+        Map<String, EntityPropertyCriteria> criteriaBySignature = new LinkedHashMap<>();
+
+        for (TypeDef typeDef : typeDefs) {
+            addEntityPropertyCriteria(criteriaBySignature, typeDef, matchProperties, matchCriteria, fullMatch);
         }
 
-        // Only accept non-proxy entities:
-        gt = gt.has(PROPERTY_KEY_ENTITY_IS_PROXY, false);
+        return findEntitiesAfter(criteriaBySignature.values(), limitResultsByStatus, limitResultsByClassification, afterGUID, pageSize);
+    }
+
+
+    // findEntitiesByPropertyValue
+    List<EntityDetail> findEntitiesByPropertyValue(List<TypeDef>        typeDefs,
+                                                   String               searchCriteria,
+                                                   List<InstanceStatus> limitResultsByStatus,
+                                                   List<String>         limitResultsByClassification,
+                                                   int                  fromElement,
+                                                   int                  pageSize)
+            throws
+            RepositoryErrorException,
+            InvalidParameterException
+
+    {
+        Map<String, EntityPropertyCriteria> criteriaBySignature = new LinkedHashMap<>();
+
+        for (TypeDef typeDef : typeDefs) {
+
+            InstanceProperties matchProperties = constructMatchPropertiesForSearchCriteria(typeDef, searchCriteria, GraphOMRSConstants.ElementType.Vertex);
+
+            // Do not tolerate substring matches - instead always the regex must match the whole value - i.e. set fullMatch parameter to true.
+            addEntityPropertyCriteria(criteriaBySignature, typeDef, matchProperties, MatchCriteria.ANY, true);
+        }
+
+        return findEntities(criteriaBySignature.values(), limitResultsByStatus, limitResultsByClassification, fromElement, pageSize);
+    }
+
+
+    /*
+     * The property criteria for a search of one or more entity types.
+     */
+    private static class EntityPropertyCriteria {
+
+        private final List<String>                typeDefNames = new ArrayList<>();
+        private final List<String>                criterionKeys = new ArrayList<>();
+        private final List<DefaultGraphTraversal> propCriteria;
+        private final MatchCriteria               matchCriteria;
+
+        EntityPropertyCriteria(List<DefaultGraphTraversal> propCriteria, MatchCriteria matchCriteria) {
+            this.propCriteria = propCriteria;
+            this.matchCriteria = matchCriteria;
+        }
+
+        /*
+         * Two types with the same signature will match exactly the same vertices (apart from the type name), so
+         * they can be searched together.
+         */
+        String getSignature() {
+            List<String> sortedKeys = new ArrayList<>(criterionKeys);
+            Collections.sort(sortedKeys);
+            return matchCriteria + ":" + sortedKeys;
+        }
+    }
+
+
+    /*
+     * Work out the property criteria for the supplied entity type and merge them into the map of criteria
+     * already collected for other types.  A type that cannot match the properties is not added.
+     */
+    private void addEntityPropertyCriteria(Map<String, EntityPropertyCriteria> criteriaBySignature,
+                                           TypeDef                             typeDef,
+                                           InstanceProperties                  matchProperties,
+                                           MatchCriteria                       matchCriteria,
+                                           Boolean                             fullMatch)
+            throws
+            InvalidParameterException
+    {
+        EntityPropertyCriteria criteria = getEntityPropertyCriteria(typeDef, matchProperties, matchCriteria, fullMatch);
+
+        if (criteria != null) {
+            EntityPropertyCriteria existingCriteria = criteriaBySignature.putIfAbsent(criteria.getSignature(), criteria);
+            if (existingCriteria != null) {
+                criteria = existingCriteria;
+            }
+            criteria.typeDefNames.add(typeDef.getName());
+        }
+    }
+
+
+    /*
+     * Build the traversal criteria for the match properties of a single entity type.  Returns null if no entity of
+     * the type can satisfy the match properties.
+     */
+    private EntityPropertyCriteria getEntityPropertyCriteria(TypeDef            typeDef,
+                                                             InstanceProperties matchProperties,
+                                                             MatchCriteria      matchCriteria,
+                                                             Boolean            fullMatch)
+            throws
+            InvalidParameterException
+    {
+
+        final String methodName = "getEntityPropertyCriteria";
 
+        if (matchProperties == null) {
+            // No property criteria - every entity of the type is a candidate
+            return new EntityPropertyCriteria(null, matchCriteria);
+        }
 
         /*
          *
@@ -1477,8 +2735,6 @@ class GraphOMRSMetadataStore {
         // Set<String> corePropertyNames = corePropertyTypes.keySet();
         Set<String> corePropertyNames = new HashSet<>();  // temporary line of code - to be removed
 
-
-        TypeDef typeDef = repositoryHelper.getTypeDefByName(repositoryName, typeDefName);
         GraphOMRSMapperUtils mapperUtils = new GraphOMRSMapperUtils();
         Map<String, String> qualifiedPropertyNames = mapperUtils.getQualifiedPropertyNamesForTypeDef(typeDef, repositoryName, repositoryHelper);
 
@@ -1487,225 +2743,260 @@ class GraphOMRSMetadataStore {
 
         // This relies on the graph to enforce property validity - it does not pre-check that match properties are valid for requested type.
 
-        if (matchProperties != null) {
+        List<DefaultGraphTraversal> propCriteria = new ArrayList<>();
+        EntityPropertyCriteria criteria = new EntityPropertyCriteria(propCriteria, matchCriteria);
 
-            List<DefaultGraphTraversal> propCriteria = new ArrayList<>();
+        Iterator<String> propNames = matchProperties.getPropertyNames();
 
-            Iterator<String> propNames = matchProperties.getPropertyNames();
+        while (propNames.hasNext()) {
 
-            while (propNames.hasNext()) {
 
+            String propName = propNames.next();
 
-                String propName = propNames.next();
 
+            String propNameToSearch = null;
 
-                String propNameToSearch = null;
+            // Mapping is String for all properties (core or type-specific) except for the subset of core properties that use Full-Text
+            GraphOMRSGraphFactory.MixedIndexMapping mapping = GraphOMRSGraphFactory.MixedIndexMapping.String;
 
-                // Mapping is String for all properties (core or type-specific) except for the subset of core properties that use Full-Text
-                GraphOMRSGraphFactory.MixedIndexMapping mapping = GraphOMRSGraphFactory.MixedIndexMapping.String;
+            /*
+             * Check if this is a core property (from InstanceAuditHeader)
+             * Core properties take precedence over TDAs (in the event of a name clash)
+             */
+
+            if (corePropertyNames.contains(propName)) {
 
                 /*
-                 * Check if this is a core property (from InstanceAuditHeader)
-                 * Core properties take precedence over TDAs (in the event of a name clash)
+                 * Treat the match property as a reference to a core property
+                 *
+                 * For a core property to be held in a matchProperties (InstanceProperties) object, the caller will need to have converted from InstanceAuditHeader
+                 * type declaration to an appropriate 'soft' type. For example a java.lang.String field such as createdBy must have been converted to a primitive with
+                 * primitive def category of string.
                  */
 
-                if (corePropertyNames.contains(propName)) {
-
-                    /*
-                     * Treat the match property as a reference to a core property
-                     *
-                     * For a core property to be held in a matchProperties (InstanceProperties) object, the caller will need to have converted from InstanceAuditHeader
-                     * type declaration to an appropriate 'soft' type. For example a java.lang.String field such as createdBy must have been converted to a primitive with
-                     * primitive def category of string.
-                     */
-
-                    propNameToSearch = PROPERTY_KEY_PREFIX_ENTITY + propName;
-                    mapping = corePropertyMixedIndexMappings.get(propNameToSearch);
-
-                }
-                else if (typeDefinedPropertyNames.contains(propName)) {
+                propNameToSearch = PROPERTY_KEY_PREFIX_ENTITY + propName;
+                mapping = corePropertyMixedIndexMappings.get(propNameToSearch);
 
-                    /*
-                     * Treat the match property as a reference to a type-defined property. Check that it's type matches the TDA.
-                     */
+            }
+            else if (typeDefinedPropertyNames.contains(propName)) {
 
-                    List<TypeDefAttribute> propertiesDef = repositoryHelper.getAllPropertiesForTypeDef(repositoryName, typeDef, methodName);
+                /*
+                 * Treat the match property as a reference to a type-defined property. Check that it's type matches the TDA.
+                 */
 
-                    for (TypeDefAttribute propertyDef : propertiesDef) {
-                        String definedPropertyName = propertyDef.getAttributeName();
-                        if (definedPropertyName.equals(propName)) {
+                List<TypeDefAttribute> propertiesDef = repositoryHelper.getAllPropertiesForTypeDef(repositoryName, typeDef, methodName);
 
-                            /*
-                             * The match property name matches the name of a type-defined attribute
-                             *
-                             * Check types match - i.e. that the match property instance property has the same type as the type-defined attribute
-                             */
+                for (TypeDefAttribute propertyDef : propertiesDef) {
+                    String definedPropertyName = propertyDef.getAttributeName();
+                    if (definedPropertyName.equals(propName)) {
 
-                            PrimitiveDefCategory mpCat = OM_PRIMITIVE_TYPE_UNKNOWN;
-                            InstancePropertyValue mpv = matchProperties.getPropertyValue(propName);
-                            InstancePropertyCategory mpvCat = mpv.getInstancePropertyCategory();
-                            if (mpvCat == InstancePropertyCategory.PRIMITIVE) {
-                                PrimitivePropertyValue ppv = (PrimitivePropertyValue) mpv;
-                                mpCat = ppv.getPrimitiveDefCategory();
-                            } else {
-                                log.debug("{} non-primitive match property {} ignored", methodName, propName);
-                            }
+                        /*
+                         * The match property name matches the name of a type-defined attribute
+                         *
+                         * Check types match - i.e. that the match property instance property has the same type as the type-defined attribute
+                         */
 
-                            PrimitiveDefCategory pdCat = OM_PRIMITIVE_TYPE_UNKNOWN;
-                            AttributeTypeDef atd = propertyDef.getAttributeType();
-                            AttributeTypeDefCategory atdCat = atd.getCategory();
-                            if (atdCat == PRIMITIVE) {
-                                PrimitiveDef pdef = (PrimitiveDef) atd;
-                                pdCat = pdef.getPrimitiveDefCategory();
-                            }
+                        PrimitiveDefCategory mpCat = OM_PRIMITIVE_TYPE_UNKNOWN;
+                        InstancePropertyValue mpv = matchProperties.getPropertyValue(propName);
+                        InstancePropertyCategory mpvCat = mpv.getInstancePropertyCategory();
+                        if (mpvCat == InstancePropertyCategory.PRIMITIVE) {
+                            PrimitivePropertyValue ppv = (PrimitivePropertyValue) mpv;
+                            mpCat = ppv.getPrimitiveDefCategory();
+                        } else {
+                            log.debug("{} non-primitive match property {} ignored", methodName, propName);
+                        }
 
-                            if (mpCat != OM_PRIMITIVE_TYPE_UNKNOWN && pdCat != OM_PRIMITIVE_TYPE_UNKNOWN && mpCat == pdCat) {
-                                /*
-                                 * Types match
-                                 */
-                                /*
-                                 * Sort out the qualification and prefixing of the property name ready for graph search
-                                 */
-                                String qualifiedPropertyName = qualifiedPropertyNames.get(propName);
-                                propNameToSearch = PROPERTY_KEY_PREFIX_ENTITY + qualifiedPropertyName;
-                                mapping = GraphOMRSGraphFactory.MixedIndexMapping.String;
+                        PrimitiveDefCategory pdCat = OM_PRIMITIVE_TYPE_UNKNOWN;
+                        AttributeTypeDef atd = propertyDef.getAttributeType();
+                        AttributeTypeDefCategory atdCat = atd.getCategory();
+                        if (atdCat == PRIMITIVE) {
+                            PrimitiveDef pdef = (PrimitiveDef) atd;
+                            pdCat = pdef.getPrimitiveDefCategory();
+                        }
 
-                            }
+                        if (mpCat != OM_PRIMITIVE_TYPE_UNKNOWN && pdCat != OM_PRIMITIVE_TYPE_UNKNOWN && mpCat == pdCat) {
                             /*
-                             * If types matched the code above will have set propNameToSearch. If the types did not match we should give up on this property - there should not be
-                             * another property defined with the same name. In either case break out of the property for loop and drop through to catch all below
+                             * Types match
                              */
-                            break;
+                            /*
+                             * Sort out the qualification and prefixing of the property name ready for graph search
+                             */
+                            String qualifiedPropertyName = qualifiedPropertyNames.get(propName);
+                            propNameToSearch = PROPERTY_KEY_PREFIX_ENTITY + qualifiedPropertyName;
+                            mapping = GraphOMRSGraphFactory.MixedIndexMapping.String;
+
                         }
+                        /*
+                         * If types matched the code above will have set propNameToSearch. If the types did not match we should give up on this property - there should not be
+                         * another property defined with the same name. In either case break out of the property for loop and drop through to catch all below
+                         */
+                        break;
                     }
-                    /*
-                     * if (!propertyFound) - The match property is not a supported, known type-defined property or does not have correct type - drop into the catch all below.
-                     */
-
-
                 }
+                /*
+                 * if (!propertyFound) - The match property is not a supported, known type-defined property or does not have correct type - drop into the catch all below.
+                 */
 
-                if (propNameToSearch == null) {
 
-                    /*
-                     * The match property is neither a core nor a type-defined property with matching name and type.
-                     * If matchCriteria is ALL we need to give up at this point.
-                     * If matchCriteria is ANY or NONE we can continue but just ignore this match property.
-                     */
-                    if (matchCriteria == MatchCriteria.ALL) {
-                        g.tx().rollback();
-                        return null;
-                    } else {
-                        /*
-                         * Skip this property but process the rest
-                         */
-                        continue;
-                    }
+            }
 
+            if (propNameToSearch == null) {
+
+                /*
+                 * The match property is neither a core nor a type-defined property with matching name and type.
+                 * If matchCriteria is ALL we need to give up at this point.
+                 * If matchCriteria is ANY or NONE we can continue but just ignore this match property.
+                 */
+                if (matchCriteria == MatchCriteria.ALL) {
+                    return null;
                 } else {
                     /*
-                     * Incorporate the property (propNameToSearch) into propCriteria for the traversal...
+                     * Skip this property but process the rest
                      */
+                    continue;
+                }
 
-                    InstancePropertyValue ipv = matchProperties.getPropertyValue(propName);
-                    InstancePropertyCategory ipvCat = ipv.getInstancePropertyCategory();
-                    if (ipvCat == InstancePropertyCategory.PRIMITIVE) {
-                        // Primitives will have been stored in the graph as such
-                        PrimitivePropertyValue ppv = (PrimitivePropertyValue) ipv;
-                        PrimitiveDefCategory pCat = ppv.getPrimitiveDefCategory();
-                        Object primValue = ppv.getPrimitiveValue();
-                        log.debug("{} primitive match property has key {} value {}", methodName, propName, primValue);
-                        DefaultGraphTraversal t = new DefaultGraphTraversal();
-                        switch (pCat) {
+            } else {
+                /*
+                 * Incorporate the property (propNameToSearch) into propCriteria for the traversal...
+                 */
 
-                            case OM_PRIMITIVE_TYPE_STRING:
+                InstancePropertyValue ipv = matchProperties.getPropertyValue(propName);
+                InstancePropertyCategory ipvCat = ipv.getInstancePropertyCategory();
+                if (ipvCat == InstancePropertyCategory.PRIMITIVE) {
+                    // Primitives will have been stored in the graph as such
+                    PrimitivePropertyValue ppv = (PrimitivePropertyValue) ipv;
+                    PrimitiveDefCategory pCat = ppv.getPrimitiveDefCategory();
+                    Object primValue = ppv.getPrimitiveValue();
+                    log.debug("{} primitive match property has key {} value {}", methodName, propName, primValue);
+                    P<Object> predicate;
+                    switch (pCat) {
 
-                                // The graph connector has to map from Egeria's internal regex convention to a format that is supported by JanusGraph.
+                        case OM_PRIMITIVE_TYPE_STRING:
 
-                                String searchString = convertSearchStringToJanusRegex((String) primValue);
-                                log.debug("{} primitive match property search string {}", methodName, searchString);
+                            // The graph connector has to map from Egeria's internal regex convention to a format that is supported by JanusGraph.
 
-                                // NB This is using a JG specific approach to text predicates - see the static import above. From TP 3.4.0 try to use the TP text predicates.
-                                if (mapping == GraphOMRSGraphFactory.MixedIndexMapping.Text) {
-                                    t = (DefaultGraphTraversal) t.has(propNameToSearch, Text.textContainsRegex(searchString)); // for a field indexed using Text mapping use textContains or textContainsRegex
+                            String searchString = convertSearchStringToJanusRegex((String) primValue);
+                            log.debug("{} primitive match property search string {}", methodName, searchString);
+
+                            // NB This is using a JG specific approach to text predicates - see the static import above. From TP 3.4.0 try to use the TP text predicates.
+                            if (mapping == GraphOMRSGraphFactory.MixedIndexMapping.Text) {
+                                predicate = Text.textContainsRegex(searchString); // for a field indexed using Text mapping use textContains or textContainsRegex
+                            } else {
+                                if (!fullMatch) {
+                                    // A partial match is sufficient...i.e. a value containing the search value as a substring will match
+                                    String ANYCHARS = ".*";
+                                    predicate = Text.textRegex(ANYCHARS + searchString + ANYCHARS);         // for a field indexed using String mapping use textRegex
                                 } else {
-                                    if (!fullMatch) {
-                                        // A partial match is sufficient...i.e. a value containing the search value as a substring will match
-                                        String ANYCHARS = ".*";
-                                        t = (DefaultGraphTraversal) t.has(propNameToSearch, Text.textRegex(ANYCHARS + searchString + ANYCHARS));         // for a field indexed using String mapping use textRegex
-                                    } else {
-                                        // Must be a full match...
-                                        t = (DefaultGraphTraversal) t.has(propNameToSearch, Text.textRegex(searchString));
-                                    }
+                                    // Must be a full match...
+                                    predicate = Text.textRegex(searchString);
                                 }
-                                break;
+                            }
+                            break;
 
-                            default:
-                                t = (DefaultGraphTraversal) t.has(propNameToSearch, primValue);
-                                break;
+                        default:
+                            predicate = P.eq(primValue);
+                            break;
 
-                        }
-                        log.debug("{} primitive match property has property criterion {}", methodName, t);
-                        propCriteria.add(t);
-                    } else {
-                        log.debug("{} non-primitive match property {} ignored", methodName, propName);
                     }
+                    DefaultGraphTraversal t = new DefaultGraphTraversal();
+                    t = (DefaultGraphTraversal) t.has(propNameToSearch, predicate);
+                    log.debug("{} primitive match property has property criterion {}", methodName, t);
+                    propCriteria.add(t);
+                    criteria.criterionKeys.add(propNameToSearch + "." + predicate);
+                } else {
+                    log.debug("{} non-primitive match property {} ignored", methodName, propName);
                 }
             }
+        }
 
-            /*
-             * If matchProps is not null and matchCriteria is ALL or ANY we need to have some overlap at least
-             * between the match properties and the properties defined on the type (core or type defined). So
-             * it is essential that propCriteria is not empty. For example, suppose this is a find... ByPropertyValue
-             * with searchCriteria, in which only string properties will be included in the MatchProperties. If the
-             * type has no string properties then there is no overlap and it is impossible for ALL or ANY matches to
-             * be satisfied. For matchCriteria NONE we can assert that the relationship but since we still need to
-             * retrieve the vertex from the graoh (to construct the relationship) it is better to let that case continue.
-             */
+        /*
+         * If matchProps is not null and matchCriteria is ALL or ANY we need to have some overlap at least
+         * between the match properties and the properties defined on the type (core or type defined). So
+         * it is essential that propCriteria is not empty. For example, suppose this is a find... ByPropertyValue
+         * with searchCriteria, in which only string properties will be included in the MatchProperties. If the
+         * type has no string properties then there is no overlap and it is impossible for ALL or ANY matches to
+         * be satisfied. For matchCriteria NONE we can assert that the relationship but since we still need to
+         * retrieve the vertex from the graoh (to construct the relationship) it is better to let that case continue.
+         */
 
+        switch (matchCriteria) {
+            case ALL:
+            case ANY:
+                if (propCriteria.isEmpty()) {
+                    return null;
+                }
+                break;
+            case NONE:
+                break;
+            default:
+                final String parameterName = "matchCriteria";
 
-            switch (matchCriteria) {
-                case ALL:
-                    if (propCriteria.isEmpty()) {
-                        g.tx().rollback();
-                        return null;
-                    }
-                    else {
-                        gt = gt.and(propCriteria.toArray(new DefaultGraphTraversal[0]));
-                        log.debug("{} traversal looks like this --> {} ", methodName, gt);
-                    }
-                    break;
-                case ANY:
-                    if (propCriteria.isEmpty()) {
-                        g.tx().rollback();
-                        return null;
-                    }
-                    else {
-                        gt = gt.or(propCriteria.toArray(new DefaultGraphTraversal[0]));
-                        log.debug("{} traversal looks like this --> {} ", methodName, gt);
-                    }
-                    break;
-                case NONE:
-                    DefaultGraphTraversal t = new DefaultGraphTraversal();
-                    t = (DefaultGraphTraversal) t.or(propCriteria.toArray(new DefaultGraphTraversal[0]));
-                    gt = gt.not(t);
-                    log.debug("{} traversal looks like this --> {} ", methodName, gt);
-                    break;
-                default:
-                    g.tx().rollback();
-                    final String parameterName = "matchCriteria";
+                throw new InvalidParameterException(GraphOMRSErrorCode.INVALID_MATCH_CRITERIA.getMessageDefinition(methodName,
+                                                                                                                   this.getClass().getName(),
+                                                                                                                   repositoryName),
+                                                    this.getClass().getName(),
+                                                    methodName,
+                                                    parameterName);
+        }
 
-                    throw new InvalidParameterException(GraphOMRSErrorCode.INVALID_MATCH_CRITERIA.getMessageDefinition(methodName,
-                                                                                                                       this.getClass().getName(),
-                                                                                                                       repositoryName),
-                                                        this.getClass().getName(),
-                                                        methodName,
-                                                        parameterName);
+        return criteria;
+    }
 
-            }
 
+    /*
+     * Apply the property criteria to a traversal.
+     */
+    private GraphTraversal<Vertex, Vertex> applyEntityPropertyCriteria(GraphTraversal<Vertex, Vertex> gt,
+                                                                       EntityPropertyCriteria         criteria)
+    {
+        if (criteria.propCriteria == null) {
+            return gt;
+        }
+
+        switch (criteria.matchCriteria) {
+            case ALL:
+                return gt.and(criteria.propCriteria.toArray(new DefaultGraphTraversal[0]));
+            case ANY:
+                return gt.or(criteria.propCriteria.toArray(new DefaultGraphTraversal[0]));
+            default:
+                // NONE - the match criteria have already been validated
+                DefaultGraphTraversal t = new DefaultGraphTraversal();
+                t = (DefaultGraphTraversal) t.or(criteria.propCriteria.toArray(new DefaultGraphTraversal[0]));
+                return gt.not(t);
+        }
+    }
+
+
+    /*
+     * Retrieve the entities that match any of the supplied property criteria with a single traversal.  Deleted entities
+     * are excluded and status and classification filtering is performed in the graph.  If pageSize is greater than
+     * zero only the requested page of results is retrieved, taken from the results in the order of their GUIDs.
+     */
+    private List<EntityDetail> findEntities(Collection<EntityPropertyCriteria> criteriaForTypes,
+                                            List<InstanceStatus>               limitResultsByStatus,
+                                            List<String>                       limitResultsByClassification,
+                                            int                                fromElement,
+                                            int                                pageSize)
+    {
+        final String methodName = "findEntities";
+
+        List<EntityDetail> entities = new ArrayList<>();
+
+        if (criteriaForTypes.isEmpty()) {
+            return entities;
+        }
+
+        GraphTraversalSource g = instanceGraph.traversal();
+
+        GraphTraversal<Vertex, Vertex> gt = buildEntityTraversal(g, criteriaForTypes, limitResultsByStatus, limitResultsByClassification);
+
+        if (pageSize > 0) {
+            // The graph does not promise to return the vertices in the same order each time, so the page is taken from the GUID order
+            gt = gt.order().by(PROPERTY_KEY_ENTITY_GUID, Order.asc).range(fromElement, fromElement + pageSize);
         }
 
+        log.debug("{} traversal looks like this --> {} ", methodName, gt);
 
         while (gt.hasNext()) {
             Vertex vertex = gt.next();
@@ -1725,12 +3016,152 @@ class GraphOMRSMetadataStore {
             }
         }
 
-        g.tx().commit();
+        commitTransaction(g);
 
         return entities;
 
     }
 
+
+    /*
+     * Retrieve a page of the entities that match any of the supplied property criteria, in the order of their GUIDs,
+     * starting after the supplied GUID.  The cursor for the next page is the GUID of the last vertex read, so a
+     * vertex that cannot be mapped does not end the search early.
+     */
+    private InstancePage<EntityDetail> findEntitiesAfter(Collection<EntityPropertyCriteria> criteriaForTypes,
+                                                         List<InstanceStatus>               limitResultsByStatus,
+                                                         List<String>                       limitResultsByClassification,
+                                                         String                             afterGUID,
+                                                         int                                pageSize)
+    {
+        final String methodName = "findEntitiesAfter";
+
+        List<EntityDetail> entities = new ArrayList<>();
+
+        if (criteriaForTypes.isEmpty()) {
+            return new InstancePage<>(entities, null);
+        }
+
+        GraphTraversalSource g = instanceGraph.traversal();
+
+        GraphTraversal<Vertex, Vertex> gt = buildEntityTraversal(g, criteriaForTypes, limitResultsByStatus, limitResultsByClassification);
+
+        if (afterGUID != null) {
+            gt = gt.has(PROPERTY_KEY_ENTITY_GUID, P.gt(afterGUID));
+        }
+
+        gt = gt.order().by(PROPERTY_KEY_ENTITY_GUID, Order.asc);
+
+        if (pageSize > 0) {
+            gt = gt.limit(pageSize);
+        }
+
+        log.debug("{} traversal looks like this --> {} ", methodName, gt);
+
+        int    vertexCount = 0;
+        String lastGUID    = afterGUID;
+
+        while (gt.hasNext()) {
+            Vertex vertex = gt.next();
+            log.debug("{} found vertex {}", methodName, vertex);
+
+            vertexCount++;
+            lastGUID = entityMapper.getEntityGUID(vertex);
+
+            EntityDetail entityDetail = new EntityDetail();
+            try {
+                if (!entityMapper.isProxy(vertex)) {
+                    entityMapper.mapVertexToEntityDetail(vertex, entityDetail);
+                    entities.add(entityDetail);
+                }
+            } catch (Exception e) {
+                log.error("{} caught exception from entity mapper, entity being ignored, {}", methodName, e.getMessage());
+            }
+        }
+
+        commitTransaction(g);
+
+        if ((pageSize > 0) && (vertexCount == pageSize)) {
+            return new InstancePage<>(entities, lastGUID);
+        }
+
+        return new InstancePage<>(entities, null);
+    }
+
+
+    /*
+     * Build the traversal that finds the entities that match any of the supplied property criteria.  Deleted
+     * entities are excluded and status and classification filtering is performed in the graph.
+     */
+    private GraphTraversal<Vertex, Vertex> buildEntityTraversal(GraphTraversalSource               g,
+                                                                Collection<EntityPropertyCriteria> criteriaForTypes,
+                                                                List<InstanceStatus>               limitResultsByStatus,
+                                                                List<String>                       limitResultsByClassification)
+    {
+        GraphTraversal<Vertex, Vertex> gt = g.V().hasLabel("Entity");
+
+        // Only accept non-proxy entities:
+        gt = gt.has(PROPERTY_KEY_ENTITY_IS_PROXY, false);
+
+        /*
+         * The type names of every type being searched are tested directly on the vertex so the type name index can
+         * be used.  The types with property criteria then need their own branch of an or() step, but the types
+         * without property criteria are already matched by the type name test.
+         */
+        List<String>                typeDefNames = new ArrayList<>();
+        List<String>                unfilteredTypeDefNames = new ArrayList<>();
+        List<DefaultGraphTraversal> typeCriteria = new ArrayList<>();
+
+        for (EntityPropertyCriteria criteria : criteriaForTypes) {
+            typeDefNames.addAll(criteria.typeDefNames);
+            if (criteria.propCriteria == null) {
+                unfilteredTypeDefNames.addAll(criteria.typeDefNames);
+            }
+            else {
+                DefaultGraphTraversal t = new DefaultGraphTraversal();
+                t = (DefaultGraphTraversal) t.has(PROPERTY_KEY_ENTITY_TYPE_NAME, within(criteria.typeDefNames));
+                typeCriteria.add((DefaultGraphTraversal) applyEntityPropertyCriteria(t, criteria));
+            }
+        }
+
+        gt = gt.has(PROPERTY_KEY_ENTITY_TYPE_NAME, within(typeDefNames));
+
+        if (typeCriteria.size() == 1 && unfilteredTypeDefNames.isEmpty()) {
+            gt = applyEntityPropertyCriteria(gt, criteriaForTypes.iterator().next());
+        }
+        else if (!typeCriteria.isEmpty()) {
+            if (!unfilteredTypeDefNames.isEmpty()) {
+                DefaultGraphTraversal t = new DefaultGraphTraversal();
+                t = (DefaultGraphTraversal) t.has(PROPERTY_KEY_ENTITY_TYPE_NAME, within(unfilteredTypeDefNames));
+                typeCriteria.add(t);
+            }
+            gt = gt.or(typeCriteria.toArray(new DefaultGraphTraversal[0]));
+        }
+
+        // Eliminate soft deleted entities and apply status filtering if any was requested
+        if (limitResultsByStatus != null) {
+            List<Integer> statusOrdinals = new ArrayList<>();
+            for (InstanceStatus status : limitResultsByStatus) {
+                if (status != null && status != InstanceStatus.DELETED) {
+                    statusOrdinals.add(status.getOrdinal());
+                }
+            }
+            gt = gt.has(PROPERTY_KEY_ENTITY_STATUS, within(statusOrdinals));
+        }
+        else {
+            DefaultGraphTraversal t = new DefaultGraphTraversal();
+            t = (DefaultGraphTraversal) t.has(PROPERTY_KEY_ENTITY_STATUS, InstanceStatus.DELETED.getOrdinal());
+            gt = gt.not(t);
+        }
+
+        // The entity must have at least one of the requested classifications
+        if (limitResultsByClassification != null) {
+            gt = gt.where(out("Classifier").has(PROPERTY_KEY_CLASSIFICATION_CLASSIFICATION_NAME, within(limitResultsByClassification)));
+        }
+
+        return gt;
+    }
+
     /*
      * This method converts an Egeria regex into an expression that can be used with the JanusGraph
      * text predicates.
@@ -2084,7 +3515,7 @@ class GraphOMRSMetadataStore {
                      * If matchCriteria is ANY or NONE we can continue but just ignore this match property.
                      */
                     if (matchCriteria == MatchCriteria.ALL) {
-                        g.tx().rollback();
+                        rollbackReadTransaction(g);
                         return null;
                     } else {
                         /*
@@ -2158,7 +3589,7 @@ class GraphOMRSMetadataStore {
             switch (matchCriteria) {
                 case ALL:
                     if (propCriteria.isEmpty()) {
-                        g.tx().rollback();
+                        rollbackReadTransaction(g);
                         return null;
                     }
                     else {
@@ -2168,7 +3599,7 @@ class GraphOMRSMetadataStore {
                     break;
                 case ANY:
                     if (propCriteria.isEmpty()) {
-                        g.tx().rollback();
+                        rollbackReadTransaction(g);
                         return null;
                     }
                     else {
@@ -2183,7 +3614,7 @@ class GraphOMRSMetadataStore {
                     log.debug("{} traversal looks like this --> {} ", methodName, gt);
                     break;
                 default:
-                    g.tx().rollback();
+                    rollbackReadTransaction(g);
 
                     final String parameterName = "matchCriteria";
                     throw new InvalidParameterException(GraphOMRSErrorCode.INVALID_MATCH_CRITERIA.getMessageDefinition(methodName,
@@ -2226,7 +3657,7 @@ class GraphOMRSMetadataStore {
 
             } catch (Exception e) {
                 log.error("{} Caught exception from entity mapper {}", methodName, e.getMessage());
-                g.tx().rollback();
+                rollbackReadTransaction(g);
 
                 throw new RepositoryErrorException(GraphOMRSErrorCode.RELATIONSHIP_PROPERTIES_ERROR.getMessageDefinition(relationship.getGUID(), methodName,
                                                                                                                          this.getClass().getName(),
@@ -2238,7 +3669,7 @@ class GraphOMRSMetadataStore {
             relationships.add(relationship);
         }
 
-        g.tx().commit();
+        commitTransaction(g);
 
         return relationships;
 
@@ -2511,7 +3942,7 @@ class GraphOMRSMetadataStore {
     public List<EntityDetail> findEntitiesByClassification(String             classificationName,
                                                            InstanceProperties classificationProperties,
                                                            MatchCriteria      matchCriteria,
-                                                           String             entityTypeName)
+                                                           List<String>       entityTypeNames)
             throws
             InvalidParameterException,
             RepositoryErrorException
@@ -2612,7 +4043,7 @@ class GraphOMRSMetadataStore {
                     log.debug("{} traversal looks like this --> {} ", methodName, gt);
                     break;
                 default:
-                    g.tx().rollback();
+                    rollbackReadTransaction(g);
                     final String parameterName = "matchCriteria";
 
                     throw new InvalidParameterException(GraphOMRSErrorCode.INVALID_MATCH_CRITERIA.getMessageDefinition(methodName,
@@ -2627,7 +4058,7 @@ class GraphOMRSMetadataStore {
 
 
         // Cannot return EntityProxy objects, so ensure that only traverse to a non-proxy entity vertex...
-        gt.in("Classifier").has(PROPERTY_KEY_ENTITY_IS_PROXY, false).has(PROPERTY_KEY_ENTITY_TYPE_NAME, entityTypeName);
+        gt.in("Classifier").has(PROPERTY_KEY_ENTITY_IS_PROXY, false).has(PROPERTY_KEY_ENTITY_TYPE_NAME, within(entityTypeNames));
 
 
         while (gt.hasNext()) {
@@ -2648,7 +4079,7 @@ class GraphOMRSMetadataStore {
             }
         }
 
-        g.tx().commit();
+        commitTransaction(g);
 
         return entities;
 
@@ -2815,7 +4246,7 @@ class GraphOMRSMetadataStore {
             if (!t.hasNext()) {
 
                 log.error("{} could not retrieve start entity with GUID {}", methodName, entityGUID);
-                g.tx().rollback();
+                rollbackReadTransaction(g);
 
                 throw new EntityNotKnownException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(entityGUID, methodName,
                                                                                                            this.getClass().getName(),
@@ -2833,13 +4264,13 @@ class GraphOMRSMetadataStore {
                     EntityDetail rootEntity = new EntityDetail();
                     entityMapper.mapVertexToEntityDetail(rootVertex, rootEntity);
                     entities.add(rootEntity);
-                    g.tx().commit();
+                    commitTransaction(g);
 
                 } catch (EntityProxyOnlyException | RepositoryErrorException e) {
 
 
                     log.error("{} caught exception whilst trying to map entity with GUID {}, exception {}", methodName, entityGUID, e.getMessage());
-                    g.tx().rollback();
+                    rollbackReadTransaction(g);
 
                     throw new EntityNotKnownException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(entityGUID, methodName,
                                                                                                                this.getClass().getName(),
@@ -2985,7 +4416,7 @@ class GraphOMRSMetadataStore {
                                  * is wrong rather than plough on in ignorance.
                                  */
                                 log.error("{} caught exception whilst trying to map entity, exception {}", methodName, e.getMessage());
-                                g.tx().rollback();
+                                rollbackReadTransaction(g);
 
                                 throw new EntityNotKnownException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(entityMapper.getEntityGUID(vertex), methodName,
                                                                                                                            this.getClass().getName(),
@@ -2995,7 +4426,7 @@ class GraphOMRSMetadataStore {
                             }
                         }
                     }
-                    g.tx().commit();
+                    commitTransaction(g);
                 }
             }
 
@@ -3010,12 +4441,12 @@ class GraphOMRSMetadataStore {
         }
         catch (EntityNotKnownException e) {
             log.error("{} caught entity not known exception from subgraph traversal {}", methodName, e.getMessage());
-            g.tx().rollback();
+            rollbackReadTransaction(g);
             throw e;
         }
         catch (Exception e) {
             log.error("{} caught exception from subgraph traversal {}", methodName, e.getMessage());
-            g.tx().rollback();
+            rollbackReadTransaction(g);
             return null;
         }
 
@@ -3115,7 +4546,7 @@ class GraphOMRSMetadataStore {
             if (!t.hasNext()) {
 
                 log.error("{} could not retrieve start entity with GUID {}", methodName, startEntityGUID);
-                g.tx().rollback();
+                rollbackReadTransaction(g);
 
                 throw new EntityNotKnownException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(startEntityGUID, methodName,
                                                                                                            this.getClass().getName(),
@@ -3144,12 +4575,12 @@ class GraphOMRSMetadataStore {
                     if (startEntityGUID.equals(endEntityGUID))
                         entities.add(rootEntity);
 
-                    g.tx().commit();
+                    commitTransaction(g);
 
                 } catch (EntityProxyOnlyException | RepositoryErrorException e) {
 
                     log.error("{} caught exception whilst trying to map entity with GUID {}, exception {}", methodName, startEntityGUID, e.getMessage());
-                    g.tx().rollback();
+                    rollbackReadTransaction(g);
 
                     throw new EntityNotKnownException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(startEntityGUID, methodName,
                                                                                                                this.getClass().getName(),
@@ -3223,7 +4654,7 @@ class GraphOMRSMetadataStore {
                                         }
                                         catch (RepositoryErrorException | EntityProxyOnlyException e) {
                                             log.error("{} could not map vertex returned in path expression, entity GUID {}, exception {}", methodName, entityMapper.getEntityGUID(vertex), e.getMessage());
-                                            g.tx().rollback();
+                                            rollbackReadTransaction(g);
                                             ;
 
 
@@ -3290,7 +4721,7 @@ class GraphOMRSMetadataStore {
                                          * is wrong rather than plough on in ignorance.
                                          */
                                         log.error("{} caught exception whilst trying to map entity, exception {}", methodName, e.getMessage());
-                                        g.tx().rollback();
+                                        rollbackReadTransaction(g);
 
                                         throw new EntityNotKnownException(GraphOMRSErrorCode.ENTITY_NOT_FOUND.getMessageDefinition(entityMapper.getEntityGUID(vertex), methodName,
                                                                                                                                    this.getClass().getName(),
@@ -3308,7 +4739,7 @@ class GraphOMRSMetadataStore {
                 }
             }
 
-            g.tx().commit();
+            commitTransaction(g);
 
             // Construct the InstanceGraph from entities and relationships
             subGraph.setEntities(entities);
@@ -3318,7 +4749,7 @@ class GraphOMRSMetadataStore {
 
         } catch (Exception e) {
             log.error("{} caught exception from subgraph traversal {}", methodName, e.getMessage());
-            g.tx().rollback();
+            rollbackReadTransaction(g);
             return null;
         }
 
@@ -0,0 +1,598 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.repositoryservices.graphrepository.repositoryconnector;
+
+import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogDestination;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogRecord;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityProxy;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceGraph;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceStatus;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceType;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Relationship;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.EntityDef;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDef;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDefCategory;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDefSummary;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryHelper;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.EntityNotKnownException;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.InvalidParameterException;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.RepositoryErrorException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertThrows;
+
+/**
+ * GraphOMRSMetadataStoreTest runs the entity searches, history queries, history retention and units of work of the
+ * graph metadata store against graphs in a temporary directory.
+ */
+public class GraphOMRSMetadataStoreTest
+{
+    private static final String METADATA_COLLECTION_ID = "TestMetadataCollection";
+    private static final String REPOSITORY_NAME        = "TestRepository";
+
+    private static final String REMOTE_METADATA_COLLECTION_ID = "RemoteMetadataCollection";
+
+    private GraphOMRSMetadataStore store;
+    private File                   graphDirectory;
+
+
+    @BeforeMethod
+    public void openStore() throws Exception
+    {
+        graphDirectory = Files.createTempDirectory("graph-store-test").toFile();
+
+        store = openStore(new File(graphDirectory, "default"), null);
+    }
+
+
+    private GraphOMRSMetadataStore openStore(File directory, Object historyRetentionDays) throws Exception
+    {
+        Map<String, Object> storageProperties = new HashMap<>();
+        storageProperties.put("storage.backend", "berkeleyje");
+        storageProperties.put("storage.directory", new File(directory, "berkeley").getAbsolutePath());
+        storageProperties.put("index.search.backend", "lucene");
+        storageProperties.put("index.search.directory", new File(directory, "searchindex").getAbsolutePath());
+        if (historyRetentionDays != null) {
+            storageProperties.put(GraphOMRSConstants.HISTORY_RETENTION_DAYS_PROPERTY, historyRetentionDays);
+        }
+
+        return new GraphOMRSMetadataStore(METADATA_COLLECTION_ID, REPOSITORY_NAME, getRepositoryHelper(), getAuditLog(), storageProperties);
+    }
+
+
+    @AfterMethod
+    public void removeGraph()
+    {
+        deleteDirectory(graphDirectory);
+    }
+
+
+    @Test
+    public void testPagesOfSearchResultsAreInGUIDOrder() throws Exception
+    {
+        List<String> guids = new ArrayList<>();
+
+        for (int i = 0; i < 25; i++) {
+            String guid = String.format("entity-%02d", (i * 7) % 25);
+            store.createEntityInStore(getEntity(guid, "TypeA"));
+            guids.add(guid);
+        }
+        Collections.sort(guids);
+
+        List<TypeDef> typeDefs = Collections.singletonList(getTypeDef("TypeA"));
+        List<String>  pagedGUIDs = new ArrayList<>();
+
+        for (int fromElement = 0; fromElement < 30; fromElement += 10) {
+            List<EntityDetail> page = store.findEntitiesByProperty(typeDefs, null, null, true, null, null, fromElement, 10);
+
+            assertEquals(page.size(), Math.min(10, Math.max(0, guids.size() - fromElement)));
+            for (EntityDetail entity : page) {
+                pagedGUIDs.add(entity.getGUID());
+            }
+        }
+
+        assertEquals(pagedGUIDs, guids);
+    }
+
+
+    @Test
+    public void testSearchOfManyTypesWithoutPropertyCriteria() throws Exception
+    {
+        store.createEntityInStore(getEntity("entity-1", "TypeA"));
+        store.createEntityInStore(getEntity("entity-2", "TypeB"));
+        store.createEntityInStore(getEntity("entity-3", "TypeC"));
+        store.createEntityInStore(getEntity("entity-4", "TypeB"));
+
+        EntityDetail deletedEntity = getEntity("entity-5", "TypeA");
+        deletedEntity.setStatus(InstanceStatus.DELETED);
+        store.createEntityInStore(deletedEntity);
+
+        List<TypeDef> typeDefs = Arrays.asList(getTypeDef("TypeA"), getTypeDef("TypeB"));
+
+        assertEquals(getGUIDs(store.findEntitiesByProperty(typeDefs, null, null, true, null, null, 0, 0)),
+                     Arrays.asList("entity-1", "entity-2", "entity-4"));
+
+        List<InstanceStatus> statuses = Collections.singletonList(InstanceStatus.ACTIVE);
+
+        assertEquals(getGUIDs(store.findEntitiesByProperty(typeDefs, null, null, true, statuses, null, 1, 2)),
+                     Arrays.asList("entity-2", "entity-4"));
+    }
+
+
+    @Test
+    public void testEntityVersionsAsOfTime() throws Exception
+    {
+        long now = System.currentTimeMillis();
+
+        EntityDetail entity = getEntity("entity-1", "TypeA");
+        entity.setCreateTime(new Date(now - 20000));
+        store.createEntityInStore(entity);
+
+        entity.setUpdateTime(new Date(now - 10000));
+        entity.setVersion(2L);
+        store.updateEntityInStore(entity);
+
+        assertNull(store.getEntityDetailFromHistory("entity-1", new Date(now - 30000)));
+        assertEquals(store.getEntityDetailFromHistory("entity-1", new Date(now - 20000)).getVersion(), 1L);
+        assertEquals(store.getEntityDetailFromHistory("entity-1", new Date(now - 15000)).getVersion(), 1L);
+        assertEquals(store.getEntityDetailFromHistory("entity-1", new Date(now - 10000)).getVersion(), 2L);
+
+        store.removeEntityFromStore("entity-1");
+
+        assertEquals(store.getEntityDetailFromHistory("entity-1", new Date(now - 10000)).getVersion(), 2L);
+        assertNull(store.getEntityDetailFromHistory("entity-1", new Date(System.currentTimeMillis() + 1000)));
+    }
+
+
+    @Test
+    public void testSearchOfHistoryReturnsVersionsAsOfTime() throws Exception
+    {
+        long now = System.currentTimeMillis();
+
+        for (String guid : Arrays.asList("entity-1", "entity-2", "entity-3")) {
+            EntityDetail entity = getEntity(guid, "TypeA");
+            entity.setCreateTime(new Date(now - 20000));
+            store.createEntityInStore(entity);
+        }
+
+        EntityDetail updatedEntity = getEntity("entity-1", "TypeA");
+        updatedEntity.setCreateTime(new Date(now - 20000));
+        updatedEntity.setUpdateTime(new Date(now - 10000));
+        updatedEntity.setVersion(2L);
+        store.updateEntityInStore(updatedEntity);
+
+        /*
+         * An entity that changes type is only found by a search of its type at the time.
+         */
+        EntityDetail retypedEntity = getEntity("entity-3", "TypeB");
+        retypedEntity.setCreateTime(new Date(now - 20000));
+        retypedEntity.setUpdateTime(new Date(now - 10000));
+        retypedEntity.setVersion(2L);
+        store.updateEntityInStore(retypedEntity);
+
+        store.removeEntityFromStore("entity-2");
+
+        List<String> typeA = Collections.singletonList("TypeA");
+
+        assertEquals(getGUIDsAndVersions(findEntitiesInHistory(typeA, new Date(now - 30000))),
+                     Collections.emptyList());
+        assertEquals(getGUIDsAndVersions(findEntitiesInHistory(typeA, new Date(now - 15000))),
+                     Arrays.asList("entity-1 v1", "entity-2 v1", "entity-3 v1"));
+        assertEquals(getGUIDsAndVersions(findEntitiesInHistory(typeA, new Date(now - 10000))),
+                     Arrays.asList("entity-1 v2", "entity-2 v1"));
+        assertEquals(getGUIDsAndVersions(findEntitiesInHistory(typeA, new Date(System.currentTimeMillis() + 1000))),
+                     Collections.singletonList("entity-1 v2"));
+        assertEquals(getGUIDsAndVersions(findEntitiesInHistory(Collections.singletonList("TypeB"), new Date(now - 10000))),
+                     Collections.singletonList("entity-3 v2"));
+    }
+
+
+    @Test
+    public void testSearchOfHistoryIsFilteredAndPaged() throws Exception
+    {
+        long now = System.currentTimeMillis();
+
+        for (String guid : Arrays.asList("entity-5", "entity-3", "entity-1", "entity-4", "entity-2")) {
+            EntityDetail entity = getEntity(guid, "TypeA");
+            entity.setCreateTime(new Date(now - 20000));
+            store.createEntityInStore(entity);
+        }
+
+        List<String> typeA  = Collections.singletonList("TypeA");
+        Date         asOfTime = new Date(now - 10000);
+
+        assertEquals(getGUIDs(store.findEntitiesInHistory(typeA, asOfTime, entity -> !entity.getGUID().equals("entity-2"), 1, 2)),
+                     Arrays.asList("entity-3", "entity-4"));
+        assertEquals(getGUIDs(store.findEntitiesInHistory(typeA, asOfTime, entity -> !entity.getGUID().equals("entity-2"), 0, 0)),
+                     Arrays.asList("entity-1", "entity-3", "entity-4", "entity-5"));
+    }
+
+
+    @Test
+    public void testRelationshipsAndNeighbourhoodAsOfTime() throws Exception
+    {
+        long now = System.currentTimeMillis();
+
+        for (String guid : Arrays.asList("entity-1", "entity-2", "entity-3", "entity-4")) {
+            EntityDetail entity = getEntity(guid, guid.equals("entity-3") ? "TypeB" : "TypeA");
+            entity.setCreateTime(new Date(now - 20000));
+            store.createEntityInStore(entity);
+        }
+
+        Relationship relationship1 = getRelationship("relationship-1", METADATA_COLLECTION_ID, "entity-1", "entity-2");
+        relationship1.setCreateTime(new Date(now - 20000));
+        store.createRelationshipInStore(relationship1);
+
+        Relationship relationship2 = getRelationship("relationship-2", METADATA_COLLECTION_ID, "entity-3", "entity-2");
+        relationship2.setCreateTime(new Date(now - 20000));
+        store.createRelationshipInStore(relationship2);
+
+        Relationship relationship3 = getRelationship("relationship-3", METADATA_COLLECTION_ID, "entity-3", "entity-4");
+        relationship3.setCreateTime(new Date(now - 10000));
+        store.createRelationshipInStore(relationship3);
+
+        store.removeRelationshipFromStore("relationship-2");
+
+        Date beforeCreation     = new Date(now - 30000);
+        Date beforeRelationship3 = new Date(now - 15000);
+        Date beforeRemoval      = new Date(now - 5000);
+        Date afterRemoval       = new Date(System.currentTimeMillis() + 1000);
+
+        assertEquals(getRelationshipGUIDs(store.getRelationshipsForEntityFromHistory("entity-2", beforeCreation)),
+                     Collections.emptyList());
+        assertEquals(getRelationshipGUIDs(store.getRelationshipsForEntityFromHistory("entity-2", beforeRelationship3)),
+                     Arrays.asList("relationship-1", "relationship-2"));
+        assertEquals(getRelationshipGUIDs(store.getRelationshipsForEntityFromHistory("entity-2", afterRemoval)),
+                     Collections.singletonList("relationship-1"));
+
+        InstanceGraph graph = store.getSubGraphFromHistory("entity-1", null, null, null, null, 1, beforeRemoval);
+        assertEquals(getGUIDs(graph.getEntities()), Arrays.asList("entity-1", "entity-2"));
+        assertEquals(getRelationshipGUIDs(graph.getRelationships()), Collections.singletonList("relationship-1"));
+
+        graph = store.getSubGraphFromHistory("entity-1", null, null, null, null, -1, beforeRelationship3);
+        assertEquals(getGUIDs(graph.getEntities()), Arrays.asList("entity-1", "entity-2", "entity-3"));
+        assertEquals(getRelationshipGUIDs(graph.getRelationships()), Arrays.asList("relationship-1", "relationship-2"));
+
+        graph = store.getSubGraphFromHistory("entity-1", null, null, null, null, -1, beforeRemoval);
+        assertEquals(getGUIDs(graph.getEntities()), Arrays.asList("entity-1", "entity-2", "entity-3", "entity-4"));
+        assertEquals(getRelationshipGUIDs(graph.getRelationships()), Arrays.asList("relationship-1", "relationship-2", "relationship-3"));
+
+        graph = store.getSubGraphFromHistory("entity-1", Collections.singletonList("TypeA-guid"), null, null, null, -1, beforeRemoval);
+        assertEquals(getGUIDs(graph.getEntities()), Arrays.asList("entity-1", "entity-2"));
+        assertEquals(getRelationshipGUIDs(graph.getRelationships()), Collections.singletonList("relationship-1"));
+
+        graph = store.getSubGraphFromHistory("entity-1", null, null, null, null, -1, afterRemoval);
+        assertEquals(getGUIDs(graph.getEntities()), Arrays.asList("entity-1", "entity-2"));
+        assertEquals(getRelationshipGUIDs(graph.getRelationships()), Collections.singletonList("relationship-1"));
+
+        assertThrows(EntityNotKnownException.class,
+                     () -> store.getSubGraphFromHistory("entity-1", null, null, null, null, 1, beforeCreation));
+    }
+
+
+    @Test
+    public void testHistoryIsPrunedToTheRetentionPeriod() throws Exception
+    {
+        long now = System.currentTimeMillis();
+
+        GraphOMRSMetadataStore prunedStore = openStore(new File(graphDirectory, "pruned"), 0);
+        GraphOMRSMetadataStore keptStore   = openStore(new File(graphDirectory, "kept"), "1");
+
+        for (GraphOMRSMetadataStore versionedStore : Arrays.asList(prunedStore, keptStore)) {
+            EntityDetail entity = getEntity("entity-1", "TypeA");
+            entity.setCreateTime(new Date(now - 30000));
+            versionedStore.createEntityInStore(entity);
+
+            for (long version = 2; version <= 3; version++) {
+                entity.setVersion(version);
+                entity.setUpdateTime(new Date(now - 40000 + version * 10000));
+                versionedStore.updateEntityInStore(entity);
+            }
+        }
+
+        assertNull(prunedStore.getEntityDetailFromHistory("entity-1", new Date(now - 25000)));
+        assertNull(prunedStore.getEntityDetailFromHistory("entity-1", new Date(now - 15000)));
+        assertEquals(prunedStore.getEntityDetailFromHistory("entity-1", new Date(now - 5000)).getVersion(), 3L);
+
+        assertEquals(keptStore.getEntityDetailFromHistory("entity-1", new Date(now - 25000)).getVersion(), 1L);
+        assertEquals(keptStore.getEntityDetailFromHistory("entity-1", new Date(now - 15000)).getVersion(), 2L);
+        assertEquals(keptStore.getEntityDetailFromHistory("entity-1", new Date(now - 5000)).getVersion(), 3L);
+    }
+
+
+    @Test
+    public void testCountsLeaveOutDeletedAndExcludedHomeInstances() throws Exception
+    {
+        store.createEntityInStore(getEntity("entity-1", "TypeA"));
+        store.createEntityInStore(getEntity("entity-2", "TypeA"));
+        store.createEntityInStore(getEntity("entity-3", "TypeB"));
+
+        EntityDetail referenceEntity = getEntity("entity-4", "TypeA");
+        referenceEntity.setMetadataCollectionId(REMOTE_METADATA_COLLECTION_ID);
+        store.createEntityInStore(referenceEntity);
+
+        EntityDetail deletedEntity = getEntity("entity-5", "TypeA");
+        deletedEntity.setStatus(InstanceStatus.DELETED);
+        store.createEntityInStore(deletedEntity);
+
+        store.createRelationshipInStore(getRelationship("relationship-1", METADATA_COLLECTION_ID, "entity-1", "entity-2"));
+        store.createRelationshipInStore(getRelationship("relationship-2", REMOTE_METADATA_COLLECTION_ID, "entity-1", "entity-4"));
+        store.createRelationshipInStore(getRelationship("relationship-3", METADATA_COLLECTION_ID, "entity-2", "entity-3"));
+
+        List<String> typeA    = Collections.singletonList("TypeA");
+        List<String> excluded = Collections.singletonList(REMOTE_METADATA_COLLECTION_ID);
+
+        assertEquals(store.countEntities(typeA, null, null), 3L);
+        assertEquals(store.countEntities(typeA, null, excluded), 2L);
+        assertEquals(store.countEntities(Arrays.asList("TypeA", "TypeB"), Collections.singletonList(InstanceStatus.ACTIVE), null), 4L);
+
+        List<String> relationshipTypes = Collections.singletonList("RelationshipType");
+
+        assertEquals(store.countRelationships(relationshipTypes, null, null), 3L);
+        assertEquals(store.countRelationships(relationshipTypes, null, excluded), 2L);
+
+        assertEquals(store.countRelationshipsForEntity("entity-1", null, null, null), 2L);
+        assertEquals(store.countRelationshipsForEntity("entity-1", null, null, excluded), 1L);
+        assertEquals(store.countRelationshipsForEntity("entity-2", "RelationshipType", null, null), 2L);
+    }
+
+
+    @Test
+    public void testUnitOfWorkIsCommittedTogether() throws Exception
+    {
+        List<String>    guids  = Arrays.asList("entity-1", "entity-2");
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+
+        try {
+            store.beginUnitOfWork();
+            store.createEntityInStore(getEntity("entity-1", "TypeA"));
+            store.createEntityInStore(getEntity("entity-2", "TypeA"));
+
+            // The changes are not visible to other threads until the unit of work is committed
+            assertEquals(reader.submit(() -> store.getEntityDetailsFromStore(guids).size()).get(), Integer.valueOf(0));
+
+            store.commitUnitOfWork();
+
+            assertEquals(reader.submit(() -> store.getEntityDetailsFromStore(guids).size()).get(), Integer.valueOf(2));
+        }
+        finally {
+            reader.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void testFailedReadsDoNotRollBackUnitOfWork() throws Exception
+    {
+        store.createEntityInStore(getEntity("entity-1", "TypeA"));
+
+        store.beginUnitOfWork();
+        store.createEntityInStore(getEntity("entity-2", "TypeA"));
+
+        assertThrows(EntityNotKnownException.class, () -> store.getEntityDetailFromStore("entity-9"));
+        assertThrows(RepositoryErrorException.class, () -> store.findEntitiesInHistory(Collections.singletonList("TypeA"), new Date(), entity -> {
+            throw new RepositoryErrorException(GraphOMRSErrorCode.ENTITY_PROPERTIES_ERROR.getMessageDefinition(entity.getGUID(), "test",
+                                                                                                               this.getClass().getName(),
+                                                                                                               REPOSITORY_NAME),
+                    this.getClass().getName(),
+                    "test");
+        }, 0, 0));
+
+        store.createEntityInStore(getEntity("entity-3", "TypeA"));
+        store.commitUnitOfWork();
+
+        assertEquals(store.getEntityDetailsFromStore(Arrays.asList("entity-1", "entity-2", "entity-3")).size(), 3);
+    }
+
+
+    @Test
+    public void testFailedWriteRollsBackUnitOfWork() throws Exception
+    {
+        store.createEntityInStore(getEntity("entity-1", "TypeA"));
+
+        store.beginUnitOfWork();
+        store.createEntityInStore(getEntity("entity-2", "TypeA"));
+
+        assertThrows(InvalidParameterException.class, () -> store.createEntityInStore(getEntity("entity-1", "TypeA")));
+        assertThrows(RepositoryErrorException.class, () -> store.commitUnitOfWork());
+
+        assertEquals(getGUIDs(new ArrayList<>(store.getEntityDetailsFromStore(Arrays.asList("entity-1", "entity-2")).values())),
+                     Collections.singletonList("entity-1"));
+
+        // The write lock is released, so later changes can be made
+        store.createEntityInStore(getEntity("entity-3", "TypeA"));
+
+        assertEquals(store.getEntityDetailsFromStore(Collections.singletonList("entity-3")).size(), 1);
+    }
+
+
+    private List<EntityDetail> findEntitiesInHistory(List<String> typeNames, Date asOfTime) throws Exception
+    {
+        return store.findEntitiesInHistory(typeNames, asOfTime, entity -> true, 0, 0);
+    }
+
+
+    /*
+     * Return the sorted GUIDs of the relationships.
+     */
+    private List<String> getRelationshipGUIDs(List<Relationship> relationships)
+    {
+        List<String> guids = new ArrayList<>();
+
+        for (Relationship relationship : relationships) {
+            guids.add(relationship.getGUID());
+        }
+        Collections.sort(guids);
+        return guids;
+    }
+
+
+    /*
+     * Return the sorted GUIDs of the entities, each followed by the version of the entity.
+     */
+    private List<String> getGUIDsAndVersions(List<EntityDetail> entities)
+    {
+        List<String> versions = new ArrayList<>();
+
+        for (EntityDetail entity : entities) {
+            versions.add(entity.getGUID() + " v" + entity.getVersion());
+        }
+        Collections.sort(versions);
+        return versions;
+    }
+
+
+    /*
+     * Return the sorted GUIDs of the entities.
+     */
+    private List<String> getGUIDs(List<EntityDetail> entities)
+    {
+        List<String> guids = new ArrayList<>();
+
+        entities.sort(Comparator.comparing(EntityDetail::getGUID));
+        for (EntityDetail entity : entities) {
+            guids.add(entity.getGUID());
+        }
+        return guids;
+    }
+
+
+    private EntityDetail getEntity(String guid, String typeName)
+    {
+        InstanceType type = new InstanceType();
+        type.setTypeDefCategory(TypeDefCategory.ENTITY_DEF);
+        type.setTypeDefGUID(typeName + "-guid");
+        type.setTypeDefName(typeName);
+
+        EntityDetail entity = new EntityDetail();
+        entity.setGUID(guid);
+        entity.setType(type);
+        entity.setMetadataCollectionId(METADATA_COLLECTION_ID);
+        entity.setStatus(InstanceStatus.ACTIVE);
+        entity.setCreatedBy("testUser");
+        entity.setCreateTime(new Date());
+        entity.setVersion(1L);
+
+        return entity;
+    }
+
+
+    private Relationship getRelationship(String guid, String metadataCollectionId, String entityOneGUID, String entityTwoGUID)
+    {
+        InstanceType type = new InstanceType();
+        type.setTypeDefCategory(TypeDefCategory.RELATIONSHIP_DEF);
+        type.setTypeDefGUID("RelationshipType-guid");
+        type.setTypeDefName("RelationshipType");
+
+        Relationship relationship = new Relationship();
+        relationship.setGUID(guid);
+        relationship.setType(type);
+        relationship.setMetadataCollectionId(metadataCollectionId);
+        relationship.setStatus(InstanceStatus.ACTIVE);
+        relationship.setCreatedBy("testUser");
+        relationship.setCreateTime(new Date());
+        relationship.setVersion(1L);
+        relationship.setEntityOneProxy(getEntityProxy(entityOneGUID));
+        relationship.setEntityTwoProxy(getEntityProxy(entityTwoGUID));
+
+        return relationship;
+    }
+
+
+    private EntityProxy getEntityProxy(String guid)
+    {
+        EntityProxy entityProxy = new EntityProxy();
+        entityProxy.setGUID(guid);
+
+        return entityProxy;
+    }
+
+
+    private static TypeDef getTypeDef(String typeName)
+    {
+        EntityDef typeDef = new EntityDef();
+        typeDef.setGUID(typeName + "-guid");
+        typeDef.setName(typeName);
+
+        return typeDef;
+    }
+
+
+    /*
+     * The store only uses the repository helper to look up the test types, which have no attributes, so the
+     * helper is a proxy that answers those calls.
+     */
+    private OMRSRepositoryHelper getRepositoryHelper()
+    {
+        return (OMRSRepositoryHelper) Proxy.newProxyInstance(this.getClass().getClassLoader(),
+                                                             new Class<?>[]{OMRSRepositoryHelper.class},
+                                                             (proxy, method, arguments) -> {
+                                                                 switch (method.getName()) {
+                                                                     case "getTypeDefByName":
+                                                                         return getTypeDef((String) arguments[1]);
+                                                                     case "getTypeDef":
+                                                                         if (arguments.length == 4) {
+                                                                             String typeGUID = (String) arguments[2];
+                                                                             return getTypeDef(typeGUID.substring(0, typeGUID.length() - "-guid".length()));
+                                                                         }
+                                                                         return getTypeDef((String) arguments[4]);
+                                                                     case "getNewInstanceType":
+                                                                         TypeDefSummary typeDef = (TypeDefSummary) arguments[1];
+                                                                         InstanceType type = new InstanceType();
+                                                                         type.setTypeDefCategory(TypeDefCategory.ENTITY_DEF);
+                                                                         type.setTypeDefGUID(typeDef.getGUID());
+                                                                         type.setTypeDefName(typeDef.getName());
+                                                                         return type;
+                                                                     case "getAllPropertiesForTypeDef":
+                                                                         return new ArrayList<>();
+                                                                     default:
+                                                                         return null;
+                                                                 }
+                                                             });
+    }
+
+
+    private AuditLog getAuditLog()
+    {
+        return new AuditLog(new AuditLogDestination(null)
+        {
+            @Override
+            public void addLogRecord(AuditLogRecord logRecord)
+            {
+            }
+        }, 0, "Test", "Test", null);
+    }
+
+
+    private void deleteDirectory(File directory)
+    {
+        File[] files = directory.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,242 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.repositoryservices.inmemory.repositoryconnector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * InMemoryOMRSInstanceIndex maintains a secondary index for the InMemoryOMRSMetadataStore.  It maps a key
+ * (such as a type name, classification name or property value) to the unique identifiers of the instances
+ * that have that key.  The keys that each instance is indexed under are remembered so that the instance
+ * can be re-indexed or removed correctly even if the instance object has been updated in place.
+ * The unique identifiers are held in sorted order so that a cursor-based search can resume from the last
+ * instance it returned.
+ *
+ * This class is not thread-safe.  It relies on the metadata store to serialize access.
+ */
+class InMemoryOMRSInstanceIndex
+{
+    private Map<String, NavigableSet<String>> instanceGUIDsByKey = new HashMap<>();
+    private NavigableMap<String, Set<String>> keysByInstanceGUID = new TreeMap<>();
+
+
+    /**
+     * Default constructor
+     */
+    InMemoryOMRSInstanceIndex()
+    {
+    }
+
+
+    /**
+     * Index an instance under the supplied keys.  Any keys the instance was previously indexed
+     * under that are not in the supplied list are removed.
+     *
+     * @param instanceGUID unique identifier of the instance
+     * @param keys keys to index the instance under (null means remove from the index)
+     */
+    void indexInstance(String             instanceGUID,
+                       Collection<String> keys)
+    {
+        this.removeInstance(instanceGUID);
+
+        if ((instanceGUID != null) && (keys != null) && (! keys.isEmpty()))
+        {
+            Set<String> instanceKeys = new HashSet<>(keys);
+
+            for (String key : instanceKeys)
+            {
+                instanceGUIDsByKey.computeIfAbsent(key, newKey -> new TreeSet<>()).add(instanceGUID);
+            }
+
+            keysByInstanceGUID.put(instanceGUID, instanceKeys);
+        }
+    }
+
+
+    /**
+     * Add keys to the keys that an instance is indexed under.  The keys the instance was previously indexed
+     * under are kept.  This is used to index every version of an instance.
+     *
+     * @param instanceGUID unique identifier of the instance
+     * @param keys additional keys to index the instance under
+     */
+    void addInstanceKeys(String             instanceGUID,
+                         Collection<String> keys)
+    {
+        if ((instanceGUID != null) && (keys != null) && (! keys.isEmpty()))
+        {
+            Set<String> instanceKeys = keysByInstanceGUID.computeIfAbsent(instanceGUID, newGUID -> new HashSet<>());
+
+            for (String key : keys)
+            {
+                if (instanceKeys.add(key))
+                {
+                    instanceGUIDsByKey.computeIfAbsent(key, newKey -> new TreeSet<>()).add(instanceGUID);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Remove an instance from the index.
+     *
+     * @param instanceGUID unique identifier of the instance
+     */
+    void removeInstance(String instanceGUID)
+    {
+        if (instanceGUID != null)
+        {
+            Set<String> oldKeys = keysByInstanceGUID.remove(instanceGUID);
+
+            if (oldKeys != null)
+            {
+                for (String oldKey : oldKeys)
+                {
+                    NavigableSet<String> instanceGUIDs = instanceGUIDsByKey.get(oldKey);
+
+                    if (instanceGUIDs != null)
+                    {
+                        instanceGUIDs.remove(instanceGUID);
+
+                        if (instanceGUIDs.isEmpty())
+                        {
+                            instanceGUIDsByKey.remove(oldKey);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Return the unique identifiers of the instances indexed under the supplied key.
+     *
+     * @param key key to look up
+     * @return set of instance GUIDs (empty set if none)
+     */
+    Set<String> getInstanceGUIDs(String key)
+    {
+        NavigableSet<String> instanceGUIDs = instanceGUIDsByKey.get(key);
+
+        if (instanceGUIDs == null)
+        {
+            return Collections.emptySet();
+        }
+
+        return new HashSet<>(instanceGUIDs);
+    }
+
+
+    /**
+     * Return the unique identifiers of the instances indexed under any of the supplied keys.
+     *
+     * @param keys keys to look up
+     * @return set of instance GUIDs (empty set if none)
+     */
+    Set<String> getInstanceGUIDs(Collection<String> keys)
+    {
+        Set<String> instanceGUIDs = new HashSet<>();
+
+        if (keys != null)
+        {
+            for (String key : keys)
+            {
+                NavigableSet<String> keyInstanceGUIDs = instanceGUIDsByKey.get(key);
+
+                if (keyInstanceGUIDs != null)
+                {
+                    instanceGUIDs.addAll(keyInstanceGUIDs);
+                }
+            }
+        }
+
+        return instanceGUIDs;
+    }
+
+
+    /**
+     * Return, in ascending order, the unique identifiers of the instances indexed under any of the supplied keys
+     * that sort after the supplied unique identifier.
+     *
+     * @param keys keys to look up (null means all indexed instances)
+     * @param afterGUID only return unique identifiers that sort after this one (null means from the start)
+     * @param maxGUIDs maximum number of unique identifiers to return
+     * @return list of instance GUIDs (empty list if none)
+     */
+    List<String> getInstanceGUIDsAfter(Collection<String> keys,
+                                       String             afterGUID,
+                                       int                maxGUIDs)
+    {
+        if (keys == null)
+        {
+            return getFirstGUIDs(keysByInstanceGUID.navigableKeySet(), afterGUID, maxGUIDs);
+        }
+
+        TreeSet<String> instanceGUIDs = new TreeSet<>();
+
+        for (String key : keys)
+        {
+            NavigableSet<String> keyInstanceGUIDs = instanceGUIDsByKey.get(key);
+
+            if (keyInstanceGUIDs != null)
+            {
+                instanceGUIDs.addAll(getFirstGUIDs(keyInstanceGUIDs, afterGUID, maxGUIDs));
+
+                while (instanceGUIDs.size() > maxGUIDs)
+                {
+                    instanceGUIDs.pollLast();
+                }
+            }
+        }
+
+        return new ArrayList<>(instanceGUIDs);
+    }
+
+
+    /**
+     * Return the first unique identifiers from a sorted set that sort after the supplied unique identifier.
+     *
+     * @param instanceGUIDs sorted set of unique identifiers
+     * @param afterGUID only return unique identifiers that sort after this one (null means from the start)
+     * @param maxGUIDs maximum number of unique identifiers to return
+     * @return list of instance GUIDs
+     */
+    private static List<String> getFirstGUIDs(NavigableSet<String> instanceGUIDs,
+                                              String               afterGUID,
+                                              int                  maxGUIDs)
+    {
+        List<String>     firstGUIDs = new ArrayList<>();
+        Iterator<String> iterator;
+
+        if (afterGUID == null)
+        {
+            iterator = instanceGUIDs.iterator();
+        }
+        else
+        {
+            iterator = instanceGUIDs.tailSet(afterGUID, false).iterator();
+        }
+
+        while ((iterator.hasNext()) && (firstGUIDs.size() < maxGUIDs))
+        {
+            firstGUIDs.add(iterator.next());
+        }
+
+        return firstGUIDs;
+    }
+}
@@ -6,10 +6,14 @@ import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollec
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.MatchCriteria;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.SequencingOrder;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.*;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.ClassificationCondition;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.PropertyComparisonOperator;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.PropertyCondition;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchClassifications;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchProperties;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.*;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryHelper;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSResultCollector;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryValidator;
 import org.odpi.openmetadata.repositoryservices.ffdc.OMRSErrorCode;
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
@@ -40,6 +44,32 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
                                              OMRSRepositoryHelper            repositoryHelper,
                                              OMRSRepositoryValidator         repositoryValidator,
                                              String                          metadataCollectionId)
+    {
+        this(parentConnector, repositoryName, repositoryHelper, repositoryValidator, metadataCollectionId, null);
+    }
+
+
+    /**
+     * Constructor ensures the metadata collection is linked to its connector and knows its metadata collection Id.
+     * If the configuration properties include a persistence directory, the content of the repository is
+     * loaded from this directory and every change is recorded there.
+     *
+     * @param parentConnector connector that this metadata collection supports.  The connector has the information
+     *                        to call the metadata repository.
+     * @param repositoryName name of the repository - used for logging.
+     * @param repositoryHelper class used to build type definitions and instances.
+     * @param repositoryValidator class used to validate type definitions and instances.
+     * @param metadataCollectionId unique Identifier of the metadata collection Id.
+     * @param configurationProperties configuration properties from the connection (may be null).
+     * @throws OMRSConfigErrorException the persistence configuration is not valid or the persisted content
+     *                                  can not be loaded.
+     */
+    protected InMemoryOMRSMetadataCollection(InMemoryOMRSRepositoryConnector parentConnector,
+                                             String                          repositoryName,
+                                             OMRSRepositoryHelper            repositoryHelper,
+                                             OMRSRepositoryValidator         repositoryValidator,
+                                             String                          metadataCollectionId,
+                                             Map<String, Object>             configurationProperties) throws OMRSConfigErrorException
     {
         /*
          * The metadata collection Id is the unique identifier for the metadata collection.  It is managed by the super class.
@@ -50,6 +80,23 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
          * Set up the repository name in the repository store
          */
         this.repositoryStore.setRepositoryName(repositoryName);
+
+        InMemoryOMRSPersistenceLog persistenceLog = InMemoryOMRSPersistenceLog.getPersistenceLog(repositoryName,
+                                                                                                  configurationProperties);
+
+        if (persistenceLog != null)
+        {
+            this.repositoryStore.openPersistenceLog(persistenceLog);
+        }
+    }
+
+
+    /**
+     * Free up any resources held by the metadata collection.  This syncs and closes the persistence log (if any).
+     */
+    void disconnect()
+    {
+        this.repositoryStore.closePersistenceLog();
     }
 
 
@@ -88,6 +135,46 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
     }
 
 
+    /**
+     * Returns the entities from a list of guids that are stored in the metadata collection.  The entities are
+     * retrieved under a single acquisition of the store's lock.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the entities
+     * @return map from guid to entity details for each entity that is found in the metadata collection
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @Override
+    public Map<String, EntityDetail> getKnownEntities(String        userId,
+                                                      List<String>  guids) throws InvalidParameterException,
+                                                                                  RepositoryErrorException,
+                                                                                  UserNotAuthorizedException
+    {
+        final String  methodName = "getKnownEntities";
+
+        /*
+         * Validate parameters
+         */
+        if (guids == null)
+        {
+            return new HashMap<>();
+        }
+
+        for (String guid : guids)
+        {
+            super.getInstanceParameterValidation(userId, guid, methodName);
+        }
+
+        /*
+         * Perform operation
+         */
+        return repositoryStore.getEntityMap(guids);
+    }
+
+
     /**
      * Return the header and classifications for a specific entity.
      *
@@ -212,7 +299,7 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
         /*
          * Perform operation
          */
-        EntityDetail  entity = repositoryStore.timeWarpEntityStore(asOfTime).get(guid);
+        EntityDetail  entity = repositoryStore.getEntity(guid, asOfTime);
         if (entity == null)
         {
             EntityProxy  entityProxy = repositoryStore.getEntityProxy(guid);
@@ -230,6 +317,99 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<EntityDetail> areEntitiesKnown(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           UserNotAuthorizedException
+    {
+        final String  methodName = "areEntitiesKnown";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null)
+        {
+            return null;
+        }
+
+        /*
+         * Perform operation
+         */
+        List<EntityDetail> entities = new ArrayList<>();
+
+        for (String guid : guids)
+        {
+            EntityDetail entity = repositoryStore.getEntity(guid);
+
+            if (entity != null)
+            {
+                entities.add(entity);
+            }
+        }
+
+        if (entities.isEmpty())
+        {
+            return null;
+        }
+
+        return entities;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<EntityDetail> getEntityDetails(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           EntityNotKnownException,
+                                                                           EntityProxyOnlyException,
+                                                                           UserNotAuthorizedException
+    {
+        final String  methodName        = "getEntityDetails";
+        final String  guidParameterName = "guids";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null)
+        {
+            return null;
+        }
+
+        /*
+         * Perform operation
+         */
+        List<EntityDetail> entities = new ArrayList<>();
+
+        for (String guid : guids)
+        {
+            EntityDetail entity = repositoryStore.getEntity(guid);
+
+            if ((entity == null) && (repositoryStore.getEntityProxy(guid) != null))
+            {
+                reportEntityProxyOnly(guid, guidParameterName, methodName);
+            }
+
+            repositoryValidator.validateEntityFromStore(repositoryName, guid, entity, methodName);
+            repositoryValidator.validateEntityIsNotDeleted(repositoryName, entity, methodName);
+
+            entities.add(entity);
+        }
+
+        return entities;
+    }
+
+
     /**
      * Return the relationships for a specific entity.
      *
@@ -300,9 +480,7 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
 
         List<Relationship> entityRelationships = new ArrayList<>();
 
-        Map<String, Relationship>   relationshipStore = repositoryStore.timeWarpRelationshipStore(asOfTime);
-
-        for (Relationship  storedRelationship : relationshipStore.values())
+        for (Relationship  storedRelationship : repositoryStore.getRelationshipsForEntity(entityGUID, asOfTime))
         {
             if (storedRelationship != null)
             {
@@ -340,6 +518,132 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countRelationshipsForEntity(String                     userId,
+                                           String                     entityGUID,
+                                           String                     relationshipTypeGUID,
+                                           List<InstanceStatus>       limitResultsByStatus,
+                                           List<String>               excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                                TypeErrorException,
+                                                                                                                RepositoryErrorException,
+                                                                                                                EntityNotKnownException,
+                                                                                                                UserNotAuthorizedException
+    {
+        final String  methodName = "countRelationshipsForEntity";
+
+        /*
+         * Validate parameters
+         */
+        super.countRelationshipsForEntityParameterValidation(userId, entityGUID, relationshipTypeGUID, methodName);
+
+        /*
+         * Perform operation - the adjacency index in the store supplies the relationships to test.
+         */
+        EntitySummary  entity = this.getEntitySummary(userId, entityGUID);
+
+        repositoryValidator.validateEntityFromStore(repositoryName, entityGUID, entity, methodName);
+        repositoryValidator.validateEntityIsNotDeleted(repositoryName, entity, methodName);
+
+        int count = 0;
+
+        for (Relationship  storedRelationship : repositoryStore.getRelationshipsForEntity(entityGUID))
+        {
+            if ((storedRelationship != null) &&
+                (storedRelationship.getStatus() != InstanceStatus.DELETED) &&
+                (this.isCountedHome(storedRelationship, excludedHomeMetadataCollectionIds)) &&
+                (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, storedRelationship)) &&
+                (repositoryHelper.relatedEntity(repositoryName, entityGUID, storedRelationship)))
+            {
+                if ((relationshipTypeGUID == null) ||
+                    (relationshipTypeGUID.equals(storedRelationship.getType().getTypeDefGUID())))
+                {
+                    count ++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * The cursor is the unique identifier of the last relationship returned.  The relationships are returned in
+     * the order of their unique identifiers, read from the sorted adjacency index in the store, so each page
+     * starts where the previous one finished.
+     */
+    @Override
+    public InstancePage<Relationship> getRelationshipsForEntityWithCursor(String                     userId,
+                                                                          String                     entityGUID,
+                                                                          String                     relationshipTypeGUID,
+                                                                          String                     cursor,
+                                                                          List<InstanceStatus>       limitResultsByStatus,
+                                                                          int                        pageSize) throws InvalidParameterException,
+                                                                                                                      TypeErrorException,
+                                                                                                                      RepositoryErrorException,
+                                                                                                                      EntityNotKnownException,
+                                                                                                                      PagingErrorException,
+                                                                                                                      UserNotAuthorizedException
+    {
+        final String  methodName = "getRelationshipsForEntityWithCursor";
+
+        /*
+         * Validate parameters
+         */
+        super.getRelationshipsForEntityWithCursorParameterValidation(userId, entityGUID, relationshipTypeGUID, pageSize, methodName);
+
+        /*
+         * Perform operation
+         */
+        EntitySummary  entity = this.getEntitySummary(userId, entityGUID);
+
+        repositoryValidator.validateEntityFromStore(repositoryName, entityGUID, entity, methodName);
+        repositoryValidator.validateEntityIsNotDeleted(repositoryName, entity, methodName);
+
+        List<Relationship> entityRelationships = new ArrayList<>();
+        int                batchSize           = this.getCursorBatchSize(pageSize);
+        String             lastGUID            = cursor;
+
+        while (true)
+        {
+            List<String> candidateGUIDs = repositoryStore.getRelationshipGUIDsForEntityAfter(entityGUID, lastGUID, batchSize);
+
+            for (String candidateGUID : candidateGUIDs)
+            {
+                lastGUID = candidateGUID;
+
+                Relationship storedRelationship = repositoryStore.getRelationship(candidateGUID);
+
+                if ((storedRelationship != null) &&
+                    (storedRelationship.getStatus() != InstanceStatus.DELETED) &&
+                    (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, storedRelationship)) &&
+                    (repositoryHelper.relatedEntity(repositoryName, entityGUID, storedRelationship)))
+                {
+                    if ((relationshipTypeGUID == null) ||
+                        (relationshipTypeGUID.equals(storedRelationship.getType().getTypeDefGUID())))
+                    {
+                        entityRelationships.add(storedRelationship);
+
+                        if (entityRelationships.size() == pageSize)
+                        {
+                            return new InstancePage<>(entityRelationships, lastGUID);
+                        }
+                    }
+                }
+            }
+
+            if (candidateGUIDs.size() < batchSize)
+            {
+                return new InstancePage<>(entityRelationships, null);
+            }
+        }
+    }
+
+
     /**
      * Return a list of entities that match the supplied properties according to the match criteria.  The results
      * can be returned over many pages.
@@ -392,6 +696,8 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
                                                                                                 PagingErrorException,
                                                                                                 UserNotAuthorizedException
     {
+        final String  methodName = "findEntitiesByProperty";
+
         /*
          * Validate parameters
          */
@@ -410,13 +716,28 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
         /*
          * Perform operation
          *
-         * This is a brute force implementation of locating in entity since it iterates through all of
-         * the stored entities.
+         * The indexes in the store narrow down the entities to test.  Each candidate is then validated
+         * against the full search criteria.
          */
-        List<EntityDetail>         foundEntities = new ArrayList<>();
-        Map<String, EntityDetail>  entityStore = repositoryStore.timeWarpEntityStore(asOfTime);
+        Map<String, String>        exactPropertyValues = null;
+
+        if (matchCriteria == MatchCriteria.ALL)
+        {
+            exactPropertyValues = this.getExactPropertyValues(matchProperties);
+        }
 
-        for (EntityDetail  entity : entityStore.values())
+        OMRSResultCollector<EntityDetail> foundEntities = repositoryHelper.getEntityResultCollector(fromEntityElement,
+                                                                                                    sequencingProperty,
+                                                                                                    sequencingOrder,
+                                                                                                    pageSize);
+        Collection<EntityDetail>   candidateEntities = this.getCandidateEntities(asOfTime,
+                                                                                 this.getTypeNamesForQuery(entityTypeGUID,
+                                                                                                           null,
+                                                                                                           methodName),
+                                                                                 limitResultsByClassification,
+                                                                                 exactPropertyValues);
+
+        for (EntityDetail  entity : candidateEntities)
         {
             if (entity != null)
             {
@@ -435,7 +756,96 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
             }
         }
 
-        return repositoryHelper.formatEntityResults(foundEntities, fromEntityElement, sequencingProperty, sequencingOrder, pageSize);
+        return foundEntities.getResults();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * The cursor is the unique identifier of the last entity returned.  The entities are returned in the order of
+     * their unique identifiers.  The candidates are read in order from the most selective sorted index in the store
+     * that applies to the search, and each one is then validated against the full search criteria.
+     */
+    @Override
+    public InstancePage<EntityDetail> findEntitiesByPropertyWithCursor(String                    userId,
+                                                                       String                    entityTypeGUID,
+                                                                       InstanceProperties        matchProperties,
+                                                                       MatchCriteria             matchCriteria,
+                                                                       String                    cursor,
+                                                                       List<InstanceStatus>      limitResultsByStatus,
+                                                                       List<String>              limitResultsByClassification,
+                                                                       int                       pageSize) throws InvalidParameterException,
+                                                                                                                  RepositoryErrorException,
+                                                                                                                  TypeErrorException,
+                                                                                                                  PagingErrorException,
+                                                                                                                  UserNotAuthorizedException
+    {
+        final String  methodName = "findEntitiesByPropertyWithCursor";
+
+        /*
+         * Validate parameters
+         */
+        super.findEntitiesByPropertyWithCursorParameterValidation(userId,
+                                                                  entityTypeGUID,
+                                                                  matchProperties,
+                                                                  matchCriteria,
+                                                                  pageSize,
+                                                                  methodName);
+
+        /*
+         * Perform operation
+         */
+        Map<String, String>  exactPropertyValues = null;
+
+        if (matchCriteria == MatchCriteria.ALL)
+        {
+            exactPropertyValues = this.getExactPropertyValues(matchProperties);
+        }
+
+        List<String>        typeNames     = this.getTypeNamesForQuery(entityTypeGUID, null, methodName);
+        List<EntityDetail>  foundEntities = new ArrayList<>();
+        int                 batchSize     = this.getCursorBatchSize(pageSize);
+        String              lastGUID      = cursor;
+
+        while (true)
+        {
+            List<String> candidateGUIDs = this.getCandidateEntityGUIDsAfter(typeNames,
+                                                                            limitResultsByClassification,
+                                                                            exactPropertyValues,
+                                                                            lastGUID,
+                                                                            batchSize);
+
+            for (String candidateGUID : candidateGUIDs)
+            {
+                lastGUID = candidateGUID;
+
+                EntityDetail entity = repositoryStore.getEntity(candidateGUID);
+
+                if ((entity != null) &&
+                    (entity.getStatus() != InstanceStatus.DELETED) &&
+                    (repositoryValidator.verifyInstanceType(repositoryName, entityTypeGUID, entity)) &&
+                    (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, entity)) &&
+                    (repositoryValidator.verifyEntityIsClassified(limitResultsByClassification, entity)) &&
+                    (repositoryValidator.verifyMatchingInstancePropertyValues(matchProperties,
+                                                                              entity,
+                                                                              entity.getProperties(),
+                                                                              matchCriteria)))
+                {
+                    foundEntities.add(entity);
+
+                    if (foundEntities.size() == pageSize)
+                    {
+                        return new InstancePage<>(foundEntities, lastGUID);
+                    }
+                }
+            }
+
+            if (candidateGUIDs.size() < batchSize)
+            {
+                return new InstancePage<>(foundEntities, null);
+            }
+        }
     }
 
 
@@ -460,6 +870,8 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
                                                                                       PagingErrorException,
                                                                                       UserNotAuthorizedException
     {
+        final String  methodName = "findEntities";
+
         /*
          * Validate parameters
          */
@@ -478,17 +890,90 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
         /*
          * Perform operation
          *
-         * This is a brute force implementation of locating in entity since it iterates through all of
-         * the stored entities.
+         * The indexes in the store narrow down the entities to test.  Each candidate is then validated
+         * against the full search criteria.
+         */
+        OMRSResultCollector<EntityDetail> foundEntities = repositoryHelper.getEntityResultCollector(fromEntityElement,
+                                                                                                    sequencingProperty,
+                                                                                                    sequencingOrder,
+                                                                                                    pageSize);
+        Collection<EntityDetail>   candidateEntities = this.getCandidateEntities(asOfTime,
+                                                                                 this.getTypeNamesForQuery(entityTypeGUID,
+                                                                                                           entitySubtypeGUIDs,
+                                                                                                           methodName),
+                                                                                 matchClassifications,
+                                                                                 this.getExactPropertyValues(matchProperties));
+
+        for (EntityDetail  entity : candidateEntities)
+        {
+            if (entity != null)
+            {
+                if ((entity.getStatus() != InstanceStatus.DELETED) &&
+                        (repositoryValidator.verifyInstanceType(repositoryName, entityTypeGUID, entitySubtypeGUIDs, entity)) &&
+                        (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, entity)) &&
+                        (repositoryValidator.verifyMatchingClassifications(matchClassifications, entity)) &&
+                        (repositoryValidator.verifyMatchingInstancePropertyValues(matchProperties,
+                                entity,
+                                entity.getProperties()
+                        )))
+                {
+                    foundEntities.add(entity);
+                }
+            }
+        }
+
+        return foundEntities.getResults();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countEntities(String                    userId,
+                             String                    entityTypeGUID,
+                             List<String>              entitySubtypeGUIDs,
+                             SearchProperties          matchProperties,
+                             List<InstanceStatus>      limitResultsByStatus,
+                             SearchClassifications     matchClassifications,
+                             List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                 RepositoryErrorException,
+                                                                                                 TypeErrorException,
+                                                                                                 PropertyErrorException,
+                                                                                                 UserNotAuthorizedException
+    {
+        final String  methodName = "countEntities";
+
+        /*
+         * Validate parameters
          */
-        List<EntityDetail>         foundEntities = new ArrayList<>();
-        Map<String, EntityDetail>  entityStore = repositoryStore.timeWarpEntityStore(asOfTime);
+        super.countEntitiesParameterValidation(userId,
+                                               entityTypeGUID,
+                                               entitySubtypeGUIDs,
+                                               matchProperties,
+                                               matchClassifications,
+                                               methodName);
 
-        for (EntityDetail  entity : entityStore.values())
+        /*
+         * Perform operation
+         *
+         * The indexes in the store narrow down the entities to test.  The matching entities are counted
+         * rather than collected.
+         */
+        Collection<EntityDetail>   candidateEntities = this.getCandidateEntities(null,
+                                                                                 this.getTypeNamesForQuery(entityTypeGUID,
+                                                                                                           entitySubtypeGUIDs,
+                                                                                                           methodName),
+                                                                                 matchClassifications,
+                                                                                 this.getExactPropertyValues(matchProperties));
+        int count = 0;
+
+        for (EntityDetail  entity : candidateEntities)
         {
             if (entity != null)
             {
                 if ((entity.getStatus() != InstanceStatus.DELETED) &&
+                        (this.isCountedHome(entity, excludedHomeMetadataCollectionIds)) &&
                         (repositoryValidator.verifyInstanceType(repositoryName, entityTypeGUID, entitySubtypeGUIDs, entity)) &&
                         (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, entity)) &&
                         (repositoryValidator.verifyMatchingClassifications(matchClassifications, entity)) &&
@@ -497,12 +982,12 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
                                 entity.getProperties()
                         )))
                 {
-                    foundEntities.add(entity);
+                    count ++;
                 }
             }
         }
 
-        return repositoryHelper.formatEntityResults(foundEntities, fromEntityElement, sequencingProperty, sequencingOrder, pageSize);
+        return count;
     }
 
 
@@ -562,6 +1047,8 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
                                                                                                        PagingErrorException,
                                                                                                        UserNotAuthorizedException
     {
+        final String  methodName = "findEntitiesByClassification";
+
         /*
          * Validate parameters
          */
@@ -580,16 +1067,24 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
         /*
          * Perform operation
          *
-         * This is a brute force implementation of locating in entity since it iterates through all of
-         * the stored entities.
+         * The classification index in the store narrows down the entities to test.
          */
-        Map<String, EntityDetail>   entityStore = repositoryStore.timeWarpEntityStore(asOfTime);
-        List<EntityDetail>          foundEntities = new ArrayList<>();
+        OMRSResultCollector<EntityDetail> foundEntities = repositoryHelper.getEntityResultCollector(fromEntityElement,
+                                                                                                    sequencingProperty,
+                                                                                                    sequencingOrder,
+                                                                                                    pageSize);
 
         List<String>                classificationList = new ArrayList<>();
         classificationList.add(classificationName);
 
-        for (EntityDetail  entity : entityStore.values())
+        Collection<EntityDetail>    candidateEntities = this.getCandidateEntities(asOfTime,
+                                                                                  this.getTypeNamesForQuery(entityTypeGUID,
+                                                                                                            null,
+                                                                                                            methodName),
+                                                                                  classificationList,
+                                                                                  null);
+
+        for (EntityDetail  entity : candidateEntities)
         {
             if (entity != null)
             {
@@ -630,7 +1125,7 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
             }
         }
 
-        return repositoryHelper.formatEntityResults(foundEntities, fromEntityElement, sequencingProperty, sequencingOrder, pageSize);
+        return foundEntities.getResults();
     }
 
 
@@ -705,12 +1200,21 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
         /*
          * Process operation
          *
-         * This is a brute force implementation of locating in entity since it iterates through all of
-         * the stored entities.
-         */
-        List<EntityDetail>   foundEntities = new ArrayList<>();
-
-        for (EntityDetail  entity : repositoryStore.timeWarpEntityStore(asOfTime).values())
+         * The search criteria may match any string property so only the type and classification indexes
+         * can be used to narrow down the entities to test.
+         */
+        OMRSResultCollector<EntityDetail> foundEntities = repositoryHelper.getEntityResultCollector(fromEntityElement,
+                                                                                                    sequencingProperty,
+                                                                                                    sequencingOrder,
+                                                                                                    pageSize);
+        Collection<EntityDetail>   candidateEntities = this.getCandidateEntities(asOfTime,
+                                                                                 this.getTypeNamesForQuery(entityTypeGUID,
+                                                                                                           null,
+                                                                                                           methodName),
+                                                                                 limitResultsByClassification,
+                                                                                 null);
+
+        for (EntityDetail  entity : candidateEntities)
         {
             if (entity != null)
             {
@@ -728,7 +1232,7 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
             }
         }
 
-        return repositoryHelper.formatEntityResults(foundEntities, fromEntityElement, sequencingProperty, sequencingOrder, pageSize);
+        return foundEntities.getResults();
     }
 
 
@@ -832,7 +1336,7 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
         /*
          * Perform operation
          */
-        Relationship  relationship = repositoryStore.timeWarpRelationshipStore(asOfTime).get(guid);
+        Relationship  relationship = repositoryStore.getRelationship(guid, asOfTime);
 
         repositoryValidator.validateRelationshipFromStore(repositoryName, guid, relationship, methodName);
         repositoryValidator.validateRelationshipIsNotDeleted(repositoryName, relationship, methodName);
@@ -841,6 +1345,92 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Relationship> areRelationshipsKnown(String        userId,
+                                                    List<String>  guids) throws InvalidParameterException,
+                                                                                RepositoryErrorException,
+                                                                                UserNotAuthorizedException
+    {
+        final String  methodName = "areRelationshipsKnown";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null)
+        {
+            return null;
+        }
+
+        /*
+         * Process operation
+         */
+        List<Relationship> relationships = new ArrayList<>();
+
+        for (String guid : guids)
+        {
+            Relationship relationship = repositoryStore.getRelationship(guid);
+
+            if (relationship != null)
+            {
+                relationships.add(relationship);
+            }
+        }
+
+        if (relationships.isEmpty())
+        {
+            return null;
+        }
+
+        return relationships;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Relationship> getRelationships(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           RelationshipNotKnownException,
+                                                                           UserNotAuthorizedException
+    {
+        final String  methodName = "getRelationships";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null)
+        {
+            return null;
+        }
+
+        /*
+         * Process operation
+         */
+        List<Relationship> relationships = new ArrayList<>();
+
+        for (String guid : guids)
+        {
+            Relationship  relationship = repositoryStore.getRelationship(guid);
+
+            repositoryValidator.validateRelationshipFromStore(repositoryName, guid, relationship, methodName);
+            repositoryValidator.validateRelationshipIsNotDeleted(repositoryName, relationship, methodName);
+
+            relationships.add(relationship);
+        }
+
+        return relationships;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -862,6 +1452,8 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
                                                                                             FunctionNotSupportedException,
                                                                                             UserNotAuthorizedException
     {
+        final String  methodName = "findRelationships";
+
         /*
          * Validate parameters
          */
@@ -880,17 +1472,82 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
         /*
          * Perform operation
          *
-         * This is a brute force implementation of locating a relationship since it iterates through all of
-         * the stored entities.
+         * The type index in the store narrows down the relationships to test.
+         */
+        OMRSResultCollector<Relationship> foundRelationships = repositoryHelper.getRelationshipResultCollector(fromRelationshipElement,
+                                                                                                               sequencingProperty,
+                                                                                                               sequencingOrder,
+                                                                                                               pageSize);
+        Collection<Relationship>   candidateRelationships = this.getCandidateRelationships(asOfTime,
+                                                                                           this.getTypeNamesForQuery(relationshipTypeGUID,
+                                                                                                                     relationshipSubtypeGUIDs,
+                                                                                                                     methodName));
+
+        for (Relationship  relationship : candidateRelationships)
+        {
+            if (relationship != null)
+            {
+                if ((relationship.getStatus() != InstanceStatus.DELETED) &&
+                        (repositoryValidator.verifyInstanceType(repositoryName, relationshipTypeGUID, relationshipSubtypeGUIDs, relationship)) &&
+                        (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, relationship)) &&
+                        (repositoryValidator.verifyMatchingInstancePropertyValues(matchProperties,
+                                relationship,
+                                relationship.getProperties()
+                        )))
+                {
+                    foundRelationships.add(relationship);
+                }
+            }
+        }
+
+        return foundRelationships.getResults();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countRelationships(String                    userId,
+                                  String                    relationshipTypeGUID,
+                                  List<String>              relationshipSubtypeGUIDs,
+                                  SearchProperties          matchProperties,
+                                  List<InstanceStatus>      limitResultsByStatus,
+                                  List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                      TypeErrorException,
+                                                                                                      RepositoryErrorException,
+                                                                                                      PropertyErrorException,
+                                                                                                      UserNotAuthorizedException
+    {
+        final String  methodName = "countRelationships";
+
+        /*
+         * Validate parameters
+         */
+        super.countRelationshipsParameterValidation(userId,
+                                                    relationshipTypeGUID,
+                                                    relationshipSubtypeGUIDs,
+                                                    matchProperties,
+                                                    methodName);
+
+        /*
+         * Perform operation
+         *
+         * The type index in the store narrows down the relationships to test.  The matching relationships
+         * are counted rather than collected.
          */
-        List<Relationship>         foundRelationships = new ArrayList<>();
-        Map<String, Relationship>  relationshipStore = repositoryStore.timeWarpRelationshipStore(asOfTime);
+        Collection<Relationship>   candidateRelationships = this.getCandidateRelationships(null,
+                                                                                           this.getTypeNamesForQuery(relationshipTypeGUID,
+                                                                                                                     relationshipSubtypeGUIDs,
+                                                                                                                     methodName));
+        int count = 0;
 
-        for (Relationship  relationship : relationshipStore.values())
+        for (Relationship  relationship : candidateRelationships)
         {
             if (relationship != null)
             {
                 if ((relationship.getStatus() != InstanceStatus.DELETED) &&
+                        (this.isCountedHome(relationship, excludedHomeMetadataCollectionIds)) &&
                         (repositoryValidator.verifyInstanceType(repositoryName, relationshipTypeGUID, relationshipSubtypeGUIDs, relationship)) &&
                         (repositoryValidator.verifyInstanceHasRightStatus(limitResultsByStatus, relationship)) &&
                         (repositoryValidator.verifyMatchingInstancePropertyValues(matchProperties,
@@ -898,16 +1555,28 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
                                 relationship.getProperties()
                         )))
                 {
-                    foundRelationships.add(relationship);
+                    count ++;
                 }
             }
         }
 
-        return repositoryHelper.formatRelationshipResults(foundRelationships,
-                fromRelationshipElement,
-                sequencingProperty,
-                sequencingOrder,
-                pageSize);
+        return count;
+    }
+
+
+    /**
+     * Return whether an instance is counted by the count methods: either there are no excluded metadata
+     * collections or the instance's home is not one of them.
+     *
+     * @param instance stored instance
+     * @param excludedHomeMetadataCollectionIds metadata collection ids of the homes of instances not to count
+     * @return boolean
+     */
+    private boolean isCountedHome(InstanceHeader instance,
+                                  List<String>   excludedHomeMetadataCollectionIds)
+    {
+        return (excludedHomeMetadataCollectionIds == null) ||
+               (! excludedHomeMetadataCollectionIds.contains(instance.getMetadataCollectionId()));
     }
 
 
@@ -985,13 +1654,18 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
         /*
          * Perform operation
          *
-         * This is a brute force implementation of locating a relationship since it iterates through all of
-         * the stored entities.
-         */
-        List<Relationship>         foundRelationships = new ArrayList<>();
-        Map<String, Relationship>  relationshipStore = repositoryStore.timeWarpRelationshipStore(asOfTime);
-
-        for (Relationship  relationship : relationshipStore.values())
+         * The type index in the store narrows down the relationships to test.
+         */
+        OMRSResultCollector<Relationship> foundRelationships = repositoryHelper.getRelationshipResultCollector(fromRelationshipElement,
+                                                                                                               sequencingProperty,
+                                                                                                               sequencingOrder,
+                                                                                                               pageSize);
+        Collection<Relationship>   candidateRelationships = this.getCandidateRelationships(asOfTime,
+                                                                                           this.getTypeNamesForQuery(relationshipTypeGUID,
+                                                                                                                     null,
+                                                                                                                     methodName));
+
+        for (Relationship  relationship : candidateRelationships)
         {
             if (relationship != null)
             {
@@ -1008,11 +1682,7 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
             }
         }
 
-        return repositoryHelper.formatRelationshipResults(foundRelationships,
-                                         fromRelationshipElement,
-                                         sequencingProperty,
-                                         sequencingOrder,
-                                         pageSize);
+        return foundRelationships.getResults();
     }
 
 
@@ -1084,12 +1754,18 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
         /*
          * Perform operation
          *
-         * This is a brute force implementation of locating a relationship since it iterates through all of
-         * the stored relationships.
-         */
-        List<Relationship>  foundRelationships = new ArrayList<>();
-
-        for (Relationship  relationship : repositoryStore.timeWarpRelationshipStore(asOfTime).values())
+         * The type index in the store narrows down the relationships to test.
+         */
+        OMRSResultCollector<Relationship> foundRelationships = repositoryHelper.getRelationshipResultCollector(fromRelationshipElement,
+                                                                                                               sequencingProperty,
+                                                                                                               sequencingOrder,
+                                                                                                               pageSize);
+        Collection<Relationship>  candidateRelationships = this.getCandidateRelationships(asOfTime,
+                                                                                          this.getTypeNamesForQuery(relationshipTypeGUID,
+                                                                                                                    null,
+                                                                                                                    methodName));
+
+        for (Relationship  relationship : candidateRelationships)
         {
             if (relationship != null)
             {
@@ -1106,11 +1782,7 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
             }
         }
 
-        return repositoryHelper.formatRelationshipResults(foundRelationships,
-                                         fromRelationshipElement,
-                                         sequencingProperty,
-                                         sequencingOrder,
-                                         pageSize);
+        return foundRelationships.getResults();
     }
 
 
@@ -2382,9 +3054,183 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
             relationship.setStatus(initialStatus);
         }
 
-        repositoryStore.createRelationshipInStore(relationship);
+        repositoryStore.createRelationshipInStore(relationship);
+
+        return relationship;
+    }
+
+
+    /**
+     * Add a batch of new entities and relationships.  The whole batch is validated before any instance is
+     * created, and the new instances are then added to the store under a single lock so other requests see
+     * either none or all of them.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param newInstances entities and relationships to add.
+     * @return the new entities and relationships in the same order as the batch.
+     * @throws InvalidParameterException one of the parameters is invalid or null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws TypeErrorException one of the requested types is not known, or not supported in the metadata
+     *                            repository hosting the metadata collection.
+     * @throws PropertyErrorException one or more of the requested properties are not defined, or have different
+     *                                characteristics in the TypeDef for the instance's type.
+     * @throws ClassificationErrorException one or more of the requested classifications are either not known or
+     *                                      not defined for the entity's type.
+     * @throws EntityNotKnownException one of the entities at the end of a relationship is not known in the
+     *                                 metadata collection or the batch.
+     * @throws StatusNotSupportedException the metadata repository hosting the metadata collection does not support
+     *                                     one of the requested statuses.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     * @throws FunctionNotSupportedException the repository does not support maintenance of metadata.
+     */
+    @Override
+    public InstanceGraph addEntitiesAndRelationships(String         userId,
+                                                     InstanceGraph  newInstances) throws InvalidParameterException,
+                                                                                         RepositoryErrorException,
+                                                                                         TypeErrorException,
+                                                                                         PropertyErrorException,
+                                                                                         ClassificationErrorException,
+                                                                                         EntityNotKnownException,
+                                                                                         StatusNotSupportedException,
+                                                                                         UserNotAuthorizedException,
+                                                                                         FunctionNotSupportedException
+    {
+        final String  methodName = "addEntitiesAndRelationships";
+
+        /*
+         * Validate parameters
+         */
+        super.basicRequestValidation(userId, methodName);
+        super.validateNewInstanceBatch(newInstances, methodName);
+
+        List<EntityDetail>       newEntities      = new ArrayList<>();
+        List<EntityProxy>        newEntityProxies = new ArrayList<>();
+        List<Relationship>       newRelationships = new ArrayList<>();
+        Map<String, EntityProxy> batchProxies     = new HashMap<>();
+
+        if (newInstances.getEntities() != null)
+        {
+            for (EntityDetail entity : newInstances.getEntities())
+            {
+                TypeDef typeDef = super.addEntityParameterValidation(userId,
+                                                                     super.getNewInstanceTypeGUID(entity),
+                                                                     entity.getProperties(),
+                                                                     entity.getClassifications(),
+                                                                     entity.getStatus(),
+                                                                     methodName);
+
+                EntityDetail newEntity = repositoryHelper.getNewEntity(repositoryName,
+                                                                       null,
+                                                                       InstanceProvenanceType.LOCAL_COHORT,
+                                                                       userId,
+                                                                       typeDef.getName(),
+                                                                       entity.getProperties(),
+                                                                       entity.getClassifications());
+                if (entity.getStatus() != null)
+                {
+                    newEntity.setStatus(entity.getStatus());
+                }
+
+                /*
+                 * The same proxy is used by the store and by each relationship in the batch that refers to the
+                 * new entity so that they all pick up any change to its GUID when it is stored.
+                 */
+                EntityProxy newEntityProxy = repositoryHelper.getNewEntityProxy(repositoryName, newEntity);
+
+                if (entity.getGUID() != null)
+                {
+                    batchProxies.put(entity.getGUID(), newEntityProxy);
+                }
+
+                newEntities.add(newEntity);
+                newEntityProxies.add(newEntityProxy);
+            }
+        }
+
+        if (newInstances.getRelationships() != null)
+        {
+            for (Relationship relationship : newInstances.getRelationships())
+            {
+                EntityProxy entityOneEnd = relationship.getEntityOneProxy();
+                EntityProxy entityTwoEnd = relationship.getEntityTwoProxy();
+                String      entityOneGUID = (entityOneEnd == null) ? null : entityOneEnd.getGUID();
+                String      entityTwoGUID = (entityTwoEnd == null) ? null : entityTwoEnd.getGUID();
+
+                TypeDef typeDef = super.addRelationshipParameterValidation(userId,
+                                                                           super.getNewInstanceTypeGUID(relationship),
+                                                                           relationship.getProperties(),
+                                                                           entityOneGUID,
+                                                                           entityTwoGUID,
+                                                                           relationship.getStatus(),
+                                                                           methodName);
+
+                Relationship newRelationship = repositoryHelper.getNewRelationship(repositoryName,
+                                                                                   null,
+                                                                                   InstanceProvenanceType.LOCAL_COHORT,
+                                                                                   userId,
+                                                                                   typeDef.getName(),
+                                                                                   relationship.getProperties());
+
+                EntityProxy entityOneProxy = this.getNewRelationshipEnd(entityOneGUID, batchProxies, methodName);
+                EntityProxy entityTwoProxy = this.getNewRelationshipEnd(entityTwoGUID, batchProxies, methodName);
+
+                repositoryValidator.validateRelationshipEnds(repositoryName, entityOneProxy, entityTwoProxy, typeDef, methodName);
+
+                newRelationship.setEntityOneProxy(entityOneProxy);
+                newRelationship.setEntityTwoProxy(entityTwoProxy);
+
+                if (relationship.getStatus() != null)
+                {
+                    newRelationship.setStatus(relationship.getStatus());
+                }
+
+                newRelationships.add(newRelationship);
+            }
+        }
+
+        /*
+         * Validation complete - ok to create the new instances
+         */
+        repositoryStore.createInstancesInStore(newEntities, newEntityProxies, newRelationships);
+
+        return new InstanceGraph(newEntities, newRelationships);
+    }
+
+
+    /**
+     * Return the proxy for the entity at one end of a new relationship.  This is either a new entity in the
+     * same batch or an entity that is already in the store.
+     *
+     * @param entityGUID unique identifier of the entity
+     * @param batchProxies proxies for the new entities in the batch, keyed on the guids set by the caller
+     * @param methodName calling method
+     * @return entity proxy
+     * @throws EntityNotKnownException the entity is not in the batch or the store, or it is deleted
+     * @throws RepositoryErrorException the stored entity is not valid
+     */
+    private EntityProxy getNewRelationshipEnd(String                   entityGUID,
+                                              Map<String, EntityProxy> batchProxies,
+                                              String                   methodName) throws EntityNotKnownException,
+                                                                                          RepositoryErrorException
+    {
+        EntityProxy entityProxy = batchProxies.get(entityGUID);
+
+        if (entityProxy == null)
+        {
+            entityProxy = repositoryStore.getEntityProxy(entityGUID);
+
+            if (entityProxy == null)
+            {
+                EntityDetail entityDetail = repositoryStore.getEntity(entityGUID);
+                entityProxy = repositoryHelper.getNewEntityProxy(repositoryName, entityDetail);
+            }
+
+            repositoryValidator.validateEntityFromStore(repositoryName, entityGUID, entityProxy, methodName);
+            repositoryValidator.validateEntityIsNotDeleted(repositoryName, entityProxy, methodName);
+        }
 
-        return relationship;
+        return entityProxy;
     }
 
 
@@ -3463,4 +4309,482 @@ public class InMemoryOMRSMetadataCollection extends OMRSDynamicTypeMetadataColle
             super.reportRelationshipNotKnown(relationshipGUID, methodName);
         }
     }
+
+
+    /**
+     * Save the entities and relationships supplied in the instance graph as a reference copies.
+     * The id of the home metadata collection is already set up in the instances.
+     * Any instances from the home metadata collection are ignored.  All of the instances are validated before
+     * any is saved, and they are then saved to the store together.
+     *
+     * @param userId unique identifier for requesting server.
+     * @param instances instances to save.
+     * @throws InvalidParameterException one of the instances is invalid.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws TypeErrorException the requested type is not known, or not supported in the metadata repository
+     *                            hosting the metadata collection.
+     * @throws EntityNotKnownException one of the entities identified by the relationship is not found in the
+     *                                   metadata collection.
+     * @throws PropertyErrorException one or more of the requested properties are not defined, or have different
+     *                                  characteristics in the TypeDef for this relationship's type.
+     * @throws EntityConflictException the new entity conflicts with an existing entity.
+     * @throws InvalidEntityException the new entity has invalid contents.
+     * @throws RelationshipConflictException the new relationship conflicts with an existing relationship.
+     * @throws InvalidRelationshipException the new relationship has invalid contents.
+     * @throws FunctionNotSupportedException the repository does not support reference copies of instances.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @Override
+    public void saveInstanceReferenceCopies(String          userId,
+                                            InstanceGraph   instances) throws InvalidParameterException,
+                                                                              RepositoryErrorException,
+                                                                              TypeErrorException,
+                                                                              EntityNotKnownException,
+                                                                              PropertyErrorException,
+                                                                              EntityConflictException,
+                                                                              RelationshipConflictException,
+                                                                              InvalidEntityException,
+                                                                              InvalidRelationshipException,
+                                                                              FunctionNotSupportedException,
+                                                                              UserNotAuthorizedException
+    {
+        final String  methodName = "saveInstanceReferenceCopies";
+
+        if (instances == null)
+        {
+            return;
+        }
+
+        List<EntityDetail>  referenceEntities      = new ArrayList<>();
+        List<Relationship>  referenceRelationships = new ArrayList<>();
+
+        /*
+         * Validate parameters
+         */
+        this.validateRepositoryConnector(methodName);
+        parentConnector.validateRepositoryIsActive(methodName);
+
+        if (instances.getEntities() != null)
+        {
+            for (EntityDetail entity : instances.getEntities())
+            {
+                if ((entity != null) && (! metadataCollectionId.equals(entity.getMetadataCollectionId())))
+                {
+                    repositoryValidator.validateReferenceInstanceHeader(repositoryName,
+                                                                        metadataCollectionId,
+                                                                        "entity",
+                                                                        entity,
+                                                                        methodName);
+                    referenceEntities.add(entity);
+                }
+            }
+        }
+
+        if (instances.getRelationships() != null)
+        {
+            for (Relationship relationship : instances.getRelationships())
+            {
+                if ((relationship != null) && (! metadataCollectionId.equals(relationship.getMetadataCollectionId())))
+                {
+                    super.referenceInstanceParameterValidation(userId, relationship, "relationship", methodName);
+                    referenceRelationships.add(relationship);
+                }
+            }
+        }
+
+        repositoryStore.saveReferenceInstancesToStore(referenceEntities, referenceRelationships);
+    }
+
+
+    /* ======================================================
+     * Private methods for using the indexes in the store
+     */
+
+    /**
+     * Return the names of the types that an instance must be one of to satisfy a query.  This is the requested
+     * type plus all of its subtypes or, if a list of subtypes is supplied, these subtypes and their subtypes.
+     *
+     * @param typeGUID unique identifier of the requested type (null means any type)
+     * @param subtypeGUIDs optional list of the subtypes to restrict the results to
+     * @param methodName calling method
+     * @return list of type names or null if the query is not restricted by type (or the type is not known)
+     */
+    private List<String> getTypeNamesForQuery(String       typeGUID,
+                                              List<String> subtypeGUIDs,
+                                              String       methodName)
+    {
+        final String  guidParameterName = "typeGUID";
+
+        List<String>  requiredTypeGUIDs = new ArrayList<>();
+
+        if (subtypeGUIDs != null)
+        {
+            requiredTypeGUIDs.addAll(subtypeGUIDs);
+        }
+        else if (typeGUID != null)
+        {
+            requiredTypeGUIDs.add(typeGUID);
+        }
+        else
+        {
+            return null;
+        }
+
+        List<String>  typeNames = new ArrayList<>();
+
+        try
+        {
+            for (String requiredTypeGUID : requiredTypeGUIDs)
+            {
+                TypeDef typeDef = repositoryHelper.getTypeDef(repositoryName, guidParameterName, requiredTypeGUID, methodName);
+
+                if ((typeDef == null) || (typeDef.getName() == null))
+                {
+                    return null;
+                }
+
+                typeNames.add(typeDef.getName());
+
+                List<String> subtypeNames = repositoryHelper.getSubTypesOf(repositoryName, typeDef.getName());
+
+                if (subtypeNames != null)
+                {
+                    typeNames.addAll(subtypeNames);
+                }
+            }
+        }
+        catch (TypeErrorException error)
+        {
+            /*
+             * The type is validated by the caller so this is unexpected.  The query falls back to testing
+             * every instance.
+             */
+            return null;
+        }
+
+        return typeNames;
+    }
+
+
+    /**
+     * Extract the values of the indexed properties that an entity must have exactly (case sensitive)
+     * if it is to match all of the supplied match properties.
+     *
+     * @param matchProperties properties to match (string values are regular expressions)
+     * @return map of property name to literal value or null if none of the properties can use the index
+     */
+    private Map<String, String> getExactPropertyValues(InstanceProperties   matchProperties)
+    {
+        Map<String, String>  exactPropertyValues = new HashMap<>();
+
+        if ((matchProperties != null) && (matchProperties.getInstanceProperties() != null))
+        {
+            for (String propertyName : matchProperties.getInstanceProperties().keySet())
+            {
+                String literalValue = this.getLiteralValue(propertyName,
+                                                           matchProperties.getPropertyValue(propertyName),
+                                                           true);
+
+                if (literalValue != null)
+                {
+                    exactPropertyValues.put(propertyName, literalValue);
+                }
+            }
+        }
+
+        if (exactPropertyValues.isEmpty())
+        {
+            return null;
+        }
+
+        return exactPropertyValues;
+    }
+
+
+    /**
+     * Extract the values of the indexed properties that an entity must have exactly (case sensitive)
+     * if it is to match the supplied search properties.  Only conditions that must all be satisfied are used.
+     *
+     * @param matchProperties search properties
+     * @return map of property name to literal value or null if none of the conditions can use the index
+     */
+    private Map<String, String> getExactPropertyValues(SearchProperties   matchProperties)
+    {
+        Map<String, String>  exactPropertyValues = new HashMap<>();
+
+        if ((matchProperties != null) &&
+            (matchProperties.getMatchCriteria() == MatchCriteria.ALL) &&
+            (matchProperties.getConditions() != null))
+        {
+            for (PropertyCondition condition : matchProperties.getConditions())
+            {
+                if ((condition != null) && (condition.getProperty() != null))
+                {
+                    String literalValue = null;
+
+                    if (condition.getOperator() == PropertyComparisonOperator.EQ)
+                    {
+                        literalValue = this.getLiteralValue(condition.getProperty(), condition.getValue(), false);
+                    }
+                    else if (condition.getOperator() == PropertyComparisonOperator.LIKE)
+                    {
+                        literalValue = this.getLiteralValue(condition.getProperty(), condition.getValue(), true);
+                    }
+
+                    if (literalValue != null)
+                    {
+                        exactPropertyValues.put(condition.getProperty(), literalValue);
+                    }
+                }
+            }
+        }
+
+        if (exactPropertyValues.isEmpty())
+        {
+            return null;
+        }
+
+        return exactPropertyValues;
+    }
+
+
+    /**
+     * Return the literal string that an indexed property must be equal to if it is to match the supplied value.
+     *
+     * @param propertyName name of the property
+     * @param matchValue value to match
+     * @param isRegex is the match value a regular expression
+     * @return literal string or null if the value can not be matched through the index
+     */
+    private String getLiteralValue(String                propertyName,
+                                   InstancePropertyValue matchValue,
+                                   boolean               isRegex)
+    {
+        if ((InMemoryOMRSMetadataStore.isIndexedProperty(propertyName)) &&
+            (matchValue instanceof PrimitivePropertyValue) &&
+            (((PrimitivePropertyValue) matchValue).getPrimitiveValue() instanceof String))
+        {
+            String  value = (String) ((PrimitivePropertyValue) matchValue).getPrimitiveValue();
+
+            if (! isRegex)
+            {
+                return value;
+            }
+
+            if (repositoryHelper.isExactMatchRegex(value, false))
+            {
+                return repositoryHelper.getUnqualifiedLiteralString(value);
+            }
+
+            if (! value.matches(".*[\\\\\\[\\](){}.*+?^$|].*"))
+            {
+                /*
+                 * No regular expression characters so the value matches itself only.
+                 */
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Return the entities that could satisfy a query.  The indexes in the store narrow down the candidates.
+     * Historical queries use the history indexes and look up the version of each candidate at the time of the query.
+     *
+     * @param asOfTime time of the query (null means now)
+     * @param typeNames names of the types the entity must be one of (null means any type)
+     * @param classificationNames the entity must have at least one of these classifications (null means any)
+     * @param exactPropertyValues values that the entity's properties must have (null means no restriction)
+     * @return candidate entities
+     */
+    private Collection<EntityDetail> getCandidateEntities(Date                 asOfTime,
+                                                          List<String>         typeNames,
+                                                          List<String>         classificationNames,
+                                                          Map<String, String>  exactPropertyValues)
+    {
+        Set<String>  candidateGUIDs = null;
+
+        if (typeNames != null)
+        {
+            candidateGUIDs = this.retainCandidates(candidateGUIDs, repositoryStore.getEntityGUIDsByType(typeNames, asOfTime));
+        }
+
+        if (classificationNames != null)
+        {
+            candidateGUIDs = this.retainCandidates(candidateGUIDs,
+                                                   repositoryStore.getEntityGUIDsByClassification(classificationNames, asOfTime));
+        }
+
+        if (exactPropertyValues != null)
+        {
+            for (String propertyName : exactPropertyValues.keySet())
+            {
+                candidateGUIDs = this.retainCandidates(candidateGUIDs,
+                                                       repositoryStore.getEntityGUIDsByPropertyValue(propertyName,
+                                                                                                     exactPropertyValues.get(propertyName),
+                                                                                                     asOfTime));
+            }
+        }
+
+        if ((candidateGUIDs == null) && (asOfTime == null))
+        {
+            return repositoryStore.timeWarpEntityStore(null).values();
+        }
+
+        return repositoryStore.getEntities(candidateGUIDs, asOfTime);
+    }
+
+
+    /**
+     * Return the entities that could satisfy a query with search classifications.
+     *
+     * @param asOfTime time of the query (null means now)
+     * @param typeNames names of the types the entity must be one of (null means any type)
+     * @param matchClassifications classifications to match
+     * @param exactPropertyValues values that the entity's properties must have (null means no restriction)
+     * @return candidate entities
+     */
+    private Collection<EntityDetail> getCandidateEntities(Date                  asOfTime,
+                                                          List<String>          typeNames,
+                                                          SearchClassifications matchClassifications,
+                                                          Map<String, String>   exactPropertyValues)
+    {
+        if ((matchClassifications != null) && (matchClassifications.getConditions() != null))
+        {
+            List<String>  classificationNames = new ArrayList<>();
+
+            for (ClassificationCondition condition : matchClassifications.getConditions())
+            {
+                if ((condition != null) && (condition.getName() != null))
+                {
+                    classificationNames.add(condition.getName());
+                }
+            }
+
+            if (matchClassifications.getMatchCriteria() == MatchCriteria.ANY)
+            {
+                return this.getCandidateEntities(asOfTime, typeNames, classificationNames, exactPropertyValues);
+            }
+            else if ((matchClassifications.getMatchCriteria() == MatchCriteria.ALL) && (! classificationNames.isEmpty()))
+            {
+                /*
+                 * The entity must have every classification so start with the entities that have the first one.
+                 * The validation of each candidate checks the others.
+                 */
+                return this.getCandidateEntities(asOfTime, typeNames, classificationNames.subList(0, 1), exactPropertyValues);
+            }
+        }
+
+        return this.getCandidateEntities(asOfTime, typeNames, (List<String>) null, exactPropertyValues);
+    }
+
+
+    /**
+     * Return the number of candidate instances to read from an index at a time during a cursor-based search.
+     *
+     * @param pageSize page size requested (zero means unrestricted)
+     * @return number of candidates
+     */
+    private int getCursorBatchSize(int pageSize)
+    {
+        final int defaultBatchSize = 1000;
+
+        if (pageSize > 0)
+        {
+            return pageSize;
+        }
+
+        return defaultBatchSize;
+    }
+
+
+    /**
+     * Return, in ascending order, the unique identifiers of the entities after the supplied unique identifier that
+     * could satisfy a cursor-based query.  A single sorted index is used to supply the candidates - an exact
+     * property value is likely to be the most selective, followed by the classifications and then the types.
+     *
+     * @param typeNames names of the types the entity must be one of (null means any type)
+     * @param classificationNames the entity must have at least one of these classifications (null means any)
+     * @param exactPropertyValues values that the entity's properties must have (null means no restriction)
+     * @param afterGUID only return unique identifiers that sort after this one (null means from the start)
+     * @param maxGUIDs maximum number of unique identifiers to return
+     * @return list of candidate entity GUIDs
+     */
+    private List<String> getCandidateEntityGUIDsAfter(List<String>         typeNames,
+                                                      List<String>         classificationNames,
+                                                      Map<String, String>  exactPropertyValues,
+                                                      String               afterGUID,
+                                                      int                  maxGUIDs)
+    {
+        if (exactPropertyValues != null)
+        {
+            String propertyName = exactPropertyValues.keySet().iterator().next();
+
+            return repositoryStore.getEntityGUIDsByPropertyValueAfter(propertyName,
+                                                                      exactPropertyValues.get(propertyName),
+                                                                      afterGUID,
+                                                                      maxGUIDs);
+        }
+
+        if (classificationNames != null)
+        {
+            return repositoryStore.getEntityGUIDsByClassificationAfter(classificationNames, afterGUID, maxGUIDs);
+        }
+
+        return repositoryStore.getEntityGUIDsByTypeAfter(typeNames, afterGUID, maxGUIDs);
+    }
+
+
+    /**
+     * Return the relationships that could satisfy a query.  The type index in the store narrows down the candidates.
+     * Historical queries use the history index and look up the version of each candidate at the time of the query.
+     *
+     * @param asOfTime time of the query (null means now)
+     * @param typeNames names of the types the relationship must be one of (null means any type)
+     * @return candidate relationships
+     */
+    private Collection<Relationship> getCandidateRelationships(Date          asOfTime,
+                                                               List<String>  typeNames)
+    {
+        if (typeNames == null)
+        {
+            if (asOfTime == null)
+            {
+                return repositoryStore.timeWarpRelationshipStore(null).values();
+            }
+
+            return repositoryStore.getRelationships(null, asOfTime);
+        }
+
+        return repositoryStore.getRelationships(repositoryStore.getRelationshipGUIDsByType(typeNames, asOfTime), asOfTime);
+    }
+
+
+    /**
+     * Intersect the current set of candidates with the GUIDs returned from an index.
+     *
+     * @param candidateGUIDs current candidates (null means all instances)
+     * @param indexGUIDs GUIDs from the index (null means the index could not be used)
+     * @return resulting candidates
+     */
+    private Set<String> retainCandidates(Set<String>  candidateGUIDs,
+                                         Set<String>  indexGUIDs)
+    {
+        if (indexGUIDs == null)
+        {
+            return candidateGUIDs;
+        }
+
+        if (candidateGUIDs == null)
+        {
+            return new HashSet<>(indexGUIDs);
+        }
+
+        candidateGUIDs.retainAll(indexGUIDs);
+
+        return candidateGUIDs;
+    }
 }
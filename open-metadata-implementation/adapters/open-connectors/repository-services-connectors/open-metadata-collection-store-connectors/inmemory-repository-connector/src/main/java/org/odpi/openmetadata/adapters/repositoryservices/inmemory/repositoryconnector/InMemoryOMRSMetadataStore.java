@@ -3,25 +3,93 @@
 package org.odpi.openmetadata.adapters.repositoryservices.inmemory.repositoryconnector;
 
 
+import org.odpi.openmetadata.adapters.repositoryservices.inmemory.repositoryconnector.InMemoryOMRSPersistenceLog.LogRecord;
+import org.odpi.openmetadata.adapters.repositoryservices.inmemory.repositoryconnector.InMemoryOMRSPersistenceLog.RecordType;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Classification;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityProxy;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceHeader;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceProperties;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePropertyCategory;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePropertyValue;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceType;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.PrimitivePropertyValue;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Relationship;
-import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.AttributeTypeDef;
-import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDef;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.OMRSLogicErrorException;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * InMemoryOMRSMetadataStore provides the in memory stores for the InMemoryRepositoryConnector
+ * InMemoryOMRSMetadataStore provides the in memory stores for the InMemoryRepositoryConnector.
+ *
+ * As well as the stores of the current instances, it maintains secondary indexes over them: type name to instances,
+ * classification name to entities, entity to its relationships (adjacency) and an exact-value index over the
+ * commonly searched string properties.  The indexes only cover the current versions of the instances.
+ * They are used to reduce the number of candidate instances that a query must validate - the caller still
+ * validates each candidate that is returned.
+ *
+ * The previous versions of each instance are held in a version chain for its GUID, ordered by the time each version
+ * was last updated.  Historical (asOfTime) requests use a binary search of the chain to find the version that was
+ * active at the requested time.  Current-state requests are served from a read-only view of the active store
+ * rather than a copy.
+ *
+ * Access to the store is controlled by a read/write lock.  Any number of requests can read the store at the same time.
+ * Updates are made one at a time and wait for the reads in progress to complete.  The caller is responsible for
+ * checking the version of an instance before it is updated.
+ *
+ * If a persistence log is supplied, each change to the store is recorded in the log while the write lock is held,
+ * before the change is made, so a change that can not be logged is not made.  The log is replayed into the store
+ * when it is opened.  Snapshots of the store are written by a background thread from a copy of the store taken
+ * under the read lock.
  */
 class InMemoryOMRSMetadataStore
 {
+    /*
+     * Names of the string properties that have an exact-value index.
+     */
+    private static final Set<String> INDEXED_PROPERTY_NAMES = new HashSet<>(Arrays.asList("qualifiedName",
+                                                                                          "name",
+                                                                                          "displayName"));
+
+    private static final String PROPERTY_KEY_SEPARATOR = "=";
+
     private String                                 repositoryName           = null;
-    private volatile Map<String, EntityDetail>     entityStore              = new HashMap<>();
-    private volatile Map<String, EntityProxy>      entityProxyStore         = new HashMap<>();
-    private volatile List<EntityDetail>            entityHistoryStore       = new ArrayList<>();
-    private volatile Map<String, Relationship>     relationshipStore        = new HashMap<>();
-    private volatile List<Relationship>            relationshipHistoryStore = new ArrayList<>();
+    private volatile Map<String, EntityDetail>       entityStore              = new ConcurrentHashMap<>();
+    private volatile Map<String, EntityProxy>        entityProxyStore         = new HashMap<>();
+    private volatile Map<String, List<EntityDetail>> entityHistoryStore       = new HashMap<>();
+    private volatile Map<String, Relationship>       relationshipStore        = new ConcurrentHashMap<>();
+    private volatile Map<String, List<Relationship>> relationshipHistoryStore = new HashMap<>();
+
+    private InMemoryOMRSInstanceIndex              entityTypeIndex           = new InMemoryOMRSInstanceIndex();
+    private InMemoryOMRSInstanceIndex              entityClassificationIndex = new InMemoryOMRSInstanceIndex();
+    private InMemoryOMRSInstanceIndex              entityPropertyIndex       = new InMemoryOMRSInstanceIndex();
+    private InMemoryOMRSInstanceIndex              relationshipTypeIndex     = new InMemoryOMRSInstanceIndex();
+    private InMemoryOMRSInstanceIndex              relationshipEndIndex      = new InMemoryOMRSInstanceIndex();
+
+    /*
+     * The history indexes hold every key that any version of an instance has had.  They supply the candidates
+     * for historical queries.  Versions are never removed from the history so neither are their keys.
+     */
+    private InMemoryOMRSInstanceIndex              entityHistoryTypeIndex           = new InMemoryOMRSInstanceIndex();
+    private InMemoryOMRSInstanceIndex              entityHistoryClassificationIndex = new InMemoryOMRSInstanceIndex();
+    private InMemoryOMRSInstanceIndex              entityHistoryPropertyIndex       = new InMemoryOMRSInstanceIndex();
+    private InMemoryOMRSInstanceIndex              relationshipHistoryTypeIndex     = new InMemoryOMRSInstanceIndex();
+    private InMemoryOMRSInstanceIndex              relationshipHistoryEndIndex      = new InMemoryOMRSInstanceIndex();
+
+    private final ReentrantReadWriteLock           storeLock = new ReentrantReadWriteLock();
+    private final Lock                             readLock  = storeLock.readLock();
+    private final Lock                             writeLock = storeLock.writeLock();
+
+    /*
+     * Sequence number of the last log record of the calling thread's change that is not yet synced to disk.
+     */
+    private final ThreadLocal<Long>                pendingSync = new ThreadLocal<>();
+
+    private InMemoryOMRSPersistenceLog             persistenceLog = null;
+    private volatile Thread                        snapshotThread = null;
 
 
     /**
@@ -48,9 +116,18 @@ class InMemoryOMRSMetadataStore
      *
      * @return list of EntityDetail objects
      */
-    synchronized List<EntityDetail>   getEntities()
+    List<EntityDetail>   getEntities()
     {
-        return new ArrayList<>(entityStore.values());
+        readLock.lock();
+
+        try
+        {
+            return new ArrayList<>(entityStore.values());
+        }
+        finally
+        {
+            readLock.unlock();
+        }
     }
 
 
@@ -60,518 +137,1935 @@ class InMemoryOMRSMetadataStore
      * @param guid - unique identifier for the entity
      * @return entity object
      */
-    synchronized EntityDetail  getEntity(String   guid)
+    EntityDetail  getEntity(String   guid)
     {
-        return entityStore.get(guid);
-    }
+        readLock.lock();
 
-
-    /**
-     * Return the entity proxy identified by the guid.
-     *
-     * @param guid - unique identifier
-     * @return entity proxy object
-     */
-    synchronized EntityProxy  getEntityProxy(String   guid)
-    {
-        return entityProxyStore.get(guid);
+        try
+        {
+            return entityStore.get(guid);
+        }
+        finally
+        {
+            readLock.unlock();
+        }
     }
 
 
     /**
-     * Return an entity store that contains entities as they were at the time supplied in the asOfTime
-     * parameter
+     * Return the entities identified by a list of guids.
      *
-     * @param asOfTime - time for the store (or null means now)
-     * @return entity store for the requested time
+     * @param guids unique identifiers
+     * @return map from guid to entity for each entity that is stored
      */
-    synchronized Map<String, EntityDetail>  timeWarpEntityStore(Date         asOfTime)
+    Map<String, EntityDetail> getEntityMap(List<String>   guids)
     {
-        if (asOfTime == null)
-        {
-            return new HashMap<>(entityStore);
-        }
+        Map<String, EntityDetail> entities = new HashMap<>();
 
-        Map<String, EntityDetail>  timeWarpedEntityStore = new HashMap<>();
+        readLock.lock();
 
-        /*
-         * First step through the current relationship store and extract all of the relationships that were
-         * last updated before the asOfTime.
-         */
-        for (EntityDetail  entity : entityStore.values())
+        try
         {
-            if (entity != null)
+            for (String guid : guids)
             {
-                if (entity.getUpdateTime() != null)
-                {
-                    String entityGUID = entity.getGUID();
+                EntityDetail entity = entityStore.get(guid);
 
-                    if (entityGUID != null)
-                    {
-                        if (! entity.getUpdateTime().after(asOfTime))
-                        {
-                            timeWarpedEntityStore.put(entityGUID, entity);
-                        }
-                    }
-                }
-                else if (entity.getCreateTime() != null)
+                if (entity != null)
                 {
-                    if (! entity.getCreateTime().after(asOfTime))
-                    {
-                        timeWarpedEntityStore.put(entity.getGUID(), entity);
-                    }
+                    entities.put(guid, entity);
                 }
             }
         }
-
-        /*
-         * Now step through the history store picking up the versions of other entities that were active
-         * at the time of the asOfTime.
-         */
-        for (EntityDetail oldEntity : entityHistoryStore)
+        finally
         {
-            if (oldEntity != null)
-            {
-                String entityGUID = oldEntity.getGUID();
-
-                if (oldEntity.getUpdateTime() != null)
-                {
-                    if (! oldEntity.getUpdateTime().after(asOfTime))
-                    {
-                        EntityDetail newerEntity = timeWarpedEntityStore.put(entityGUID, oldEntity);
-
-                        if (newerEntity != null)
-                        {
-                            timeWarpedEntityStore.put(entityGUID, newerEntity);
-                        }
-                        break;
-                    }
-                }
-                else if (oldEntity.getCreateTime() != null)
-                {
-                    if (! oldEntity.getCreateTime().after(asOfTime))
-                    {
-                        timeWarpedEntityStore.put(entityGUID, oldEntity);
-                        break;
-                    }
-                }
-            }
+            readLock.unlock();
         }
 
-        return timeWarpedEntityStore;
+        return entities;
     }
 
 
     /**
-     * Return the list of relationships at their current level.
+     * Return the entity proxy identified by the guid.
      *
-     * @return list of relationships
+     * @param guid - unique identifier
+     * @return entity proxy object
      */
-    synchronized List<Relationship>   getRelationships()
+    EntityProxy  getEntityProxy(String   guid)
     {
-        return new ArrayList<>(relationshipStore.values());
+        readLock.lock();
+
+        try
+        {
+            return entityProxyStore.get(guid);
+        }
+        finally
+        {
+            readLock.unlock();
+        }
     }
 
 
     /**
-     * Return the relationship identified by the guid.
+     * Return the current versions of the requested entities.  Unknown GUIDs are skipped.
      *
-     * @param guid - unique identifier for the relationship
-     * @return relationship object
+     * @param guids unique identifiers for the entities
+     * @return list of entity objects
      */
-    protected synchronized Relationship  getRelationship(String   guid)
+    List<EntityDetail>  getEntities(Collection<String>   guids)
     {
-        return relationshipStore.get(guid);
-    }
+        readLock.lock();
 
-    /**
-     * Return a relationship store that contains relationships as they were at the time supplied in the asOfTime
-     * parameter
-     *
-     * @param asOfTime - time for the store (or null means now)
-     * @return relationship store for the requested time
-     */
-    synchronized Map<String, Relationship>  timeWarpRelationshipStore(Date         asOfTime)
-    {
-        if (asOfTime == null)
+        try
         {
-            return new HashMap<>(relationshipStore);
-        }
-
-        Map<String, Relationship>  timeWarpedRelationshipStore = new HashMap<>();
+            List<EntityDetail>  entities = new ArrayList<>();
 
-
-        /*
-         * First step through the current relationship store and extract all of the relationships that were
-         * last updated before the asOfTime.
-         */
-        for (Relationship  relationship : relationshipStore.values())
-        {
-            if (relationship != null)
+            if (guids != null)
             {
-                if (relationship.getUpdateTime() != null)
+                for (String guid : guids)
                 {
-                    String relationshipGUID = relationship.getGUID();
+                    EntityDetail entity = entityStore.get(guid);
 
-                    if (relationshipGUID != null)
-                    {
-                        if (! relationship.getUpdateTime().after(asOfTime))
-                        {
-                            timeWarpedRelationshipStore.put(relationshipGUID, relationship);
-                        }
-                    }
-                }
-                else if (relationship.getCreateTime() != null)
-                {
-                    if (! relationship.getCreateTime().after(asOfTime))
+                    if (entity != null)
                     {
-                        timeWarpedRelationshipStore.put(relationship.getGUID(), relationship);
+                        entities.add(entity);
                     }
                 }
             }
-        }
 
-        /*
-         * Now step through the history store picking up the versions of other relationships that were active
-         * at the time of the asOfTime.
-         */
-        for (Relationship oldRelationship : relationshipHistoryStore)
+            return entities;
+        }
+        finally
         {
-            if (oldRelationship != null)
-            {
-                String relationshipGUID = oldRelationship.getGUID();
-
-                if (oldRelationship.getUpdateTime() != null)
-                {
-                    if (! oldRelationship.getUpdateTime().after(asOfTime))
-                    {
-                        Relationship newerRelationship = timeWarpedRelationshipStore.put(relationshipGUID, oldRelationship);
-
-                        if (newerRelationship != null)
-                        {
-                            timeWarpedRelationshipStore.put(relationshipGUID, newerRelationship);
-                        }
-                        break;
-                    }
-                }
-                else if (oldRelationship.getCreateTime() != null)
-                {
-                    if (! oldRelationship.getCreateTime().after(asOfTime))
-                    {
-                        timeWarpedRelationshipStore.put(relationshipGUID, oldRelationship);
-                        break;
-                    }
-                }
-            }
+            readLock.unlock();
         }
+    }
+
 
-        return timeWarpedRelationshipStore;
+    /**
+     * Return the unique identifiers of the entities whose type is one of the supplied type names.
+     *
+     * @param typeNames list of type names - typically a type and all of its subtypes
+     * @return set of entity GUIDs
+     */
+    Set<String>  getEntityGUIDsByType(Collection<String>   typeNames)
+    {
+        return this.getEntityGUIDsByType(typeNames, null);
     }
 
+
     /**
-     * Create a new entity in the entity store.
+     * Return the unique identifiers of the entities whose type is one of the supplied type names.  For a
+     * historical query, these are the entities that had one of the types in any of their versions.
      *
-     * @param entity - new version of the entity
-     * @return entity with potentially updated GUID
+     * @param typeNames list of type names - typically a type and all of its subtypes
+     * @param asOfTime time of the query (null means now)
+     * @return set of entity GUIDs
      */
-    synchronized EntityDetail createEntityInStore(EntityDetail    entity)
+    Set<String>  getEntityGUIDsByType(Collection<String>   typeNames,
+                                      Date                 asOfTime)
     {
-        /*
-         * There is a small chance the randomly generated GUID will clash with an existing relationship.
-         * If this happens a new GUID is generated for the relationship and the process repeats.
-         */
-        EntityDetail existingEntity = entityStore.put(entity.getGUID(), entity);
+        readLock.lock();
+
+        try
+        {
+            if (asOfTime == null)
+            {
+                return entityTypeIndex.getInstanceGUIDs(typeNames);
+            }
 
-        while (existingEntity != null)
+            return entityHistoryTypeIndex.getInstanceGUIDs(typeNames);
+        }
+        finally
         {
-            entity.setGUID(UUID.randomUUID().toString());
-            existingEntity = entityStore.put(entity.getGUID(), entity);
+            readLock.unlock();
         }
+    }
 
-        return entity;
+
+    /**
+     * Return the unique identifiers of the entities that have at least one of the supplied classifications.
+     *
+     * @param classificationNames list of classification names
+     * @return set of entity GUIDs
+     */
+    Set<String>  getEntityGUIDsByClassification(Collection<String>   classificationNames)
+    {
+        return this.getEntityGUIDsByClassification(classificationNames, null);
     }
 
 
     /**
-     * Create a new relationship in the relationship store.
+     * Return the unique identifiers of the entities that have at least one of the supplied classifications.
+     * For a historical query, these are the entities that had one of the classifications in any of their versions.
      *
-     * @param relationship - new version of the relationship
-     * @return relationship with potentially updated GUID
+     * @param classificationNames list of classification names
+     * @param asOfTime time of the query (null means now)
+     * @return set of entity GUIDs
      */
-    synchronized Relationship createRelationshipInStore(Relationship    relationship)
+    Set<String>  getEntityGUIDsByClassification(Collection<String>   classificationNames,
+                                                Date                 asOfTime)
     {
-        /*
-         * There is a small chance the randomly generated GUID will clash with an existing relationship.
-         * If this happens a new GUID is generated for the relationship and the process repeats.
-         */
-        Relationship existingRelationship = relationshipStore.put(relationship.getGUID(), relationship);
+        readLock.lock();
 
-        while (existingRelationship != null)
+        try
         {
-            relationship.setGUID(UUID.randomUUID().toString());
-            existingRelationship = relationshipStore.put(relationship.getGUID(), relationship);
-        }
+            if (asOfTime == null)
+            {
+                return entityClassificationIndex.getInstanceGUIDs(classificationNames);
+            }
 
-        return relationship;
+            return entityHistoryClassificationIndex.getInstanceGUIDs(classificationNames);
+        }
+        finally
+        {
+            readLock.unlock();
+        }
     }
 
 
     /**
-     * Save an entity proxy to the entity store.
+     * Return the unique identifiers of the entities that have a string property with exactly the supplied value.
      *
-     * @param entityProxy - entity proxy object to add
+     * @param propertyName name of the property - this must be one of the indexed properties
+     * @param propertyValue value of the property
+     * @return set of entity GUIDs or null if the property is not indexed
      */
-    synchronized void addEntityProxyToStore(EntityProxy    entityProxy)
+    Set<String>  getEntityGUIDsByPropertyValue(String   propertyName,
+                                               String   propertyValue)
     {
-        entityProxyStore.put(entityProxy.getGUID(), entityProxy);
+        return this.getEntityGUIDsByPropertyValue(propertyName, propertyValue, null);
     }
 
 
     /**
-     * Maintain a history of entities as they are stored into the entity store to ensure old version can be restored.
-     * The history is maintained with the latest changes first in the list.
+     * Return the unique identifiers of the entities that have a string property with exactly the supplied value.
+     * For a historical query, these are the entities that had the value in any of their versions.
      *
-     * @param entity - new version of the entity
+     * @param propertyName name of the property - this must be one of the indexed properties
+     * @param propertyValue value of the property
+     * @param asOfTime time of the query (null means now)
+     * @return set of entity GUIDs or null if the property is not indexed
      */
-    synchronized void updateEntityInStore(EntityDetail    entity)
+    Set<String>  getEntityGUIDsByPropertyValue(String   propertyName,
+                                               String   propertyValue,
+                                               Date     asOfTime)
     {
-        EntityDetail    oldEntity = entityStore.put(entity.getGUID(), entity);
+        readLock.lock();
 
-        if (oldEntity != null)
+        try
+        {
+            if (isIndexedProperty(propertyName))
+            {
+                if (asOfTime == null)
+                {
+                    return entityPropertyIndex.getInstanceGUIDs(getPropertyKey(propertyName, propertyValue));
+                }
+
+                return entityHistoryPropertyIndex.getInstanceGUIDs(getPropertyKey(propertyName, propertyValue));
+            }
+
+            return null;
+        }
+        finally
         {
-            entityHistoryStore.add(0, oldEntity);
+            readLock.unlock();
         }
     }
 
 
     /**
-     * Update an entity proxy in the proxy store.
+     * Return, in ascending order, the unique identifiers of the entities whose type is one of the supplied type
+     * names that sort after the supplied unique identifier.  This is used by cursor-based searches.
      *
-     * @param entityProxy - entity proxy object to add
+     * @param typeNames list of type names - typically a type and all of its subtypes (null means all entities)
+     * @param afterGUID only return unique identifiers that sort after this one (null means from the start)
+     * @param maxGUIDs maximum number of unique identifiers to return
+     * @return list of entity GUIDs
      */
-    synchronized void updateEntityProxyInStore(EntityProxy    entityProxy)
+    List<String>  getEntityGUIDsByTypeAfter(Collection<String>   typeNames,
+                                            String               afterGUID,
+                                            int                  maxGUIDs)
     {
-        entityProxyStore.put(entityProxy.getGUID(), entityProxy);
+        readLock.lock();
+
+        try
+        {
+            return entityTypeIndex.getInstanceGUIDsAfter(typeNames, afterGUID, maxGUIDs);
+        }
+        finally
+        {
+            readLock.unlock();
+        }
     }
 
 
     /**
-     * Maintain a history of relationships as they are stored into the relationship store to ensure old version
-     * can be restored.  The history is maintained with the latest changes first in the list.
+     * Return, in ascending order, the unique identifiers of the entities that have at least one of the supplied
+     * classifications that sort after the supplied unique identifier.  This is used by cursor-based searches.
      *
-     * @param relationship - new version of the relationship
+     * @param classificationNames list of classification names
+     * @param afterGUID only return unique identifiers that sort after this one (null means from the start)
+     * @param maxGUIDs maximum number of unique identifiers to return
+     * @return list of entity GUIDs
      */
-    synchronized void updateRelationshipInStore(Relationship    relationship)
+    List<String>  getEntityGUIDsByClassificationAfter(Collection<String>   classificationNames,
+                                                      String               afterGUID,
+                                                      int                  maxGUIDs)
     {
+        readLock.lock();
 
-        Relationship    oldRelationship = relationshipStore.put(relationship.getGUID(), relationship);
-
-        if (oldRelationship != null)
+        try
+        {
+            return entityClassificationIndex.getInstanceGUIDsAfter(classificationNames, afterGUID, maxGUIDs);
+        }
+        finally
         {
-            relationshipHistoryStore.add(0, oldRelationship);
+            readLock.unlock();
         }
     }
 
 
     /**
-     * Save a reference copy of an entity to the active store.  Reference copies are not maintained in the
-     * history store.
+     * Return, in ascending order, the unique identifiers of the entities that have a string property with exactly
+     * the supplied value that sort after the supplied unique identifier.  This is used by cursor-based searches.
      *
-     * @param entity - object to save
+     * @param propertyName name of the property - this must be one of the indexed properties
+     * @param propertyValue value of the property
+     * @param afterGUID only return unique identifiers that sort after this one (null means from the start)
+     * @param maxGUIDs maximum number of unique identifiers to return
+     * @return list of entity GUIDs
      */
-    synchronized void saveReferenceEntityToStore(EntityDetail    entity)
+    List<String>  getEntityGUIDsByPropertyValueAfter(String   propertyName,
+                                                     String   propertyValue,
+                                                     String   afterGUID,
+                                                     int      maxGUIDs)
     {
-        entityStore.put(entity.getGUID(), entity);
+        readLock.lock();
+
+        try
+        {
+            return entityPropertyIndex.getInstanceGUIDsAfter(Collections.singletonList(getPropertyKey(propertyName, propertyValue)),
+                                                             afterGUID,
+                                                             maxGUIDs);
+        }
+        finally
+        {
+            readLock.unlock();
+        }
     }
 
 
     /**
-     * Save a reference copy of a relationship to the active store.  Reference copies are not maintained in the
-     * history store.
+     * Return whether the named property has an exact-value index.
      *
-     * @param relationship - object to save
+     * @param propertyName name of the property
+     * @return boolean
      */
-    synchronized void saveReferenceRelationshipToStore(Relationship    relationship)
+    static boolean isIndexedProperty(String   propertyName)
     {
-        relationshipStore.put(relationship.getGUID(), relationship);
+        return INDEXED_PROPERTY_NAMES.contains(propertyName);
     }
 
 
     /**
-     * Retrieve the previous version of a Relationship.  This is the first instance of this element that
-     * appears in the history.
+     * Return the entity identified by the guid as it was at the time supplied in the asOfTime parameter.
      *
-     * @param guid - unique identifier for the required element
-     * @return - previous version of this relationship - or null if not found
+     * @param guid - unique identifier for the entity
+     * @param asOfTime - time for the entity (or null means now)
+     * @return entity object or null if the entity did not exist at that time
      */
-    synchronized Relationship retrievePreviousVersionOfRelationship(String   guid)
+    EntityDetail  getEntity(String   guid,
+                            Date     asOfTime)
     {
-        if (guid != null)
-        {
-            Relationship  currentVersionOfRelationship = relationshipStore.get(guid);
+        readLock.lock();
 
-            long versionNumber = 0;
-
-            if (currentVersionOfRelationship != null)
+        try
+        {
+            if (asOfTime == null)
             {
-                versionNumber = currentVersionOfRelationship.getVersion() + 1;
+                return entityStore.get(guid);
             }
 
-
-            for (Relationship relationship : relationshipHistoryStore)
-            {
-                if (relationship != null)
-                {
-                    if (guid.equals(relationship.getGUID()))
-                    {
-                        if (versionNumber == 0)
-                        {
-                            versionNumber = relationship.getVersion() + 1;
-                        }
-                        /*
-                         * Clone the head (most recent) version in the history, set its version number to the next version
-                         * and insert the new clone into the current store (under key GUID). Also, take the 'current version'
-                         * (as was at start of method) and shunt that into the history. Do not remove anything from the history.
-                         * Remember also to set the updateTime to NOW - otherwise the historical copy will appear to have been
-                         * updated longer ago than was really the case.
-                         */
-                        Relationship newRelationship = new Relationship(relationship);
-                        newRelationship.setVersion(versionNumber);
-                        Date restoreTime = new Date();
-                        newRelationship.setUpdateTime(restoreTime);
-                        relationshipStore.put(guid, newRelationship);
-                        relationshipHistoryStore.add(0, currentVersionOfRelationship);
-                        return newRelationship;
-
-                    }
-                }
-            }
+            return getVersionAsOf(entityStore.get(guid), entityHistoryStore.get(guid), asOfTime);
+        }
+        finally
+        {
+            readLock.unlock();
         }
-
-        return null;
     }
 
 
     /**
-     * Retrieve the previous version of an Entity from the history store and restore it in the entity store.
-     * This is the first instance of this element that appears in the history.
+     * Return the requested entities as they were at the time supplied in the asOfTime parameter.  Each entity
+     * is looked up in its own version chain.  Entities that did not exist at that time are skipped.
      *
-     * @param guid - unique identifier for the required element
-     * @return - previous version of this Entity - or null if not found
+     * @param guids unique identifiers for the entities (null means every entity that has been stored)
+     * @param asOfTime time for the entities (or null means now)
+     * @return list of entity objects
      */
-    synchronized EntityDetail retrievePreviousVersionOfEntity(String   guid)
+    List<EntityDetail>  getEntities(Collection<String>   guids,
+                                    Date                 asOfTime)
     {
-        if (guid != null)
+        if (asOfTime == null)
         {
-            EntityDetail  currentVersionOfEntity = entityStore.get(guid);
+            return (guids == null) ? this.getEntities() : this.getEntities(guids);
+        }
 
-            long versionNumber = 0;
+        readLock.lock();
 
-            if (currentVersionOfEntity != null)
+        try
+        {
+            Collection<String>  entityGUIDs = guids;
+
+            if (entityGUIDs == null)
             {
-                versionNumber = currentVersionOfEntity.getVersion() + 1;
+                entityGUIDs = new HashSet<>(entityStore.keySet());
+                entityGUIDs.addAll(entityHistoryStore.keySet());
             }
 
-            for (EntityDetail entity : entityHistoryStore)
+            List<EntityDetail>  entities = new ArrayList<>();
+
+            for (String entityGUID : entityGUIDs)
             {
+                EntityDetail entity = getVersionAsOf(entityStore.get(entityGUID), entityHistoryStore.get(entityGUID), asOfTime);
+
                 if (entity != null)
                 {
-                    if (guid.equals(entity.getGUID()))
-                    {
-                        if (versionNumber == 0)
-                        {
-                            versionNumber = entity.getVersion() + 1;
-                        }
-
-                        /*
-                         * Clone the head (most recent) version in the history, set its version number to the next version
-                         * and insert the new clone into the current store (under key GUID). Also, take the 'current version'
-                         * (as was at start of method) and shunt that into the history. Do not remove anything from the history.
-                         * Remember also to set the updateTime to NOW - otherwise the historical copy will appear to have been
-                         * updated longer ago than was really the case.
-                         *
-                         */
-                        EntityDetail newEntity = new EntityDetail(entity);
-                        newEntity.setVersion(versionNumber);
-                        Date restoreTime = new Date();
-                        newEntity.setUpdateTime(restoreTime);
-                        entityStore.put(guid, newEntity);
-                        entityHistoryStore.add(0, currentVersionOfEntity);
-                        return newEntity;
-
-                    }
+                    entities.add(entity);
                 }
             }
-        }
 
-        return null;
+            return entities;
+        }
+        finally
+        {
+            readLock.unlock();
+        }
     }
 
 
     /**
-     * Remove an entity from the active store and add it to the history store.
+     * Return an entity store that contains entities as they were at the time supplied in the asOfTime
+     * parameter.  The current store is returned as a read-only view.  Historical stores are built from the
+     * version chain of each entity.
+     *
+     * @param asOfTime - time for the store (or null means now)
+     * @return entity store for the requested time
+     */
+    Map<String, EntityDetail>  timeWarpEntityStore(Date         asOfTime)
+    {
+        readLock.lock();
+
+        try
+        {
+            if (asOfTime == null)
+            {
+                return Collections.unmodifiableMap(entityStore);
+            }
+
+            Map<String, EntityDetail>  timeWarpedEntityStore = new HashMap<>();
+
+            Set<String>  entityGUIDs = new HashSet<>(entityStore.keySet());
+            entityGUIDs.addAll(entityHistoryStore.keySet());
+
+            for (String entityGUID : entityGUIDs)
+            {
+                EntityDetail entity = getVersionAsOf(entityStore.get(entityGUID), entityHistoryStore.get(entityGUID), asOfTime);
+
+                if (entity != null)
+                {
+                    timeWarpedEntityStore.put(entityGUID, entity);
+                }
+            }
+
+            return timeWarpedEntityStore;
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+
+    /**
+     * Return the list of relationships at their current level.
+     *
+     * @return list of relationships
+     */
+    List<Relationship>   getRelationships()
+    {
+        readLock.lock();
+
+        try
+        {
+            return new ArrayList<>(relationshipStore.values());
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+
+    /**
+     * Return the relationship identified by the guid.
+     *
+     * @param guid - unique identifier for the relationship
+     * @return relationship object
+     */
+    protected Relationship  getRelationship(String   guid)
+    {
+        readLock.lock();
+
+        try
+        {
+            return relationshipStore.get(guid);
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+
+    /**
+     * Return the current versions of the requested relationships.  Unknown GUIDs are skipped.
+     *
+     * @param guids unique identifiers for the relationships
+     * @return list of relationship objects
+     */
+    List<Relationship>  getRelationships(Collection<String>   guids)
+    {
+        readLock.lock();
+
+        try
+        {
+            List<Relationship>  relationships = new ArrayList<>();
+
+            if (guids != null)
+            {
+                for (String guid : guids)
+                {
+                    Relationship relationship = relationshipStore.get(guid);
+
+                    if (relationship != null)
+                    {
+                        relationships.add(relationship);
+                    }
+                }
+            }
+
+            return relationships;
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+
+    /**
+     * Return the unique identifiers of the relationships whose type is one of the supplied type names.
+     *
+     * @param typeNames list of type names - typically a type and all of its subtypes
+     * @return set of relationship GUIDs
+     */
+    Set<String>  getRelationshipGUIDsByType(Collection<String>   typeNames)
+    {
+        return this.getRelationshipGUIDsByType(typeNames, null);
+    }
+
+
+    /**
+     * Return the unique identifiers of the relationships whose type is one of the supplied type names.  For a
+     * historical query, these are the relationships that had one of the types in any of their versions.
+     *
+     * @param typeNames list of type names - typically a type and all of its subtypes
+     * @param asOfTime time of the query (null means now)
+     * @return set of relationship GUIDs
+     */
+    Set<String>  getRelationshipGUIDsByType(Collection<String>   typeNames,
+                                            Date                 asOfTime)
+    {
+        readLock.lock();
+
+        try
+        {
+            if (asOfTime == null)
+            {
+                return relationshipTypeIndex.getInstanceGUIDs(typeNames);
+            }
+
+            return relationshipHistoryTypeIndex.getInstanceGUIDs(typeNames);
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+
+    /**
+     * Return the current versions of the relationships that have the supplied entity at either end.
+     *
+     * @param entityGUID unique identifier of the entity
+     * @return list of relationship objects
+     */
+    List<Relationship>  getRelationshipsForEntity(String   entityGUID)
+    {
+        readLock.lock();
+
+        try
+        {
+            return this.getRelationships(relationshipEndIndex.getInstanceGUIDs(entityGUID));
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+
+    /**
+     * Return the relationships that had the supplied entity at either end at the time supplied in the asOfTime
+     * parameter.
+     *
+     * @param entityGUID unique identifier of the entity
+     * @param asOfTime time for the relationships (or null means now)
+     * @return list of relationship objects
+     */
+    List<Relationship>  getRelationshipsForEntity(String   entityGUID,
+                                                  Date     asOfTime)
+    {
+        if (asOfTime == null)
+        {
+            return this.getRelationshipsForEntity(entityGUID);
+        }
+
+        readLock.lock();
+
+        try
+        {
+            return this.getRelationships(relationshipHistoryEndIndex.getInstanceGUIDs(entityGUID), asOfTime);
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+
+    /**
+     * Return, in ascending order, the unique identifiers of the relationships that have the supplied entity at
+     * either end that sort after the supplied unique identifier.  This is used by cursor-based searches.
+     *
+     * @param entityGUID unique identifier of the entity
+     * @param afterGUID only return unique identifiers that sort after this one (null means from the start)
+     * @param maxGUIDs maximum number of unique identifiers to return
+     * @return list of relationship GUIDs
+     */
+    List<String>  getRelationshipGUIDsForEntityAfter(String   entityGUID,
+                                                     String   afterGUID,
+                                                     int      maxGUIDs)
+    {
+        readLock.lock();
+
+        try
+        {
+            return relationshipEndIndex.getInstanceGUIDsAfter(Collections.singletonList(entityGUID), afterGUID, maxGUIDs);
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Return the relationship identified by the guid as it was at the time supplied in the asOfTime parameter.
+     *
+     * @param guid - unique identifier for the relationship
+     * @param asOfTime - time for the relationship (or null means now)
+     * @return relationship object or null if the relationship did not exist at that time
+     */
+    Relationship  getRelationship(String   guid,
+                                  Date     asOfTime)
+    {
+        readLock.lock();
+
+        try
+        {
+            if (asOfTime == null)
+            {
+                return relationshipStore.get(guid);
+            }
+
+            return getVersionAsOf(relationshipStore.get(guid), relationshipHistoryStore.get(guid), asOfTime);
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+
+    /**
+     * Return the requested relationships as they were at the time supplied in the asOfTime parameter.  Each
+     * relationship is looked up in its own version chain.  Relationships that did not exist at that time are skipped.
+     *
+     * @param guids unique identifiers for the relationships (null means every relationship that has been stored)
+     * @param asOfTime time for the relationships (or null means now)
+     * @return list of relationship objects
+     */
+    List<Relationship>  getRelationships(Collection<String>   guids,
+                                         Date                 asOfTime)
+    {
+        if (asOfTime == null)
+        {
+            return (guids == null) ? this.getRelationships() : this.getRelationships(guids);
+        }
+
+        readLock.lock();
+
+        try
+        {
+            Collection<String>  relationshipGUIDs = guids;
+
+            if (relationshipGUIDs == null)
+            {
+                relationshipGUIDs = new HashSet<>(relationshipStore.keySet());
+                relationshipGUIDs.addAll(relationshipHistoryStore.keySet());
+            }
+
+            List<Relationship>  relationships = new ArrayList<>();
+
+            for (String relationshipGUID : relationshipGUIDs)
+            {
+                Relationship relationship = getVersionAsOf(relationshipStore.get(relationshipGUID),
+                                                           relationshipHistoryStore.get(relationshipGUID),
+                                                           asOfTime);
+
+                if (relationship != null)
+                {
+                    relationships.add(relationship);
+                }
+            }
+
+            return relationships;
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+
+    /**
+     * Return a relationship store that contains relationships as they were at the time supplied in the asOfTime
+     * parameter.  The current store is returned as a read-only view.  Historical stores are built from the
+     * version chain of each relationship.
+     *
+     * @param asOfTime - time for the store (or null means now)
+     * @return relationship store for the requested time
+     */
+    Map<String, Relationship>  timeWarpRelationshipStore(Date         asOfTime)
+    {
+        readLock.lock();
+
+        try
+        {
+            if (asOfTime == null)
+            {
+                return Collections.unmodifiableMap(relationshipStore);
+            }
+
+            Map<String, Relationship>  timeWarpedRelationshipStore = new HashMap<>();
+
+            Set<String>  relationshipGUIDs = new HashSet<>(relationshipStore.keySet());
+            relationshipGUIDs.addAll(relationshipHistoryStore.keySet());
+
+            for (String relationshipGUID : relationshipGUIDs)
+            {
+                Relationship relationship = getVersionAsOf(relationshipStore.get(relationshipGUID),
+                                                           relationshipHistoryStore.get(relationshipGUID),
+                                                           asOfTime);
+
+                if (relationship != null)
+                {
+                    timeWarpedRelationshipStore.put(relationshipGUID, relationship);
+                }
+            }
+
+            return timeWarpedRelationshipStore;
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+
+    /**
+     * Create a new entity in the entity store.
+     *
+     * @param entity - new version of the entity
+     * @return entity with potentially updated GUID
+     */
+    EntityDetail createEntityInStore(EntityDetail    entity)
+    {
+        writeLock.lock();
+
+        try
+        {
+            /*
+             * There is a small chance the randomly generated GUID will clash with an existing entity.
+             * If this happens a new GUID is generated for the entity and the process repeats.
+             */
+            while (entityStore.containsKey(entity.getGUID()))
+            {
+                entity.setGUID(UUID.randomUUID().toString());
+            }
+
+            this.makeChange(Collections.singletonList(new LogRecord(RecordType.ENTITY, entity.getGUID(), entity)));
+
+            return entity;
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Create a new relationship in the relationship store.
+     *
+     * @param relationship - new version of the relationship
+     * @return relationship with potentially updated GUID
+     */
+    Relationship createRelationshipInStore(Relationship    relationship)
+    {
+        writeLock.lock();
+
+        try
+        {
+            /*
+             * There is a small chance the randomly generated GUID will clash with an existing relationship.
+             * If this happens a new GUID is generated for the relationship and the process repeats.
+             */
+            while (relationshipStore.containsKey(relationship.getGUID()))
+            {
+                relationship.setGUID(UUID.randomUUID().toString());
+            }
+
+            this.makeChange(Collections.singletonList(new LogRecord(RecordType.RELATIONSHIP, relationship.getGUID(), relationship)));
+
+            return relationship;
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Create a batch of new entities, their proxies and new relationships in the store under a single
+     * acquisition of the write lock, so other requests see either none or all of the batch.  The proxies are
+     * the ones used by the relationships in the batch - if the GUID of an entity has to be changed because it
+     * clashes with an existing entity, the GUID of its proxy is changed too.
+     *
+     * @param entities - new entities
+     * @param entityProxies - proxies for the new entities, in the same order as the entities
+     * @param relationships - new relationships
+     */
+    void createInstancesInStore(List<EntityDetail>  entities,
+                                List<EntityProxy>   entityProxies,
+                                List<Relationship>  relationships)
+    {
+        writeLock.lock();
+
+        try
+        {
+            List<LogRecord> records           = new ArrayList<>();
+            Set<String>     entityGUIDs       = new HashSet<>();
+            Set<String>     relationshipGUIDs = new HashSet<>();
+
+            for (int i = 0; i < entities.size(); i++)
+            {
+                EntityDetail entity      = entities.get(i);
+                EntityProxy  entityProxy = entityProxies.get(i);
+
+                /*
+                 * The GUID must not clash with an existing instance or an earlier entity in the batch.
+                 */
+                while (entityStore.containsKey(entity.getGUID()) ||
+                       entityProxyStore.containsKey(entity.getGUID()) ||
+                       entityGUIDs.contains(entity.getGUID()))
+                {
+                    entity.setGUID(UUID.randomUUID().toString());
+                }
+
+                entityGUIDs.add(entity.getGUID());
+                entityProxy.setGUID(entity.getGUID());
+
+                records.add(new LogRecord(RecordType.ENTITY, entity.getGUID(), entity));
+                records.add(new LogRecord(RecordType.ENTITY_PROXY, entityProxy.getGUID(), entityProxy));
+            }
+
+            for (Relationship relationship : relationships)
+            {
+                while (relationshipStore.containsKey(relationship.getGUID()) || relationshipGUIDs.contains(relationship.getGUID()))
+                {
+                    relationship.setGUID(UUID.randomUUID().toString());
+                }
+
+                relationshipGUIDs.add(relationship.getGUID());
+
+                records.add(new LogRecord(RecordType.RELATIONSHIP, relationship.getGUID(), relationship));
+            }
+
+            this.makeChange(records);
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Save an entity proxy to the entity store.
+     *
+     * @param entityProxy - entity proxy object to add
+     */
+    void addEntityProxyToStore(EntityProxy    entityProxy)
+    {
+        writeLock.lock();
+
+        try
+        {
+            this.makeChange(Collections.singletonList(new LogRecord(RecordType.ENTITY_PROXY, entityProxy.getGUID(), entityProxy)));
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Maintain a history of entities as they are stored into the entity store to ensure old version can be restored.
+     * The history is maintained as a version chain for each entity, ordered by update time.
+     *
+     * @param entity - new version of the entity
+     */
+    void updateEntityInStore(EntityDetail    entity)
+    {
+        writeLock.lock();
+
+        try
+        {
+            List<LogRecord> records   = new ArrayList<>();
+            EntityDetail    oldEntity = entityStore.get(entity.getGUID());
+
+            if (oldEntity != null)
+            {
+                records.add(new LogRecord(RecordType.ENTITY_HISTORY, oldEntity.getGUID(), oldEntity));
+            }
+
+            records.add(new LogRecord(RecordType.ENTITY, entity.getGUID(), entity));
+
+            this.makeChange(records);
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Update an entity proxy in the proxy store.
+     *
+     * @param entityProxy - entity proxy object to add
+     */
+    void updateEntityProxyInStore(EntityProxy    entityProxy)
+    {
+        writeLock.lock();
+
+        try
+        {
+            this.makeChange(Collections.singletonList(new LogRecord(RecordType.ENTITY_PROXY, entityProxy.getGUID(), entityProxy)));
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Maintain a history of relationships as they are stored into the relationship store to ensure old version
+     * can be restored.  The history is maintained as a version chain for each relationship, ordered by update time.
+     *
+     * @param relationship - new version of the relationship
+     */
+    void updateRelationshipInStore(Relationship    relationship)
+    {
+        writeLock.lock();
+
+        try
+        {
+            List<LogRecord> records         = new ArrayList<>();
+            Relationship    oldRelationship = relationshipStore.get(relationship.getGUID());
+
+            if (oldRelationship != null)
+            {
+                records.add(new LogRecord(RecordType.RELATIONSHIP_HISTORY, oldRelationship.getGUID(), oldRelationship));
+            }
+
+            records.add(new LogRecord(RecordType.RELATIONSHIP, relationship.getGUID(), relationship));
+
+            this.makeChange(records);
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Save a reference copy of an entity to the active store.  Reference copies are not maintained in the
+     * history store.
+     *
+     * @param entity - object to save
+     */
+    void saveReferenceEntityToStore(EntityDetail    entity)
+    {
+        writeLock.lock();
+
+        try
+        {
+            this.makeChange(Collections.singletonList(new LogRecord(RecordType.ENTITY, entity.getGUID(), entity)));
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Save a reference copy of a relationship to the active store.  Reference copies are not maintained in the
+     * history store.
+     *
+     * @param relationship - object to save
+     */
+    void saveReferenceRelationshipToStore(Relationship    relationship)
+    {
+        writeLock.lock();
+
+        try
+        {
+            this.makeChange(Collections.singletonList(new LogRecord(RecordType.RELATIONSHIP, relationship.getGUID(), relationship)));
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Save a batch of reference copies to the active store under a single acquisition of the write lock.
+     * The entities are saved before the relationships, so the store ends up in the same state as it would if
+     * each entity were saved with saveReferenceEntityToStore (which replaces any proxy for the entity), and then
+     * each relationship saved with saveReferenceRelationshipToStore along with the proxies for its ends.
+     *
+     * @param entities - entities to save
+     * @param relationships - relationships to save
+     */
+    void saveReferenceInstancesToStore(List<EntityDetail>  entities,
+                                       List<Relationship>  relationships)
+    {
+        writeLock.lock();
+
+        try
+        {
+            List<LogRecord> records = new ArrayList<>();
+
+            for (EntityDetail entity : entities)
+            {
+                records.add(new LogRecord(RecordType.ENTITY, entity.getGUID(), entity));
+                records.add(new LogRecord(RecordType.ENTITY_PROXY_REMOVE, entity.getGUID(), null));
+            }
+
+            for (Relationship relationship : relationships)
+            {
+                for (EntityProxy entityProxy : Arrays.asList(relationship.getEntityOneProxy(), relationship.getEntityTwoProxy()))
+                {
+                    if (entityProxy != null)
+                    {
+                        records.add(new LogRecord(RecordType.ENTITY_PROXY, entityProxy.getGUID(), entityProxy));
+                    }
+                }
+
+                records.add(new LogRecord(RecordType.RELATIONSHIP, relationship.getGUID(), relationship));
+            }
+
+            this.makeChange(records);
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Retrieve the previous version of a Relationship.  This is the latest version of this element that
+     * appears in the history.
+     *
+     * @param guid - unique identifier for the required element
+     * @return - previous version of this relationship - or null if not found
+     */
+    Relationship retrievePreviousVersionOfRelationship(String   guid)
+    {
+        writeLock.lock();
+
+        try
+        {
+            if (guid != null)
+            {
+                Relationship  currentVersionOfRelationship = relationshipStore.get(guid);
+
+                long versionNumber = 0;
+
+                if (currentVersionOfRelationship != null)
+                {
+                    versionNumber = currentVersionOfRelationship.getVersion() + 1;
+                }
+
+
+                List<Relationship> versionChain = relationshipHistoryStore.get(guid);
+
+                if ((versionChain != null) && (! versionChain.isEmpty()))
+                {
+                    Relationship relationship = versionChain.get(versionChain.size() - 1);
+
+                    if (relationship != null)
+                    {
+                        if (versionNumber == 0)
+                        {
+                            versionNumber = relationship.getVersion() + 1;
+                        }
+                        /*
+                         * Clone the head (most recent) version in the history, set its version number to the next version
+                         * and insert the new clone into the current store (under key GUID). Also, take the 'current version'
+                         * (as was at start of method) and shunt that into the history. Do not remove anything from the history.
+                         * Remember also to set the updateTime to NOW - otherwise the historical copy will appear to have been
+                         * updated longer ago than was really the case.
+                         */
+                        Relationship newRelationship = new Relationship(relationship);
+                        newRelationship.setVersion(versionNumber);
+                        Date restoreTime = new Date();
+                        newRelationship.setUpdateTime(restoreTime);
+
+                        List<LogRecord> records = new ArrayList<>();
+
+                        if (currentVersionOfRelationship != null)
+                        {
+                            records.add(new LogRecord(RecordType.RELATIONSHIP_HISTORY, guid, currentVersionOfRelationship));
+                        }
+
+                        records.add(new LogRecord(RecordType.RELATIONSHIP, guid, newRelationship));
+
+                        this.makeChange(records);
+                        return newRelationship;
+                    }
+                }
+            }
+
+            return null;
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Retrieve the previous version of an Entity from the history store and restore it in the entity store.
+     * This is the latest version of this element that appears in the history.
+     *
+     * @param guid - unique identifier for the required element
+     * @return - previous version of this Entity - or null if not found
+     */
+    EntityDetail retrievePreviousVersionOfEntity(String   guid)
+    {
+        writeLock.lock();
+
+        try
+        {
+            if (guid != null)
+            {
+                EntityDetail  currentVersionOfEntity = entityStore.get(guid);
+
+                long versionNumber = 0;
+
+                if (currentVersionOfEntity != null)
+                {
+                    versionNumber = currentVersionOfEntity.getVersion() + 1;
+                }
+
+                List<EntityDetail> versionChain = entityHistoryStore.get(guid);
+
+                if ((versionChain != null) && (! versionChain.isEmpty()))
+                {
+                    EntityDetail entity = versionChain.get(versionChain.size() - 1);
+
+                    if (entity != null)
+                    {
+                        if (versionNumber == 0)
+                        {
+                            versionNumber = entity.getVersion() + 1;
+                        }
+
+                        /*
+                         * Clone the head (most recent) version in the history, set its version number to the next version
+                         * and insert the new clone into the current store (under key GUID). Also, take the 'current version'
+                         * (as was at start of method) and shunt that into the history. Do not remove anything from the history.
+                         * Remember also to set the updateTime to NOW - otherwise the historical copy will appear to have been
+                         * updated longer ago than was really the case.
+                         *
+                         */
+                        EntityDetail newEntity = new EntityDetail(entity);
+                        newEntity.setVersion(versionNumber);
+                        Date restoreTime = new Date();
+                        newEntity.setUpdateTime(restoreTime);
+
+                        List<LogRecord> records = new ArrayList<>();
+
+                        if (currentVersionOfEntity != null)
+                        {
+                            records.add(new LogRecord(RecordType.ENTITY_HISTORY, guid, currentVersionOfEntity));
+                        }
+
+                        records.add(new LogRecord(RecordType.ENTITY, guid, newEntity));
+
+                        this.makeChange(records);
+                        return newEntity;
+                    }
+                }
+            }
+
+            return null;
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Remove an entity from the active store and add it to the history store.
      *
      * @param entity - entity to remove
      */
-    synchronized void removeEntityFromStore(EntityDetail     entity)
+    void removeEntityFromStore(EntityDetail     entity)
+    {
+        writeLock.lock();
+
+        try
+        {
+            this.makeChange(Arrays.asList(new LogRecord(RecordType.ENTITY_REMOVE, entity.getGUID(), null),
+                                          new LogRecord(RecordType.ENTITY_HISTORY, entity.getGUID(), entity)));
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Remove a reference entity from the active store and add it to the history store.
+     *
+     * @param guid - entity to remove
+     */
+    void removeReferenceEntityFromStore(String     guid)
+    {
+        writeLock.lock();
+
+        try
+        {
+            List<LogRecord> records = new ArrayList<>();
+            EntityDetail    entity  = entityStore.get(guid);
+
+            records.add(new LogRecord(RecordType.ENTITY_REMOVE, guid, null));
+
+            if (entity != null)
+            {
+                records.add(new LogRecord(RecordType.ENTITY_HISTORY, guid, entity));
+            }
+
+            this.makeChange(records);
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Remove an entity from the active store and add it to the history store.
+     *
+     * @param guid - entity proxy to remove
+     */
+    void removeEntityProxyFromStore(String     guid)
+    {
+        writeLock.lock();
+
+        try
+        {
+            this.makeChange(Collections.singletonList(new LogRecord(RecordType.ENTITY_PROXY_REMOVE, guid, null)));
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Remove a relationship from the active store and add it to the history store.
+     *
+     * @param relationship - relationship to remove
+     */
+    void removeRelationshipFromStore(Relationship     relationship)
+    {
+        writeLock.lock();
+
+        try
+        {
+            this.makeChange(Arrays.asList(new LogRecord(RecordType.RELATIONSHIP_REMOVE, relationship.getGUID(), null),
+                                          new LogRecord(RecordType.RELATIONSHIP_HISTORY, relationship.getGUID(), relationship)));
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Remove a reference relationship from the active store and add it to the history store.
+     *
+     * @param guid - relationship to remove
+     */
+    void removeReferenceRelationshipFromStore(String     guid)
+    {
+        writeLock.lock();
+
+        try
+        {
+            List<LogRecord> records      = new ArrayList<>();
+            Relationship    relationship = relationshipStore.get(guid);
+
+            records.add(new LogRecord(RecordType.RELATIONSHIP_REMOVE, guid, null));
+
+            if (relationship != null)
+            {
+                records.add(new LogRecord(RecordType.RELATIONSHIP_HISTORY, guid, relationship));
+            }
+
+            this.makeChange(records);
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Load the content of the store from the persistence log and then record every change in it.
+     *
+     * @param persistenceLog log to use
+     */
+    void openPersistenceLog(InMemoryOMRSPersistenceLog   persistenceLog)
     {
-        entityStore.remove(entity.getGUID());
-        entityHistoryStore.add(0, entity);
+        writeLock.lock();
+
+        try
+        {
+            persistenceLog.open(this::applyLogRecord);
+
+            this.persistenceLog = persistenceLog;
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
     }
 
 
     /**
-     * Remove a reference entity from the active store and add it to the history store.
+     * Wait for any snapshot in progress and then sync and close the persistence log (if any).
+     */
+    void closePersistenceLog()
+    {
+        this.waitForSnapshot();
+
+        writeLock.lock();
+
+        try
+        {
+            if (persistenceLog != null)
+            {
+                persistenceLog.close();
+                persistenceLog = null;
+            }
+        }
+        finally
+        {
+            this.releaseWriteLock();
+        }
+    }
+
+
+    /**
+     * Wait for the snapshot in progress (if any) to complete.  The caller must not hold the store's lock because
+     * the snapshot thread needs the read lock.
+     */
+    void waitForSnapshot()
+    {
+        Thread currentSnapshotThread = snapshotThread;
+
+        if (currentSnapshotThread != null)
+        {
+            try
+            {
+                currentSnapshotThread.join();
+            }
+            catch (InterruptedException error)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    /**
+     * Release the write lock.  If the thread has made a change, it then waits for the persistence log to be
+     * synced past the change's records.  The wait is outside the lock so that the changes of other threads
+     * can join the same sync.  Other threads may read a change before it is synced but its caller is not
+     * told that it is complete until then.
+     */
+    private void releaseWriteLock()
+    {
+        InMemoryOMRSPersistenceLog log = persistenceLog;
+
+        writeLock.unlock();
+
+        Long sequenceNumber = pendingSync.get();
+
+        if ((sequenceNumber != null) && (! storeLock.isWriteLockedByCurrentThread()))
+        {
+            pendingSync.remove();
+
+            if (log != null)
+            {
+                log.waitForSync(sequenceNumber);
+            }
+        }
+    }
+
+
+    /**
+     * Make a change to the store.  The records for the change are written to the persistence log (if any) before
+     * they are applied, so the store is unchanged if they can not be logged.  The caller holds the write lock
+     * and waits for the records to be synced when it releases the lock.
      *
-     * @param guid - entity to remove
+     * @param records records describing the change
      */
-    synchronized void removeReferenceEntityFromStore(String     guid)
+    private void makeChange(List<LogRecord>   records)
     {
-        EntityDetail entity = entityStore.remove(guid);
+        if (persistenceLog != null)
+        {
+            pendingSync.set(persistenceLog.append(records));
+        }
 
-        if (entity != null)
+        for (LogRecord record : records)
         {
-            entityHistoryStore.add(0, entity);
+            this.applyLogRecord(record.getRecordType(), record.getGUID(), record.getInstance());
         }
+
+        this.checkSnapshot();
     }
 
 
     /**
-     * Remove an entity from the active store and add it to the history store.
+     * Start a new snapshot of the store on a background thread if the persistence log has grown large enough.
+     * The caller holds the write lock and has logged all of the records for its change.
+     */
+    private void checkSnapshot()
+    {
+        if ((persistenceLog != null) && (persistenceLog.claimSnapshot()))
+        {
+            InMemoryOMRSPersistenceLog log = persistenceLog;
+
+            snapshotThread = new Thread(() -> this.writeSnapshot(log), "InMemoryRepositorySnapshot-" + repositoryName);
+            snapshotThread.setDaemon(true);
+            snapshotThread.start();
+        }
+    }
+
+
+    /**
+     * Write a snapshot of the store.  This runs on the snapshot thread.  The content of the store is copied
+     * while the read lock is held; it is then written out while the store is free to change.  If the snapshot
+     * fails, the persistence log keeps all of its records and the snapshot is tried again later.
      *
-     * @param guid - entity proxy to remove
+     * @param log persistence log to write the snapshot for
+     */
+    private void writeSnapshot(InMemoryOMRSPersistenceLog   log)
+    {
+        InMemoryOMRSPersistenceLog.SnapshotWriter snapshot;
+        List<EntityDetail>                        entities;
+        List<EntityDetail>                        entityHistory        = new ArrayList<>();
+        List<EntityProxy>                         entityProxies;
+        List<Relationship>                        relationships;
+        List<Relationship>                        relationshipHistory  = new ArrayList<>();
+
+        readLock.lock();
+
+        try
+        {
+            snapshot = log.startSnapshot();
+
+            entities      = new ArrayList<>(entityStore.values());
+            entityProxies = new ArrayList<>(entityProxyStore.values());
+            relationships = new ArrayList<>(relationshipStore.values());
+
+            for (List<EntityDetail> versionChain : entityHistoryStore.values())
+            {
+                entityHistory.addAll(versionChain);
+            }
+
+            for (List<Relationship> versionChain : relationshipHistoryStore.values())
+            {
+                relationshipHistory.addAll(versionChain);
+            }
+        }
+        catch (OMRSLogicErrorException error)
+        {
+            return;
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+
+        try
+        {
+            for (EntityDetail entity : entities)
+            {
+                snapshot.add(RecordType.ENTITY, entity.getGUID(), entity);
+            }
+
+            for (EntityDetail entity : entityHistory)
+            {
+                snapshot.add(RecordType.ENTITY_HISTORY, entity.getGUID(), entity);
+            }
+
+            for (EntityProxy entityProxy : entityProxies)
+            {
+                snapshot.add(RecordType.ENTITY_PROXY, entityProxy.getGUID(), entityProxy);
+            }
+
+            for (Relationship relationship : relationships)
+            {
+                snapshot.add(RecordType.RELATIONSHIP, relationship.getGUID(), relationship);
+            }
+
+            for (Relationship relationship : relationshipHistory)
+            {
+                snapshot.add(RecordType.RELATIONSHIP_HISTORY, relationship.getGUID(), relationship);
+            }
+
+            snapshot.commit();
+        }
+        catch (OMRSLogicErrorException error)
+        {
+            /*
+             * The snapshot has been abandoned and will be tried again later.
+             */
+        }
+    }
+
+
+    /**
+     * Apply a change to the store.  The change is either new or replayed from the persistence log.
+     * The caller holds the write lock.
+     *
+     * @param recordType type of change
+     * @param guid unique identifier of the instance
+     * @param instance instance (null for a remove)
      */
-    synchronized void removeEntityProxyFromStore(String     guid)
+    private void applyLogRecord(RecordType   recordType,
+                                String       guid,
+                                Object       instance)
     {
-        entityProxyStore.remove(guid);
+        switch (recordType)
+        {
+            case ENTITY:
+                entityStore.put(guid, (EntityDetail) instance);
+                this.indexEntity((EntityDetail) instance);
+                this.indexEntityHistory((EntityDetail) instance);
+                break;
+
+            case ENTITY_HISTORY:
+                addToHistory(entityHistoryStore, (EntityDetail) instance);
+                this.indexEntityHistory((EntityDetail) instance);
+                break;
+
+            case ENTITY_REMOVE:
+                entityStore.remove(guid);
+                this.unindexEntity(guid);
+                break;
+
+            case ENTITY_PROXY:
+                entityProxyStore.put(guid, (EntityProxy) instance);
+                break;
+
+            case ENTITY_PROXY_REMOVE:
+                entityProxyStore.remove(guid);
+                break;
+
+            case RELATIONSHIP:
+                relationshipStore.put(guid, (Relationship) instance);
+                this.indexRelationship((Relationship) instance);
+                this.indexRelationshipHistory((Relationship) instance);
+                break;
+
+            case RELATIONSHIP_HISTORY:
+                addToHistory(relationshipHistoryStore, (Relationship) instance);
+                this.indexRelationshipHistory((Relationship) instance);
+                break;
+
+            case RELATIONSHIP_REMOVE:
+                relationshipStore.remove(guid);
+                this.unindexRelationship(guid);
+                break;
+
+            default:
+                break;
+        }
     }
 
 
     /**
-     * Remove a relationship from the active store and add it to the history store.
+     * Update the indexes for the current version of an entity.
      *
-     * @param relationship - relationship to remove
+     * @param entity entity that has just been stored
+     */
+    private void indexEntity(EntityDetail   entity)
+    {
+        String entityGUID = entity.getGUID();
+
+        entityTypeIndex.indexInstance(entityGUID, getTypeKeys(entity.getType()));
+        entityClassificationIndex.indexInstance(entityGUID, getClassificationKeys(entity.getClassifications()));
+        entityPropertyIndex.indexInstance(entityGUID, getPropertyKeys(entity.getProperties()));
+    }
+
+
+    /**
+     * Add the keys of a version of an entity to the history indexes.
+     *
+     * @param entity version of the entity that has just been stored
      */
-    synchronized void removeRelationshipFromStore(Relationship     relationship)
+    private void indexEntityHistory(EntityDetail   entity)
     {
-        relationshipStore.remove(relationship.getGUID());
-        relationshipHistoryStore.add(0, relationship);
+        String entityGUID = entity.getGUID();
+
+        entityHistoryTypeIndex.addInstanceKeys(entityGUID, getTypeKeys(entity.getType()));
+        entityHistoryClassificationIndex.addInstanceKeys(entityGUID, getClassificationKeys(entity.getClassifications()));
+        entityHistoryPropertyIndex.addInstanceKeys(entityGUID, getPropertyKeys(entity.getProperties()));
     }
 
 
     /**
-     * Remove a reference relationship from the active store and add it to the history store.
+     * Remove an entity from the indexes.
      *
-     * @param guid - relationship to remove
+     * @param entityGUID unique identifier of the entity
+     */
+    private void unindexEntity(String   entityGUID)
+    {
+        entityTypeIndex.removeInstance(entityGUID);
+        entityClassificationIndex.removeInstance(entityGUID);
+        entityPropertyIndex.removeInstance(entityGUID);
+    }
+
+
+    /**
+     * Update the indexes for the current version of a relationship.
+     *
+     * @param relationship relationship that has just been stored
+     */
+    private void indexRelationship(Relationship   relationship)
+    {
+        String relationshipGUID = relationship.getGUID();
+
+        relationshipTypeIndex.indexInstance(relationshipGUID, getTypeKeys(relationship.getType()));
+        relationshipEndIndex.indexInstance(relationshipGUID, getEndKeys(relationship));
+    }
+
+
+    /**
+     * Add the keys of a version of a relationship to the history indexes.
+     *
+     * @param relationship version of the relationship that has just been stored
+     */
+    private void indexRelationshipHistory(Relationship   relationship)
+    {
+        String relationshipGUID = relationship.getGUID();
+
+        relationshipHistoryTypeIndex.addInstanceKeys(relationshipGUID, getTypeKeys(relationship.getType()));
+        relationshipHistoryEndIndex.addInstanceKeys(relationshipGUID, getEndKeys(relationship));
+    }
+
+
+    /**
+     * Remove a relationship from the indexes.
+     *
+     * @param relationshipGUID unique identifier of the relationship
+     */
+    private void unindexRelationship(String   relationshipGUID)
+    {
+        relationshipTypeIndex.removeInstance(relationshipGUID);
+        relationshipEndIndex.removeInstance(relationshipGUID);
+    }
+
+
+    /**
+     * Return the type index keys for an instance.  Instances are indexed under their own type name.
+     * Queries for a type and its subtypes look up the name of each type.
+     *
+     * @param instanceType type of the instance
+     * @return list of keys
+     */
+    private static List<String> getTypeKeys(InstanceType   instanceType)
+    {
+        if ((instanceType != null) && (instanceType.getTypeDefName() != null))
+        {
+            return Collections.singletonList(instanceType.getTypeDefName());
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Return the classification index keys for an entity.  Entities are indexed under the name of each of
+     * their classifications.
+     *
+     * @param classifications classifications of the entity
+     * @return list of keys
+     */
+    private static List<String> getClassificationKeys(List<Classification>   classifications)
+    {
+        List<String> classificationNames = new ArrayList<>();
+
+        if (classifications != null)
+        {
+            for (Classification classification : classifications)
+            {
+                if ((classification != null) && (classification.getName() != null))
+                {
+                    classificationNames.add(classification.getName());
+                }
+            }
+        }
+
+        return classificationNames;
+    }
+
+
+    /**
+     * Return the end index keys for a relationship.  Relationships are indexed under the unique identifier
+     * of the entity at each end.
+     *
+     * @param relationship relationship
+     * @return list of keys
+     */
+    private static List<String> getEndKeys(Relationship   relationship)
+    {
+        List<String> entityGUIDs = new ArrayList<>();
+
+        if ((relationship.getEntityOneProxy() != null) && (relationship.getEntityOneProxy().getGUID() != null))
+        {
+            entityGUIDs.add(relationship.getEntityOneProxy().getGUID());
+        }
+
+        if ((relationship.getEntityTwoProxy() != null) && (relationship.getEntityTwoProxy().getGUID() != null))
+        {
+            entityGUIDs.add(relationship.getEntityTwoProxy().getGUID());
+        }
+
+        return entityGUIDs;
+    }
+
+
+    /**
+     * Return the exact-value index keys for the indexed string properties of an instance.
+     *
+     * @param properties properties of the instance
+     * @return list of keys
      */
-    synchronized void removeReferenceRelationshipFromStore(String     guid)
+    private static List<String> getPropertyKeys(InstanceProperties   properties)
     {
-        Relationship  relationship = relationshipStore.remove(guid);
+        List<String> propertyKeys = new ArrayList<>();
 
-        if (relationship != null)
+        if ((properties != null) && (properties.getInstanceProperties() != null))
         {
-            relationshipHistoryStore.add(0, relationship);
+            for (String propertyName : INDEXED_PROPERTY_NAMES)
+            {
+                InstancePropertyValue propertyValue = properties.getPropertyValue(propertyName);
+
+                if ((propertyValue != null) &&
+                    (propertyValue.getInstancePropertyCategory() == InstancePropertyCategory.PRIMITIVE))
+                {
+                    Object primitiveValue = ((PrimitivePropertyValue) propertyValue).getPrimitiveValue();
+
+                    if (primitiveValue instanceof String)
+                    {
+                        propertyKeys.add(getPropertyKey(propertyName, (String) primitiveValue));
+                    }
+                }
+            }
+        }
+
+        return propertyKeys;
+    }
+
+
+    /**
+     * Return the exact-value index key for a property value.  Property names do not contain the separator
+     * so the key is unambiguous.
+     *
+     * @param propertyName name of the property
+     * @param propertyValue string value of the property
+     * @return key
+     */
+    private static String getPropertyKey(String   propertyName,
+                                         String   propertyValue)
+    {
+        return propertyName + PROPERTY_KEY_SEPARATOR + propertyValue;
+    }
+
+
+    /**
+     * Add a version of an instance to its version chain in the history store.  The chain is kept in update
+     * time order so it can be binary searched.  Versions normally arrive in time order so the new version
+     * is usually appended to the end of the chain.
+     *
+     * @param historyStore history store for the type of instance
+     * @param instance version to add
+     * @param <T> type of instance
+     */
+    private static <T extends InstanceHeader> void addToHistory(Map<String, List<T>> historyStore,
+                                                                T                    instance)
+    {
+        List<T> versionChain = historyStore.computeIfAbsent(instance.getGUID(), guid -> new ArrayList<>());
+
+        long instanceTime = getVersionTime(instance);
+        int  position     = versionChain.size();
+
+        while ((position > 0) && (getVersionTime(versionChain.get(position - 1)) > instanceTime))
+        {
+            position--;
+        }
+
+        versionChain.add(position, instance);
+    }
+
+
+    /**
+     * Return the version of an instance that was active at the requested time.
+     *
+     * @param currentVersion current version of the instance from the active store (may be null)
+     * @param versionChain previous versions of the instance in update time order (may be null)
+     * @param asOfTime requested time
+     * @param <T> type of instance
+     * @return version of the instance or null if it did not exist at the requested time
+     */
+    private static <T extends InstanceHeader> T getVersionAsOf(T        currentVersion,
+                                                               List<T>  versionChain,
+                                                               Date     asOfTime)
+    {
+        long requestedTime = asOfTime.getTime();
+
+        if ((currentVersion != null) && (getVersionTime(currentVersion) <= requestedTime))
+        {
+            return currentVersion;
+        }
+
+        if (versionChain == null)
+        {
+            return null;
+        }
+
+        /*
+         * Binary search for the last version that was updated at or before the requested time.
+         */
+        int low  = 0;
+        int high = versionChain.size() - 1;
+        T   result = null;
+
+        while (low <= high)
+        {
+            int middle  = (low + high) >>> 1;
+            T   version = versionChain.get(middle);
+
+            if (getVersionTime(version) <= requestedTime)
+            {
+                result = version;
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
         }
+
+        return result;
     }
 
+
+    /**
+     * Return the time that a version of an instance became active.  This is its update time or, if it has
+     * never been updated, its create time.  Versions with no time are never returned by historical queries.
+     *
+     * @param instance version of the instance
+     * @return time in milliseconds
+     */
+    private static long getVersionTime(InstanceHeader   instance)
+    {
+        if (instance.getUpdateTime() != null)
+        {
+            return instance.getUpdateTime().getTime();
+        }
+        else if (instance.getCreateTime() != null)
+        {
+            return instance.getCreateTime().getTime();
+        }
+
+        return Long.MAX_VALUE;
+    }
 }
@@ -0,0 +1,1426 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.repositoryservices.inmemory.repositoryconnector;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityProxy;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Relationship;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.OMRSConfigErrorException;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.OMRSLogicErrorException;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * InMemoryOMRSPersistenceLog provides optional local persistence for the InMemoryOMRSMetadataStore.
+ * It is made up of two files in the persistence directory:
+ * <ul>
+ *     <li>A snapshot of the complete content of the store at a point in time.</li>
+ *     <li>An append-only write-ahead log of the changes made to the store since the snapshot.</li>
+ * </ul>
+ * Each file is a sequence of records, one per line.  A record is a CRC32 checksum followed by a JSON object
+ * that holds the record's sequence number, the type of change and the instance (or GUID) that is changed.
+ * The records for one change to the store are appended together, before the store is changed, and every
+ * record of the change except the last is flagged as continued.  When the store is loaded, the snapshot is
+ * replayed and then the changes in the log that follow it.  A change is only replayed once all of its records
+ * have been read.
+ *
+ * If the last record in the log is incomplete or fails its checksum, the server stopped part way through a write.
+ * The log is truncated at the start of the change that the record belongs to.  An invalid record anywhere else
+ * in the log means the file is corrupt, and the log is not loaded.
+ *
+ * The records of a change are written to a buffer and the caller then waits until the log has been synced to
+ * disk past the last record of the change, so a change is only reported as complete once it is durable.
+ * A single background thread flushes and syncs the log.  The changes that are appended while a sync is in
+ * progress are all covered by the next sync, so many changes share the cost of each sync (group commit).
+ * An optional sync delay makes the thread wait before each sync so that more changes can join it.  Once the
+ * number of records in the log passes the snapshot threshold,
+ * the store writes a new snapshot from a copy of its content on a background thread.  The changes made while
+ * the snapshot is written stay in the log; the rest are removed when the snapshot is committed.  If the snapshot
+ * fails, the previous snapshot and the whole log are kept and the snapshot is tried again once a further
+ * snapshot threshold of records has been logged.
+ *
+ * Only the store calls this class and it serializes the calls to append records.  It waits for the sync of each
+ * change after releasing its write lock so that other changes can be appended in the meantime.  The methods are
+ * synchronized because the background sync and snapshot threads also use the log.
+ */
+class InMemoryOMRSPersistenceLog
+{
+    /**
+     * Name of the connection configuration property for the directory to store the repository's content in.
+     * If this property is not set, the repository is not persisted.
+     */
+    static final String PERSISTENCE_DIRECTORY_PROPERTY = "persistenceDirectory";
+
+    /**
+     * Name of the connection configuration property for the number of log records that trigger a new snapshot.
+     */
+    static final String SNAPSHOT_THRESHOLD_PROPERTY    = "snapshotThreshold";
+
+    /**
+     * Name of the connection configuration property for the number of milliseconds that the sync thread waits
+     * for more changes before it syncs the log.
+     */
+    static final String SYNC_DELAY_PROPERTY            = "syncDelayMillis";
+
+    static final long   DEFAULT_SNAPSHOT_THRESHOLD     = 100000;
+    static final long   DEFAULT_SYNC_DELAY             = 0;
+
+    static final String LOG_FILE_NAME                  = "inmemory-repository.log";
+    static final String SNAPSHOT_FILE_NAME             = "inmemory-repository.snapshot";
+    static final String SNAPSHOT_WORK_FILE_NAME        = "inmemory-repository.snapshot.tmp";
+    static final String LOG_WORK_FILE_NAME             = "inmemory-repository.log.tmp";
+
+    private static final String SEQUENCE_NUMBER_FIELD  = "seq";
+    private static final String RECORD_TYPE_FIELD      = "type";
+    private static final String GUID_FIELD             = "guid";
+    private static final String INSTANCE_FIELD         = "instance";
+    private static final String CONTINUED_FIELD        = "continued";
+    private static final char   RECORD_SEPARATOR       = '\n';
+    private static final char   CHECKSUM_SEPARATOR     = ' ';
+
+    private static final ObjectMapper objectMapper     = new ObjectMapper();
+
+    /**
+     * The types of change recorded in the log.  The store applies each change exactly as it was recorded so
+     * replaying the records rebuilds the same content (including the history of each instance).
+     */
+    enum RecordType
+    {
+        SNAPSHOT_START(null),
+        SNAPSHOT_END(null),
+        ENTITY(EntityDetail.class),
+        ENTITY_HISTORY(EntityDetail.class),
+        ENTITY_REMOVE(null),
+        ENTITY_PROXY(EntityProxy.class),
+        ENTITY_PROXY_REMOVE(null),
+        RELATIONSHIP(Relationship.class),
+        RELATIONSHIP_HISTORY(Relationship.class),
+        RELATIONSHIP_REMOVE(null);
+
+        private Class<?> instanceClass;
+
+        RecordType(Class<?> instanceClass)
+        {
+            this.instanceClass = instanceClass;
+        }
+
+        Class<?> getInstanceClass()
+        {
+            return instanceClass;
+        }
+    }
+
+
+    /**
+     * One record of a change to the store.
+     */
+    static class LogRecord
+    {
+        private RecordType recordType;
+        private String     guid;
+        private Object     instance;
+
+        /**
+         * Constructor takes the content of the record.
+         *
+         * @param recordType type of change
+         * @param guid unique identifier of the instance
+         * @param instance instance (null for records that remove an instance)
+         */
+        LogRecord(RecordType recordType,
+                  String     guid,
+                  Object     instance)
+        {
+            this.recordType = recordType;
+            this.guid       = guid;
+            this.instance   = instance;
+        }
+
+        RecordType getRecordType()
+        {
+            return recordType;
+        }
+
+        String getGUID()
+        {
+            return guid;
+        }
+
+        Object getInstance()
+        {
+            return instance;
+        }
+    }
+
+
+    /**
+     * Receives the records from the persisted files when they are replayed.
+     */
+    interface RecordConsumer
+    {
+        /**
+         * Apply a record.
+         *
+         * @param recordType type of change
+         * @param guid unique identifier of the instance
+         * @param instance instance (null for records that remove an instance)
+         */
+        void applyRecord(RecordType recordType,
+                         String     guid,
+                         Object     instance);
+    }
+
+
+    private String       repositoryName;
+    private Path         directory;
+    private long         snapshotThreshold;
+    private long         syncDelay;
+
+    private OutputStream logStream            = null;
+    private FileChannel  logChannel           = null;
+    private long         lastSequenceNumber   = 0;
+    private long         syncedSequenceNumber = 0;
+    private long         recordsInLog         = 0;
+    private long         nextSnapshotAt;
+    private boolean      snapshotInProgress   = false;
+    private boolean      closed               = false;
+    private IOException  writeError           = null;
+
+
+    /**
+     * Constructor takes the location and tuning options for the log.
+     *
+     * @param repositoryName name of the repository (for error messages)
+     * @param directory directory to store the files in
+     * @param snapshotThreshold number of records in the log that trigger a new snapshot
+     * @param syncDelay number of milliseconds the sync thread waits for more changes before each sync
+     *                  (0 means sync as soon as there are changes to sync)
+     */
+    InMemoryOMRSPersistenceLog(String repositoryName,
+                               String directory,
+                               long   snapshotThreshold,
+                               long   syncDelay)
+    {
+        this.repositoryName    = repositoryName;
+        this.directory         = Paths.get(directory);
+        this.snapshotThreshold = snapshotThreshold;
+        this.syncDelay         = syncDelay;
+        this.nextSnapshotAt    = snapshotThreshold;
+    }
+
+
+    /**
+     * Create a persistence log from the configuration properties of the repository's connection.
+     *
+     * @param repositoryName name of the repository (for error messages)
+     * @param configurationProperties configuration properties from the connection (may be null)
+     * @return persistence log or null if persistence is not configured
+     * @throws OMRSConfigErrorException one of the persistence properties is not valid
+     */
+    static InMemoryOMRSPersistenceLog getPersistenceLog(String              repositoryName,
+                                                        Map<String, Object> configurationProperties) throws OMRSConfigErrorException
+    {
+        if (configurationProperties == null)
+        {
+            return null;
+        }
+
+        Object directory = configurationProperties.get(PERSISTENCE_DIRECTORY_PROPERTY);
+
+        if (directory == null)
+        {
+            return null;
+        }
+
+        return new InMemoryOMRSPersistenceLog(repositoryName,
+                                              directory.toString(),
+                                              getLongProperty(repositoryName,
+                                                              configurationProperties,
+                                                              SNAPSHOT_THRESHOLD_PROPERTY,
+                                                              DEFAULT_SNAPSHOT_THRESHOLD),
+                                              getLongProperty(repositoryName,
+                                                              configurationProperties,
+                                                              SYNC_DELAY_PROPERTY,
+                                                              DEFAULT_SYNC_DELAY));
+    }
+
+
+    /**
+     * Extract a numeric configuration property.
+     *
+     * @param repositoryName name of the repository (for error messages)
+     * @param configurationProperties configuration properties from the connection
+     * @param propertyName name of the property
+     * @param defaultValue value to use if the property is not set
+     * @return value
+     * @throws OMRSConfigErrorException the value is not a positive number
+     */
+    private static long getLongProperty(String              repositoryName,
+                                        Map<String, Object> configurationProperties,
+                                        String              propertyName,
+                                        long                defaultValue) throws OMRSConfigErrorException
+    {
+        final String methodName = "getLongProperty";
+
+        Object value = configurationProperties.get(propertyName);
+
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        try
+        {
+            long longValue = Long.parseLong(value.toString());
+
+            if (longValue >= 0)
+            {
+                return longValue;
+            }
+        }
+        catch (NumberFormatException error)
+        {
+            /*
+             * Reported below.
+             */
+        }
+
+        throw new OMRSConfigErrorException(InMemoryOMRSErrorCode.INVALID_PERSISTENCE_PROPERTY.getMessageDefinition(value.toString(),
+                                                                                                                   propertyName,
+                                                                                                                   repositoryName),
+                                           InMemoryOMRSPersistenceLog.class.getName(),
+                                           methodName);
+    }
+
+
+    /**
+     * Replay the snapshot and log into the store and then open the log for new records.
+     *
+     * @param consumer store to load
+     * @throws OMRSConfigErrorException the files can not be read
+     */
+    synchronized void open(RecordConsumer consumer) throws OMRSConfigErrorException
+    {
+        final String methodName = "open";
+
+        try
+        {
+            Files.createDirectories(directory);
+            Files.deleteIfExists(directory.resolve(SNAPSHOT_WORK_FILE_NAME));
+            Files.deleteIfExists(directory.resolve(LOG_WORK_FILE_NAME));
+
+            long snapshotSequenceNumber = this.replaySnapshot(consumer);
+            long validLogLength         = this.replayLog(consumer, snapshotSequenceNumber);
+
+            Path logFile = directory.resolve(LOG_FILE_NAME);
+
+            if (Files.exists(logFile))
+            {
+                try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE))
+                {
+                    if (channel.size() > validLogLength)
+                    {
+                        /*
+                         * Remove the incomplete change at the end of the log.
+                         */
+                        channel.truncate(validLogLength);
+                        channel.force(true);
+                    }
+                }
+            }
+
+            this.openLogFile(false);
+            syncedSequenceNumber = lastSequenceNumber;
+        }
+        catch (IOException | RuntimeException error)
+        {
+            throw new OMRSConfigErrorException(InMemoryOMRSErrorCode.PERSISTENCE_LOG_NOT_READABLE.getMessageDefinition(repositoryName,
+                                                                                                                       directory.toString(),
+                                                                                                                       error.getClass().getName(),
+                                                                                                                       error.getMessage()),
+                                               this.getClass().getName(),
+                                               methodName,
+                                               error);
+        }
+
+        Thread syncThread = new Thread(this::syncContinuously, "InMemoryRepositoryLogSync-" + repositoryName);
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+
+    /**
+     * Add the records for a change to the end of the log buffer.  The records are serialized before any of them
+     * are written, so a record that can not be serialized leaves the log unchanged.  The change is not durable
+     * until waitForSync() returns for the sequence number that this method returns.  Once a write fails, no more
+     * records are accepted.
+     *
+     * @param records records for the change
+     * @return sequence number of the last record of the change
+     * @throws OMRSLogicErrorException the log can not be written
+     */
+    synchronized long append(List<LogRecord> records) throws OMRSLogicErrorException
+    {
+        final String methodName = "append";
+
+        if (writeError != null)
+        {
+            throw this.getWriteError(methodName);
+        }
+
+        if ((records == null) || (records.isEmpty()))
+        {
+            return lastSequenceNumber;
+        }
+
+        ByteArrayOutputStream change         = new ByteArrayOutputStream();
+        long                  sequenceNumber = lastSequenceNumber;
+
+        try
+        {
+            for (int i = 0; i < records.size(); i++)
+            {
+                LogRecord record = records.get(i);
+
+                writeRecord(change,
+                            ++sequenceNumber,
+                            record.getRecordType(),
+                            record.getGUID(),
+                            record.getInstance(),
+                            i < records.size() - 1);
+            }
+        }
+        catch (IOException | RuntimeException error)
+        {
+            /*
+             * An instance could not be serialized.  Nothing has been written to the log.
+             */
+            throw new OMRSLogicErrorException(InMemoryOMRSErrorCode.PERSISTENCE_LOG_NOT_WRITABLE.getMessageDefinition(repositoryName,
+                                                                                                                      directory.toString(),
+                                                                                                                      error.getClass().getName(),
+                                                                                                                      error.getMessage()),
+                                              this.getClass().getName(),
+                                              methodName,
+                                              error);
+        }
+
+        try
+        {
+            change.writeTo(logStream);
+        }
+        catch (IOException error)
+        {
+            writeError = error;
+            this.notifyAll();
+
+            throw this.getWriteError(methodName);
+        }
+
+        lastSequenceNumber = sequenceNumber;
+        recordsInLog += records.size();
+
+        /*
+         * Wake the sync thread.
+         */
+        this.notifyAll();
+
+        return sequenceNumber;
+    }
+
+
+    /**
+     * Wait until the log has been synced to disk up to and including the record with the requested sequence
+     * number.  The caller must not hold the store's write lock, so that other changes can be appended and
+     * share the sync.
+     *
+     * @param sequenceNumber sequence number returned by append()
+     * @throws OMRSLogicErrorException the log could not be synced
+     */
+    synchronized void waitForSync(long sequenceNumber) throws OMRSLogicErrorException
+    {
+        final String methodName = "waitForSync";
+
+        boolean interrupted = false;
+
+        while ((syncedSequenceNumber < sequenceNumber) && (writeError == null) && (! closed))
+        {
+            try
+            {
+                this.wait();
+            }
+            catch (InterruptedException error)
+            {
+                /*
+                 * The change is in the log so the caller must still wait for the outcome of the sync.
+                 */
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if (syncedSequenceNumber < sequenceNumber)
+        {
+            throw this.getWriteError(methodName);
+        }
+    }
+
+
+    /**
+     * Return the exception for a log that can not be written.
+     *
+     * @param methodName calling method
+     * @return exception to throw
+     */
+    private OMRSLogicErrorException getWriteError(String methodName)
+    {
+        IOException error = (writeError == null) ? new IOException("The log is closed") : writeError;
+
+        return new OMRSLogicErrorException(InMemoryOMRSErrorCode.PERSISTENCE_LOG_NOT_WRITABLE.getMessageDefinition(repositoryName,
+                                                                                                                   directory.toString(),
+                                                                                                                   error.getClass().getName(),
+                                                                                                                   error.getMessage()),
+                                           this.getClass().getName(),
+                                           methodName,
+                                           error);
+    }
+
+
+    /**
+     * Return whether the log has enough records in it to make a new snapshot worthwhile.  If it does, the
+     * snapshot is marked as in progress so the caller must then start the snapshot.
+     *
+     * @return boolean
+     */
+    synchronized boolean claimSnapshot()
+    {
+        if ((writeError == null) && (! snapshotInProgress) && (snapshotThreshold > 0) && (recordsInLog >= nextSnapshotAt))
+        {
+            snapshotInProgress = true;
+            return true;
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Start a new snapshot.  The caller adds the records that describe the complete content of the store and then
+     * commits the snapshot.  The store must not change until this method returns; after that, changes may be
+     * logged while the snapshot is written.
+     *
+     * @return snapshot writer
+     * @throws OMRSLogicErrorException the snapshot can not be written
+     */
+    synchronized SnapshotWriter startSnapshot() throws OMRSLogicErrorException
+    {
+        try
+        {
+            logStream.flush();
+
+            return new SnapshotWriter(lastSequenceNumber, logChannel.size(), recordsInLog);
+        }
+        catch (IOException error)
+        {
+            this.snapshotFailed();
+            throw this.getSnapshotError(error);
+        }
+    }
+
+
+    /**
+     * Record that a snapshot did not complete.  It is tried again once another snapshot threshold of records
+     * has been logged.
+     */
+    private synchronized void snapshotFailed()
+    {
+        snapshotInProgress = false;
+        nextSnapshotAt = recordsInLog + snapshotThreshold;
+    }
+
+
+    /**
+     * Sync any outstanding records and close the log.  This also stops the sync thread.
+     */
+    synchronized void close()
+    {
+        if (logStream != null)
+        {
+            try
+            {
+                this.sync();
+                logStream.close();
+            }
+            catch (IOException error)
+            {
+                writeError = error;
+            }
+
+            logStream  = null;
+            logChannel = null;
+        }
+
+        closed = true;
+        this.notifyAll();
+    }
+
+
+    /**
+     * Writes the records for a snapshot to a work file.  When it is committed, the work file replaces the previous
+     * snapshot and the log records that are in the snapshot are removed from the log.  If the server stops before
+     * this, the previous snapshot and the log are used.
+     */
+    class SnapshotWriter
+    {
+        private long              sequenceNumber;
+        private long              logLength;
+        private long              logRecordCount;
+        private Path              workFile;
+        private FileOutputStream  fileStream;
+        private OutputStream      snapshotStream;
+
+
+        /**
+         * Open the work file and write the header record.
+         *
+         * @param sequenceNumber the sequence number of the last record in the log that is included in the snapshot
+         * @param logLength length of the log file that is included in the snapshot
+         * @param logRecordCount number of records in the log that are included in the snapshot
+         * @throws IOException unable to write the file
+         */
+        private SnapshotWriter(long sequenceNumber,
+                               long logLength,
+                               long logRecordCount) throws IOException
+        {
+            this.sequenceNumber = sequenceNumber;
+            this.logLength      = logLength;
+            this.logRecordCount = logRecordCount;
+            this.workFile       = directory.resolve(SNAPSHOT_WORK_FILE_NAME);
+            this.fileStream     = new FileOutputStream(workFile.toFile());
+            this.snapshotStream = new BufferedOutputStream(fileStream, 1024 * 1024);
+
+            writeRecord(snapshotStream, sequenceNumber, RecordType.SNAPSHOT_START, null, null, false);
+        }
+
+
+        /**
+         * Add a record to the snapshot.
+         *
+         * @param recordType type of record
+         * @param guid unique identifier of the instance
+         * @param instance instance
+         * @throws OMRSLogicErrorException the snapshot can not be written
+         */
+        void add(RecordType recordType,
+                 String     guid,
+                 Object     instance) throws OMRSLogicErrorException
+        {
+            try
+            {
+                writeRecord(snapshotStream, sequenceNumber, recordType, guid, instance, false);
+            }
+            catch (IOException | RuntimeException error)
+            {
+                this.abandon();
+                throw getSnapshotError(error);
+            }
+        }
+
+
+        /**
+         * Complete the snapshot, replace the previous snapshot and remove the records it includes from the log.
+         * The records logged since the snapshot was started are copied to a new log file, which then replaces the log.
+         *
+         * @throws OMRSLogicErrorException the snapshot can not be written
+         */
+        void commit() throws OMRSLogicErrorException
+        {
+            try
+            {
+                writeRecord(snapshotStream, sequenceNumber, RecordType.SNAPSHOT_END, null, null, false);
+                snapshotStream.flush();
+                fileStream.getChannel().force(true);
+                snapshotStream.close();
+            }
+            catch (IOException error)
+            {
+                this.abandon();
+                throw getSnapshotError(error);
+            }
+
+            synchronized (InMemoryOMRSPersistenceLog.this)
+            {
+                Path logWorkFile = directory.resolve(LOG_WORK_FILE_NAME);
+
+                try
+                {
+                    logStream.flush();
+
+                    try (FileChannel logReadChannel = FileChannel.open(directory.resolve(LOG_FILE_NAME),
+                                                                       StandardOpenOption.READ);
+                         FileChannel logWorkChannel = FileChannel.open(logWorkFile,
+                                                                       StandardOpenOption.CREATE,
+                                                                       StandardOpenOption.TRUNCATE_EXISTING,
+                                                                       StandardOpenOption.WRITE))
+                    {
+                        long position = logLength;
+                        long end      = logReadChannel.size();
+
+                        while (position < end)
+                        {
+                            position += logReadChannel.transferTo(position, end - position, logWorkChannel);
+                        }
+
+                        logWorkChannel.force(true);
+                    }
+
+                    Files.move(workFile,
+                               directory.resolve(SNAPSHOT_FILE_NAME),
+                               StandardCopyOption.REPLACE_EXISTING,
+                               StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch (IOException error)
+                {
+                    this.abandon();
+                    throw getSnapshotError(error);
+                }
+
+                /*
+                 * The snapshot is now in place.  If the server stops before the log is replaced, the records that
+                 * are in the snapshot are skipped on replay because of their sequence numbers.
+                 */
+                try
+                {
+                    Files.move(logWorkFile,
+                               directory.resolve(LOG_FILE_NAME),
+                               StandardCopyOption.REPLACE_EXISTING,
+                               StandardCopyOption.ATOMIC_MOVE);
+
+                    logStream.close();
+                    openLogFile(false);
+
+                    /*
+                     * Every record appended so far was copied to the new log file, which has been synced.
+                     */
+                    syncedSequenceNumber = lastSequenceNumber;
+                    InMemoryOMRSPersistenceLog.this.notifyAll();
+
+                    recordsInLog = recordsInLog - logRecordCount;
+                    nextSnapshotAt = snapshotThreshold;
+                    snapshotInProgress = false;
+                }
+                catch (IOException error)
+                {
+                    /*
+                     * The log file may no longer be the one that the log stream writes to.
+                     */
+                    writeError = error;
+                    snapshotInProgress = false;
+                    throw getSnapshotError(error);
+                }
+            }
+        }
+
+
+        /**
+         * Remove the work files after an error.
+         */
+        private void abandon()
+        {
+            snapshotFailed();
+
+            try
+            {
+                snapshotStream.close();
+                Files.deleteIfExists(workFile);
+                Files.deleteIfExists(directory.resolve(LOG_WORK_FILE_NAME));
+            }
+            catch (IOException error)
+            {
+                /*
+                 * Ignored - the work files are removed when the log is next opened.
+                 */
+            }
+        }
+    }
+
+
+    /**
+     * Return the exception for an error writing a snapshot.  The log is still usable and the snapshot
+     * is tried again later.
+     *
+     * @param error error from the file system or the serializer
+     * @return exception to throw
+     */
+    private OMRSLogicErrorException getSnapshotError(Exception error)
+    {
+        final String methodName = "writeSnapshot";
+
+        return new OMRSLogicErrorException(InMemoryOMRSErrorCode.PERSISTENCE_LOG_NOT_WRITABLE.getMessageDefinition(repositoryName,
+                                                                                                                   directory.toString(),
+                                                                                                                   error.getClass().getName(),
+                                                                                                                   error.getMessage()),
+                                           this.getClass().getName(),
+                                           methodName,
+                                           error);
+    }
+
+
+    /**
+     * Open the log file for appending.
+     *
+     * @param truncate remove the existing content
+     * @throws IOException unable to open the file
+     */
+    private void openLogFile(boolean truncate) throws IOException
+    {
+        FileOutputStream fileStream = new FileOutputStream(directory.resolve(LOG_FILE_NAME).toFile(), ! truncate);
+
+        logChannel = fileStream.getChannel();
+        logStream  = new BufferedOutputStream(fileStream, 64 * 1024);
+
+        if (truncate)
+        {
+            logChannel.force(true);
+        }
+    }
+
+
+    /**
+     * Flush the buffered records and force them to disk.  The caller holds the monitor.
+     *
+     * @throws IOException unable to write the log
+     */
+    private void sync() throws IOException
+    {
+        if ((syncedSequenceNumber < lastSequenceNumber) && (logStream != null))
+        {
+            logStream.flush();
+            logChannel.force(false);
+            syncedSequenceNumber = lastSequenceNumber;
+            this.notifyAll();
+        }
+    }
+
+
+    /**
+     * Run by the sync thread.  It waits for records to be appended, flushes the buffer and then forces the
+     * log to disk without holding the monitor, so that changes can be appended while the sync is in progress.
+     * The changes appended during a sync are covered by the next one.
+     */
+    private void syncContinuously()
+    {
+        while (true)
+        {
+            FileChannel channel;
+            long        sequenceNumber;
+
+            synchronized (this)
+            {
+                while ((! closed) && (writeError == null) && (syncedSequenceNumber >= lastSequenceNumber))
+                {
+                    try
+                    {
+                        this.wait();
+                    }
+                    catch (InterruptedException error)
+                    {
+                        return;
+                    }
+                }
+
+                if ((closed) || (writeError != null))
+                {
+                    return;
+                }
+            }
+
+            if (syncDelay > 0)
+            {
+                try
+                {
+                    Thread.sleep(syncDelay);
+                }
+                catch (InterruptedException error)
+                {
+                    return;
+                }
+            }
+
+            synchronized (this)
+            {
+                if ((closed) || (writeError != null))
+                {
+                    return;
+                }
+
+                try
+                {
+                    logStream.flush();
+                }
+                catch (IOException error)
+                {
+                    writeError = error;
+                    this.notifyAll();
+                    return;
+                }
+
+                channel        = logChannel;
+                sequenceNumber = lastSequenceNumber;
+            }
+
+            try
+            {
+                channel.force(false);
+            }
+            catch (IOException error)
+            {
+                synchronized (this)
+                {
+                    /*
+                     * The channel is closed if the log was closed or replaced after a snapshot during the sync.
+                     * In both cases the records have been synced by the thread that closed it.
+                     */
+                    if ((! closed) && (channel == logChannel))
+                    {
+                        writeError = error;
+                        this.notifyAll();
+                        return;
+                    }
+                }
+
+                continue;
+            }
+
+            synchronized (this)
+            {
+                if (sequenceNumber > syncedSequenceNumber)
+                {
+                    syncedSequenceNumber = sequenceNumber;
+                }
+
+                this.notifyAll();
+            }
+        }
+    }
+
+
+    /**
+     * Replay the snapshot file (if any).
+     *
+     * @param consumer store to load
+     * @return sequence number of the last log record included in the snapshot
+     * @throws IOException the snapshot can not be read or is incomplete
+     */
+    private long replaySnapshot(RecordConsumer consumer) throws IOException
+    {
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE_NAME);
+
+        if (! Files.exists(snapshotFile))
+        {
+            return 0;
+        }
+
+        long    snapshotSequenceNumber = -1;
+        boolean snapshotComplete       = false;
+
+        try (RecordReader reader = new RecordReader(Files.newInputStream(snapshotFile)))
+        {
+            StoredRecord record;
+
+            /*
+             * The snapshot is written to a work file and only replaces the previous snapshot once it is complete,
+             * so an invalid record means the file is corrupt.
+             */
+            while ((record = reader.readRecord()) != null)
+            {
+                if (record.recordType == RecordType.SNAPSHOT_START)
+                {
+                    snapshotSequenceNumber = record.sequenceNumber;
+                }
+                else if (record.recordType == RecordType.SNAPSHOT_END)
+                {
+                    snapshotComplete = true;
+                    break;
+                }
+                else
+                {
+                    consumer.applyRecord(record.recordType, record.guid, record.instance);
+                }
+            }
+        }
+
+        if ((snapshotSequenceNumber < 0) || (! snapshotComplete))
+        {
+            throw new IOException("Snapshot file " + snapshotFile.toString() + " is incomplete");
+        }
+
+        lastSequenceNumber = snapshotSequenceNumber;
+
+        return snapshotSequenceNumber;
+    }
+
+
+    /**
+     * Replay the changes in the log that follow the snapshot.  The records of a change are only applied once
+     * the last record of the change has been read.
+     *
+     * @param consumer store to load
+     * @param snapshotSequenceNumber sequence number of the last log record included in the snapshot
+     * @return length of the valid part of the log
+     * @throws IOException the log can not be read or is corrupt
+     */
+    private long replayLog(RecordConsumer consumer,
+                           long           snapshotSequenceNumber) throws IOException
+    {
+        Path logFile = directory.resolve(LOG_FILE_NAME);
+
+        if (! Files.exists(logFile))
+        {
+            return 0;
+        }
+
+        long               validLength = 0;
+        List<StoredRecord> change      = new ArrayList<>();
+
+        try (RecordReader reader = new RecordReader(Files.newInputStream(logFile)))
+        {
+            StoredRecord record;
+
+            while (true)
+            {
+                try
+                {
+                    record = reader.readRecord();
+                }
+                catch (InvalidRecordException error)
+                {
+                    if (! reader.atEnd())
+                    {
+                        throw new IOException("Log file " + logFile.toString() + " has an invalid record at offset " + validLength +
+                                                      " that is not the last record in the file", error);
+                    }
+
+                    /*
+                     * The server stopped part way through writing the last record.
+                     */
+                    break;
+                }
+
+                if (record == null)
+                {
+                    break;
+                }
+
+                change.add(record);
+
+                if (! record.continued)
+                {
+                    for (StoredRecord changeRecord : change)
+                    {
+                        if (changeRecord.sequenceNumber > snapshotSequenceNumber)
+                        {
+                            consumer.applyRecord(changeRecord.recordType, changeRecord.guid, changeRecord.instance);
+
+                            lastSequenceNumber = changeRecord.sequenceNumber;
+                            recordsInLog++;
+                        }
+                    }
+
+                    change.clear();
+                    validLength = reader.getPosition();
+                }
+            }
+        }
+
+        return validLength;
+    }
+
+
+    /**
+     * Write a record.  The format is the CRC32 checksum of the JSON in hex, a space, the JSON and a new line.
+     * The record type is written before the instance so that the instance can be parsed straight into its class
+     * when the record is read.
+     *
+     * @param outputStream stream to write to
+     * @param sequenceNumber sequence number of the record
+     * @param recordType type of change
+     * @param guid unique identifier of the instance
+     * @param instance instance (may be null)
+     * @param continued more records of the same change follow this one
+     * @throws IOException unable to write to the stream or serialize the instance
+     */
+    static void writeRecord(OutputStream outputStream,
+                            long         sequenceNumber,
+                            RecordType   recordType,
+                            String       guid,
+                            Object       instance,
+                            boolean      continued) throws IOException
+    {
+        ByteArrayOutputStream jsonStream = new ByteArrayOutputStream();
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(jsonStream))
+        {
+            generator.writeStartObject();
+            generator.writeNumberField(SEQUENCE_NUMBER_FIELD, sequenceNumber);
+            generator.writeStringField(RECORD_TYPE_FIELD, recordType.name());
+            generator.writeStringField(GUID_FIELD, guid);
+
+            if (continued)
+            {
+                generator.writeBooleanField(CONTINUED_FIELD, true);
+            }
+
+            if (instance != null)
+            {
+                generator.writeFieldName(INSTANCE_FIELD);
+                generator.writeObject(instance);
+            }
+
+            generator.writeEndObject();
+        }
+
+        byte[] json = jsonStream.toByteArray();
+
+        CRC32 checksum = new CRC32();
+        checksum.update(json, 0, json.length);
+
+        outputStream.write(Long.toHexString(checksum.getValue()).getBytes(StandardCharsets.UTF_8));
+        outputStream.write(CHECKSUM_SEPARATOR);
+        outputStream.write(json);
+        outputStream.write(RECORD_SEPARATOR);
+    }
+
+
+    /**
+     * A record read back from one of the files.
+     */
+    private static class StoredRecord
+    {
+        private long       sequenceNumber = -1;
+        private RecordType recordType     = null;
+        private String     guid           = null;
+        private boolean    continued      = false;
+        private Object     instance       = null;
+    }
+
+
+    /**
+     * Check the checksum of a record and parse it.  The JSON is parsed in a single pass: the instance is read
+     * straight into the class for the record type rather than into a tree first.
+     *
+     * @param line bytes of the record without the record separator
+     * @return record
+     * @throws InvalidRecordException the record is not valid
+     * @throws IOException the instance in the record can not be parsed
+     */
+    private static StoredRecord parseRecord(byte[] line) throws IOException
+    {
+        int separator = -1;
+
+        for (int i = 0; i < line.length; i++)
+        {
+            if (line[i] == CHECKSUM_SEPARATOR)
+            {
+                separator = i;
+                break;
+            }
+        }
+
+        if (separator <= 0)
+        {
+            throw new InvalidRecordException("Record has no checksum");
+        }
+
+        int jsonOffset = separator + 1;
+        int jsonLength = line.length - jsonOffset;
+
+        CRC32 checksum = new CRC32();
+        checksum.update(line, jsonOffset, jsonLength);
+
+        String storedChecksum = new String(line, 0, separator, StandardCharsets.UTF_8);
+
+        if (! Long.toHexString(checksum.getValue()).equals(storedChecksum))
+        {
+            throw new InvalidRecordException("Record does not match its checksum");
+        }
+
+        StoredRecord record       = new StoredRecord();
+        JsonNode     instanceNode = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(line, jsonOffset, jsonLength))
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+            {
+                throw new InvalidRecordException("Record is not a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.getCurrentName();
+
+                parser.nextToken();
+
+                switch (fieldName)
+                {
+                    case SEQUENCE_NUMBER_FIELD:
+                        record.sequenceNumber = parser.getLongValue();
+                        break;
+
+                    case RECORD_TYPE_FIELD:
+                        record.recordType = RecordType.valueOf(parser.getText());
+                        break;
+
+                    case GUID_FIELD:
+                        record.guid = (parser.currentToken() == JsonToken.VALUE_NULL) ? null : parser.getText();
+                        break;
+
+                    case CONTINUED_FIELD:
+                        record.continued = parser.getBooleanValue();
+                        break;
+
+                    case INSTANCE_FIELD:
+                        if (record.recordType == null)
+                        {
+                            instanceNode = objectMapper.readTree(parser);
+                        }
+                        else if (record.recordType.getInstanceClass() != null)
+                        {
+                            record.instance = objectMapper.readValue(parser, record.recordType.getInstanceClass());
+                        }
+                        else
+                        {
+                            parser.skipChildren();
+                        }
+                        break;
+
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+        }
+        catch (JsonParseException error)
+        {
+            throw new InvalidRecordException("Record is not valid JSON");
+        }
+
+        if ((record.sequenceNumber < 0) || (record.recordType == null))
+        {
+            throw new InvalidRecordException("Record has no sequence number or type");
+        }
+
+        if ((instanceNode != null) && (record.recordType.getInstanceClass() != null))
+        {
+            /*
+             * Only for records written with the instance before the type.
+             */
+            record.instance = objectMapper.treeToValue(instanceNode, record.recordType.getInstanceClass());
+        }
+
+        return record;
+    }
+
+
+    /**
+     * Thrown when a record in a file is incomplete or not valid.
+     */
+    static class InvalidRecordException extends IOException
+    {
+        private static final long serialVersionUID = 1L;
+
+        InvalidRecordException(String message)
+        {
+            super(message);
+        }
+    }
+
+
+    /**
+     * Reads the records from a file.  The file is read in large blocks and split into records in place,
+     * and the reader keeps count of the bytes in the complete records it has returned so the valid length of
+     * the log is known.
+     */
+    private static class RecordReader implements Closeable
+    {
+        private final InputStream inputStream;
+        private final byte[]      buffer      = new byte[1024 * 1024];
+        private int               bufferStart = 0;
+        private int               bufferEnd   = 0;
+        private long              position    = 0;
+
+
+        RecordReader(InputStream inputStream)
+        {
+            this.inputStream = inputStream;
+        }
+
+
+        /**
+         * Read the next record.
+         *
+         * @return record or null if there are no more records
+         * @throws InvalidRecordException the next record is incomplete or not valid
+         * @throws IOException unable to read from the file
+         */
+        StoredRecord readRecord() throws IOException
+        {
+            byte[] line = this.readLine();
+
+            if (line == null)
+            {
+                return null;
+            }
+
+            return parseRecord(line);
+        }
+
+
+        /**
+         * Return the next line of the file without its record separator.
+         *
+         * @return line or null at the end of the file
+         * @throws InvalidRecordException the file ends part way through a line
+         * @throws IOException unable to read from the file
+         */
+        private byte[] readLine() throws IOException
+        {
+            ByteArrayOutputStream partialLine = null;
+
+            while (true)
+            {
+                for (int i = bufferStart; i < bufferEnd; i++)
+                {
+                    if (buffer[i] == RECORD_SEPARATOR)
+                    {
+                        byte[] line;
+
+                        if (partialLine == null)
+                        {
+                            line = Arrays.copyOfRange(buffer, bufferStart, i);
+                        }
+                        else
+                        {
+                            partialLine.write(buffer, bufferStart, i - bufferStart);
+                            line = partialLine.toByteArray();
+                        }
+
+                        bufferStart = i + 1;
+                        position += line.length + 1;
+
+                        return line;
+                    }
+                }
+
+                /*
+                 * The line continues past the end of the buffer.
+                 */
+                if (bufferEnd > bufferStart)
+                {
+                    if (partialLine == null)
+                    {
+                        partialLine = new ByteArrayOutputStream();
+                    }
+
+                    partialLine.write(buffer, bufferStart, bufferEnd - bufferStart);
+                }
+
+                if (! this.fillBuffer())
+                {
+                    if (partialLine == null)
+                    {
+                        return null;
+                    }
+
+                    throw new InvalidRecordException("End of file part way through a record");
+                }
+            }
+        }
+
+
+        /**
+         * Read the next block of the file into the buffer.
+         *
+         * @return false at the end of the file
+         * @throws IOException unable to read from the file
+         */
+        private boolean fillBuffer() throws IOException
+        {
+            bufferStart = 0;
+            bufferEnd   = 0;
+
+            int bytesRead = inputStream.read(buffer);
+
+            while (bytesRead == 0)
+            {
+                bytesRead = inputStream.read(buffer);
+            }
+
+            if (bytesRead < 0)
+            {
+                return false;
+            }
+
+            bufferEnd = bytesRead;
+
+            return true;
+        }
+
+
+        /**
+         * Return whether there is nothing more in the file.
+         *
+         * @return boolean
+         * @throws IOException unable to read from the file
+         */
+        boolean atEnd() throws IOException
+        {
+            return (bufferStart >= bufferEnd) && (! this.fillBuffer());
+        }
+
+
+        /**
+         * Return the number of bytes in the records that have been returned.
+         *
+         * @return offset in the file
+         */
+        long getPosition()
+        {
+            return position;
+        }
+
+
+        @Override
+        public void close() throws IOException
+        {
+            inputStream.close();
+        }
+    }
+}
@@ -3,12 +3,16 @@
 package org.odpi.openmetadata.adapters.repositoryservices.inmemory.repositoryconnector;
 
 
+import org.odpi.openmetadata.frameworks.connectors.ffdc.ConnectorCheckedException;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryConnector;
 
 /**
  * The InMemoryOMRSRepositoryConnector is a connector to a local in memory repository.  It is used for test,
  * small scale fixed or temporary repositories where the initial content comes from open metadata archives and
  * other members of connected open metadata repository cohorts.
+ *
+ * The content of the repository can optionally be persisted to a local directory so that it survives a restart.
+ * This is enabled by setting the persistenceDirectory configuration property in the connection.
  */
 public class InMemoryOMRSRepositoryConnector extends OMRSRepositoryConnector
 {
@@ -41,7 +45,24 @@ public class InMemoryOMRSRepositoryConnector extends OMRSRepositoryConnector
                                                                           super.serverName,
                                                                           repositoryHelper,
                                                                           repositoryValidator,
-                                                                          metadataCollectionId);
+                                                                          metadataCollectionId,
+                                                                          connectionBean.getConfigurationProperties());
         }
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Free up any resources held since the connector is no longer needed.
+     *
+     * @throws ConnectorCheckedException there is a problem within the connector.
+     */
+    public void disconnect() throws ConnectorCheckedException
+    {
+        super.disconnect();
+
+        if (super.metadataCollection instanceof InMemoryOMRSMetadataCollection)
+        {
+            ((InMemoryOMRSMetadataCollection) super.metadataCollection).disconnect();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.repositoryservices.inmemory.repositoryconnector;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.*;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryHelper;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryValidator;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+/**
+ * InMemoryOMRSMetadataCollectionCountTest verifies that the count methods only count the instances whose home
+ * metadata collection is not excluded.
+ */
+public class InMemoryOMRSMetadataCollectionCountTest
+{
+    private static final String USER_ID                = "testUser";
+    private static final String LOCAL_COLLECTION_ID    = "localCollection";
+    private static final String REMOTE_COLLECTION_ID   = "remoteCollection";
+    private static final String ENTITY_TYPE_NAME       = "TestEntityType";
+    private static final String RELATIONSHIP_TYPE_NAME = "TestRelationshipType";
+
+    @Mock
+    private OMRSRepositoryValidator repositoryValidator;
+    @Mock
+    private OMRSRepositoryHelper    repositoryHelper;
+
+    private InMemoryOMRSMetadataCollection metadataCollection;
+
+
+    @BeforeMethod
+    public void setup() throws Exception
+    {
+        MockitoAnnotations.initMocks(this);
+
+        when(repositoryValidator.verifyInstanceType(anyString(), any(), any(), any())).thenReturn(true);
+        when(repositoryValidator.verifyInstanceHasRightStatus(any(), any())).thenReturn(true);
+        when(repositoryValidator.verifyMatchingClassifications(any(), any())).thenReturn(true);
+        when(repositoryValidator.verifyMatchingInstancePropertyValues(any(), any(), any())).thenReturn(true);
+        when(repositoryHelper.relatedEntity(anyString(), anyString(), any())).thenReturn(true);
+
+        InMemoryOMRSRepositoryConnector parentConnector = new InMemoryOMRSRepositoryConnector();
+        parentConnector.start();
+
+        metadataCollection = new InMemoryOMRSMetadataCollection(parentConnector,
+                                                                "TestRepository",
+                                                                repositoryHelper,
+                                                                repositoryValidator,
+                                                                LOCAL_COLLECTION_ID);
+
+        metadataCollection.saveEntityReferenceCopy(USER_ID, getEntity("1111", LOCAL_COLLECTION_ID, InstanceStatus.ACTIVE));
+        metadataCollection.saveEntityReferenceCopy(USER_ID, getEntity("2222", LOCAL_COLLECTION_ID, InstanceStatus.ACTIVE));
+        metadataCollection.saveEntityReferenceCopy(USER_ID, getEntity("3333", REMOTE_COLLECTION_ID, InstanceStatus.ACTIVE));
+        metadataCollection.saveEntityReferenceCopy(USER_ID, getEntity("4444", LOCAL_COLLECTION_ID, InstanceStatus.DELETED));
+
+        metadataCollection.saveRelationshipReferenceCopy(USER_ID, getRelationship("5555", LOCAL_COLLECTION_ID, "1111", "2222"));
+        metadataCollection.saveRelationshipReferenceCopy(USER_ID, getRelationship("6666", REMOTE_COLLECTION_ID, "1111", "3333"));
+        metadataCollection.saveRelationshipReferenceCopy(USER_ID, getRelationship("7777", REMOTE_COLLECTION_ID, "2222", "3333"));
+    }
+
+
+    @Test
+    void testCountEntities() throws Exception
+    {
+        assertEquals(metadataCollection.countEntities(USER_ID, null, null, null, null, null), 3);
+        assertEquals(metadataCollection.countEntities(USER_ID, null, null, null, null, null,
+                                                      Collections.singletonList(REMOTE_COLLECTION_ID)), 2);
+        assertEquals(metadataCollection.countEntities(USER_ID, null, null, null, null, null,
+                                                      Arrays.asList(LOCAL_COLLECTION_ID, REMOTE_COLLECTION_ID)), 0);
+    }
+
+
+    @Test
+    void testCountRelationships() throws Exception
+    {
+        assertEquals(metadataCollection.countRelationships(USER_ID, null, null, null, null), 3);
+        assertEquals(metadataCollection.countRelationships(USER_ID, null, null, null, null,
+                                                           Collections.singletonList(REMOTE_COLLECTION_ID)), 1);
+    }
+
+
+    @Test
+    void testCountRelationshipsForEntity() throws Exception
+    {
+        assertEquals(metadataCollection.countRelationshipsForEntity(USER_ID, "1111", null, null), 2);
+        assertEquals(metadataCollection.countRelationshipsForEntity(USER_ID, "1111", null, null,
+                                                                    Collections.singletonList(REMOTE_COLLECTION_ID)), 1);
+        assertEquals(metadataCollection.countRelationshipsForEntity(USER_ID, "3333", null, null,
+                                                                    Collections.singletonList(LOCAL_COLLECTION_ID)), 2);
+    }
+
+
+    private EntityDetail getEntity(String guid, String metadataCollectionId, InstanceStatus status)
+    {
+        InstanceType type = new InstanceType();
+        type.setTypeDefName(ENTITY_TYPE_NAME);
+
+        EntityDetail entity = new EntityDetail();
+        entity.setGUID(guid);
+        entity.setType(type);
+        entity.setMetadataCollectionId(metadataCollectionId);
+        entity.setStatus(status);
+        entity.setVersion(1L);
+        entity.setCreateTime(new Date(1000L));
+
+        return entity;
+    }
+
+
+    private Relationship getRelationship(String guid, String metadataCollectionId, String entityOneGUID, String entityTwoGUID)
+    {
+        InstanceType type = new InstanceType();
+        type.setTypeDefName(RELATIONSHIP_TYPE_NAME);
+
+        Relationship relationship = new Relationship();
+        relationship.setGUID(guid);
+        relationship.setType(type);
+        relationship.setMetadataCollectionId(metadataCollectionId);
+        relationship.setStatus(InstanceStatus.ACTIVE);
+        relationship.setVersion(1L);
+        relationship.setCreateTime(new Date(1000L));
+        relationship.setEntityOneProxy(getEntityProxy(entityOneGUID));
+        relationship.setEntityTwoProxy(getEntityProxy(entityTwoGUID));
+
+        return relationship;
+    }
+
+
+    private EntityProxy getEntityProxy(String guid)
+    {
+        InstanceType type = new InstanceType();
+        type.setTypeDefName(ENTITY_TYPE_NAME);
+
+        EntityProxy entityProxy = new EntityProxy();
+        entityProxy.setGUID(guid);
+        entityProxy.setType(type);
+        entityProxy.setStatus(InstanceStatus.ACTIVE);
+
+        return entityProxy;
+    }
+}
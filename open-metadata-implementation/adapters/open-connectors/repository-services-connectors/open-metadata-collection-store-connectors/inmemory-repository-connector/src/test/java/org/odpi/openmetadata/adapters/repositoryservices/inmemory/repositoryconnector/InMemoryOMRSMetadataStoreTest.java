@@ -0,0 +1,484 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.repositoryservices.inmemory.repositoryconnector;
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.*;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class InMemoryOMRSMetadataStoreTest
+{
+    private static final String ENTITY_TYPE_NAME   = "TestEntityType";
+    private static final int    ENTITIES_PER_TASK  = 200;
+    private static final int    READS_PER_WRITE    = 10;
+
+
+    @Test
+    void testConcurrentReadsAndWrites() throws Exception
+    {
+        InMemoryOMRSMetadataStore store = new InMemoryOMRSMetadataStore();
+
+        runWorkload(store, 1);
+        runWorkload(store, 8);
+
+        /*
+         * Every entity created by every task must be indexed and retrievable, and every update must be in the history.
+         */
+        int expectedEntities = ENTITIES_PER_TASK * 9;
+
+        assertEquals(store.getEntities().size(), expectedEntities);
+        assertEquals(store.getEntityGUIDsByType(Collections.singletonList(ENTITY_TYPE_NAME)).size(), expectedEntities);
+
+        for (EntityDetail entity : store.getEntities())
+        {
+            assertEquals(entity.getVersion(), 2L);
+            assertNotNull(store.getEntity(entity.getGUID(), entity.getCreateTime()));
+        }
+    }
+
+
+    @Test
+    void testReadsRunInParallel() throws Exception
+    {
+        InMemoryOMRSMetadataStore store         = new InMemoryOMRSMetadataStore();
+        BlockingEntityDetail      blockedEntity = new BlockingEntityDetail();
+        EntityDetail              otherEntity   = store.createEntityInStore(getEntity(1L));
+
+        store.createEntityInStore(blockedEntity);
+        blockedEntity.blockOnUpdateTime = true;
+
+        ExecutorService threadPool = Executors.newFixedThreadPool(3);
+
+        try
+        {
+            /*
+             * The first reader stops inside the store's read lock while it checks the entity's update time.
+             */
+            Future<EntityDetail> blockedRead = threadPool.submit(() -> store.getEntity(blockedEntity.getGUID(), new Date()));
+
+            assertTrue(blockedEntity.entered.await(10, TimeUnit.SECONDS));
+
+            /*
+             * Another reader is not held up by it ...
+             */
+            Future<EntityDetail> otherRead = threadPool.submit(() -> store.getEntity(otherEntity.getGUID()));
+
+            assertEquals(otherRead.get(10, TimeUnit.SECONDS), otherEntity);
+
+            /*
+             * ... but a writer has to wait for it to finish.
+             */
+            Future<?> write = threadPool.submit(() -> store.createEntityInStore(getEntity(1L)));
+
+            try
+            {
+                write.get(200, TimeUnit.MILLISECONDS);
+                fail("The write completed while a read held the store's lock");
+            }
+            catch (TimeoutException expected)
+            {
+                // the writer is waiting for the blocked reader
+            }
+
+            blockedEntity.release.countDown();
+
+            assertEquals(blockedRead.get(10, TimeUnit.SECONDS), blockedEntity);
+            write.get(10, TimeUnit.SECONDS);
+            assertEquals(store.getEntities().size(), 3);
+        }
+        finally
+        {
+            blockedEntity.release.countDown();
+            threadPool.shutdownNow();
+        }
+    }
+
+
+    @Test
+    void testWriteBlocksReads() throws Exception
+    {
+        InMemoryOMRSMetadataStore store         = new InMemoryOMRSMetadataStore();
+        BlockingEntityDetail      blockedEntity = new BlockingEntityDetail();
+        EntityDetail              otherEntity   = store.createEntityInStore(getEntity(1L));
+
+        blockedEntity.blockOnClassifications = true;
+
+        ExecutorService threadPool = Executors.newFixedThreadPool(2);
+
+        try
+        {
+            /*
+             * The writer stops inside the store's write lock while it indexes the new entity's classifications.
+             */
+            Future<EntityDetail> blockedWrite = threadPool.submit(() -> store.createEntityInStore(blockedEntity));
+
+            assertTrue(blockedEntity.entered.await(10, TimeUnit.SECONDS));
+
+            Future<EntityDetail> read = threadPool.submit(() -> store.getEntity(otherEntity.getGUID()));
+
+            try
+            {
+                read.get(200, TimeUnit.MILLISECONDS);
+                fail("The read completed while a write held the store's lock");
+            }
+            catch (TimeoutException expected)
+            {
+                // the reader is waiting for the blocked writer
+            }
+
+            blockedEntity.release.countDown();
+
+            assertEquals(blockedWrite.get(10, TimeUnit.SECONDS), blockedEntity);
+            assertEquals(read.get(10, TimeUnit.SECONDS), otherEntity);
+        }
+        finally
+        {
+            blockedEntity.release.countDown();
+            threadPool.shutdownNow();
+        }
+    }
+
+
+    @Test
+    void testEntityGUIDsByTypeAfterResumesFromCursor()
+    {
+        InMemoryOMRSMetadataStore store = new InMemoryOMRSMetadataStore();
+        TreeSet<String>           expectedGUIDs = new TreeSet<>();
+
+        for (int i = 0; i < 25; i++)
+        {
+            expectedGUIDs.add(store.createEntityInStore(getEntity(1L)).getGUID());
+        }
+
+        List<String> walkedGUIDs = new ArrayList<>();
+        String       cursor      = null;
+        List<String> page;
+
+        do
+        {
+            page = store.getEntityGUIDsByTypeAfter(Collections.singletonList(ENTITY_TYPE_NAME), cursor, 10);
+
+            if (! page.isEmpty())
+            {
+                walkedGUIDs.addAll(page);
+                cursor = page.get(page.size() - 1);
+            }
+        }
+        while (page.size() == 10);
+
+        assertEquals(walkedGUIDs, new ArrayList<>(expectedGUIDs));
+        assertEquals(store.getEntityGUIDsByTypeAfter(null, null, 100), new ArrayList<>(expectedGUIDs));
+    }
+
+
+    @Test
+    void testHistoricalLookupsUseEveryVersion()
+    {
+        InMemoryOMRSMetadataStore store = new InMemoryOMRSMetadataStore();
+
+        Classification classification = new Classification();
+        classification.setName("TestClassification");
+
+        EntityDetail entity = getEntity(1L);
+        entity.setCreateTime(new Date(1000L));
+        entity.setClassifications(Collections.singletonList(classification));
+        store.createEntityInStore(entity);
+
+        /*
+         * The second version has a different type and no classifications.
+         */
+        InstanceType newType = new InstanceType();
+        newType.setTypeDefName("NewEntityType");
+
+        EntityDetail updatedEntity = new EntityDetail(entity);
+        updatedEntity.setType(newType);
+        updatedEntity.setClassifications(null);
+        updatedEntity.setVersion(2L);
+        updatedEntity.setUpdateTime(new Date(2000L));
+        store.updateEntityInStore(updatedEntity);
+
+        EntityDetail otherEntity = getEntity(1L);
+        otherEntity.setCreateTime(new Date(1000L));
+        store.createEntityInStore(otherEntity);
+
+        InstanceType relationshipType = new InstanceType();
+        relationshipType.setTypeDefName("TestRelationshipType");
+
+        Relationship relationship = new Relationship();
+        relationship.setGUID(UUID.randomUUID().toString());
+        relationship.setType(relationshipType);
+        relationship.setCreateTime(new Date(1000L));
+        relationship.setEntityOneProxy(getEntityProxy(entity));
+        relationship.setEntityTwoProxy(getEntityProxy(otherEntity));
+        store.createRelationshipInStore(relationship);
+        store.removeRelationshipFromStore(relationship);
+
+        List<String> typeNames           = Collections.singletonList(ENTITY_TYPE_NAME);
+        List<String> classificationNames = Collections.singletonList("TestClassification");
+
+        assertEquals(store.getEntityGUIDsByType(typeNames), Collections.singleton(otherEntity.getGUID()));
+        assertEquals(store.getEntityGUIDsByType(typeNames, new Date(1500L)),
+                     new HashSet<>(Arrays.asList(entity.getGUID(), otherEntity.getGUID())));
+        assertTrue(store.getEntityGUIDsByClassification(classificationNames).isEmpty());
+        assertEquals(store.getEntityGUIDsByClassification(classificationNames, new Date(1500L)),
+                     Collections.singleton(entity.getGUID()));
+
+        /*
+         * The candidates are resolved to the version at the time of the query.
+         */
+        List<EntityDetail> entities = store.getEntities(Collections.singletonList(entity.getGUID()), new Date(1500L));
+
+        assertEquals(entities.size(), 1);
+        assertEquals(entities.get(0).getVersion(), 1L);
+        assertEquals(store.getEntities(Collections.singletonList(entity.getGUID()), new Date(2500L)).get(0).getVersion(), 2L);
+        assertTrue(store.getEntities(Collections.singletonList(entity.getGUID()), new Date(500L)).isEmpty());
+        assertEquals(store.getEntities(null, new Date(1500L)).size(), 2);
+
+        assertTrue(store.getRelationshipsForEntity(entity.getGUID()).isEmpty());
+        assertEquals(store.getRelationshipsForEntity(entity.getGUID(), new Date(1500L)).size(), 1);
+        assertEquals(store.getRelationships(null, new Date(1500L)).size(), 1);
+    }
+
+
+    @Test
+    void testCreateInstancesInStore()
+    {
+        InMemoryOMRSMetadataStore store          = new InMemoryOMRSMetadataStore();
+        EntityDetail              existingEntity = store.createEntityInStore(getEntity(1L));
+
+        /*
+         * The first new entity clashes with the existing entity so it is given a new GUID when it is stored.
+         */
+        EntityDetail clashingEntity = getEntity(1L);
+        EntityDetail newEntity      = getEntity(1L);
+
+        clashingEntity.setGUID(existingEntity.getGUID());
+
+        EntityProxy clashingProxy = getEntityProxy(clashingEntity);
+        EntityProxy newProxy      = getEntityProxy(newEntity);
+
+        InstanceType relationshipType = new InstanceType();
+        relationshipType.setTypeDefName("TestRelationshipType");
+
+        Relationship relationship = new Relationship();
+        relationship.setGUID(UUID.randomUUID().toString());
+        relationship.setType(relationshipType);
+        relationship.setEntityOneProxy(clashingProxy);
+        relationship.setEntityTwoProxy(newProxy);
+
+        store.createInstancesInStore(Arrays.asList(clashingEntity, newEntity),
+                                     Arrays.asList(clashingProxy, newProxy),
+                                     Collections.singletonList(relationship));
+
+        assertTrue(! clashingEntity.getGUID().equals(existingEntity.getGUID()));
+        assertEquals(store.getEntity(existingEntity.getGUID()), existingEntity);
+        assertEquals(store.getEntity(clashingEntity.getGUID()), clashingEntity);
+        assertEquals(store.getEntityProxy(clashingEntity.getGUID()), clashingProxy);
+        assertEquals(relationship.getEntityOneProxy().getGUID(), clashingEntity.getGUID());
+        assertEquals(store.getRelationship(relationship.getGUID()), relationship);
+        assertEquals(store.getEntities().size(), 3);
+    }
+
+
+    @Test
+    void testSaveReferenceInstancesToStore()
+    {
+        InMemoryOMRSMetadataStore batchStore    = new InMemoryOMRSMetadataStore();
+        InMemoryOMRSMetadataStore instanceStore = new InMemoryOMRSMetadataStore();
+
+        EntityDetail entityOne = getEntity(1L);
+        EntityDetail entityTwo = getEntity(1L);
+
+        InstanceType relationshipType = new InstanceType();
+        relationshipType.setTypeDefName("TestRelationshipType");
+
+        Relationship relationship = new Relationship();
+        relationship.setGUID(UUID.randomUUID().toString());
+        relationship.setType(relationshipType);
+        relationship.setEntityOneProxy(getEntityProxy(entityOne));
+        relationship.setEntityTwoProxy(getEntityProxy(entityTwo));
+
+        /*
+         * The batch must leave the store in the same state as saving each instance in turn.
+         */
+        for (InMemoryOMRSMetadataStore store : Arrays.asList(batchStore, instanceStore))
+        {
+            store.addEntityProxyToStore(getEntityProxy(entityOne));
+        }
+
+        batchStore.saveReferenceInstancesToStore(Arrays.asList(entityOne, entityTwo),
+                                                 Collections.singletonList(relationship));
+
+        instanceStore.saveReferenceEntityToStore(entityOne);
+        instanceStore.removeEntityProxyFromStore(entityOne.getGUID());
+        instanceStore.saveReferenceEntityToStore(entityTwo);
+        instanceStore.removeEntityProxyFromStore(entityTwo.getGUID());
+        instanceStore.addEntityProxyToStore(relationship.getEntityOneProxy());
+        instanceStore.addEntityProxyToStore(relationship.getEntityTwoProxy());
+        instanceStore.saveReferenceRelationshipToStore(relationship);
+
+        for (EntityDetail entity : Arrays.asList(entityOne, entityTwo))
+        {
+            assertEquals(batchStore.getEntity(entity.getGUID()), instanceStore.getEntity(entity.getGUID()));
+            assertEquals(batchStore.getEntityProxy(entity.getGUID()), instanceStore.getEntityProxy(entity.getGUID()));
+        }
+
+        assertEquals(batchStore.getRelationshipsForEntity(entityOne.getGUID()),
+                     instanceStore.getRelationshipsForEntity(entityOne.getGUID()));
+        assertEquals(batchStore.getEntityGUIDsByType(Collections.singletonList(ENTITY_TYPE_NAME)),
+                     instanceStore.getEntityGUIDsByType(Collections.singletonList(ENTITY_TYPE_NAME)));
+    }
+
+
+    /**
+     * Run a mixed read/write workload with the requested number of threads.
+     *
+     * @param store store to test
+     * @param threadCount number of threads
+     * @throws Exception the workload failed
+     */
+    private void runWorkload(InMemoryOMRSMetadataStore store,
+                             int                       threadCount) throws Exception
+    {
+        ExecutorService    threadPool = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>>    results    = new ArrayList<>();
+        CountDownLatch     startGate  = new CountDownLatch(1);
+        AtomicLong         readCount  = new AtomicLong();
+
+        try
+        {
+            for (int task = 0; task < threadCount; task++)
+            {
+                results.add(threadPool.submit(() -> {
+                    startGate.await();
+
+                    for (int i = 0; i < ENTITIES_PER_TASK; i++)
+                    {
+                        EntityDetail entity = store.createEntityInStore(getEntity(1L));
+
+                        for (int read = 0; read < READS_PER_WRITE; read++)
+                        {
+                            if (store.getEntity(entity.getGUID()) != null)
+                            {
+                                readCount.incrementAndGet();
+                            }
+
+                            store.getEntityGUIDsByType(Collections.singletonList(ENTITY_TYPE_NAME));
+                        }
+
+                        EntityDetail updatedEntity = new EntityDetail(entity);
+
+                        updatedEntity.setVersion(2L);
+                        updatedEntity.setUpdateTime(new Date(entity.getCreateTime().getTime() + 1));
+                        store.updateEntityInStore(updatedEntity);
+                    }
+
+                    return null;
+                }));
+            }
+
+            startGate.countDown();
+
+            for (Future<?> result : results)
+            {
+                result.get(60, TimeUnit.SECONDS);
+            }
+
+            assertEquals(readCount.get(), (long)(threadCount * ENTITIES_PER_TASK * READS_PER_WRITE));
+        }
+        finally
+        {
+            threadPool.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Entity that waits for the test to release it when its update time or classifications are read, once the
+     * matching flag is set.
+     */
+    private class BlockingEntityDetail extends EntityDetail
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final CountDownLatch entered                = new CountDownLatch(1);
+        private final CountDownLatch release                = new CountDownLatch(1);
+        private volatile boolean     blockOnUpdateTime      = false;
+        private volatile boolean     blockOnClassifications = false;
+
+        BlockingEntityDetail()
+        {
+            super(getEntity(1L));
+        }
+
+        @Override
+        public Date getUpdateTime()
+        {
+            if (blockOnUpdateTime)
+            {
+                waitForRelease();
+            }
+
+            return super.getUpdateTime();
+        }
+
+        @Override
+        public List<Classification> getClassifications()
+        {
+            if (blockOnClassifications)
+            {
+                waitForRelease();
+            }
+
+            return super.getClassifications();
+        }
+
+        private void waitForRelease()
+        {
+            entered.countDown();
+
+            try
+            {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException error)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    private EntityDetail getEntity(long version)
+    {
+        InstanceType type = new InstanceType();
+        type.setTypeDefName(ENTITY_TYPE_NAME);
+
+        EntityDetail entity = new EntityDetail();
+        entity.setGUID(UUID.randomUUID().toString());
+        entity.setType(type);
+        entity.setVersion(version);
+        entity.setCreateTime(new Date());
+
+        return entity;
+    }
+
+
+    private EntityProxy getEntityProxy(EntityDetail entity)
+    {
+        EntityProxy entityProxy = new EntityProxy();
+        entityProxy.setGUID(entity.getGUID());
+        entityProxy.setType(entity.getType());
+
+        return entityProxy;
+    }
+}
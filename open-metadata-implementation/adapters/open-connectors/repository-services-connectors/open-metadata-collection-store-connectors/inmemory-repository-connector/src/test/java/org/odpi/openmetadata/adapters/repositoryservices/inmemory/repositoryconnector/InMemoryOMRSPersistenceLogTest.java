@@ -0,0 +1,441 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.adapters.repositoryservices.inmemory.repositoryconnector;
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.*;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.OMRSConfigErrorException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class InMemoryOMRSPersistenceLogTest
+{
+    private static final String REPOSITORY_NAME  = "TestRepository";
+    private static final String ENTITY_TYPE_NAME = "TestEntityType";
+
+    private Path directory;
+
+
+    @BeforeMethod
+    public void setup() throws IOException
+    {
+        directory = Files.createTempDirectory("inmemory-persistence");
+    }
+
+
+    @AfterMethod
+    public void cleanup() throws IOException
+    {
+        for (File file : Objects.requireNonNull(directory.toFile().listFiles()))
+        {
+            Files.delete(file.toPath());
+        }
+
+        Files.delete(directory);
+    }
+
+
+    @Test
+    void testReplayRestoresCurrentAndHistoricalVersions()
+    {
+        InMemoryOMRSMetadataStore store = openStore(0);
+
+        EntityDetail entity = store.createEntityInStore(getEntity("1111", 1L, 1000L));
+        store.updateEntityInStore(getEntity("1111", 2L, 2000L));
+        store.createEntityInStore(getEntity("2222", 1L, 1000L));
+        store.removeEntityFromStore(store.getEntity("2222"));
+        store.closePersistenceLog();
+
+        InMemoryOMRSMetadataStore restoredStore = openStore(0);
+
+        assertEquals(restoredStore.getEntity(entity.getGUID()).getVersion(), 2L);
+        assertEquals(restoredStore.getEntity(entity.getGUID(), new Date(1500L)).getVersion(), 1L);
+        assertNull(restoredStore.getEntity("2222"));
+        assertEquals(restoredStore.getEntityGUIDsByType(Collections.singletonList(ENTITY_TYPE_NAME)).size(), 1);
+
+        restoredStore.closePersistenceLog();
+    }
+
+
+    @Test
+    void testTornRecordAtEndOfLogIsDiscarded() throws IOException
+    {
+        InMemoryOMRSMetadataStore store = openStore(0);
+
+        store.createEntityInStore(getEntity("1111", 1L, 1000L));
+        store.createEntityInStore(getEntity("2222", 1L, 1000L));
+        store.closePersistenceLog();
+
+        /*
+         * Simulate a crash part way through writing the last record.
+         */
+        Path logFile = directory.resolve(InMemoryOMRSPersistenceLog.LOG_FILE_NAME);
+
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE))
+        {
+            channel.truncate(channel.size() - 10);
+        }
+
+        InMemoryOMRSMetadataStore restoredStore = openStore(0);
+
+        assertNotNull(restoredStore.getEntity("1111"));
+        assertNull(restoredStore.getEntity("2222"));
+
+        /*
+         * New records must follow the last valid record.
+         */
+        restoredStore.createEntityInStore(getEntity("3333", 1L, 1000L));
+        restoredStore.closePersistenceLog();
+
+        InMemoryOMRSMetadataStore reopenedStore = openStore(0);
+
+        assertNotNull(reopenedStore.getEntity("1111"));
+        assertNotNull(reopenedStore.getEntity("3333"));
+
+        reopenedStore.closePersistenceLog();
+    }
+
+
+    @Test
+    void testInvalidLastRecordIsDiscarded() throws IOException
+    {
+        InMemoryOMRSMetadataStore store = openStore(0);
+
+        store.createEntityInStore(getEntity("1111", 1L, 1000L));
+        store.createEntityInStore(getEntity("2222", 1L, 1000L));
+        store.closePersistenceLog();
+
+        Path         logFile = directory.resolve(InMemoryOMRSPersistenceLog.LOG_FILE_NAME);
+        List<String> records = Files.readAllLines(logFile);
+
+        records.set(1, records.get(1).replace("2222", "2223"));
+        Files.write(logFile, records);
+
+        InMemoryOMRSMetadataStore restoredStore = openStore(0);
+
+        assertNotNull(restoredStore.getEntity("1111"));
+        assertNull(restoredStore.getEntity("2222"));
+        assertNull(restoredStore.getEntity("2223"));
+
+        restoredStore.closePersistenceLog();
+    }
+
+
+    @Test
+    void testInvalidRecordInMiddleOfLogIsRejected() throws IOException
+    {
+        InMemoryOMRSMetadataStore store = openStore(0);
+
+        store.createEntityInStore(getEntity("1111", 1L, 1000L));
+        store.createEntityInStore(getEntity("2222", 1L, 1000L));
+        store.createEntityInStore(getEntity("3333", 1L, 1000L));
+        store.closePersistenceLog();
+
+        Path         logFile = directory.resolve(InMemoryOMRSPersistenceLog.LOG_FILE_NAME);
+        List<String> records = Files.readAllLines(logFile);
+
+        records.set(1, records.get(1).replace("2222", "2223"));
+        Files.write(logFile, records);
+
+        try
+        {
+            openStore(0);
+            fail("A corrupt record in the middle of the log was not detected");
+        }
+        catch (OMRSConfigErrorException expected)
+        {
+            // the valid records that follow must not be thrown away
+        }
+
+        assertEquals(Files.readAllLines(logFile), records);
+    }
+
+
+    @Test
+    void testIncompleteChangeAtEndOfLogIsDiscarded() throws IOException
+    {
+        InMemoryOMRSMetadataStore store = openStore(0);
+
+        store.createEntityInStore(getEntity("1111", 1L, 1000L));
+        store.createInstancesInStore(Arrays.asList(getEntity("2222", 1L, 1000L), getEntity("3333", 1L, 1000L)),
+                                     Arrays.asList(getEntityProxy("2222"), getEntityProxy("3333")),
+                                     Collections.emptyList());
+        store.closePersistenceLog();
+
+        /*
+         * Simulate a crash after the first records of the batch are written, but before the last one.
+         */
+        Path         logFile = directory.resolve(InMemoryOMRSPersistenceLog.LOG_FILE_NAME);
+        List<String> records = Files.readAllLines(logFile);
+
+        assertEquals(records.size(), 5);
+        Files.write(logFile, records.subList(0, 4));
+
+        InMemoryOMRSMetadataStore restoredStore = openStore(0);
+
+        assertNotNull(restoredStore.getEntity("1111"));
+        assertNull(restoredStore.getEntity("2222"));
+        assertNull(restoredStore.getEntity("3333"));
+
+        restoredStore.createEntityInStore(getEntity("4444", 1L, 1000L));
+        restoredStore.closePersistenceLog();
+
+        assertEquals(Files.readAllLines(logFile).size(), 2);
+
+        InMemoryOMRSMetadataStore reopenedStore = openStore(0);
+
+        assertNotNull(reopenedStore.getEntity("1111"));
+        assertNull(reopenedStore.getEntity("2222"));
+        assertNotNull(reopenedStore.getEntity("4444"));
+
+        reopenedStore.closePersistenceLog();
+    }
+
+
+    @Test
+    void testSnapshotCompactsLog() throws IOException
+    {
+        InMemoryOMRSMetadataStore store = openStore(5);
+
+        for (int i = 0; i < 12; i++)
+        {
+            store.createEntityInStore(getEntity("guid-" + i, 1L, 1000L));
+            store.waitForSnapshot();
+        }
+
+        store.updateEntityInStore(getEntity("guid-0", 2L, 2000L));
+        store.closePersistenceLog();
+
+        assertTrue(Files.exists(directory.resolve(InMemoryOMRSPersistenceLog.SNAPSHOT_FILE_NAME)));
+        assertTrue(Files.readAllLines(directory.resolve(InMemoryOMRSPersistenceLog.LOG_FILE_NAME)).size() < 5);
+
+        InMemoryOMRSMetadataStore restoredStore = openStore(5);
+
+        assertEquals(restoredStore.getEntities().size(), 12);
+        assertEquals(restoredStore.getEntity("guid-0").getVersion(), 2L);
+        assertEquals(restoredStore.getEntity("guid-0", new Date(1500L)).getVersion(), 1L);
+
+        restoredStore.closePersistenceLog();
+    }
+
+
+    @Test
+    void testLogRecordsIncludedInSnapshotAreSkipped() throws IOException
+    {
+        InMemoryOMRSMetadataStore store = openStore(0);
+
+        store.createEntityInStore(getEntity("1111", 1L, 1000L));
+        store.updateEntityInStore(getEntity("1111", 2L, 2000L));
+        store.closePersistenceLog();
+
+        Path         logFile    = directory.resolve(InMemoryOMRSPersistenceLog.LOG_FILE_NAME);
+        List<String> logRecords = Files.readAllLines(logFile);
+
+        /*
+         * Write a snapshot of the same content and then restore the old log.  This is the state of the files
+         * if the server stops after the snapshot is written but before the log is emptied.
+         */
+        InMemoryOMRSMetadataStore snapshotStore = openStore(1);
+
+        snapshotStore.createEntityInStore(getEntity("2222", 1L, 1000L));
+        snapshotStore.closePersistenceLog();
+
+        List<String> combinedRecords = new ArrayList<>(logRecords);
+        combinedRecords.addAll(Files.readAllLines(logFile));
+        Files.write(logFile, combinedRecords);
+
+        InMemoryOMRSMetadataStore restoredStore = openStore(0);
+
+        assertEquals(restoredStore.getEntity("1111").getVersion(), 2L);
+        assertNotNull(restoredStore.getEntity("2222"));
+        assertEquals(restoredStore.getEntity("1111", new Date(1500L)).getVersion(), 1L);
+        assertNull(restoredStore.getEntity("1111", new Date(500L)));
+
+        restoredStore.closePersistenceLog();
+    }
+
+
+    @Test
+    void testChangesDuringSnapshotAreKept() throws IOException
+    {
+        InMemoryOMRSMetadataStore store = openStore(5);
+
+        /*
+         * The snapshot is written by another thread while the store keeps changing.  The changes that are not
+         * in the snapshot stay in the log.
+         */
+        for (int i = 0; i < 100; i++)
+        {
+            store.createEntityInStore(getEntity("guid-" + i, 1L, 1000L));
+            store.updateEntityInStore(getEntity("guid-" + i, 2L, 2000L));
+        }
+
+        store.closePersistenceLog();
+
+        assertTrue(Files.exists(directory.resolve(InMemoryOMRSPersistenceLog.SNAPSHOT_FILE_NAME)));
+
+        InMemoryOMRSMetadataStore restoredStore = openStore(0);
+
+        assertEquals(restoredStore.getEntities().size(), 100);
+
+        for (int i = 0; i < 100; i++)
+        {
+            assertEquals(restoredStore.getEntity("guid-" + i).getVersion(), 2L);
+            assertEquals(restoredStore.getEntity("guid-" + i, new Date(1500L)).getVersion(), 1L);
+        }
+
+        restoredStore.closePersistenceLog();
+    }
+
+
+    @Test
+    void testChangeThatCanNotBeLoggedIsNotMade() throws IOException
+    {
+        InMemoryOMRSMetadataStore store = openStore(0);
+
+        store.createEntityInStore(getEntity("1111", 1L, 1000L));
+
+        /*
+         * An instance that can not be serialized is refused before the store is changed.
+         */
+        EntityDetail entity = getEntity("2222", 1L, 1000L);
+
+        entity.setProperties(new InstanceProperties()
+        {
+            @Override
+            public Map<String, InstancePropertyValue> getInstanceProperties()
+            {
+                throw new IllegalStateException("Not serializable");
+            }
+        });
+
+        try
+        {
+            store.createEntityInStore(entity);
+            fail("The change was not refused");
+        }
+        catch (RuntimeException expected)
+        {
+            // the error from the persistence log
+        }
+
+        assertNull(store.getEntity("2222"));
+
+        store.createEntityInStore(getEntity("3333", 1L, 1000L));
+        store.closePersistenceLog();
+
+        InMemoryOMRSMetadataStore restoredStore = openStore(0);
+
+        assertNotNull(restoredStore.getEntity("1111"));
+        assertNull(restoredStore.getEntity("2222"));
+        assertNotNull(restoredStore.getEntity("3333"));
+
+        restoredStore.closePersistenceLog();
+    }
+
+
+    @Test
+    void testConcurrentChangesAreSyncedBeforeTheyReturn() throws InterruptedException
+    {
+        /*
+         * The sync delay makes the writers share syncs.  Each change must still be on disk when it returns,
+         * so a second store opened on the directory before the first is closed sees all of them.
+         */
+        InMemoryOMRSMetadataStore store   = openStore(0, 20);
+        List<Thread>              writers = new ArrayList<>();
+
+        for (int writer = 0; writer < 8; writer++)
+        {
+            final int writerNumber = writer;
+
+            writers.add(new Thread(() ->
+            {
+                for (int change = 0; change < 10; change++)
+                {
+                    store.createEntityInStore(getEntity(writerNumber + "-" + change, 1L, 1000L));
+                }
+            }));
+        }
+
+        for (Thread writer : writers)
+        {
+            writer.start();
+        }
+
+        for (Thread writer : writers)
+        {
+            writer.join();
+        }
+
+        InMemoryOMRSMetadataStore restoredStore = openStore(0);
+
+        assertEquals(restoredStore.getEntityGUIDsByType(Collections.singletonList(ENTITY_TYPE_NAME)).size(), 80);
+
+        restoredStore.closePersistenceLog();
+        store.closePersistenceLog();
+    }
+
+
+    private InMemoryOMRSMetadataStore openStore(long snapshotThreshold)
+    {
+        return openStore(snapshotThreshold, 0);
+    }
+
+
+    private InMemoryOMRSMetadataStore openStore(long snapshotThreshold, long syncDelay)
+    {
+        InMemoryOMRSMetadataStore store = new InMemoryOMRSMetadataStore();
+
+        store.setRepositoryName(REPOSITORY_NAME);
+        store.openPersistenceLog(new InMemoryOMRSPersistenceLog(REPOSITORY_NAME,
+                                                                directory.toString(),
+                                                                snapshotThreshold,
+                                                                syncDelay));
+
+        return store;
+    }
+
+
+    private EntityDetail getEntity(String guid, long version, long updateTime)
+    {
+        InstanceType type = new InstanceType();
+        type.setTypeDefName(ENTITY_TYPE_NAME);
+
+        EntityDetail entity = new EntityDetail();
+        entity.setGUID(guid);
+        entity.setType(type);
+        entity.setVersion(version);
+        entity.setCreateTime(new Date(1000L));
+        entity.setUpdateTime(new Date(updateTime));
+
+        return entity;
+    }
+
+
+    private EntityProxy getEntityProxy(String guid)
+    {
+        InstanceType type = new InstanceType();
+        type.setTypeDefName(ENTITY_TYPE_NAME);
+
+        EntityProxy entityProxy = new EntityProxy();
+        entityProxy.setGUID(guid);
+        entityProxy.setType(type);
+
+        return entityProxy;
+    }
+}
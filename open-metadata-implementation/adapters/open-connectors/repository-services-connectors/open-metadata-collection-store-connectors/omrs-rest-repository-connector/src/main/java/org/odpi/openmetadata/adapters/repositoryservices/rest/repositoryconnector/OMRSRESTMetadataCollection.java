@@ -32,6 +32,18 @@ public class OMRSRESTMetadataCollection extends OMRSMetadataCollection
     private String                        errorMessage = null;
     private LocalRepositoryServicesClient omrsClient;   /* Initialized in constructor */
 
+    /*
+     * Servers running an older release do not have the APIs that retrieve a list of instances in one call.
+     * Once one of these calls is rejected, the instances are retrieved one at a time.
+     */
+    private volatile boolean              batchRetrievalSupported = true;
+
+    /*
+     * Servers running an older release do not have the APIs that count instances without retrieving them.
+     * Once one of these calls is rejected, the instances are retrieved and counted locally.
+     */
+    private volatile boolean              countSupported = true;
+
     /**
      * Default constructor.
      *
@@ -915,6 +927,83 @@ public class OMRSRESTMetadataCollection extends OMRSMetadataCollection
     }
 
 
+    /**
+     * Returns the entities from the requested list that are stored in the metadata collection.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids  list of unique identifiers for the entities.
+     * @return list of the entities that are found in the metadata collection, in the order requested.  Entities
+     * that are not found are left out of the list.  Null means none of the entities are found.
+     * @throws InvalidParameterException  one of the guids is null.
+     * @throws RepositoryErrorException   there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<EntityDetail> areEntitiesKnown(String       userId,
+                                               List<String> guids) throws InvalidParameterException,
+                                                                          RepositoryErrorException,
+                                                                          UserNotAuthorizedException
+    {
+        final String methodName  = "areEntitiesKnown";
+
+        validateClient(methodName);
+
+        if (batchRetrievalSupported)
+        {
+            try
+            {
+                return omrsClient.areEntitiesKnown(userId, guids);
+            }
+            catch (FunctionNotSupportedException error)
+            {
+                batchRetrievalSupported = false;
+            }
+        }
+
+        return super.areEntitiesKnown(userId, guids);
+    }
+
+
+    /**
+     * Return the header, classifications and properties of each of the requested entities.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids  list of unique identifiers for the entities.
+     * @return list of EntityDetail structures in the order requested.
+     * @throws InvalidParameterException  one of the guids is null.
+     * @throws RepositoryErrorException   there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws EntityNotKnownException    one of the requested entity instances is not known in the metadata collection.
+     * @throws EntityProxyOnlyException   one of the requested entity instances is only a proxy in the metadata collection.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<EntityDetail> getEntityDetails(String       userId,
+                                               List<String> guids) throws InvalidParameterException,
+                                                                          RepositoryErrorException,
+                                                                          EntityNotKnownException,
+                                                                          EntityProxyOnlyException,
+                                                                          UserNotAuthorizedException
+    {
+        final String methodName  = "getEntityDetails";
+
+        validateClient(methodName);
+
+        if (batchRetrievalSupported)
+        {
+            try
+            {
+                return omrsClient.getEntityDetails(userId, guids);
+            }
+            catch (FunctionNotSupportedException error)
+            {
+                batchRetrievalSupported = false;
+            }
+        }
+
+        return super.getEntityDetails(userId, guids);
+    }
+
+
     /**
      * Return the relationships for a specific entity.
      *
@@ -978,6 +1067,78 @@ public class OMRSRESTMetadataCollection extends OMRSMetadataCollection
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InstancePage<Relationship> getRelationshipsForEntityWithCursor(String               userId,
+                                                                          String               entityGUID,
+                                                                          String               relationshipTypeGUID,
+                                                                          String               cursor,
+                                                                          List<InstanceStatus> limitResultsByStatus,
+                                                                          int                  pageSize) throws InvalidParameterException,
+                                                                                                                TypeErrorException,
+                                                                                                                RepositoryErrorException,
+                                                                                                                EntityNotKnownException,
+                                                                                                                PagingErrorException,
+                                                                                                                FunctionNotSupportedException,
+                                                                                                                UserNotAuthorizedException
+    {
+        final String             methodName = "getRelationshipsForEntityWithCursor";
+
+        validateClient(methodName);
+        return omrsClient.getRelationshipsForEntityWithCursor(userId,
+                                                              entityGUID,
+                                                              relationshipTypeGUID,
+                                                              cursor,
+                                                              limitResultsByStatus,
+                                                              pageSize);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countRelationshipsForEntity(String               userId,
+                                           String               entityGUID,
+                                           String               relationshipTypeGUID,
+                                           List<InstanceStatus> limitResultsByStatus,
+                                           List<String>         excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                          TypeErrorException,
+                                                                                                          RepositoryErrorException,
+                                                                                                          EntityNotKnownException,
+                                                                                                          FunctionNotSupportedException,
+                                                                                                          UserNotAuthorizedException
+    {
+        final String             methodName = "countRelationshipsForEntity";
+
+        validateClient(methodName);
+
+        if (countSupported)
+        {
+            try
+            {
+                return omrsClient.countRelationshipsForEntity(userId,
+                                                              entityGUID,
+                                                              relationshipTypeGUID,
+                                                              limitResultsByStatus,
+                                                              excludedHomeMetadataCollectionIds);
+            }
+            catch (FunctionNotSupportedException error)
+            {
+                countSupported = false;
+            }
+        }
+
+        return super.countRelationshipsForEntity(userId,
+                                                 entityGUID,
+                                                 relationshipTypeGUID,
+                                                 limitResultsByStatus,
+                                                 excludedHomeMetadataCollectionIds);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -1088,6 +1249,88 @@ public class OMRSRESTMetadataCollection extends OMRSMetadataCollection
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InstancePage<EntityDetail> findEntitiesByPropertyWithCursor(String                    userId,
+                                                                       String                    entityTypeGUID,
+                                                                       InstanceProperties        matchProperties,
+                                                                       MatchCriteria             matchCriteria,
+                                                                       String                    cursor,
+                                                                       List<InstanceStatus>      limitResultsByStatus,
+                                                                       List<String>              limitResultsByClassification,
+                                                                       int                       pageSize) throws InvalidParameterException,
+                                                                                                                  RepositoryErrorException,
+                                                                                                                  TypeErrorException,
+                                                                                                                  PropertyErrorException,
+                                                                                                                  PagingErrorException,
+                                                                                                                  FunctionNotSupportedException,
+                                                                                                                  UserNotAuthorizedException
+    {
+        final String       methodName = "findEntitiesByPropertyWithCursor";
+
+        validateClient(methodName);
+        return omrsClient.findEntitiesByPropertyWithCursor(userId,
+                                                           entityTypeGUID,
+                                                           matchProperties,
+                                                           matchCriteria,
+                                                           cursor,
+                                                           limitResultsByStatus,
+                                                           limitResultsByClassification,
+                                                           pageSize);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countEntities(String                    userId,
+                             String                    entityTypeGUID,
+                             List<String>              entitySubtypeGUIDs,
+                             SearchProperties          matchProperties,
+                             List<InstanceStatus>      limitResultsByStatus,
+                             SearchClassifications     matchClassifications,
+                             List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                 RepositoryErrorException,
+                                                                                                 TypeErrorException,
+                                                                                                 PropertyErrorException,
+                                                                                                 FunctionNotSupportedException,
+                                                                                                 UserNotAuthorizedException
+    {
+        final String       methodName = "countEntities";
+
+        validateClient(methodName);
+
+        if (countSupported)
+        {
+            try
+            {
+                return omrsClient.countEntities(userId,
+                                                entityTypeGUID,
+                                                entitySubtypeGUIDs,
+                                                matchProperties,
+                                                limitResultsByStatus,
+                                                matchClassifications,
+                                                excludedHomeMetadataCollectionIds);
+            }
+            catch (FunctionNotSupportedException error)
+            {
+                countSupported = false;
+            }
+        }
+
+        return super.countEntities(userId,
+                                   entityTypeGUID,
+                                   entitySubtypeGUIDs,
+                                   matchProperties,
+                                   limitResultsByStatus,
+                                   matchClassifications,
+                                   excludedHomeMetadataCollectionIds);
+    }
+
+
     /**
      * Return a list of entities that have the requested type of classifications attached.
      *
@@ -1312,6 +1555,82 @@ public class OMRSRESTMetadataCollection extends OMRSMetadataCollection
     }
 
 
+    /**
+     * Returns the relationships from the requested list that are stored in the metadata collection.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the relationships.
+     * @return list of the relationships that are found in the metadata collection, in the order requested.
+     * Relationships that are not found are left out of the list.  Null means none of the relationships are found.
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<Relationship> areRelationshipsKnown(String       userId,
+                                                    List<String> guids) throws InvalidParameterException,
+                                                                               RepositoryErrorException,
+                                                                               UserNotAuthorizedException
+    {
+        final String methodName  = "areRelationshipsKnown";
+
+        validateClient(methodName);
+
+        if (batchRetrievalSupported)
+        {
+            try
+            {
+                return omrsClient.areRelationshipsKnown(userId, guids);
+            }
+            catch (FunctionNotSupportedException error)
+            {
+                batchRetrievalSupported = false;
+            }
+        }
+
+        return super.areRelationshipsKnown(userId, guids);
+    }
+
+
+    /**
+     * Return the current version of each of the requested relationships.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the relationships.
+     * @return list of relationship structures in the order requested.
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws RelationshipNotKnownException the metadata collection does not have a relationship with
+     *                                         one of the requested GUIDs stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<Relationship> getRelationships(String       userId,
+                                               List<String> guids) throws InvalidParameterException,
+                                                                          RepositoryErrorException,
+                                                                          RelationshipNotKnownException,
+                                                                          UserNotAuthorizedException
+    {
+        final String methodName  = "getRelationships";
+
+        validateClient(methodName);
+
+        if (batchRetrievalSupported)
+        {
+            try
+            {
+                return omrsClient.getRelationships(userId, guids);
+            }
+            catch (FunctionNotSupportedException error)
+            {
+                batchRetrievalSupported = false;
+            }
+        }
+
+        return super.getRelationships(userId, guids);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -1349,6 +1668,52 @@ public class OMRSRESTMetadataCollection extends OMRSMetadataCollection
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countRelationships(String                    userId,
+                                  String                    relationshipTypeGUID,
+                                  List<String>              relationshipSubtypeGUIDs,
+                                  SearchProperties          matchProperties,
+                                  List<InstanceStatus>      limitResultsByStatus,
+                                  List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                      TypeErrorException,
+                                                                                                      RepositoryErrorException,
+                                                                                                      PropertyErrorException,
+                                                                                                      FunctionNotSupportedException,
+                                                                                                      UserNotAuthorizedException
+    {
+        final String       methodName = "countRelationships";
+
+        validateClient(methodName);
+
+        if (countSupported)
+        {
+            try
+            {
+                return omrsClient.countRelationships(userId,
+                                                     relationshipTypeGUID,
+                                                     relationshipSubtypeGUIDs,
+                                                     matchProperties,
+                                                     limitResultsByStatus,
+                                                     excludedHomeMetadataCollectionIds);
+            }
+            catch (FunctionNotSupportedException error)
+            {
+                countSupported = false;
+            }
+        }
+
+        return super.countRelationships(userId,
+                                        relationshipTypeGUID,
+                                        relationshipSubtypeGUIDs,
+                                        matchProperties,
+                                        limitResultsByStatus,
+                                        excludedHomeMetadataCollectionIds);
+    }
+
+
     /**
      * Return a list of relationships that match the requested properties by the matching criteria.   The results
      * can be received as a series of pages.
@@ -16,6 +16,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
@@ -186,7 +187,7 @@ public class SpringRESTClientConnector extends RESTClientConnector
                                                                                                      serverPlatformURLRoot,
                                                                                                      error.getMessage());
 
-            throw new RESTServerException(errorCode.getHTTPErrorCode(),
+            throw new RESTServerException(this.getHTTPErrorCode(errorCode, error),
                                           this.getClass().getName(),
                                           methodName,
                                           errorMessage,
@@ -256,7 +257,7 @@ public class SpringRESTClientConnector extends RESTClientConnector
                                                                                                      serverPlatformURLRoot,
                                                                                                      error.getMessage());
 
-            throw new RESTServerException(errorCode.getHTTPErrorCode(),
+            throw new RESTServerException(this.getHTTPErrorCode(errorCode, error),
                                           this.getClass().getName(),
                                           methodName,
                                           errorMessage,
@@ -337,7 +338,7 @@ public class SpringRESTClientConnector extends RESTClientConnector
                                                                                                      serverPlatformURLRoot,
                                                                                                      error.getMessage());
 
-            throw new RESTServerException(errorCode.getHTTPErrorCode(),
+            throw new RESTServerException(this.getHTTPErrorCode(errorCode, error),
                                           this.getClass().getName(),
                                           methodName,
                                           errorMessage,
@@ -421,7 +422,7 @@ public class SpringRESTClientConnector extends RESTClientConnector
                                                                                                      serverPlatformURLRoot,
                                                                                                      error.getMessage());
 
-            throw new RESTServerException(errorCode.getHTTPErrorCode(),
+            throw new RESTServerException(this.getHTTPErrorCode(errorCode, error),
                                               this.getClass().getName(),
                                               methodName,
                                               errorMessage,
@@ -501,7 +502,7 @@ public class SpringRESTClientConnector extends RESTClientConnector
                                                                                                      serverPlatformURLRoot,
                                                                                                      error.getMessage());
 
-            throw new RESTServerException(errorCode.getHTTPErrorCode(),
+            throw new RESTServerException(this.getHTTPErrorCode(errorCode, error),
                                           this.getClass().getName(),
                                           methodName,
                                           errorMessage,
@@ -583,7 +584,7 @@ public class SpringRESTClientConnector extends RESTClientConnector
                                                                                                      serverPlatformURLRoot,
                                                                                                      error.getMessage());
 
-            throw new RESTServerException(errorCode.getHTTPErrorCode(),
+            throw new RESTServerException(this.getHTTPErrorCode(errorCode, error),
                                           this.getClass().getName(),
                                           methodName,
                                           errorMessage,
@@ -592,4 +593,25 @@ public class SpringRESTClientConnector extends RESTClientConnector
                                           error);
         }
     }
+
+
+    /**
+     * Return the HTTP code to report for a failed REST call.  If the server responded with an error status,
+     * that status is reported so the caller can tell, for example, that the server does not have the requested
+     * URL.  Otherwise the code from the error code is used.
+     *
+     * @param errorCode error code for the failure
+     * @param error exception from the REST call
+     * @return HTTP code
+     */
+    private int getHTTPErrorCode(RESTClientConnectorErrorCode errorCode,
+                                 Throwable                    error)
+    {
+        if (error instanceof RestClientResponseException)
+        {
+            return ((RestClientResponseException)error).getRawStatusCode();
+        }
+
+        return errorCode.getHTTPErrorCode();
+    }
 }
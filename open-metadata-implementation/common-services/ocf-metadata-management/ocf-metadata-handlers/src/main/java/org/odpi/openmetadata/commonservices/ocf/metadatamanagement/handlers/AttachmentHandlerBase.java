@@ -84,27 +84,12 @@ public abstract class AttachmentHandlerBase
         invalidParameterHandler.validateUserId(userId, methodName);
         invalidParameterHandler.validateGUID(anchorGUID, guidParameterName, methodName);
 
-        List<Relationship> relationships = repositoryHandler.getRelationshipsByType(userId,
-                                                                                    anchorGUID,
-                                                                                    anchorTypeName,
-                                                                                    attachmentTypeGUID,
-                                                                                    attachmentTypeName,
-                                                                                    methodName);
-
-        int count = 0;
-
-        if (relationships != null)
-        {
-            for (Relationship relationship : relationships)
-            {
-                if (relationship != null)
-                {
-                    count ++;
-                }
-            }
-        }
-
-        return count;
+        return repositoryHandler.countAttachedRelationshipsByType(userId,
+                                                                  anchorGUID,
+                                                                  anchorTypeName,
+                                                                  attachmentTypeGUID,
+                                                                  attachmentTypeName,
+                                                                  methodName);
     }
 
 
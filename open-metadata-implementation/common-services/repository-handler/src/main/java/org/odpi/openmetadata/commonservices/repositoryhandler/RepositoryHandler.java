@@ -1113,6 +1113,65 @@ public class RepositoryHandler
     }
 
 
+    /**
+     * Return a page of the entities of the requested type.  The page is located with the cursor returned with
+     * the previous page.
+     *
+     * @param userId  user making the request
+     * @param entityTypeGUID  identifier for the entity's type
+     * @param entityTypeName  name for the entity's type
+     * @param cursor cursor returned with the previous page - null for the first page.
+     * @param pageSize maximum number of definitions to return on this call.
+     * @param methodName  name of calling method
+     * @return page of retrieved entities - a null cursor in the page means there are no more results
+     * @throws PropertyServerException problem accessing the property server
+     * @throws UserNotAuthorizedException security access problem
+     */
+    public InstancePage<EntityDetail> getEntityPageForType(String                 userId,
+                                                           String                 entityTypeGUID,
+                                                           String                 entityTypeName,
+                                                           String                 cursor,
+                                                           int                    pageSize,
+                                                           String                 methodName) throws UserNotAuthorizedException,
+                                                                                                     PropertyServerException
+    {
+        try
+        {
+            InstancePage<EntityDetail> page = metadataCollection.findEntitiesByPropertyWithCursor(userId,
+                                                                                                  entityTypeGUID,
+                                                                                                  null,
+                                                                                                  null,
+                                                                                                  cursor,
+                                                                                                  null,
+                                                                                                  null,
+                                                                                                  pageSize);
+
+            if ((page != null) && (page.getInstances() != null))
+            {
+                for (EntityDetail  entity : page.getInstances())
+                {
+                    if (entity != null)
+                    {
+                        errorHandler.validateInstanceType(userId, entity, "<null>", entityTypeName, methodName);
+                    }
+                }
+            }
+
+            return page;
+        }
+        catch (org.odpi.openmetadata.repositoryservices.ffdc.exception.UserNotAuthorizedException  error)
+        {
+            errorHandler.handleUnauthorizedUser(userId, methodName);
+        }
+        catch (Throwable   error)
+        {
+            errorHandler.handleRepositoryError(error, methodName);
+        }
+
+        return null;
+    }
+
+
     /**
      * Return the list of entities at the other end of the requested relationship type.
      *
@@ -1193,6 +1252,86 @@ public class RepositoryHandler
         }
     }
 
+
+    /**
+     * Return a page of the entities at the other end of the requested relationship type.  The page is located
+     * with the cursor returned with the previous page.
+     *
+     * @param userId  user making the request
+     * @param anchorEntityGUID  starting entity's GUID
+     * @param anchorEntityTypeName  starting entity's type name
+     * @param relationshipTypeGUID  identifier for the relationship to follow
+     * @param relationshipTypeName  type name for the relationship to follow
+     * @param cursor cursor returned with the previous page - null for the first page.
+     * @param pageSize maximum number of definitions to return on this call.
+     * @param methodName  name of calling method
+     * @return page of retrieved entities - a null cursor in the page means there are no more results
+     * @throws PropertyServerException problem accessing the property server
+     * @throws UserNotAuthorizedException security access problem
+     */
+    public InstancePage<EntityDetail> getEntityPageForRelationshipType(String                 userId,
+                                                                       String                 anchorEntityGUID,
+                                                                       String                 anchorEntityTypeName,
+                                                                       String                 relationshipTypeGUID,
+                                                                       String                 relationshipTypeName,
+                                                                       String                 cursor,
+                                                                       int                    pageSize,
+                                                                       String                 methodName) throws UserNotAuthorizedException,
+                                                                                                                 PropertyServerException
+    {
+        try
+        {
+            InstancePage<Relationship> relationshipPage = metadataCollection.getRelationshipsForEntityWithCursor(userId,
+                                                                                                                 anchorEntityGUID,
+                                                                                                                 relationshipTypeGUID,
+                                                                                                                 cursor,
+                                                                                                                 null,
+                                                                                                                 pageSize);
+
+            if (relationshipPage == null)
+            {
+                return null;
+            }
+
+            List<EntityDetail> results       = new ArrayList<>();
+            List<Relationship> relationships = relationshipPage.getInstances();
+
+            if (relationships != null)
+            {
+                for (Relationship relationship : relationships)
+                {
+                    EntityProxy requiredEnd = relationship.getEntityOneProxy();
+                    if (anchorEntityGUID.equals(requiredEnd.getGUID()))
+                    {
+                        requiredEnd = relationship.getEntityTwoProxy();
+                    }
+
+                    results.add(metadataCollection.getEntityDetail(userId, requiredEnd.getGUID()));
+                }
+            }
+            else
+            {
+                if (log.isDebugEnabled())
+                {
+                    log.debug("No relationships of type " + relationshipTypeName +
+                                      " found in page for " + anchorEntityTypeName + " entity " + anchorEntityGUID);
+                }
+            }
+
+            return new InstancePage<>(results, relationshipPage.getNextCursor());
+        }
+        catch (org.odpi.openmetadata.repositoryservices.ffdc.exception.UserNotAuthorizedException  error)
+        {
+            errorHandler.handleUnauthorizedUser(userId, methodName);
+        }
+        catch (Throwable   error)
+        {
+            errorHandler.handleRepositoryError(error, methodName);
+        }
+
+        return null;
+    }
+
     /**
      * Return the list of entities by the requested classification type.
      *
@@ -1945,6 +2084,56 @@ public class RepositoryHandler
     }
 
 
+
+    /**
+     * Return a page of the entities that match the supplied properties.  The page is located with the cursor
+     * returned with the previous page.
+     *
+     * @param userId calling userId
+     * @param properties list of properties to search on.
+     * @param matchCriteria whether any or all of the properties must match
+     * @param entityTypeGUID unique identifier of the entity's type
+     * @param cursor cursor returned with the previous page - null for the first page.
+     * @param pageSize maximum number of definitions to return on this call.
+     * @param methodName calling method
+     *
+     * @return page of returned entities - a null cursor in the page means there are no more results
+     * @throws UserNotAuthorizedException user not authorized to issue this request.
+     * @throws PropertyServerException problem retrieving the entity.
+     */
+    public InstancePage<EntityDetail>  getEntityPageByProperties(String                 userId,
+                                                                 InstanceProperties     properties,
+                                                                 MatchCriteria          matchCriteria,
+                                                                 String                 entityTypeGUID,
+                                                                 String                 cursor,
+                                                                 int                    pageSize,
+                                                                 String                 methodName) throws UserNotAuthorizedException,
+                                                                                                           PropertyServerException
+    {
+        try
+        {
+            return metadataCollection.findEntitiesByPropertyWithCursor(userId,
+                                                                       entityTypeGUID,
+                                                                       properties,
+                                                                       matchCriteria,
+                                                                       cursor,
+                                                                       null,
+                                                                       null,
+                                                                       pageSize);
+        }
+        catch (org.odpi.openmetadata.repositoryservices.ffdc.exception.UserNotAuthorizedException error)
+        {
+            errorHandler.handleUnauthorizedUser(userId, methodName);
+        }
+        catch (Throwable   error)
+        {
+            errorHandler.handleRepositoryError(error, methodName);
+        }
+
+        return null;
+    }
+
+
     /**
      * Return the requested entity by name.
      *
@@ -2158,6 +2347,65 @@ public class RepositoryHandler
 
 
 
+    /**
+     * Return a page of the relationships of the requested type connected to the anchor entity.  The page is
+     * located with the cursor returned with the previous page.
+     *
+     * @param userId  user making the request
+     * @param anchorEntityGUID  starting entity's GUID
+     * @param anchorEntityTypeName  starting entity's type name
+     * @param relationshipTypeGUID  identifier for the relationship to follow
+     * @param relationshipTypeName  type name for the relationship to follow
+     * @param cursor cursor returned with the previous page - null for the first page.
+     * @param pageSize maximum number of definitions to return on this call.
+     * @param methodName  name of calling method
+     *
+     * @return page of retrieved relationships - a null cursor in the page means there are no more results
+     *
+     * @throws UserNotAuthorizedException security access problem
+     * @throws PropertyServerException problem accessing the property server
+     */
+    public InstancePage<Relationship> getRelationshipPageByType(String                 userId,
+                                                                String                 anchorEntityGUID,
+                                                                String                 anchorEntityTypeName,
+                                                                String                 relationshipTypeGUID,
+                                                                String                 relationshipTypeName,
+                                                                String                 cursor,
+                                                                int                    pageSize,
+                                                                String                 methodName) throws UserNotAuthorizedException,
+                                                                                                          PropertyServerException
+    {
+        try
+        {
+            InstancePage<Relationship> page = metadataCollection.getRelationshipsForEntityWithCursor(userId,
+                                                                                                     anchorEntityGUID,
+                                                                                                     relationshipTypeGUID,
+                                                                                                     cursor,
+                                                                                                     null,
+                                                                                                     pageSize);
+
+            if (((page == null) || (page.getInstances() == null)) && (log.isDebugEnabled()))
+            {
+                log.debug("No relationships of type " + relationshipTypeName +
+                          " found in page for " + anchorEntityTypeName + " entity " + anchorEntityGUID);
+            }
+
+            return page;
+        }
+        catch (org.odpi.openmetadata.repositoryservices.ffdc.exception.UserNotAuthorizedException  error)
+        {
+            errorHandler.handleUnauthorizedUser(userId, methodName);
+        }
+        catch (Throwable   error)
+        {
+            errorHandler.handleRepositoryError(error, methodName);
+        }
+
+        return null;
+    }
+
+
+
     /**
      * Return the list of relationships of the requested type connected to the anchor entity.
      * No relationships found results in an exception.
@@ -2245,27 +2493,31 @@ public class RepositoryHandler
                                                 String                 methodName) throws PropertyServerException,
                                                                                           UserNotAuthorizedException
     {
-        List<Relationship> relationships = this.getRelationshipsByType(userId,
+        try
+        {
+            int count = metadataCollection.countRelationshipsForEntity(userId,
                                                                        anchorEntityGUID,
-                                                                       anchorEntityTypeName,
                                                                        relationshipTypeGUID,
-                                                                       relationshipTypeName,
-                                                                       methodName);
+                                                                       null);
 
-        int count = 0;
-
-        if (relationships != null)
-        {
-            for (Relationship relationship : relationships)
+            if (log.isDebugEnabled())
             {
-                if (relationship != null)
-                {
-                    count ++;
-                }
+                log.debug(count + " relationships of type " + relationshipTypeName +
+                          " found for " + anchorEntityTypeName + " entity " + anchorEntityGUID);
             }
+
+            return count;
+        }
+        catch (org.odpi.openmetadata.repositoryservices.ffdc.exception.UserNotAuthorizedException  error)
+        {
+            errorHandler.handleUnauthorizedUser(userId, methodName);
+        }
+        catch (Throwable   error)
+        {
+            errorHandler.handleRepositoryError(error, methodName);
         }
 
-        return count;
+        return 0;
     }
 
 
@@ -6,6 +6,7 @@ package org.odpi.openmetadata.commonservices.repositoryhandler;
 import org.odpi.openmetadata.frameworks.connectors.ffdc.PropertyServerException;
 import org.odpi.openmetadata.frameworks.connectors.ffdc.UserNotAuthorizedException;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePage;
 
 import java.util.List;
 
@@ -28,6 +29,8 @@ public class RepositoryRelatedEntitiesIterator
     private int                pageSize;
     private String             methodName;
     private List<EntityDetail> entitiesCache = null;
+    private String             cursor = null;
+    private boolean            exhausted = false;
 
 
     /**
@@ -75,24 +78,44 @@ public class RepositoryRelatedEntitiesIterator
     public boolean  moreToReceive() throws UserNotAuthorizedException,
                                            PropertyServerException
     {
-        if ((entitiesCache == null) || (entitiesCache.isEmpty()))
+        /*
+         * Pages are requested with the cursor returned with the previous page so the repository does not
+         * need to skip over the earlier results on each call.  The initial elements are skipped here, once.
+         */
+        while (((entitiesCache == null) || (entitiesCache.isEmpty())) && (! exhausted))
         {
-            entitiesCache = repositoryHandler.getEntitiesForRelationshipType(userId,
-                                                                             anchorEntityGUID,
-                                                                             anchorEntityTypeName,
-                                                                             relationshipTypeGUID,
-                                                                             relationshipTypeName,
-                                                                             startingFrom,
-                                                                             pageSize,
-                                                                             methodName);
+            InstancePage<EntityDetail> page = repositoryHandler.getEntityPageForRelationshipType(userId,
+                                                                                                 anchorEntityGUID,
+                                                                                                 anchorEntityTypeName,
+                                                                                                 relationshipTypeGUID,
+                                                                                                 relationshipTypeName,
+                                                                                                 cursor,
+                                                                                                 pageSize,
+                                                                                                 methodName);
 
-            if (entitiesCache != null)
+            if (page == null)
             {
-                startingFrom = startingFrom + entitiesCache.size();
+                entitiesCache = null;
+                cursor = null;
+            }
+            else
+            {
+                entitiesCache = page.getInstances();
+                cursor = page.getNextCursor();
+            }
+
+            exhausted = (cursor == null);
+
+            if ((entitiesCache != null) && (startingFrom > 0))
+            {
+                int skipCount = Math.min(startingFrom, entitiesCache.size());
+
+                entitiesCache.subList(0, skipCount).clear();
+                startingFrom = startingFrom - skipCount;
             }
         }
 
-        return entitiesCache != null;
+        return (entitiesCache != null) && (! entitiesCache.isEmpty());
     }
 
 
@@ -6,6 +6,7 @@ package org.odpi.openmetadata.commonservices.repositoryhandler;
 import org.odpi.openmetadata.frameworks.connectors.ffdc.PropertyServerException;
 import org.odpi.openmetadata.frameworks.connectors.ffdc.UserNotAuthorizedException;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Relationship;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePage;
 
 import java.util.List;
 
@@ -28,6 +29,8 @@ public class RepositoryRelationshipsIterator
     private int                pageSize;
     private String             methodName;
     private List<Relationship> relationshipsCache = null;
+    private String             cursor = null;
+    private boolean            exhausted = false;
 
 
     /**
@@ -75,24 +78,44 @@ public class RepositoryRelationshipsIterator
     public boolean  moreToReceive() throws UserNotAuthorizedException,
                                            PropertyServerException
     {
-        if ((relationshipsCache == null) || (relationshipsCache.isEmpty()))
+        /*
+         * Pages are requested with the cursor returned with the previous page so the repository does not
+         * need to skip over the earlier results on each call.  The initial elements are skipped here, once.
+         */
+        while (((relationshipsCache == null) || (relationshipsCache.isEmpty())) && (! exhausted))
         {
-            relationshipsCache = repositoryHandler.getRelationshipsByType(userId,
-                                                                          anchorEntityGUID,
-                                                                          anchorEntityTypeName,
-                                                                          relationshipTypeGUID,
-                                                                          relationshipTypeName,
-                                                                          startingFrom,
-                                                                          pageSize,
-                                                                          methodName);
+            InstancePage<Relationship> page = repositoryHandler.getRelationshipPageByType(userId,
+                                                                                          anchorEntityGUID,
+                                                                                          anchorEntityTypeName,
+                                                                                          relationshipTypeGUID,
+                                                                                          relationshipTypeName,
+                                                                                          cursor,
+                                                                                          pageSize,
+                                                                                          methodName);
 
-            if (relationshipsCache != null)
+            if (page == null)
             {
-                startingFrom = startingFrom + relationshipsCache.size();
+                relationshipsCache = null;
+                cursor = null;
+            }
+            else
+            {
+                relationshipsCache = page.getInstances();
+                cursor = page.getNextCursor();
+            }
+
+            exhausted = (cursor == null);
+
+            if ((relationshipsCache != null) && (startingFrom > 0))
+            {
+                int skipCount = Math.min(startingFrom, relationshipsCache.size());
+
+                relationshipsCache.subList(0, skipCount).clear();
+                startingFrom = startingFrom - skipCount;
             }
         }
 
-        return relationshipsCache != null;
+        return (relationshipsCache != null) && (! relationshipsCache.isEmpty());
     }
 
 
@@ -8,6 +8,7 @@ import org.odpi.openmetadata.frameworks.connectors.ffdc.UserNotAuthorizedExcepti
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.MatchCriteria;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceProperties;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePage;
 
 import java.util.List;
 
@@ -29,6 +30,8 @@ public class RepositorySelectedEntitiesIterator
     private int                pageSize;
     private String             methodName;
     private List<EntityDetail> entitiesCache = null;
+    private String             cursor = null;
+    private boolean            exhausted = false;
 
 
     /**
@@ -73,34 +76,43 @@ public class RepositorySelectedEntitiesIterator
     public boolean  moreToReceive() throws UserNotAuthorizedException,
                                            PropertyServerException
     {
-        if ((entitiesCache == null) || (entitiesCache.isEmpty()))
+        /*
+         * Pages are requested with the cursor returned with the previous page so the repository does not
+         * need to skip over the earlier results on each call.  The initial elements are skipped here, once.
+         */
+        while (((entitiesCache == null) || (entitiesCache.isEmpty())) && (! exhausted))
         {
-            if (matchCriteria == MatchCriteria.ANY)
+            InstancePage<EntityDetail> page = repositoryHandler.getEntityPageByProperties(userId,
+                                                                                          properties,
+                                                                                          (matchCriteria == MatchCriteria.ANY) ? MatchCriteria.ANY : MatchCriteria.ALL,
+                                                                                          entityTypeGUID,
+                                                                                          cursor,
+                                                                                          pageSize,
+                                                                                          methodName);
+
+            if (page == null)
             {
-                entitiesCache = repositoryHandler.getEntitiesByName(userId,
-                                                                    properties,
-                                                                    entityTypeGUID,
-                                                                    startingFrom,
-                                                                    pageSize,
-                                                                    methodName);
+                entitiesCache = null;
+                cursor = null;
             }
             else
             {
-                entitiesCache = repositoryHandler.getEntitiesByAllProperties(userId,
-                                                                             properties,
-                                                                             entityTypeGUID,
-                                                                             startingFrom,
-                                                                             pageSize,
-                                                                             methodName);
+                entitiesCache = page.getInstances();
+                cursor = page.getNextCursor();
             }
 
-            if (entitiesCache != null)
+            exhausted = (cursor == null);
+
+            if ((entitiesCache != null) && (startingFrom > 0))
             {
-                startingFrom = startingFrom + entitiesCache.size();
+                int skipCount = Math.min(startingFrom, entitiesCache.size());
+
+                entitiesCache.subList(0, skipCount).clear();
+                startingFrom = startingFrom - skipCount;
             }
         }
 
-        return entitiesCache != null;
+        return (entitiesCache != null) && (! entitiesCache.isEmpty());
     }
 
 
@@ -5,29 +5,27 @@ package org.odpi.openmetadata.repositoryservices.auditlog;
 
 import org.odpi.openmetadata.frameworks.auditlog.AuditLogDestination;
 import org.odpi.openmetadata.frameworks.auditlog.AuditLogRecord;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogOverflowPolicy;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogRecord;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogRecordOriginator;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogReportingComponent;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogStore;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogStoreConnectorBase;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
 /**
  * OMRSAuditLogDestination provides information needed to log records to the configured audit log destinations
- * for a specific server instance.
+ * for a specific server instance.  Each audit log store has its own OMRSAuditLogStoreWriter so that the
+ * records are written to the stores without holding up the caller.
  */
 public class OMRSAuditLogDestination extends AuditLogDestination
 {
     private final OMRSAuditLogRecordOriginator omrsOriginator = new OMRSAuditLogRecordOriginator();
-    private       List<OMRSAuditLogStore>      auditLogStores = null;
-
-    private static final Logger log = LoggerFactory.getLogger(OMRSAuditLogDestination.class);
+    private       List<OMRSAuditLogStore>       auditLogStores = null;
+    private       List<OMRSAuditLogStoreWriter> storeWriters   = null;
 
 
     /**
@@ -67,7 +65,42 @@ public class OMRSAuditLogDestination extends AuditLogDestination
         if (auditLogStores != null)
         {
             this.auditLogStores = new ArrayList<>(auditLogStores);
+            this.storeWriters = new ArrayList<>();
+
+            for (OMRSAuditLogStore auditLogStore : auditLogStores)
+            {
+                if (auditLogStore != null)
+                {
+                    storeWriters.add(getStoreWriter(auditLogStore));
+                }
+                else
+                {
+                    storeWriters.add(null);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Create the writer for an audit log store.  The queue size and overflow policy are configured on the
+     * store's connection.  Other audit log stores are written to on the caller's thread.
+     *
+     * @param auditLogStore audit log store
+     * @return writer
+     */
+    private OMRSAuditLogStoreWriter getStoreWriter(OMRSAuditLogStore auditLogStore)
+    {
+        if (auditLogStore instanceof OMRSAuditLogStoreConnectorBase)
+        {
+            OMRSAuditLogStoreConnectorBase storeConnector = (OMRSAuditLogStoreConnectorBase)auditLogStore;
+
+            return new OMRSAuditLogStoreWriter(auditLogStore,
+                                               storeConnector.getAsyncQueueSize(),
+                                               storeConnector.getOverflowPolicy());
         }
+
+        return new OMRSAuditLogStoreWriter(auditLogStore, 0, OMRSAuditLogOverflowPolicy.SPILL);
     }
 
 
@@ -114,20 +147,32 @@ public class OMRSAuditLogDestination extends AuditLogDestination
      */
     void addLogRecord(OMRSAuditLogRecord logRecord)
     {
-        if (auditLogStores != null)
+        if (storeWriters != null)
         {
-            for (OMRSAuditLogStore auditLogStore : auditLogStores)
+            for (OMRSAuditLogStoreWriter storeWriter : storeWriters)
             {
-                if (auditLogStore != null)
+                if (storeWriter != null)
                 {
-                    try
-                    {
-                        auditLogStore.storeLogRecord(new OMRSAuditLogRecord(logRecord));
-                    }
-                    catch (Throwable error)
-                    {
-                        log.error("Error: " + error + " writing audit log: " + logRecord + " to destination " + auditLogStore.getClass().getName());
-                    }
+                    storeWriter.addLogRecord(new OMRSAuditLogRecord(logRecord));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Write the queued log records to the audit log stores and stop the writer threads.  Any records logged
+     * after this call are written on the caller's thread.
+     */
+    public void disconnect()
+    {
+        if (storeWriters != null)
+        {
+            for (OMRSAuditLogStoreWriter storeWriter : storeWriters)
+            {
+                if (storeWriter != null)
+                {
+                    storeWriter.stop();
                 }
             }
         }
@@ -149,8 +194,11 @@ public class OMRSAuditLogDestination extends AuditLogDestination
 
             List<OMRSAuditLogStoreReport>  storeReportList = new ArrayList<>();
 
-            for (OMRSAuditLogStore auditLogStore : auditLogStores)
+            for (int i = 0; i < auditLogStores.size(); i++)
             {
+                OMRSAuditLogStore       auditLogStore = auditLogStores.get(i);
+                OMRSAuditLogStoreWriter storeWriter   = storeWriters.get(i);
+
                 if (auditLogStore != null)
                 {
                     OMRSAuditLogStoreReport auditLogStoreReport = new OMRSAuditLogStoreReport();
@@ -158,6 +206,8 @@ public class OMRSAuditLogDestination extends AuditLogDestination
                     auditLogStoreReport.setDestinationName(auditLogStore.getDestinationName());
                     auditLogStoreReport.setSupportedSeverities((auditLogStore.getSupportedSeverities()));
                     auditLogStoreReport.setImplementationClass(auditLogStore.getClass().getName());
+                    auditLogStoreReport.setQueueDepth(storeWriter.getQueueDepth());
+                    auditLogStoreReport.setDroppedRecords(storeWriter.getDroppedRecords());
 
                     storeReportList.add(auditLogStoreReport);
                 }
@@ -28,6 +28,8 @@ public class OMRSAuditLogStoreReport implements Serializable
     private String       destinationName     = null;
     private List<String> supportedSeverities = null;
     private String       implementationClass = null;
+    private int          queueDepth          = 0;
+    private long         droppedRecords      = 0;
 
 
     /**
@@ -49,6 +51,9 @@ public class OMRSAuditLogStoreReport implements Serializable
         {
             destinationName = template.getDestinationName();
             supportedSeverities = template.getSupportedSeverities();
+            implementationClass = template.getImplementationClass();
+            queueDepth = template.getQueueDepth();
+            droppedRecords = template.getDroppedRecords();
         }
     }
 
@@ -128,6 +133,50 @@ public class OMRSAuditLogStoreReport implements Serializable
     }
 
 
+    /**
+     * Return the number of log records waiting to be written to this audit log store.
+     *
+     * @return number of records
+     */
+    public int getQueueDepth()
+    {
+        return queueDepth;
+    }
+
+
+    /**
+     * Set up the number of log records waiting to be written to this audit log store.
+     *
+     * @param queueDepth number of records
+     */
+    public void setQueueDepth(int queueDepth)
+    {
+        this.queueDepth = queueDepth;
+    }
+
+
+    /**
+     * Return the number of log records that were discarded because the queue for this audit log store was full.
+     *
+     * @return number of records
+     */
+    public long getDroppedRecords()
+    {
+        return droppedRecords;
+    }
+
+
+    /**
+     * Set up the number of log records that were discarded because the queue for this audit log store was full.
+     *
+     * @param droppedRecords number of records
+     */
+    public void setDroppedRecords(long droppedRecords)
+    {
+        this.droppedRecords = droppedRecords;
+    }
+
+
     /**
      * Standard toString method.
      *
@@ -140,6 +189,8 @@ public class OMRSAuditLogStoreReport implements Serializable
                 "destinationName='" + destinationName + '\'' +
                 ", supportedSeverities=" + supportedSeverities +
                 ", implementationClass='" + implementationClass + '\'' +
+                ", queueDepth=" + queueDepth +
+                ", droppedRecords=" + droppedRecords +
                 '}';
     }
 
@@ -162,7 +213,9 @@ public class OMRSAuditLogStoreReport implements Serializable
             return false;
         }
         OMRSAuditLogStoreReport that = (OMRSAuditLogStoreReport) objectToCompare;
-        return Objects.equals(destinationName, that.destinationName) &&
+        return queueDepth == that.queueDepth &&
+                droppedRecords == that.droppedRecords &&
+                Objects.equals(destinationName, that.destinationName) &&
                 Objects.equals(supportedSeverities, that.supportedSeverities) &&
                 Objects.equals(implementationClass, that.implementationClass);
     }
@@ -176,6 +229,6 @@ public class OMRSAuditLogStoreReport implements Serializable
     @Override
     public int hashCode()
     {
-        return Objects.hash(destinationName, supportedSeverities, implementationClass);
+        return Objects.hash(destinationName, supportedSeverities, implementationClass, queueDepth, droppedRecords);
     }
 }
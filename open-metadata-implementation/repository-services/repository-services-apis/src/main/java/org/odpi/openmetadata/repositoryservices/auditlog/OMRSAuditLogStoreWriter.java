@@ -0,0 +1,353 @@
+/* SPDX-License-Identifier: Apache 2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.auditlog;
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogOverflowPolicy;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogRecord;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * OMRSAuditLogStoreWriter passes log records to a single audit log store.  When it has a queue, the records
+ * are added to the queue on the caller's thread and written to the store by the writer's own thread so that a
+ * slow store does not delay the caller.  The queue is bounded and the overflow policy determines what happens
+ * when it is full.  The records written to the store from the queue are in the order they were logged, but
+ * with the SPILL overflow policy a record that does not fit in the queue is written on the caller's thread
+ * ahead of the records that are still queued.  When the writer is stopped, the queued records are written
+ * before its thread ends.  Records logged while those records are being written are added to the queue so
+ * they follow them, and any later records are written on the caller's thread.  The store is only called by
+ * one thread at a time.
+ */
+class OMRSAuditLogStoreWriter implements Runnable
+{
+    private static final Logger log = LoggerFactory.getLogger(OMRSAuditLogStoreWriter.class);
+
+    private static final long stopTimeout = 10000;
+
+    /*
+     * Ranks the severities by importance for the DROP_LOWEST_SEVERITY overflow policy.  Severities that are
+     * not listed rank lowest.
+     */
+    private static final Map<String, Integer> severityImportance = new HashMap<>();
+
+    static
+    {
+        OMRSAuditLogRecordSeverity[] importanceOrder = { OMRSAuditLogRecordSeverity.TRACE,
+                                                         OMRSAuditLogRecordSeverity.PERFMON,
+                                                         OMRSAuditLogRecordSeverity.INFO,
+                                                         OMRSAuditLogRecordSeverity.EVENT,
+                                                         OMRSAuditLogRecordSeverity.TYPES,
+                                                         OMRSAuditLogRecordSeverity.COHORT,
+                                                         OMRSAuditLogRecordSeverity.DECISION,
+                                                         OMRSAuditLogRecordSeverity.ASSET,
+                                                         OMRSAuditLogRecordSeverity.STARTUP,
+                                                         OMRSAuditLogRecordSeverity.SHUTDOWN,
+                                                         OMRSAuditLogRecordSeverity.ACTION,
+                                                         OMRSAuditLogRecordSeverity.ERROR,
+                                                         OMRSAuditLogRecordSeverity.EXCEPTION,
+                                                         OMRSAuditLogRecordSeverity.SECURITY };
+
+        for (int i = 0; i < importanceOrder.length; i++)
+        {
+            severityImportance.put(importanceOrder[i].getName(), i + 1);
+        }
+    }
+
+    private final OMRSAuditLogStore                auditLogStore;
+    private final int                              maxQueueSize;
+    private final OMRSAuditLogOverflowPolicy       overflowPolicy;
+    private final ArrayDeque<OMRSAuditLogRecord>   queue;
+    private final Object                           storeLock      = new Object();
+    private       Thread                           writerThread   = null;
+    private       boolean                          running        = false;
+    private       boolean                          writing        = false;
+    private       long                             droppedRecords = 0;
+
+
+    /**
+     * Constructor for a writer.  If the queue size is greater than zero, the writer's thread is started.
+     *
+     * @param auditLogStore destination for the log records
+     * @param maxQueueSize maximum number of records waiting to be written - zero to write on the caller's thread
+     * @param overflowPolicy what to do when the queue is full
+     */
+    OMRSAuditLogStoreWriter(OMRSAuditLogStore          auditLogStore,
+                            int                        maxQueueSize,
+                            OMRSAuditLogOverflowPolicy overflowPolicy)
+    {
+        this.auditLogStore = auditLogStore;
+        this.maxQueueSize = maxQueueSize;
+        this.overflowPolicy = overflowPolicy;
+        this.queue = new ArrayDeque<>(Math.max(maxQueueSize, 1));
+
+        if (maxQueueSize > 0)
+        {
+            this.running = true;
+            this.writing = true;
+            this.writerThread = new Thread(this, "AuditLogWriter:" + auditLogStore.getDestinationName());
+            this.writerThread.setDaemon(true);
+            this.writerThread.start();
+        }
+    }
+
+
+    /**
+     * Pass a log record to the audit log store.
+     *
+     * @param logRecord the log record
+     */
+    void addLogRecord(OMRSAuditLogRecord logRecord)
+    {
+        synchronized (queue)
+        {
+            /*
+             * Records logged by the store itself while it is writing are queued without waiting to avoid
+             * the writer thread waiting for itself.
+             */
+            if ((running) && ((queue.size() < maxQueueSize) || (Thread.currentThread() == writerThread)))
+            {
+                queue.add(logRecord);
+                queue.notifyAll();
+                return;
+            }
+
+            /*
+             * Once the writer is stopped, records are queued behind the records it is still writing so the
+             * caller does not write to the store at the same time or ahead of them.
+             */
+            if ((! running) && (writing))
+            {
+                queue.add(logRecord);
+                queue.notifyAll();
+                return;
+            }
+
+            if (running)
+            {
+                switch (overflowPolicy)
+                {
+                    case BLOCK:
+                        while ((running) && (queue.size() >= maxQueueSize))
+                        {
+                            try
+                            {
+                                queue.wait();
+                            }
+                            catch (InterruptedException error)
+                            {
+                                Thread.currentThread().interrupt();
+                                break;
+                            }
+                        }
+
+                        if (running)
+                        {
+                            queue.add(logRecord);
+                            queue.notifyAll();
+                            return;
+                        }
+                        break;
+
+                    case DROP_LOWEST_SEVERITY:
+                        this.dropLowestSeverityRecord(logRecord);
+                        return;
+
+                    case SPILL:
+                        break;
+                }
+            }
+        }
+
+        this.storeLogRecord(logRecord);
+    }
+
+
+    /**
+     * Make room for a new record by discarding the least important record in the full queue.  The new record
+     * is discarded if no queued record is less important.  The oldest record is chosen from records of equal
+     * importance.  The queue's lock must be held by the caller.
+     *
+     * @param logRecord new log record
+     */
+    private void dropLowestSeverityRecord(OMRSAuditLogRecord logRecord)
+    {
+        int                lowestImportance = getImportance(logRecord);
+        OMRSAuditLogRecord lowestRecord     = null;
+
+        for (OMRSAuditLogRecord queuedRecord : queue)
+        {
+            int importance = getImportance(queuedRecord);
+
+            if (importance < lowestImportance)
+            {
+                lowestImportance = importance;
+                lowestRecord = queuedRecord;
+            }
+        }
+
+        if (lowestRecord != null)
+        {
+            Iterator<OMRSAuditLogRecord> iterator = queue.iterator();
+
+            while (iterator.hasNext())
+            {
+                if (iterator.next() == lowestRecord)
+                {
+                    iterator.remove();
+                    break;
+                }
+            }
+
+            queue.add(logRecord);
+        }
+
+        droppedRecords++;
+    }
+
+
+    /**
+     * Return the importance of a log record's severity.
+     *
+     * @param logRecord the log record
+     * @return rank - higher is more important
+     */
+    private int getImportance(OMRSAuditLogRecord logRecord)
+    {
+        Integer importance = severityImportance.get(logRecord.getSeverity());
+
+        if (importance == null)
+        {
+            return 0;
+        }
+
+        return importance;
+    }
+
+
+    /**
+     * Write a log record to the audit log store.  The writer's thread and callers that spill records both
+     * write to the store, so the calls are serialized.  Errors are logged to the debug log as there is nowhere
+     * else to report them.
+     *
+     * @param logRecord the log record
+     */
+    private void storeLogRecord(OMRSAuditLogRecord logRecord)
+    {
+        synchronized (storeLock)
+        {
+            try
+            {
+                auditLogStore.storeLogRecord(logRecord);
+            }
+            catch (Throwable error)
+            {
+                log.error("Error: " + error + " writing audit log: " + logRecord + " to destination " + auditLogStore.getClass().getName());
+            }
+        }
+    }
+
+
+    /**
+     * Write the queued records to the audit log store until the writer is stopped and the queue is empty.
+     */
+    @Override
+    public void run()
+    {
+        while (true)
+        {
+            OMRSAuditLogRecord logRecord;
+
+            synchronized (queue)
+            {
+                while ((running) && (queue.isEmpty()))
+                {
+                    try
+                    {
+                        queue.wait();
+                    }
+                    catch (InterruptedException error)
+                    {
+                        log.debug("Audit log writer interrupted");
+                    }
+                }
+
+                logRecord = queue.poll();
+
+                if (logRecord == null)
+                {
+                    writing = false;
+                    return;
+                }
+
+                queue.notifyAll();
+            }
+
+            this.storeLogRecord(logRecord);
+        }
+    }
+
+
+    /**
+     * Stop the writer once the queued records are written.  Records logged after the writer's thread ends are
+     * written on the caller's thread.
+     */
+    void stop()
+    {
+        Thread threadToJoin;
+
+        synchronized (queue)
+        {
+            running = false;
+            queue.notifyAll();
+
+            threadToJoin = writerThread;
+            writerThread = null;
+        }
+
+        if ((threadToJoin != null) && (threadToJoin != Thread.currentThread()))
+        {
+            try
+            {
+                threadToJoin.join(stopTimeout);
+            }
+            catch (InterruptedException error)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    /**
+     * Return the number of log records waiting to be written to the store.
+     *
+     * @return number of records
+     */
+    int getQueueDepth()
+    {
+        synchronized (queue)
+        {
+            return queue.size();
+        }
+    }
+
+
+    /**
+     * Return the number of log records that have been discarded because the queue was full.
+     *
+     * @return number of records
+     */
+    long getDroppedRecords()
+    {
+        synchronized (queue)
+        {
+            return droppedRecords;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.connectors.omrstopic;
+
+import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEventType;
+
+import java.util.List;
+
+/**
+ * OMRSInstanceEventFilter is implemented by an OMRSTopicListener that only cares about some of the instance
+ * events.  The OMRSTopicConnector calls it with the header of each instance event (the type of event and the
+ * type of the instance) before the OMRSInstanceEvent is built for the listener.  An event that is rejected
+ * is not passed to the listener.
+ */
+public interface OMRSInstanceEventFilter
+{
+    /**
+     * Return whether the listener wants to receive an instance event.
+     *
+     * @param instanceEventType type of instance event
+     * @param instanceTypeName name of the instance's type - null if not known
+     * @param instanceSuperTypeNames names of the supertypes of the instance's type - null if they are not known
+     *                               (for example, because the event does not include the instance)
+     * @return true if the event should be passed to the listener
+     */
+    boolean isInterestedInInstanceEvent(OMRSInstanceEventType instanceEventType,
+                                        String                instanceTypeName,
+                                        List<String>          instanceSuperTypeNames);
+}
@@ -2,7 +2,6 @@
 /* Copyright Contributors to the ODPi Egeria project. */
 package org.odpi.openmetadata.repositoryservices.connectors.omrstopic;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
 import org.odpi.openmetadata.frameworks.auditlog.AuditLoggingComponent;
 import org.odpi.openmetadata.frameworks.connectors.Connector;
@@ -12,13 +11,20 @@ import org.odpi.openmetadata.frameworks.connectors.ffdc.ConnectorCheckedExceptio
 import org.odpi.openmetadata.repositoryservices.ffdc.OMRSAuditCode;
 import org.odpi.openmetadata.repositoryservices.auditlog.OMRSAuditingComponent;
 import org.odpi.openmetadata.repositoryservices.connectors.openmetadatatopic.OpenMetadataTopicConnector;
+import org.odpi.openmetadata.repositoryservices.connectors.openmetadatatopic.OpenMetadataTopicEventMapper;
 import org.odpi.openmetadata.repositoryservices.connectors.openmetadatatopic.OpenMetadataTopicListener;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceHeader;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceType;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDefLink;
 import org.odpi.openmetadata.repositoryservices.events.OMRSEventProtocolVersion;
+import org.odpi.openmetadata.repositoryservices.events.OMRSEventCategory;
 import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEvent;
+import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEventType;
 import org.odpi.openmetadata.repositoryservices.events.OMRSRegistryEvent;
 import org.odpi.openmetadata.repositoryservices.events.OMRSTypeDefEvent;
 import org.odpi.openmetadata.repositoryservices.events.beans.OMRSEventBean;
 import org.odpi.openmetadata.repositoryservices.events.beans.v1.OMRSEventV1;
+import org.odpi.openmetadata.repositoryservices.events.beans.v1.OMRSEventV1InstanceSection;
 import org.odpi.openmetadata.repositoryservices.ffdc.OMRSErrorCode;
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.OMRSLogicErrorException;
 import org.slf4j.Logger;
@@ -358,13 +364,16 @@ public class OMRSTopicConnector extends ConnectorBase implements OMRSTopic,
         {
             try
             {
-                ObjectMapper objectMapper = new ObjectMapper();
+                /*
+                 * The event is formatted once and the same string is passed to each event bus.
+                 */
+                String eventString = OpenMetadataTopicEventMapper.getEventString(event);
 
                 for (OpenMetadataTopicConnector eventBusConnector : eventBusConnectors)
                 {
                     if (eventBusConnector != null)
                     {
-                        eventBusConnector.sendEvent(objectMapper.writeValueAsString(event));
+                        eventBusConnector.sendEvent(eventString);
                     }
                 }
             }
@@ -417,9 +426,7 @@ public class OMRSTopicConnector extends ConnectorBase implements OMRSTopic,
              */
             try
             {
-                ObjectMapper objectMapper = new ObjectMapper();
-
-                eventBean = objectMapper.readValue(event, OMRSEventBean.class);
+                eventBean = OpenMetadataTopicEventMapper.getEventBean(event, OMRSEventBean.class);
             }
             catch (Throwable   exception)
             {
@@ -437,12 +444,17 @@ public class OMRSTopicConnector extends ConnectorBase implements OMRSTopic,
              */
             if (eventBean instanceof OMRSEventV1)
             {
-                OMRSEventBean finalEventBean = eventBean;
+                OMRSEventV1         finalEventBean = (OMRSEventV1) eventBean;
+                InstanceEventHeader eventHeader    = this.getInstanceEventHeader(finalEventBean);
+
                 internalTopicListeners.parallelStream().forEach((topicListener) ->
                 {
                     try
                     {
-                        this.processOMRSEvent((OMRSEventV1) finalEventBean, topicListener);
+                        if (this.isListenerInterested(eventHeader, topicListener))
+                        {
+                            this.processOMRSEvent(finalEventBean, topicListener);
+                        }
                     }
                     catch (Throwable  error)
                     {
@@ -473,6 +485,94 @@ public class OMRSTopicConnector extends ConnectorBase implements OMRSTopic,
     }
 
 
+    /**
+     * The parts of an instance event that listeners can filter on.
+     */
+    private static class InstanceEventHeader
+    {
+        private OMRSInstanceEventType instanceEventType      = null;
+        private String                instanceTypeName       = null;
+        private List<String>          instanceSuperTypeNames = null;
+    }
+
+
+    /**
+     * Extract the type of event and the type of the instance from an instance event.  This is done once
+     * for each event, before it is passed to the listeners.
+     *
+     * @param event Version 1 of the OMRSEvent
+     * @return header or null if this is not an instance event
+     */
+    private InstanceEventHeader getInstanceEventHeader(OMRSEventV1  event)
+    {
+        if (event.getEventCategory() != OMRSEventCategory.INSTANCE)
+        {
+            return null;
+        }
+
+        OMRSEventV1InstanceSection instanceSection = event.getInstanceEventSection();
+
+        if (instanceSection == null)
+        {
+            return null;
+        }
+
+        InstanceEventHeader eventHeader = new InstanceEventHeader();
+        InstanceHeader      instance    = instanceSection.getEntity();
+
+        eventHeader.instanceEventType = instanceSection.getEventType();
+        eventHeader.instanceTypeName  = instanceSection.getTypeDefName();
+
+        if (instance == null)
+        {
+            instance = instanceSection.getRelationship();
+        }
+
+        if ((instance != null) && (instance.getType() != null))
+        {
+            InstanceType      instanceType = instance.getType();
+            List<TypeDefLink> superTypes   = instanceType.getTypeDefSuperTypes();
+
+            eventHeader.instanceTypeName = instanceType.getTypeDefName();
+            eventHeader.instanceSuperTypeNames = new ArrayList<>();
+
+            if (superTypes != null)
+            {
+                for (TypeDefLink superType : superTypes)
+                {
+                    if (superType != null)
+                    {
+                        eventHeader.instanceSuperTypeNames.add(superType.getName());
+                    }
+                }
+            }
+        }
+
+        return eventHeader;
+    }
+
+
+    /**
+     * Determine whether a listener wants to receive an event.  Only instance events are filtered.
+     *
+     * @param eventHeader header of the instance event or null for other events
+     * @param topicListener listener that will receive the event
+     * @return boolean flag
+     */
+    private boolean isListenerInterested(InstanceEventHeader eventHeader,
+                                         OMRSTopicListener   topicListener)
+    {
+        if ((eventHeader == null) || (! (topicListener instanceof OMRSInstanceEventFilter)))
+        {
+            return true;
+        }
+
+        return ((OMRSInstanceEventFilter) topicListener).isInterestedInInstanceEvent(eventHeader.instanceEventType,
+                                                                                     eventHeader.instanceTypeName,
+                                                                                     eventHeader.instanceSuperTypeNames);
+    }
+
+
     /**
      * Process the OMRS Event bean.  The processing is careful of nulls and ignores an event
      * that is incorrectly formatted.  The assumption is that the unformatted part of the message
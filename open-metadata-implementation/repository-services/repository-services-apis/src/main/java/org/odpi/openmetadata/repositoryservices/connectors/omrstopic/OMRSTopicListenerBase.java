@@ -12,12 +12,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * OMRSTopicListenerBase provides a base class for a topic listener so it only needs to
- * override the methods for the events it cares about.
+ * override the methods for the events it cares about.  A listener may also set up the instance types and
+ * instance event types that it cares about.  The OMRSTopicConnector uses these to skip passing other
+ * instance events to the listener.
  */
-public class OMRSTopicListenerBase implements OMRSTopicListener
+public class OMRSTopicListenerBase implements OMRSTopicListener, OMRSInstanceEventFilter
 {
     private static final Logger log = LoggerFactory.getLogger(OMRSTopicListenerBase.class);
 
@@ -26,6 +31,9 @@ public class OMRSTopicListenerBase implements OMRSTopicListener
     protected String   serviceName;
     protected AuditLog auditLog = null;
 
+    private volatile Set<String>                instanceTypesOfInterest      = null;
+    private volatile Set<OMRSInstanceEventType> instanceEventTypesOfInterest = null;
+
 
     /**
      * Name of the service that this is listening on behalf of.
@@ -52,6 +60,86 @@ public class OMRSTopicListenerBase implements OMRSTopicListener
     }
 
 
+    /**
+     * Set up the names of the instance types that this listener cares about.  An instance event is passed to the
+     * listener if the type of its instance, or one of its supertypes, is in this list.  Null means all types.
+     *
+     * @param instanceTypeNames list of type names
+     */
+    protected void setInstanceTypesOfInterest(List<String> instanceTypeNames)
+    {
+        if (instanceTypeNames == null)
+        {
+            this.instanceTypesOfInterest = null;
+        }
+        else
+        {
+            this.instanceTypesOfInterest = new HashSet<>(instanceTypeNames);
+        }
+    }
+
+
+    /**
+     * Set up the types of instance event that this listener cares about.  Null means all instance event types.
+     *
+     * @param instanceEventTypes list of instance event types
+     */
+    protected void setInstanceEventTypesOfInterest(List<OMRSInstanceEventType> instanceEventTypes)
+    {
+        if (instanceEventTypes == null)
+        {
+            this.instanceEventTypesOfInterest = null;
+        }
+        else
+        {
+            this.instanceEventTypesOfInterest = new HashSet<>(instanceEventTypes);
+        }
+    }
+
+
+    /**
+     * Return whether this listener wants to receive an instance event.  Events where the instance types
+     * are not known are accepted, unless the type of event is not of interest.
+     *
+     * @param instanceEventType type of instance event
+     * @param instanceTypeName name of the instance's type - null if not known
+     * @param instanceSuperTypeNames names of the supertypes of the instance's type - null if they are not known
+     * @return true if the event should be passed to the listener
+     */
+    public boolean isInterestedInInstanceEvent(OMRSInstanceEventType instanceEventType,
+                                               String                instanceTypeName,
+                                               List<String>          instanceSuperTypeNames)
+    {
+        Set<OMRSInstanceEventType> eventTypes = instanceEventTypesOfInterest;
+        Set<String>                typeNames  = instanceTypesOfInterest;
+
+        if ((eventTypes != null) && (instanceEventType != null) && (! eventTypes.contains(instanceEventType)))
+        {
+            return false;
+        }
+
+        if ((typeNames == null) || (instanceTypeName == null) || (instanceSuperTypeNames == null))
+        {
+            return true;
+        }
+
+        if (typeNames.contains(instanceTypeName))
+        {
+            return true;
+        }
+
+        for (String superTypeName : instanceSuperTypeNames)
+        {
+            if (typeNames.contains(superTypeName))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
     /**
      * Log an audit log message to record an unexpected exception.  We should never see this message.
      * It indicates a logic error in the service that threw the exception.
@@ -1920,6 +2008,10 @@ public class OMRSTopicListenerBase implements OMRSTopicListener
      * An open metadata repository is passing information about a collection of entities and relationships
      * with the other repositories in the cohort.
      *
+     * The default implementation passes each instance in the batch to processNewEntityEvent() or
+     * processNewRelationshipEvent() so that listeners that only handle the individual events still see the
+     * instances added through addEntitiesAndRelationships().
+     *
      * @param sourceName name of the source of the event.  It may be the cohort name for incoming events or the
      *                   local repository, or event mapper name.
      * @param originatorMetadataCollectionId unique identifier for the metadata collection hosted by the server that
@@ -1937,6 +2029,44 @@ public class OMRSTopicListenerBase implements OMRSTopicListener
                                           InstanceGraph instances)
     {
         log.debug("Processing instance batch event from: " + sourceName);
+
+        if (instances != null)
+        {
+            List<EntityDetail>  entities      = instances.getEntities();
+            List<Relationship>  relationships = instances.getRelationships();
+
+            if (entities != null)
+            {
+                for (EntityDetail entity : entities)
+                {
+                    if (entity != null)
+                    {
+                        this.processNewEntityEvent(sourceName,
+                                                   originatorMetadataCollectionId,
+                                                   originatorServerName,
+                                                   originatorServerType,
+                                                   originatorOrganizationName,
+                                                   entity);
+                    }
+                }
+            }
+
+            if (relationships != null)
+            {
+                for (Relationship relationship : relationships)
+                {
+                    if (relationship != null)
+                    {
+                        this.processNewRelationshipEvent(sourceName,
+                                                         originatorMetadataCollectionId,
+                                                         originatorServerName,
+                                                         originatorServerType,
+                                                         originatorOrganizationName,
+                                                         relationship);
+                    }
+                }
+            }
+        }
     }
 
 
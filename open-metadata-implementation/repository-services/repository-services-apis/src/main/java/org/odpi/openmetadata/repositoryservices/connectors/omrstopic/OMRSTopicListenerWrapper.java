@@ -6,18 +6,22 @@ package org.odpi.openmetadata.repositoryservices.connectors.omrstopic;
 import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
 import org.odpi.openmetadata.repositoryservices.ffdc.OMRSAuditCode;
 import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEvent;
+import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEventType;
 import org.odpi.openmetadata.repositoryservices.events.OMRSRegistryEvent;
 import org.odpi.openmetadata.repositoryservices.events.OMRSTypeDefEvent;
 
+import java.util.List;
+
 
 /**
  * OMRSTopicListenerWrapper is a class that wraps a real OMRSTopicListener when it registers with the
  * OMRSTopicConnector.  Its sole purpose is to catch exceptions from the real OMRSTopicListener and create
  * diagnostics.  The listeners are called in parallel with no mechanism for the connector to properly
  * manage errors from the listener so this wrapper has been installed.  If the real OMRSTopicListener
- * has been implemented properly then no errors should be handled by this wrapper class
+ * has been implemented properly then no errors should be handled by this wrapper class.  If the real
+ * OMRSTopicListener is also an OMRSInstanceEventFilter, the wrapper passes on its choice of instance events.
  */
-public class OMRSTopicListenerWrapper implements OMRSTopicListener
+public class OMRSTopicListenerWrapper implements OMRSTopicListener, OMRSInstanceEventFilter
 {
     private final String THREAD_NAME_DESCRIPTION = " OMRSTopicListener";
 
@@ -76,6 +80,39 @@ public class OMRSTopicListenerWrapper implements OMRSTopicListener
     }
 
 
+    /**
+     * Return whether the real listener wants to receive an instance event.  Listeners that do not filter their
+     * events receive all of them.
+     *
+     * @param instanceEventType type of instance event
+     * @param instanceTypeName name of the instance's type - null if not known
+     * @param instanceSuperTypeNames names of the supertypes of the instance's type - null if they are not known
+     * @return true if the event should be passed to the real listener
+     */
+    public boolean isInterestedInInstanceEvent(OMRSInstanceEventType instanceEventType,
+                                               String                instanceTypeName,
+                                               List<String>          instanceSuperTypeNames)
+    {
+        final String methodName = "isInterestedInInstanceEvent";
+
+        if (realListener instanceof OMRSInstanceEventFilter)
+        {
+            try
+            {
+                return ((OMRSInstanceEventFilter) realListener).isInterestedInInstanceEvent(instanceEventType,
+                                                                                            instanceTypeName,
+                                                                                            instanceSuperTypeNames);
+            }
+            catch (Throwable  error)
+            {
+                logUnhandledException(error, methodName);
+            }
+        }
+
+        return true;
+    }
+
+
     /**
      * Method to pass a Registry event received on topic.
      *
@@ -6,11 +6,17 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
 import org.odpi.openmetadata.frameworks.auditlog.AuditLoggingComponent;
 import org.odpi.openmetadata.frameworks.connectors.ConnectorBase;
 import org.odpi.openmetadata.frameworks.connectors.ffdc.ConnectorCheckedException;
+import org.odpi.openmetadata.frameworks.connectors.properties.ConnectionProperties;
 import org.odpi.openmetadata.frameworks.connectors.properties.EndpointProperties;
 import org.odpi.openmetadata.repositoryservices.ffdc.OMRSAuditCode;
 import org.odpi.openmetadata.repositoryservices.connectors.omrstopic.InternalOMRSEventProcessingContext;
@@ -25,7 +31,11 @@ import org.slf4j.LoggerFactory;
  * extend this class to include the interaction with the eventing/messaging layer.
  * <ul>
  *     <li>
- *         For inbound events it should call the protected distributeEvents() method.
+ *         For inbound events it should call the protected addIncomingEvent() method.  The event is queued and
+ *         the listener thread is woken to pass it to the registered listeners.  The listener thread blocks
+ *         while there are no events.  Implementations that queue their events this way pass false to the
+ *         constructor.  (Older implementations that override checkForIncomingEvents() or checkForEvents() use the
+ *         default constructor and are polled every sleepTime milliseconds.)
  *     </li>
  *     <li>
  *         For outbound events, callers will invoke the sendEvent() method.
@@ -51,14 +61,56 @@ public abstract class OpenMetadataTopicConnector extends ConnectorBase implement
     private String                          topicName          = defaultTopicName;
     private int                             sleepTime          = 100;
 
+    /*
+     * Inbound events are queued until the listener thread passes them to the listeners.  The queue size is
+     * a limit on the number of waiting events - once it is reached, the threads adding events wait for the
+     * listener thread to catch up.  The batch size is the maximum number of events taken from the queue
+     * each time the listener thread wakes up.
+     *
+     * Events that can not wait for space are held in the overflow queue.  These are the events added by the
+     * listener thread itself (for example, by a listener that sends an event to the same topic), which would
+     * wait for itself, and the events added before the connector is started, which may be added by the thread
+     * that goes on to start the connector.  Neither can be bounded without risking a deadlock.  Instead, the
+     * listener thread passes on the overflow events before taking any more events from the incoming event queue,
+     * so the overflow queue only ever holds the events added before the start and the events the listener thread
+     * added while it processed its last batch.  All of these events go to the overflow queue, even if there is
+     * space in the incoming event queue, so that they are passed on in the order they were added.
+     */
+    private volatile BlockingQueue<IncomingEvent> incomingEventQueue     = new LinkedBlockingQueue<>(1000);
+    private final Queue<IncomingEvent>            overflowEventQueue     = new ConcurrentLinkedQueue<>();
+    private int                                   incomingEventQueueSize = 1000;
+    private int                                   incomingEventBatchSize = 100;
+    private final boolean                         pollForEvents;
+    private volatile Thread                       listenerThread         = null;
+
+    /*
+     * Queued to wake the listener thread if it is waiting for events.  It is never passed to the listeners.
+     */
+    private static final IncomingEvent wakeUpListener = new IncomingEvent(null, null);
+
     protected AuditLog auditLog = null;
 
     /**
-     * Simple constructor
+     * Constructor for implementations that override checkForIncomingEvents() or checkForEvents().  The listener
+     * thread calls these methods every sleepTime milliseconds.
      */
     public OpenMetadataTopicConnector()
+    {
+        this(true);
+    }
+
+
+    /**
+     * Constructor that states how the implementation passes on its inbound events.
+     *
+     * @param pollForEvents true if the implementation overrides checkForIncomingEvents() or checkForEvents();
+     *                      false if it queues its events with addIncomingEvent()
+     */
+    protected OpenMetadataTopicConnector(boolean pollForEvents)
     {
         super();
+
+        this.pollForEvents = pollForEvents;
     }
 
 
@@ -73,6 +125,56 @@ public abstract class OpenMetadataTopicConnector extends ConnectorBase implement
         this.auditLog = auditLog;
     }
 
+    /**
+     * Initialize the connector.  The size of the incoming event queue is set from the configuration properties
+     * so that it is in place before any events are received.
+     *
+     * @param connectorInstanceId unique id for the connector instance useful for messages etc
+     * @param connectionProperties POJO for the configuration used to create the connector.
+     */
+    @Override
+    public void initialize(String               connectorInstanceId,
+                           ConnectionProperties connectionProperties)
+    {
+        super.initialize(connectorInstanceId, connectionProperties);
+
+        if (connectionProperties != null)
+        {
+            Map<String, Object> configurationProperties = connectionProperties.getConfigurationProperties();
+
+            if (configurationProperties != null)
+            {
+                Object   incomingEventQueueSize = configurationProperties.get("incomingEventQueueSize");
+
+                if ((incomingEventQueueSize instanceof Integer) && ((Integer)incomingEventQueueSize > 0))
+                {
+                    this.incomingEventQueueSize = (Integer)incomingEventQueueSize;
+                }
+
+                Object   incomingEventBatchSize = configurationProperties.get("incomingEventBatchSize");
+
+                if ((incomingEventBatchSize instanceof Integer) && ((Integer)incomingEventBatchSize > 0))
+                {
+                    this.incomingEventBatchSize = (Integer)incomingEventBatchSize;
+                }
+            }
+        }
+
+        /*
+         * Some connectors initialize more than once so the queue is only replaced if its size changes.
+         */
+        BlockingQueue<IncomingEvent> currentQueue = incomingEventQueue;
+
+        if (currentQueue.size() + currentQueue.remainingCapacity() != this.incomingEventQueueSize)
+        {
+            BlockingQueue<IncomingEvent> newQueue = new LinkedBlockingQueue<>(this.incomingEventQueueSize);
+
+            incomingEventQueue = newQueue;
+            currentQueue.drainTo(overflowEventQueue);
+        }
+    }
+
+
     /**
      * This is the method called by the listener thread when it starts.
      */
@@ -86,27 +188,53 @@ public abstract class OpenMetadataTopicConnector extends ConnectorBase implement
         {
             try
             {
-                try
-                {
-                    List<IncomingEvent> receivedEvents = checkForIncomingEvents();
+                /*
+                 * The overflow events are passed on first so they are not held up by a steady stream of
+                 * events through the incoming event queue.
+                 */
+                this.distributeOverflowEvents();
 
-                    if ((receivedEvents != null) && (!receivedEvents.isEmpty()))
+                IncomingEvent firstEvent;
+
+                if (pollForEvents)
+                {
+                    try
                     {
-                        for (IncomingEvent event : receivedEvents)
-                        {
-                            if (event != null)
-                            {
-                                this.distributeEvent(event);
-                            }
-                        }
+                        this.distributeEvents(checkForIncomingEvents());
                     }
+                    catch (Throwable   error)
+                    {
+                        log.error("Bad exception from checkForEvents", error);
+                    }
+
+                    /*
+                     * Wait for events to be added to the queue.  The wait ends as soon as an event arrives,
+                     * or after sleepTime so that checkForIncomingEvents() is called regularly.
+                     */
+                    firstEvent = incomingEventQueue.poll(sleepTime, TimeUnit.MILLISECONDS);
                 }
-                catch (Throwable   error)
+                else if (overflowEventQueue.isEmpty())
                 {
-                    log.error("Bad exception from checkForEvents", error);
+                    /*
+                     * Wait for events to be added to the queue.  The wait ends when an event arrives, or when
+                     * disconnect() queues the wakeUpListener event.
+                     */
+                    firstEvent = incomingEventQueue.take();
                 }
+                else
+                {
+                    firstEvent = incomingEventQueue.poll();
+                }
+
+                if (firstEvent != null)
+                {
+                    List<IncomingEvent> queuedEvents = new ArrayList<>();
 
-                Thread.sleep(sleepTime);
+                    queuedEvents.add(firstEvent);
+                    incomingEventQueue.drainTo(queuedEvents, incomingEventBatchSize - 1);
+
+                    this.distributeEvents(queuedEvents);
+                }
             }
             catch (InterruptedException   wakeUp)
             {
@@ -121,11 +249,48 @@ public abstract class OpenMetadataTopicConnector extends ConnectorBase implement
 
 
     /**
-     * Pass an event that has been received on the topic to each of the registered listeners.
+     * Pass the events that were added to the overflow queue to the registered listeners.
+     */
+    private void distributeOverflowEvents()
+    {
+        IncomingEvent event = overflowEventQueue.poll();
+
+        while (event != null)
+        {
+            this.distributeEvent(event);
+            event = overflowEventQueue.poll();
+        }
+    }
+
+
+    /**
+     * Pass a list of events that have been received on the topic to the registered listeners.
+     *
+     * @param receivedEvents events to distribute - may be null
+     */
+    private void distributeEvents(List<IncomingEvent> receivedEvents)
+    {
+        if (receivedEvents != null)
+        {
+            for (IncomingEvent event : receivedEvents)
+            {
+                if ((event != null) && (event != wakeUpListener))
+                {
+                    this.distributeEvent(event);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Pass an event that has been received on the topic to each of the registered listeners.  This is normally
+     * called by the listener thread.  Implementations that distribute events on their own threads may call it
+     * directly, provided the events that must stay in order are passed in order by the same thread.
      *
      * @param event OMRSEvent to distribute
      */
-    private void distributeEvent(IncomingEvent event)
+    protected void distributeEvent(IncomingEvent event)
     {
         //Initially clear the async event processing context to ensure that it will only
         //have results from processing this event
@@ -161,7 +326,89 @@ public abstract class OpenMetadataTopicConnector extends ConnectorBase implement
 
 
     /**
-     * Look to see if there is one of more new events to process.
+     * Queue an event that has been received on the topic so that the listener thread passes it to the
+     * registered listeners.  If the queue is full, the caller waits until the listener thread has taken
+     * events from the queue.  The wait is not ended by interrupting the caller - the interrupt is kept for the
+     * caller to act on once the event is queued.  Events added by the listener thread itself (for example, by a
+     * listener that sends an event to the same topic) and events added before the connector is started are queued
+     * without waiting.  Events added after the connector is disconnected are ignored.
+     *
+     * @param event received event
+     */
+    protected void addIncomingEvent(IncomingEvent event)
+    {
+        if (event == null)
+        {
+            return;
+        }
+
+        Thread currentListenerThread = listenerThread;
+
+        if ((Thread.currentThread() == currentListenerThread) || (currentListenerThread == null))
+        {
+            overflowEventQueue.add(event);
+
+            /*
+             * If the connector was started while the event was added, the listener thread may already be
+             * waiting for events.
+             */
+            if ((currentListenerThread == null) && (listenerThread != null))
+            {
+                incomingEventQueue.offer(wakeUpListener);
+            }
+
+            return;
+        }
+
+        boolean interrupted = false;
+
+        try
+        {
+            while (true)
+            {
+                try
+                {
+                    if (incomingEventQueue.offer(event, sleepTime, TimeUnit.MILLISECONDS))
+                    {
+                        return;
+                    }
+
+                    if (! keepRunning)
+                    {
+                        log.debug("Event ignored because the topic connector is disconnected");
+                        return;
+                    }
+                }
+                catch (InterruptedException interruptedWhileWaiting)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    /**
+     * Return the number of events that are queued waiting for the listener thread.
+     *
+     * @return count of queued events
+     */
+    protected int getNumberOfQueuedEvents()
+    {
+        return incomingEventQueue.size() + overflowEventQueue.size();
+    }
+
+
+    /**
+     * Look to see if there is one of more new events to process.  This is only needed by implementations that do
+     * not queue their events with addIncomingEvent().
      *
      * @return a list of received events or null
      */
@@ -256,7 +503,7 @@ public abstract class OpenMetadataTopicConnector extends ConnectorBase implement
             }
         }
 
-        Thread listenerThread = new Thread(this, listenerThreadName);
+        listenerThread = new Thread(this, listenerThreadName);
         listenerThread.start();
     }
 
@@ -271,5 +518,13 @@ public abstract class OpenMetadataTopicConnector extends ConnectorBase implement
         super.disconnect();
 
         keepRunning = false;
+
+        /*
+         * Wake the listener thread if it is waiting for events.  The thread is not interrupted because it
+         * may be in the middle of passing an event to a listener.  If the queue is full the listener thread
+         * is not waiting, and it stops once it has passed on the events it has taken.  Threads waiting for
+         * space in the incoming event queue notice that the connector has stopped within sleepTime.
+         */
+        incomingEventQueue.offer(wakeUpListener);
     }
 }
@@ -0,0 +1,88 @@
+/* SPDX-License-Identifier: Apache 2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+
+package org.odpi.openmetadata.repositoryservices.connectors.openmetadatatopic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OpenMetadataTopicEventMapper provides the JSON readers and writers used by the topic connectors to convert
+ * events to and from the strings passed over the event bus.  Creating an ObjectMapper and introspecting an event
+ * class is expensive, so a single ObjectMapper is shared and the reader and writer for each event class are
+ * created once and reused.  ObjectReader and ObjectWriter are immutable and can be used by many threads at once.
+ */
+public final class OpenMetadataTopicEventMapper
+{
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final Map<Class<?>, ObjectReader> eventReaders = Collections.synchronizedMap(new HashMap<>());
+    private static final Map<Class<?>, ObjectWriter> eventWriters = Collections.synchronizedMap(new HashMap<>());
+
+
+    /**
+     * Private constructor - all methods are static.
+     */
+    private OpenMetadataTopicEventMapper()
+    {
+    }
+
+
+    /**
+     * Return the reader that parses events of the requested class.
+     *
+     * @param eventClass class of the Java bean for the event
+     * @return reader for the event class
+     */
+    public static ObjectReader getEventReader(Class<?> eventClass)
+    {
+        return eventReaders.computeIfAbsent(eventClass, objectMapper::readerFor);
+    }
+
+
+    /**
+     * Return the writer that formats events of the requested class.  The class should be the runtime class
+     * of the event so that all of its properties are written.
+     *
+     * @param eventClass class of the Java bean for the event
+     * @return writer for the event class
+     */
+    public static ObjectWriter getEventWriter(Class<?> eventClass)
+    {
+        return eventWriters.computeIfAbsent(eventClass, objectMapper::writerFor);
+    }
+
+
+    /**
+     * Format an event as a JSON string.
+     *
+     * @param event Java bean for the event
+     * @return JSON string
+     * @throws Exception the event could not be formatted
+     */
+    public static String getEventString(Object event) throws Exception
+    {
+        return getEventWriter(event.getClass()).writeValueAsString(event);
+    }
+
+
+    /**
+     * Parse a JSON string into an event.
+     *
+     * @param event event as a string
+     * @param eventClass class of the Java bean for the event
+     * @param <T> type of the Java bean
+     * @return Java bean
+     * @throws Exception the event could not be parsed
+     */
+    public static <T> T getEventBean(String   event,
+                                     Class<T> eventClass) throws Exception
+    {
+        return getEventReader(eventClass).readValue(event);
+    }
+}
@@ -3,7 +3,6 @@
 
 package org.odpi.openmetadata.repositoryservices.connectors.openmetadatatopic;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.odpi.openmetadata.frameworks.connectors.Connector;
 import org.odpi.openmetadata.frameworks.connectors.VirtualConnectorExtension;
 import org.odpi.openmetadata.frameworks.connectors.ffdc.ConnectorCheckedException;
@@ -72,9 +71,7 @@ public abstract class OpenMetadataTopicListenerConnectorBase extends OpenMetadat
         /*
          * Parse the string (JSON) event into a bean.
          */
-        ObjectMapper objectMapper = new ObjectMapper();
-
-        return objectMapper.readValue(event, eventClass);
+        return OpenMetadataTopicEventMapper.getEventBean(event, eventClass);
     }
 
 
@@ -0,0 +1,113 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore;
+
+import java.io.Serializable;
+
+/**
+ * OMRSAuditLogOverflowPolicy defines what happens when a new audit log record is logged and the queue of records
+ * waiting to be written to an audit log store is full.
+ */
+public enum OMRSAuditLogOverflowPolicy implements Serializable
+{
+    BLOCK                  (0, "Block",
+                               "The caller waits until there is space in the queue."),
+    DROP_LOWEST_SEVERITY   (1, "DropLowestSeverity",
+                               "The least important record (queued or new) is discarded."),
+    SPILL                  (2, "Spill",
+                               "The new record is written to the audit log store on the caller's thread, ahead of the records still in the queue.");
+
+    private static final long    serialVersionUID = 1L;
+
+    private int    policyCode;
+    private String policyName;
+    private String policyDescription;
+
+
+    /**
+     * Constructor for an enum instance.
+     *
+     * @param policyCode code number for the policy
+     * @param policyName name for the policy
+     * @param policyDescription description of the policy
+     */
+    OMRSAuditLogOverflowPolicy(int policyCode, String policyName, String policyDescription)
+    {
+        this.policyCode = policyCode;
+        this.policyName = policyName;
+        this.policyDescription = policyDescription;
+    }
+
+
+    /**
+     * Return the policy that matches the supplied name.  Either the enum name or the policy name may be used
+     * and case is ignored.
+     *
+     * @param name name of the policy
+     * @return matching policy or null
+     */
+    public static OMRSAuditLogOverflowPolicy getPolicy(String name)
+    {
+        if (name != null)
+        {
+            for (OMRSAuditLogOverflowPolicy policy : OMRSAuditLogOverflowPolicy.values())
+            {
+                if ((policy.name().equalsIgnoreCase(name)) || (policy.getName().equalsIgnoreCase(name)))
+                {
+                    return policy;
+                }
+            }
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Return the code number for the policy.
+     *
+     * @return int code number
+     */
+    public int getOrdinal()
+    {
+        return policyCode;
+    }
+
+
+    /**
+     * Return the printable name for the policy.
+     *
+     * @return String policy name
+     */
+    public String getName()
+    {
+        return policyName;
+    }
+
+
+    /**
+     * Return the description of the policy.
+     *
+     * @return String policy description
+     */
+    public String getDescription()
+    {
+        return policyDescription;
+    }
+
+
+    /**
+     * toString() JSON-style
+     *
+     * @return string description
+     */
+    @Override
+    public String toString()
+    {
+        return "OMRSAuditLogOverflowPolicy{" +
+                "policyCode=" + policyCode +
+                ", policyName='" + policyName + '\'' +
+                ", policyDescription='" + policyDescription + '\'' +
+                '}';
+    }
+}
@@ -30,8 +30,12 @@ public abstract class OMRSAuditLogStoreConnectorBase extends ConnectorBase imple
 {
     private static final Logger log = LoggerFactory.getLogger(OMRSAuditLogStoreConnectorBase.class);
 
-    private String        destinationName = "<Unknown";
-    private List<String>  supportedSeverities = null;
+    private static final int defaultAsyncQueueSize = 1000;
+
+    private String                     destinationName     = "<Unknown";
+    private List<String>               supportedSeverities = null;
+    private int                        asyncQueueSize      = defaultAsyncQueueSize;
+    private OMRSAuditLogOverflowPolicy overflowPolicy      = OMRSAuditLogOverflowPolicy.BLOCK;
 
 
     /**
@@ -64,6 +68,29 @@ public abstract class OMRSAuditLogStoreConnectorBase extends ConnectorBase imple
     }
 
 
+    /**
+     * Return the maximum number of log records that may be queued for this destination while they are written
+     * to the store on a separate thread.  Zero means the records are written on the caller's thread.
+     *
+     * @return number of log records
+     */
+    public int getAsyncQueueSize()
+    {
+        return asyncQueueSize;
+    }
+
+
+    /**
+     * Return what happens when a log record is added and the queue for this destination is full.
+     *
+     * @return overflow policy
+     */
+    public OMRSAuditLogOverflowPolicy getOverflowPolicy()
+    {
+        return overflowPolicy;
+    }
+
+
     /**
      * Store the audit log record in the audit log store.
      *
@@ -373,6 +400,25 @@ public abstract class OMRSAuditLogStoreConnectorBase extends ConnectorBase imple
                         }
                     }
                 }
+
+                Object asyncQueueSizeProperty = configurationProperties.get(OMRSAuditLogStoreProviderBase.asyncQueueSizeProperty);
+
+                if (asyncQueueSizeProperty instanceof Integer)
+                {
+                    asyncQueueSize = Math.max((Integer)asyncQueueSizeProperty, 0);
+                }
+
+                Object overflowPolicyProperty = configurationProperties.get(OMRSAuditLogStoreProviderBase.overflowPolicyProperty);
+
+                if (overflowPolicyProperty != null)
+                {
+                    OMRSAuditLogOverflowPolicy policy = OMRSAuditLogOverflowPolicy.getPolicy(overflowPolicyProperty.toString());
+
+                    if (policy != null)
+                    {
+                        overflowPolicy = policy;
+                    }
+                }
             }
         }
     }
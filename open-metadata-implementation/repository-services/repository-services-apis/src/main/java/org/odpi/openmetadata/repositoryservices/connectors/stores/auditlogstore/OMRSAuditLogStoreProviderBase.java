@@ -17,6 +17,8 @@ import java.util.List;
 public abstract class OMRSAuditLogStoreProviderBase extends ConnectorProviderBase
 {
     public static final String  supportedSeveritiesProperty = "supportedSeverities";
+    public static final String  asyncQueueSizeProperty      = "asyncQueueSize";
+    public static final String  overflowPolicyProperty      = "overflowPolicy";
 
     /**
      * Default Constructor
@@ -39,6 +41,8 @@ public abstract class OMRSAuditLogStoreProviderBase extends ConnectorProviderBas
         List<String> recognizedConfigurationProperties = new ArrayList<>();
 
         recognizedConfigurationProperties.add(supportedSeveritiesProperty);
+        recognizedConfigurationProperties.add(asyncQueueSizeProperty);
+        recognizedConfigurationProperties.add(overflowPolicyProperty);
 
         return recognizedConfigurationProperties;
     }
@@ -2,8 +2,13 @@
 /* Copyright Contributors to the ODPi Egeria project. */
 package org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Future;
 
 import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
@@ -771,6 +776,44 @@ public abstract class OMRSMetadataCollection implements AuditLoggingComponent
                                                                        UserNotAuthorizedException;
 
 
+    /**
+     * Returns the entities from a list of guids that are stored in the metadata collection.  This is used to look up
+     * many entities in one request.  The default implementation calls isEntityKnown for each guid - repositories
+     * that can look up many entities more efficiently should override it.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the entities
+     * @return map from guid to entity details for each entity that is found in the metadata collection - guids that
+     *         are not found are not included
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public Map<String, EntityDetail> getKnownEntities(String        userId,
+                                                      List<String>  guids) throws InvalidParameterException,
+                                                                                  RepositoryErrorException,
+                                                                                  UserNotAuthorizedException
+    {
+        Map<String, EntityDetail> knownEntities = new HashMap<>();
+
+        if (guids != null)
+        {
+            for (String guid : guids)
+            {
+                EntityDetail entity = this.isEntityKnown(userId, guid);
+
+                if (entity != null)
+                {
+                    knownEntities.put(guid, entity);
+                }
+            }
+        }
+
+        return knownEntities;
+    }
+
+
     /**
      * Return the header and classifications for a specific entity.  The returned entity summary may be from
      * a full entity object or an entity proxy.
@@ -840,6 +883,89 @@ public abstract class OMRSMetadataCollection implements AuditLoggingComponent
                                                                              UserNotAuthorizedException;
 
 
+    /**
+     * Returns the entities from the requested list that are stored in the metadata collection.  This is the
+     * equivalent of calling isEntityKnown for each guid, but allows the repository to retrieve the entities
+     * in a single request.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the entities.
+     * @return list of the entities that are found in the metadata collection, in the order requested.  Entities
+     * that are not found are left out of the list.  Null means none of the entities are found.
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<EntityDetail> areEntitiesKnown(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           UserNotAuthorizedException
+    {
+        if (guids == null)
+        {
+            return null;
+        }
+
+        List<EntityDetail> entities = new ArrayList<>();
+
+        for (String guid : guids)
+        {
+            EntityDetail entity = this.isEntityKnown(userId, guid);
+
+            if (entity != null)
+            {
+                entities.add(entity);
+            }
+        }
+
+        if (entities.isEmpty())
+        {
+            return null;
+        }
+
+        return entities;
+    }
+
+
+    /**
+     * Return the header, classifications and properties of each of the requested entities.  This is the
+     * equivalent of calling getEntityDetail for each guid, but allows the repository to retrieve the entities
+     * in a single request.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the entities.
+     * @return list of EntityDetail structures in the order requested.
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                 the metadata collection is stored.
+     * @throws EntityNotKnownException one of the requested entity instances is not known in the metadata collection.
+     * @throws EntityProxyOnlyException one of the requested entity instances is only a proxy in the metadata collection.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<EntityDetail> getEntityDetails(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           EntityNotKnownException,
+                                                                           EntityProxyOnlyException,
+                                                                           UserNotAuthorizedException
+    {
+        if (guids == null)
+        {
+            return null;
+        }
+
+        List<EntityDetail> entities = new ArrayList<>();
+
+        for (String guid : guids)
+        {
+            entities.add(this.getEntityDetail(userId, guid));
+        }
+
+        return entities;
+    }
+
+
 
     /**
      * Return the relationships for a specific entity.
@@ -889,6 +1015,173 @@ public abstract class OMRSMetadataCollection implements AuditLoggingComponent
                                                                                                              UserNotAuthorizedException;
 
 
+    /**
+     * Return the number of relationships for a specific entity.  This is the equivalent of counting the results of
+     * getRelationshipsForEntity with no paging, but allows the repository to count the relationships without
+     * retrieving them.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityGUID String unique identifier for the entity.
+     * @param relationshipTypeGUID String GUID of the the type of relationship required (null for all).
+     * @param limitResultsByStatus By default, relationships in all statuses are counted.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the count to.  Null means all
+     *                             status values.
+     * @return count of the relationships associated with the entity.
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws EntityNotKnownException the requested entity instance is not known in the metadata collection.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public int countRelationshipsForEntity(String                     userId,
+                                           String                     entityGUID,
+                                           String                     relationshipTypeGUID,
+                                           List<InstanceStatus>       limitResultsByStatus) throws InvalidParameterException,
+                                                                                                   TypeErrorException,
+                                                                                                   RepositoryErrorException,
+                                                                                                   EntityNotKnownException,
+                                                                                                   FunctionNotSupportedException,
+                                                                                                   UserNotAuthorizedException
+    {
+        return this.countRelationshipsForEntity(userId, entityGUID, relationshipTypeGUID, limitResultsByStatus, null);
+    }
+
+
+    /**
+     * Return the number of relationships for a specific entity.  This is the equivalent of counting the results of
+     * getRelationshipsForEntity with no paging, but allows the repository to count the relationships without
+     * retrieving them.
+     *
+     * Reference copies of relationships whose home is one of the excluded metadata collections are not counted.
+     * The enterprise connector uses this to count each relationship once across the cohort: each member counts
+     * its own relationships and the reference copies of relationships whose home is not in the cohort.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityGUID String unique identifier for the entity.
+     * @param relationshipTypeGUID String GUID of the the type of relationship required (null for all).
+     * @param limitResultsByStatus By default, relationships in all statuses are counted.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the count to.  Null means all
+     *                             status values.
+     * @param excludedHomeMetadataCollectionIds metadata collection ids of the repositories whose instances are
+     *                                          not counted when this repository holds reference copies of them.
+     *                                          Null means count the reference copies too.
+     * @return count of the relationships associated with the entity.
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws EntityNotKnownException the requested entity instance is not known in the metadata collection.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public int countRelationshipsForEntity(String                     userId,
+                                           String                     entityGUID,
+                                           String                     relationshipTypeGUID,
+                                           List<InstanceStatus>       limitResultsByStatus,
+                                           List<String>               excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                                TypeErrorException,
+                                                                                                                RepositoryErrorException,
+                                                                                                                EntityNotKnownException,
+                                                                                                                FunctionNotSupportedException,
+                                                                                                                UserNotAuthorizedException
+    {
+        try
+        {
+            List<Relationship> relationships = this.getRelationshipsForEntity(userId,
+                                                                              entityGUID,
+                                                                              relationshipTypeGUID,
+                                                                              0,
+                                                                              limitResultsByStatus,
+                                                                              null,
+                                                                              null,
+                                                                              null,
+                                                                              0);
+
+            return this.countInstances(relationships, excludedHomeMetadataCollectionIds);
+        }
+        catch (PropertyErrorException | PagingErrorException error)
+        {
+            /*
+             * The results are not paged or sequenced so these exceptions indicate a logic error in the repository.
+             */
+            throw new RepositoryErrorException(error);
+        }
+    }
+
+
+    /**
+     * Return a page of the relationships for a specific entity.  Rather than an element offset, the page is
+     * located with the cursor returned with the previous page, so a caller can step through all of the
+     * relationships without the repository retrieving and skipping the earlier pages on each request.
+     * The relationships are returned in an order chosen by the repository that stays the same from one page
+     * to the next.
+     *
+     * The default implementation uses the offset paging of getRelationshipsForEntity, with the cursor holding the
+     * offset of the next page.  Repositories that can resume a search from the last instance returned should
+     * override this method.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityGUID String unique identifier for the entity.
+     * @param relationshipTypeGUID String GUID of the the type of relationship required (null for all).
+     * @param cursor the cursor returned with the previous page.  Null means start from the first element.
+     * @param limitResultsByStatus By default, relationships in all statuses are returned.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the results to.  Null means all
+     *                             status values.
+     * @param pageSize the maximum number of result relationships that can be returned on this request.  Zero means
+     *                 unrestricted return results size.
+     * @return page of relationships with the cursor for the next page.  A null cursor means there are no more results.
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws EntityNotKnownException the requested entity instance is not known in the metadata collection.
+     * @throws PagingErrorException the cursor or page size is not valid.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public InstancePage<Relationship> getRelationshipsForEntityWithCursor(String                     userId,
+                                                                          String                     entityGUID,
+                                                                          String                     relationshipTypeGUID,
+                                                                          String                     cursor,
+                                                                          List<InstanceStatus>       limitResultsByStatus,
+                                                                          int                        pageSize) throws InvalidParameterException,
+                                                                                                                      TypeErrorException,
+                                                                                                                      RepositoryErrorException,
+                                                                                                                      EntityNotKnownException,
+                                                                                                                      PagingErrorException,
+                                                                                                                      FunctionNotSupportedException,
+                                                                                                                      UserNotAuthorizedException
+    {
+        final String methodName = "getRelationshipsForEntityWithCursor";
+
+        int fromRelationshipElement = this.getCursorOffset(cursor, methodName);
+
+        try
+        {
+            List<Relationship> relationships = this.getRelationshipsForEntity(userId,
+                                                                              entityGUID,
+                                                                              relationshipTypeGUID,
+                                                                              fromRelationshipElement,
+                                                                              limitResultsByStatus,
+                                                                              null,
+                                                                              null,
+                                                                              null,
+                                                                              pageSize);
+
+            return new InstancePage<>(relationships, this.getNextCursorOffset(fromRelationshipElement, relationships, pageSize));
+        }
+        catch (PropertyErrorException error)
+        {
+            /*
+             * The results are not sequenced so this exception indicates a logic error in the repository.
+             */
+            throw new RepositoryErrorException(error);
+        }
+    }
+
+
     /**
      * Return a list of entities that match the supplied criteria.  The results can be returned over many pages.
      *
@@ -942,6 +1235,124 @@ public abstract class OMRSMetadataCollection implements AuditLoggingComponent
                                                                                                 UserNotAuthorizedException;
 
 
+    /**
+     * Return the number of entities that match the supplied criteria.  This is the equivalent of counting the
+     * results of findEntities with no paging, but allows the repository to count the entities without
+     * retrieving them.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityTypeGUID String unique identifier for the entity type of interest (null means any entity type).
+     * @param entitySubtypeGUIDs optional list of the unique identifiers (guids) for subtypes of the entityTypeGUID to
+     *                           include in the count. Null means all subtypes.
+     * @param matchProperties Optional list of entity property conditions to match.
+     * @param limitResultsByStatus By default, entities in all statuses are counted.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the count to.  Null means all
+     *                             status values.
+     * @param matchClassifications Optional list of entity classifications to match.
+     * @return count of the entities matching the supplied criteria.
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  entity.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public int countEntities(String                    userId,
+                             String                    entityTypeGUID,
+                             List<String>              entitySubtypeGUIDs,
+                             SearchProperties          matchProperties,
+                             List<InstanceStatus>      limitResultsByStatus,
+                             SearchClassifications     matchClassifications) throws InvalidParameterException,
+                                                                                    RepositoryErrorException,
+                                                                                    TypeErrorException,
+                                                                                    PropertyErrorException,
+                                                                                    FunctionNotSupportedException,
+                                                                                    UserNotAuthorizedException
+    {
+        return this.countEntities(userId,
+                                  entityTypeGUID,
+                                  entitySubtypeGUIDs,
+                                  matchProperties,
+                                  limitResultsByStatus,
+                                  matchClassifications,
+                                  null);
+    }
+
+
+    /**
+     * Return the number of entities that match the supplied criteria.  This is the equivalent of counting the
+     * results of findEntities with no paging, but allows the repository to count the entities without
+     * retrieving them.
+     *
+     * Reference copies of entities whose home is one of the excluded metadata collections are not counted.
+     * The enterprise connector uses this to count each entity once across the cohort: each member counts
+     * its own entities and the reference copies of entities whose home is not in the cohort.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityTypeGUID String unique identifier for the entity type of interest (null means any entity type).
+     * @param entitySubtypeGUIDs optional list of the unique identifiers (guids) for subtypes of the entityTypeGUID to
+     *                           include in the count. Null means all subtypes.
+     * @param matchProperties Optional list of entity property conditions to match.
+     * @param limitResultsByStatus By default, entities in all statuses are counted.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the count to.  Null means all
+     *                             status values.
+     * @param matchClassifications Optional list of entity classifications to match.
+     * @param excludedHomeMetadataCollectionIds metadata collection ids of the repositories whose instances are
+     *                                          not counted when this repository holds reference copies of them.
+     *                                          Null means count the reference copies too.
+     * @return count of the entities matching the supplied criteria.
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  entity.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public int countEntities(String                    userId,
+                             String                    entityTypeGUID,
+                             List<String>              entitySubtypeGUIDs,
+                             SearchProperties          matchProperties,
+                             List<InstanceStatus>      limitResultsByStatus,
+                             SearchClassifications     matchClassifications,
+                             List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                 RepositoryErrorException,
+                                                                                                 TypeErrorException,
+                                                                                                 PropertyErrorException,
+                                                                                                 FunctionNotSupportedException,
+                                                                                                 UserNotAuthorizedException
+    {
+        try
+        {
+            List<EntityDetail> entities = this.findEntities(userId,
+                                                            entityTypeGUID,
+                                                            entitySubtypeGUIDs,
+                                                            matchProperties,
+                                                            0,
+                                                            limitResultsByStatus,
+                                                            matchClassifications,
+                                                            null,
+                                                            null,
+                                                            null,
+                                                            0);
+
+            return this.countInstances(entities, excludedHomeMetadataCollectionIds);
+        }
+        catch (PagingErrorException error)
+        {
+            /*
+             * The results are not paged or sequenced so this exception indicates a logic error in the repository.
+             */
+            throw new RepositoryErrorException(error);
+        }
+    }
+
+
     /**
      * Return a list of entities that match the supplied properties according to the match criteria.  The results
      * can be returned over many pages.
@@ -997,6 +1408,78 @@ public abstract class OMRSMetadataCollection implements AuditLoggingComponent
                                                                                                           UserNotAuthorizedException;
 
 
+    /**
+     * Return a page of the entities that match the supplied properties according to the match criteria.  Rather than
+     * an element offset, the page is located with the cursor returned with the previous page, so a caller can step
+     * through a large set of results without the repository running the search and skipping the earlier pages
+     * on each request.  The entities are returned in an order chosen by the repository that stays the same from
+     * one page to the next.
+     *
+     * The default implementation uses the offset paging of findEntitiesByProperty, with the cursor holding the
+     * offset of the next page.  Repositories that can resume a search from the last instance returned should
+     * override this method.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityTypeGUID String unique identifier for the entity type of interest (null means any entity type).
+     * @param matchProperties Optional list of entity properties to match (where any String property's value should
+     *                        be defined as a Java regular expression, even if it should be an exact match).
+     * @param matchCriteria Enum defining how the match properties should be matched to the entities in the repository.
+     * @param cursor the cursor returned with the previous page.  Null means start from the first element.
+     * @param limitResultsByStatus By default, entities in all statuses are returned.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the results to.  Null means all
+     *                             status values.
+     * @param limitResultsByClassification List of classifications that must be present on all returned entities.
+     * @param pageSize the maximum number of result entities that can be returned on this request.  Zero means
+     *                 unrestricted return results size.
+     * @return page of entities matching the supplied criteria with the cursor for the next page.  A null cursor
+     * means there are no more results.
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  entity.
+     * @throws PagingErrorException the cursor or page size is not valid.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     * @see OMRSRepositoryHelper#getExactMatchRegex(String)
+     */
+    public InstancePage<EntityDetail> findEntitiesByPropertyWithCursor(String                    userId,
+                                                                       String                    entityTypeGUID,
+                                                                       InstanceProperties        matchProperties,
+                                                                       MatchCriteria             matchCriteria,
+                                                                       String                    cursor,
+                                                                       List<InstanceStatus>      limitResultsByStatus,
+                                                                       List<String>              limitResultsByClassification,
+                                                                       int                       pageSize) throws InvalidParameterException,
+                                                                                                                  RepositoryErrorException,
+                                                                                                                  TypeErrorException,
+                                                                                                                  PropertyErrorException,
+                                                                                                                  PagingErrorException,
+                                                                                                                  FunctionNotSupportedException,
+                                                                                                                  UserNotAuthorizedException
+    {
+        final String methodName = "findEntitiesByPropertyWithCursor";
+
+        int fromEntityElement = this.getCursorOffset(cursor, methodName);
+
+        List<EntityDetail> entities = this.findEntitiesByProperty(userId,
+                                                                  entityTypeGUID,
+                                                                  matchProperties,
+                                                                  matchCriteria,
+                                                                  fromEntityElement,
+                                                                  limitResultsByStatus,
+                                                                  limitResultsByClassification,
+                                                                  null,
+                                                                  null,
+                                                                  null,
+                                                                  pageSize);
+
+        return new InstancePage<>(entities, this.getNextCursorOffset(fromEntityElement, entities, pageSize));
+    }
+
+
     /**
      * Return a list of entities that have the requested type of classifications attached.
      *
@@ -1112,117 +1595,515 @@ public abstract class OMRSMetadataCollection implements AuditLoggingComponent
 
 
     /**
-     * Returns a boolean indicating if the relationship is stored in the metadata collection.
+     * Returns a boolean indicating if the relationship is stored in the metadata collection.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guid String unique identifier for the relationship.
+     * @return relationship if the relationship is found in the metadata collection; otherwise return null.
+     * @throws InvalidParameterException the guid is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public abstract Relationship  isRelationshipKnown(String     userId,
+                                                      String     guid) throws InvalidParameterException,
+                                                                              RepositoryErrorException,
+                                                                              UserNotAuthorizedException;
+
+
+    /**
+     * Return the current version of a requested relationship.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guid String unique identifier for the relationship.
+     * @return a relationship structure.
+     * @throws InvalidParameterException the guid is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws RelationshipNotKnownException the metadata collection does not have a relationship with
+     *                                         the requested GUID stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public abstract Relationship getRelationship(String    userId,
+                                                 String    guid) throws InvalidParameterException,
+                                                                        RepositoryErrorException,
+                                                                        RelationshipNotKnownException,
+                                                                        UserNotAuthorizedException;
+
+    /**
+     * Return a historical version of a relationship.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guid String unique identifier for the relationship.
+     * @param asOfTime the time used to determine which version of the entity that is desired.
+     * @return Relationship structure.
+     * @throws InvalidParameterException the guid or date is null or date is for a future time
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                 the metadata collection is stored.
+     * @throws RelationshipNotKnownException the requested entity instance is not known in the metadata collection
+     *                                   at the time requested.
+     * @throws FunctionNotSupportedException the repository does not support the asOfTime parameter.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public abstract Relationship getRelationship(String    userId,
+                                                 String    guid,
+                                                 Date      asOfTime) throws InvalidParameterException,
+                                                                            RepositoryErrorException,
+                                                                            RelationshipNotKnownException,
+                                                                            FunctionNotSupportedException,
+                                                                            UserNotAuthorizedException;
+
+
+    /**
+     * Returns the relationships from the requested list that are stored in the metadata collection.  This is the
+     * equivalent of calling isRelationshipKnown for each guid, but allows the repository to retrieve the
+     * relationships in a single request.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the relationships.
+     * @return list of the relationships that are found in the metadata collection, in the order requested.
+     * Relationships that are not found are left out of the list.  Null means none of the relationships are found.
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<Relationship> areRelationshipsKnown(String        userId,
+                                                    List<String>  guids) throws InvalidParameterException,
+                                                                                RepositoryErrorException,
+                                                                                UserNotAuthorizedException
+    {
+        if (guids == null)
+        {
+            return null;
+        }
+
+        List<Relationship> relationships = new ArrayList<>();
+
+        for (String guid : guids)
+        {
+            Relationship relationship = this.isRelationshipKnown(userId, guid);
+
+            if (relationship != null)
+            {
+                relationships.add(relationship);
+            }
+        }
+
+        if (relationships.isEmpty())
+        {
+            return null;
+        }
+
+        return relationships;
+    }
+
+
+    /**
+     * Return the current version of each of the requested relationships.  This is the equivalent of calling
+     * getRelationship for each guid, but allows the repository to retrieve the relationships in a single request.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the relationships.
+     * @return list of relationship structures in the order requested.
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws RelationshipNotKnownException the metadata collection does not have a relationship with
+     *                                         one of the requested GUIDs stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<Relationship> getRelationships(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           RelationshipNotKnownException,
+                                                                           UserNotAuthorizedException
+    {
+        if (guids == null)
+        {
+            return null;
+        }
+
+        List<Relationship> relationships = new ArrayList<>();
+
+        for (String guid : guids)
+        {
+            relationships.add(this.getRelationship(userId, guid));
+        }
+
+        return relationships;
+    }
+
+
+    /**
+     * Return a list of relationships that match the requested conditions.  The results can be received as a series of
+     * pages.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param relationshipTypeGUID unique identifier (guid) for the relationship's type.  Null means all types
+     *                             (but may be slow so not recommended).
+     * @param relationshipSubtypeGUIDs optional list of the unique identifiers (guids) for subtypes of the
+     *                                 relationshipTypeGUID to include in the search results. Null means all subtypes.
+     * @param matchProperties Optional list of relationship property conditions to match.
+     * @param fromRelationshipElement the starting element number of the entities to return.
+     *                                This is used when retrieving elements
+     *                                beyond the first page of results. Zero means start from the first element.
+     * @param limitResultsByStatus By default, relationships in all statuses are returned.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the results to.  Null means all
+     *                             status values.
+     * @param asOfTime Requests a historical query of the relationships for the entity.  Null means return the
+     *                 present values.
+     * @param sequencingProperty String name of the property that is to be used to sequence the results.
+     *                           Null means do not sequence on a property name (see SequencingOrder).
+     * @param sequencingOrder Enum defining how the results should be ordered.
+     * @param pageSize the maximum number of result relationships that can be returned on this request.  Zero means
+     *                 unrestricted return results size.
+     * @return a list of relationships.  Null means no matching relationships.
+     * @throws InvalidParameterException one of the parameters is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  relationships.
+     * @throws PagingErrorException the paging/sequencing parameters are set up incorrectly.
+     * @throws FunctionNotSupportedException the repository does not support one of the provided parameters.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     * @see OMRSRepositoryHelper#getExactMatchRegex(String)
+     */
+    public  abstract List<Relationship> findRelationships(String                    userId,
+                                                          String                    relationshipTypeGUID,
+                                                          List<String>              relationshipSubtypeGUIDs,
+                                                          SearchProperties          matchProperties,
+                                                          int                       fromRelationshipElement,
+                                                          List<InstanceStatus>      limitResultsByStatus,
+                                                          Date                      asOfTime,
+                                                          String                    sequencingProperty,
+                                                          SequencingOrder           sequencingOrder,
+                                                          int                       pageSize) throws InvalidParameterException,
+                                                                                                     TypeErrorException,
+                                                                                                     RepositoryErrorException,
+                                                                                                     PropertyErrorException,
+                                                                                                     PagingErrorException,
+                                                                                                     FunctionNotSupportedException,
+                                                                                                     UserNotAuthorizedException;
+
+
+    /**
+     * Return the number of relationships that match the requested conditions.  This is the equivalent of counting
+     * the results of findRelationships with no paging, but allows the repository to count the relationships
+     * without retrieving them.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param relationshipTypeGUID unique identifier (guid) for the relationship's type.  Null means all types
+     *                             (but may be slow so not recommended).
+     * @param relationshipSubtypeGUIDs optional list of the unique identifiers (guids) for subtypes of the
+     *                                 relationshipTypeGUID to include in the count. Null means all subtypes.
+     * @param matchProperties Optional list of relationship property conditions to match.
+     * @param limitResultsByStatus By default, relationships in all statuses are counted.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the count to.  Null means all
+     *                             status values.
+     * @return count of the matching relationships.
+     * @throws InvalidParameterException one of the parameters is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  relationships.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public int countRelationships(String                    userId,
+                                  String                    relationshipTypeGUID,
+                                  List<String>              relationshipSubtypeGUIDs,
+                                  SearchProperties          matchProperties,
+                                  List<InstanceStatus>      limitResultsByStatus) throws InvalidParameterException,
+                                                                                         TypeErrorException,
+                                                                                         RepositoryErrorException,
+                                                                                         PropertyErrorException,
+                                                                                         FunctionNotSupportedException,
+                                                                                         UserNotAuthorizedException
+    {
+        return this.countRelationships(userId,
+                                       relationshipTypeGUID,
+                                       relationshipSubtypeGUIDs,
+                                       matchProperties,
+                                       limitResultsByStatus,
+                                       null);
+    }
+
+
+    /**
+     * Return the number of relationships that match the requested conditions.  This is the equivalent of counting
+     * the results of findRelationships with no paging, but allows the repository to count the relationships
+     * without retrieving them.
+     *
+     * Reference copies of relationships whose home is one of the excluded metadata collections are not counted.
+     * The enterprise connector uses this to count each relationship once across the cohort: each member counts
+     * its own relationships and the reference copies of relationships whose home is not in the cohort.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param relationshipTypeGUID unique identifier (guid) for the relationship's type.  Null means all types
+     *                             (but may be slow so not recommended).
+     * @param relationshipSubtypeGUIDs optional list of the unique identifiers (guids) for subtypes of the
+     *                                 relationshipTypeGUID to include in the count. Null means all subtypes.
+     * @param matchProperties Optional list of relationship property conditions to match.
+     * @param limitResultsByStatus By default, relationships in all statuses are counted.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the count to.  Null means all
+     *                             status values.
+     * @param excludedHomeMetadataCollectionIds metadata collection ids of the repositories whose instances are
+     *                                          not counted when this repository holds reference copies of them.
+     *                                          Null means count the reference copies too.
+     * @return count of the matching relationships.
+     * @throws InvalidParameterException one of the parameters is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  relationships.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public int countRelationships(String                    userId,
+                                  String                    relationshipTypeGUID,
+                                  List<String>              relationshipSubtypeGUIDs,
+                                  SearchProperties          matchProperties,
+                                  List<InstanceStatus>      limitResultsByStatus,
+                                  List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                      TypeErrorException,
+                                                                                                      RepositoryErrorException,
+                                                                                                      PropertyErrorException,
+                                                                                                      FunctionNotSupportedException,
+                                                                                                      UserNotAuthorizedException
+    {
+        try
+        {
+            List<Relationship> relationships = this.findRelationships(userId,
+                                                                      relationshipTypeGUID,
+                                                                      relationshipSubtypeGUIDs,
+                                                                      matchProperties,
+                                                                      0,
+                                                                      limitResultsByStatus,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      0);
+
+            return this.countInstances(relationships, excludedHomeMetadataCollectionIds);
+        }
+        catch (PagingErrorException error)
+        {
+            /*
+             * The results are not paged or sequenced so this exception indicates a logic error in the repository.
+             */
+            throw new RepositoryErrorException(error);
+        }
+    }
+
+
+    /**
+     * Verify that a batch of new instances has no null entries and that the unique identifiers that the caller
+     * has set in the new entities are not repeated.
+     *
+     * @param newInstances entities and relationships to add
+     * @param methodName calling method
+     * @throws InvalidParameterException the batch is not valid
+     */
+    protected void validateNewInstanceBatch(InstanceGraph newInstances,
+                                            String        methodName) throws InvalidParameterException
+    {
+        final String newInstancesParameterName = "newInstances";
+
+        if (newInstances == null)
+        {
+            throw new InvalidParameterException(OMRSErrorCode.NULL_NEW_INSTANCE.getMessageDefinition(newInstancesParameterName,
+                                                                                                     methodName,
+                                                                                                     repositoryName),
+                                                this.getClass().getName(),
+                                                methodName,
+                                                newInstancesParameterName);
+        }
+
+        if (newInstances.getEntities() != null)
+        {
+            Set<String> newEntityGUIDs = new HashSet<>();
+
+            for (EntityDetail entity : newInstances.getEntities())
+            {
+                if (entity == null)
+                {
+                    throw new InvalidParameterException(OMRSErrorCode.NULL_NEW_INSTANCE.getMessageDefinition("entity",
+                                                                                                             methodName,
+                                                                                                             repositoryName),
+                                                        this.getClass().getName(),
+                                                        methodName,
+                                                        newInstancesParameterName);
+                }
+
+                if ((entity.getGUID() != null) && (! newEntityGUIDs.add(entity.getGUID())))
+                {
+                    throw new InvalidParameterException(OMRSErrorCode.DUPLICATE_NEW_ENTITY_GUID.getMessageDefinition(entity.getGUID(),
+                                                                                                                     methodName,
+                                                                                                                     repositoryName),
+                                                        this.getClass().getName(),
+                                                        methodName,
+                                                        newInstancesParameterName);
+                }
+            }
+        }
+
+        if (newInstances.getRelationships() != null)
+        {
+            for (Relationship relationship : newInstances.getRelationships())
+            {
+                if (relationship == null)
+                {
+                    throw new InvalidParameterException(OMRSErrorCode.NULL_NEW_INSTANCE.getMessageDefinition("relationship",
+                                                                                                             methodName,
+                                                                                                             repositoryName),
+                                                        this.getClass().getName(),
+                                                        methodName,
+                                                        newInstancesParameterName);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Return the unique identifier of the type of an instance in a batch of new instances.
+     *
+     * @param newInstance instance from the batch
+     * @return type guid or null if the type is not set
+     */
+    protected String getNewInstanceTypeGUID(InstanceHeader newInstance)
+    {
+        InstanceType type = newInstance.getType();
+
+        if (type == null)
+        {
+            return null;
+        }
+
+        return type.getTypeDefGUID();
+    }
+
+
+    /**
+     * Return the unique identifier of the entity at one end of a relationship in a batch of new instances.
+     * The guids of new entities in the batch are replaced by the guids they were assigned when they were added.
      *
-     * @param userId unique identifier for requesting user.
-     * @param guid String unique identifier for the relationship.
-     * @return relationship if the relationship is found in the metadata collection; otherwise return null.
-     * @throws InvalidParameterException the guid is null.
-     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
-     *                                  the metadata collection is stored.
-     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     * @param end entity proxy from the relationship
+     * @param newEntityGUIDs map from the guids of the new entities in the batch to the guids they were assigned
+     * @return entity guid or null if the end is not set
      */
-    public abstract Relationship  isRelationshipKnown(String     userId,
-                                                      String     guid) throws InvalidParameterException,
-                                                                              RepositoryErrorException,
-                                                                              UserNotAuthorizedException;
+    protected String getNewInstanceEndGUID(EntityProxy         end,
+                                           Map<String, String> newEntityGUIDs)
+    {
+        if (end == null)
+        {
+            return null;
+        }
+
+        String newEntityGUID = newEntityGUIDs.get(end.getGUID());
+
+        if (newEntityGUID != null)
+        {
+            return newEntityGUID;
+        }
+
+        return end.getGUID();
+    }
 
 
     /**
-     * Return the current version of a requested relationship.
+     * Count the instances returned from a query.
      *
-     * @param userId unique identifier for requesting user.
-     * @param guid String unique identifier for the relationship.
-     * @return a relationship structure.
-     * @throws InvalidParameterException the guid is null.
-     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
-     *                                    the metadata collection is stored.
-     * @throws RelationshipNotKnownException the metadata collection does not have a relationship with
-     *                                         the requested GUID stored.
-     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     * @param instances list of instances (may be null)
+     * @param excludedHomeMetadataCollectionIds metadata collection ids of the homes of instances not to count
+     *                                          (may be null)
+     * @return count of non-null instances
      */
-    public abstract Relationship getRelationship(String    userId,
-                                                 String    guid) throws InvalidParameterException,
-                                                                        RepositoryErrorException,
-                                                                        RelationshipNotKnownException,
-                                                                        UserNotAuthorizedException;
+    private int countInstances(List<? extends InstanceHeader> instances,
+                               List<String>                   excludedHomeMetadataCollectionIds)
+    {
+        int count = 0;
+
+        if (instances != null)
+        {
+            for (InstanceHeader instance : instances)
+            {
+                if ((instance != null) &&
+                    ((excludedHomeMetadataCollectionIds == null) ||
+                     (! excludedHomeMetadataCollectionIds.contains(instance.getMetadataCollectionId()))))
+                {
+                    count ++;
+                }
+            }
+        }
+
+        return count;
+    }
+
 
     /**
-     * Return a historical version of a relationship.
+     * Return the element offset held in a cursor issued by the default cursor-based methods.
      *
-     * @param userId unique identifier for requesting user.
-     * @param guid String unique identifier for the relationship.
-     * @param asOfTime the time used to determine which version of the entity that is desired.
-     * @return Relationship structure.
-     * @throws InvalidParameterException the guid or date is null or date is for a future time
-     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
-     *                                 the metadata collection is stored.
-     * @throws RelationshipNotKnownException the requested entity instance is not known in the metadata collection
-     *                                   at the time requested.
-     * @throws FunctionNotSupportedException the repository does not support the asOfTime parameter.
-     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     * @param cursor cursor from the caller (null means start from the first element)
+     * @param methodName calling method
+     * @return offset of the first element of the page
+     * @throws PagingErrorException the cursor was not issued by the default cursor-based methods
      */
-    public abstract Relationship getRelationship(String    userId,
-                                                 String    guid,
-                                                 Date      asOfTime) throws InvalidParameterException,
-                                                                            RepositoryErrorException,
-                                                                            RelationshipNotKnownException,
-                                                                            FunctionNotSupportedException,
-                                                                            UserNotAuthorizedException;
+    private int getCursorOffset(String cursor,
+                                String methodName) throws PagingErrorException
+    {
+        if (cursor == null)
+        {
+            return 0;
+        }
+
+        try
+        {
+            int offset = Integer.parseInt(cursor);
+
+            if (offset >= 0)
+            {
+                return offset;
+            }
+        }
+        catch (NumberFormatException error)
+        {
+            log.debug("Cursor " + cursor + " is not an offset", error);
+        }
+
+        throw new PagingErrorException(OMRSErrorCode.INVALID_CURSOR.getMessageDefinition(cursor, methodName, repositoryName),
+                                       this.getClass().getName(),
+                                       methodName);
+    }
 
 
     /**
-     * Return a list of relationships that match the requested conditions.  The results can be received as a series of
-     * pages.
+     * Return the cursor for the page that follows the supplied results of an offset query.  A page that is not
+     * full is the last page.
      *
-     * @param userId unique identifier for requesting user.
-     * @param relationshipTypeGUID unique identifier (guid) for the relationship's type.  Null means all types
-     *                             (but may be slow so not recommended).
-     * @param relationshipSubtypeGUIDs optional list of the unique identifiers (guids) for subtypes of the
-     *                                 relationshipTypeGUID to include in the search results. Null means all subtypes.
-     * @param matchProperties Optional list of relationship property conditions to match.
-     * @param fromRelationshipElement the starting element number of the entities to return.
-     *                                This is used when retrieving elements
-     *                                beyond the first page of results. Zero means start from the first element.
-     * @param limitResultsByStatus By default, relationships in all statuses are returned.  However, it is possible
-     *                             to specify a list of statuses (eg ACTIVE) to restrict the results to.  Null means all
-     *                             status values.
-     * @param asOfTime Requests a historical query of the relationships for the entity.  Null means return the
-     *                 present values.
-     * @param sequencingProperty String name of the property that is to be used to sequence the results.
-     *                           Null means do not sequence on a property name (see SequencingOrder).
-     * @param sequencingOrder Enum defining how the results should be ordered.
-     * @param pageSize the maximum number of result relationships that can be returned on this request.  Zero means
-     *                 unrestricted return results size.
-     * @return a list of relationships.  Null means no matching relationships.
-     * @throws InvalidParameterException one of the parameters is invalid or null.
-     * @throws TypeErrorException the type guid passed on the request is not known by the
-     *                              metadata collection.
-     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
-     *                                    the metadata collection is stored.
-     * @throws PropertyErrorException the properties specified are not valid for any of the requested types of
-     *                                  relationships.
-     * @throws PagingErrorException the paging/sequencing parameters are set up incorrectly.
-     * @throws FunctionNotSupportedException the repository does not support one of the provided parameters.
-     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
-     * @see OMRSRepositoryHelper#getExactMatchRegex(String)
+     * @param fromElement offset of the first element of the results
+     * @param instances results returned
+     * @param pageSize page size requested (zero means unrestricted)
+     * @return cursor for the next page or null if there are no more results
      */
-    public  abstract List<Relationship> findRelationships(String                    userId,
-                                                          String                    relationshipTypeGUID,
-                                                          List<String>              relationshipSubtypeGUIDs,
-                                                          SearchProperties          matchProperties,
-                                                          int                       fromRelationshipElement,
-                                                          List<InstanceStatus>      limitResultsByStatus,
-                                                          Date                      asOfTime,
-                                                          String                    sequencingProperty,
-                                                          SequencingOrder           sequencingOrder,
-                                                          int                       pageSize) throws InvalidParameterException,
-                                                                                                     TypeErrorException,
-                                                                                                     RepositoryErrorException,
-                                                                                                     PropertyErrorException,
-                                                                                                     PagingErrorException,
-                                                                                                     FunctionNotSupportedException,
-                                                                                                     UserNotAuthorizedException;
+    private String getNextCursorOffset(int                            fromElement,
+                                       List<? extends InstanceHeader> instances,
+                                       int                            pageSize)
+    {
+        if ((pageSize > 0) && (instances != null) && (instances.size() >= pageSize))
+        {
+            return Integer.toString(fromElement + instances.size());
+        }
+
+        return null;
+    }
 
 
     /**
@@ -1909,6 +2790,255 @@ public abstract class OMRSMetadataCollection implements AuditLoggingComponent
     }
 
 
+    /**
+     * Add a batch of new entities and relationships.  Each entity supplies the type, properties, classifications
+     * and status for a new entity and each relationship supplies the type, properties, status and the entities at
+     * each end for a new relationship.  The entities at the ends of a relationship may be existing entities or
+     * new entities in the same batch.  A new entity is identified by the unique identifier (guid) that the caller
+     * sets in its header - this is only used to match it with the relationships in the batch.  The new instances
+     * are each assigned a new guid.
+     *
+     * The batch is added as a whole: if any instance can not be added, the instances from the batch that were
+     * already added are removed before the exception is returned.  The default implementation adds the instances
+     * one at a time using addEntity and addRelationship, and removes them again with deleteEntity/purgeEntity and
+     * deleteRelationship/purgeRelationship if a later instance fails.  Other requests may see the instances before
+     * they are removed, and an instance that can not be removed is recorded in the audit log.  Repositories that
+     * can add all of the instances in a single transaction should override this method.
+     *
+     * When the batch is added through the local repository, the new instances are shared in a single batch
+     * instance event rather than one new entity or new relationship event for each instance.  Event listeners
+     * based on OMRSTopicListenerBase receive each instance from the batch through processNewEntityEvent and
+     * processNewRelationshipEvent unless they override processInstanceBatchEvent.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param newInstances entities and relationships to add.
+     * @return the new entities and relationships in the same order as the batch.
+     * @throws InvalidParameterException one of the parameters is invalid or null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws TypeErrorException one of the requested types is not known, or not supported in the metadata
+     *                            repository hosting the metadata collection.
+     * @throws PropertyErrorException one or more of the requested properties are not defined, or have different
+     *                                characteristics in the TypeDef for the instance's type.
+     * @throws ClassificationErrorException one or more of the requested classifications are either not known or
+     *                                      not defined for the entity's type.
+     * @throws EntityNotKnownException one of the entities at the end of a relationship is not known in the
+     *                                 metadata collection or the batch.
+     * @throws StatusNotSupportedException the metadata repository hosting the metadata collection does not support
+     *                                     one of the requested statuses.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     * @throws FunctionNotSupportedException the repository does not support maintenance of metadata.
+     */
+    public InstanceGraph addEntitiesAndRelationships(String         userId,
+                                                     InstanceGraph  newInstances) throws InvalidParameterException,
+                                                                                         RepositoryErrorException,
+                                                                                         TypeErrorException,
+                                                                                         PropertyErrorException,
+                                                                                         ClassificationErrorException,
+                                                                                         EntityNotKnownException,
+                                                                                         StatusNotSupportedException,
+                                                                                         UserNotAuthorizedException,
+                                                                                         FunctionNotSupportedException
+    {
+        final String  methodName = "addEntitiesAndRelationships";
+
+        this.validateNewInstanceBatch(newInstances, methodName);
+
+        List<EntityDetail>  newEntities      = new ArrayList<>();
+        List<Relationship>  newRelationships = new ArrayList<>();
+
+        try
+        {
+            this.addNewInstances(userId, newInstances, newEntities, newRelationships);
+        }
+        catch (Exception error)
+        {
+            this.removeNewInstances(userId, newEntities, newRelationships, methodName);
+
+            throw error;
+        }
+
+        return new InstanceGraph(newEntities, newRelationships);
+    }
+
+
+    /**
+     * Add the instances from a batch of new instances one at a time using addEntity and addRelationship.
+     * The new instances are added to the supplied lists as they are created so that the caller knows which
+     * instances exist if one of them fails.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param newInstances entities and relationships to add.
+     * @param newEntities list to receive the new entities.
+     * @param newRelationships list to receive the new relationships.
+     * @throws InvalidParameterException one of the parameters is invalid or null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws TypeErrorException one of the requested types is not known, or not supported in the metadata
+     *                            repository hosting the metadata collection.
+     * @throws PropertyErrorException one or more of the requested properties are not defined, or have different
+     *                                characteristics in the TypeDef for the instance's type.
+     * @throws ClassificationErrorException one or more of the requested classifications are either not known or
+     *                                      not defined for the entity's type.
+     * @throws EntityNotKnownException one of the entities at the end of a relationship is not known in the
+     *                                 metadata collection or the batch.
+     * @throws StatusNotSupportedException the metadata repository hosting the metadata collection does not support
+     *                                     one of the requested statuses.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     * @throws FunctionNotSupportedException the repository does not support maintenance of metadata.
+     */
+    protected void addNewInstances(String              userId,
+                                   InstanceGraph       newInstances,
+                                   List<EntityDetail>  newEntities,
+                                   List<Relationship>  newRelationships) throws InvalidParameterException,
+                                                                                RepositoryErrorException,
+                                                                                TypeErrorException,
+                                                                                PropertyErrorException,
+                                                                                ClassificationErrorException,
+                                                                                EntityNotKnownException,
+                                                                                StatusNotSupportedException,
+                                                                                UserNotAuthorizedException,
+                                                                                FunctionNotSupportedException
+    {
+        Map<String, String> newEntityGUIDs = new HashMap<>();
+
+        if (newInstances.getEntities() != null)
+        {
+            for (EntityDetail entity : newInstances.getEntities())
+            {
+                EntityDetail newEntity = this.addEntity(userId,
+                                                        this.getNewInstanceTypeGUID(entity),
+                                                        entity.getProperties(),
+                                                        entity.getClassifications(),
+                                                        entity.getStatus());
+
+                if ((entity.getGUID() != null) && (newEntity != null))
+                {
+                    newEntityGUIDs.put(entity.getGUID(), newEntity.getGUID());
+                }
+
+                newEntities.add(newEntity);
+            }
+        }
+
+        if (newInstances.getRelationships() != null)
+        {
+            for (Relationship relationship : newInstances.getRelationships())
+            {
+                newRelationships.add(this.addRelationship(userId,
+                                                          this.getNewInstanceTypeGUID(relationship),
+                                                          relationship.getProperties(),
+                                                          this.getNewInstanceEndGUID(relationship.getEntityOneProxy(), newEntityGUIDs),
+                                                          this.getNewInstanceEndGUID(relationship.getEntityTwoProxy(), newEntityGUIDs),
+                                                          relationship.getStatus()));
+            }
+        }
+    }
+
+
+    /**
+     * Remove the instances that were added from a batch that failed.  The relationships are removed first, newest
+     * first, so that the entities no longer have relationships when they are removed.  Each instance is deleted
+     * before it is purged unless the repository does not support soft delete.  An instance that can not be removed
+     * is recorded in the audit log and the remaining instances are still removed.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param newEntities entities added from the batch.
+     * @param newRelationships relationships added from the batch.
+     * @param methodName calling method
+     */
+    private void removeNewInstances(String              userId,
+                                    List<EntityDetail>  newEntities,
+                                    List<Relationship>  newRelationships,
+                                    String              methodName)
+    {
+        for (int i = newRelationships.size() - 1; i >= 0; i--)
+        {
+            Relationship relationship = newRelationships.get(i);
+
+            if ((relationship != null) && (relationship.getType() != null))
+            {
+                InstanceType type = relationship.getType();
+
+                try
+                {
+                    try
+                    {
+                        this.deleteRelationship(userId, type.getTypeDefGUID(), type.getTypeDefName(), relationship.getGUID());
+                    }
+                    catch (FunctionNotSupportedException error)
+                    {
+                        /*
+                         * The repository does not support soft delete so the relationship is purged straight away.
+                         */
+                    }
+
+                    this.purgeRelationship(userId, type.getTypeDefGUID(), type.getTypeDefName(), relationship.getGUID());
+                }
+                catch (Exception error)
+                {
+                    this.logNewInstanceNotRemoved(relationship, error, methodName);
+                }
+            }
+        }
+
+        for (int i = newEntities.size() - 1; i >= 0; i--)
+        {
+            EntityDetail entity = newEntities.get(i);
+
+            if ((entity != null) && (entity.getType() != null))
+            {
+                InstanceType type = entity.getType();
+
+                try
+                {
+                    try
+                    {
+                        this.deleteEntity(userId, type.getTypeDefGUID(), type.getTypeDefName(), entity.getGUID());
+                    }
+                    catch (FunctionNotSupportedException error)
+                    {
+                        /*
+                         * The repository does not support soft delete so the entity is purged straight away.
+                         */
+                    }
+
+                    this.purgeEntity(userId, type.getTypeDefGUID(), type.getTypeDefName(), entity.getGUID());
+                }
+                catch (Exception error)
+                {
+                    this.logNewInstanceNotRemoved(entity, error, methodName);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Record that an instance added from a failed batch could not be removed.
+     *
+     * @param instance instance that is left in the repository
+     * @param error exception from the attempt to remove it
+     * @param methodName calling method
+     */
+    private void logNewInstanceNotRemoved(InstanceHeader instance,
+                                          Exception      error,
+                                          String         methodName)
+    {
+        log.error("Instance " + instance.getGUID() + " from a failed batch could not be removed", error);
+
+        if (auditLog != null)
+        {
+            auditLog.logException(methodName,
+                                  OMRSAuditCode.NEW_INSTANCE_NOT_REMOVED.getMessageDefinition(instance.getGUID(),
+                                                                                              repositoryName,
+                                                                                              error.getClass().getName(),
+                                                                                              error.getMessage()),
+                                  error);
+        }
+    }
+
+
     /**
      * Update the status of a specific relationship.
      *
@@ -2797,6 +3927,8 @@ public abstract class OMRSMetadataCollection implements AuditLoggingComponent
      * Save the entities and relationships supplied in the instance graph as a reference copies.
      * The id of the home metadata collection is already set up in the instances.
      * Any instances from the home metadata collection are ignored.
+     * The entities are saved one at a time, followed by the relationships.  If one of them is in error, the
+     * instances before it remain saved and the error is returned.
      *
      * @param userId unique identifier for requesting server.
      * @param instances instances to save.
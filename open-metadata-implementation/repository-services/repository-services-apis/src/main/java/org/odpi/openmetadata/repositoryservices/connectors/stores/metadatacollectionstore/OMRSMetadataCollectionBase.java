@@ -1820,6 +1820,38 @@ public abstract class OMRSMetadataCollectionBase extends OMRSMetadataCollection
     }
 
 
+    /**
+     * Validate the parameters for a retrieve of a list of instances.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the instances.
+     * @param methodName name of calling method.
+     * @throws InvalidParameterException one of the guids is null
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                 the metadata collection is stored.
+     */
+    protected  void getInstancesParameterValidation(String        userId,
+                                                    List<String>  guids,
+                                                    String        methodName) throws InvalidParameterException,
+                                                                                     RepositoryErrorException
+    {
+        final String  guidParameterName = "guids";
+
+        /*
+         * Validate parameters
+         */
+        super.basicRequestValidation(userId, methodName);
+
+        if (guids != null)
+        {
+            for (String guid : guids)
+            {
+                repositoryValidator.validateGUID(repositoryName, guidParameterName, guid, methodName);
+            }
+        }
+    }
+
+
     /**
      * Validate the parameters for getRelationshipsForEntity.
      *
@@ -1879,6 +1911,68 @@ public abstract class OMRSMetadataCollectionBase extends OMRSMetadataCollection
     }
 
 
+    /**
+     * Validate the parameters for countRelationshipsForEntity.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityGUID String unique identifier for the entity.
+     * @param relationshipTypeGUID String GUID of the the type of relationship required (null for all).
+     * @param methodName calling method
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     */
+    protected void countRelationshipsForEntityParameterValidation(String   userId,
+                                                                  String   entityGUID,
+                                                                  String   relationshipTypeGUID,
+                                                                  String   methodName) throws InvalidParameterException,
+                                                                                              TypeErrorException,
+                                                                                              RepositoryErrorException
+    {
+        final String guidParameterName = "entityGUID";
+        final String typeGUIDParameter = "relationshipTypeGUID";
+
+        super.basicRequestValidation(userId, methodName);
+        repositoryValidator.validateGUID(repositoryName, guidParameterName, entityGUID, methodName);
+        repositoryValidator.validateOptionalTypeGUID(repositoryName, typeGUIDParameter, relationshipTypeGUID,
+                                                     methodName);
+    }
+
+
+    /**
+     * Validate the parameters for getRelationshipsForEntityWithCursor.  The cursor is validated by the
+     * repository that issued it.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityGUID String unique identifier for the entity.
+     * @param relationshipTypeGUID String GUID of the the type of relationship required (null for all).
+     * @param pageSize the maximum number of result relationships that can be returned on this request.
+     * @param methodName calling method
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws PagingErrorException the page size is negative.
+     */
+    protected void getRelationshipsForEntityWithCursorParameterValidation(String   userId,
+                                                                          String   entityGUID,
+                                                                          String   relationshipTypeGUID,
+                                                                          int      pageSize,
+                                                                          String   methodName) throws InvalidParameterException,
+                                                                                                      TypeErrorException,
+                                                                                                      RepositoryErrorException,
+                                                                                                      PagingErrorException
+    {
+        final String pageSizeParameter = "pageSize";
+
+        this.countRelationshipsForEntityParameterValidation(userId, entityGUID, relationshipTypeGUID, methodName);
+        repositoryValidator.validatePageSize(repositoryName, pageSizeParameter, pageSize, methodName);
+    }
+
+
     /**
      * Validate the parameters for findEntitiesByProperty.
      *
@@ -1947,6 +2041,50 @@ public abstract class OMRSMetadataCollectionBase extends OMRSMetadataCollection
     }
 
 
+    /**
+     * Validate the parameters for findEntitiesByPropertyWithCursor.  The cursor is validated by the
+     * repository that issued it.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityTypeGUID String unique identifier for the entity type of interest (null means any entity type).
+     * @param matchProperties Optional list of entity properties to match (contains wildcards).
+     * @param matchCriteria Enum defining how the match properties should be matched to the entities in the repository.
+     * @param pageSize the maximum number of result entities that can be returned on this request.
+     * @param methodName calling method
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws PagingErrorException the page size is negative.
+     */
+    protected void findEntitiesByPropertyWithCursorParameterValidation(String              userId,
+                                                                       String              entityTypeGUID,
+                                                                       InstanceProperties  matchProperties,
+                                                                       MatchCriteria       matchCriteria,
+                                                                       int                 pageSize,
+                                                                       String              methodName) throws InvalidParameterException,
+                                                                                                              RepositoryErrorException,
+                                                                                                              TypeErrorException,
+                                                                                                              PagingErrorException
+    {
+        final String matchCriteriaParameterName   = "matchCriteria";
+        final String matchPropertiesParameterName = "matchProperties";
+        final String typeGUIDParameterName        = "entityTypeGUID";
+        final String pageSizeParameter            = "pageSize";
+
+        super.basicRequestValidation(userId, methodName);
+        repositoryValidator.validateOptionalTypeGUID(repositoryName, typeGUIDParameterName, entityTypeGUID, methodName);
+        repositoryValidator.validatePageSize(repositoryName, pageSizeParameter, pageSize, methodName);
+        repositoryValidator.validateMatchCriteria(repositoryName,
+                                                  matchCriteriaParameterName,
+                                                  matchPropertiesParameterName,
+                                                  matchCriteria,
+                                                  matchProperties,
+                                                  methodName);
+    }
+
+
     /**
      * Validate the parameters for findEntities.
      *
@@ -2008,6 +2146,43 @@ public abstract class OMRSMetadataCollectionBase extends OMRSMetadataCollection
     }
 
 
+    /**
+     * Validate the parameters for countEntities.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityTypeGUID String unique identifier for the entity type of interest (null means any entity type).
+     * @param entitySubtypeGUIDs optional list of the unique identifiers (guids) for subtypes of the entityTypeGUID to
+     *                           include in the count. Null means all subtypes.
+     * @param matchProperties Optional list of entity property conditions to match.
+     * @param matchClassifications Optional list of entity classifications to match.
+     * @param methodName calling method
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     */
+    protected void countEntitiesParameterValidation(String                    userId,
+                                                    String                    entityTypeGUID,
+                                                    List<String>              entitySubtypeGUIDs,
+                                                    SearchProperties          matchProperties,
+                                                    SearchClassifications     matchClassifications,
+                                                    String                    methodName) throws InvalidParameterException,
+                                                                                                 RepositoryErrorException,
+                                                                                                 TypeErrorException
+    {
+        final String typeGUIDParameterName             = "entityTypeGUID";
+        final String subtypeGUIDsParameterName         = "entitySubtypeGUIDs";
+        final String matchPropertiesParameterName      = "matchProperties";
+        final String matchClassificationsParameterName = "matchClassifications";
+
+        super.basicRequestValidation(userId, methodName);
+        repositoryValidator.validateOptionalTypeGUIDs(repositoryName, typeGUIDParameterName, entityTypeGUID, subtypeGUIDsParameterName, entitySubtypeGUIDs, methodName);
+        repositoryValidator.validateSearchProperties(repositoryName, matchPropertiesParameterName, matchProperties, methodName);
+        repositoryValidator.validateSearchClassifications(repositoryName, matchClassificationsParameterName, matchClassifications, methodName);
+    }
+
+
     /**
      * Validate the parameters for findEntitiesByClassification.
      *
@@ -2231,6 +2406,39 @@ public abstract class OMRSMetadataCollectionBase extends OMRSMetadataCollection
     }
 
 
+    /**
+     * Validate the parameters for countRelationships.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param relationshipTypeGUID unique identifier (guid) for the relationship's type.  Null means all types.
+     * @param relationshipSubtypeGUIDs optional list of the unique identifiers (guids) for subtypes of the
+     *                                 relationshipTypeGUID to include in the count. Null means all subtypes.
+     * @param matchProperties Optional list of relationship property conditions to match.
+     * @param methodName calling method
+     * @throws InvalidParameterException one of the parameters is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     */
+    protected void countRelationshipsParameterValidation(String                    userId,
+                                                         String                    relationshipTypeGUID,
+                                                         List<String>              relationshipSubtypeGUIDs,
+                                                         SearchProperties          matchProperties,
+                                                         String                    methodName) throws InvalidParameterException,
+                                                                                                      TypeErrorException,
+                                                                                                      RepositoryErrorException
+    {
+        final String matchPropertiesParameterName = "matchProperties";
+        final String guidParameterName            = "relationshipTypeGUID";
+        final String subtypeGuidsParameterName    = "relationshipSubtypeGUIDs";
+
+        super.basicRequestValidation(userId, methodName);
+        repositoryValidator.validateOptionalTypeGUIDs(repositoryName, guidParameterName, relationshipTypeGUID, subtypeGuidsParameterName, relationshipSubtypeGUIDs, methodName);
+        repositoryValidator.validateSearchProperties(repositoryName, matchPropertiesParameterName, matchProperties, methodName);
+    }
+
+
     /**
      * Validate the parameters passed to findRelationshipsByProperty.
      *
@@ -4258,6 +4466,71 @@ public abstract class OMRSMetadataCollectionBase extends OMRSMetadataCollection
     }
 
 
+    /**
+     * Validate the parameters needed to add a batch of new entities and relationships.  Each instance in the batch
+     * is validated as it would be for addEntity or addRelationship.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param newInstances entities and relationships to add.
+     * @param methodName calling method
+     * @throws InvalidParameterException one of the parameters is invalid or null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws TypeErrorException one of the requested types is not known, or not supported in the metadata
+     *                            repository hosting the metadata collection.
+     * @throws PropertyErrorException one or more of the requested properties are not defined, or have different
+     *                                characteristics in the TypeDef for the instance's type.
+     * @throws ClassificationErrorException one or more of the requested classifications are either not known or
+     *                                      not defined for the entity's type.
+     * @throws StatusNotSupportedException the metadata repository hosting the metadata collection does not support
+     *                                     one of the requested statuses.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    protected void addEntitiesAndRelationshipsParameterValidation(String         userId,
+                                                                  InstanceGraph  newInstances,
+                                                                  String         methodName) throws InvalidParameterException,
+                                                                                                   RepositoryErrorException,
+                                                                                                   TypeErrorException,
+                                                                                                   PropertyErrorException,
+                                                                                                   ClassificationErrorException,
+                                                                                                   StatusNotSupportedException,
+                                                                                                   UserNotAuthorizedException
+    {
+        super.basicRequestValidation(userId, methodName);
+        super.validateNewInstanceBatch(newInstances, methodName);
+
+        if (newInstances.getEntities() != null)
+        {
+            for (EntityDetail entity : newInstances.getEntities())
+            {
+                this.addEntityParameterValidation(userId,
+                                                  super.getNewInstanceTypeGUID(entity),
+                                                  entity.getProperties(),
+                                                  entity.getClassifications(),
+                                                  entity.getStatus(),
+                                                  methodName);
+            }
+        }
+
+        if (newInstances.getRelationships() != null)
+        {
+            for (Relationship relationship : newInstances.getRelationships())
+            {
+                EntityProxy entityOneProxy = relationship.getEntityOneProxy();
+                EntityProxy entityTwoProxy = relationship.getEntityTwoProxy();
+
+                this.addRelationshipParameterValidation(userId,
+                                                        super.getNewInstanceTypeGUID(relationship),
+                                                        relationship.getProperties(),
+                                                        (entityOneProxy == null) ? null : entityOneProxy.getGUID(),
+                                                        (entityTwoProxy == null) ? null : entityTwoProxy.getGUID(),
+                                                        relationship.getStatus(),
+                                                        methodName);
+            }
+        }
+    }
+
+
     /**
      * Create a new entity and put it in the requested state.  The new entity is returned.
      *
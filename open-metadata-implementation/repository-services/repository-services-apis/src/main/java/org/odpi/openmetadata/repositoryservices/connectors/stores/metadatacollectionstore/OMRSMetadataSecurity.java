@@ -35,6 +35,17 @@ public class OMRSMetadataSecurity implements OpenMetadataRepositorySecurity
     }
 
 
+    /**
+     * Return whether a security verifier has been set up.  Without one, all requests are permitted.
+     *
+     * @return boolean flag
+     */
+    public boolean isSecurityVerifierSet()
+    {
+        return connector != null;
+    }
+
+
     /**
      * Tests for whether a specific user should have the right to create a type within a repository.
      *
@@ -0,0 +1,153 @@
+/* SPDX-License-Identifier: Apache 2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * InstancePage is one page of the results of a cursor-based search.  It holds the instances found and the cursor
+ * to pass on the request for the next page.  The cursor is opaque to the caller - it is only meaningful to the
+ * metadata collection that returned it.  A null cursor means there are no more results.
+ *
+ * Note a page may hold fewer instances than the requested page size (or none at all) and still have a cursor
+ * for the next page.  The caller should continue until the cursor is null.
+ *
+ * @param <T> type of instance
+ */
+public class InstancePage<T extends InstanceHeader> implements Serializable
+{
+    private static final long    serialVersionUID = 1L;
+
+    private List<T> instances  = null;
+    private String  nextCursor = null;
+
+
+    /**
+     * Default constructor
+     */
+    public InstancePage()
+    {
+    }
+
+
+    /**
+     * Typical constructor.
+     *
+     * @param instances instances in this page (null for none)
+     * @param nextCursor cursor for the next page (null means there are no more results)
+     */
+    public InstancePage(List<T> instances,
+                        String  nextCursor)
+    {
+        this.instances = instances;
+        this.nextCursor = nextCursor;
+    }
+
+
+    /**
+     * Return the instances in this page.  Null means no instances.
+     *
+     * @return list of instances
+     */
+    public List<T> getInstances()
+    {
+        if (instances == null)
+        {
+            return null;
+        }
+        else if (instances.isEmpty())
+        {
+            return null;
+        }
+        else
+        {
+            return new ArrayList<>(instances);
+        }
+    }
+
+
+    /**
+     * Set up the instances in this page.
+     *
+     * @param instances list of instances
+     */
+    public void setInstances(List<T> instances)
+    {
+        this.instances = instances;
+    }
+
+
+    /**
+     * Return the cursor to pass on the request for the next page.  Null means there are no more results.
+     *
+     * @return opaque cursor string
+     */
+    public String getNextCursor()
+    {
+        return nextCursor;
+    }
+
+
+    /**
+     * Set up the cursor to pass on the request for the next page.
+     *
+     * @param nextCursor opaque cursor string
+     */
+    public void setNextCursor(String nextCursor)
+    {
+        this.nextCursor = nextCursor;
+    }
+
+
+    /**
+     * Standard toString method.
+     *
+     * @return JSON style description of variables.
+     */
+    @Override
+    public String toString()
+    {
+        return "InstancePage{" +
+                "instances=" + instances +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+
+
+    /**
+     * Validate that an object is equal depending on their stored values.
+     *
+     * @param objectToCompare object
+     * @return boolean result
+     */
+    @Override
+    public boolean equals(Object objectToCompare)
+    {
+        if (this == objectToCompare)
+        {
+            return true;
+        }
+        if (!(objectToCompare instanceof InstancePage))
+        {
+            return false;
+        }
+        InstancePage<?> that = (InstancePage<?>) objectToCompare;
+        return Objects.equals(getInstances(), that.getInstances()) &&
+                Objects.equals(getNextCursor(), that.getNextCursor());
+    }
+
+
+    /**
+     * Return a hash code based on the values of this object.
+     *
+     * @return in hash code
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(getInstances(), getNextCursor());
+    }
+}
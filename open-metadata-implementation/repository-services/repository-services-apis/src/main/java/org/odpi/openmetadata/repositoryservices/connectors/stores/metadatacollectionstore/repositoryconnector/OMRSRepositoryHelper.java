@@ -649,6 +649,44 @@ public interface OMRSRepositoryHelper extends OMRSRepositoryPropertiesHelper
                                                                                        PropertyErrorException;
 
 
+    /**
+     * Return a collector that applies the paging and sequencing parameters to entity instances as a repository
+     * connector finds them.  This avoids building the full list of results for formatEntityResults.
+     *
+     * @param fromElement - the starting element number of the instances to return. This is used when retrieving elements
+     *                    beyond the first page of results. Zero means start from the first element.
+     * @param sequencingProperty - String name of the property that is to be used to sequence the results.
+     *                           Null means do not sequence on a property name (see SequencingOrder).
+     * @param sequencingOrder - Enum defining how the results should be ordered.
+     * @param pageSize - the maximum number of result entities that can be returned on this request.  Zero means
+     *                 unrestricted return results size.
+     * @return result collector
+     */
+    OMRSResultCollector<EntityDetail> getEntityResultCollector(int             fromElement,
+                                                               String          sequencingProperty,
+                                                               SequencingOrder sequencingOrder,
+                                                               int             pageSize);
+
+
+    /**
+     * Return a collector that applies the paging and sequencing parameters to relationship instances as a repository
+     * connector finds them.  This avoids building the full list of results for formatRelationshipResults.
+     *
+     * @param fromElement - the starting element number of the instances to return. This is used when retrieving elements
+     *                    beyond the first page of results. Zero means start from the first element.
+     * @param sequencingProperty - String name of the property that is to be used to sequence the results.
+     *                           Null means do not sequence on a property name (see SequencingOrder).
+     * @param sequencingOrder - Enum defining how the results should be ordered.
+     * @param pageSize - the maximum number of result relationships that can be returned on this request.  Zero means
+     *                 unrestricted return results size.
+     * @return result collector
+     */
+    OMRSResultCollector<Relationship> getRelationshipResultCollector(int             fromElement,
+                                                                     String          sequencingProperty,
+                                                                     SequencingOrder sequencingOrder,
+                                                                     int             pageSize);
+
+
     /**
      * Retrieve an escaped version of the provided string that can be passed to methods that expect regular expressions,
      * without being interpreted as a regular expression (i.e. the returned string will be interpreted as a literal --
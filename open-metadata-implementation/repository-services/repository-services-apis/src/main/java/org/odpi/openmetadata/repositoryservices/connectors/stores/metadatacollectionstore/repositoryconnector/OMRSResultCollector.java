@@ -0,0 +1,32 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector;
+
+import java.util.List;
+
+/**
+ * OMRSResultCollector applies the paging and sequencing parameters of a search to the instances that match the
+ * search as the repository connector finds them.  Only the instances that may be part of the requested page are
+ * retained, so the connector does not need to build the full list of matching instances before formatting the results.
+ * The results are the same as those returned by the repository helper's formatEntityResults or formatRelationshipResults
+ * methods for the same instances.
+ *
+ * @param <T> type of instance being collected
+ */
+public interface OMRSResultCollector<T>
+{
+    /**
+     * Add an instance that matches the search.
+     *
+     * @param instance matching instance
+     */
+    void add(T instance);
+
+
+    /**
+     * Return the requested page of results from the instances added.
+     *
+     * @return list of instances - null means no instances were added, or the page starts after the last instance
+     */
+    List<T> getResults();
+}
@@ -965,6 +965,15 @@ public enum OMRSAuditCode implements AuditLogMessageSet
                       "Review the instances from the event (passed as additional information on this log message) to determine the source of " +
                               "the error and its resolution."),
 
+    NEW_INSTANCE_NOT_REMOVED("OMRS-AUDIT-8008",
+                      OMRSAuditLogRecordSeverity.EXCEPTION,
+                      "The instance {0} was added to repository {1} from a batch of new instances that later failed, and it " +
+                              "could not be removed.  The exception was {2} with message {3}",
+                      "The other instances from the batch have been removed, and the error from the batch has been returned " +
+                              "to the caller.  This instance is left in the repository.",
+                      "Review the exception to determine why the instance could not be removed.  Then delete the instance, " +
+                              "or add the rest of the batch so that the instance is connected to the metadata it was added with."),
+
     NULL_OMRS_EVENT_RECEIVED("OMRS-AUDIT-9002",
                       OMRSAuditLogRecordSeverity.EXCEPTION,
                       "Unable to process a received event from topic {0} because its content is null",
@@ -363,6 +363,18 @@ public enum OMRSErrorCode implements ExceptionMessageSet
             "The provided subtype {0} is not a subtype of typedef {1}.",
             "The system is unable to process the requested search because the specified subtype is not a known subtype of the provided type.",
             "Review the request payload and ensure that the list of subtypes includes only valid subtypes for the provided entity type."),
+    INVALID_CURSOR(400, "OMRS-REPOSITORY-400-080",
+            "The cursor {0} passed on the {1} operation of open metadata repository {2} is not valid",
+            "The system is unable to locate the next page of results for the request.",
+            "A cursor is only valid for the repository and request that returned it.  Correct the caller's code so that it passes the cursor returned with the previous page, or null to start from the first element."),
+    NULL_NEW_INSTANCE(400, "OMRS-REPOSITORY-400-081",
+            "A null {0} has been passed in the batch of new instances on the {1} operation of open metadata repository {2}",
+            "The system is unable to add the batch of new instances because the instance is needed.",
+            "Correct the caller's code so that every entry in the batch is set up and retry the request."),
+    DUPLICATE_NEW_ENTITY_GUID(400, "OMRS-REPOSITORY-400-082",
+            "The unique identifier {0} is used by more than one entity in the batch of new instances passed on the {1} operation of open metadata repository {2}",
+            "The system is unable to add the batch of new instances because it can not tell which entity the relationships in the batch refer to.",
+            "Correct the caller's code so that each new entity that is referred to by a relationship in the batch has its own unique identifier and retry the request."),
     NULL_USER_NAME(400, "OMRS-REST-API-400-001",
             "The OMRS REST API for server {0} has been called with a null user name (userId)",
             "The system is unable to access the local metadata repository.",
@@ -909,7 +921,11 @@ public enum OMRSErrorCode implements ExceptionMessageSet
     CLIENT_SIDE_REST_API_ERROR(503, "OMRS-REST-API-503-006",
             "A client-side exception was received from API call {0} to repository {1}.  The error message was {2}",
             "The server has issued a call to the open metadata repository REST API services in a remote repository and has received an exception from the local client libraries.",
-            "Look for errors in the local repository's audit log and console to understand and correct the source of the error.")
+            "Look for errors in the local repository's audit log and console to understand and correct the source of the error."),
+    REST_API_NOT_SUPPORTED(501, "OMRS-REST-API-501-001",
+            "REST API call {0} is not supported by the server hosting repository {1}",
+            "The server has issued a call to the open metadata repository REST API services in a remote repository and the remote server does not have this API.  It is probably running an older release.",
+            "No action is required if the caller uses other calls to achieve the same result.  Otherwise upgrade the remote server.")
 
     ;
 
@@ -0,0 +1,135 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.rest.properties;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+
+/**
+ * GUIDListRequest is the request structure used on the OMRS REST API calls that retrieve a list of
+ * instances by their unique identifiers (guids) in a single request.
+ */
+@JsonAutoDetect(getterVisibility=PUBLIC_ONLY, setterVisibility=PUBLIC_ONLY, fieldVisibility=NONE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown=true)
+public class GUIDListRequest extends OMRSAPIRequest
+{
+    private static final long    serialVersionUID = 1L;
+
+    private List<String> guids = null;
+
+
+    /**
+     * Default constructor
+     */
+    public GUIDListRequest()
+    {
+        super();
+    }
+
+
+    /**
+     * Copy/clone constructor
+     *
+     * @param template object to copy
+     */
+    public GUIDListRequest(GUIDListRequest template)
+    {
+        super(template);
+
+        if (template != null)
+        {
+            guids = template.getGUIDs();
+        }
+    }
+
+
+    /**
+     * Return the list of unique identifiers for the requested instances.
+     *
+     * @return list of guids
+     */
+    public List<String> getGUIDs()
+    {
+        if (guids == null)
+        {
+            return null;
+        }
+        else if (guids.isEmpty())
+        {
+            return null;
+        }
+        else
+        {
+            return new ArrayList<>(guids);
+        }
+    }
+
+
+    /**
+     * Set up the list of unique identifiers for the requested instances.
+     *
+     * @param guids list of guids
+     */
+    public void setGUIDs(List<String> guids)
+    {
+        this.guids = guids;
+    }
+
+
+    /**
+     * Standard toString method.
+     *
+     * @return print out of variables in a JSON-style
+     */
+    @Override
+    public String toString()
+    {
+        return "GUIDListRequest{" +
+                "guids=" + guids +
+                '}';
+    }
+
+
+    /**
+     * Compare the values of the supplied object with those stored in the current object.
+     *
+     * @param objectToCompare supplied object
+     * @return boolean result of comparison
+     */
+    @Override
+    public boolean equals(Object objectToCompare)
+    {
+        if (this == objectToCompare)
+        {
+            return true;
+        }
+        if (!(objectToCompare instanceof GUIDListRequest))
+        {
+            return false;
+        }
+        GUIDListRequest that = (GUIDListRequest) objectToCompare;
+        return Objects.equals(getGUIDs(), that.getGUIDs());
+    }
+
+
+    /**
+     * Create a hash code for this element type.
+     *
+     * @return int hash code
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(getGUIDs());
+    }
+}
@@ -0,0 +1,287 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.rest.properties;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceStatus;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchClassifications;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+
+/**
+ * InstanceCountRequest is the request structure used on the OMRS REST API calls that count the entities or
+ * relationships that match the supplied criteria without retrieving them.
+ */
+@JsonAutoDetect(getterVisibility=PUBLIC_ONLY, setterVisibility=PUBLIC_ONLY, fieldVisibility=NONE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown=true)
+public class InstanceCountRequest extends OMRSAPIRequest
+{
+    private static final long    serialVersionUID = 1L;
+
+    private String                typeGUID                          = null;
+    private List<String>          subtypeGUIDs                      = null;
+    private SearchProperties      matchProperties                   = null;
+    private SearchClassifications matchClassifications              = null;
+    private List<InstanceStatus>  limitResultsByStatus              = null;
+    private List<String>          excludedHomeMetadataCollectionIds = null;
+
+
+    /**
+     * Default constructor
+     */
+    public InstanceCountRequest()
+    {
+        super();
+    }
+
+
+    /**
+     * Copy/clone constructor
+     *
+     * @param template object to copy
+     */
+    public InstanceCountRequest(InstanceCountRequest template)
+    {
+        super(template);
+
+        if (template != null)
+        {
+            typeGUID                          = template.getTypeGUID();
+            subtypeGUIDs                      = template.getSubtypeGUIDs();
+            matchProperties                   = template.getMatchProperties();
+            matchClassifications              = template.getMatchClassifications();
+            limitResultsByStatus              = template.getLimitResultsByStatus();
+            excludedHomeMetadataCollectionIds = template.getExcludedHomeMetadataCollectionIds();
+        }
+    }
+
+
+    /**
+     * Return the unique identifier of the type of instance to count.  Null means all types.
+     *
+     * @return String guid
+     */
+    public String getTypeGUID()
+    {
+        return typeGUID;
+    }
+
+
+    /**
+     * Set up the unique identifier of the type of instance to count.  Null means all types.
+     *
+     * @param typeGUID String guid
+     */
+    public void setTypeGUID(String typeGUID)
+    {
+        this.typeGUID = typeGUID;
+    }
+
+
+    /**
+     * Return the list of subtypes of the type to include in the count.  Null means all subtypes.
+     *
+     * @return list of guids
+     */
+    public List<String> getSubtypeGUIDs()
+    {
+        if (subtypeGUIDs == null)
+        {
+            return null;
+        }
+        else if (subtypeGUIDs.isEmpty())
+        {
+            return null;
+        }
+        else
+        {
+            return new ArrayList<>(subtypeGUIDs);
+        }
+    }
+
+
+    /**
+     * Set up the list of subtypes of the type to include in the count.  Null means all subtypes.
+     *
+     * @param subtypeGUIDs list of guids
+     */
+    public void setSubtypeGUIDs(List<String> subtypeGUIDs)
+    {
+        this.subtypeGUIDs = subtypeGUIDs;
+    }
+
+
+    /**
+     * Return the property conditions that the counted instances must match.
+     *
+     * @return search properties
+     */
+    public SearchProperties getMatchProperties()
+    {
+        return matchProperties;
+    }
+
+
+    /**
+     * Set up the property conditions that the counted instances must match.
+     *
+     * @param matchProperties search properties
+     */
+    public void setMatchProperties(SearchProperties matchProperties)
+    {
+        this.matchProperties = matchProperties;
+    }
+
+
+    /**
+     * Return the classification conditions that the counted entities must match.
+     *
+     * @return search classifications
+     */
+    public SearchClassifications getMatchClassifications()
+    {
+        return matchClassifications;
+    }
+
+
+    /**
+     * Set up the classification conditions that the counted entities must match.
+     *
+     * @param matchClassifications search classifications
+     */
+    public void setMatchClassifications(SearchClassifications matchClassifications)
+    {
+        this.matchClassifications = matchClassifications;
+    }
+
+
+    /**
+     * Return the list of statuses that the counted instances must be in.  Null means all statuses.
+     *
+     * @return list of instance status enums.
+     */
+    public List<InstanceStatus> getLimitResultsByStatus()
+    {
+        if (limitResultsByStatus == null)
+        {
+            return null;
+        }
+        else if (limitResultsByStatus.isEmpty())
+        {
+            return null;
+        }
+        else
+        {
+            return new ArrayList<>(limitResultsByStatus);
+        }
+    }
+
+
+    /**
+     * Set up the list of statuses that the counted instances must be in.  Null means all statuses.
+     *
+     * @param limitResultsByStatus list of instance status enums.
+     */
+    public void setLimitResultsByStatus(List<InstanceStatus> limitResultsByStatus)
+    {
+        this.limitResultsByStatus = limitResultsByStatus;
+    }
+
+
+    /**
+     * Return the metadata collection ids of the repositories whose reference copies are not counted.
+     *
+     * @return list of metadata collection ids
+     */
+    public List<String> getExcludedHomeMetadataCollectionIds()
+    {
+        if (excludedHomeMetadataCollectionIds == null)
+        {
+            return null;
+        }
+        else
+        {
+            return new ArrayList<>(excludedHomeMetadataCollectionIds);
+        }
+    }
+
+
+    /**
+     * Set up the metadata collection ids of the repositories whose reference copies are not counted.
+     *
+     * @param excludedHomeMetadataCollectionIds list of metadata collection ids
+     */
+    public void setExcludedHomeMetadataCollectionIds(List<String> excludedHomeMetadataCollectionIds)
+    {
+        this.excludedHomeMetadataCollectionIds = excludedHomeMetadataCollectionIds;
+    }
+
+
+    /**
+     * Standard toString method.
+     *
+     * @return print out of variables in a JSON-style
+     */
+    @Override
+    public String toString()
+    {
+        return "InstanceCountRequest{" +
+                "typeGUID='" + typeGUID + '\'' +
+                ", subtypeGUIDs=" + subtypeGUIDs +
+                ", matchProperties=" + matchProperties +
+                ", matchClassifications=" + matchClassifications +
+                ", limitResultsByStatus=" + limitResultsByStatus +
+                ", excludedHomeMetadataCollectionIds=" + excludedHomeMetadataCollectionIds +
+                '}';
+    }
+
+
+    /**
+     * Compare the values of the supplied object with those stored in the current object.
+     *
+     * @param objectToCompare supplied object
+     * @return boolean result of comparison
+     */
+    @Override
+    public boolean equals(Object objectToCompare)
+    {
+        if (this == objectToCompare)
+        {
+            return true;
+        }
+        if (!(objectToCompare instanceof InstanceCountRequest))
+        {
+            return false;
+        }
+        InstanceCountRequest that = (InstanceCountRequest) objectToCompare;
+        return Objects.equals(getTypeGUID(), that.getTypeGUID()) &&
+                Objects.equals(getSubtypeGUIDs(), that.getSubtypeGUIDs()) &&
+                Objects.equals(getMatchProperties(), that.getMatchProperties()) &&
+                Objects.equals(getMatchClassifications(), that.getMatchClassifications()) &&
+                Objects.equals(getLimitResultsByStatus(), that.getLimitResultsByStatus()) &&
+                Objects.equals(getExcludedHomeMetadataCollectionIds(), that.getExcludedHomeMetadataCollectionIds());
+    }
+
+
+    /**
+     * Create a hash code for this element type.
+     *
+     * @return int hash code
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(getTypeGUID(), getSubtypeGUIDs(), getMatchProperties(), getMatchClassifications(),
+                            getLimitResultsByStatus(), getExcludedHomeMetadataCollectionIds());
+    }
+}
@@ -33,6 +33,7 @@ public class OMRSAPIPagedFindRequest extends OMRSAPIFindRequest
     private SequencingOrder      sequencingOrder      = null;
     private int                  offset               = 0;
     private int                  pageSize             = 0;
+    private String               cursor               = null;
 
     /**
      * Default constructor
@@ -58,6 +59,7 @@ public class OMRSAPIPagedFindRequest extends OMRSAPIFindRequest
             this.sequencingOrder = template.getSequencingOrder();
             this.offset = template.getOffset();
             this.pageSize = getPageSize();
+            this.cursor = template.getCursor();
         }
     }
 
@@ -130,6 +132,30 @@ public class OMRSAPIPagedFindRequest extends OMRSAPIFindRequest
     }
 
 
+    /**
+     * Return the cursor returned with the previous page of a cursor-based request.  Null means the results
+     * start from the first element.
+     *
+     * @return opaque cursor string
+     */
+    public String getCursor()
+    {
+        return cursor;
+    }
+
+
+    /**
+     * Set up the cursor returned with the previous page of a cursor-based request.  Null means the results
+     * start from the first element.
+     *
+     * @param cursor opaque cursor string
+     */
+    public void setCursor(String cursor)
+    {
+        this.cursor = cursor;
+    }
+
+
     /**
      * Return the maximum number of elements that can be returned on this request.
      *
@@ -166,6 +192,7 @@ public class OMRSAPIPagedFindRequest extends OMRSAPIFindRequest
                 ", sequencingOrder=" + sequencingOrder +
                 ", offset=" + offset +
                 ", pageSize=" + pageSize +
+                ", cursor='" + cursor + '\'' +
                 ", limitResultsByStatus=" + getLimitResultsByStatus() +
                 '}';
     }
@@ -197,7 +224,8 @@ public class OMRSAPIPagedFindRequest extends OMRSAPIFindRequest
         return getOffset() == that.getOffset() &&
                 getPageSize() == that.getPageSize() &&
                 Objects.equals(getSequencingProperty(), that.getSequencingProperty()) &&
-                getSequencingOrder() == that.getSequencingOrder();
+                getSequencingOrder() == that.getSequencingOrder() &&
+                Objects.equals(getCursor(), that.getCursor());
     }
 
 
@@ -214,6 +242,7 @@ public class OMRSAPIPagedFindRequest extends OMRSAPIFindRequest
                             getSequencingProperty(),
                             getSequencingOrder(),
                             getOffset(),
-                            getPageSize());
+                            getPageSize(),
+                            getCursor());
     }
 }
@@ -33,6 +33,7 @@ public abstract class OMRSAPIPagedResponse extends OMRSAPIResponse
     protected String  nextPageURL = null;
     protected int     offset      = 0;
     protected int     pageSize    = 0;
+    protected String  nextCursor  = null;
 
 
     /**
@@ -58,6 +59,7 @@ public abstract class OMRSAPIPagedResponse extends OMRSAPIResponse
             nextPageURL = template.getNextPageURL();
             offset = template.getOffset();
             pageSize = template.getPageSize();
+            nextCursor = template.getNextCursor();
         }
     }
 
@@ -130,6 +132,29 @@ public abstract class OMRSAPIPagedResponse extends OMRSAPIResponse
     }
 
 
+    /**
+     * Return the cursor that can be used to retrieve the next page from a cursor-based request.
+     * Null means there are no more results.
+     *
+     * @return opaque cursor string
+     */
+    public String getNextCursor()
+    {
+        return nextCursor;
+    }
+
+
+    /**
+     * Set up the cursor that can be used to retrieve the next page from a cursor-based request.
+     *
+     * @param nextCursor opaque cursor string
+     */
+    public void setNextCursor(String nextCursor)
+    {
+        this.nextCursor = nextCursor;
+    }
+
+
     /**
      * Standard toString method.
      *
@@ -142,6 +167,7 @@ public abstract class OMRSAPIPagedResponse extends OMRSAPIResponse
                 "nextPageURL='" + nextPageURL + '\'' +
                 ", offset=" + offset +
                 ", pageSize=" + pageSize +
+                ", nextCursor='" + nextCursor + '\'' +
                 ", relatedHTTPCode=" + relatedHTTPCode +
                 ", actionDescription='" + actionDescription + '\'' +
                 ", exceptionClassName='" + exceptionClassName + '\'' +
@@ -181,7 +207,8 @@ public abstract class OMRSAPIPagedResponse extends OMRSAPIResponse
                 that = (OMRSAPIPagedResponse) objectToCompare;
         return getOffset() == that.getOffset() &&
                 getPageSize() == that.getPageSize() &&
-                Objects.equals(getNextPageURL(), that.getNextPageURL());
+                Objects.equals(getNextPageURL(), that.getNextPageURL()) &&
+                Objects.equals(getNextCursor(), that.getNextCursor());
     }
 
 
@@ -193,6 +220,6 @@ public abstract class OMRSAPIPagedResponse extends OMRSAPIResponse
     @Override
     public int hashCode()
     {
-        return Objects.hash(super.hashCode(), getNextPageURL(), getOffset(), getPageSize());
+        return Objects.hash(super.hashCode(), getNextPageURL(), getOffset(), getPageSize(), getNextCursor());
     }
 }
@@ -26,6 +26,8 @@ import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_
                 @JsonSubTypes.Type(value = InstancePropertiesRequest.class, name = "InstancePropertiesRequest"),
                 @JsonSubTypes.Type(value = InstanceGraphRequest.class, name = "InstanceGraphRequest"),
                 @JsonSubTypes.Type(value = MetadataCollectionIdRequest.class, name = "MetadataCollectionIdRequest"),
+                @JsonSubTypes.Type(value = GUIDListRequest.class, name = "GUIDListRequest"),
+                @JsonSubTypes.Type(value = InstanceCountRequest.class, name = "InstanceCountRequest"),
                 @JsonSubTypes.Type(value = EntityCreateRequest.class, name = "EntityCreateRequest"),
                 @JsonSubTypes.Type(value = RelationshipCreateRequest.class, name = "RelationshipCreateRequest")
         })
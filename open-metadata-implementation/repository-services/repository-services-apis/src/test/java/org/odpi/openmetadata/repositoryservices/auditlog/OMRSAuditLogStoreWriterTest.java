@@ -0,0 +1,229 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+
+package org.odpi.openmetadata.repositoryservices.auditlog;
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogOverflowPolicy;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogRecord;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.auditlogstore.OMRSAuditLogStoreConnectorBase;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verify that OMRSAuditLogStoreWriter passes log records to a slow audit log store in order, applies its
+ * overflow policy when its queue is full and only calls the store from one thread at a time.
+ */
+public class OMRSAuditLogStoreWriterTest
+{
+    /**
+     * Audit log store that waits for the test to release it before storing the first record.
+     */
+    private static class SlowAuditLogStore extends OMRSAuditLogStoreConnectorBase
+    {
+        private final CountDownLatch     released       = new CountDownLatch(1);
+        private final CountDownLatch     firstReceived  = new CountDownLatch(1);
+        private final List<String>       storedRecords  = new ArrayList<>();
+        private final AtomicInteger      activeCalls    = new AtomicInteger(0);
+        private final AtomicInteger      maxActiveCalls = new AtomicInteger(0);
+
+        public String storeLogRecord(OMRSAuditLogRecord logRecord)
+        {
+            maxActiveCalls.accumulateAndGet(activeCalls.incrementAndGet(), Math::max);
+            firstReceived.countDown();
+
+            try
+            {
+                released.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException error)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            synchronized (storedRecords)
+            {
+                storedRecords.add(logRecord.getMessageText());
+            }
+
+            activeCalls.decrementAndGet();
+
+            return logRecord.getGUID();
+        }
+
+        List<String> getStoredRecords()
+        {
+            synchronized (storedRecords)
+            {
+                return new ArrayList<>(storedRecords);
+            }
+        }
+    }
+
+
+    /**
+     * Create a log record.
+     *
+     * @param messageText text of the record
+     * @param severity severity of the record
+     * @return log record
+     */
+    private OMRSAuditLogRecord getLogRecord(String messageText, OMRSAuditLogRecordSeverity severity)
+    {
+        OMRSAuditLogRecord logRecord = new OMRSAuditLogRecord();
+
+        logRecord.setMessageText(messageText);
+        logRecord.setSeverity(severity.getName());
+
+        return logRecord;
+    }
+
+
+    /**
+     * Records are all written, in order, when the queue is full and the caller is blocked.
+     */
+    @Test public void testBlock() throws Exception
+    {
+        SlowAuditLogStore       store  = new SlowAuditLogStore();
+        OMRSAuditLogStoreWriter writer = new OMRSAuditLogStoreWriter(store, 2, OMRSAuditLogOverflowPolicy.BLOCK);
+
+        writer.addLogRecord(getLogRecord("Record 0", OMRSAuditLogRecordSeverity.INFO));
+        assertTrue(store.firstReceived.await(10, TimeUnit.SECONDS));
+
+        writer.addLogRecord(getLogRecord("Record 1", OMRSAuditLogRecordSeverity.INFO));
+        writer.addLogRecord(getLogRecord("Record 2", OMRSAuditLogRecordSeverity.INFO));
+        assertEquals(writer.getQueueDepth(), 2);
+
+        Thread caller = new Thread(() -> writer.addLogRecord(getLogRecord("Record 3", OMRSAuditLogRecordSeverity.INFO)));
+        caller.start();
+        caller.join(200);
+        assertTrue(caller.isAlive());
+
+        store.released.countDown();
+        caller.join(10000);
+        writer.stop();
+
+        List<String> expectedRecords = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+        {
+            expectedRecords.add("Record " + i);
+        }
+
+        assertEquals(store.getStoredRecords(), expectedRecords);
+        assertEquals(writer.getQueueDepth(), 0);
+        assertEquals(writer.getDroppedRecords(), 0);
+    }
+
+
+    /**
+     * The least important records are discarded when the queue is full.
+     */
+    @Test public void testDropLowestSeverity() throws Exception
+    {
+        SlowAuditLogStore       store  = new SlowAuditLogStore();
+        OMRSAuditLogStoreWriter writer = new OMRSAuditLogStoreWriter(store, 2, OMRSAuditLogOverflowPolicy.DROP_LOWEST_SEVERITY);
+
+        writer.addLogRecord(getLogRecord("First", OMRSAuditLogRecordSeverity.INFO));
+        assertTrue(store.firstReceived.await(10, TimeUnit.SECONDS));
+
+        writer.addLogRecord(getLogRecord("Info", OMRSAuditLogRecordSeverity.INFO));
+        writer.addLogRecord(getLogRecord("Error", OMRSAuditLogRecordSeverity.ERROR));
+        writer.addLogRecord(getLogRecord("Exception", OMRSAuditLogRecordSeverity.EXCEPTION));
+        writer.addLogRecord(getLogRecord("Trace", OMRSAuditLogRecordSeverity.TRACE));
+
+        assertEquals(writer.getQueueDepth(), 2);
+        assertEquals(writer.getDroppedRecords(), 2);
+
+        store.released.countDown();
+        writer.stop();
+
+        List<String> expectedRecords = new ArrayList<>();
+        expectedRecords.add("First");
+        expectedRecords.add("Error");
+        expectedRecords.add("Exception");
+
+        assertEquals(store.getStoredRecords(), expectedRecords);
+    }
+
+
+    /**
+     * A record that does not fit in the queue is written on the caller's thread, but not while the writer's
+     * thread is writing to the store.
+     */
+    @Test public void testSpill() throws Exception
+    {
+        SlowAuditLogStore       store  = new SlowAuditLogStore();
+        OMRSAuditLogStoreWriter writer = new OMRSAuditLogStoreWriter(store, 1, OMRSAuditLogOverflowPolicy.SPILL);
+
+        writer.addLogRecord(getLogRecord("Record 0", OMRSAuditLogRecordSeverity.INFO));
+        assertTrue(store.firstReceived.await(10, TimeUnit.SECONDS));
+
+        writer.addLogRecord(getLogRecord("Record 1", OMRSAuditLogRecordSeverity.INFO));
+
+        Thread caller = new Thread(() -> writer.addLogRecord(getLogRecord("Spilled", OMRSAuditLogRecordSeverity.INFO)));
+        caller.start();
+        caller.join(200);
+
+        store.released.countDown();
+        caller.join(10000);
+        writer.stop();
+
+        List<String> storedRecords = store.getStoredRecords();
+
+        assertEquals(storedRecords.size(), 3);
+        assertEquals(storedRecords.get(0), "Record 0");
+        assertTrue(storedRecords.indexOf("Record 1") > 0);
+        assertTrue(storedRecords.indexOf("Spilled") > 0);
+        assertEquals(store.maxActiveCalls.get(), 1);
+        assertEquals(writer.getDroppedRecords(), 0);
+    }
+
+
+    /**
+     * Records logged while a stopped writer is still writing its queue are written after the queued records.
+     */
+    @Test public void testRecordsAfterStopFollowQueuedRecords() throws Exception
+    {
+        SlowAuditLogStore       store  = new SlowAuditLogStore();
+        OMRSAuditLogStoreWriter writer = new OMRSAuditLogStoreWriter(store, 2, OMRSAuditLogOverflowPolicy.BLOCK);
+
+        writer.addLogRecord(getLogRecord("Record 0", OMRSAuditLogRecordSeverity.INFO));
+        assertTrue(store.firstReceived.await(10, TimeUnit.SECONDS));
+
+        writer.addLogRecord(getLogRecord("Record 1", OMRSAuditLogRecordSeverity.INFO));
+        writer.addLogRecord(getLogRecord("Record 2", OMRSAuditLogRecordSeverity.INFO));
+
+        Thread stopper = new Thread(writer::stop);
+        stopper.start();
+        stopper.join(200);
+        assertTrue(stopper.isAlive());
+
+        /*
+         * The writer is stopped but still writing, so the record is queued rather than written on this thread.
+         */
+        writer.addLogRecord(getLogRecord("Record 3", OMRSAuditLogRecordSeverity.INFO));
+        assertEquals(writer.getQueueDepth(), 3);
+
+        store.released.countDown();
+        stopper.join(10000);
+
+        writer.addLogRecord(getLogRecord("Record 4", OMRSAuditLogRecordSeverity.INFO));
+
+        List<String> expectedRecords = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+        {
+            expectedRecords.add("Record " + i);
+        }
+
+        assertEquals(store.getStoredRecords(), expectedRecords);
+        assertEquals(store.maxActiveCalls.get(), 1);
+        assertEquals(writer.getQueueDepth(), 0);
+    }
+}
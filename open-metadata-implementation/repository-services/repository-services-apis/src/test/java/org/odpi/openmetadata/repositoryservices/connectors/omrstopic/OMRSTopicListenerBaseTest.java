@@ -0,0 +1,125 @@
+/* SPDX-License-Identifier: Apache 2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.connectors.omrstopic;
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceGraph;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Relationship;
+import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEventType;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * OMRSTopicListenerBaseTest verifies the selection of instance events by the types of interest to a listener
+ * and the default handling of batch events.
+ */
+public class OMRSTopicListenerBaseTest
+{
+    @Test public void testNoFilter()
+    {
+        OMRSTopicListenerBase listener = new OMRSTopicListenerBase("TestService");
+
+        assertTrue(listener.isInterestedInInstanceEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT, "Asset", new ArrayList<>()));
+        assertTrue(listener.isInterestedInInstanceEvent(null, null, null));
+    }
+
+
+    @Test public void testInstanceTypeFilter()
+    {
+        OMRSTopicListenerBase listener = new OMRSTopicListenerBase("TestService");
+
+        listener.setInstanceTypesOfInterest(Collections.singletonList("Asset"));
+
+        assertTrue(listener.isInterestedInInstanceEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT, "Asset", new ArrayList<>()));
+        assertTrue(listener.isInterestedInInstanceEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT,
+                                                        "DataFile",
+                                                        Collections.singletonList("Asset")));
+        assertFalse(listener.isInterestedInInstanceEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT,
+                                                         "GlossaryTerm",
+                                                         Collections.singletonList("Referenceable")));
+
+        /*
+         * Events where the supertypes are not known are passed on.
+         */
+        assertTrue(listener.isInterestedInInstanceEvent(OMRSInstanceEventType.PURGED_ENTITY_EVENT, "GlossaryTerm", null));
+    }
+
+
+    @Test public void testInstanceEventTypeFilter()
+    {
+        OMRSTopicListenerBase listener = new OMRSTopicListenerBase("TestService");
+
+        listener.setInstanceEventTypesOfInterest(Collections.singletonList(OMRSInstanceEventType.CLASSIFIED_ENTITY_EVENT));
+
+        assertTrue(listener.isInterestedInInstanceEvent(OMRSInstanceEventType.CLASSIFIED_ENTITY_EVENT, "Asset", new ArrayList<>()));
+        assertFalse(listener.isInterestedInInstanceEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT, "Asset", new ArrayList<>()));
+        assertFalse(listener.isInterestedInInstanceEvent(OMRSInstanceEventType.PURGED_ENTITY_EVENT, "Asset", null));
+    }
+
+
+    @Test public void testBatchEventPassedAsNewInstanceEvents()
+    {
+        List<String> guids = new ArrayList<>();
+
+        OMRSTopicListenerBase listener = new OMRSTopicListenerBase("TestService")
+        {
+            @Override
+            public void processNewEntityEvent(String       sourceName,
+                                              String       originatorMetadataCollectionId,
+                                              String       originatorServerName,
+                                              String       originatorServerType,
+                                              String       originatorOrganizationName,
+                                              EntityDetail entity)
+            {
+                guids.add(entity.getGUID());
+            }
+
+
+            @Override
+            public void processNewRelationshipEvent(String       sourceName,
+                                                    String       originatorMetadataCollectionId,
+                                                    String       originatorServerName,
+                                                    String       originatorServerType,
+                                                    String       originatorOrganizationName,
+                                                    Relationship relationship)
+            {
+                guids.add(relationship.getGUID());
+            }
+        };
+
+        EntityDetail entity1 = new EntityDetail();
+        EntityDetail entity2 = new EntityDetail();
+        Relationship relationship = new Relationship();
+
+        entity1.setGUID("entity1");
+        entity2.setGUID("entity2");
+        relationship.setGUID("relationship1");
+
+        InstanceGraph instances = new InstanceGraph();
+
+        instances.setEntities(Arrays.asList(entity1, entity2));
+        instances.setRelationships(Collections.singletonList(relationship));
+
+        listener.processInstanceBatchEvent("TestSource", "TestCollection", "TestServer", "TestType", "TestOrg", instances);
+
+        assertEquals(guids, Arrays.asList("entity1", "entity2", "relationship1"));
+
+        /*
+         * A batch with only relationships is also passed on.
+         */
+        guids.clear();
+        instances.setEntities(null);
+
+        listener.processInstanceBatchEvent("TestSource", "TestCollection", "TestServer", "TestType", "TestOrg", instances);
+
+        assertEquals(guids, Collections.singletonList("relationship1"));
+    }
+}
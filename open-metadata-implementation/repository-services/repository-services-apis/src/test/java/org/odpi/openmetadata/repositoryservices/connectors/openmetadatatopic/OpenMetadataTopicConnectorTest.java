@@ -0,0 +1,517 @@
+/* SPDX-License-Identifier: Apache 2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.connectors.openmetadatatopic;
+
+import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogDestination;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogRecord;
+import org.odpi.openmetadata.frameworks.connectors.properties.ConnectionProperties;
+import org.odpi.openmetadata.frameworks.connectors.properties.beans.Connection;
+import org.odpi.openmetadata.frameworks.connectors.properties.beans.Endpoint;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * OpenMetadataTopicConnectorTest verifies the hand-off of incoming events from the connector implementation to
+ * the listener thread.
+ */
+public class OpenMetadataTopicConnectorTest
+{
+    /**
+     * Topic connector that queues its events with addIncomingEvent().
+     */
+    private static class QueuingTopicConnector extends OpenMetadataTopicConnector
+    {
+        QueuingTopicConnector()
+        {
+            super(false);
+        }
+
+        QueuingTopicConnector(boolean pollForEvents)
+        {
+            super(pollForEvents);
+        }
+
+        void receiveEvent(String event)
+        {
+            super.addIncomingEvent(new IncomingEvent(event, event));
+        }
+
+        int getQueuedEventCount()
+        {
+            return super.getNumberOfQueuedEvents();
+        }
+
+        public void sendEvent(String event)
+        {
+        }
+    }
+
+
+    /**
+     * Topic connector that still provides its events by overriding checkForIncomingEvents().
+     */
+    private static class PollingTopicConnector extends QueuingTopicConnector
+    {
+        private final AtomicInteger pollCount = new AtomicInteger(0);
+
+        PollingTopicConnector()
+        {
+            super(true);
+        }
+
+        @Override
+        protected List<IncomingEvent> checkForIncomingEvents()
+        {
+            pollCount.incrementAndGet();
+
+            return Collections.emptyList();
+        }
+    }
+
+
+    /**
+     * Listener that records the events it receives and optionally waits before returning.
+     */
+    private static class RecordingListener implements OpenMetadataTopicListener
+    {
+        private final List<String>   events   = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch release;
+        private final CountDownLatch received;
+        private volatile boolean     interrupted = false;
+
+        RecordingListener(CountDownLatch release, int expectedEvents)
+        {
+            this.release  = release;
+            this.received = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        public void processEvent(String event)
+        {
+            try
+            {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException error)
+            {
+                interrupted = true;
+                Thread.currentThread().interrupt();
+            }
+
+            events.add(event);
+            received.countDown();
+        }
+    }
+
+
+    private AuditLog getAuditLog()
+    {
+        return new AuditLog(new AuditLogDestination(null)
+        {
+            @Override
+            public void addLogRecord(AuditLogRecord logRecord)
+            {
+            }
+        }, 0, "Test", "Test", null);
+    }
+
+
+    private void initialize(QueuingTopicConnector connector,
+                            String                topicName,
+                            int                   queueSize,
+                            int                   sleepTime)
+    {
+        Map<String, Object> configurationProperties = new HashMap<>();
+
+        configurationProperties.put("incomingEventQueueSize", queueSize);
+        configurationProperties.put("sleepTime", sleepTime);
+
+        Endpoint   endpoint   = new Endpoint();
+        Connection connection = new Connection();
+
+        endpoint.setAddress(topicName);
+        connection.setEndpoint(endpoint);
+        connection.setConfigurationProperties(configurationProperties);
+
+        connector.initialize("TestConnector", new ConnectionProperties(connection));
+        connector.setAuditLog(getAuditLog());
+    }
+
+
+    private Thread getListenerThread(String topicName)
+    {
+        for (Thread thread : Thread.getAllStackTraces().keySet())
+        {
+            if (thread.getName().equals("OpenMetadataTopicListener: " + topicName))
+            {
+                return thread;
+            }
+        }
+
+        return null;
+    }
+
+
+    @Test public void testEventsDeliveredInOrder() throws Exception
+    {
+        final int eventCount = 500;
+
+        QueuingTopicConnector connector = new QueuingTopicConnector();
+        RecordingListener     listener  = new RecordingListener(new CountDownLatch(0), eventCount);
+
+        initialize(connector, "InOrderTopic", 10, 100);
+        connector.registerListener(listener);
+        connector.start();
+
+        try
+        {
+            for (int i = 0; i < eventCount; i++)
+            {
+                connector.receiveEvent("Event " + i);
+            }
+
+            assertTrue(listener.received.await(10, TimeUnit.SECONDS));
+
+            for (int i = 0; i < eventCount; i++)
+            {
+                assertEquals(listener.events.get(i), "Event " + i);
+            }
+        }
+        finally
+        {
+            connector.disconnect();
+        }
+    }
+
+
+    @Test public void testEventsAddedBeforeStartAreDelivered() throws Exception
+    {
+        final int eventCount = 25;
+
+        QueuingTopicConnector connector = new QueuingTopicConnector();
+        RecordingListener     listener  = new RecordingListener(new CountDownLatch(0), eventCount);
+
+        initialize(connector, "BeforeStartTopic", 10, 100);
+        connector.registerListener(listener);
+
+        /*
+         * More events than the queue holds are added before the listener thread is running.
+         */
+        for (int i = 0; i < eventCount; i++)
+        {
+            connector.receiveEvent("Event " + i);
+        }
+
+        connector.start();
+
+        try
+        {
+            assertTrue(listener.received.await(10, TimeUnit.SECONDS));
+
+            for (int i = 0; i < eventCount; i++)
+            {
+                assertEquals(listener.events.get(i), "Event " + i);
+            }
+        }
+        finally
+        {
+            connector.disconnect();
+        }
+    }
+
+
+    @Test public void testConcurrentSendersRespectQueueSize() throws Exception
+    {
+        final int queueSize       = 5;
+        final int senderCount     = 4;
+        final int eventsPerSender = 20;
+
+        QueuingTopicConnector connector = new QueuingTopicConnector();
+        CountDownLatch        release   = new CountDownLatch(1);
+        RecordingListener     listener  = new RecordingListener(release, senderCount * eventsPerSender);
+        ExecutorService       senders   = Executors.newFixedThreadPool(senderCount);
+
+        initialize(connector, "QueueSizeTopic", queueSize, 100);
+        connector.registerListener(listener);
+        connector.start();
+
+        try
+        {
+            List<Future<?>> results = new ArrayList<>();
+
+            for (int sender = 0; sender < senderCount; sender++)
+            {
+                final String senderName = "Sender " + sender;
+
+                results.add(senders.submit(() ->
+                                           {
+                                               for (int i = 0; i < eventsPerSender; i++)
+                                               {
+                                                   connector.receiveEvent(senderName + " Event " + i);
+                                               }
+                                           }));
+            }
+
+            /*
+             * The listener is held up so the senders fill the queue and wait.  The queue never holds more than
+             * its configured size, even with several senders.
+             */
+            long endTime = System.currentTimeMillis() + 1000;
+
+            while (System.currentTimeMillis() < endTime)
+            {
+                assertTrue(connector.getQueuedEventCount() <= queueSize);
+                Thread.sleep(10);
+            }
+
+            for (Future<?> result : results)
+            {
+                assertFalse(result.isDone());
+            }
+
+            release.countDown();
+
+            for (Future<?> result : results)
+            {
+                result.get(10, TimeUnit.SECONDS);
+            }
+
+            assertTrue(listener.received.await(10, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            release.countDown();
+            connector.disconnect();
+            senders.shutdownNow();
+        }
+    }
+
+
+    @Test public void testDisconnectReleasesWaitingSenders() throws Exception
+    {
+        QueuingTopicConnector connector = new QueuingTopicConnector();
+        CountDownLatch        release   = new CountDownLatch(1);
+        RecordingListener     listener  = new RecordingListener(release, 1);
+        ExecutorService       sender    = Executors.newSingleThreadExecutor();
+
+        initialize(connector, "DisconnectTopic", 1, 50);
+        connector.registerListener(listener);
+        connector.start();
+
+        try
+        {
+            Future<?> result = sender.submit(() ->
+                                             {
+                                                 for (int i = 0; i < 10; i++)
+                                                 {
+                                                     connector.receiveEvent("Event " + i);
+                                                 }
+                                             });
+
+            try
+            {
+                result.get(200, TimeUnit.MILLISECONDS);
+                fail("The sender did not wait for space in the queue");
+            }
+            catch (TimeoutException expected)
+            {
+                // the sender is waiting for the blocked listener
+            }
+
+            connector.disconnect();
+
+            result.get(10, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            release.countDown();
+            sender.shutdownNow();
+        }
+    }
+
+
+    @Test public void testDisconnectDoesNotInterruptListener() throws Exception
+    {
+        QueuingTopicConnector connector = new QueuingTopicConnector();
+        CountDownLatch        release   = new CountDownLatch(1);
+        RecordingListener     listener  = new RecordingListener(release, 1);
+
+        initialize(connector, "NoInterruptTopic", 10, 50);
+        connector.registerListener(listener);
+        connector.start();
+
+        Thread listenerThread = getListenerThread("NoInterruptTopic");
+
+        assertNotNull(listenerThread);
+
+        /*
+         * The listener is part way through an event when the connector is disconnected.
+         */
+        connector.receiveEvent("Event");
+
+        long endTime = System.currentTimeMillis() + 10000;
+
+        while ((listenerThread.getState() != Thread.State.TIMED_WAITING) && (System.currentTimeMillis() < endTime))
+        {
+            Thread.sleep(10);
+        }
+
+        connector.disconnect();
+        Thread.sleep(100);
+        release.countDown();
+
+        assertTrue(listener.received.await(10, TimeUnit.SECONDS));
+        assertFalse(listener.interrupted);
+
+        listenerThread.join(10000);
+        assertFalse(listenerThread.isAlive());
+
+        /*
+         * A listener thread that is waiting for events is woken and stops.
+         */
+        QueuingTopicConnector idleConnector = new QueuingTopicConnector();
+
+        initialize(idleConnector, "IdleTopic", 10, 50);
+        idleConnector.registerListener(new RecordingListener(new CountDownLatch(0), 0));
+        idleConnector.start();
+
+        Thread idleListenerThread = getListenerThread("IdleTopic");
+
+        assertNotNull(idleListenerThread);
+
+        idleConnector.disconnect();
+        idleListenerThread.join(10000);
+        assertFalse(idleListenerThread.isAlive());
+    }
+
+
+    @Test public void testEventsFromListenerThreadAreNotHeldUpBySteadyLoad() throws Exception
+    {
+        QueuingTopicConnector connector = new QueuingTopicConnector();
+        CountDownLatch        replied   = new CountDownLatch(1);
+        ExecutorService       sender    = Executors.newSingleThreadExecutor();
+
+        initialize(connector, "SteadyLoadTopic", 5, 50);
+
+        /*
+         * The listener sends a reply to the same topic from the listener thread.
+         */
+        connector.registerListener(event ->
+                                   {
+                                       if (event.equals("Request"))
+                                       {
+                                           connector.receiveEvent("Reply");
+                                       }
+                                       else if (event.equals("Reply"))
+                                       {
+                                           replied.countDown();
+                                       }
+                                   });
+        connector.start();
+
+        try
+        {
+            connector.receiveEvent("Request");
+
+            /*
+             * The sender keeps the incoming event queue from emptying until the reply is received.
+             */
+            Future<?> result = sender.submit(() ->
+                                             {
+                                                 long endTime = System.currentTimeMillis() + 10000;
+
+                                                 while ((replied.getCount() > 0) && (System.currentTimeMillis() < endTime))
+                                                 {
+                                                     connector.receiveEvent("Load");
+                                                 }
+                                             });
+
+            assertTrue(replied.await(5, TimeUnit.SECONDS));
+
+            result.get(10, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            connector.disconnect();
+            sender.shutdownNow();
+        }
+    }
+
+
+    @Test public void testOnlyPollingConnectorsArePolled() throws Exception
+    {
+        PollingTopicConnector pollingConnector = new PollingTopicConnector();
+
+        initialize(pollingConnector, "PollingTopic", 10, 10);
+        pollingConnector.registerListener(new RecordingListener(new CountDownLatch(0), 0));
+        pollingConnector.start();
+
+        try
+        {
+            long endTime = System.currentTimeMillis() + 10000;
+
+            while ((pollingConnector.pollCount.get() < 3) && (System.currentTimeMillis() < endTime))
+            {
+                Thread.sleep(10);
+            }
+
+            assertTrue(pollingConnector.pollCount.get() >= 3);
+        }
+        finally
+        {
+            pollingConnector.disconnect();
+        }
+
+        /*
+         * A connector that queues its events waits for them without a timeout, and still delivers them.
+         */
+        QueuingTopicConnector queuingConnector = new QueuingTopicConnector();
+        RecordingListener     listener         = new RecordingListener(new CountDownLatch(0), 1);
+
+        initialize(queuingConnector, "QueuingTopic", 10, 10);
+        queuingConnector.registerListener(listener);
+        queuingConnector.start();
+
+        try
+        {
+            Thread listenerThread = getListenerThread("QueuingTopic");
+            long   endTime        = System.currentTimeMillis() + 10000;
+
+            assertNotNull(listenerThread);
+
+            while ((listenerThread.getState() != Thread.State.WAITING) && (System.currentTimeMillis() < endTime))
+            {
+                Thread.sleep(10);
+            }
+
+            assertEquals(listenerThread.getState(), Thread.State.WAITING);
+
+            queuingConnector.receiveEvent("Event");
+
+            assertTrue(listener.received.await(10, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            queuingConnector.disconnect();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/* SPDX-License-Identifier: Apache 2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.connectors.openmetadatatopic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.odpi.openmetadata.repositoryservices.events.OMRSEventCategory;
+import org.odpi.openmetadata.repositoryservices.events.beans.OMRSEventBean;
+import org.odpi.openmetadata.repositoryservices.events.beans.v1.OMRSEventV1;
+import org.testng.annotations.Test;
+
+import java.util.Date;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * OpenMetadataTopicEventMapperTest verifies that the shared readers and writers produce the same results as
+ * a new ObjectMapper and that they are reused.
+ */
+public class OpenMetadataTopicEventMapperTest
+{
+    @Test public void testEventRoundTrip() throws Exception
+    {
+        OMRSEventV1 event = new OMRSEventV1();
+
+        event.setTimestamp(new Date());
+        event.setEventCategory(OMRSEventCategory.INSTANCE);
+
+        String eventString = OpenMetadataTopicEventMapper.getEventString(event);
+
+        assertEquals(eventString, new ObjectMapper().writeValueAsString(event));
+
+        OMRSEventBean eventBean = OpenMetadataTopicEventMapper.getEventBean(eventString, OMRSEventBean.class);
+
+        assertTrue(eventBean instanceof OMRSEventV1);
+        assertEquals(((OMRSEventV1) eventBean).getTimestamp(), event.getTimestamp());
+        assertEquals(((OMRSEventV1) eventBean).getEventCategory(), event.getEventCategory());
+    }
+
+
+    @Test public void testReadersAndWritersAreReused()
+    {
+        assertSame(OpenMetadataTopicEventMapper.getEventReader(OMRSEventBean.class),
+                   OpenMetadataTopicEventMapper.getEventReader(OMRSEventBean.class));
+        assertSame(OpenMetadataTopicEventMapper.getEventWriter(OMRSEventV1.class),
+                   OpenMetadataTopicEventMapper.getEventWriter(OMRSEventV1.class));
+    }
+}
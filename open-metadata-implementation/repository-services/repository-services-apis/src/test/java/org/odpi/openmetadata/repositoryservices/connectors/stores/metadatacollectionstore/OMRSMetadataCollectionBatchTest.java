@@ -0,0 +1,269 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore;
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Classification;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityProxy;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceGraph;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceProperties;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceStatus;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceType;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Relationship;
+import org.odpi.openmetadata.repositoryservices.ffdc.OMRSErrorCode;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.EntityNotKnownException;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.FunctionNotSupportedException;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+/**
+ * OMRSMetadataCollectionBatchTest verifies the default implementation of addEntitiesAndRelationships, which adds
+ * the instances one at a time and removes them again if the batch fails.
+ */
+public class OMRSMetadataCollectionBatchTest
+{
+    private static final String USER_ID = "testUser";
+
+
+    /**
+     * Metadata collection that records the calls made by the default batch implementation.  Relationships
+     * that refer to the entity "unknown" fail.
+     */
+    private static class RecordingMetadataCollection extends OMRSMetadataCollectionBase
+    {
+        private final List<String> calls = new ArrayList<>();
+        private final boolean      supportsSoftDelete;
+        private int                nextGUID = 1;
+
+
+        RecordingMetadataCollection(boolean supportsSoftDelete)
+        {
+            super(null, "TestRepository", null, null, "TestCollection");
+
+            this.supportsSoftDelete = supportsSoftDelete;
+        }
+
+
+        @Override
+        public EntityDetail addEntity(String                userId,
+                                      String                entityTypeGUID,
+                                      InstanceProperties    initialProperties,
+                                      List<Classification>  initialClassifications,
+                                      InstanceStatus        initialStatus)
+        {
+            EntityDetail entity = new EntityDetail();
+
+            entity.setGUID("new-" + nextGUID++);
+            entity.setType(getType(entityTypeGUID));
+            calls.add("addEntity " + entity.getGUID());
+
+            return entity;
+        }
+
+
+        @Override
+        public Relationship addRelationship(String              userId,
+                                            String              relationshipTypeGUID,
+                                            InstanceProperties  initialProperties,
+                                            String              entityOneGUID,
+                                            String              entityTwoGUID,
+                                            InstanceStatus      initialStatus) throws EntityNotKnownException
+        {
+            if ("unknown".equals(entityOneGUID) || "unknown".equals(entityTwoGUID))
+            {
+                throw new EntityNotKnownException(OMRSErrorCode.ENTITY_NOT_KNOWN.getMessageDefinition("unknown",
+                                                                                                      "addRelationship",
+                                                                                                      repositoryName),
+                                                  this.getClass().getName(),
+                                                  "addRelationship");
+            }
+
+            Relationship relationship = new Relationship();
+
+            relationship.setGUID("new-" + nextGUID++);
+            relationship.setType(getType(relationshipTypeGUID));
+            calls.add("addRelationship " + relationship.getGUID() + " " + entityOneGUID + " " + entityTwoGUID);
+
+            return relationship;
+        }
+
+
+        @Override
+        public EntityDetail deleteEntity(String userId,
+                                         String typeDefGUID,
+                                         String typeDefName,
+                                         String obsoleteEntityGUID) throws FunctionNotSupportedException
+        {
+            this.checkSoftDelete();
+            calls.add("deleteEntity " + obsoleteEntityGUID);
+
+            return null;
+        }
+
+
+        @Override
+        public void purgeEntity(String userId,
+                                String typeDefGUID,
+                                String typeDefName,
+                                String deletedEntityGUID)
+        {
+            calls.add("purgeEntity " + deletedEntityGUID);
+        }
+
+
+        @Override
+        public Relationship deleteRelationship(String userId,
+                                               String typeDefGUID,
+                                               String typeDefName,
+                                               String obsoleteRelationshipGUID) throws FunctionNotSupportedException
+        {
+            this.checkSoftDelete();
+            calls.add("deleteRelationship " + obsoleteRelationshipGUID);
+
+            return null;
+        }
+
+
+        @Override
+        public void purgeRelationship(String userId,
+                                      String typeDefGUID,
+                                      String typeDefName,
+                                      String deletedRelationshipGUID)
+        {
+            calls.add("purgeRelationship " + deletedRelationshipGUID);
+        }
+
+
+        private void checkSoftDelete() throws FunctionNotSupportedException
+        {
+            if (! supportsSoftDelete)
+            {
+                throw new FunctionNotSupportedException(OMRSErrorCode.METHOD_NOT_IMPLEMENTED.getMessageDefinition("delete",
+                                                                                                                  this.getClass().getName(),
+                                                                                                                  repositoryName),
+                                                        this.getClass().getName(),
+                                                        "delete");
+            }
+        }
+
+
+        private InstanceType getType(String typeGUID)
+        {
+            InstanceType type = new InstanceType();
+
+            type.setTypeDefGUID(typeGUID);
+            type.setTypeDefName(typeGUID + "-name");
+
+            return type;
+        }
+    }
+
+
+    private EntityDetail getEntity(String batchGUID)
+    {
+        InstanceType type = new InstanceType();
+        type.setTypeDefGUID("EntityType");
+
+        EntityDetail entity = new EntityDetail();
+        entity.setGUID(batchGUID);
+        entity.setType(type);
+
+        return entity;
+    }
+
+
+    private Relationship getRelationship(String entityOneGUID, String entityTwoGUID)
+    {
+        InstanceType type = new InstanceType();
+        type.setTypeDefGUID("RelationshipType");
+
+        EntityProxy entityOne = new EntityProxy();
+        entityOne.setGUID(entityOneGUID);
+
+        EntityProxy entityTwo = new EntityProxy();
+        entityTwo.setGUID(entityTwoGUID);
+
+        Relationship relationship = new Relationship();
+        relationship.setType(type);
+        relationship.setEntityOneProxy(entityOne);
+        relationship.setEntityTwoProxy(entityTwo);
+
+        return relationship;
+    }
+
+
+    @Test public void testRelationshipsUseNewEntityGUIDs() throws Exception
+    {
+        RecordingMetadataCollection metadataCollection = new RecordingMetadataCollection(true);
+
+        InstanceGraph newInstances = new InstanceGraph(Arrays.asList(getEntity("batch-1"), getEntity("batch-2")),
+                                                       Collections.singletonList(getRelationship("batch-1", "existing")));
+
+        InstanceGraph result = metadataCollection.addEntitiesAndRelationships(USER_ID, newInstances);
+
+        assertEquals(result.getEntities().size(), 2);
+        assertEquals(result.getRelationships().size(), 1);
+        assertEquals(metadataCollection.calls, Arrays.asList("addEntity new-1",
+                                                             "addEntity new-2",
+                                                             "addRelationship new-3 new-1 existing"));
+    }
+
+
+    @Test public void testFailedBatchIsRemoved() throws Exception
+    {
+        RecordingMetadataCollection metadataCollection = new RecordingMetadataCollection(true);
+
+        InstanceGraph newInstances = new InstanceGraph(Arrays.asList(getEntity("batch-1"), getEntity("batch-2")),
+                                                       Arrays.asList(getRelationship("batch-1", "batch-2"),
+                                                                     getRelationship("batch-2", "unknown")));
+
+        try
+        {
+            metadataCollection.addEntitiesAndRelationships(USER_ID, newInstances);
+            fail("The batch did not fail");
+        }
+        catch (EntityNotKnownException expected)
+        {
+            // the error from the failing instance is returned to the caller
+        }
+
+        assertEquals(metadataCollection.calls, Arrays.asList("addEntity new-1",
+                                                             "addEntity new-2",
+                                                             "addRelationship new-3 new-1 new-2",
+                                                             "deleteRelationship new-3",
+                                                             "purgeRelationship new-3",
+                                                             "deleteEntity new-2",
+                                                             "purgeEntity new-2",
+                                                             "deleteEntity new-1",
+                                                             "purgeEntity new-1"));
+    }
+
+
+    @Test public void testFailedBatchIsPurgedWithoutSoftDelete() throws Exception
+    {
+        RecordingMetadataCollection metadataCollection = new RecordingMetadataCollection(false);
+
+        InstanceGraph newInstances = new InstanceGraph(Collections.singletonList(getEntity("batch-1")),
+                                                       Collections.singletonList(getRelationship("batch-1", "unknown")));
+
+        try
+        {
+            metadataCollection.addEntitiesAndRelationships(USER_ID, newInstances);
+            fail("The batch did not fail");
+        }
+        catch (EntityNotKnownException expected)
+        {
+            // the error from the failing instance is returned to the caller
+        }
+
+        assertEquals(metadataCollection.calls, Arrays.asList("addEntity new-1",
+                                                             "purgeEntity new-1"));
+    }
+}
@@ -0,0 +1,174 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+
+package org.odpi.openmetadata.repositoryservices.rest.properties;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Validate that the GUIDListRequest bean can be cloned, compared, serialized, deserialized and printed as a String.
+ */
+public class GUIDListRequestTest
+{
+    private List<String>  guids = Arrays.asList("TestGUID1", "TestGUID2");
+
+
+    /**
+     * Default constructor
+     */
+    public GUIDListRequestTest()
+    {
+
+    }
+
+
+    /**
+     * Set up an example object to test.
+     *
+     * @return filled in object
+     */
+    private GUIDListRequest getTestObject()
+    {
+        GUIDListRequest testObject = new GUIDListRequest();
+
+        testObject.setGUIDs(guids);
+
+        return testObject;
+    }
+
+
+    /**
+     * Validate that the object that comes out of the test has the same content as the original test object.
+     *
+     * @param resultObject object returned by the test
+     */
+    private void validateResultObject(GUIDListRequest  resultObject)
+    {
+        assertTrue(guids.equals(resultObject.getGUIDs()));
+    }
+
+
+    /**
+     * Validate that the object is initialized properly
+     */
+    @Test public void testNullObject()
+    {
+        GUIDListRequest    nullObject = new GUIDListRequest();
+
+        assertTrue(nullObject.getGUIDs() == null);
+
+        nullObject = new GUIDListRequest(null);
+
+        assertTrue(nullObject.getGUIDs() == null);
+
+        nullObject.setGUIDs(new ArrayList<>());
+
+        assertTrue(nullObject.getGUIDs() == null);
+    }
+
+
+    /**
+     * Validate that 2 different objects with the same content are evaluated as equal.
+     * Also that different objects are considered not equal.
+     */
+    @Test public void testEquals()
+    {
+        assertFalse(getTestObject().equals(null));
+        assertFalse(getTestObject().equals("DummyString"));
+        assertTrue(getTestObject().equals(getTestObject()));
+
+        GUIDListRequest  differentObject = getTestObject();
+        differentObject.setGUIDs(Arrays.asList("TestGUID3"));
+        assertFalse(getTestObject().equals(differentObject));
+    }
+
+
+    /**
+     *  Validate that 2 different objects with the same content have the same hash code.
+     */
+    @Test public void testHashCode()
+    {
+        assertTrue(getTestObject().hashCode() == getTestObject().hashCode());
+    }
+
+
+    /**
+     *  Validate that an object cloned from another object has the same content as the original
+     */
+    @Test public void testClone()
+    {
+        validateResultObject(new GUIDListRequest(getTestObject()));
+    }
+
+
+    /**
+     * Validate that an object generated from a JSON String has the same content as the object used to
+     * create the JSON String.
+     */
+    @Test public void testJSON()
+    {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String       jsonString   = null;
+
+        /*
+         * This class
+         */
+        try
+        {
+            jsonString = objectMapper.writeValueAsString(getTestObject());
+        }
+        catch (Throwable  exc)
+        {
+            assertTrue(false, "Exception: " + exc.getMessage());
+        }
+
+        try
+        {
+            validateResultObject(objectMapper.readValue(jsonString, GUIDListRequest.class));
+        }
+        catch (Throwable  exc)
+        {
+            assertTrue(false, "Exception: " + exc.getMessage());
+        }
+
+        /*
+         * Through superclass
+         */
+        OMRSAPIRequest superObject = getTestObject();
+
+        try
+        {
+            jsonString = objectMapper.writeValueAsString(superObject);
+        }
+        catch (Throwable  exc)
+        {
+            assertTrue(false, "Exception: " + exc.getMessage());
+        }
+
+        try
+        {
+            validateResultObject((GUIDListRequest) objectMapper.readValue(jsonString, OMRSAPIRequest.class));
+        }
+        catch (Throwable  exc)
+        {
+            assertTrue(false, "Exception: " + exc.getMessage());
+        }
+    }
+
+
+    /**
+     * Test that toString is overridden.
+     */
+    @Test public void testToString()
+    {
+        assertTrue(getTestObject().toString().contains("GUIDListRequest"));
+    }
+}
@@ -0,0 +1,193 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+
+package org.odpi.openmetadata.repositoryservices.rest.properties;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceStatus;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Validate that the InstanceCountRequest bean can be cloned, compared, serialized, deserialized and printed as a String.
+ */
+public class InstanceCountRequestTest
+{
+    private String                typeGUID      = "TestTypeGUID";
+    private List<String>          subtypeGUIDs  = Arrays.asList("TestSubtypeGUID1", "TestSubtypeGUID2");
+    private List<InstanceStatus>  statuses      = Collections.singletonList(InstanceStatus.ACTIVE);
+    private List<String>          excludedIds   = Collections.singletonList("TestMetadataCollectionId");
+
+
+    /**
+     * Default constructor
+     */
+    public InstanceCountRequestTest()
+    {
+
+    }
+
+
+    /**
+     * Set up an example object to test.
+     *
+     * @return filled in object
+     */
+    private InstanceCountRequest getTestObject()
+    {
+        InstanceCountRequest testObject = new InstanceCountRequest();
+
+        testObject.setTypeGUID(typeGUID);
+        testObject.setSubtypeGUIDs(subtypeGUIDs);
+        testObject.setLimitResultsByStatus(statuses);
+        testObject.setExcludedHomeMetadataCollectionIds(excludedIds);
+
+        return testObject;
+    }
+
+
+    /**
+     * Validate that the object that comes out of the test has the same content as the original test object.
+     *
+     * @param resultObject object returned by the test
+     */
+    private void validateResultObject(InstanceCountRequest  resultObject)
+    {
+        assertTrue(typeGUID.equals(resultObject.getTypeGUID()));
+        assertTrue(subtypeGUIDs.equals(resultObject.getSubtypeGUIDs()));
+        assertTrue(statuses.equals(resultObject.getLimitResultsByStatus()));
+        assertTrue(excludedIds.equals(resultObject.getExcludedHomeMetadataCollectionIds()));
+    }
+
+
+    /**
+     * Validate that the object is initialized properly
+     */
+    @Test public void testNullObject()
+    {
+        InstanceCountRequest    nullObject = new InstanceCountRequest();
+
+        assertTrue(nullObject.getTypeGUID() == null);
+        assertTrue(nullObject.getSubtypeGUIDs() == null);
+        assertTrue(nullObject.getMatchProperties() == null);
+        assertTrue(nullObject.getMatchClassifications() == null);
+        assertTrue(nullObject.getLimitResultsByStatus() == null);
+        assertTrue(nullObject.getExcludedHomeMetadataCollectionIds() == null);
+
+        nullObject = new InstanceCountRequest(null);
+
+        assertTrue(nullObject.getTypeGUID() == null);
+        assertTrue(nullObject.getExcludedHomeMetadataCollectionIds() == null);
+
+        nullObject.setSubtypeGUIDs(new ArrayList<>());
+        nullObject.setLimitResultsByStatus(new ArrayList<>());
+
+        assertTrue(nullObject.getSubtypeGUIDs() == null);
+        assertTrue(nullObject.getLimitResultsByStatus() == null);
+    }
+
+
+    /**
+     * Validate that 2 different objects with the same content are evaluated as equal.
+     * Also that different objects are considered not equal.
+     */
+    @Test public void testEquals()
+    {
+        assertFalse(getTestObject().equals(null));
+        assertFalse(getTestObject().equals("DummyString"));
+        assertTrue(getTestObject().equals(getTestObject()));
+
+        InstanceCountRequest  differentObject = getTestObject();
+        differentObject.setExcludedHomeMetadataCollectionIds(null);
+        assertFalse(getTestObject().equals(differentObject));
+    }
+
+
+    /**
+     *  Validate that 2 different objects with the same content have the same hash code.
+     */
+    @Test public void testHashCode()
+    {
+        assertTrue(getTestObject().hashCode() == getTestObject().hashCode());
+    }
+
+
+    /**
+     *  Validate that an object cloned from another object has the same content as the original
+     */
+    @Test public void testClone()
+    {
+        validateResultObject(new InstanceCountRequest(getTestObject()));
+    }
+
+
+    /**
+     * Validate that an object generated from a JSON String has the same content as the object used to
+     * create the JSON String.
+     */
+    @Test public void testJSON()
+    {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String       jsonString   = null;
+
+        /*
+         * This class
+         */
+        try
+        {
+            jsonString = objectMapper.writeValueAsString(getTestObject());
+        }
+        catch (Throwable  exc)
+        {
+            assertTrue(false, "Exception: " + exc.getMessage());
+        }
+
+        try
+        {
+            validateResultObject(objectMapper.readValue(jsonString, InstanceCountRequest.class));
+        }
+        catch (Throwable  exc)
+        {
+            assertTrue(false, "Exception: " + exc.getMessage());
+        }
+
+        /*
+         * Through superclass
+         */
+        OMRSAPIRequest superObject = getTestObject();
+
+        try
+        {
+            jsonString = objectMapper.writeValueAsString(superObject);
+        }
+        catch (Throwable  exc)
+        {
+            assertTrue(false, "Exception: " + exc.getMessage());
+        }
+
+        try
+        {
+            validateResultObject((InstanceCountRequest) objectMapper.readValue(jsonString, OMRSAPIRequest.class));
+        }
+        catch (Throwable  exc)
+        {
+            assertTrue(false, "Exception: " + exc.getMessage());
+        }
+    }
+
+
+    /**
+     * Test that toString is overridden.
+     */
+    @Test public void testToString()
+    {
+        assertTrue(getTestObject().toString().contains("InstanceCountRequest"));
+    }
+}
@@ -4,6 +4,7 @@ package org.odpi.openmetadata.repositoryservices.clients;
 
 import org.odpi.openmetadata.adapters.connectors.restclients.RESTClientConnector;
 import org.odpi.openmetadata.adapters.connectors.restclients.RESTClientFactory;
+import org.odpi.openmetadata.adapters.connectors.restclients.ffdc.exceptions.RESTServerException;
 import org.odpi.openmetadata.commonservices.ffdc.InvalidParameterHandler;
 import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
 import org.odpi.openmetadata.frameworks.auditlog.AuditLoggingComponent;
@@ -1227,6 +1228,89 @@ public abstract class MetadataCollectionServicesClient implements AuditLoggingCo
     }
 
 
+    /**
+     * Returns the entities from the requested list that are stored in the metadata collection.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids  list of unique identifiers for the entities.
+     * @return list of the entities that are found in the metadata collection, in the order requested.  Entities
+     * that are not found are left out of the list.  Null means none of the entities are found.
+     * @throws InvalidParameterException  one of the guids is null.
+     * @throws RepositoryErrorException   there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws FunctionNotSupportedException the server does not have this API because it is running an older release.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<EntityDetail> areEntitiesKnown(String       userId,
+                                               List<String> guids) throws InvalidParameterException,
+                                                                          RepositoryErrorException,
+                                                                          FunctionNotSupportedException,
+                                                                          UserNotAuthorizedException
+    {
+        final String methodName  = "areEntitiesKnown";
+        final String operationSpecificURL = "instances/entities/existence";
+
+        GUIDListRequest requestBody = new GUIDListRequest();
+        requestBody.setGUIDs(guids);
+
+        EntityListResponse restResult = this.callPostRESTCallIfSupported(methodName,
+                                                                         EntityListResponse.class,
+                                                                         restURLRoot + rootServiceNameInURL + userIdInURL + serviceURLMarker + operationSpecificURL,
+                                                                         requestBody,
+                                                                         userId);
+
+        this.detectAndThrowInvalidParameterException(methodName, restResult);
+        this.detectAndThrowUserNotAuthorizedException(methodName, restResult);
+        this.detectAndThrowRepositoryErrorException(methodName, restResult);
+
+        return restResult.getEntities();
+    }
+
+
+    /**
+     * Return the header, classifications and properties of each of the requested entities.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids  list of unique identifiers for the entities.
+     * @return list of EntityDetail structures in the order requested.
+     * @throws InvalidParameterException  one of the guids is null.
+     * @throws RepositoryErrorException   there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws EntityNotKnownException    one of the requested entity instances is not known in the metadata collection.
+     * @throws EntityProxyOnlyException   one of the requested entity instances is only a proxy in the metadata collection.
+     * @throws FunctionNotSupportedException the server does not have this API because it is running an older release.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<EntityDetail> getEntityDetails(String       userId,
+                                               List<String> guids) throws InvalidParameterException,
+                                                                          RepositoryErrorException,
+                                                                          EntityNotKnownException,
+                                                                          EntityProxyOnlyException,
+                                                                          FunctionNotSupportedException,
+                                                                          UserNotAuthorizedException
+    {
+        final String methodName  = "getEntityDetails";
+        final String operationSpecificURL = "instances/entities/by-guid";
+
+        GUIDListRequest requestBody = new GUIDListRequest();
+        requestBody.setGUIDs(guids);
+
+        EntityListResponse restResult = this.callPostRESTCallIfSupported(methodName,
+                                                                         EntityListResponse.class,
+                                                                         restURLRoot + rootServiceNameInURL + userIdInURL + serviceURLMarker + operationSpecificURL,
+                                                                         requestBody,
+                                                                         userId);
+
+        this.detectAndThrowInvalidParameterException(methodName, restResult);
+        this.detectAndThrowEntityNotKnownException(methodName, restResult);
+        this.detectAndThrowEntityProxyOnlyException(methodName, restResult);
+        this.detectAndThrowUserNotAuthorizedException(methodName, restResult);
+        this.detectAndThrowRepositoryErrorException(methodName, restResult);
+
+        return restResult.getEntities();
+    }
+
+
     /**
      * Return the relationships for a specific entity.
      *
@@ -1329,6 +1413,127 @@ public abstract class MetadataCollectionServicesClient implements AuditLoggingCo
     }
 
 
+    /**
+     * Return a page of the relationships for a specific entity.  The page is located with the cursor returned
+     * with the previous page.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityGUID String unique identifier for the entity.
+     * @param relationshipTypeGUID String GUID of the the type of relationship required (null for all).
+     * @param cursor the cursor returned with the previous page.  Null means start from the first element.
+     * @param limitResultsByStatus By default, relationships in all statuses are returned.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the results to.  Null means all
+     *                             status values.
+     * @param pageSize the maximum number of result relationships that can be returned on this request.  Zero means
+     *                 unrestricted return results size.
+     * @return page of relationships with the cursor for the next page.  A null cursor means there are no more results.
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws EntityNotKnownException the requested entity instance is not known in the metadata collection.
+     * @throws PagingErrorException the cursor or page size is not valid.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public InstancePage<Relationship> getRelationshipsForEntityWithCursor(String               userId,
+                                                                          String               entityGUID,
+                                                                          String               relationshipTypeGUID,
+                                                                          String               cursor,
+                                                                          List<InstanceStatus> limitResultsByStatus,
+                                                                          int                  pageSize) throws InvalidParameterException,
+                                                                                                                TypeErrorException,
+                                                                                                                RepositoryErrorException,
+                                                                                                                EntityNotKnownException,
+                                                                                                                PagingErrorException,
+                                                                                                                FunctionNotSupportedException,
+                                                                                                                UserNotAuthorizedException
+    {
+        final String           methodName                     = "getRelationshipsForEntityWithCursor";
+        final String           operationSpecificURL           = "instances/entity/{1}/relationships/cursor";
+        TypeLimitedFindRequest findRequestParameters          = new TypeLimitedFindRequest();
+
+        findRequestParameters.setTypeGUID(relationshipTypeGUID);
+        findRequestParameters.setCursor(cursor);
+        findRequestParameters.setLimitResultsByStatus(limitResultsByStatus);
+        findRequestParameters.setPageSize(pageSize);
+
+        RelationshipListResponse restResult = this.callPostRESTCallIfSupported(methodName,
+                                                                               RelationshipListResponse.class,
+                                                                               restURLRoot + rootServiceNameInURL + userIdInURL + serviceURLMarker + operationSpecificURL,
+                                                                               findRequestParameters,
+                                                                               userId,
+                                                                               entityGUID);
+
+        this.detectAndThrowInvalidParameterException(methodName, restResult);
+        this.detectAndThrowEntityNotKnownException(methodName, restResult);
+        this.detectAndThrowFunctionNotSupportedException(methodName, restResult);
+        this.detectAndThrowTypeErrorException(methodName, restResult);
+        this.detectAndThrowPagingErrorException(methodName, restResult);
+        this.detectAndThrowUserNotAuthorizedException(methodName, restResult);
+        this.detectAndThrowRepositoryErrorException(methodName, restResult);
+
+        return new InstancePage<>(restResult.getRelationships(), restResult.getNextCursor());
+    }
+
+
+    /**
+     * Return the number of relationships for a specific entity without retrieving them.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityGUID String unique identifier for the entity.
+     * @param relationshipTypeGUID String GUID of the the type of relationship required (null for all).
+     * @param limitResultsByStatus By default, relationships in all statuses are counted.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the count to.  Null means all
+     *                             status values.
+     * @param excludedHomeMetadataCollectionIds metadata collection ids of the repositories whose reference copies
+     *                                          are not counted.  Null means count the reference copies too.
+     * @return count of the relationships.
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws EntityNotKnownException the requested entity instance is not known in the metadata collection.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public int countRelationshipsForEntity(String               userId,
+                                           String               entityGUID,
+                                           String               relationshipTypeGUID,
+                                           List<InstanceStatus> limitResultsByStatus,
+                                           List<String>         excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                          TypeErrorException,
+                                                                                                          RepositoryErrorException,
+                                                                                                          EntityNotKnownException,
+                                                                                                          FunctionNotSupportedException,
+                                                                                                          UserNotAuthorizedException
+    {
+        final String         methodName                     = "countRelationshipsForEntity";
+        final String         operationSpecificURL           = "instances/entity/{1}/relationships/count";
+        InstanceCountRequest countRequestParameters         = new InstanceCountRequest();
+
+        countRequestParameters.setTypeGUID(relationshipTypeGUID);
+        countRequestParameters.setLimitResultsByStatus(limitResultsByStatus);
+        countRequestParameters.setExcludedHomeMetadataCollectionIds(excludedHomeMetadataCollectionIds);
+
+        CountResponse restResult = this.callPostRESTCallIfSupported(methodName,
+                                                                    CountResponse.class,
+                                                                    restURLRoot + rootServiceNameInURL + userIdInURL + serviceURLMarker + operationSpecificURL,
+                                                                    countRequestParameters,
+                                                                    userId,
+                                                                    entityGUID);
+
+        this.detectAndThrowInvalidParameterException(methodName, restResult);
+        this.detectAndThrowEntityNotKnownException(methodName, restResult);
+        this.detectAndThrowFunctionNotSupportedException(methodName, restResult);
+        this.detectAndThrowTypeErrorException(methodName, restResult);
+        this.detectAndThrowUserNotAuthorizedException(methodName, restResult);
+        this.detectAndThrowRepositoryErrorException(methodName, restResult);
+
+        return restResult.getCount();
+    }
+
+
     /**
      * Return a list of entities that match the supplied criteria.  The results can be returned over many pages.
      *
@@ -1550,6 +1755,145 @@ public abstract class MetadataCollectionServicesClient implements AuditLoggingCo
     }
 
 
+    /**
+     * Return a page of the entities that match the supplied properties according to the match criteria.  The page
+     * is located with the cursor returned with the previous page.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityTypeGUID String unique identifier for the entity type of interest (null means any entity type).
+     * @param matchProperties Optional list of entity properties to match (where any String property's value should
+     *                        be defined as a Java regular expression, even if it should be an exact match).
+     * @param matchCriteria Enum defining how the match properties should be matched to the entities in the repository.
+     * @param cursor the cursor returned with the previous page.  Null means start from the first element.
+     * @param limitResultsByStatus By default, entities in all statuses are returned.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the results to.  Null means all
+     *                             status values.
+     * @param limitResultsByClassification List of classifications that must be present on all returned entities.
+     * @param pageSize the maximum number of result entities that can be returned on this request.  Zero means
+     *                 unrestricted return results size.
+     * @return page of entities with the cursor for the next page.  A null cursor means there are no more results.
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  entity.
+     * @throws PagingErrorException the cursor or page size is not valid.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public InstancePage<EntityDetail> findEntitiesByPropertyWithCursor(String                    userId,
+                                                                       String                    entityTypeGUID,
+                                                                       InstanceProperties        matchProperties,
+                                                                       MatchCriteria             matchCriteria,
+                                                                       String                    cursor,
+                                                                       List<InstanceStatus>      limitResultsByStatus,
+                                                                       List<String>              limitResultsByClassification,
+                                                                       int                       pageSize) throws InvalidParameterException,
+                                                                                                                  RepositoryErrorException,
+                                                                                                                  TypeErrorException,
+                                                                                                                  PropertyErrorException,
+                                                                                                                  PagingErrorException,
+                                                                                                                  FunctionNotSupportedException,
+                                                                                                                  UserNotAuthorizedException
+    {
+        final String              methodName                     = "findEntitiesByPropertyWithCursor";
+        final String              operationSpecificURL           = "instances/entities/by-property/cursor";
+        EntityPropertyFindRequest findRequestParameters          = new EntityPropertyFindRequest();
+
+        findRequestParameters.setTypeGUID(entityTypeGUID);
+        findRequestParameters.setMatchProperties(matchProperties);
+        findRequestParameters.setMatchCriteria(matchCriteria);
+        findRequestParameters.setCursor(cursor);
+        findRequestParameters.setLimitResultsByStatus(limitResultsByStatus);
+        findRequestParameters.setLimitResultsByClassification(limitResultsByClassification);
+        findRequestParameters.setPageSize(pageSize);
+
+        EntityListResponse restResult = this.callPostRESTCallIfSupported(methodName,
+                                                                         EntityListResponse.class,
+                                                                         restURLRoot + rootServiceNameInURL + userIdInURL + serviceURLMarker + operationSpecificURL,
+                                                                         findRequestParameters,
+                                                                         userId);
+
+        this.detectAndThrowFunctionNotSupportedException(methodName, restResult);
+        this.detectAndThrowInvalidParameterException(methodName, restResult);
+        this.detectAndThrowTypeErrorException(methodName, restResult);
+        this.detectAndThrowPropertyErrorException(methodName, restResult);
+        this.detectAndThrowPagingErrorException(methodName, restResult);
+        this.detectAndThrowUserNotAuthorizedException(methodName, restResult);
+        this.detectAndThrowRepositoryErrorException(methodName, restResult);
+
+        return new InstancePage<>(restResult.getEntities(), restResult.getNextCursor());
+    }
+
+
+    /**
+     * Return the number of entities that match the supplied criteria without retrieving them.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityTypeGUID String unique identifier for the entity type of interest (null means any entity type).
+     * @param entitySubtypeGUIDs optional list of the unique identifiers (guids) for subtypes of the entityTypeGUID to
+     *                           include in the count. Null means all subtypes.
+     * @param matchProperties Optional list of entity property conditions to match.
+     * @param limitResultsByStatus By default, entities in all statuses are counted.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the count to.  Null means all
+     *                             status values.
+     * @param matchClassifications Optional list of entity classifications to match.
+     * @param excludedHomeMetadataCollectionIds metadata collection ids of the repositories whose reference copies
+     *                                          are not counted.  Null means count the reference copies too.
+     * @return count of the entities matching the supplied criteria.
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  entity.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public int countEntities(String                    userId,
+                             String                    entityTypeGUID,
+                             List<String>              entitySubtypeGUIDs,
+                             SearchProperties          matchProperties,
+                             List<InstanceStatus>      limitResultsByStatus,
+                             SearchClassifications     matchClassifications,
+                             List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                 RepositoryErrorException,
+                                                                                                 TypeErrorException,
+                                                                                                 PropertyErrorException,
+                                                                                                 FunctionNotSupportedException,
+                                                                                                 UserNotAuthorizedException
+    {
+        final String         methodName                     = "countEntities";
+        final String         operationSpecificURL           = "instances/entities/count";
+        InstanceCountRequest countRequestParameters         = new InstanceCountRequest();
+
+        countRequestParameters.setTypeGUID(entityTypeGUID);
+        countRequestParameters.setSubtypeGUIDs(entitySubtypeGUIDs);
+        countRequestParameters.setMatchProperties(matchProperties);
+        countRequestParameters.setLimitResultsByStatus(limitResultsByStatus);
+        countRequestParameters.setMatchClassifications(matchClassifications);
+        countRequestParameters.setExcludedHomeMetadataCollectionIds(excludedHomeMetadataCollectionIds);
+
+        CountResponse restResult = this.callPostRESTCallIfSupported(methodName,
+                                                                    CountResponse.class,
+                                                                    restURLRoot + rootServiceNameInURL + userIdInURL + serviceURLMarker + operationSpecificURL,
+                                                                    countRequestParameters,
+                                                                    userId);
+
+        this.detectAndThrowInvalidParameterException(methodName, restResult);
+        this.detectAndThrowFunctionNotSupportedException(methodName, restResult);
+        this.detectAndThrowTypeErrorException(methodName, restResult);
+        this.detectAndThrowPropertyErrorException(methodName, restResult);
+        this.detectAndThrowUserNotAuthorizedException(methodName, restResult);
+        this.detectAndThrowRepositoryErrorException(methodName, restResult);
+
+        return restResult.getCount();
+    }
+
+
     /**
      * Return a list of entities that have the requested type of classifications attached.
      *
@@ -1885,6 +2229,87 @@ public abstract class MetadataCollectionServicesClient implements AuditLoggingCo
     }
 
 
+    /**
+     * Returns the relationships from the requested list that are stored in the metadata collection.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the relationships.
+     * @return list of the relationships that are found in the metadata collection, in the order requested.
+     * Relationships that are not found are left out of the list.  Null means none of the relationships are found.
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws FunctionNotSupportedException the server does not have this API because it is running an older release.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<Relationship> areRelationshipsKnown(String       userId,
+                                                    List<String> guids) throws InvalidParameterException,
+                                                                               RepositoryErrorException,
+                                                                               FunctionNotSupportedException,
+                                                                               UserNotAuthorizedException
+    {
+        final String methodName  = "areRelationshipsKnown";
+        final String operationSpecificURL = "instances/relationships/existence";
+
+        GUIDListRequest requestBody = new GUIDListRequest();
+        requestBody.setGUIDs(guids);
+
+        RelationshipListResponse restResult = this.callPostRESTCallIfSupported(methodName,
+                                                                               RelationshipListResponse.class,
+                                                                               restURLRoot + rootServiceNameInURL + userIdInURL + serviceURLMarker + operationSpecificURL,
+                                                                               requestBody,
+                                                                               userId);
+
+        this.detectAndThrowInvalidParameterException(methodName, restResult);
+        this.detectAndThrowUserNotAuthorizedException(methodName, restResult);
+        this.detectAndThrowRepositoryErrorException(methodName, restResult);
+
+        return restResult.getRelationships();
+    }
+
+
+    /**
+     * Return the current version of each of the requested relationships.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the relationships.
+     * @return list of relationship structures in the order requested.
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws RelationshipNotKnownException the metadata collection does not have a relationship with
+     *                                         one of the requested GUIDs stored.
+     * @throws FunctionNotSupportedException the server does not have this API because it is running an older release.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public List<Relationship> getRelationships(String       userId,
+                                               List<String> guids) throws InvalidParameterException,
+                                                                          RepositoryErrorException,
+                                                                          RelationshipNotKnownException,
+                                                                          FunctionNotSupportedException,
+                                                                          UserNotAuthorizedException
+    {
+        final String methodName  = "getRelationships";
+        final String operationSpecificURL = "instances/relationships/by-guid";
+
+        GUIDListRequest requestBody = new GUIDListRequest();
+        requestBody.setGUIDs(guids);
+
+        RelationshipListResponse restResult = this.callPostRESTCallIfSupported(methodName,
+                                                                               RelationshipListResponse.class,
+                                                                               restURLRoot + rootServiceNameInURL + userIdInURL + serviceURLMarker + operationSpecificURL,
+                                                                               requestBody,
+                                                                               userId);
+
+        this.detectAndThrowInvalidParameterException(methodName, restResult);
+        this.detectAndThrowRelationshipNotKnownException(methodName, restResult);
+        this.detectAndThrowUserNotAuthorizedException(methodName, restResult);
+        this.detectAndThrowRepositoryErrorException(methodName, restResult);
+
+        return restResult.getRelationships();
+    }
+
+
     /**
      * Return a list of relationships that match the requested conditions.  The results can be received as a series of
      * pages.
@@ -2103,6 +2528,70 @@ public abstract class MetadataCollectionServicesClient implements AuditLoggingCo
     }
 
 
+    /**
+     * Return the number of relationships that match the supplied criteria without retrieving them.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param relationshipTypeGUID unique identifier (guid) for the relationship's type.  Null means all types
+     *                             (but may be slow so not recommended).
+     * @param relationshipSubtypeGUIDs optional list of the unique identifiers (guids) for subtypes of the
+     *                                 relationshipTypeGUID to include in the count. Null means all subtypes.
+     * @param matchProperties Optional list of relationship property conditions to match.
+     * @param limitResultsByStatus By default, relationships in all statuses are counted.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the count to.  Null means all
+     *                             status values.
+     * @param excludedHomeMetadataCollectionIds metadata collection ids of the repositories whose reference copies
+     *                                          are not counted.  Null means count the reference copies too.
+     * @return count of the matching relationships.
+     * @throws InvalidParameterException one of the parameters is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  relationships.
+     * @throws FunctionNotSupportedException the repository does not support this optional method.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public int countRelationships(String                    userId,
+                                  String                    relationshipTypeGUID,
+                                  List<String>              relationshipSubtypeGUIDs,
+                                  SearchProperties          matchProperties,
+                                  List<InstanceStatus>      limitResultsByStatus,
+                                  List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                      TypeErrorException,
+                                                                                                      RepositoryErrorException,
+                                                                                                      PropertyErrorException,
+                                                                                                      FunctionNotSupportedException,
+                                                                                                      UserNotAuthorizedException
+    {
+        final String         methodName                     = "countRelationships";
+        final String         operationSpecificURL           = "instances/relationships/count";
+        InstanceCountRequest countRequestParameters         = new InstanceCountRequest();
+
+        countRequestParameters.setTypeGUID(relationshipTypeGUID);
+        countRequestParameters.setSubtypeGUIDs(relationshipSubtypeGUIDs);
+        countRequestParameters.setMatchProperties(matchProperties);
+        countRequestParameters.setLimitResultsByStatus(limitResultsByStatus);
+        countRequestParameters.setExcludedHomeMetadataCollectionIds(excludedHomeMetadataCollectionIds);
+
+        CountResponse restResult = this.callPostRESTCallIfSupported(methodName,
+                                                                    CountResponse.class,
+                                                                    restURLRoot + rootServiceNameInURL + userIdInURL + serviceURLMarker + operationSpecificURL,
+                                                                    countRequestParameters,
+                                                                    userId);
+
+        this.detectAndThrowInvalidParameterException(methodName, restResult);
+        this.detectAndThrowFunctionNotSupportedException(methodName, restResult);
+        this.detectAndThrowTypeErrorException(methodName, restResult);
+        this.detectAndThrowPropertyErrorException(methodName, restResult);
+        this.detectAndThrowUserNotAuthorizedException(methodName, restResult);
+        this.detectAndThrowRepositoryErrorException(methodName, restResult);
+
+        return restResult.getCount();
+    }
+
+
     /**
      * Return a list of relationships whose string based property values match the search criteria.  The
      * search criteria may include regex style wild cards.
@@ -5033,6 +5522,49 @@ public abstract class MetadataCollectionServicesClient implements AuditLoggingCo
     }
 
 
+    /**
+     * Issue a POST REST call to an API that servers running an older release do not have.  If the server
+     * does not have the API, FunctionNotSupportedException is thrown so the caller can use other calls instead.
+     *
+     * @param <T> class name
+     * @param methodName name of the method being called
+     * @param returnClass class name of response object
+     * @param operationSpecificURL template of the URL for the REST API call with place-holders for the parameters
+     * @param request request body object
+     * @param params a list of parameters that are slotted into the url template
+     * @return response object
+     * @throws FunctionNotSupportedException the server does not have this API.
+     * @throws RepositoryErrorException something went wrong with the REST call stack.
+     */
+    private <T> T callPostRESTCallIfSupported(String    methodName,
+                                              Class<T>  returnClass,
+                                              String    operationSpecificURL,
+                                              Object    request,
+                                              Object... params) throws FunctionNotSupportedException,
+                                                                       RepositoryErrorException
+    {
+        try
+        {
+            return this.callPostRESTCall(methodName, returnClass, operationSpecificURL, request, params);
+        }
+        catch (RepositoryErrorException error)
+        {
+            if ((error.getCause() instanceof RESTServerException) &&
+                ((((RESTServerException) error.getCause()).getReportedHTTPCode() == 404) ||
+                 (((RESTServerException) error.getCause()).getReportedHTTPCode() == 405)))
+            {
+                throw new FunctionNotSupportedException(OMRSErrorCode.REST_API_NOT_SUPPORTED.getMessageDefinition(methodName,
+                                                                                                                  repositoryName),
+                                                        this.getClass().getName(),
+                                                        methodName,
+                                                        error);
+            }
+
+            throw error;
+        }
+    }
+
+
     /*
      * ============================================
      * Extracting complex types from REST results
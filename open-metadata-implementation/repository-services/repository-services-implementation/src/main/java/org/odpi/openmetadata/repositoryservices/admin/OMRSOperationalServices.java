@@ -861,6 +861,11 @@ public class OMRSOperationalServices
             metadataHighwayManager.disconnect(permanent);
         }
 
+        if (localRepositoryEventManager != null)
+        {
+            localRepositoryEventManager.disconnect();
+        }
+
         if (enterpriseOMRSTopicConnector != null)
         {
             try
@@ -895,6 +900,14 @@ public class OMRSOperationalServices
 
         auditLog.logMessage(actionDescription, OMRSAuditCode.OMRS_DISCONNECTED.getMessageDefinition());
 
+        /*
+         * Write out any queued audit log records.  Later records are written directly to the audit log stores.
+         */
+        if (auditLogDestination != null)
+        {
+            auditLogDestination.disconnect();
+        }
+
         return true;
     }
 
@@ -6,6 +6,7 @@ import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.OMRSMetadataCollectionBase;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchClassifications;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchProperties;
+import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.accumulators.MaintenanceAccumulator;
 import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.control.FederationControl;
 import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.control.ParallelFederationControl;
 import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.control.SequentialFederationControl;
@@ -21,8 +22,14 @@ import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollec
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryValidator;
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Date;
@@ -875,7 +882,7 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
          */
         List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
 
-        FederationControl federationControl = new SequentialFederationControl(userId, cohortConnectors, methodName);
+        FederationControl federationControl = new ParallelFederationControl(userId, cohortConnectors, methodName);
         GetEntityExecutor executor          = new GetEntityExecutor(userId, guid, false, methodName);
 
         /*
@@ -923,7 +930,7 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
          */
         List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
 
-        FederationControl federationControl = new SequentialFederationControl(userId, cohortConnectors, methodName);
+        FederationControl federationControl = new ParallelFederationControl(userId, cohortConnectors, methodName);
         GetEntitySummaryExecutor executor   = new GetEntitySummaryExecutor(userId, guid, methodName);
 
         /*
@@ -972,7 +979,7 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
          */
         List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
 
-        FederationControl federationControl = new SequentialFederationControl(userId, cohortConnectors, methodName);
+        FederationControl federationControl = new ParallelFederationControl(userId, cohortConnectors, methodName);
         GetEntityExecutor executor          = new GetEntityExecutor(userId, guid, true, methodName);
 
         /*
@@ -1026,7 +1033,7 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
          */
         List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
 
-        FederationControl federationControl = new SequentialFederationControl(userId, cohortConnectors, methodName);
+        FederationControl federationControl = new ParallelFederationControl(userId, cohortConnectors, methodName);
         GetEntityExecutor executor          = new GetEntityExecutor(userId, guid, asOfTime, methodName);
 
         /*
@@ -1040,6 +1047,107 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<EntityDetail> areEntitiesKnown(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           UserNotAuthorizedException
+    {
+        final String  methodName = "areEntitiesKnown";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null)
+        {
+            return null;
+        }
+
+        /*
+         * Validation complete, ok to continue with request
+         *
+         * The list of cohort connectors are retrieved for each request to ensure that any changes in
+         * the shape of the cohort are reflected immediately.
+         */
+        List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
+
+        FederationControl   federationControl = new ParallelFederationControl(userId, cohortConnectors, methodName);
+        GetEntitiesExecutor executor          = new GetEntitiesExecutor(userId, guids, methodName);
+
+        /*
+         * Ready to process the request.  Each repository is asked for all of the entities in a single request.
+         * Some repositories may produce exceptions.  These exceptions are saved and will be returned if
+         * there are no positive results from any repository.
+         */
+        federationControl.executeCommand(executor);
+
+        return executor.areEntitiesKnown();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<EntityDetail> getEntityDetails(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           EntityNotKnownException,
+                                                                           EntityProxyOnlyException,
+                                                                           UserNotAuthorizedException
+    {
+        final String  methodName = "getEntityDetails";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null)
+        {
+            return null;
+        }
+
+        /*
+         * Validation complete, ok to continue with request
+         *
+         * The list of cohort connectors are retrieved for each request to ensure that any changes in
+         * the shape of the cohort are reflected immediately.
+         */
+        List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
+
+        FederationControl   federationControl = new ParallelFederationControl(userId, cohortConnectors, methodName);
+        GetEntitiesExecutor executor          = new GetEntitiesExecutor(userId, guids, methodName);
+
+        federationControl.executeCommand(executor);
+
+        List<EntityDetail> entities = new ArrayList<>();
+
+        for (String guid : guids)
+        {
+            EntityDetail entity = executor.getRetrievedEntity(guid);
+
+            if (entity == null)
+            {
+                /*
+                 * None of the repositories returned the entity so it is requested on its own to
+                 * report whether it is unknown or only a proxy.
+                 */
+                entity = this.getEntityDetail(userId, guid);
+            }
+
+            entities.add(entity);
+        }
+
+        return entities;
+    }
+
+
     /**
      * Return the relationships for a specific entity.
      *
@@ -1137,6 +1245,324 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * Each cohort member counts the relationships whose home is that member, or whose home is not a member of the
+     * cohort, so a relationship whose reference copies are stored in several members is counted once.  A member
+     * that does not know the entity adds nothing to the count.  If a member cannot count the relationships, they
+     * are retrieved from all of the members and counted instead, so that the reference copies of that member's
+     * relationships stored by the other members are still counted.
+     */
+    @Override
+    public int countRelationshipsForEntity(String                     userId,
+                                           String                     entityGUID,
+                                           String                     relationshipTypeGUID,
+                                           List<InstanceStatus>       limitResultsByStatus,
+                                           List<String>               excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                                TypeErrorException,
+                                                                                                                RepositoryErrorException,
+                                                                                                                EntityNotKnownException,
+                                                                                                                FunctionNotSupportedException,
+                                                                                                                UserNotAuthorizedException
+    {
+        final String  methodName = "countRelationshipsForEntity";
+
+        /*
+         * Validate parameters
+         */
+        super.countRelationshipsForEntityParameterValidation(userId, entityGUID, relationshipTypeGUID, methodName);
+
+        List<OMRSRepositoryConnector> cohortConnectors = this.getNonNullCohortConnectors(methodName);
+        Set<String>                   memberIds        = this.getMemberMetadataCollectionIds(cohortConnectors);
+        EntityNotKnownException       entityNotKnown   = null;
+        boolean                       entityKnown      = false;
+        long                          count            = 0;
+
+        try
+        {
+            for (OMRSRepositoryConnector cohortConnector : cohortConnectors)
+            {
+                OMRSMetadataCollection memberMetadataCollection = cohortConnector.getMetadataCollection();
+
+                this.validateMetadataCollection(memberMetadataCollection, methodName);
+
+                try
+                {
+                    count = count + memberMetadataCollection.countRelationshipsForEntity(userId,
+                                                                                         entityGUID,
+                                                                                         relationshipTypeGUID,
+                                                                                         limitResultsByStatus,
+                                                                                         this.getExcludedHomeMetadataCollectionIds(cohortConnector.getMetadataCollectionId(),
+                                                                                                                                   memberIds,
+                                                                                                                                   excludedHomeMetadataCollectionIds));
+                    entityKnown = true;
+                }
+                catch (EntityNotKnownException error)
+                {
+                    entityNotKnown = error;
+                }
+            }
+        }
+        catch (InvalidParameterException | UserNotAuthorizedException error)
+        {
+            throw error;
+        }
+        catch (Exception error)
+        {
+            return super.countRelationshipsForEntity(userId,
+                                                     entityGUID,
+                                                     relationshipTypeGUID,
+                                                     limitResultsByStatus,
+                                                     excludedHomeMetadataCollectionIds);
+        }
+
+        if ((! entityKnown) && (entityNotKnown != null))
+        {
+            throw entityNotKnown;
+        }
+
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * The cohort members are visited in turn, and the cursor records the member and that member's own cursor.
+     * Members that do not support cursors are paged by offset, which the cursor records instead.
+     * Each member returns only the relationships whose home is that member, or whose home is not a member of the
+     * cohort, so reference copies held by other members are not returned more than once.  A member that fails
+     * is skipped, and the cursor records it.  Once every member has been visited, the members that did not fail
+     * are visited again for their reference copies of the relationships whose home is a member that failed.  These
+     * may be returned more than once if several members hold a copy.  The errors from the members are only
+     * returned if none of them responds to the request for the first page.
+     *
+     * The results are not merged into a single order.  Each page holds the results of a single member, in the
+     * order that member returns them, and the members are visited in the order they are registered with the
+     * cohort.
+     */
+    @Override
+    public InstancePage<Relationship> getRelationshipsForEntityWithCursor(String                     userId,
+                                                                          String                     entityGUID,
+                                                                          String                     relationshipTypeGUID,
+                                                                          String                     cursor,
+                                                                          List<InstanceStatus>       limitResultsByStatus,
+                                                                          int                        pageSize) throws InvalidParameterException,
+                                                                                                                      TypeErrorException,
+                                                                                                                      RepositoryErrorException,
+                                                                                                                      EntityNotKnownException,
+                                                                                                                      PagingErrorException,
+                                                                                                                      FunctionNotSupportedException,
+                                                                                                                      UserNotAuthorizedException
+    {
+        final String  methodName = "getRelationshipsForEntityWithCursor";
+
+        /*
+         * Validate parameters
+         */
+        super.getRelationshipsForEntityWithCursorParameterValidation(userId,
+                                                                     entityGUID,
+                                                                     relationshipTypeGUID,
+                                                                     pageSize,
+                                                                     methodName);
+
+        List<OMRSRepositoryConnector> cohortConnectors = this.getNonNullCohortConnectors(methodName);
+        Set<String>                   memberIds        = this.getMemberMetadataCollectionIds(cohortConnectors);
+        String[]                      position         = this.decodeEnterpriseCursor(cursor, methodName);
+        int                           memberIndex      = this.getCursorMemberIndex(cohortConnectors, position, cursor, methodName);
+        String                        memberCursor     = (position == null) ? null : position[1];
+        Integer                       memberOffset     = this.getCursorMemberOffset(position);
+        Set<String>                   failedMemberIds  = this.getCursorFailedMemberIds(position);
+        boolean                       retrying         = this.isCursorRetryingFailedMembers(position);
+        MaintenanceAccumulator        accumulator      = new MaintenanceAccumulator();
+        boolean                       memberResponded  = false;
+
+        while (memberIndex < cohortConnectors.size())
+        {
+            OMRSRepositoryConnector cohortConnector          = cohortConnectors.get(memberIndex);
+            OMRSMetadataCollection  memberMetadataCollection = cohortConnector.getMetadataCollection();
+            String                  memberId                 = cohortConnector.getMetadataCollectionId();
+            List<Relationship>      memberInstances          = null;
+            String                  nextCursor               = null;
+            boolean                 memberFailed             = true;
+
+            this.validateMetadataCollection(memberMetadataCollection, methodName);
+
+            try
+            {
+                if (memberOffset == null)
+                {
+                    try
+                    {
+                        InstancePage<Relationship> memberPage = memberMetadataCollection.getRelationshipsForEntityWithCursor(userId,
+                                                                                                                             entityGUID,
+                                                                                                                             relationshipTypeGUID,
+                                                                                                                             memberCursor,
+                                                                                                                             limitResultsByStatus,
+                                                                                                                             pageSize);
+
+                        if (memberPage != null)
+                        {
+                            memberInstances = memberPage.getInstances();
+
+                            if (memberPage.getNextCursor() != null)
+                            {
+                                nextCursor = this.encodeEnterpriseCursor(memberId,
+                                                                         memberPage.getNextCursor(),
+                                                                         null,
+                                                                         failedMemberIds,
+                                                                         retrying);
+                            }
+                        }
+                    }
+                    catch (FunctionNotSupportedException error)
+                    {
+                        /*
+                         * The member does not support cursors (for example it is a server running an older release)
+                         * so its results are retrieved by offset.
+                         */
+                        if (memberCursor != null)
+                        {
+                            throw error;
+                        }
+
+                        memberOffset = 0;
+                    }
+                }
+
+                if (memberOffset != null)
+                {
+                    memberInstances = memberMetadataCollection.getRelationshipsForEntity(userId,
+                                                                                         entityGUID,
+                                                                                         relationshipTypeGUID,
+                                                                                         memberOffset,
+                                                                                         limitResultsByStatus,
+                                                                                         null,
+                                                                                         null,
+                                                                                         null,
+                                                                                         pageSize);
+
+                    nextCursor = this.getNextEnterpriseCursorOffset(memberId,
+                                                                    memberOffset,
+                                                                    memberInstances,
+                                                                    pageSize,
+                                                                    failedMemberIds,
+                                                                    retrying);
+                }
+
+                memberResponded = true;
+                memberFailed    = false;
+            }
+            catch (InvalidParameterException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (TypeErrorException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (RepositoryErrorException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (EntityNotKnownException error)
+            {
+                /*
+                 * The member has no relationships for the entity so this is not a failure.
+                 */
+                accumulator.captureException(error);
+                memberFailed = false;
+            }
+            catch (PropertyErrorException error)
+            {
+                /*
+                 * The results are not sequenced so this exception indicates a logic error in the member.
+                 */
+                accumulator.captureException(new RepositoryErrorException(error));
+            }
+            catch (PagingErrorException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (FunctionNotSupportedException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (UserNotAuthorizedException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (Throwable error)
+            {
+                accumulator.captureGenericException(error);
+            }
+
+            List<Relationship> results;
+
+            if (retrying)
+            {
+                results = this.getFailedMemberInstances(memberInstances, failedMemberIds);
+            }
+            else
+            {
+                results = this.getHomeInstances(memberInstances, memberId, memberIds);
+
+                if (memberFailed)
+                {
+                    failedMemberIds.add(memberId);
+                }
+            }
+
+            if (nextCursor != null)
+            {
+                return new InstancePage<>(results, nextCursor);
+            }
+
+            memberIndex++;
+            memberCursor = null;
+            memberOffset = null;
+
+            if ((! retrying) && (memberIndex == cohortConnectors.size()) && (! failedMemberIds.isEmpty()))
+            {
+                retrying    = true;
+                memberIndex = 0;
+            }
+
+            if (retrying)
+            {
+                memberIndex = this.skipFailedMembers(cohortConnectors, memberIndex, failedMemberIds);
+            }
+
+            if ((results != null) && (memberIndex < cohortConnectors.size()))
+            {
+                return new InstancePage<>(results,
+                                          this.encodeEnterpriseCursor(cohortConnectors.get(memberIndex).getMetadataCollectionId(),
+                                                                      null,
+                                                                      null,
+                                                                      failedMemberIds,
+                                                                      retrying));
+            }
+            else if (results != null)
+            {
+                return new InstancePage<>(results, null);
+            }
+        }
+
+        /*
+         * Errors from the members, including the entity being unknown, are only reported on the first page, and
+         * only if none of the members responded, since later pages may start after the members that know the entity.
+         */
+        if ((cursor == null) && (! memberResponded))
+        {
+            this.throwCapturedPagingExceptions(accumulator, methodName);
+            accumulator.throwCapturedEntityNotKnownException();
+        }
+
+        return new InstancePage<>(null, null);
+    }
+
+
     /**
      * Return a list of entities that match the supplied properties according to the match criteria.  The results
      * can be returned over many pages.
@@ -1244,6 +1670,238 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * The cohort members are visited in turn, and the cursor records the member and that member's own cursor.
+     * Members that do not support cursors are paged by offset, which the cursor records instead.
+     * Each member returns only the entities whose home is that member, or whose home is not a member of the
+     * cohort, so reference copies held by other members are not returned more than once.  A member that fails
+     * is skipped, and the cursor records it.  Once every member has been visited, the members that did not fail
+     * are visited again for their reference copies of the entities whose home is a member that failed.  These
+     * may be returned more than once if several members hold a copy.  The errors from the members are only
+     * returned if none of them responds to the request for the first page.
+     *
+     * The results are not merged into a single order.  Each page holds the results of a single member, in the
+     * order that member returns them, and the members are visited in the order they are registered with the
+     * cohort.
+     */
+    @Override
+    public InstancePage<EntityDetail> findEntitiesByPropertyWithCursor(String                    userId,
+                                                                       String                    entityTypeGUID,
+                                                                       InstanceProperties        matchProperties,
+                                                                       MatchCriteria             matchCriteria,
+                                                                       String                    cursor,
+                                                                       List<InstanceStatus>      limitResultsByStatus,
+                                                                       List<String>              limitResultsByClassification,
+                                                                       int                       pageSize) throws InvalidParameterException,
+                                                                                                                  RepositoryErrorException,
+                                                                                                                  TypeErrorException,
+                                                                                                                  PropertyErrorException,
+                                                                                                                  PagingErrorException,
+                                                                                                                  FunctionNotSupportedException,
+                                                                                                                  UserNotAuthorizedException
+    {
+        final String  methodName = "findEntitiesByPropertyWithCursor";
+
+        /*
+         * Validate parameters
+         */
+        super.findEntitiesByPropertyWithCursorParameterValidation(userId,
+                                                                  entityTypeGUID,
+                                                                  matchProperties,
+                                                                  matchCriteria,
+                                                                  pageSize,
+                                                                  methodName);
+
+        List<OMRSRepositoryConnector> cohortConnectors = this.getNonNullCohortConnectors(methodName);
+        Set<String>                   memberIds        = this.getMemberMetadataCollectionIds(cohortConnectors);
+        String[]                      position         = this.decodeEnterpriseCursor(cursor, methodName);
+        int                           memberIndex      = this.getCursorMemberIndex(cohortConnectors, position, cursor, methodName);
+        String                        memberCursor     = (position == null) ? null : position[1];
+        Integer                       memberOffset     = this.getCursorMemberOffset(position);
+        Set<String>                   failedMemberIds  = this.getCursorFailedMemberIds(position);
+        boolean                       retrying         = this.isCursorRetryingFailedMembers(position);
+        MaintenanceAccumulator        accumulator      = new MaintenanceAccumulator();
+        boolean                       memberResponded  = false;
+
+        while (memberIndex < cohortConnectors.size())
+        {
+            OMRSRepositoryConnector cohortConnector          = cohortConnectors.get(memberIndex);
+            OMRSMetadataCollection  memberMetadataCollection = cohortConnector.getMetadataCollection();
+            String                  memberId                 = cohortConnector.getMetadataCollectionId();
+            List<EntityDetail>      memberInstances          = null;
+            String                  nextCursor               = null;
+            boolean                 memberFailed             = true;
+
+            this.validateMetadataCollection(memberMetadataCollection, methodName);
+
+            try
+            {
+                if (memberOffset == null)
+                {
+                    try
+                    {
+                        InstancePage<EntityDetail> memberPage = memberMetadataCollection.findEntitiesByPropertyWithCursor(userId,
+                                                                                                                          entityTypeGUID,
+                                                                                                                          matchProperties,
+                                                                                                                          matchCriteria,
+                                                                                                                          memberCursor,
+                                                                                                                          limitResultsByStatus,
+                                                                                                                          limitResultsByClassification,
+                                                                                                                          pageSize);
+
+                        if (memberPage != null)
+                        {
+                            memberInstances = memberPage.getInstances();
+
+                            if (memberPage.getNextCursor() != null)
+                            {
+                                nextCursor = this.encodeEnterpriseCursor(memberId,
+                                                                         memberPage.getNextCursor(),
+                                                                         null,
+                                                                         failedMemberIds,
+                                                                         retrying);
+                            }
+                        }
+                    }
+                    catch (FunctionNotSupportedException error)
+                    {
+                        /*
+                         * The member does not support cursors (for example it is a server running an older release)
+                         * so its results are retrieved by offset.
+                         */
+                        if (memberCursor != null)
+                        {
+                            throw error;
+                        }
+
+                        memberOffset = 0;
+                    }
+                }
+
+                if (memberOffset != null)
+                {
+                    memberInstances = memberMetadataCollection.findEntitiesByProperty(userId,
+                                                                                      entityTypeGUID,
+                                                                                      matchProperties,
+                                                                                      matchCriteria,
+                                                                                      memberOffset,
+                                                                                      limitResultsByStatus,
+                                                                                      limitResultsByClassification,
+                                                                                      null,
+                                                                                      null,
+                                                                                      null,
+                                                                                      pageSize);
+
+                    nextCursor = this.getNextEnterpriseCursorOffset(memberId,
+                                                                    memberOffset,
+                                                                    memberInstances,
+                                                                    pageSize,
+                                                                    failedMemberIds,
+                                                                    retrying);
+                }
+
+                memberResponded = true;
+                memberFailed    = false;
+            }
+            catch (InvalidParameterException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (RepositoryErrorException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (TypeErrorException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (PropertyErrorException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (PagingErrorException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (FunctionNotSupportedException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (UserNotAuthorizedException error)
+            {
+                accumulator.captureException(error);
+            }
+            catch (Throwable error)
+            {
+                accumulator.captureGenericException(error);
+            }
+
+            List<EntityDetail> results;
+
+            if (retrying)
+            {
+                results = this.getFailedMemberInstances(memberInstances, failedMemberIds);
+            }
+            else
+            {
+                results = this.getHomeInstances(memberInstances, memberId, memberIds);
+
+                if (memberFailed)
+                {
+                    failedMemberIds.add(memberId);
+                }
+            }
+
+            if (nextCursor != null)
+            {
+                return new InstancePage<>(results, nextCursor);
+            }
+
+            memberIndex++;
+            memberCursor = null;
+            memberOffset = null;
+
+            if ((! retrying) && (memberIndex == cohortConnectors.size()) && (! failedMemberIds.isEmpty()))
+            {
+                retrying    = true;
+                memberIndex = 0;
+            }
+
+            if (retrying)
+            {
+                memberIndex = this.skipFailedMembers(cohortConnectors, memberIndex, failedMemberIds);
+            }
+
+            if ((results != null) && (memberIndex < cohortConnectors.size()))
+            {
+                return new InstancePage<>(results,
+                                          this.encodeEnterpriseCursor(cohortConnectors.get(memberIndex).getMetadataCollectionId(),
+                                                                      null,
+                                                                      null,
+                                                                      failedMemberIds,
+                                                                      retrying));
+            }
+            else if (results != null)
+            {
+                return new InstancePage<>(results, null);
+            }
+        }
+
+        /*
+         * Errors from the members are only reported on the first page, and only if none of the members responded.
+         */
+        if ((cursor == null) && (! memberResponded))
+        {
+            accumulator.throwCapturedPropertyErrorException();
+            this.throwCapturedPagingExceptions(accumulator, methodName);
+        }
+
+        return new InstancePage<>(null, null);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -1319,6 +1977,82 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * Each cohort member counts the entities whose home is that member, or whose home is not a member of the
+     * cohort, so an entity whose reference copies are stored in several members is counted once.  If a member
+     * cannot count the entities, they are retrieved from all of the members and counted instead, so that the
+     * reference copies of that member's entities stored by the other members are still counted.
+     */
+    @Override
+    public int countEntities(String                    userId,
+                             String                    entityTypeGUID,
+                             List<String>              entitySubtypeGUIDs,
+                             SearchProperties          matchProperties,
+                             List<InstanceStatus>      limitResultsByStatus,
+                             SearchClassifications     matchClassifications,
+                             List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                 RepositoryErrorException,
+                                                                                                 TypeErrorException,
+                                                                                                 PropertyErrorException,
+                                                                                                 FunctionNotSupportedException,
+                                                                                                 UserNotAuthorizedException
+    {
+        final String  methodName = "countEntities";
+
+        /*
+         * Validate parameters
+         */
+        super.countEntitiesParameterValidation(userId,
+                                               entityTypeGUID,
+                                               entitySubtypeGUIDs,
+                                               matchProperties,
+                                               matchClassifications,
+                                               methodName);
+
+        List<OMRSRepositoryConnector> cohortConnectors = this.getNonNullCohortConnectors(methodName);
+        Set<String>                   memberIds        = this.getMemberMetadataCollectionIds(cohortConnectors);
+        long                          count            = 0;
+
+        try
+        {
+            for (OMRSRepositoryConnector cohortConnector : cohortConnectors)
+            {
+                OMRSMetadataCollection memberMetadataCollection = cohortConnector.getMetadataCollection();
+
+                this.validateMetadataCollection(memberMetadataCollection, methodName);
+
+                count = count + memberMetadataCollection.countEntities(userId,
+                                                                       entityTypeGUID,
+                                                                       entitySubtypeGUIDs,
+                                                                       matchProperties,
+                                                                       limitResultsByStatus,
+                                                                       matchClassifications,
+                                                                       this.getExcludedHomeMetadataCollectionIds(cohortConnector.getMetadataCollectionId(),
+                                                                                                                 memberIds,
+                                                                                                                 excludedHomeMetadataCollectionIds));
+            }
+        }
+        catch (InvalidParameterException | UserNotAuthorizedException error)
+        {
+            throw error;
+        }
+        catch (Exception error)
+        {
+            return super.countEntities(userId,
+                                       entityTypeGUID,
+                                       entitySubtypeGUIDs,
+                                       matchProperties,
+                                       limitResultsByStatus,
+                                       matchClassifications,
+                                       excludedHomeMetadataCollectionIds);
+        }
+
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+
     /**
      * Return a list of entities that have the requested type of classifications attached.
      *
@@ -1568,7 +2302,7 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
          */
         List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
 
-        FederationControl federationControl = new SequentialFederationControl(userId, cohortConnectors, methodName);
+        FederationControl federationControl = new ParallelFederationControl(userId, cohortConnectors, methodName);
         GetRelationshipExecutor executor    = new GetRelationshipExecutor(userId, guid, false, methodName);
 
         /*
@@ -1616,7 +2350,7 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
          */
         List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
 
-        FederationControl federationControl = new SequentialFederationControl(userId, cohortConnectors, methodName);
+        FederationControl federationControl = new ParallelFederationControl(userId, cohortConnectors, methodName);
         GetRelationshipExecutor executor    = new GetRelationshipExecutor(userId, guid, true, methodName);
 
         /*
@@ -1668,7 +2402,7 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
          */
         List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
 
-        FederationControl federationControl = new SequentialFederationControl(userId, cohortConnectors, methodName);
+        FederationControl federationControl = new ParallelFederationControl(userId, cohortConnectors, methodName);
         GetRelationshipExecutor executor    = new GetRelationshipExecutor(userId, guid, asOfTime, methodName);
 
         /*
@@ -1682,6 +2416,106 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Relationship> areRelationshipsKnown(String        userId,
+                                                    List<String>  guids) throws InvalidParameterException,
+                                                                                RepositoryErrorException,
+                                                                                UserNotAuthorizedException
+    {
+        final String  methodName = "areRelationshipsKnown";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null)
+        {
+            return null;
+        }
+
+        /*
+         * Validation complete, ok to continue with request
+         *
+         * The list of cohort connectors are retrieved for each request to ensure that any changes in
+         * the shape of the cohort are reflected immediately.
+         */
+        List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
+
+        FederationControl        federationControl = new ParallelFederationControl(userId, cohortConnectors, methodName);
+        GetRelationshipsExecutor executor          = new GetRelationshipsExecutor(userId, guids, methodName);
+
+        /*
+         * Ready to process the request.  Each repository is asked for all of the relationships in a single
+         * request.  Some repositories may produce exceptions.  These exceptions are saved and will be returned
+         * if there are no positive results from any repository.
+         */
+        federationControl.executeCommand(executor);
+
+        return executor.areRelationshipsKnown();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Relationship> getRelationships(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           RelationshipNotKnownException,
+                                                                           UserNotAuthorizedException
+    {
+        final String  methodName = "getRelationships";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        if (guids == null)
+        {
+            return null;
+        }
+
+        /*
+         * Validation complete, ok to continue with request
+         *
+         * The list of cohort connectors are retrieved for each request to ensure that any changes in
+         * the shape of the cohort are reflected immediately.
+         */
+        List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
+
+        FederationControl        federationControl = new ParallelFederationControl(userId, cohortConnectors, methodName);
+        GetRelationshipsExecutor executor          = new GetRelationshipsExecutor(userId, guids, methodName);
+
+        federationControl.executeCommand(executor);
+
+        List<Relationship> relationships = new ArrayList<>();
+
+        for (String guid : guids)
+        {
+            Relationship relationship = executor.getRetrievedRelationship(guid);
+
+            if (relationship == null)
+            {
+                /*
+                 * None of the repositories returned the relationship so it is requested on its own
+                 * to report that it is not known.
+                 */
+                relationship = this.getRelationship(userId, guid);
+            }
+
+            relationships.add(relationship);
+        }
+
+        return relationships;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -1750,7 +2584,79 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
          */
         federationControl.executeCommand(executor);
 
-        return executor.getResults(enterpriseParentConnector);
+        return executor.getResults(enterpriseParentConnector);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * Each cohort member counts the relationships whose home is that member, or whose home is not a member of the
+     * cohort, so a relationship whose reference copies are stored in several members is counted once.  If a member
+     * cannot count the relationships, they are retrieved from all of the members and counted instead, so that the
+     * reference copies of that member's relationships stored by the other members are still counted.
+     */
+    @Override
+    public int countRelationships(String                    userId,
+                                  String                    relationshipTypeGUID,
+                                  List<String>              relationshipSubtypeGUIDs,
+                                  SearchProperties          matchProperties,
+                                  List<InstanceStatus>      limitResultsByStatus,
+                                  List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                      TypeErrorException,
+                                                                                                      RepositoryErrorException,
+                                                                                                      PropertyErrorException,
+                                                                                                      FunctionNotSupportedException,
+                                                                                                      UserNotAuthorizedException
+    {
+        final String  methodName = "countRelationships";
+
+        /*
+         * Validate parameters
+         */
+        super.countRelationshipsParameterValidation(userId,
+                                                    relationshipTypeGUID,
+                                                    relationshipSubtypeGUIDs,
+                                                    matchProperties,
+                                                    methodName);
+
+        List<OMRSRepositoryConnector> cohortConnectors = this.getNonNullCohortConnectors(methodName);
+        Set<String>                   memberIds        = this.getMemberMetadataCollectionIds(cohortConnectors);
+        long                          count            = 0;
+
+        try
+        {
+            for (OMRSRepositoryConnector cohortConnector : cohortConnectors)
+            {
+                OMRSMetadataCollection memberMetadataCollection = cohortConnector.getMetadataCollection();
+
+                this.validateMetadataCollection(memberMetadataCollection, methodName);
+
+                count = count + memberMetadataCollection.countRelationships(userId,
+                                                                            relationshipTypeGUID,
+                                                                            relationshipSubtypeGUIDs,
+                                                                            matchProperties,
+                                                                            limitResultsByStatus,
+                                                                            this.getExcludedHomeMetadataCollectionIds(cohortConnector.getMetadataCollectionId(),
+                                                                                                                      memberIds,
+                                                                                                                      excludedHomeMetadataCollectionIds));
+            }
+        }
+        catch (InvalidParameterException | UserNotAuthorizedException error)
+        {
+            throw error;
+        }
+        catch (Exception error)
+        {
+            return super.countRelationships(userId,
+                                            relationshipTypeGUID,
+                                            relationshipSubtypeGUIDs,
+                                            matchProperties,
+                                            limitResultsByStatus,
+                                            excludedHomeMetadataCollectionIds);
+        }
+
+        return (int) Math.min(count, Integer.MAX_VALUE);
     }
 
 
@@ -3323,6 +4229,72 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * The whole batch is passed to the first repository in the cohorts that supports adding new instances, in
+     * the same way as addEntity and addRelationship, so the new instances all have that repository as their home.
+     * The batch is not split by the metadata collection id set in the new instances - that value is ignored, as
+     * it is for addEntity.  An existing entity at the end of a new relationship may have any home repository as
+     * long as the repository that adds the batch has a copy of it.
+     */
+    @Override
+    public InstanceGraph addEntitiesAndRelationships(String         userId,
+                                                     InstanceGraph  newInstances) throws InvalidParameterException,
+                                                                                         RepositoryErrorException,
+                                                                                         TypeErrorException,
+                                                                                         PropertyErrorException,
+                                                                                         ClassificationErrorException,
+                                                                                         EntityNotKnownException,
+                                                                                         StatusNotSupportedException,
+                                                                                         UserNotAuthorizedException,
+                                                                                         FunctionNotSupportedException
+    {
+        final String  methodName = "addEntitiesAndRelationships";
+
+        /*
+         * Validate parameters
+         */
+        super.addEntitiesAndRelationshipsParameterValidation(userId, newInstances, methodName);
+
+        /*
+         * Validation complete, ok to continue with request
+         *
+         * The list of cohort connectors are retrieved for each request to ensure that any changes in
+         * the shape of the cohort are reflected immediately.
+         */
+        FunctionNotSupportedException savedException = null;
+
+        for (OMRSRepositoryConnector cohortConnector : this.getNonNullCohortConnectors(methodName))
+        {
+            OMRSMetadataCollection memberMetadataCollection = cohortConnector.getMetadataCollection();
+
+            this.validateMetadataCollection(memberMetadataCollection, methodName);
+
+            try
+            {
+                return memberMetadataCollection.addEntitiesAndRelationships(userId, newInstances);
+            }
+            catch (FunctionNotSupportedException error)
+            {
+                /*
+                 * This repository does not support new instances - try the next one.
+                 */
+                savedException = error;
+            }
+        }
+
+        if (savedException != null)
+        {
+            throw savedException;
+        }
+
+        throwNotEnterpriseFunction(methodName);
+
+        return null;
+    }
+
+
 
     /**
      * Update the status of a specific relationship.
@@ -4178,6 +5150,441 @@ class EnterpriseOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * Return the metadata collection ids of the repositories whose reference copies a cohort member should not
+     * count - the other members of the cohort, and any that the caller excluded.
+     *
+     * @param memberMetadataCollectionId metadata collection id of the cohort member
+     * @param memberIds metadata collection ids of all of the cohort members
+     * @param excludedHomeMetadataCollectionIds metadata collection ids excluded by the caller (may be null)
+     * @return list of metadata collection ids
+     */
+    private List<String> getExcludedHomeMetadataCollectionIds(String       memberMetadataCollectionId,
+                                                              Set<String>  memberIds,
+                                                              List<String> excludedHomeMetadataCollectionIds)
+    {
+        Set<String> results = new HashSet<>(memberIds);
+
+        results.remove(memberMetadataCollectionId);
+        results.remove(null);
+
+        if (excludedHomeMetadataCollectionIds != null)
+        {
+            results.addAll(excludedHomeMetadataCollectionIds);
+        }
+
+        return new ArrayList<>(results);
+    }
+
+
+    /**
+     * Return the cohort connectors that are not null, in the order that the cursor-based methods visit them.
+     *
+     * @param methodName name of method
+     * @return list of cohort connectors
+     * @throws RepositoryErrorException the enterprise connector is not active
+     */
+    private List<OMRSRepositoryConnector> getNonNullCohortConnectors(String methodName) throws RepositoryErrorException
+    {
+        List<OMRSRepositoryConnector> cohortConnectors = enterpriseParentConnector.getCohortConnectors(methodName);
+        List<OMRSRepositoryConnector> results          = new ArrayList<>();
+
+        if (cohortConnectors != null)
+        {
+            for (OMRSRepositoryConnector cohortConnector : cohortConnectors)
+            {
+                if (cohortConnector != null)
+                {
+                    results.add(cohortConnector);
+                }
+            }
+        }
+
+        return results;
+    }
+
+
+    /**
+     * Return the metadata collection ids of the cohort members.
+     *
+     * @param cohortConnectors connectors to the cohort members
+     * @return set of metadata collection ids
+     */
+    private Set<String> getMemberMetadataCollectionIds(List<OMRSRepositoryConnector> cohortConnectors)
+    {
+        Set<String> memberIds = new HashSet<>();
+
+        for (OMRSRepositoryConnector cohortConnector : cohortConnectors)
+        {
+            memberIds.add(cohortConnector.getMetadataCollectionId());
+        }
+
+        return memberIds;
+    }
+
+
+    /**
+     * Remove the instances that are reference copies of instances whose home is another member of the cohort.
+     *
+     * @param instances instances returned by a cohort member
+     * @param memberMetadataCollectionId metadata collection id of the cohort member
+     * @param memberIds metadata collection ids of all of the cohort members
+     * @param <T> type of instance
+     * @return list of instances or null if none remain
+     */
+    private <T extends InstanceHeader> List<T> getHomeInstances(List<T>     instances,
+                                                                String      memberMetadataCollectionId,
+                                                                Set<String> memberIds)
+    {
+        if (instances == null)
+        {
+            return null;
+        }
+
+        List<T> results = new ArrayList<>();
+
+        for (T instance : instances)
+        {
+            if (instance != null)
+            {
+                String homeMetadataCollectionId = instance.getMetadataCollectionId();
+
+                if ((homeMetadataCollectionId == null) ||
+                    (homeMetadataCollectionId.equals(memberMetadataCollectionId)) ||
+                    (! memberIds.contains(homeMetadataCollectionId)))
+                {
+                    results.add(instance);
+                }
+            }
+        }
+
+        if (results.isEmpty())
+        {
+            return null;
+        }
+
+        return results;
+    }
+
+
+    /**
+     * Return the instances that are reference copies of instances whose home is one of the cohort members that
+     * failed earlier in a cursor-based search.
+     *
+     * @param instances instances returned by a cohort member
+     * @param failedMemberIds metadata collection ids of the cohort members that failed
+     * @param <T> type of instance
+     * @return list of instances or null if none remain
+     */
+    private <T extends InstanceHeader> List<T> getFailedMemberInstances(List<T>     instances,
+                                                                        Set<String> failedMemberIds)
+    {
+        if (instances == null)
+        {
+            return null;
+        }
+
+        List<T> results = new ArrayList<>();
+
+        for (T instance : instances)
+        {
+            if ((instance != null) && (failedMemberIds.contains(instance.getMetadataCollectionId())))
+            {
+                results.add(instance);
+            }
+        }
+
+        if (results.isEmpty())
+        {
+            return null;
+        }
+
+        return results;
+    }
+
+
+    /**
+     * Return the position in the list of cohort connectors of the first member, starting from the supplied
+     * position, that has not failed.
+     *
+     * @param cohortConnectors connectors to the cohort members
+     * @param memberIndex position to start from
+     * @param failedMemberIds metadata collection ids of the cohort members that failed
+     * @return index of the cohort connector, or the number of connectors if none remain
+     */
+    private int skipFailedMembers(List<OMRSRepositoryConnector> cohortConnectors,
+                                  int                           memberIndex,
+                                  Set<String>                   failedMemberIds)
+    {
+        int index = memberIndex;
+
+        while ((index < cohortConnectors.size()) && (failedMemberIds.contains(cohortConnectors.get(index).getMetadataCollectionId())))
+        {
+            index++;
+        }
+
+        return index;
+    }
+
+
+    /**
+     * Build the cursor of a cursor-based enterprise search.  It records the metadata collection id of the cohort
+     * member to continue with, and the cursor or offset to pass to that member.  If any members have failed, it
+     * also records their metadata collection ids, and whether the search is visiting the members again for their
+     * reference copies of the failed members' instances.
+     *
+     * @param memberMetadataCollectionId metadata collection id of the cohort member
+     * @param memberCursor cursor for the cohort member - null means start from its first element
+     * @param memberOffset offset of the member's next element - null unless the member is paged by offset
+     * @param failedMemberIds metadata collection ids of the cohort members that failed
+     * @param retrying the members are being visited again for the failed members' instances
+     * @return opaque cursor string
+     */
+    private String encodeEnterpriseCursor(String      memberMetadataCollectionId,
+                                          String      memberCursor,
+                                          Integer     memberOffset,
+                                          Set<String> failedMemberIds,
+                                          boolean     retrying)
+    {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+        String cursor = encoder.encodeToString(memberMetadataCollectionId.getBytes(StandardCharsets.UTF_8)) + "." +
+                        encoder.encodeToString(((memberCursor == null) ? "" : memberCursor).getBytes(StandardCharsets.UTF_8));
+
+        if (failedMemberIds.isEmpty())
+        {
+            if (memberOffset != null)
+            {
+                cursor = cursor + "." + memberOffset;
+            }
+
+            return cursor;
+        }
+
+        return cursor + "." + ((memberOffset == null) ? "" : memberOffset.toString()) + "." + (retrying ? "R" : "F") +
+               encoder.encodeToString(String.join("\n", new TreeSet<>(failedMemberIds)).getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    /**
+     * Return the cursor of a cursor-based enterprise search for the page that follows the supplied results from
+     * a cohort member that is paged by offset.  The cursor records the member's metadata collection id and the offset
+     * of its next element.  A page that is not full is the member's last page.
+     *
+     * @param memberMetadataCollectionId metadata collection id of the cohort member
+     * @param fromElement offset of the first of the results
+     * @param instances results returned by the member
+     * @param pageSize maximum number of results requested
+     * @param failedMemberIds metadata collection ids of the cohort members that failed
+     * @param retrying the members are being visited again for the failed members' instances
+     * @return opaque cursor string or null if the member has no more results
+     */
+    private String getNextEnterpriseCursorOffset(String                         memberMetadataCollectionId,
+                                                 int                            fromElement,
+                                                 List<? extends InstanceHeader> instances,
+                                                 int                            pageSize,
+                                                 Set<String>                    failedMemberIds,
+                                                 boolean                        retrying)
+    {
+        if ((pageSize > 0) && (instances != null) && (instances.size() >= pageSize))
+        {
+            return this.encodeEnterpriseCursor(memberMetadataCollectionId,
+                                               null,
+                                               fromElement + instances.size(),
+                                               failedMemberIds,
+                                               retrying);
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Extract the metadata collection id of the cohort member and that member's cursor from the cursor of a
+     * cursor-based enterprise search.
+     *
+     * @param cursor cursor passed by the caller
+     * @param methodName name of method
+     * @return null for the first page, otherwise the member's metadata collection id, cursor (null for
+     * the member's first element), offset (null unless the member is paged by offset) and the state of the
+     * failed members (null if none have failed)
+     * @throws PagingErrorException the cursor was not issued by the enterprise connector
+     */
+    private String[] decodeEnterpriseCursor(String cursor,
+                                            String methodName) throws PagingErrorException
+    {
+        if (cursor == null)
+        {
+            return null;
+        }
+
+        String[] parts = cursor.split("\\.", -1);
+
+        if ((parts.length >= 2) && (parts.length <= 4) && (! parts[0].isEmpty()))
+        {
+            try
+            {
+                Base64.Decoder decoder = Base64.getUrlDecoder();
+
+                String memberId     = new String(decoder.decode(parts[0]), StandardCharsets.UTF_8);
+                String memberCursor = new String(decoder.decode(parts[1]), StandardCharsets.UTF_8);
+                String memberOffset = ((parts.length == 2) || (parts[2].isEmpty())) ? null : parts[2];
+                String failedState  = null;
+
+                if (parts.length == 4)
+                {
+                    if ((! parts[3].startsWith("F")) && (! parts[3].startsWith("R")))
+                    {
+                        throw new IllegalArgumentException(parts[3]);
+                    }
+
+                    failedState = parts[3].charAt(0) +
+                                  new String(decoder.decode(parts[3].substring(1)), StandardCharsets.UTF_8);
+                }
+
+                if ((parts.length == 3) && (memberOffset == null))
+                {
+                    throw new IllegalArgumentException(parts[2]);
+                }
+
+                if (memberOffset == null)
+                {
+                    return new String[]{ memberId, memberCursor.isEmpty() ? null : memberCursor, null, failedState };
+                }
+                else if ((memberCursor.isEmpty()) && (Integer.parseInt(memberOffset) >= 0))
+                {
+                    return new String[]{ memberId, null, memberOffset, failedState };
+                }
+            }
+            catch (IllegalArgumentException error)
+            {
+                /*
+                 * Not valid base 64 or not a valid offset - handled below.
+                 */
+            }
+        }
+
+        throw new PagingErrorException(OMRSErrorCode.INVALID_CURSOR.getMessageDefinition(cursor, methodName, repositoryName),
+                                       this.getClass().getName(),
+                                       methodName);
+    }
+
+
+    /**
+     * Return the offset of the next element of the cohort member that the cursor continues with, if that member
+     * is paged by offset.
+     *
+     * @param position decoded cursor
+     * @return offset or null if the member is paged by cursor
+     */
+    private Integer getCursorMemberOffset(String[] position)
+    {
+        if ((position == null) || (position[2] == null))
+        {
+            return null;
+        }
+
+        return Integer.parseInt(position[2]);
+    }
+
+
+    /**
+     * Return the metadata collection ids of the cohort members that have failed earlier in a cursor-based search.
+     *
+     * @param position decoded cursor
+     * @return modifiable set of metadata collection ids (empty if none have failed)
+     */
+    private Set<String> getCursorFailedMemberIds(String[] position)
+    {
+        Set<String> failedMemberIds = new HashSet<>();
+
+        if ((position != null) && (position[3] != null))
+        {
+            failedMemberIds.addAll(Arrays.asList(position[3].substring(1).split("\n")));
+        }
+
+        return failedMemberIds;
+    }
+
+
+    /**
+     * Return whether a cursor-based search is visiting the cohort members again for their reference copies of the
+     * instances whose home is a member that failed.
+     *
+     * @param position decoded cursor
+     * @return boolean
+     */
+    private boolean isCursorRetryingFailedMembers(String[] position)
+    {
+        return (position != null) && (position[3] != null) && (position[3].startsWith("R"));
+    }
+
+
+    /**
+     * Throw the first of the exceptions returned by the cohort members to a cursor-based search, in the
+     * same order of precedence as the paging executors use.
+     *
+     * @param accumulator exceptions captured from the members
+     * @param methodName name of method
+     * @throws InvalidParameterException a parameter is invalid
+     * @throws TypeErrorException the type is not known
+     * @throws RepositoryErrorException there is a problem communicating with the members
+     * @throws PagingErrorException the paging parameters are not valid
+     * @throws FunctionNotSupportedException the members do not support the request
+     * @throws UserNotAuthorizedException the user is not permitted to make the request
+     */
+    private void throwCapturedPagingExceptions(MaintenanceAccumulator accumulator,
+                                               String                 methodName) throws InvalidParameterException,
+                                                                                         TypeErrorException,
+                                                                                         RepositoryErrorException,
+                                                                                         PagingErrorException,
+                                                                                         FunctionNotSupportedException,
+                                                                                         UserNotAuthorizedException
+    {
+        accumulator.throwCapturedUserNotAuthorizedException();
+        accumulator.throwCapturedRepositoryErrorException();
+        accumulator.throwCapturedThrowableException(methodName);
+        accumulator.throwCapturedInvalidParameterException();
+        accumulator.throwCapturedFunctionNotSupportedException();
+        accumulator.throwCapturedTypeErrorException();
+        accumulator.throwCapturedPagingErrorException();
+    }
+
+
+    /**
+     * Return the position in the list of cohort connectors of the member that the cursor continues with.
+     *
+     * @param cohortConnectors connectors to the cohort members
+     * @param position decoded cursor
+     * @param cursor cursor passed by the caller
+     * @param methodName name of method
+     * @return index of the cohort connector
+     * @throws PagingErrorException the member is no longer part of the cohort
+     */
+    private int getCursorMemberIndex(List<OMRSRepositoryConnector> cohortConnectors,
+                                     String[]                      position,
+                                     String                        cursor,
+                                     String                        methodName) throws PagingErrorException
+    {
+        if (position == null)
+        {
+            return 0;
+        }
+
+        for (int i = 0; i < cohortConnectors.size(); i++)
+        {
+            if (position[0].equals(cohortConnectors.get(i).getMetadataCollectionId()))
+            {
+                return i;
+            }
+        }
+
+        throw new PagingErrorException(OMRSErrorCode.INVALID_CURSOR.getMessageDefinition(cursor, methodName, repositoryName),
+                                       this.getClass().getName(),
+                                       methodName);
+    }
+
+
     /**
      * Verify that a cohort member's metadata collection is not null.
      *
@@ -30,6 +30,8 @@ public class ExceptionAccumulatorBase
     TypeErrorException              typeErrorException              = null;
     UserNotAuthorizedException      userNotAuthorizedException      = null;
 
+    private boolean                 requestComplete                 = false;
+
 
     /**
      * Constructor restricted to use by this package
@@ -39,6 +41,27 @@ public class ExceptionAccumulatorBase
     }
 
 
+    /**
+     * Record that the federation control has finished calling the repositories.  Results and exceptions
+     * from calls that are still running (for example because they timed out) are ignored after this.
+     */
+    public synchronized void completeRequest()
+    {
+        requestComplete = true;
+    }
+
+
+    /**
+     * Return whether the federation control has finished calling the repositories.
+     *
+     * @return boolean
+     */
+    synchronized boolean isRequestComplete()
+    {
+        return requestComplete;
+    }
+
+
     /**
      * Throw a ClassificationErrorException if it was returned by one of the calls to a cohort connector.
      *
@@ -248,7 +271,7 @@ public class ExceptionAccumulatorBase
      *
      * @throws TypeDefConflictException the type definition conflicts across the cohort
      */
-    public void throwCapturedTypeDefConflictException() throws TypeDefConflictException
+    public synchronized void throwCapturedTypeDefConflictException() throws TypeDefConflictException
     {
         if (typeDefConflictException != null)
         {
@@ -262,7 +285,7 @@ public class ExceptionAccumulatorBase
      *
      * @throws TypeDefNotSupportedException the type definition is not supported any of the federated repositories
      */
-    public void throwCapturedTypeDefNotSupportedException() throws TypeDefNotSupportedException
+    public synchronized void throwCapturedTypeDefNotSupportedException() throws TypeDefNotSupportedException
     {
         if (typeDefNotSupportedException != null)
         {
@@ -276,7 +299,7 @@ public class ExceptionAccumulatorBase
      *
      * @throws TypeDefNotKnownException the type definition is not known in any of the federated repositories
      */
-    public void throwCapturedTypeDefNotKnownException() throws TypeDefNotKnownException
+    public synchronized void throwCapturedTypeDefNotKnownException() throws TypeDefNotKnownException
     {
         if (typeDefNotKnownException != null)
         {
@@ -290,7 +313,7 @@ public class ExceptionAccumulatorBase
      *
      * @throws TypeErrorException the type definition of the instance is not known in any of the federated repositories
      */
-    public void throwCapturedTypeErrorException() throws TypeErrorException
+    public synchronized void throwCapturedTypeErrorException() throws TypeErrorException
     {
         if (typeErrorException != null)
         {
@@ -304,7 +327,7 @@ public class ExceptionAccumulatorBase
      *
      * @throws UserNotAuthorizedException the userId is not authorized in the server
      */
-    public void throwCapturedUserNotAuthorizedException() throws UserNotAuthorizedException
+    public synchronized void throwCapturedUserNotAuthorizedException() throws UserNotAuthorizedException
     {
         if (userNotAuthorizedException != null)
         {
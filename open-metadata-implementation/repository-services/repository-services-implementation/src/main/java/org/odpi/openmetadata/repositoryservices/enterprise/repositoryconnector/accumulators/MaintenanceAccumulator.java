@@ -26,6 +26,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(ClassificationErrorException exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         classificationErrorException = exception;
     }
 
@@ -37,6 +42,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(EntityNotDeletedException exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         entityNotDeletedException = exception;
     }
 
@@ -48,6 +58,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(EntityNotKnownException exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         entityNotKnownException = exception;
     }
 
@@ -59,6 +74,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(EntityProxyOnlyException exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         entityProxyOnlyException = exception;
     }
 
@@ -70,6 +90,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(FunctionNotSupportedException exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         functionNotSupportedException = exception;
     }
 
@@ -81,6 +106,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(InvalidParameterException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         invalidParameterException = exception;
     }
 
@@ -92,10 +122,31 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(InvalidTypeDefException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         invalidTypeDefException = exception;
     }
 
 
+    /**
+     * Save the supplied exception.
+     *
+     * @param exception  exception from remote call
+     */
+    public synchronized void captureException(PagingErrorException  exception)
+    {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
+        pagingErrorException = exception;
+    }
+
+
     /**
      * Save the supplied exception.
      *
@@ -103,6 +154,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(PropertyErrorException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         propertyErrorException = exception;
     }
 
@@ -114,6 +170,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(RelationshipNotDeletedException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         relationshipNotDeletedException = exception;
     }
 
@@ -125,6 +186,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(RelationshipNotKnownException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         relationshipNotKnownException = exception;
     }
 
@@ -136,6 +202,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(RepositoryErrorException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         repositoryErrorException = exception;
     }
 
@@ -147,6 +218,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureException(StatusNotSupportedException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         statusNotSupportedException = exception;
     }
 
@@ -158,6 +234,11 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      */
     public synchronized void captureGenericException(Throwable  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         anotherException = exception;
     }
 
@@ -167,8 +248,13 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      *
      * @param exception  exception from remote call
      */
-    public void captureException(TypeDefConflictException  exception)
+    public synchronized void captureException(TypeDefConflictException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         typeDefConflictException = exception;
     }
 
@@ -178,8 +264,13 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      *
      * @param exception  exception from remote call
      */
-    public void captureException(TypeDefNotSupportedException  exception)
+    public synchronized void captureException(TypeDefNotSupportedException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         typeDefNotSupportedException = exception;
     }
 
@@ -189,8 +280,13 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      *
      * @param exception  exception from remote call
      */
-    public void captureException(TypeDefNotKnownException  exception)
+    public synchronized void captureException(TypeDefNotKnownException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         typeDefNotKnownException = exception;
     }
 
@@ -200,8 +296,13 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      *
      * @param exception  exception from remote call
      */
-    public void captureException(TypeErrorException  exception)
+    public synchronized void captureException(TypeErrorException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         typeErrorException = exception;
     }
 
@@ -211,8 +312,13 @@ public class MaintenanceAccumulator extends ExceptionAccumulatorBase
      *
      * @param exception  exception from remote call
      */
-    public void captureException(UserNotAuthorizedException  exception)
+    public synchronized void captureException(UserNotAuthorizedException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         userNotAuthorizedException = exception;
     }
 
@@ -22,7 +22,7 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
 
     private int                  responsesRequired  = 0;
     private Map<String, Integer> resultsContributed = new HashMap<>();
-    private boolean              resultsReturned = false;
+    private volatile boolean     resultsReturned = false;
 
 
     /**
@@ -118,6 +118,11 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
     public synchronized void captureException(String                          metadataCollectionId,
                                               ClassificationErrorException    exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         setRequestReturned(metadataCollectionId, 0);
         classificationErrorException = exception;
     }
@@ -132,6 +137,11 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
     public synchronized void captureException(String                     metadataCollectionId,
                                               EntityNotKnownException    exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         setRequestReturned(metadataCollectionId, 0);
         entityNotKnownException = exception;
     }
@@ -147,6 +157,11 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
     public synchronized void captureException(String                           metadataCollectionId,
                                               FunctionNotSupportedException    exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         setRequestReturned(metadataCollectionId, 0);
         functionNotSupportedException = exception;
     }
@@ -161,6 +176,11 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
     public synchronized void captureException(String                     metadataCollectionId,
                                               InvalidParameterException  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         setRequestReturned(metadataCollectionId, 0);
         invalidParameterException = exception;
     }
@@ -175,6 +195,11 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
     public synchronized void captureException(String                     metadataCollectionId,
                                               PagingErrorException     exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         setRequestReturned(metadataCollectionId, 0);
         pagingErrorException = exception;
     }
@@ -189,6 +214,11 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
     public synchronized void captureException(String                     metadataCollectionId,
                                               PropertyErrorException     exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         setRequestReturned(metadataCollectionId, 0);
         propertyErrorException = exception;
     }
@@ -203,6 +233,11 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
     public synchronized void captureException(String                        metadataCollectionId,
                                               RelationshipNotKnownException exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         setRequestReturned(metadataCollectionId, 0);
         relationshipNotKnownException = exception;
     }
@@ -217,6 +252,11 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
     public synchronized void captureException(String                     metadataCollectionId,
                                               RepositoryErrorException   exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         setRequestReturned(metadataCollectionId, 0);
         repositoryErrorException = exception;
     }
@@ -231,6 +271,11 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
     public synchronized void captureException(String               metadataCollectionId,
                                               TypeErrorException   exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         setRequestReturned(metadataCollectionId, 0);
         typeErrorException = exception;
     }
@@ -245,6 +290,11 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
     public synchronized void captureException(String                     metadataCollectionId,
                                               UserNotAuthorizedException exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         setRequestReturned(metadataCollectionId, 0);
         userNotAuthorizedException = exception;
     }
@@ -259,6 +309,11 @@ public class QueryAccumulatorBase extends ExceptionAccumulatorBase
     public synchronized void captureGenericException(String     metadataCollectionId,
                                                      Throwable  exception)
     {
+        if (isRequestComplete())
+        {
+            return;
+        }
+
         setRequestReturned(metadataCollectionId, 0);
         anotherException = exception;
     }
@@ -4,18 +4,57 @@ package org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.
 
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.OMRSMetadataCollection;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryConnector;
+import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.executors.CloneableRepositoryExecutor;
 import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.executors.RepositoryExecutor;
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.RepositoryErrorException;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * ParallelFederationControl uses multiple worker threads to perform the calls to different systems in parallel.
+ *
+ * The worker threads come from a bounded pool that is shared by all of the enterprise connectors in the JVM.
+ * Executors that implement CloneableRepositoryExecutor are cloned so that each cohort member is called through
+ * its own executor instance (the clones share a thread-safe accumulator).  Other executors are called concurrently
+ * and must therefore be thread-safe.
+ *
+ * The results are resolved in the order of the cohort members (the local repository first), just as if the members
+ * had been called one after another.  The request is complete once a member reports that the required results
+ * have been achieved (for example a successful retrieve of an instance by GUID) and all of the members before it
+ * have responded without achieving them.  The calls that are still outstanding are then cancelled, and the executor
+ * is told the order of the members and to ignore any results that arrive later.
+ *
+ * Each cohort member is allowed up to the member timeout to respond, measured from when its call starts.
+ * A member that does not respond in time has its call cancelled and contributes nothing to the results.
  */
 public class ParallelFederationControl extends FederationControlBase
 {
-    // todo at this point the parallel federation control uses a sequential since the
-    // todo worker threads are not implemented.
+    /**
+     * Default number of milliseconds that a cohort member is given to respond to a request.
+     */
+    public static final long DEFAULT_MEMBER_TIMEOUT = 60000;
+
+    private static final int  MAX_WORKER_THREADS        = Math.max(4, Runtime.getRuntime().availableProcessors() * 4);
+    private static final int  MAX_QUEUED_REQUESTS       = MAX_WORKER_THREADS * 16;
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 60;
+
+    private static final ThreadPoolExecutor workerPool = createWorkerPool();
+
+    private long memberTimeout;
 
 
     /**
@@ -28,9 +67,63 @@ public class ParallelFederationControl extends FederationControlBase
     public ParallelFederationControl(String                        userId,
                                      List<OMRSRepositoryConnector> cohortConnectors,
                                      String                        methodName)
+    {
+        this(userId, cohortConnectors, methodName, DEFAULT_MEMBER_TIMEOUT);
+    }
+
+
+    /**
+     * Constructor for a federated query with a specific timeout for each cohort member.
+     *
+     * @param userId calling user
+     * @param cohortConnectors list of connectors to call
+     * @param methodName calling method
+     * @param memberTimeout number of milliseconds each cohort member is given to respond
+     */
+    public ParallelFederationControl(String                        userId,
+                                     List<OMRSRepositoryConnector> cohortConnectors,
+                                     String                        methodName,
+                                     long                          memberTimeout)
     {
         super(userId, cohortConnectors, methodName);
 
+        this.memberTimeout = memberTimeout;
+    }
+
+
+    /**
+     * Create the shared pool of worker threads.  The threads are daemon threads so they do not hold up
+     * the shutdown of the server.  If the pool and its queue are full, the request is run on the
+     * caller's thread, which slows the caller down rather than rejecting its request.
+     *
+     * @return thread pool
+     */
+    private static ThreadPoolExecutor createWorkerPool()
+    {
+        ThreadFactory threadFactory = new ThreadFactory()
+        {
+            private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "EnterpriseFederationWorker-" + threadNumber.getAndIncrement());
+
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_WORKER_THREADS,
+                                                         MAX_WORKER_THREADS,
+                                                         WORKER_KEEP_ALIVE_SECONDS,
+                                                         TimeUnit.SECONDS,
+                                                         new LinkedBlockingQueue<>(MAX_QUEUED_REQUESTS),
+                                                         threadFactory,
+                                                         new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+
+        return pool;
     }
 
 
@@ -43,19 +136,235 @@ public class ParallelFederationControl extends FederationControlBase
      */
     public void executeCommand(RepositoryExecutor executor) throws RepositoryErrorException
     {
-        if (super.cohortConnectors != null)
+        if (super.cohortConnectors == null)
         {
-            for (OMRSRepositoryConnector cohortConnector : cohortConnectors)
+            return;
+        }
+
+        List<OMRSMetadataCollection> metadataCollections   = new ArrayList<>();
+        List<String>                 metadataCollectionIds = new ArrayList<>();
+
+        for (OMRSRepositoryConnector cohortConnector : cohortConnectors)
+        {
+            if (cohortConnector != null)
+            {
+                OMRSMetadataCollection metadataCollection = cohortConnector.getMetadataCollection();
+
+                metadataCollectionIds.add(this.validateMetadataCollection(metadataCollection, methodName));
+                metadataCollections.add(metadataCollection);
+            }
+        }
+
+        try
+        {
+            if (metadataCollections.size() == 1)
+            {
+                /*
+                 * No benefit in handing the work to another thread.
+                 */
+                executor.issueRequestToRepository(metadataCollectionIds.get(0), metadataCollections.get(0));
+            }
+            else if (metadataCollections.size() > 1)
+            {
+                this.issueRequestsInParallel(executor, metadataCollections, metadataCollectionIds);
+            }
+        }
+        finally
+        {
+            executor.completeRequest(metadataCollectionIds);
+        }
+    }
+
+
+    /**
+     * Call each of the cohort members on a worker thread and wait until the results can be resolved in the
+     * order of the cohort members.
+     *
+     * @param executor command to execute
+     * @param metadataCollections metadata collections of the cohort members
+     * @param metadataCollectionIds identifiers of the metadata collections
+     */
+    private void issueRequestsInParallel(RepositoryExecutor           executor,
+                                         List<OMRSMetadataCollection> metadataCollections,
+                                         List<String>                 metadataCollectionIds)
+    {
+        final int memberCount = metadataCollections.size();
+
+        CompletionService<Boolean>    completionService = new ExecutorCompletionService<>(workerPool);
+        List<Future<Boolean>>         outstandingCalls  = new ArrayList<>();
+        Map<Future<Boolean>, Integer> memberIndexes     = new HashMap<>();
+        AtomicLongArray               startTimes        = new AtomicLongArray(memberCount);
+        Boolean[]                     memberResults     = new Boolean[memberCount];
+
+        try
+        {
+            for (int memberIndex = 0; memberIndex < memberCount; memberIndex++)
+            {
+                final int                    index                = memberIndex;
+                final RepositoryExecutor     memberExecutor       = this.getMemberExecutor(executor);
+                final String                 metadataCollectionId = metadataCollectionIds.get(memberIndex);
+                final OMRSMetadataCollection metadataCollection   = metadataCollections.get(memberIndex);
+
+                Future<Boolean> call = completionService.submit(() ->
+                                                                {
+                                                                    startTimes.set(index, System.currentTimeMillis());
+                                                                    return memberExecutor.issueRequestToRepository(metadataCollectionId,
+                                                                                                                   metadataCollection);
+                                                                });
+                outstandingCalls.add(call);
+                memberIndexes.put(call, memberIndex);
+            }
+
+            while (! this.resultsResolved(memberResults))
             {
-                if (cohortConnector != null)
+                Future<Boolean> completedCall = completionService.poll(this.getWaitTime(memberResults, startTimes),
+                                                                       TimeUnit.MILLISECONDS);
+
+                if (completedCall != null)
                 {
-                    OMRSMetadataCollection metadataCollection = cohortConnector.getMetadataCollection();
+                    memberResults[memberIndexes.get(completedCall)] = this.resultsComplete(completedCall);
 
-                    String metadataCollectionId = this.validateMetadataCollection(metadataCollection, methodName);
+                    if (Thread.currentThread().isInterrupted())
+                    {
+                        return;
+                    }
+                }
 
-                    executor.issueRequestToRepository(metadataCollectionId, metadataCollection);
+                /*
+                 * Members that have not responded in time are treated as having no results.
+                 */
+                long currentTime = System.currentTimeMillis();
+
+                for (int memberIndex = 0; memberIndex < memberCount; memberIndex++)
+                {
+                    long startTime = startTimes.get(memberIndex);
+
+                    if ((memberResults[memberIndex] == null) && (startTime != 0) && (currentTime - startTime >= memberTimeout))
+                    {
+                        memberResults[memberIndex] = false;
+                        outstandingCalls.get(memberIndex).cancel(true);
+                    }
                 }
             }
         }
+        catch (InterruptedException error)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            for (Future<Boolean> outstandingCall : outstandingCalls)
+            {
+                outstandingCall.cancel(true);
+            }
+        }
+    }
+
+
+    /**
+     * Determine whether the results can be resolved.  The members are considered in order.  The results are
+     * resolved when a member has achieved the required results and all of the members before it have responded,
+     * or when all of the members have responded.
+     *
+     * @param memberResults result from each member - null means the member has not responded yet
+     * @return boolean
+     */
+    private boolean resultsResolved(Boolean[] memberResults)
+    {
+        for (Boolean memberResult : memberResults)
+        {
+            if (memberResult == null)
+            {
+                return false;
+            }
+
+            if (memberResult)
+            {
+                return true;
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Return how long to wait for the next call to complete.  This is the time until the first of the members
+     * that are running a call reaches its timeout.  If none of the outstanding calls have started yet, they are
+     * waiting for a worker thread, and the wait is the member timeout.
+     *
+     * @param memberResults result from each member - null means the member has not responded yet
+     * @param startTimes time that each member's call started - zero means it has not started
+     * @return number of milliseconds
+     */
+    private long getWaitTime(Boolean[]       memberResults,
+                             AtomicLongArray startTimes)
+    {
+        long currentTime = System.currentTimeMillis();
+        long waitTime    = memberTimeout;
+
+        for (int memberIndex = 0; memberIndex < memberResults.length; memberIndex++)
+        {
+            long startTime = startTimes.get(memberIndex);
+
+            if ((memberResults[memberIndex] == null) && (startTime != 0))
+            {
+                waitTime = Math.min(waitTime, startTime + memberTimeout - currentTime);
+            }
+        }
+
+        return Math.max(waitTime, 0);
+    }
+
+
+    /**
+     * Return the executor that should be used to call a single cohort member.  Cloneable executors are cloned
+     * so each thread has its own copy.
+     *
+     * @param executor executor supplied by the caller
+     * @return executor to pass to a worker thread
+     */
+    private RepositoryExecutor getMemberExecutor(RepositoryExecutor executor)
+    {
+        if (executor instanceof CloneableRepositoryExecutor)
+        {
+            CloneableRepositoryExecutor clone = ((CloneableRepositoryExecutor) executor).getClone();
+
+            if (clone instanceof RepositoryExecutor)
+            {
+                return (RepositoryExecutor) clone;
+            }
+        }
+
+        return executor;
+    }
+
+
+    /**
+     * Extract the result from a completed call to a cohort member.
+     *
+     * @param completedCall future for the call
+     * @return boolean true means that the required results have been achieved
+     */
+    private boolean resultsComplete(Future<Boolean> completedCall)
+    {
+        try
+        {
+            return completedCall.get();
+        }
+        catch (ExecutionException | CancellationException error)
+        {
+            /*
+             * Executors capture the exceptions from the metadata collections so anything else is unexpected
+             * and is treated as no response from this cohort member.  A call is cancelled when its member
+             * has timed out.
+             */
+            return false;
+        }
+        catch (InterruptedException error)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 }
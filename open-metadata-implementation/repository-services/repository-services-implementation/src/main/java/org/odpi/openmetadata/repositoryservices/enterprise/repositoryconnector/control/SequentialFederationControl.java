@@ -8,6 +8,7 @@ import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.e
 import org.odpi.openmetadata.repositoryservices.ffdc.OMRSErrorCode;
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.RepositoryErrorException;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -40,27 +41,38 @@ public class SequentialFederationControl extends FederationControlBase
      */
     public void executeCommand(RepositoryExecutor executor) throws RepositoryErrorException
     {
-        if (super.cohortConnectors != null)
+        List<String> metadataCollectionIds = new ArrayList<>();
+
+        try
         {
-            for (OMRSRepositoryConnector cohortConnector : cohortConnectors)
+            if (super.cohortConnectors != null)
             {
-                if (cohortConnector != null)
+                for (OMRSRepositoryConnector cohortConnector : cohortConnectors)
                 {
-                    OMRSMetadataCollection metadataCollection = cohortConnector.getMetadataCollection();
+                    if (cohortConnector != null)
+                    {
+                        OMRSMetadataCollection metadataCollection = cohortConnector.getMetadataCollection();
 
-                    String metadataCollectionId = this.validateMetadataCollection(metadataCollection, methodName);
+                        String metadataCollectionId = this.validateMetadataCollection(metadataCollection, methodName);
 
-                    if (executor.issueRequestToRepository(metadataCollectionId, metadataCollection))
-                    {
-                        /*
-                         * The executor returns true if it has all of the results it needs.
-                         * If it returns false it means it needs more info from another repository
-                         */
-                        return;
+                        metadataCollectionIds.add(metadataCollectionId);
+
+                        if (executor.issueRequestToRepository(metadataCollectionId, metadataCollection))
+                        {
+                            /*
+                             * The executor returns true if it has all of the results it needs.
+                             * If it returns false it means it needs more info from another repository
+                             */
+                            return;
+                        }
                     }
                 }
             }
         }
+        finally
+        {
+            executor.completeRequest(metadataCollectionIds);
+        }
     }
 
 
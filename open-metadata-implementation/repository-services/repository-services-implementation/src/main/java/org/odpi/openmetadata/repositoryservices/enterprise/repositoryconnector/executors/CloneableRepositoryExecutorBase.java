@@ -5,6 +5,8 @@ package org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.
 
 import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.accumulators.QueryAccumulatorBase;
 
+import java.util.List;
+
 
 /**
  * CloneableRepositoryExecutorBase provides a base class for executors that can be cloned and run in
@@ -12,12 +14,30 @@ import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.a
  */
 abstract class CloneableRepositoryExecutorBase extends RepositoryExecutorBase implements CloneableRepositoryExecutor
 {
+    private QueryAccumulatorBase accumulator;
+
+
     CloneableRepositoryExecutorBase(String               userId,
                                     String               methodName,
                                     QueryAccumulatorBase accumulator)
     {
         super(userId, methodName);
 
+        this.accumulator = accumulator;
         accumulator.registerExecutor();
     }
+
+
+    /**
+     * Record that the federation control has finished calling the repositories.  The clones share the
+     * accumulator, so the results from any clone that is still running are ignored.
+     *
+     * @param metadataCollectionIds identifiers of the metadata collections that were called, in the order
+     *                              that their results take precedence
+     */
+    @Override
+    public void completeRequest(List<String> metadataCollectionIds)
+    {
+        accumulator.completeRequest();
+    }
 }
@@ -238,7 +238,10 @@ public class FindEntitiesByClassificationExecutor extends PageableRepositoryExec
             accumulator.captureGenericException(metadataCollectionId, error);
         }
 
-        return true;
+        /*
+         * The results from every repository are combined so the remaining repositories are always called.
+         */
+        return false;
     }
 
 
@@ -231,7 +231,10 @@ public class FindEntitiesByPropertyExecutor extends PageableRepositoryExecutorBa
             accumulator.captureGenericException(metadataCollectionId, error);
         }
 
-        return true;
+        /*
+         * The results from every repository are combined so the remaining repositories are always called.
+         */
+        return false;
     }
 
 
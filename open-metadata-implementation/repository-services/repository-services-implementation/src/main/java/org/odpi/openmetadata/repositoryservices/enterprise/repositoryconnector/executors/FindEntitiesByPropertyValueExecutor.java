@@ -224,7 +224,10 @@ public class FindEntitiesByPropertyValueExecutor extends PageableRepositoryExecu
             accumulator.captureGenericException(metadataCollectionId, error);
         }
 
-        return true;
+        /*
+         * The results from every repository are combined so the remaining repositories are always called.
+         */
+        return false;
     }
 
 
@@ -234,7 +234,10 @@ public class FindEntitiesExecutor extends PageableRepositoryExecutorBase
             accumulator.captureGenericException(metadataCollectionId, error);
         }
 
-        return true;
+        /*
+         * The results from every repository are combined so the remaining repositories are always called.
+         */
+        return false;
     }
 
 
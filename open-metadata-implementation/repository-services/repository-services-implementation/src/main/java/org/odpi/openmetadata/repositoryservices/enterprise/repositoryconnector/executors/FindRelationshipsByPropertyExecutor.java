@@ -230,7 +230,10 @@ public class FindRelationshipsByPropertyExecutor extends PageableRepositoryExecu
             accumulator.captureGenericException(metadataCollectionId, error);
         }
 
-        return true;
+        /*
+         * The results from every repository are combined so the remaining repositories are always called.
+         */
+        return false;
     }
 
 
@@ -218,7 +218,10 @@ public class FindRelationshipsByPropertyValueExecutor extends PageableRepository
             accumulator.captureGenericException(metadataCollectionId, error);
         }
 
-        return true;
+        /*
+         * The results from every repository are combined so the remaining repositories are always called.
+         */
+        return false;
     }
 
 
@@ -228,7 +228,10 @@ public class FindRelationshipsExecutor extends PageableRepositoryExecutorBase
             accumulator.captureGenericException(metadataCollectionId, error);
         }
 
-        return true;
+        /*
+         * The results from every repository are combined so the remaining repositories are always called.
+         */
+        return false;
     }
 
 
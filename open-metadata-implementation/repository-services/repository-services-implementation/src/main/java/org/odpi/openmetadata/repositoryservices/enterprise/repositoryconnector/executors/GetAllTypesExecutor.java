@@ -99,7 +99,10 @@ public class GetAllTypesExecutor extends CloneableRepositoryExecutorBase
             accumulator.captureGenericException(metadataCollectionId, error);
         }
 
-        return true;
+        /*
+         * The results from every repository are combined so the remaining repositories are always called.
+         */
+        return false;
     }
 
 
@@ -0,0 +1,216 @@
+/* SPDX-License-Identifier: Apache 2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.executors;
+
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.OMRSMetadataCollection;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.accumulators.MaintenanceAccumulator;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GetEntitiesExecutor provides the executor for the areEntitiesKnown and getEntityDetails methods.
+ * Each repository is asked for all of the requested entities in a single request.
+ */
+public class GetEntitiesExecutor extends RepositoryExecutorBase
+{
+    private List<String>                           entityGUIDs;
+    private Map<String, Map<String, EntityDetail>> memberResults = new LinkedHashMap<>();
+    private MaintenanceAccumulator                 accumulator   = new MaintenanceAccumulator();
+    private List<String>                           memberOrder   = null;
+
+
+    /**
+     * Constructor takes the parameters for the request.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityGUIDs unique identifiers (guids) for the entities.
+     * @param methodName calling method
+     */
+    public GetEntitiesExecutor(String        userId,
+                               List<String>  entityGUIDs,
+                               String        methodName)
+    {
+        super(userId, methodName);
+
+        this.entityGUIDs = entityGUIDs;
+    }
+
+
+    /**
+     * Perform the required action for the supplied repository.
+     * The entities returned by each repository are saved.  Once all of the repositories have been called,
+     * each entity is taken from the first repository (in the order supplied by the federation control) that
+     * returned it.  Some repositories may produce exceptions.  These exceptions are saved and will be returned
+     * if there are no positive results from any repository.
+     *
+     * @param metadataCollectionId unique identifier for the metadata collection for the repository
+     * @param metadataCollection metadata collection object for the repository
+     * @return boolean true means that the required results have been achieved
+     */
+    public boolean issueRequestToRepository(String                 metadataCollectionId,
+                                            OMRSMetadataCollection metadataCollection)
+    {
+        boolean result = false;
+
+        try
+        {
+            /*
+             * Issue the request and save any entities it returns
+             */
+            List<EntityDetail> resultingEntities = metadataCollection.areEntitiesKnown(userId, entityGUIDs);
+
+            Map<String, EntityDetail> memberResult = new HashMap<>();
+
+            if (resultingEntities != null)
+            {
+                for (EntityDetail resultingEntity : resultingEntities)
+                {
+                    if ((resultingEntity != null) && (resultingEntity.getGUID() != null))
+                    {
+                        memberResult.put(resultingEntity.getGUID(), resultingEntity);
+                    }
+                }
+            }
+
+            /*
+             * The executor may be called from many threads at once.  The request is complete once a repository
+             * returns all of the entities since no later repository could take precedence over it.
+             */
+            synchronized (this)
+            {
+                if (memberOrder == null)
+                {
+                    memberResults.put(metadataCollectionId, memberResult);
+                }
+            }
+
+            result = memberResult.keySet().containsAll(entityGUIDs);
+        }
+        catch (InvalidParameterException error)
+        {
+            accumulator.captureException(error);
+        }
+        catch (RepositoryErrorException error)
+        {
+            accumulator.captureException(error);
+        }
+        catch (UserNotAuthorizedException error)
+        {
+            accumulator.captureException(error);
+        }
+        catch (Throwable error)
+        {
+            accumulator.captureGenericException(error);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Record that the federation control has finished calling the repositories.  Results from calls
+     * that are still running are ignored.
+     *
+     * @param metadataCollectionIds identifiers of the metadata collections that were called, in the order
+     *                              that their results take precedence
+     */
+    @Override
+    public synchronized void completeRequest(List<String> metadataCollectionIds)
+    {
+        memberOrder = metadataCollectionIds;
+        accumulator.completeRequest();
+    }
+
+
+    /**
+     * Return each of the entities returned, taken from the first repository that returned it.  If the federation
+     * control has not supplied the order of the repositories, the repositories were called one at a time and
+     * the order that they returned their results is used.
+     *
+     * @return map of guid to entity
+     */
+    private synchronized Map<String, EntityDetail> getRetrievedEntities()
+    {
+        Map<String, EntityDetail> retrievedEntities = new HashMap<>();
+        Iterable<String>          memberIds         = memberOrder;
+
+        if (memberIds == null)
+        {
+            memberIds = memberResults.keySet();
+        }
+
+        for (String metadataCollectionId : memberIds)
+        {
+            Map<String, EntityDetail> memberResult = memberResults.get(metadataCollectionId);
+
+            if (memberResult != null)
+            {
+                for (String entityGUID : memberResult.keySet())
+                {
+                    retrievedEntities.putIfAbsent(entityGUID, memberResult.get(entityGUID));
+                }
+            }
+        }
+
+        return retrievedEntities;
+    }
+
+
+    /**
+     * Returns the entities that are stored in the cohort's metadata collections in the order that they were requested.
+     *
+     * @return list of entities that are found; null means none of them are found
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public synchronized List<EntityDetail> areEntitiesKnown() throws InvalidParameterException,
+                                                                     RepositoryErrorException,
+                                                                     UserNotAuthorizedException
+    {
+        Map<String, EntityDetail> retrievedEntities = this.getRetrievedEntities();
+
+        if (! retrievedEntities.isEmpty())
+        {
+            List<EntityDetail> entities = new ArrayList<>();
+
+            for (String entityGUID : entityGUIDs)
+            {
+                EntityDetail entity = retrievedEntities.get(entityGUID);
+
+                if (entity != null)
+                {
+                    entities.add(entity);
+                }
+            }
+
+            return entities;
+        }
+
+        accumulator.throwCapturedRepositoryErrorException();
+        accumulator.throwCapturedUserNotAuthorizedException();
+        accumulator.throwCapturedInvalidParameterException();
+
+        return null;
+    }
+
+
+    /**
+     * Return the entity retrieved for the requested guid.
+     *
+     * @param entityGUID unique identifier of the entity
+     * @return entity or null if no repository returned it
+     */
+    public synchronized EntityDetail getRetrievedEntity(String entityGUID)
+    {
+        return this.getRetrievedEntities().get(entityGUID);
+    }
+}
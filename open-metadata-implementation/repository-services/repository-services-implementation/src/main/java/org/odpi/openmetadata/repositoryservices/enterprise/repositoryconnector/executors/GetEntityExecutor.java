@@ -9,17 +9,21 @@ import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.a
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
 
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * GetEntityExecutor provides the executor for the isEntityKnown and getEntityDetail methods.
  */
 public class GetEntityExecutor extends RepositoryExecutorBase
 {
-    private String                 entityGUID;
-    private boolean                allExceptions   = true;
-    private Date                   asOfTime        = null;
-    private EntityDetail           retrievedEntity = null;
-    private MaintenanceAccumulator accumulator     = new MaintenanceAccumulator();
+    private String                    entityGUID;
+    private boolean                   allExceptions = true;
+    private Date                      asOfTime      = null;
+    private MaintenanceAccumulator    accumulator   = new MaintenanceAccumulator();
+    private Map<String, EntityDetail> memberResults = new LinkedHashMap<>();
+    private List<String>              memberOrder   = null;
 
 
 
@@ -80,6 +84,8 @@ public class GetEntityExecutor extends RepositoryExecutorBase
 
         try
         {
+            EntityDetail resultingEntity;
+
             /*
              * Issue the request and return if it succeeds
              */
@@ -87,23 +93,35 @@ public class GetEntityExecutor extends RepositoryExecutorBase
             {
                 if (allExceptions)
                 {
-                    retrievedEntity = metadataCollection.getEntityDetail(userId,
+                    resultingEntity = metadataCollection.getEntityDetail(userId,
                                                                          entityGUID);
                 }
                 else
                 {
-                    retrievedEntity = metadataCollection.isEntityKnown(userId,
+                    resultingEntity = metadataCollection.isEntityKnown(userId,
                                                                        entityGUID);
                 }
             }
             else
             {
-                retrievedEntity = metadataCollection.getEntityDetail(userId,
+                resultingEntity = metadataCollection.getEntityDetail(userId,
                                                                      entityGUID,
                                                                      asOfTime);
             }
-            if (retrievedEntity != null)
+            if (resultingEntity != null)
             {
+                /*
+                 * The executor may be called from many threads at once.  The result is chosen once all of the
+                 * repositories have been called, so the repositories that come first take precedence.
+                 */
+                synchronized (this)
+                {
+                    if (memberOrder == null)
+                    {
+                        memberResults.put(metadataCollectionId, resultingEntity);
+                    }
+                }
+
                 result = true;
             }
         }
@@ -136,6 +154,54 @@ public class GetEntityExecutor extends RepositoryExecutorBase
     }
 
 
+    /**
+     * Record that the federation control has finished calling the repositories.  Results from calls
+     * that are still running are ignored.
+     *
+     * @param metadataCollectionIds identifiers of the metadata collections that were called, in the order
+     *                              that their results take precedence
+     */
+    @Override
+    public synchronized void completeRequest(List<String> metadataCollectionIds)
+    {
+        memberOrder = metadataCollectionIds;
+        accumulator.completeRequest();
+    }
+
+
+    /**
+     * Return the entity from the first repository that returned it.  If the federation control has not
+     * supplied the order of the repositories, the repositories were called one at a time and the order that
+     * they returned their results is used.
+     *
+     * @return entity or null if no repository returned it
+     */
+    private synchronized EntityDetail getRetrievedEntity()
+    {
+        if (memberOrder != null)
+        {
+            for (String metadataCollectionId : memberOrder)
+            {
+                EntityDetail entity = memberResults.get(metadataCollectionId);
+
+                if (entity != null)
+                {
+                    return entity;
+                }
+            }
+
+            return null;
+        }
+
+        if (! memberResults.isEmpty())
+        {
+            return memberResults.values().iterator().next();
+        }
+
+        return null;
+    }
+
+
     /**
      * Returns the entity if the entity is stored in the metadata collection, otherwise null.
      *
@@ -149,9 +215,11 @@ public class GetEntityExecutor extends RepositoryExecutorBase
                                                 RepositoryErrorException,
                                                 UserNotAuthorizedException
     {
-        if (retrievedEntity != null)
+        EntityDetail entity = this.getRetrievedEntity();
+
+        if (entity != null)
         {
-            return retrievedEntity;
+            return entity;
         }
 
         accumulator.throwCapturedRepositoryErrorException();
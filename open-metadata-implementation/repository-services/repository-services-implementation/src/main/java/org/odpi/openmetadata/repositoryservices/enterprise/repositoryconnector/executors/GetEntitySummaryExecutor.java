@@ -8,15 +8,20 @@ import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollec
 import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.accumulators.MaintenanceAccumulator;
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 
 /**
  * GetEntitySummaryExecutor provides the executor for the getEntitySummary method.
  */
 public class GetEntitySummaryExecutor extends RepositoryExecutorBase
 {
-    private String                 entityGUID;
-    private EntitySummary          retrievedEntity = null;
-    private MaintenanceAccumulator accumulator     = new MaintenanceAccumulator();
+    private String                     entityGUID;
+    private MaintenanceAccumulator     accumulator   = new MaintenanceAccumulator();
+    private Map<String, EntitySummary> memberResults = new LinkedHashMap<>();
+    private List<String>               memberOrder   = null;
 
 
 
@@ -54,13 +59,27 @@ public class GetEntitySummaryExecutor extends RepositoryExecutorBase
 
         try
         {
+            EntitySummary resultingEntity;
+
             /*
              * Issue the request and return if it succeeds
              */
-            retrievedEntity = metadataCollection.getEntitySummary(userId, entityGUID);
+            resultingEntity = metadataCollection.getEntitySummary(userId, entityGUID);
 
-            if (retrievedEntity != null)
+            if (resultingEntity != null)
             {
+                /*
+                 * The executor may be called from many threads at once.  The result is chosen once all of the
+                 * repositories have been called, so the repositories that come first take precedence.
+                 */
+                synchronized (this)
+                {
+                    if (memberOrder == null)
+                    {
+                        memberResults.put(metadataCollectionId, resultingEntity);
+                    }
+                }
+
                 result = true;
             }
         }
@@ -89,6 +108,54 @@ public class GetEntitySummaryExecutor extends RepositoryExecutorBase
     }
 
 
+    /**
+     * Record that the federation control has finished calling the repositories.  Results from calls
+     * that are still running are ignored.
+     *
+     * @param metadataCollectionIds identifiers of the metadata collections that were called, in the order
+     *                              that their results take precedence
+     */
+    @Override
+    public synchronized void completeRequest(List<String> metadataCollectionIds)
+    {
+        memberOrder = metadataCollectionIds;
+        accumulator.completeRequest();
+    }
+
+
+    /**
+     * Return the entity from the first repository that returned it.  If the federation control has not
+     * supplied the order of the repositories, the repositories were called one at a time and the order that
+     * they returned their results is used.
+     *
+     * @return entity or null if no repository returned it
+     */
+    private synchronized EntitySummary getRetrievedEntity()
+    {
+        if (memberOrder != null)
+        {
+            for (String metadataCollectionId : memberOrder)
+            {
+                EntitySummary entity = memberResults.get(metadataCollectionId);
+
+                if (entity != null)
+                {
+                    return entity;
+                }
+            }
+
+            return null;
+        }
+
+        if (! memberResults.isEmpty())
+        {
+            return memberResults.values().iterator().next();
+        }
+
+        return null;
+    }
+
+
     /**
      * Return the header and classifications for a specific entity.  The returned entity summary may be from
      * a full entity object or an entity proxy.
@@ -105,9 +172,11 @@ public class GetEntitySummaryExecutor extends RepositoryExecutorBase
                                                     EntityNotKnownException,
                                                     UserNotAuthorizedException
     {
-        if (retrievedEntity != null)
+        EntitySummary entity = this.getRetrievedEntity();
+
+        if (entity != null)
         {
-            return retrievedEntity;
+            return entity;
         }
 
         accumulator.throwCapturedEntityNotKnownException();
@@ -9,17 +9,21 @@ import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.a
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
 
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * GetRelationshipExecutor provides the executor for the isRelationshipKnown and getRelationship methods.
  */
 public class GetRelationshipExecutor extends RepositoryExecutorBase
 {
-    private String                 relationshipGUID;
-    private boolean                allExceptions         = true;
-    private Date                   asOfTime              = null;
-    private Relationship           retrievedRelationship = null;
-    private MaintenanceAccumulator accumulator           = new MaintenanceAccumulator();
+    private String                    relationshipGUID;
+    private boolean                   allExceptions    = true;
+    private Date                      asOfTime         = null;
+    private MaintenanceAccumulator    accumulator      = new MaintenanceAccumulator();
+    private Map<String, Relationship> memberResults    = new LinkedHashMap<>();
+    private List<String>              memberOrder      = null;
 
 
 
@@ -80,6 +84,8 @@ public class GetRelationshipExecutor extends RepositoryExecutorBase
 
         try
         {
+            Relationship resultingRelationship;
+
             /*
              * Issue the request and return if it succeeds
              */
@@ -87,23 +93,35 @@ public class GetRelationshipExecutor extends RepositoryExecutorBase
             {
                 if (allExceptions)
                 {
-                    retrievedRelationship = metadataCollection.getRelationship(userId,
+                    resultingRelationship = metadataCollection.getRelationship(userId,
                                                                                relationshipGUID);
                 }
                 else
                 {
-                    retrievedRelationship = metadataCollection.isRelationshipKnown(userId,
+                    resultingRelationship = metadataCollection.isRelationshipKnown(userId,
                                                                                    relationshipGUID);
                 }
             }
             else
             {
-                retrievedRelationship = metadataCollection.getRelationship(userId,
+                resultingRelationship = metadataCollection.getRelationship(userId,
                                                                            relationshipGUID,
                                                                            asOfTime);
             }
-            if (retrievedRelationship != null)
+            if (resultingRelationship != null)
             {
+                /*
+                 * The executor may be called from many threads at once.  The result is chosen once all of the
+                 * repositories have been called, so the repositories that come first take precedence.
+                 */
+                synchronized (this)
+                {
+                    if (memberOrder == null)
+                    {
+                        memberResults.put(metadataCollectionId, resultingRelationship);
+                    }
+                }
+
                 result = true;
             }
         }
@@ -132,6 +150,54 @@ public class GetRelationshipExecutor extends RepositoryExecutorBase
     }
 
 
+    /**
+     * Record that the federation control has finished calling the repositories.  Results from calls
+     * that are still running are ignored.
+     *
+     * @param metadataCollectionIds identifiers of the metadata collections that were called, in the order
+     *                              that their results take precedence
+     */
+    @Override
+    public synchronized void completeRequest(List<String> metadataCollectionIds)
+    {
+        memberOrder = metadataCollectionIds;
+        accumulator.completeRequest();
+    }
+
+
+    /**
+     * Return the relationship from the first repository that returned it.  If the federation control has not
+     * supplied the order of the repositories, the repositories were called one at a time and the order that
+     * they returned their results is used.
+     *
+     * @return relationship or null if no repository returned it
+     */
+    private synchronized Relationship getRetrievedRelationship()
+    {
+        if (memberOrder != null)
+        {
+            for (String metadataCollectionId : memberOrder)
+            {
+                Relationship relationship = memberResults.get(metadataCollectionId);
+
+                if (relationship != null)
+                {
+                    return relationship;
+                }
+            }
+
+            return null;
+        }
+
+        if (! memberResults.isEmpty())
+        {
+            return memberResults.values().iterator().next();
+        }
+
+        return null;
+    }
+
+
     /**
      * Returns a boolean indicating if the relationship is stored in the metadata collection.
      *
@@ -145,9 +211,11 @@ public class GetRelationshipExecutor extends RepositoryExecutorBase
                                                       RepositoryErrorException,
                                                       UserNotAuthorizedException
     {
-        if (retrievedRelationship != null)
+        Relationship relationship = this.getRetrievedRelationship();
+
+        if (relationship != null)
         {
-            return retrievedRelationship;
+            return relationship;
         }
 
         accumulator.throwCapturedRepositoryErrorException();
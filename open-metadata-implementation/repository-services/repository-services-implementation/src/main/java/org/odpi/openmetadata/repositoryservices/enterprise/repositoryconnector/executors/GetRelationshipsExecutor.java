@@ -0,0 +1,217 @@
+/* SPDX-License-Identifier: Apache 2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.executors;
+
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.OMRSMetadataCollection;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Relationship;
+import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.accumulators.MaintenanceAccumulator;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GetRelationshipsExecutor provides the executor for the areRelationshipsKnown and getRelationships methods.
+ * Each repository is asked for all of the requested relationships in a single request.
+ */
+public class GetRelationshipsExecutor extends RepositoryExecutorBase
+{
+    private List<String>                           relationshipGUIDs;
+    private Map<String, Map<String, Relationship>> memberResults = new LinkedHashMap<>();
+    private MaintenanceAccumulator                 accumulator   = new MaintenanceAccumulator();
+    private List<String>                           memberOrder   = null;
+
+
+    /**
+     * Constructor takes the parameters for the request.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param relationshipGUIDs unique identifiers (guids) for the relationships.
+     * @param methodName calling method
+     */
+    public GetRelationshipsExecutor(String        userId,
+                                    List<String>  relationshipGUIDs,
+                                    String        methodName)
+    {
+        super(userId, methodName);
+
+        this.relationshipGUIDs = relationshipGUIDs;
+    }
+
+
+    /**
+     * Perform the required action for the supplied repository.
+     * The relationships returned by each repository are saved.  Once all of the repositories have been called,
+     * each relationship is taken from the first repository (in the order supplied by the federation control) that
+     * returned it.  Some repositories may produce exceptions.  These exceptions are saved and will be returned
+     * if there are no positive results from any repository.
+     *
+     * @param metadataCollectionId unique identifier for the metadata collection for the repository
+     * @param metadataCollection metadata collection object for the repository
+     * @return boolean true means that the required results have been achieved
+     */
+    public boolean issueRequestToRepository(String                 metadataCollectionId,
+                                            OMRSMetadataCollection metadataCollection)
+    {
+        boolean result = false;
+
+        try
+        {
+            /*
+             * Issue the request and save any relationships it returns
+             */
+            List<Relationship> resultingRelationships = metadataCollection.areRelationshipsKnown(userId, relationshipGUIDs);
+
+            Map<String, Relationship> memberResult = new HashMap<>();
+
+            if (resultingRelationships != null)
+            {
+                for (Relationship resultingRelationship : resultingRelationships)
+                {
+                    if ((resultingRelationship != null) && (resultingRelationship.getGUID() != null))
+                    {
+                        memberResult.put(resultingRelationship.getGUID(), resultingRelationship);
+                    }
+                }
+            }
+
+            /*
+             * The executor may be called from many threads at once.  The request is complete once a repository
+             * returns all of the relationships since no later repository could take precedence over it.
+             */
+            synchronized (this)
+            {
+                if (memberOrder == null)
+                {
+                    memberResults.put(metadataCollectionId, memberResult);
+                }
+            }
+
+            result = memberResult.keySet().containsAll(relationshipGUIDs);
+        }
+        catch (InvalidParameterException error)
+        {
+            accumulator.captureException(error);
+        }
+        catch (RepositoryErrorException error)
+        {
+            accumulator.captureException(error);
+        }
+        catch (UserNotAuthorizedException error)
+        {
+            accumulator.captureException(error);
+        }
+        catch (Throwable error)
+        {
+            accumulator.captureGenericException(error);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Record that the federation control has finished calling the repositories.  Results from calls
+     * that are still running are ignored.
+     *
+     * @param metadataCollectionIds identifiers of the metadata collections that were called, in the order
+     *                              that their results take precedence
+     */
+    @Override
+    public synchronized void completeRequest(List<String> metadataCollectionIds)
+    {
+        memberOrder = metadataCollectionIds;
+        accumulator.completeRequest();
+    }
+
+
+    /**
+     * Return each of the relationships returned, taken from the first repository that returned it.  If the federation
+     * control has not supplied the order of the repositories, the repositories were called one at a time and
+     * the order that they returned their results is used.
+     *
+     * @return map of guid to relationship
+     */
+    private synchronized Map<String, Relationship> getRetrievedRelationships()
+    {
+        Map<String, Relationship> retrievedRelationships = new HashMap<>();
+        Iterable<String>          memberIds              = memberOrder;
+
+        if (memberIds == null)
+        {
+            memberIds = memberResults.keySet();
+        }
+
+        for (String metadataCollectionId : memberIds)
+        {
+            Map<String, Relationship> memberResult = memberResults.get(metadataCollectionId);
+
+            if (memberResult != null)
+            {
+                for (String relationshipGUID : memberResult.keySet())
+                {
+                    retrievedRelationships.putIfAbsent(relationshipGUID, memberResult.get(relationshipGUID));
+                }
+            }
+        }
+
+        return retrievedRelationships;
+    }
+
+
+    /**
+     * Returns the relationships that are stored in the cohort's metadata collections in the order that they were
+     * requested.
+     *
+     * @return list of relationships that are found; null means none of them are found
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public synchronized List<Relationship> areRelationshipsKnown() throws InvalidParameterException,
+                                                                          RepositoryErrorException,
+                                                                          UserNotAuthorizedException
+    {
+        Map<String, Relationship> retrievedRelationships = this.getRetrievedRelationships();
+
+        if (! retrievedRelationships.isEmpty())
+        {
+            List<Relationship> relationships = new ArrayList<>();
+
+            for (String relationshipGUID : relationshipGUIDs)
+            {
+                Relationship relationship = retrievedRelationships.get(relationshipGUID);
+
+                if (relationship != null)
+                {
+                    relationships.add(relationship);
+                }
+            }
+
+            return relationships;
+        }
+
+        accumulator.throwCapturedRepositoryErrorException();
+        accumulator.throwCapturedUserNotAuthorizedException();
+        accumulator.throwCapturedInvalidParameterException();
+
+        return null;
+    }
+
+
+    /**
+     * Return the relationship retrieved for the requested guid.
+     *
+     * @param relationshipGUID unique identifier of the relationship
+     * @return relationship or null if no repository returned it
+     */
+    public synchronized Relationship getRetrievedRelationship(String relationshipGUID)
+    {
+        return this.getRetrievedRelationships().get(relationshipGUID);
+    }
+}
@@ -217,7 +217,10 @@ public class GetRelationshipsForEntityExecutor extends PageableRepositoryExecuto
             accumulator.captureGenericException(metadataCollectionId, error);
         }
 
-        return true;
+        /*
+         * The results from every repository are combined so the remaining repositories are always called.
+         */
+        return false;
     }
 
 
@@ -5,6 +5,8 @@ package org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.
 
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.OMRSMetadataCollection;
 
+import java.util.List;
+
 public interface RepositoryExecutor
 {
     /**
@@ -16,4 +18,14 @@ public interface RepositoryExecutor
      */
     boolean issueRequestToRepository(String                 metadataCollectionId,
                                      OMRSMetadataCollection metadataCollection);
+
+
+    /**
+     * Record that the federation control has finished calling the repositories.  Results from calls
+     * that are still running are ignored.
+     *
+     * @param metadataCollectionIds identifiers of the metadata collections that were called, in the order
+     *                              that their results take precedence
+     */
+    void completeRequest(List<String> metadataCollectionIds);
 }
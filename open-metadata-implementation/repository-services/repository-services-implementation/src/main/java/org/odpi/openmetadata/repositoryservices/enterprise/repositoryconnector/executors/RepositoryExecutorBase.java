@@ -4,6 +4,8 @@ package org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.
 
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.OMRSMetadataCollection;
 
+import java.util.List;
+
 public abstract class RepositoryExecutorBase implements RepositoryExecutor
 {
     protected String methodName;
@@ -42,4 +44,16 @@ public abstract class RepositoryExecutorBase implements RepositoryExecutor
      */
     public abstract boolean issueRequestToRepository(String                 metadataCollectionId,
                                                      OMRSMetadataCollection metadataCollection);
+
+
+    /**
+     * Record that the federation control has finished calling the repositories.  Executors that are only
+     * called one repository at a time have nothing to do.
+     *
+     * @param metadataCollectionIds identifiers of the metadata collections that were called, in the order
+     *                              that their results take precedence
+     */
+    public void completeRequest(List<String> metadataCollectionIds)
+    {
+    }
 }
@@ -0,0 +1,404 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.eventmanagement;
+
+import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
+import org.odpi.openmetadata.repositoryservices.connectors.omrstopic.InternalOMRSEventProcessingContext;
+import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEvent;
+import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEventProcessorInterface;
+import org.odpi.openmetadata.repositoryservices.events.future.CompletedFuture;
+import org.odpi.openmetadata.repositoryservices.events.future.DelegatableFuture;
+import org.odpi.openmetadata.repositoryservices.events.future.OMRSFuture;
+import org.odpi.openmetadata.repositoryservices.ffdc.OMRSAuditCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * OMRSInstanceEventConsumerQueue passes instance events to a single consumer of an OMRSRepositoryEventManager
+ * using its own worker threads, so a slow consumer does not hold up the other consumers or the component sending
+ * the events.  Each worker thread has its own queue.  The events for an instance (identified by a partition key -
+ * typically the instance's GUID) always go to the same worker so they are processed in the order they were sent.
+ * Events for different instances may be processed in parallel, so a consumer must be able to handle calls from
+ * several threads at once if there is more than one worker.
+ * <p>
+ * An event without a partition key (such as an event that affects several instances) is placed on every
+ * worker's queue.  It is processed once all of the workers have reached it, and none of the workers moves on
+ * until it has been processed.  This means it is ordered with respect to all of the other events.
+ * </p>
+ * <p>
+ * Each queue holds a limited number of events.  Once it is full, the sender waits until the worker has caught up.
+ * Worker threads are never made to wait since a consumer may send events back into an event manager
+ * and waiting could then deadlock.
+ * </p>
+ * <p>
+ * The event is added to the asynchronous processing results of the sender's InternalOMRSEventProcessingContext,
+ * so the event bus connector does not consider the event processed until the consumer has finished with it.
+ * Once the queue is stopped, new events are refused and the events still queued are discarded.  The futures
+ * of these events are completed so the event bus connector is not left waiting for them.
+ * </p>
+ */
+class OMRSInstanceEventConsumerQueue
+{
+    private static final Logger log = LoggerFactory.getLogger(OMRSInstanceEventConsumerQueue.class);
+
+    private static final String                THREAD_NAME_DESCRIPTION = " instance event worker ";
+    private static final ThreadLocal<Boolean>  isWorkerThread          = new ThreadLocal<>();
+
+    private final String                              eventManagerName;
+    private final String                              consumerName;
+    private final OMRSInstanceEventProcessorInterface consumer;
+    private final AuditLog                            auditLog;
+    private final int                                 maxQueueSize;
+    private final List<Worker>                        workers      = new ArrayList<>();
+    private final Object                              queueSpace   = new Object();
+    private volatile boolean                          keepRunning  = true;
+
+
+    /**
+     * An event waiting to be passed to the consumer.
+     */
+    private static class QueuedEvent
+    {
+        private final OMRSInstanceEvent event;
+        private final String            messageId;
+        private final DelegatableFuture future = new DelegatableFuture();
+        private final AtomicBoolean     complete = new AtomicBoolean(false);
+        private final long              queuedTime = System.currentTimeMillis();
+        private final AtomicInteger     workersToArrive;
+        private final CountDownLatch    processed = new CountDownLatch(1);
+
+        /**
+         * Constructor.
+         *
+         * @param event event to pass to the consumer
+         * @param messageId identifier of the message that the event came from
+         * @param workerCount number of workers that must reach the event before it is processed
+         */
+        QueuedEvent(OMRSInstanceEvent event, String messageId, int workerCount)
+        {
+            this.event = event;
+            this.messageId = messageId;
+            this.workersToArrive = new AtomicInteger(workerCount);
+        }
+
+
+        /**
+         * Link the future given to the sender to the result of processing the event.  Only the first call
+         * has any effect.
+         *
+         * @param result result of processing the event
+         */
+        void complete(OMRSFuture result)
+        {
+            if (complete.compareAndSet(false, true))
+            {
+                future.setDelegate(result);
+            }
+        }
+    }
+
+
+    /**
+     * A worker thread and its queue of events.
+     */
+    private class Worker implements Runnable
+    {
+        private final BlockingQueue<QueuedEvent> queue = new LinkedBlockingQueue<>();
+        private Thread                           thread = null;
+
+
+        /**
+         * Take events from the queue and pass them to the consumer until the queue is stopped.
+         */
+        @Override
+        public void run()
+        {
+            isWorkerThread.set(Boolean.TRUE);
+
+            while (keepRunning)
+            {
+                try
+                {
+                    QueuedEvent queuedEvent = queue.take();
+
+                    synchronized (queueSpace)
+                    {
+                        queueSpace.notifyAll();
+                    }
+
+                    if (queuedEvent.workersToArrive.decrementAndGet() == 0)
+                    {
+                        try
+                        {
+                            processEvent(queuedEvent);
+                        }
+                        finally
+                        {
+                            queuedEvent.processed.countDown();
+                        }
+                    }
+                    else
+                    {
+                        /*
+                         * The event is on the queues of the other workers too.  Wait for the last of them to
+                         * reach it and process it.
+                         */
+                        queuedEvent.processed.await();
+                    }
+                }
+                catch (InterruptedException wakeUp)
+                {
+                    log.debug("Instance event worker woken up");
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Create the queue and start its worker threads.
+     *
+     * @param eventManagerName name of the event manager - passed to the consumer as the source of the events
+     * @param consumerName name of the consumer for diagnostics
+     * @param consumer consumer to receive the events
+     * @param workerCount number of worker threads
+     * @param maxQueueSize maximum number of events waiting for each worker
+     * @param auditLog logging destination
+     */
+    OMRSInstanceEventConsumerQueue(String                              eventManagerName,
+                                   String                              consumerName,
+                                   OMRSInstanceEventProcessorInterface consumer,
+                                   int                                 workerCount,
+                                   int                                 maxQueueSize,
+                                   AuditLog                            auditLog)
+    {
+        this.eventManagerName = eventManagerName;
+        this.consumerName = consumerName;
+        this.consumer = consumer;
+        this.maxQueueSize = maxQueueSize;
+        this.auditLog = auditLog;
+
+        for (int i = 0; i < workerCount; i++)
+        {
+            Worker worker = new Worker();
+
+            worker.thread = new Thread(worker, consumerName + THREAD_NAME_DESCRIPTION + i);
+            worker.thread.setDaemon(true);
+            worker.thread.start();
+
+            workers.add(worker);
+        }
+    }
+
+
+    /**
+     * Queue an event for the consumer.
+     *
+     * @param event event to send
+     * @param partitionKey key that selects the worker - events with the same key are processed in order.
+     *                     Null means the event is ordered with respect to all other events.
+     */
+    void addEvent(OMRSInstanceEvent event,
+                  String            partitionKey)
+    {
+        InternalOMRSEventProcessingContext context = InternalOMRSEventProcessingContext.getInstance();
+        List<Worker>                       targets = workers;
+
+        if ((partitionKey != null) && (workers.size() > 1))
+        {
+            targets = new ArrayList<>();
+            targets.add(workers.get((partitionKey.hashCode() & Integer.MAX_VALUE) % workers.size()));
+        }
+
+        QueuedEvent queuedEvent = new QueuedEvent(event, context.getCurrentMessageId(), targets.size());
+
+        context.addAsyncProcessingResult(queuedEvent.future);
+
+        synchronized (queueSpace)
+        {
+            if (isWorkerThread.get() == null)
+            {
+                while ((keepRunning) && (isFull(targets)))
+                {
+                    try
+                    {
+                        queueSpace.wait(1000);
+                    }
+                    catch (InterruptedException interrupted)
+                    {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+
+            if (keepRunning)
+            {
+                for (Worker worker : targets)
+                {
+                    worker.queue.add(queuedEvent);
+                }
+
+                return;
+            }
+        }
+
+        log.debug("Event refused because the queue for consumer " + consumerName + " is stopped");
+
+        queuedEvent.complete(CompletedFuture.INSTANCE);
+    }
+
+
+    /**
+     * Return whether any of the workers' queues is full.
+     *
+     * @param targets workers to check
+     * @return boolean
+     */
+    private boolean isFull(List<Worker> targets)
+    {
+        for (Worker worker : targets)
+        {
+            if (worker.queue.size() >= maxQueueSize)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Pass an event to the consumer.  The event is processed with its own InternalOMRSEventProcessingContext
+     * and the resulting asynchronous processing result is linked to the future given to the sender.
+     *
+     * @param queuedEvent event to process
+     */
+    private void processEvent(QueuedEvent queuedEvent)
+    {
+        final String methodName = "processEvent";
+
+        InternalOMRSEventProcessingContext.clear();
+        InternalOMRSEventProcessingContext.getInstance().setCurrentMessageId(queuedEvent.messageId);
+
+        try
+        {
+            consumer.sendInstanceEvent(eventManagerName, queuedEvent.event);
+        }
+        catch (Throwable error)
+        {
+            log.debug("Unable to pass event to consumer " + consumerName, error);
+
+            if (auditLog != null)
+            {
+                auditLog.logException(methodName,
+                                      OMRSAuditCode.EVENT_PROCESSING_ERROR.getMessageDefinition(queuedEvent.event.toString(),
+                                                                                                error.toString(),
+                                                                                                consumerName),
+                                      queuedEvent.event.toString(),
+                                      error);
+            }
+        }
+        finally
+        {
+            queuedEvent.complete(InternalOMRSEventProcessingContext.getInstance().getOverallAsyncProcessingResult());
+            InternalOMRSEventProcessingContext.clear();
+        }
+    }
+
+
+    /**
+     * Return the name of the consumer.
+     *
+     * @return name
+     */
+    String getConsumerName()
+    {
+        return consumerName;
+    }
+
+
+    /**
+     * Return the number of events waiting for the consumer.  An event without a partition key is counted once
+     * for each worker that has still to reach it.
+     *
+     * @return count of queued events
+     */
+    int getQueueDepth()
+    {
+        int queueDepth = 0;
+
+        for (Worker worker : workers)
+        {
+            queueDepth = queueDepth + worker.queue.size();
+        }
+
+        return queueDepth;
+    }
+
+
+    /**
+     * Return how long the oldest event that is waiting for the consumer has been queued.
+     *
+     * @return lag in milliseconds - zero if no events are waiting
+     */
+    long getLag()
+    {
+        long currentTime = System.currentTimeMillis();
+        long lag         = 0;
+
+        for (Worker worker : workers)
+        {
+            QueuedEvent oldestEvent = worker.queue.peek();
+
+            if (oldestEvent != null)
+            {
+                lag = Math.max(lag, currentTime - oldestEvent.queuedTime);
+            }
+        }
+
+        return lag;
+    }
+
+
+    /**
+     * Stop the worker threads.  Events that are still queued are not passed to the consumer and later events
+     * are refused.
+     */
+    void stop()
+    {
+        List<QueuedEvent> discardedEvents = new ArrayList<>();
+
+        synchronized (queueSpace)
+        {
+            keepRunning = false;
+
+            for (Worker worker : workers)
+            {
+                worker.queue.drainTo(discardedEvents);
+            }
+
+            queueSpace.notifyAll();
+        }
+
+        for (Worker worker : workers)
+        {
+            worker.thread.interrupt();
+        }
+
+        for (QueuedEvent discardedEvent : discardedEvents)
+        {
+            discardedEvent.complete(CompletedFuture.INSTANCE);
+        }
+    }
+}
@@ -3,7 +3,9 @@
 package org.odpi.openmetadata.repositoryservices.eventmanagement;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
 import org.odpi.openmetadata.repositoryservices.ffdc.OMRSAuditCode;
@@ -37,16 +39,30 @@ import org.slf4j.LoggerFactory;
  * Since OMRSRepositoryEventManager sits at the crossroads of the flow of events between the cohorts,
  * the local repository and the enterprise access components, it performs detailed error checking of the
  * event contents to help assure the integrity of the open metadata ecosystem.
+ * <p>
+ * Each instance event consumer has its own queue and worker thread (see OMRSInstanceEventConsumerQueue) so that
+ * a slow consumer does not hold up the others.  By default, each consumer receives its events in the order they
+ * are sent, on a single thread.  An event manager may be created with several worker threads for each consumer;
+ * this is only suitable when all of its consumers can handle events concurrently.  The events for the same entity
+ * are then processed in order, and events that affect several instances (relationship, batch and entity delete
+ * events, for example) are processed in order with respect to all other events.  TypeDef events are rare and are passed to their consumers on the caller's thread so that they are
+ * processed before any later instance events that use the types.
+ * </p>
  */
 public class OMRSRepositoryEventManager extends OMRSRepositoryEventBuilder
 {
+    private static final int defaultWorkersPerConsumer = 1;
+    private static final int defaultMaxQueueSize       = 1000;
+
     private boolean                                   isActive               = false;
     private List<OMRSTypeDefEvent>                    typeDefEventBuffer     = new ArrayList<>();
     private List<BufferedInstanceEvent>               instanceEventBuffer    = new ArrayList<>();
     private List<OMRSTypeDefEventProcessorInterface>  typeDefEventConsumers  = new ArrayList<>();
-    private List<OMRSInstanceEventProcessorInterface> instanceEventConsumers = new ArrayList<>();
+    private List<OMRSInstanceEventConsumerQueue>      instanceEventConsumers = new ArrayList<>();
     private OMRSRepositoryContentValidator            repositoryValidator;   /* set in constructor */
     private OMRSRepositoryEventExchangeRule           exchangeRule;          /* set in constructor */
+    private int                                       workersPerConsumer     = defaultWorkersPerConsumer;
+    private int                                       maxQueueSize           = defaultMaxQueueSize;
 
     /*
      * The audit log provides a verifiable record of the open metadata archives that have been loaded into
@@ -108,6 +124,39 @@ public class OMRSRepositoryEventManager extends OMRSRepositoryEventBuilder
     }
 
 
+    /**
+     * Constructor to initialize a repository event manager with specific queueing properties for its instance
+     * event consumers.
+     *
+     * @param eventManagerName    this is the name of the event manager to use for logging.
+     * @param exchangeRule        this is the rule that determines which events are processed.
+     * @param repositoryValidator validator class for checking open metadata repository objects and parameters.
+     * @param auditLog audit log for this component.
+     * @param workersPerConsumer  number of worker threads for each instance event consumer - more than one
+     *                            is only suitable if every consumer registered can be called concurrently.
+     * @param maxQueueSize        maximum number of events waiting for each worker thread.
+     */
+    public OMRSRepositoryEventManager(String                          eventManagerName,
+                                      OMRSRepositoryEventExchangeRule exchangeRule,
+                                      OMRSRepositoryContentValidator  repositoryValidator,
+                                      AuditLog                        auditLog,
+                                      int                             workersPerConsumer,
+                                      int                             maxQueueSize)
+    {
+        this(eventManagerName, exchangeRule, repositoryValidator, auditLog);
+
+        if (workersPerConsumer > 0)
+        {
+            this.workersPerConsumer = workersPerConsumer;
+        }
+
+        if (maxQueueSize > 0)
+        {
+            this.maxQueueSize = maxQueueSize;
+        }
+    }
+
+
     /**
      * Adds a new consumer to the list of consumers that the OMRSRepositoryEventManager will notify of
      * any TypeDef events it receives.
@@ -140,7 +189,7 @@ public class OMRSRepositoryEventManager extends OMRSRepositoryEventBuilder
                             OMRSAuditCode.REGISTERING_EVENT_PROCESSOR.getMessageDefinition(instanceEventConsumer.getEventProcessorName(),
                                                                                            super.getEventProcessorName()));
 
-        instanceEventConsumers.add(instanceEventConsumer);
+        instanceEventConsumers.add(this.getConsumerQueue(instanceEventConsumer.getEventProcessorName(), instanceEventConsumer));
     }
 
 
@@ -158,11 +207,81 @@ public class OMRSRepositoryEventManager extends OMRSRepositoryEventBuilder
                             OMRSAuditCode.REGISTERING_EVENT_PROCESSOR.getMessageDefinition(repositoryEventProcessor.getEventProcessorName(),
                                                                                            super.getEventProcessorName()));
 
-        instanceEventConsumers.add(repositoryEventProcessor);
+        instanceEventConsumers.add(this.getConsumerQueue(repositoryEventProcessor.getEventProcessorName(), repositoryEventProcessor));
         typeDefEventConsumers.add(repositoryEventProcessor);
     }
 
 
+    /**
+     * Create the queue that passes instance events to a consumer.
+     *
+     * @param consumerName name of the consumer
+     * @param instanceEventConsumer consumer of instance events
+     * @return new queue
+     */
+    private OMRSInstanceEventConsumerQueue getConsumerQueue(String                              consumerName,
+                                                            OMRSInstanceEventProcessorInterface instanceEventConsumer)
+    {
+        return new OMRSInstanceEventConsumerQueue(super.eventProcessorName,
+                                                  consumerName,
+                                                  instanceEventConsumer,
+                                                  workersPerConsumer,
+                                                  maxQueueSize,
+                                                  auditLog);
+    }
+
+
+    /**
+     * Return the number of instance events waiting for each consumer.
+     *
+     * @return map of consumer name to queue depth
+     */
+    public Map<String, Integer> getInstanceEventQueueDepths()
+    {
+        Map<String, Integer> queueDepths = new HashMap<>();
+
+        for (OMRSInstanceEventConsumerQueue consumerQueue : instanceEventConsumers)
+        {
+            queueDepths.put(consumerQueue.getConsumerName(), consumerQueue.getQueueDepth());
+        }
+
+        return queueDepths;
+    }
+
+
+    /**
+     * Return, for each consumer, how long the oldest instance event waiting for it has been queued.
+     *
+     * @return map of consumer name to lag in milliseconds
+     */
+    public Map<String, Long> getInstanceEventQueueLags()
+    {
+        Map<String, Long> queueLags = new HashMap<>();
+
+        for (OMRSInstanceEventConsumerQueue consumerQueue : instanceEventConsumers)
+        {
+            queueLags.put(consumerQueue.getConsumerName(), consumerQueue.getLag());
+        }
+
+        return queueLags;
+    }
+
+
+    /**
+     * Stop the worker threads that pass instance events to the consumers.  Events that are still queued
+     * are not passed on.
+     */
+    public void disconnect()
+    {
+        this.isActive = false;
+
+        for (OMRSInstanceEventConsumerQueue consumerQueue : instanceEventConsumers)
+        {
+            consumerQueue.stop();
+        }
+    }
+
+
     /**
      * Indicate that all of the event processors are registered and it is ready to
      * process events.
@@ -300,20 +419,26 @@ public class OMRSRepositoryEventManager extends OMRSRepositoryEventBuilder
     		List<EntityDetail> validEntities = new ArrayList<>();
     		List<Relationship> validRelationships = new ArrayList<>();
     		
-    		for (EntityDetail entity: eventEntities)
+    		if (eventEntities != null)
     		{
-    			if(exchangeRule.processInstanceEvent(entity))
+    			for (EntityDetail entity: eventEntities)
     			{
-    				validEntities.add(entity);
+    				if(exchangeRule.processInstanceEvent(entity))
+    				{
+    					validEntities.add(entity);
+    				}
     			}
     		}
     		
     		
-    		for (Relationship relationship: eventRelationships)
+    		if (eventRelationships != null)
     		{
-    			if (exchangeRule.processInstanceEvent(relationship))
+    			for (Relationship relationship: eventRelationships)
     			{
-    				validRelationships.add(relationship);
+    				if (exchangeRule.processInstanceEvent(relationship))
+    				{
+    					validRelationships.add(relationship);
+    				}
     			}
     		}
     		
@@ -340,15 +465,52 @@ public class OMRSRepositoryEventManager extends OMRSRepositoryEventBuilder
     	
     	if (validEvent)
     	{
-            for (OMRSInstanceEventProcessorInterface consumer : instanceEventConsumers)
+            String partitionKey = this.getPartitionKey(event);
+
+            for (OMRSInstanceEventConsumerQueue consumerQueue : instanceEventConsumers)
             {
-                consumer.sendInstanceEvent(super.eventProcessorName, event);
+                consumerQueue.addEvent(event, partitionKey);
             }
 
     	}
     }
 
 
+    /**
+     * Return the GUID of the entity that an event is about.  This is used to keep the events for
+     * each entity in order when a consumer has more than one worker thread.  Events that may affect more than
+     * one instance return null so that they are ordered with respect to all other events.  These are the
+     * relationship events (a relationship depends on the entities at its ends), batch events and the entity
+     * events that also change the entity's relationships or its identity.
+     *
+     * @param event instance event
+     * @return GUID or null if the event must be ordered with respect to all other events
+     */
+    private String getPartitionKey(OMRSInstanceEvent event)
+    {
+        if ((event.getInstanceEventType() == null) || (event.getEntity() == null))
+        {
+            return null;
+        }
+
+        switch (event.getInstanceEventType())
+        {
+            case NEW_ENTITY_EVENT:
+            case UPDATED_ENTITY_EVENT:
+            case UNDONE_ENTITY_EVENT:
+            case CLASSIFIED_ENTITY_EVENT:
+            case DECLASSIFIED_ENTITY_EVENT:
+            case RECLASSIFIED_ENTITY_EVENT:
+            case RESTORED_ENTITY_EVENT:
+            case REFRESHED_ENTITY_EVENT:
+                return event.getEntity().getGUID();
+
+            default:
+                return null;
+        }
+    }
+
+
     /**
      * Send the TypeDef event to the OMRS Topic connector (providing TypeDef Events are enabled).
      *
@@ -5,6 +5,7 @@ package org.odpi.openmetadata.repositoryservices.localrepository.repositoryconne
 import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
 import org.odpi.openmetadata.frameworks.auditlog.MessageFormatter;
 import org.odpi.openmetadata.frameworks.auditlog.messagesets.AuditLogMessageDefinition;
+import org.odpi.openmetadata.repositoryservices.connectors.omrstopic.InternalOMRSEventProcessingContext;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.*;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDefCategory;
 import org.odpi.openmetadata.repositoryservices.events.*;
@@ -23,7 +24,17 @@ import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollec
 import org.odpi.openmetadata.repositoryservices.eventmanagement.*;
 import org.odpi.openmetadata.repositoryservices.ffdc.OMRSErrorCode;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -32,6 +43,13 @@ import java.util.UUID;
  * It uses the save exchange rule to decide which events to process and which to ignore.
  * Events that are to be processed are converted into reference copies of their respective entities and
  * relationships and stored in the local repository.
+ * <p>
+ * Events that carry a new version of an entity or relationship are collected into a batch.  The batch is saved once
+ * it holds referenceCopyBatchSize instances, once it is referenceCopyBatchWindow milliseconds old, or before any
+ * other type of event is processed (so the events for an instance are still applied in order).  The stored versions
+ * of the batch's entities are retrieved in one request, the stale versions are discarded and the rest are saved in one
+ * request.  Only the latest version of each instance in a batch is saved.  A window of zero turns batching off.
+ * </p>
  */
 public class LocalOMRSInstanceEventProcessor extends OMRSInstanceEventProcessor implements OMRSInstanceRetrievalEventProcessor
 {
@@ -56,6 +74,104 @@ public class LocalOMRSInstanceEventProcessor extends OMRSInstanceEventProcessor
 
     private static final Logger log = LoggerFactory.getLogger(LocalOMRSInstanceEventProcessor.class);
 
+    /*
+     * The instance events that are collected into batches.  All other events cause the current batch to be saved
+     * before they are processed.
+     */
+    private static final Set<OMRSInstanceEventType> batchedEventTypes =
+            EnumSet.of(OMRSInstanceEventType.NEW_ENTITY_EVENT,
+                       OMRSInstanceEventType.UPDATED_ENTITY_EVENT,
+                       OMRSInstanceEventType.UNDONE_ENTITY_EVENT,
+                       OMRSInstanceEventType.CLASSIFIED_ENTITY_EVENT,
+                       OMRSInstanceEventType.RECLASSIFIED_ENTITY_EVENT,
+                       OMRSInstanceEventType.DECLASSIFIED_ENTITY_EVENT,
+                       OMRSInstanceEventType.RESTORED_ENTITY_EVENT,
+                       OMRSInstanceEventType.REFRESHED_ENTITY_EVENT,
+                       OMRSInstanceEventType.NEW_RELATIONSHIP_EVENT,
+                       OMRSInstanceEventType.UPDATED_RELATIONSHIP_EVENT,
+                       OMRSInstanceEventType.UNDONE_RELATIONSHIP_EVENT,
+                       OMRSInstanceEventType.RESTORED_RELATIONSHIP_EVENT,
+                       OMRSInstanceEventType.REFRESHED_RELATIONSHIP_EVENT);
+
+    private static final int defaultReferenceCopyBatchWindow = 100;
+    private static final int defaultReferenceCopyBatchSize   = 100;
+
+    private int                      referenceCopyBatchWindow = defaultReferenceCopyBatchWindow;
+    private int                      referenceCopyBatchSize   = defaultReferenceCopyBatchSize;
+    private ReferenceCopyBatch       pendingReferenceCopies   = null;
+    private final Object             pendingReferenceCopyLock = new Object();
+    private final Object             saveReferenceCopyLock    = new Object();
+    private ScheduledExecutorService referenceCopyBatchTimer  = null;
+
+
+    /**
+     * An incoming instance waiting to be saved, with the details of the event it came from.
+     *
+     * @param <T> type of instance
+     */
+    private static class PendingReferenceCopy<T extends InstanceHeader>
+    {
+        private final String sourceName;
+        private final String methodName;
+        private final String originatorMetadataCollectionId;
+        private final String originatorServerName;
+        private final T      instance;
+
+        PendingReferenceCopy(String sourceName,
+                             String methodName,
+                             String originatorMetadataCollectionId,
+                             String originatorServerName,
+                             T      instance)
+        {
+            this.sourceName = sourceName;
+            this.methodName = methodName;
+            this.originatorMetadataCollectionId = originatorMetadataCollectionId;
+            this.originatorServerName = originatorServerName;
+            this.instance = instance;
+        }
+    }
+
+
+    /**
+     * A batch of incoming instances.  The future completes when the batch has been saved.
+     */
+    private static class ReferenceCopyBatch
+    {
+        private final Map<String, PendingReferenceCopy<EntityDetail>> entities      = new LinkedHashMap<>();
+        private final Map<String, PendingReferenceCopy<Relationship>> relationships = new LinkedHashMap<>();
+        private final CompletableFuture<Void>                          saved         = new CompletableFuture<>();
+
+
+        /**
+         * Add an instance to the batch unless the batch already has the same or a later version of it.
+         *
+         * @param pendingInstances instances of the same kind in the batch
+         * @param pendingInstance new instance
+         * @param <T> type of instance
+         */
+        private static <T extends InstanceHeader> void addInstance(Map<String, PendingReferenceCopy<T>> pendingInstances,
+                                                                   PendingReferenceCopy<T>              pendingInstance)
+        {
+            PendingReferenceCopy<T> batchedInstance = pendingInstances.get(pendingInstance.instance.getGUID());
+
+            if ((batchedInstance == null) || (batchedInstance.instance.getVersion() < pendingInstance.instance.getVersion()))
+            {
+                pendingInstances.put(pendingInstance.instance.getGUID(), pendingInstance);
+            }
+        }
+
+
+        /**
+         * Return the number of instances in the batch.
+         *
+         * @return count
+         */
+        private int size()
+        {
+            return entities.size() + relationships.size();
+        }
+    }
+
 
     /**
      * Constructor saves all of the information necessary to process incoming instance events.  It is intolerant
@@ -111,6 +227,46 @@ public class LocalOMRSInstanceEventProcessor extends OMRSInstanceEventProcessor
     }
 
 
+    /**
+     * Set up how incoming reference copies are batched.
+     *
+     * @param referenceCopyBatchWindow maximum time in milliseconds an incoming instance waits to be saved - zero
+     *                                 means each instance is saved as it arrives
+     * @param referenceCopyBatchSize maximum number of instances in a batch
+     */
+    void setReferenceCopyBatching(int referenceCopyBatchWindow,
+                                  int referenceCopyBatchSize)
+    {
+        if (referenceCopyBatchWindow >= 0)
+        {
+            this.referenceCopyBatchWindow = referenceCopyBatchWindow;
+        }
+
+        if (referenceCopyBatchSize > 0)
+        {
+            this.referenceCopyBatchSize = referenceCopyBatchSize;
+        }
+    }
+
+
+    /**
+     * Save any waiting reference copies and stop the batch timer.
+     */
+    void disconnect()
+    {
+        this.saveReferenceCopies();
+
+        synchronized (pendingReferenceCopyLock)
+        {
+            if (referenceCopyBatchTimer != null)
+            {
+                referenceCopyBatchTimer.shutdownNow();
+                referenceCopyBatchTimer = null;
+            }
+        }
+    }
+
+
     /*
      * ====================================
      * OMRSInstanceEventProcessor
@@ -183,6 +339,14 @@ public class LocalOMRSInstanceEventProcessor extends OMRSInstanceEventProcessor
 
         if ((instanceEventType != null) && (instanceEventOriginator != null))
         {
+            /*
+             * Events that are not batched may affect the instances waiting to be saved so these are saved first.
+             */
+            if (! batchedEventTypes.contains(instanceEventType))
+            {
+                this.saveReferenceCopies();
+            }
+
             switch (instanceEventType)
             {
                 case NEW_ENTITY_EVENT:
@@ -2107,6 +2271,17 @@ public class LocalOMRSInstanceEventProcessor extends OMRSInstanceEventProcessor
                                                                 entity,
                                                                 methodName);
 
+            if (referenceCopyBatchWindow > 0)
+            {
+                this.addReferenceCopy(new PendingReferenceCopy<>(sourceName,
+                                                                 methodName,
+                                                                 originatorMetadataCollectionId,
+                                                                 originatorServerName,
+                                                                 entity),
+                                      null);
+                return;
+            }
+
             EntityDetail storedEntity = localMetadataCollection.isEntityKnown(localRepositoryConnector.getServerUserId(),
                                                                               entity.getGUID());
 
@@ -2356,6 +2531,17 @@ public class LocalOMRSInstanceEventProcessor extends OMRSInstanceEventProcessor
                                                                 relationship,
                                                                 methodName);
 
+            if (referenceCopyBatchWindow > 0)
+            {
+                this.addReferenceCopy(null,
+                                      new PendingReferenceCopy<>(sourceName,
+                                                                 methodName,
+                                                                 originatorMetadataCollectionId,
+                                                                 originatorServerName,
+                                                                 relationship));
+                return;
+            }
+
             if (verifyEventToSave(sourceName, relationship))
             {
                 localMetadataCollection.saveRelationshipReferenceCopy(localRepositoryConnector.getServerUserId(),
@@ -2372,6 +2558,223 @@ public class LocalOMRSInstanceEventProcessor extends OMRSInstanceEventProcessor
     }
 
 
+    /**
+     * Add an incoming entity or relationship to the current batch.  A new batch starts the timer that saves it.
+     * The batch is saved straight away if it is full.  The batch's future is added to the event processing
+     * context so the event is not treated as processed until the batch is saved.
+     *
+     * @param entity incoming entity (or null)
+     * @param relationship incoming relationship (or null)
+     */
+    private void addReferenceCopy(PendingReferenceCopy<EntityDetail> entity,
+                                  PendingReferenceCopy<Relationship> relationship)
+    {
+        boolean batchFull;
+
+        synchronized (pendingReferenceCopyLock)
+        {
+            if (pendingReferenceCopies == null)
+            {
+                pendingReferenceCopies = new ReferenceCopyBatch();
+
+                if (referenceCopyBatchTimer == null)
+                {
+                    referenceCopyBatchTimer = Executors.newSingleThreadScheduledExecutor((runnable) ->
+                    {
+                        Thread timerThread = new Thread(runnable, localOMRSInstanceEventProcessorName);
+
+                        timerThread.setDaemon(true);
+                        return timerThread;
+                    });
+                }
+
+                referenceCopyBatchTimer.schedule(this::saveReferenceCopies, referenceCopyBatchWindow, TimeUnit.MILLISECONDS);
+            }
+
+            if (entity != null)
+            {
+                ReferenceCopyBatch.addInstance(pendingReferenceCopies.entities, entity);
+            }
+
+            if (relationship != null)
+            {
+                ReferenceCopyBatch.addInstance(pendingReferenceCopies.relationships, relationship);
+            }
+
+            InternalOMRSEventProcessingContext.getInstance().addAsyncProcessingResult(pendingReferenceCopies.saved);
+
+            batchFull = (pendingReferenceCopies.size() >= referenceCopyBatchSize);
+        }
+
+        if (batchFull)
+        {
+            this.saveReferenceCopies();
+        }
+    }
+
+
+    /**
+     * Save the current batch of incoming entities and relationships.  Only one batch is saved at a time so that
+     * the versions of an instance are saved in the order they arrived.
+     */
+    private void saveReferenceCopies()
+    {
+        synchronized (saveReferenceCopyLock)
+        {
+            ReferenceCopyBatch batch;
+
+            synchronized (pendingReferenceCopyLock)
+            {
+                batch = pendingReferenceCopies;
+                pendingReferenceCopies = null;
+            }
+
+            if (batch != null)
+            {
+                try
+                {
+                    this.saveReferenceCopyBatch(batch);
+                }
+                finally
+                {
+                    batch.saved.complete(null);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Save a batch of incoming entities and relationships.  The stored versions of the entities are retrieved in
+     * one request and are used to discard the incoming entities that are not newer.  The rest of the batch is
+     * saved in one request.  If the batch request fails, the instances are saved one at a time so the failure
+     * is reported against the event that caused it.
+     *
+     * @param batch entities and relationships to save
+     */
+    private void saveReferenceCopyBatch(ReferenceCopyBatch batch)
+    {
+        final String methodName = "saveReferenceCopyBatch";
+
+        try
+        {
+            verifyEventProcessor(methodName);
+
+            List<EntityDetail> entities      = new ArrayList<>();
+            List<Relationship> relationships = new ArrayList<>();
+
+            if (! batch.entities.isEmpty())
+            {
+                Map<String, EntityDetail> storedEntities = localMetadataCollection.getKnownEntities(localRepositoryConnector.getServerUserId(),
+                                                                                                    new ArrayList<>(batch.entities.keySet()));
+
+                for (PendingReferenceCopy<EntityDetail> entity : batch.entities.values())
+                {
+                    EntityDetail storedEntity = null;
+
+                    if (storedEntities != null)
+                    {
+                        storedEntity = storedEntities.get(entity.instance.getGUID());
+                    }
+
+                    if ((compareAndValidateReferenceInstance(entity.originatorServerName,
+                                                             entity.instance,
+                                                             storedEntity,
+                                                             entity.methodName)) &&
+                        (verifyEventToSave(entity.sourceName, entity.instance)))
+                    {
+                        entities.add(entity.instance);
+                    }
+                }
+            }
+
+            for (PendingReferenceCopy<Relationship> relationship : batch.relationships.values())
+            {
+                if (verifyEventToSave(relationship.sourceName, relationship.instance))
+                {
+                    relationships.add(relationship.instance);
+                }
+            }
+
+            if ((! entities.isEmpty()) || (! relationships.isEmpty()))
+            {
+                localMetadataCollection.saveInstanceReferenceCopies(localRepositoryConnector.getServerUserId(),
+                                                                    new InstanceGraph(entities, relationships));
+            }
+        }
+        catch (Throwable error)
+        {
+            log.debug("Unable to save batch of reference copies; saving them one at a time", error);
+
+            for (PendingReferenceCopy<EntityDetail> entity : batch.entities.values())
+            {
+                this.saveReferenceEntity(entity);
+            }
+
+            for (PendingReferenceCopy<Relationship> relationship : batch.relationships.values())
+            {
+                this.saveReferenceRelationship(relationship);
+            }
+        }
+    }
+
+
+    /**
+     * Save a single incoming entity from a batch that could not be saved.
+     *
+     * @param entity incoming entity and the details of its event
+     */
+    private void saveReferenceEntity(PendingReferenceCopy<EntityDetail> entity)
+    {
+        try
+        {
+            EntityDetail storedEntity = localMetadataCollection.isEntityKnown(localRepositoryConnector.getServerUserId(),
+                                                                              entity.instance.getGUID());
+
+            if ((compareAndValidateReferenceInstance(entity.originatorServerName,
+                                                     entity.instance,
+                                                     storedEntity,
+                                                     entity.methodName)) &&
+                (verifyEventToSave(entity.sourceName, entity.instance)))
+            {
+                localMetadataCollection.saveEntityReferenceCopy(localRepositoryConnector.getServerUserId(), entity.instance);
+            }
+        }
+        catch (Throwable error)
+        {
+            handleUnexpectedErrorFromEvent(error,
+                                           entity.methodName,
+                                           entity.originatorServerName,
+                                           entity.originatorMetadataCollectionId);
+        }
+    }
+
+
+    /**
+     * Save a single incoming relationship from a batch that could not be saved.
+     *
+     * @param relationship incoming relationship and the details of its event
+     */
+    private void saveReferenceRelationship(PendingReferenceCopy<Relationship> relationship)
+    {
+        try
+        {
+            if (verifyEventToSave(relationship.sourceName, relationship.instance))
+            {
+                localMetadataCollection.saveRelationshipReferenceCopy(localRepositoryConnector.getServerUserId(),
+                                                                      relationship.instance);
+            }
+        }
+        catch (Throwable error)
+        {
+            handleUnexpectedErrorFromEvent(error,
+                                           relationship.methodName,
+                                           relationship.originatorServerName,
+                                           relationship.originatorMetadataCollectionId);
+        }
+    }
+
+
     /**
      * Validate that this event processor is correctly initialized.
      *
@@ -20,8 +20,10 @@ import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
 import org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager.OMRSTypeDefManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Date;
+import java.util.Map;
 
 /**
  * LocalOMRSMetadataCollection provides a wrapper around the metadata collection for the real local repository.
@@ -1501,6 +1503,37 @@ public class LocalOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * Return the summary of the entity at one end of a new relationship for the security verifier.  The entity is
+     * either a new entity from the same batch or an existing entity.
+     *
+     * @param userId calling user
+     * @param end entity proxy from the new relationship
+     * @param newEntities new entities from the batch, indexed by the guids set by the caller
+     * @return entity summary
+     * @throws InvalidParameterException the entity end is not set
+     * @throws RepositoryErrorException problem in the real repository
+     * @throws EntityNotKnownException the entity is not known
+     * @throws UserNotAuthorizedException the user is not allowed to retrieve the entity
+     */
+    private EntitySummary getNewRelationshipEnd(String                    userId,
+                                                EntityProxy               end,
+                                                Map<String, EntityDetail> newEntities) throws InvalidParameterException,
+                                                                                              RepositoryErrorException,
+                                                                                              EntityNotKnownException,
+                                                                                              UserNotAuthorizedException
+    {
+        EntitySummary newEntity = newEntities.get(end.getGUID());
+
+        if (newEntity != null)
+        {
+            return newEntity;
+        }
+
+        return realMetadataCollection.getEntitySummary(userId, end.getGUID());
+    }
+
+
     /**
      * Review the contents of an instance graph returned from the real repository and set up the local provenance
      * information if necessary.
@@ -1609,6 +1642,65 @@ public class LocalOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * Returns the entities from a list of guids that are stored in the metadata collection.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the entities
+     * @return map from guid to entity details for each entity that is found in the metadata collection
+     * @throws InvalidParameterException one of the guids is null.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @Override
+    public Map<String, EntityDetail> getKnownEntities(String        userId,
+                                                      List<String>  guids) throws InvalidParameterException,
+                                                                                  RepositoryErrorException,
+                                                                                  UserNotAuthorizedException
+    {
+        final String  methodName = "getKnownEntities";
+
+        /*
+         * Validate parameters
+         */
+        if (guids != null)
+        {
+            for (String guid : guids)
+            {
+                super.getInstanceParameterValidation(userId, guid, methodName);
+            }
+        }
+
+        /*
+         * Perform operation
+         */
+        Map<String, EntityDetail> knownEntities = realMetadataCollection.getKnownEntities(userId, guids);
+
+        if (knownEntities != null)
+        {
+            for (EntityDetail entity : knownEntities.values())
+            {
+                setLocalProvenance(entity);
+
+                /*
+                 * Check operation is allowed
+                 */
+                try
+                {
+                    securityVerifier.validateUserForEntityRead(userId, metadataCollectionName, entity);
+                }
+                catch (org.odpi.openmetadata.frameworks.connectors.ffdc.UserNotAuthorizedException  error)
+                {
+                    throw new UserNotAuthorizedException(error);
+                }
+            }
+        }
+
+        return knownEntities;
+    }
+
+
     /**
      * Return the header and classifications for a specific entity.  The returned entity summary may be from
      * a full entity object or an entity proxy.
@@ -1765,6 +1857,98 @@ public class LocalOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<EntityDetail> areEntitiesKnown(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           UserNotAuthorizedException
+    {
+        final String  methodName = "areEntitiesKnown";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        /*
+         * Perform operation
+         */
+        List<EntityDetail> entities = realMetadataCollection.areEntitiesKnown(userId, guids);
+
+        if (entities != null)
+        {
+            for (EntityDetail entity : entities)
+            {
+                setLocalProvenance(entity);
+
+                /*
+                 * Check operation is allowed
+                 */
+                try
+                {
+                    securityVerifier.validateUserForEntityRead(userId, metadataCollectionName, entity);
+                }
+                catch (org.odpi.openmetadata.frameworks.connectors.ffdc.UserNotAuthorizedException  error)
+                {
+                    throw new UserNotAuthorizedException(error);
+                }
+            }
+        }
+
+        return entities;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<EntityDetail> getEntityDetails(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           EntityNotKnownException,
+                                                                           EntityProxyOnlyException,
+                                                                           UserNotAuthorizedException
+    {
+        final String  methodName = "getEntityDetails";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        /*
+         * Perform operation
+         */
+        List<EntityDetail> entities = realMetadataCollection.getEntityDetails(userId, guids);
+
+        if (entities != null)
+        {
+            for (EntityDetail entity : entities)
+            {
+                setLocalProvenance(entity);
+
+                /*
+                 * Check operation is allowed
+                 */
+                try
+                {
+                    securityVerifier.validateUserForEntitySummaryRead(userId, metadataCollectionName, entity);
+                }
+                catch (org.odpi.openmetadata.frameworks.connectors.ffdc.UserNotAuthorizedException  error)
+                {
+                    throw new UserNotAuthorizedException(error);
+                }
+            }
+        }
+
+        return entities;
+    }
+
+
     /**
      * Return the relationships for a specific entity.
      *
@@ -1844,6 +2028,100 @@ public class LocalOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * When a security verifier is set up, the relationships are retrieved so that each one can be checked.
+     */
+    @Override
+    public int countRelationshipsForEntity(String                     userId,
+                                           String                     entityGUID,
+                                           String                     relationshipTypeGUID,
+                                           List<InstanceStatus>       limitResultsByStatus,
+                                           List<String>               excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                                TypeErrorException,
+                                                                                                                RepositoryErrorException,
+                                                                                                                EntityNotKnownException,
+                                                                                                                FunctionNotSupportedException,
+                                                                                                                UserNotAuthorizedException
+    {
+        final String  methodName = "countRelationshipsForEntity";
+
+        /*
+         * Validate parameters
+         */
+        super.countRelationshipsForEntityParameterValidation(userId, entityGUID, relationshipTypeGUID, methodName);
+
+        /*
+         * Perform operation
+         */
+        if (securityVerifier.isSecurityVerifierSet())
+        {
+            return super.countRelationshipsForEntity(userId,
+                                                     entityGUID,
+                                                     relationshipTypeGUID,
+                                                     limitResultsByStatus,
+                                                     excludedHomeMetadataCollectionIds);
+        }
+
+        return realMetadataCollection.countRelationshipsForEntity(userId,
+                                                                  entityGUID,
+                                                                  relationshipTypeGUID,
+                                                                  limitResultsByStatus,
+                                                                  excludedHomeMetadataCollectionIds);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InstancePage<Relationship> getRelationshipsForEntityWithCursor(String                     userId,
+                                                                          String                     entityGUID,
+                                                                          String                     relationshipTypeGUID,
+                                                                          String                     cursor,
+                                                                          List<InstanceStatus>       limitResultsByStatus,
+                                                                          int                        pageSize) throws InvalidParameterException,
+                                                                                                                      TypeErrorException,
+                                                                                                                      RepositoryErrorException,
+                                                                                                                      EntityNotKnownException,
+                                                                                                                      PagingErrorException,
+                                                                                                                      FunctionNotSupportedException,
+                                                                                                                      UserNotAuthorizedException
+    {
+        final String  methodName = "getRelationshipsForEntityWithCursor";
+
+        /*
+         * Validate parameters
+         */
+        super.getRelationshipsForEntityWithCursorParameterValidation(userId,
+                                                                     entityGUID,
+                                                                     relationshipTypeGUID,
+                                                                     pageSize,
+                                                                     methodName);
+
+        /*
+         * Perform operation - the cursor for the next page is passed back even if the security verifier
+         * removes some of the relationships from this page.
+         */
+        InstancePage<Relationship> page = realMetadataCollection.getRelationshipsForEntityWithCursor(userId,
+                                                                                                     entityGUID,
+                                                                                                     relationshipTypeGUID,
+                                                                                                     cursor,
+                                                                                                     limitResultsByStatus,
+                                                                                                     pageSize);
+
+        if (page == null)
+        {
+            return null;
+        }
+
+        return new InstancePage<>(this.securityVerifyReadRelationshipList(userId,
+                                                                          setLocalProvenanceInRelationshipList(page.getInstances())),
+                                  page.getNextCursor());
+    }
+
+
     /**
      * Return a list of entities that match the supplied properties according to the match criteria.  The results
      * can be returned over many pages.
@@ -1937,6 +2215,61 @@ public class LocalOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InstancePage<EntityDetail> findEntitiesByPropertyWithCursor(String                    userId,
+                                                                       String                    entityTypeGUID,
+                                                                       InstanceProperties        matchProperties,
+                                                                       MatchCriteria             matchCriteria,
+                                                                       String                    cursor,
+                                                                       List<InstanceStatus>      limitResultsByStatus,
+                                                                       List<String>              limitResultsByClassification,
+                                                                       int                       pageSize) throws InvalidParameterException,
+                                                                                                                  RepositoryErrorException,
+                                                                                                                  TypeErrorException,
+                                                                                                                  PropertyErrorException,
+                                                                                                                  PagingErrorException,
+                                                                                                                  FunctionNotSupportedException,
+                                                                                                                  UserNotAuthorizedException
+    {
+        final String  methodName = "findEntitiesByPropertyWithCursor";
+
+        /*
+         * Validate parameters
+         */
+        super.findEntitiesByPropertyWithCursorParameterValidation(userId,
+                                                                  entityTypeGUID,
+                                                                  matchProperties,
+                                                                  matchCriteria,
+                                                                  pageSize,
+                                                                  methodName);
+
+        /*
+         * Perform operation - the cursor for the next page is passed back even if the security verifier
+         * removes some of the entities from this page.
+         */
+        InstancePage<EntityDetail> page = realMetadataCollection.findEntitiesByPropertyWithCursor(userId,
+                                                                                                  entityTypeGUID,
+                                                                                                  matchProperties,
+                                                                                                  matchCriteria,
+                                                                                                  cursor,
+                                                                                                  limitResultsByStatus,
+                                                                                                  limitResultsByClassification,
+                                                                                                  pageSize);
+
+        if (page == null)
+        {
+            return null;
+        }
+
+        return new InstancePage<>(this.securityVerifyReadEntityList(userId,
+                                                                    setLocalProvenanceInEntityList(page.getInstances())),
+                                  page.getNextCursor());
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -1998,6 +2331,61 @@ public class LocalOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * When a security verifier is set up, the entities are retrieved so that each one can be checked.
+     */
+    @Override
+    public int countEntities(String                    userId,
+                             String                    entityTypeGUID,
+                             List<String>              entitySubtypeGUIDs,
+                             SearchProperties          matchProperties,
+                             List<InstanceStatus>      limitResultsByStatus,
+                             SearchClassifications     matchClassifications,
+                             List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                 RepositoryErrorException,
+                                                                                                 TypeErrorException,
+                                                                                                 PropertyErrorException,
+                                                                                                 FunctionNotSupportedException,
+                                                                                                 UserNotAuthorizedException
+    {
+        final String  methodName = "countEntities";
+
+        /*
+         * Validate parameters
+         */
+        super.countEntitiesParameterValidation(userId,
+                                               entityTypeGUID,
+                                               entitySubtypeGUIDs,
+                                               matchProperties,
+                                               matchClassifications,
+                                               methodName);
+
+        /*
+         * Perform operation
+         */
+        if (securityVerifier.isSecurityVerifierSet())
+        {
+            return super.countEntities(userId,
+                                       entityTypeGUID,
+                                       entitySubtypeGUIDs,
+                                       matchProperties,
+                                       limitResultsByStatus,
+                                       matchClassifications,
+                                       excludedHomeMetadataCollectionIds);
+        }
+
+        return realMetadataCollection.countEntities(userId,
+                                                    entityTypeGUID,
+                                                    entitySubtypeGUIDs,
+                                                    matchProperties,
+                                                    limitResultsByStatus,
+                                                    matchClassifications,
+                                                    excludedHomeMetadataCollectionIds);
+    }
+
+
     /**
      * Return a list of entities that have the requested type of classifications attached.
      *
@@ -2330,6 +2718,90 @@ public class LocalOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Relationship> areRelationshipsKnown(String        userId,
+                                                    List<String>  guids) throws InvalidParameterException,
+                                                                                RepositoryErrorException,
+                                                                                UserNotAuthorizedException
+    {
+        final String  methodName = "areRelationshipsKnown";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        /*
+         * Process operation
+         */
+        List<Relationship> relationships = realMetadataCollection.areRelationshipsKnown(userId, guids);
+
+        this.validateRelationshipsRead(userId, relationships);
+
+        return relationships;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Relationship> getRelationships(String        userId,
+                                               List<String>  guids) throws InvalidParameterException,
+                                                                           RepositoryErrorException,
+                                                                           RelationshipNotKnownException,
+                                                                           UserNotAuthorizedException
+    {
+        final String  methodName = "getRelationships";
+
+        /*
+         * Validate parameters
+         */
+        super.getInstancesParameterValidation(userId, guids, methodName);
+
+        /*
+         * Process operation
+         */
+        List<Relationship> relationships = realMetadataCollection.getRelationships(userId, guids);
+
+        this.validateRelationshipsRead(userId, relationships);
+
+        return relationships;
+    }
+
+
+    /**
+     * Set up the local provenance of each of the retrieved relationships and check that the user is allowed to read them.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param relationships relationships retrieved from the real metadata collection (may be null).
+     * @throws UserNotAuthorizedException the userId is not permitted to read one of the relationships.
+     */
+    private void validateRelationshipsRead(String             userId,
+                                           List<Relationship> relationships) throws UserNotAuthorizedException
+    {
+        if (relationships != null)
+        {
+            for (Relationship relationship : relationships)
+            {
+                setLocalProvenance(relationship);
+
+                try
+                {
+                    securityVerifier.validateUserForRelationshipRead(userId, metadataCollectionName, relationship);
+                }
+                catch (org.odpi.openmetadata.frameworks.connectors.ffdc.UserNotAuthorizedException  error)
+                {
+                    throw new UserNotAuthorizedException(error);
+                }
+            }
+        }
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -2387,6 +2859,57 @@ public class LocalOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * When a security verifier is set up, the relationships are retrieved so that each one can be checked.
+     */
+    @Override
+    public int countRelationships(String                    userId,
+                                  String                    relationshipTypeGUID,
+                                  List<String>              relationshipSubtypeGUIDs,
+                                  SearchProperties          matchProperties,
+                                  List<InstanceStatus>      limitResultsByStatus,
+                                  List<String>              excludedHomeMetadataCollectionIds) throws InvalidParameterException,
+                                                                                                      TypeErrorException,
+                                                                                                      RepositoryErrorException,
+                                                                                                      PropertyErrorException,
+                                                                                                      FunctionNotSupportedException,
+                                                                                                      UserNotAuthorizedException
+    {
+        final String  methodName = "countRelationships";
+
+        /*
+         * Validate parameters
+         */
+        super.countRelationshipsParameterValidation(userId,
+                                                    relationshipTypeGUID,
+                                                    relationshipSubtypeGUIDs,
+                                                    matchProperties,
+                                                    methodName);
+
+        /*
+         * Perform operation
+         */
+        if (securityVerifier.isSecurityVerifierSet())
+        {
+            return super.countRelationships(userId,
+                                            relationshipTypeGUID,
+                                            relationshipSubtypeGUIDs,
+                                            matchProperties,
+                                            limitResultsByStatus,
+                                            excludedHomeMetadataCollectionIds);
+        }
+
+        return realMetadataCollection.countRelationships(userId,
+                                                         relationshipTypeGUID,
+                                                         relationshipSubtypeGUIDs,
+                                                         matchProperties,
+                                                         limitResultsByStatus,
+                                                         excludedHomeMetadataCollectionIds);
+    }
+
+
     /**
      * Return a list of relationships that match the requested properties by the matching criteria.   The results
      * can be received as a series of pages.
@@ -4616,6 +5139,111 @@ public class LocalOMRSMetadataCollection extends OMRSMetadataCollectionBase
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * The whole batch is validated and checked with the security verifier before it is passed to the real
+     * repository.  The real repository either adds the whole batch or removes the instances it added before
+     * returning the error, so the event is only sent once the whole batch has been added.  A single batch event
+     * is sent for the new instances.  Listeners that only process new entity and new relationship events see the
+     * instances because the batch event is expanded into those events by OMRSTopicListenerBase and the access
+     * service event processors.
+     */
+    @Override
+    public InstanceGraph addEntitiesAndRelationships(String         userId,
+                                                     InstanceGraph  newInstances) throws InvalidParameterException,
+                                                                                         RepositoryErrorException,
+                                                                                         TypeErrorException,
+                                                                                         PropertyErrorException,
+                                                                                         ClassificationErrorException,
+                                                                                         EntityNotKnownException,
+                                                                                         StatusNotSupportedException,
+                                                                                         UserNotAuthorizedException,
+                                                                                         FunctionNotSupportedException
+    {
+        final String  methodName = "addEntitiesAndRelationships";
+
+        /*
+         * Validate parameters
+         */
+        super.addEntitiesAndRelationshipsParameterValidation(userId, newInstances, methodName);
+
+        /*
+         * Check operation is allowed.  The ends of the new relationships may be new entities from the batch.
+         */
+        try
+        {
+            Map<String, EntityDetail> newEntities = new HashMap<>();
+
+            if (newInstances.getEntities() != null)
+            {
+                for (EntityDetail entity : newInstances.getEntities())
+                {
+                    securityVerifier.validateUserForEntityCreate(userId,
+                                                                 metadataCollectionName,
+                                                                 super.getNewInstanceTypeGUID(entity),
+                                                                 entity.getProperties(),
+                                                                 entity.getClassifications(),
+                                                                 entity.getStatus());
+
+                    if (entity.getGUID() != null)
+                    {
+                        newEntities.put(entity.getGUID(), entity);
+                    }
+                }
+            }
+
+            if (newInstances.getRelationships() != null)
+            {
+                for (Relationship relationship : newInstances.getRelationships())
+                {
+                    securityVerifier.validateUserForRelationshipCreate(userId,
+                                                                       metadataCollectionName,
+                                                                       super.getNewInstanceTypeGUID(relationship),
+                                                                       relationship.getProperties(),
+                                                                       this.getNewRelationshipEnd(userId,
+                                                                                                  relationship.getEntityOneProxy(),
+                                                                                                  newEntities),
+                                                                       this.getNewRelationshipEnd(userId,
+                                                                                                  relationship.getEntityTwoProxy(),
+                                                                                                  newEntities),
+                                                                       relationship.getStatus());
+                }
+            }
+        }
+        catch (org.odpi.openmetadata.frameworks.connectors.ffdc.UserNotAuthorizedException  error)
+        {
+            throw new UserNotAuthorizedException(error);
+        }
+
+        /*
+         * Validation complete, ok to create new instances
+         */
+        InstanceGraph  createdInstances = realMetadataCollection.addEntitiesAndRelationships(userId, newInstances);
+
+        if (createdInstances != null)
+        {
+            createdInstances = setLocalProvenanceInGraph(createdInstances);
+
+            /*
+             * OK to send out
+             */
+            if ((produceEventsForRealConnector) &&
+                ((createdInstances.getEntities() != null) || (createdInstances.getRelationships() != null)))
+            {
+                outboundRepositoryEventProcessor.processInstanceBatchEvent(repositoryName,
+                                                                           metadataCollectionId,
+                                                                           localServerName,
+                                                                           localServerType,
+                                                                           localOrganizationName,
+                                                                           createdInstances);
+            }
+        }
+
+        return createdInstances;
+    }
+
+
     /**
      * Update the status of a specific relationship.
      *
@@ -6295,4 +6923,99 @@ public class LocalOMRSMetadataCollection extends OMRSMetadataCollectionBase
                                                                            homeMetadataCollectionId);
 
     }
+
+
+    /**
+     * Save the entities and relationships supplied in the instance graph as a reference copies.
+     * The id of the home metadata collection is already set up in the instances.
+     * Any instances from the home metadata collection, or from a future version of the OMRS, are ignored.
+     * The remaining instances are validated and then passed to the real repository in a single request so that
+     * it can save them together.
+     *
+     * @param userId unique identifier for requesting server.
+     * @param instances instances to save.
+     * @throws InvalidParameterException one of the instances is invalid.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws TypeErrorException the requested type is not known, or not supported in the metadata repository
+     *                            hosting the metadata collection.
+     * @throws EntityNotKnownException one of the entities identified by the relationship is not found in the
+     *                                   metadata collection.
+     * @throws PropertyErrorException one or more of the requested properties are not defined, or have different
+     *                                  characteristics in the TypeDef for this relationship's type.
+     * @throws EntityConflictException the new entity conflicts with an existing entity.
+     * @throws InvalidEntityException the new entity has invalid contents.
+     * @throws RelationshipConflictException the new relationship conflicts with an existing relationship.
+     * @throws InvalidRelationshipException the new relationship has invalid contents.
+     * @throws FunctionNotSupportedException the repository does not support reference copies of instances.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @Override
+    public void saveInstanceReferenceCopies(String          userId,
+                                            InstanceGraph   instances) throws InvalidParameterException,
+                                                                              RepositoryErrorException,
+                                                                              TypeErrorException,
+                                                                              EntityNotKnownException,
+                                                                              PropertyErrorException,
+                                                                              EntityConflictException,
+                                                                              RelationshipConflictException,
+                                                                              InvalidEntityException,
+                                                                              InvalidRelationshipException,
+                                                                              FunctionNotSupportedException,
+                                                                              UserNotAuthorizedException
+    {
+        final String  methodName = "saveInstanceReferenceCopies";
+
+        if (instances == null)
+        {
+            return;
+        }
+
+        List<EntityDetail>  referenceEntities      = new ArrayList<>();
+        List<Relationship>  referenceRelationships = new ArrayList<>();
+
+        /*
+         * Validate parameters
+         */
+        if (instances.getEntities() != null)
+        {
+            for (EntityDetail entity : instances.getEntities())
+            {
+                if ((entity != null) && (! metadataCollectionId.equals(entity.getMetadataCollectionId())))
+                {
+                    super.referenceInstanceParameterValidation(userId, entity, "entity", methodName);
+
+                    if (entity.getHeaderVersion() <= InstanceAuditHeader.CURRENT_AUDIT_HEADER_VERSION)
+                    {
+                        referenceEntities.add(entity);
+                    }
+                }
+            }
+        }
+
+        if (instances.getRelationships() != null)
+        {
+            for (Relationship relationship : instances.getRelationships())
+            {
+                if ((relationship != null) && (! metadataCollectionId.equals(relationship.getMetadataCollectionId())))
+                {
+                    super.referenceInstanceParameterValidation(userId, relationship, "relationship", methodName);
+
+                    if (relationship.getHeaderVersion() <= InstanceAuditHeader.CURRENT_AUDIT_HEADER_VERSION)
+                    {
+                        referenceRelationships.add(relationship);
+                    }
+                }
+            }
+        }
+
+        /*
+         * Save instances
+         */
+        if ((! referenceEntities.isEmpty()) || (! referenceRelationships.isEmpty()))
+        {
+            realMetadataCollection.saveInstanceReferenceCopies(userId,
+                                                               new InstanceGraph(referenceEntities, referenceRelationships));
+        }
+    }
 }
@@ -3,6 +3,7 @@
 package org.odpi.openmetadata.repositoryservices.localrepository.repositoryconnector;
 
 import org.odpi.openmetadata.frameworks.connectors.ffdc.ConnectorCheckedException;
+import org.odpi.openmetadata.frameworks.connectors.properties.ConnectionProperties;
 import org.odpi.openmetadata.frameworks.connectors.properties.beans.Connection;
 import org.odpi.openmetadata.metadatasecurity.server.OpenMetadataServerSecurityVerifier;
 import org.odpi.openmetadata.repositoryservices.auditlog.OMRSAuditLog;
@@ -19,6 +20,8 @@ import org.odpi.openmetadata.repositoryservices.ffdc.exception.RepositoryErrorEx
 import org.odpi.openmetadata.repositoryservices.localrepository.OMRSLocalRepository;
 import org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager.*;
 
+import java.util.Map;
+
 
 /**
  * LocalOMRSRepositoryConnector provides access the local metadata repository plus manages outbound
@@ -41,6 +44,7 @@ public class LocalOMRSRepositoryConnector extends OMRSRepositoryConnector implem
     private OMRSTypeDefEventProcessor           incomingTypeDefEventProcessor;
     private OMRSInstanceEventProcessor          incomingInstanceEventProcessor   = null;
     private OMRSInstanceRetrievalEventProcessor instanceRetrievalEventProcessor  = null;
+    private LocalOMRSInstanceEventProcessor     localInstanceEventProcessor      = null;
     private OMRSRepositoryEventManager          outboundRepositoryEventManager;
     private OMRSRepositoryEventExchangeRule     saveExchangeRule;
     private OMRSRepositoryConnector             realLocalConnector;
@@ -159,6 +163,11 @@ public class LocalOMRSRepositoryConnector extends OMRSRepositoryConnector implem
     {
         super.disconnect();
 
+        if (localInstanceEventProcessor != null)
+        {
+            localInstanceEventProcessor.disconnect();
+        }
+
         if (realLocalConnector  != null)
         {
             realLocalConnector.disconnect();
@@ -385,8 +394,25 @@ public class LocalOMRSRepositoryConnector extends OMRSRepositoryConnector implem
                                                           outboundRepositoryEventManager,
                                                           auditLog.createNewAuditLog(OMRSAuditingComponent.INSTANCE_EVENT_PROCESSOR));
 
+            /*
+             * The batching of incoming reference copies may be tuned through the configuration properties
+             * of the real local repository's connection.
+             */
+            ConnectionProperties realLocalConnection = realLocalConnector.getConnection();
+
+            if ((realLocalConnection != null) && (realLocalConnection.getConfigurationProperties() != null))
+            {
+                Map<String, Object> configurationProperties = realLocalConnection.getConfigurationProperties();
+                Object              batchWindow             = configurationProperties.get("referenceCopyBatchWindow");
+                Object              batchSize               = configurationProperties.get("referenceCopyBatchSize");
+
+                localOMRSInstanceEventProcessor.setReferenceCopyBatching(batchWindow instanceof Integer ? (Integer)batchWindow : -1,
+                                                                         batchSize instanceof Integer ? (Integer)batchSize : -1);
+            }
+
             this.incomingInstanceEventProcessor = localOMRSInstanceEventProcessor;
             this.instanceRetrievalEventProcessor = localOMRSInstanceEventProcessor;
+            this.localInstanceEventProcessor = localOMRSInstanceEventProcessor;
         }
         catch (Throwable   error)
         {
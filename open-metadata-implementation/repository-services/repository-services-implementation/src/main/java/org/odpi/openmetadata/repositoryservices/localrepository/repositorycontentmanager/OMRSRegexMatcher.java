@@ -0,0 +1,160 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+
+/**
+ * OMRSRegexMatcher tests string values against the regular expressions used in searches.  It gives the same
+ * result as String.matches(regex) but avoids compiling the regular expression for every value tested.
+ * The case-sensitive regular expressions built by the repository helper (getExactMatchRegex, getContainsRegex,
+ * getStartsWithRegex and getEndsWithRegex), and regular expressions with no special characters, are tested
+ * with simple string comparisons.  Other regular expressions are compiled once and kept in a bounded cache.
+ */
+final class OMRSRegexMatcher
+{
+    private static final int MAX_CACHED_PATTERNS = 1000;
+
+    private static final String REGEX_SPECIAL_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    /*
+     * Least recently used patterns are removed from the cache when it is full.
+     */
+    private static final Map<String, Pattern> patternCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, Pattern>(16, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest)
+                {
+                    return size() > MAX_CACHED_PATTERNS;
+                }
+            });
+
+
+    /**
+     * Private constructor - all methods are static.
+     */
+    private OMRSRegexMatcher()
+    {
+    }
+
+
+    /**
+     * Return whether the whole of the value matches the regular expression.
+     *
+     * @param value string to test
+     * @param regex regular expression
+     * @return boolean result - the same as value.matches(regex)
+     * @throws java.util.regex.PatternSyntaxException the regular expression is not valid
+     */
+    static boolean matches(String value, String regex)
+    {
+        if (isLiteral(regex))
+        {
+            return value.equals(regex);
+        }
+
+        if (regex.startsWith("\\Q") || regex.startsWith(".*\\Q"))
+        {
+            /*
+             * A quoted literal, possibly with a leading and/or trailing wildcard.  The wildcards do not match line
+             * terminators so values containing line terminators are left to the compiled pattern.
+             */
+            boolean anyPrefix = regex.startsWith(".*");
+            boolean anySuffix = regex.endsWith("\\E.*");
+            int     start     = anyPrefix ? 4 : 2;
+            int     end       = regex.length() - (anySuffix ? 4 : 2);
+
+            if ((end >= start) && (regex.indexOf("\\E") == end) && (regex.endsWith("\\E") || anySuffix)
+                    && (!(anyPrefix || anySuffix) || !hasLineTerminator(value)))
+            {
+                String literal = regex.substring(start, end);
+
+                if (anyPrefix && anySuffix)
+                {
+                    return value.contains(literal);
+                }
+                else if (anyPrefix)
+                {
+                    return value.endsWith(literal);
+                }
+                else if (anySuffix)
+                {
+                    return value.startsWith(literal);
+                }
+                else
+                {
+                    return value.equals(literal);
+                }
+            }
+        }
+
+        return getPattern(regex).matcher(value).matches();
+    }
+
+
+    /**
+     * Return the compiled pattern for a regular expression, compiling it if it is not cached.
+     *
+     * @param regex regular expression
+     * @return compiled pattern
+     */
+    private static Pattern getPattern(String regex)
+    {
+        Pattern pattern = patternCache.get(regex);
+
+        if (pattern == null)
+        {
+            pattern = Pattern.compile(regex);
+            patternCache.put(regex, pattern);
+        }
+
+        return pattern;
+    }
+
+
+    /**
+     * Return whether the regular expression contains no special characters and so only matches itself.
+     *
+     * @param regex regular expression
+     * @return boolean result
+     */
+    private static boolean isLiteral(String regex)
+    {
+        for (int i = 0; i < regex.length(); i++)
+        {
+            if (REGEX_SPECIAL_CHARACTERS.indexOf(regex.charAt(i)) != -1)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Return whether the value contains a character that "." does not match.
+     *
+     * @param value string to test
+     * @return boolean result
+     */
+    private static boolean hasLineTerminator(String value)
+    {
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+
+            if ((c == '\n') || (c == '\r') || (c == '\u0085') || (c == '\u2028') || (c == '\u2029'))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -11,12 +11,11 @@ import org.odpi.openmetadata.repositoryservices.ffdc.OMRSErrorCode;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.*;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.*;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryHelper;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSResultCollector;
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.util.*;
 import java.util.regex.Pattern;
 
@@ -1451,28 +1450,16 @@ public class OMRSRepositoryContentHelper extends OMRSRepositoryPropertiesUtiliti
             return fullResults;
         }
 
-        int fullResultsSize = fullResults.size();
-
-        Collections.sort(fullResults,
-                         new java.util.Comparator<EntityDetail>()
-                         {
-                             @Override
-                             public int compare(final EntityDetail object1, final EntityDetail object2)
-                             {
-                                 return OMRSRepositoryContentHelper.compareProperties(object1.getProperties(),
-                                                                                      object2.getProperties(),
-                                                                                      sequencingProperty,
-                                                                                      sequencingOrder);
-                             }
-                         });
-
-        if ((fromElement == 0) && (pageSize > fullResults.size()))
+        OMRSResultCollector<EntityDetail> resultCollector = this.getEntityResultCollector(fromElement,
+                                                                                          sequencingProperty,
+                                                                                          sequencingOrder,
+                                                                                          pageSize);
+        for (EntityDetail entity : fullResults)
         {
-            return fullResults;
+            resultCollector.add(entity);
         }
 
-        int toIndex = getToIndex(fromElement, pageSize, fullResultsSize);
-        return new ArrayList<>(fullResults.subList(fromElement, toIndex));
+        return resultCollector.getResults();
     }
 
 
@@ -1515,192 +1502,42 @@ public class OMRSRepositoryContentHelper extends OMRSRepositoryPropertiesUtiliti
             return fullResults;
         }
 
-        int fullResultsSize = fullResults.size();
-
-        if (fromElement > fullResultsSize)
+        OMRSResultCollector<Relationship> resultCollector = this.getRelationshipResultCollector(fromElement,
+                                                                                                sequencingProperty,
+                                                                                                sequencingOrder,
+                                                                                                pageSize);
+        for (Relationship relationship : fullResults)
         {
-            return null;
+            resultCollector.add(relationship);
         }
 
-        Collections.sort(fullResults,
-                         new java.util.Comparator<Relationship>()
-                        {
-                            @Override
-                            public int compare(final Relationship object1, final Relationship object2)
-                            {
-                                return OMRSRepositoryContentHelper.compareProperties(object1.getProperties(),
-                                                                                     object2.getProperties(),
-                                                                                     sequencingProperty,
-                                                                                     sequencingOrder);
-                            }
-                        });
-
-        if ((fromElement == 0) && (pageSize > fullResults.size()))
-        {
-            return fullResults;
-        }
+        return resultCollector.getResults();
+    }
 
-        int toIndex = getToIndex(fromElement, pageSize, fullResultsSize);
 
-        return new ArrayList<>(fullResults.subList(fromElement, toIndex));
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OMRSResultCollector<EntityDetail> getEntityResultCollector(int             fromElement,
+                                                                      String          sequencingProperty,
+                                                                      SequencingOrder sequencingOrder,
+                                                                      int             pageSize)
+    {
+        return new OMRSSequencedResultCollector<>(EntityDetail::getProperties, fromElement, sequencingProperty, sequencingOrder, pageSize);
     }
 
 
     /**
-     * Compare the properties of two instances and determine the sort order based on the nominated property value and
-     * sort order.
-     *
-     * @param instance1Properties properties from first instance
-     * @param instance2Properties properties from second instance
-     * @param propertyName name of property to compare
-     * @param sequencingOrder ascending or descending order
-     * @return sort result
-     */
-    private static int  compareProperties(InstanceProperties     instance1Properties,
-                                          InstanceProperties     instance2Properties,
-                                          String                 propertyName,
-                                          SequencingOrder        sequencingOrder)
-    {
-
-        // todo need to add support for properties in the instance header eg createdBy
-         /*
-          * Ideally we would not include all this type inspection in the comparison
-          * function - but we do not know the types until we are comparing the
-          * pair of instances. There is no guarantee the list is homogeneous or that
-          * the objects to be compared are of the same type.
-          */
-
-         int    sortResult;
-         String o1PropertyTypeName = null;
-         String o2PropertyTypeName = null;
-         Object o1PropertyValue    = null;
-         Object o2PropertyValue    = null;
-
-         /*
-          * If instance1 has the named property, retrieve its value. Same for instance2.
-          * If neither object has the property return 0
-          * If one object has the property sort that higher: +1 if instance1, -1 if instance2
-          * If both have a value for the property, of different types, return 0.
-          * If both have a value for the property, of the same type, compare them...
-          * This is only performed for primitives, anything else is treated as ignored
-          */
-         if (instance1Properties != null)
-         {
-             InstancePropertyValue o1PropValue = instance1Properties.getPropertyValue(propertyName);
-             if (o1PropValue != null)
-             {
-                 InstancePropertyCategory o1PropCat = o1PropValue.getInstancePropertyCategory();
-                 if (o1PropCat == InstancePropertyCategory.PRIMITIVE)
-                 {
-                     o1PropertyTypeName = o1PropValue.getTypeName();
-                     o1PropertyValue = ((PrimitivePropertyValue) o1PropValue).getPrimitiveValue();
-                 }
-             }
-         }
-
-         if (instance2Properties != null)
-         {
-             InstancePropertyValue o2PropValue = instance2Properties.getPropertyValue(propertyName);
-             if (o2PropValue != null)
-             {
-                 InstancePropertyCategory o2PropCat = o2PropValue.getInstancePropertyCategory();
-                 if (o2PropCat == InstancePropertyCategory.PRIMITIVE)
-                 {
-                     o2PropertyTypeName = o2PropValue.getTypeName();
-                     o2PropertyValue = ((PrimitivePropertyValue) o2PropValue).getPrimitiveValue();
-                 }
-             }
-         }
-
-         if (o1PropertyTypeName == null && o2PropertyTypeName == null)
-         {
-             sortResult = 0;
-         }
-         else if (o1PropertyTypeName != null && o2PropertyTypeName == null)
-         {
-             sortResult = 1;
-         }
-         else if (o1PropertyTypeName == null) // implicit: o2PropertyTypeName != null
-         {
-             sortResult = -1;
-         }
-         else if (!o1PropertyTypeName.equals(o2PropertyTypeName))
-         {
-             sortResult = 0;
-         }
-         else
-         {
-             // Both objects have values, of the same type for the named property - compare...
-             sortResult = typeSpecificCompare(o1PropertyTypeName, o1PropertyValue, o2PropertyValue);
-
-         }
-         if (sequencingOrder == SequencingOrder.PROPERTY_DESCENDING)
-         {
-             sortResult = sortResult * (-1);
-         }
-
-         return sortResult;
-
-    }
-
-
-    /**
-     * Compare two objects based on their type.
-     * It must have been previously established that both objects are of the type
-     * indicated by the supplied typeName
-     *
-     * @param typeName name of type
-     * @param v1 value from instance 1
-     * @param v2 value from instance 2
-     * @return sort order
+     * {@inheritDoc}
      */
-    private static int typeSpecificCompare(String typeName, Object v1, Object v2)
+    @Override
+    public OMRSResultCollector<Relationship> getRelationshipResultCollector(int             fromElement,
+                                                                            String          sequencingProperty,
+                                                                            SequencingOrder sequencingOrder,
+                                                                            int             pageSize)
     {
-        int sortOrder;
-        switch (typeName)
-        {
-            case "boolean":
-                sortOrder = ((Boolean) v1).compareTo((Boolean) v2);
-                break;
-            case "byte":
-                sortOrder = ((Byte) v1).compareTo((Byte) v2);
-                break;
-            case "char":
-                sortOrder = ((Character) v1).compareTo((Character) v2);
-                break;
-            case "short":
-                sortOrder = ((Short) v1).compareTo((Short) v2);
-                break;
-            case "integer":
-                sortOrder = ((Integer) v1).compareTo((Integer) v2);
-                break;
-            case "long":
-                sortOrder = ((Long) v1).compareTo((Long) v2);
-                break;
-            case "float":
-                sortOrder = ((Float) v1).compareTo((Float) v2);
-                break;
-            case "double":
-                sortOrder = ((Double) v1).compareTo((Double) v2);
-                break;
-            case "biginteger":
-                sortOrder = ((BigInteger) v1).compareTo((BigInteger) v2);
-                break;
-            case "bigdecimal":
-                sortOrder = ((BigDecimal) v1).compareTo((BigDecimal) v2);
-                break;
-            case "string":
-                sortOrder = ((String) v1).compareTo((String) v2);
-                break;
-            case "date":
-                sortOrder = ((Date) v1).compareTo((Date) v2);
-                break;
-            default:
-                log.debug("Property type not catered for in compare function");
-                sortOrder = 0;
-        }
-
-        return sortOrder;
+        return new OMRSSequencedResultCollector<>(Relationship::getProperties, fromElement, sequencingProperty, sequencingOrder, pageSize);
     }
 
 
@@ -2238,34 +2075,6 @@ public class OMRSRepositoryContentHelper extends OMRSRepositoryPropertiesUtiliti
     }
 
 
-    /**
-     * When issuing find requests with paging, it can be that we have all the data, but need to only return
-     * a subset of the data based on the page size. This method is given the from index and a pageSize and calculates
-     * the to index.
-     * @param fromIndex the index into the data to start from.
-     * @param pageSize the page size to use. 0 means no paging.
-     * @param totalSize the total size of the data.
-     * @return the to index.
-     */
-    private int getToIndex(int fromIndex, int pageSize, int totalSize)
-    {
-        int toIndex;
-
-        if (totalSize < fromIndex + pageSize)
-        {
-            toIndex = totalSize;
-        }
-        else
-        {
-            toIndex = fromIndex + pageSize;
-        }
-
-        return toIndex;
-    }
-
-
-
-
     /**
      * Throws a logic error exception when the repository validator is called with invalid parameters.
      * Normally this means the repository validator methods have been called in the wrong order.
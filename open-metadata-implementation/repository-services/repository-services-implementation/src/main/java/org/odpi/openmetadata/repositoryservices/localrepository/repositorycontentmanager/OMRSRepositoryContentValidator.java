@@ -3613,7 +3613,7 @@ public class OMRSRepositoryContentValidator implements OMRSRepositoryValidator
                                                 {
                                                     try
                                                     {
-                                                        if (instancePropertyValueString.matches(matchPropertyValueString))
+                                                        if (OMRSRegexMatcher.matches(instancePropertyValueString, matchPropertyValueString))
                                                         {
                                                             matchingProperties++;
                                                         }
@@ -3672,7 +3672,7 @@ public class OMRSRepositoryContentValidator implements OMRSRepositoryValidator
 
                     if (matchValue != null)
                     {
-                        if (matchValue.matches(expectedValue))
+                        if (OMRSRegexMatcher.matches(matchValue, expectedValue))
                         {
                             result = true;
                         }
@@ -4010,7 +4010,7 @@ public class OMRSRepositoryContentValidator implements OMRSRepositoryValidator
                         else
                         {
                             String actual = actualValue.valueAsString();
-                            matchesProperties = actual.matches(test);
+                            matchesProperties = OMRSRegexMatcher.matches(actual, test);
                         }
                     }
                     else
@@ -4248,7 +4248,7 @@ public class OMRSRepositoryContentValidator implements OMRSRepositoryValidator
 
                             if (stringProperty != null)
                             {
-                                if (stringProperty.matches(searchCriteria))
+                                if (OMRSRegexMatcher.matches(stringProperty, searchCriteria))
                                 {
                                     return true;
                                 }
@@ -4262,7 +4262,7 @@ public class OMRSRepositoryContentValidator implements OMRSRepositoryValidator
                         String  enumValue = enumPropertyValue.getSymbolicName();
                         if (enumValue != null)
                         {
-                            if (enumValue.matches(searchCriteria))
+                            if (OMRSRegexMatcher.matches(enumValue, searchCriteria))
                             {
                                 return true;
                             }
@@ -0,0 +1,323 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager;
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.SequencingOrder;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceProperties;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePropertyCategory;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePropertyValue;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.PrimitivePropertyValue;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSResultCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+
+/**
+ * OMRSSequencedResultCollector applies the paging and sequencing parameters of a search to instances as they are found.
+ * When a page size is requested, only the instances that sort before the end of the requested page are kept - these are
+ * held in a heap with the instance that sorts last at its head, so each instance found costs O(log(fromElement + pageSize))
+ * and the full list of matching instances is never built.  The value of the sequencing property is extracted from each
+ * instance once, when it is added.
+ *
+ * Instances with equal sequencing property values are returned in the order that they were added.
+ *
+ * @param <T> type of instance being collected
+ */
+class OMRSSequencedResultCollector<T> implements OMRSResultCollector<T>
+{
+    private static final Logger log = LoggerFactory.getLogger(OMRSSequencedResultCollector.class);
+
+    private final Function<T, InstanceProperties> propertiesAccessor;
+    private final int                             fromElement;
+    private final String                          sequencingProperty;
+    private final SequencingOrder                 sequencingOrder;
+    private final int                             pageSize;
+    private final int                             maxRetained;
+
+    private final List<T>                      unsequencedResults = new ArrayList<>();
+    private final PriorityQueue<Candidate<T>>  sequencedResults;
+    private long                               instanceCount = 0;
+
+
+    /**
+     * An instance that has been found, with the value used to sequence it.
+     *
+     * @param <T> type of instance
+     */
+    private static class Candidate<T>
+    {
+        private final T      instance;
+        private final String propertyTypeName;
+        private final Object propertyValue;
+        private final long   sequenceNumber;
+
+        Candidate(T instance, String propertyTypeName, Object propertyValue, long sequenceNumber)
+        {
+            this.instance = instance;
+            this.propertyTypeName = propertyTypeName;
+            this.propertyValue = propertyValue;
+            this.sequenceNumber = sequenceNumber;
+        }
+    }
+
+
+    /**
+     * Constructor sets up the paging and sequencing parameters.
+     *
+     * @param propertiesAccessor function to return the properties of an instance
+     * @param fromElement the starting element number of the instances to return
+     * @param sequencingProperty name of the property that is to be used to sequence the results - null means
+     *                           the results are returned in the order they are added
+     * @param sequencingOrder ascending or descending order
+     * @param pageSize the maximum number of instances to return - zero means unrestricted
+     */
+    OMRSSequencedResultCollector(Function<T, InstanceProperties> propertiesAccessor,
+                                 int                             fromElement,
+                                 String                          sequencingProperty,
+                                 SequencingOrder                 sequencingOrder,
+                                 int                             pageSize)
+    {
+        this.propertiesAccessor = propertiesAccessor;
+        this.fromElement = fromElement;
+        this.sequencingProperty = sequencingProperty;
+        this.sequencingOrder = sequencingOrder;
+        this.pageSize = pageSize;
+        this.maxRetained = (int) Math.min((long) fromElement + (long) pageSize, Integer.MAX_VALUE);
+
+        if ((pageSize == 0) || (sequencingProperty == null))
+        {
+            this.sequencedResults = null;
+        }
+        else
+        {
+            this.sequencedResults = new PriorityQueue<>((candidate1, candidate2) -> compareCandidates(candidate2, candidate1));
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(T instance)
+    {
+        long sequenceNumber = instanceCount++;
+
+        if (sequencedResults == null)
+        {
+            /*
+             * The instances are returned in the order they are added.
+             */
+            if ((pageSize == 0) || (unsequencedResults.size() < maxRetained))
+            {
+                unsequencedResults.add(instance);
+            }
+        }
+        else
+        {
+            Candidate<T> candidate = this.getCandidate(instance, sequenceNumber);
+
+            if (sequencedResults.size() < maxRetained)
+            {
+                sequencedResults.add(candidate);
+            }
+            else if (compareCandidates(candidate, sequencedResults.peek()) < 0)
+            {
+                sequencedResults.poll();
+                sequencedResults.add(candidate);
+            }
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<T> getResults()
+    {
+        if (instanceCount == 0)
+        {
+            return null;
+        }
+
+        if ((pageSize != 0) && (fromElement > instanceCount))
+        {
+            return null;
+        }
+
+        List<T> retainedResults;
+
+        if (sequencedResults == null)
+        {
+            retainedResults = unsequencedResults;
+        }
+        else
+        {
+            List<Candidate<T>> candidates = new ArrayList<>(sequencedResults);
+            candidates.sort(this::compareCandidates);
+
+            retainedResults = new ArrayList<>(candidates.size());
+            for (Candidate<T> candidate : candidates)
+            {
+                retainedResults.add(candidate.instance);
+            }
+        }
+
+        if ((pageSize == 0) || (fromElement == 0))
+        {
+            return retainedResults;
+        }
+
+        return new ArrayList<>(retainedResults.subList(fromElement, retainedResults.size()));
+    }
+
+
+    /**
+     * Extract the value of the sequencing property from an instance.  Only primitive values are used to sequence
+     * the instances - anything else is treated as if the property is not set.
+     *
+     * @param instance instance that has been found
+     * @param sequenceNumber order the instance was added in
+     * @return candidate to sequence
+     */
+    private Candidate<T> getCandidate(T instance, long sequenceNumber)
+    {
+        String             propertyTypeName = null;
+        Object             propertyValue    = null;
+        InstanceProperties properties       = propertiesAccessor.apply(instance);
+
+        if (properties != null)
+        {
+            InstancePropertyValue instancePropertyValue = properties.getPropertyValue(sequencingProperty);
+
+            if ((instancePropertyValue != null) && (instancePropertyValue.getInstancePropertyCategory() == InstancePropertyCategory.PRIMITIVE))
+            {
+                propertyTypeName = instancePropertyValue.getTypeName();
+                propertyValue = ((PrimitivePropertyValue) instancePropertyValue).getPrimitiveValue();
+            }
+        }
+
+        return new Candidate<>(instance, propertyTypeName, propertyValue, sequenceNumber);
+    }
+
+
+    /**
+     * Compare two candidates on their sequencing property values, and then on the order that they were added.
+     *
+     * If neither candidate has the property they are equal.
+     * If one candidate has the property it sorts higher.
+     * If both have a value for the property, of different types, they are equal.
+     * If both have a value for the property, of the same type, the values are compared.
+     *
+     * @param candidate1 first candidate
+     * @param candidate2 second candidate
+     * @return sort result
+     */
+    private int compareCandidates(Candidate<T> candidate1, Candidate<T> candidate2)
+    {
+        int sortResult;
+
+        if ((candidate1.propertyTypeName == null) && (candidate2.propertyTypeName == null))
+        {
+            sortResult = 0;
+        }
+        else if (candidate2.propertyTypeName == null)
+        {
+            sortResult = 1;
+        }
+        else if (candidate1.propertyTypeName == null)
+        {
+            sortResult = -1;
+        }
+        else if (!candidate1.propertyTypeName.equals(candidate2.propertyTypeName))
+        {
+            sortResult = 0;
+        }
+        else
+        {
+            sortResult = typeSpecificCompare(candidate1.propertyTypeName, candidate1.propertyValue, candidate2.propertyValue);
+        }
+
+        if (sequencingOrder == SequencingOrder.PROPERTY_DESCENDING)
+        {
+            sortResult = sortResult * (-1);
+        }
+
+        if (sortResult == 0)
+        {
+            sortResult = Long.compare(candidate1.sequenceNumber, candidate2.sequenceNumber);
+        }
+
+        return sortResult;
+    }
+
+
+    /**
+     * Compare two objects based on their type.
+     * It must have been previously established that both objects are of the type
+     * indicated by the supplied typeName
+     *
+     * @param typeName name of type
+     * @param v1 value from instance 1
+     * @param v2 value from instance 2
+     * @return sort order
+     */
+    private static int typeSpecificCompare(String typeName, Object v1, Object v2)
+    {
+        int sortOrder;
+        switch (typeName)
+        {
+            case "boolean":
+                sortOrder = ((Boolean) v1).compareTo((Boolean) v2);
+                break;
+            case "byte":
+                sortOrder = ((Byte) v1).compareTo((Byte) v2);
+                break;
+            case "char":
+                sortOrder = ((Character) v1).compareTo((Character) v2);
+                break;
+            case "short":
+                sortOrder = ((Short) v1).compareTo((Short) v2);
+                break;
+            case "int":
+            case "integer":
+                sortOrder = ((Integer) v1).compareTo((Integer) v2);
+                break;
+            case "long":
+                sortOrder = ((Long) v1).compareTo((Long) v2);
+                break;
+            case "float":
+                sortOrder = ((Float) v1).compareTo((Float) v2);
+                break;
+            case "double":
+                sortOrder = ((Double) v1).compareTo((Double) v2);
+                break;
+            case "biginteger":
+                sortOrder = ((BigInteger) v1).compareTo((BigInteger) v2);
+                break;
+            case "bigdecimal":
+                sortOrder = ((BigDecimal) v1).compareTo((BigDecimal) v2);
+                break;
+            case "string":
+                sortOrder = ((String) v1).compareTo((String) v2);
+                break;
+            case "date":
+                sortOrder = ((Date) v1).compareTo((Date) v2);
+                break;
+            default:
+                log.debug("Property type not catered for in compare function");
+                sortOrder = 0;
+        }
+
+        return sortOrder;
+    }
+}
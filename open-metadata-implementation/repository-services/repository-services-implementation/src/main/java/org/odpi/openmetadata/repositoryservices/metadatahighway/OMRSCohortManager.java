@@ -366,6 +366,11 @@ public class OMRSCohortManager
                 cohortTopicConnector.disconnect();
             }
 
+            if (cohortRepositoryEventManager != null)
+            {
+                cohortRepositoryEventManager.disconnect();
+            }
+
             cohortConnectionStatus = CohortConnectionStatus.DISCONNECTED;
         }
         catch (ConnectorCheckedException   error)
@@ -2000,6 +2000,126 @@ public class OMRSRepositoryRESTServices
     }
 
 
+    /**
+     * Returns the entities from the requested list that are stored in the metadata collection.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the entities.
+     * @return EntityListResponse:
+     * the entities that are found in the metadata collection in the order requested or
+     * InvalidParameterException one of the guids is null or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public EntityListResponse areEntitiesKnown(String          serverName,
+                                               String          userId,
+                                               GUIDListRequest guids)
+    {
+        final  String   methodName = "areEntitiesKnown";
+
+        log.debug("Calling method: " + methodName);
+
+        EntityListResponse response = new EntityListResponse();
+
+        try
+        {
+            OMRSMetadataCollection metadataCollection = validateRepository(userId, serverName, methodName);
+
+            if (guids != null)
+            {
+                response.setEntities(metadataCollection.areEntitiesKnown(userId, guids.getGUIDs()));
+            }
+        }
+        catch (RepositoryErrorException  error)
+        {
+            captureRepositoryErrorException(response, error);
+        }
+        catch (UserNotAuthorizedException error)
+        {
+            captureUserNotAuthorizedException(response, error);
+        }
+        catch (InvalidParameterException error)
+        {
+            captureInvalidParameterException(response, error);
+        }
+        catch (Throwable error)
+        {
+            captureThrowable(response, error, userId, serverName, methodName);
+        }
+
+        log.debug("Returning from method: " + methodName + " with response: " + response.toString());
+
+        return response;
+    }
+
+
+    /**
+     * Return the header, classifications and properties of each of the requested entities.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the entities.
+     * @return EntityListResponse:
+     * EntityDetail structures in the order requested or
+     * InvalidParameterException one of the guids is null or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                 the metadata collection is stored or
+     * EntityNotKnownException one of the requested entity instances is not known in the metadata collection or
+     * EntityProxyOnlyException one of the requested entity instances is only a proxy in the metadata collection or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public EntityListResponse getEntityDetails(String          serverName,
+                                               String          userId,
+                                               GUIDListRequest guids)
+    {
+        final  String   methodName = "getEntityDetails";
+
+        log.debug("Calling method: " + methodName);
+
+        EntityListResponse response = new EntityListResponse();
+
+        try
+        {
+            OMRSMetadataCollection metadataCollection = validateRepository(userId, serverName, methodName);
+
+            if (guids != null)
+            {
+                response.setEntities(metadataCollection.getEntityDetails(userId, guids.getGUIDs()));
+            }
+        }
+        catch (RepositoryErrorException  error)
+        {
+            captureRepositoryErrorException(response, error);
+        }
+        catch (UserNotAuthorizedException error)
+        {
+            captureUserNotAuthorizedException(response, error);
+        }
+        catch (InvalidParameterException error)
+        {
+            captureInvalidParameterException(response, error);
+        }
+        catch (EntityNotKnownException error)
+        {
+            captureEntityNotKnownException(response, error);
+        }
+        catch (EntityProxyOnlyException error)
+        {
+            captureEntityProxyOnlyException(response, error);
+        }
+        catch (Throwable error)
+        {
+            captureThrowable(response, error, userId, serverName, methodName);
+        }
+
+        log.debug("Returning from method: " + methodName + " with response: " + response.toString());
+
+        return response;
+    }
+
+
     /**
      * Return the relationships for a specific entity.
      *
@@ -2126,6 +2246,191 @@ public class OMRSRepositoryRESTServices
     }
 
 
+    /**
+     * Return a page of the relationships for a specific entity.  The page is located with the cursor returned
+     * with the previous page.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param entityGUID String unique identifier for the entity.
+     * @param findRequestParameters find parameters used to limit the returned results.  The cursor, type,
+     *                              status and page size are used.
+     * @return RelationshipListResponse:
+     * Relationships list with the cursor for the next page.  A null cursor means there are no more results or
+     * InvalidParameterException a parameter is invalid or null or
+     * TypeErrorException the type guid passed on the request is not known by the metadata collection or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored or
+     * EntityNotKnownException the requested entity instance is not known in the metadata collection or
+     * PagingErrorException the cursor or page size is not valid or
+     * FunctionNotSupportedException the repository does not support this optional method or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public RelationshipListResponse getRelationshipsForEntityWithCursor(String                     serverName,
+                                                                        String                     userId,
+                                                                        String                     entityGUID,
+                                                                        TypeLimitedFindRequest     findRequestParameters)
+    {
+        final  String   methodName = "getRelationshipsForEntityWithCursor";
+
+        log.debug("Calling method: " + methodName);
+
+        String               relationshipTypeGUID    = null;
+        String               cursor                  = null;
+        List<InstanceStatus> limitResultsByStatus    = null;
+        int                  pageSize                = 0;
+
+        RelationshipListResponse response = new RelationshipListResponse();
+
+        if (findRequestParameters != null)
+        {
+            relationshipTypeGUID    = findRequestParameters.getTypeGUID();
+            cursor                  = findRequestParameters.getCursor();
+            limitResultsByStatus    = findRequestParameters.getLimitResultsByStatus();
+            pageSize                = findRequestParameters.getPageSize();
+        }
+
+        try
+        {
+            OMRSMetadataCollection metadataCollection = validateRepository(userId, serverName, methodName);
+
+            InstancePage<Relationship> page = metadataCollection.getRelationshipsForEntityWithCursor(userId,
+                                                                                                     entityGUID,
+                                                                                                     relationshipTypeGUID,
+                                                                                                     cursor,
+                                                                                                     limitResultsByStatus,
+                                                                                                     pageSize);
+            if (page != null)
+            {
+                response.setRelationships(page.getInstances());
+                response.setNextCursor(page.getNextCursor());
+            }
+            response.setPageSize(pageSize);
+        }
+        catch (RepositoryErrorException error)
+        {
+            captureRepositoryErrorException(response, error);
+        }
+        catch (FunctionNotSupportedException error)
+        {
+            captureFunctionNotSupportedException(response, error);
+        }
+        catch (UserNotAuthorizedException error)
+        {
+            captureUserNotAuthorizedException(response, error);
+        }
+        catch (InvalidParameterException error)
+        {
+            captureInvalidParameterException(response, error);
+        }
+        catch (EntityNotKnownException error)
+        {
+            captureEntityNotKnownException(response, error);
+        }
+        catch (TypeErrorException error)
+        {
+            captureTypeErrorException(response, error);
+        }
+        catch (PagingErrorException error)
+        {
+            capturePagingErrorException(response, error);
+        }
+        catch (Throwable error)
+        {
+            captureThrowable(response, error, userId, serverName, methodName);
+        }
+
+        log.debug("Returning from method: " + methodName + " with response: " + response.toString());
+
+        return response;
+    }
+
+
+    /**
+     * Return the number of relationships for a specific entity without retrieving them.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param entityGUID String unique identifier for the entity.
+     * @param countRequestParameters count parameters.  The type, status and excluded home metadata collection ids
+     *                               are used.
+     * @return CountResponse:
+     * count of the relationships or
+     * InvalidParameterException a parameter is invalid or null or
+     * TypeErrorException the type guid passed on the request is not known by the metadata collection or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored or
+     * EntityNotKnownException the requested entity instance is not known in the metadata collection or
+     * FunctionNotSupportedException the repository does not support this optional method or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public CountResponse countRelationshipsForEntity(String                serverName,
+                                                     String                userId,
+                                                     String                entityGUID,
+                                                     InstanceCountRequest  countRequestParameters)
+    {
+        final  String   methodName = "countRelationshipsForEntity";
+
+        log.debug("Calling method: " + methodName);
+
+        String               relationshipTypeGUID              = null;
+        List<InstanceStatus> limitResultsByStatus              = null;
+        List<String>         excludedHomeMetadataCollectionIds = null;
+
+        CountResponse response = new CountResponse();
+
+        if (countRequestParameters != null)
+        {
+            relationshipTypeGUID              = countRequestParameters.getTypeGUID();
+            limitResultsByStatus              = countRequestParameters.getLimitResultsByStatus();
+            excludedHomeMetadataCollectionIds = countRequestParameters.getExcludedHomeMetadataCollectionIds();
+        }
+
+        try
+        {
+            OMRSMetadataCollection metadataCollection = validateRepository(userId, serverName, methodName);
+
+            response.setCount(metadataCollection.countRelationshipsForEntity(userId,
+                                                                             entityGUID,
+                                                                             relationshipTypeGUID,
+                                                                             limitResultsByStatus,
+                                                                             excludedHomeMetadataCollectionIds));
+        }
+        catch (RepositoryErrorException error)
+        {
+            captureRepositoryErrorException(response, error);
+        }
+        catch (FunctionNotSupportedException error)
+        {
+            captureFunctionNotSupportedException(response, error);
+        }
+        catch (UserNotAuthorizedException error)
+        {
+            captureUserNotAuthorizedException(response, error);
+        }
+        catch (InvalidParameterException error)
+        {
+            captureInvalidParameterException(response, error);
+        }
+        catch (EntityNotKnownException error)
+        {
+            captureEntityNotKnownException(response, error);
+        }
+        catch (TypeErrorException error)
+        {
+            captureTypeErrorException(response, error);
+        }
+        catch (Throwable error)
+        {
+            captureThrowable(response, error, userId, serverName, methodName);
+        }
+
+        log.debug("Returning from method: " + methodName + " with response: " + response.toString());
+
+        return response;
+    }
+
+
     /**
      * Return the relationships for a specific entity.
      *
@@ -2460,18 +2765,255 @@ public class OMRSRepositoryRESTServices
                 {
                     final String urlTemplate = "{0}/instances/entities/history";
 
-                    EntityHistoricalFindRequest nextFindRequestParameters = new EntityHistoricalFindRequest(findRequestParameters);
-                    nextFindRequestParameters.setOffset(fromEntityElement + pageSize);
+                    EntityHistoricalFindRequest nextFindRequestParameters = new EntityHistoricalFindRequest(findRequestParameters);
+                    nextFindRequestParameters.setOffset(fromEntityElement + pageSize);
+
+                    response.setNextPageURL(formatNextPageURL(methodName,
+                            serverName,
+                            userId,
+                            urlTemplate,
+                            nextFindRequestParameters,
+                            userId));
+                }
+            }
+
+        }
+        catch (RepositoryErrorException  error)
+        {
+            captureRepositoryErrorException(response, error);
+        }
+        catch (FunctionNotSupportedException  error)
+        {
+            captureFunctionNotSupportedException(response, error);
+        }
+        catch (UserNotAuthorizedException error)
+        {
+            captureUserNotAuthorizedException(response, error);
+        }
+        catch (InvalidParameterException error)
+        {
+            captureInvalidParameterException(response, error);
+        }
+        catch (TypeErrorException error)
+        {
+            captureTypeErrorException(response, error);
+        }
+        catch (PropertyErrorException error)
+        {
+            capturePropertyErrorException(response, error);
+        }
+        catch (PagingErrorException error)
+        {
+            capturePagingErrorException(response, error);
+        }
+        catch (Throwable error)
+        {
+            captureThrowable(response, error, userId, serverName, methodName);
+        }
+
+        log.debug("Returning from method: " + methodName + " with response: " + response.toString());
+
+        return response;
+    }
+
+
+    /**
+     * Return a list of entities that match the supplied properties according to the match criteria.  The results
+     * can be returned over many pages.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param findRequestParameters find parameters used to limit the returned results.
+     * @return EntityListResponse:
+     * a list of entities matching the supplied criteria where null means no matching entities in the metadata
+     * collection or
+     * InvalidParameterException a parameter is invalid or null or
+     * TypeErrorException the type guid passed on the request is not known by the metadata collection or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored or
+     * PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  entity or
+     * PagingErrorException the paging/sequencing parameters are set up incorrectly or
+     * FunctionNotSupportedException the repository does not support asOfTime parameter or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public  EntityListResponse findEntitiesByProperty(String                    serverName,
+                                                      String                    userId,
+                                                      EntityPropertyFindRequest findRequestParameters)
+    {
+        final  String   methodName = "findEntitiesByProperty";
+
+        log.debug("Calling method: " + methodName);
+
+        String               entityTypeGUID               = null;
+        InstanceProperties   matchProperties              = null;
+        MatchCriteria        matchCriteria                = null;
+        int                  fromEntityElement            = 0;
+        List<InstanceStatus> limitResultsByStatus         = null;
+        List<String>         limitResultsByClassification = null;
+        String               sequencingProperty           = null;
+        SequencingOrder      sequencingOrder              = null;
+        int                  pageSize                     = 0;
+
+        EntityListResponse response = new EntityListResponse();
+
+        if (findRequestParameters != null)
+        {
+            entityTypeGUID                    = findRequestParameters.getTypeGUID();
+            matchProperties                   = findRequestParameters.getMatchProperties();
+            matchCriteria                     = findRequestParameters.getMatchCriteria();
+            fromEntityElement                 = findRequestParameters.getOffset();
+            limitResultsByStatus              = findRequestParameters.getLimitResultsByStatus();
+            limitResultsByClassification      = findRequestParameters.getLimitResultsByClassification();
+            sequencingProperty                = findRequestParameters.getSequencingProperty();
+            sequencingOrder                   = findRequestParameters.getSequencingOrder();
+            pageSize                          = findRequestParameters.getPageSize();
+        }
+
+        try
+        {
+            OMRSMetadataCollection metadataCollection = validateRepository(userId, serverName, methodName);
+
+            List<EntityDetail>  entities = metadataCollection.findEntitiesByProperty(userId,
+                                                                                     entityTypeGUID,
+                                                                                     matchProperties,
+                                                                                     matchCriteria,
+                                                                                     fromEntityElement,
+                                                                                     limitResultsByStatus,
+                                                                                     limitResultsByClassification,
+                                                                                     null,
+                                                                                     sequencingProperty,
+                                                                                     sequencingOrder,
+                                                                                     pageSize);
+            response.setEntities(entities);
+            if (entities != null)
+            {
+                response.setOffset(fromEntityElement);
+                response.setPageSize(pageSize);
+                if (entities.size() == pageSize)
+                {
+                    final String urlTemplate = "{0}/instances/entities/by-property";
+
+                    EntityPropertyFindRequest nextFindRequestParameters = new EntityPropertyFindRequest(findRequestParameters);
+                    nextFindRequestParameters.setOffset(fromEntityElement + pageSize);
+
+                    response.setNextPageURL(formatNextPageURL(methodName,
+                                                              serverName,
+                                                              userId,
+                                                              urlTemplate,
+                                                              nextFindRequestParameters,
+                                                              userId));
+                }
+            }
+
+        }
+        catch (RepositoryErrorException  error)
+        {
+            captureRepositoryErrorException(response, error);
+        }
+        catch (FunctionNotSupportedException  error)
+        {
+            captureFunctionNotSupportedException(response, error);
+        }
+        catch (UserNotAuthorizedException error)
+        {
+            captureUserNotAuthorizedException(response, error);
+        }
+        catch (InvalidParameterException error)
+        {
+            captureInvalidParameterException(response, error);
+        }
+        catch (TypeErrorException error)
+        {
+            captureTypeErrorException(response, error);
+        }
+        catch (PropertyErrorException error)
+        {
+            capturePropertyErrorException(response, error);
+        }
+        catch (PagingErrorException error)
+        {
+            capturePagingErrorException(response, error);
+        }
+        catch (Throwable error)
+        {
+            captureThrowable(response, error, userId, serverName, methodName);
+        }
+
+        log.debug("Returning from method: " + methodName + " with response: " + response.toString());
+
+        return response;
+    }
+
+
+    /**
+     * Return a page of the entities that match the supplied properties according to the match criteria.  The page
+     * is located with the cursor returned with the previous page.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param findRequestParameters find parameters used to limit the returned results.  The cursor, type,
+     *                              match properties, status, classifications and page size are used.
+     * @return EntityListResponse:
+     * a list of entities matching the supplied criteria with the cursor for the next page.  A null cursor means
+     * there are no more results or
+     * InvalidParameterException a parameter is invalid or null or
+     * TypeErrorException the type guid passed on the request is not known by the metadata collection or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored or
+     * PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  entity or
+     * PagingErrorException the cursor or page size is not valid or
+     * FunctionNotSupportedException the repository does not support this optional method or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public  EntityListResponse findEntitiesByPropertyWithCursor(String                    serverName,
+                                                                String                    userId,
+                                                                EntityPropertyFindRequest findRequestParameters)
+    {
+        final  String   methodName = "findEntitiesByPropertyWithCursor";
+
+        log.debug("Calling method: " + methodName);
+
+        String               entityTypeGUID               = null;
+        InstanceProperties   matchProperties              = null;
+        MatchCriteria        matchCriteria                = null;
+        String               cursor                       = null;
+        List<InstanceStatus> limitResultsByStatus         = null;
+        List<String>         limitResultsByClassification = null;
+        int                  pageSize                     = 0;
+
+        EntityListResponse response = new EntityListResponse();
+
+        if (findRequestParameters != null)
+        {
+            entityTypeGUID                    = findRequestParameters.getTypeGUID();
+            matchProperties                   = findRequestParameters.getMatchProperties();
+            matchCriteria                     = findRequestParameters.getMatchCriteria();
+            cursor                            = findRequestParameters.getCursor();
+            limitResultsByStatus              = findRequestParameters.getLimitResultsByStatus();
+            limitResultsByClassification      = findRequestParameters.getLimitResultsByClassification();
+            pageSize                          = findRequestParameters.getPageSize();
+        }
+
+        try
+        {
+            OMRSMetadataCollection metadataCollection = validateRepository(userId, serverName, methodName);
 
-                    response.setNextPageURL(formatNextPageURL(methodName,
-                            serverName,
-                            userId,
-                            urlTemplate,
-                            nextFindRequestParameters,
-                            userId));
-                }
+            InstancePage<EntityDetail> page = metadataCollection.findEntitiesByPropertyWithCursor(userId,
+                                                                                                  entityTypeGUID,
+                                                                                                  matchProperties,
+                                                                                                  matchCriteria,
+                                                                                                  cursor,
+                                                                                                  limitResultsByStatus,
+                                                                                                  limitResultsByClassification,
+                                                                                                  pageSize);
+            if (page != null)
+            {
+                response.setEntities(page.getInstances());
+                response.setNextCursor(page.getNextCursor());
             }
-
+            response.setPageSize(pageSize);
         }
         catch (RepositoryErrorException  error)
         {
@@ -2513,100 +3055,66 @@ public class OMRSRepositoryRESTServices
 
 
     /**
-     * Return a list of entities that match the supplied properties according to the match criteria.  The results
-     * can be returned over many pages.
+     * Return the number of entities that match the supplied criteria without retrieving them.
      *
      * @param serverName unique identifier for requested server.
      * @param userId unique identifier for requesting user.
-     * @param findRequestParameters find parameters used to limit the returned results.
-     * @return EntityListResponse:
-     * a list of entities matching the supplied criteria where null means no matching entities in the metadata
-     * collection or
+     * @param countRequestParameters count parameters used to select the entities to count.
+     * @return CountResponse:
+     * count of the entities or
      * InvalidParameterException a parameter is invalid or null or
      * TypeErrorException the type guid passed on the request is not known by the metadata collection or
      * RepositoryErrorException there is a problem communicating with the metadata repository where
-     *                                    the metadata collection is stored or
+     *                                  the metadata collection is stored or
      * PropertyErrorException the properties specified are not valid for any of the requested types of
      *                                  entity or
-     * PagingErrorException the paging/sequencing parameters are set up incorrectly or
-     * FunctionNotSupportedException the repository does not support asOfTime parameter or
+     * FunctionNotSupportedException the repository does not support this optional method or
      * UserNotAuthorizedException the userId is not permitted to perform this operation.
      */
-    public  EntityListResponse findEntitiesByProperty(String                    serverName,
-                                                      String                    userId,
-                                                      EntityPropertyFindRequest findRequestParameters)
+    public CountResponse countEntities(String                serverName,
+                                       String                userId,
+                                       InstanceCountRequest  countRequestParameters)
     {
-        final  String   methodName = "findEntitiesByProperty";
+        final  String   methodName = "countEntities";
 
         log.debug("Calling method: " + methodName);
 
-        String               entityTypeGUID               = null;
-        InstanceProperties   matchProperties              = null;
-        MatchCriteria        matchCriteria                = null;
-        int                  fromEntityElement            = 0;
-        List<InstanceStatus> limitResultsByStatus         = null;
-        List<String>         limitResultsByClassification = null;
-        String               sequencingProperty           = null;
-        SequencingOrder      sequencingOrder              = null;
-        int                  pageSize                     = 0;
+        String                entityTypeGUID                    = null;
+        List<String>          entitySubtypeGUIDs                = null;
+        SearchProperties      matchProperties                   = null;
+        List<InstanceStatus>  limitResultsByStatus              = null;
+        SearchClassifications matchClassifications              = null;
+        List<String>          excludedHomeMetadataCollectionIds = null;
 
-        EntityListResponse response = new EntityListResponse();
+        CountResponse response = new CountResponse();
 
-        if (findRequestParameters != null)
+        if (countRequestParameters != null)
         {
-            entityTypeGUID                    = findRequestParameters.getTypeGUID();
-            matchProperties                   = findRequestParameters.getMatchProperties();
-            matchCriteria                     = findRequestParameters.getMatchCriteria();
-            fromEntityElement                 = findRequestParameters.getOffset();
-            limitResultsByStatus              = findRequestParameters.getLimitResultsByStatus();
-            limitResultsByClassification      = findRequestParameters.getLimitResultsByClassification();
-            sequencingProperty                = findRequestParameters.getSequencingProperty();
-            sequencingOrder                   = findRequestParameters.getSequencingOrder();
-            pageSize                          = findRequestParameters.getPageSize();
+            entityTypeGUID                    = countRequestParameters.getTypeGUID();
+            entitySubtypeGUIDs                = countRequestParameters.getSubtypeGUIDs();
+            matchProperties                   = countRequestParameters.getMatchProperties();
+            limitResultsByStatus              = countRequestParameters.getLimitResultsByStatus();
+            matchClassifications              = countRequestParameters.getMatchClassifications();
+            excludedHomeMetadataCollectionIds = countRequestParameters.getExcludedHomeMetadataCollectionIds();
         }
 
         try
         {
             OMRSMetadataCollection metadataCollection = validateRepository(userId, serverName, methodName);
 
-            List<EntityDetail>  entities = metadataCollection.findEntitiesByProperty(userId,
-                                                                                     entityTypeGUID,
-                                                                                     matchProperties,
-                                                                                     matchCriteria,
-                                                                                     fromEntityElement,
-                                                                                     limitResultsByStatus,
-                                                                                     limitResultsByClassification,
-                                                                                     null,
-                                                                                     sequencingProperty,
-                                                                                     sequencingOrder,
-                                                                                     pageSize);
-            response.setEntities(entities);
-            if (entities != null)
-            {
-                response.setOffset(fromEntityElement);
-                response.setPageSize(pageSize);
-                if (entities.size() == pageSize)
-                {
-                    final String urlTemplate = "{0}/instances/entities/by-property";
-
-                    EntityPropertyFindRequest nextFindRequestParameters = new EntityPropertyFindRequest(findRequestParameters);
-                    nextFindRequestParameters.setOffset(fromEntityElement + pageSize);
-
-                    response.setNextPageURL(formatNextPageURL(methodName,
-                                                              serverName,
-                                                              userId,
-                                                              urlTemplate,
-                                                              nextFindRequestParameters,
-                                                              userId));
-                }
-            }
-
+            response.setCount(metadataCollection.countEntities(userId,
+                                                               entityTypeGUID,
+                                                               entitySubtypeGUIDs,
+                                                               matchProperties,
+                                                               limitResultsByStatus,
+                                                               matchClassifications,
+                                                               excludedHomeMetadataCollectionIds));
         }
-        catch (RepositoryErrorException  error)
+        catch (RepositoryErrorException error)
         {
             captureRepositoryErrorException(response, error);
         }
-        catch (FunctionNotSupportedException  error)
+        catch (FunctionNotSupportedException error)
         {
             captureFunctionNotSupportedException(response, error);
         }
@@ -2618,17 +3126,13 @@ public class OMRSRepositoryRESTServices
         {
             captureInvalidParameterException(response, error);
         }
-        catch (TypeErrorException error)
-        {
-            captureTypeErrorException(response, error);
-        }
         catch (PropertyErrorException error)
         {
             capturePropertyErrorException(response, error);
         }
-        catch (PagingErrorException error)
+        catch (TypeErrorException error)
         {
-            capturePagingErrorException(response, error);
+            captureTypeErrorException(response, error);
         }
         catch (Throwable error)
         {
@@ -3495,6 +3999,122 @@ public class OMRSRepositoryRESTServices
     }
 
 
+    /**
+     * Returns the relationships from the requested list that are stored in the metadata collection.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the relationships.
+     * @return RelationshipListResponse:
+     * the relationships that are found in the metadata collection in the order requested or
+     * InvalidParameterException one of the guids is null or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public RelationshipListResponse areRelationshipsKnown(String          serverName,
+                                                          String          userId,
+                                                          GUIDListRequest guids)
+    {
+        final  String   methodName = "areRelationshipsKnown";
+
+        log.debug("Calling method: " + methodName);
+
+        RelationshipListResponse response = new RelationshipListResponse();
+
+        try
+        {
+            OMRSMetadataCollection metadataCollection = validateRepository(userId, serverName, methodName);
+
+            if (guids != null)
+            {
+                response.setRelationships(metadataCollection.areRelationshipsKnown(userId, guids.getGUIDs()));
+            }
+        }
+        catch (RepositoryErrorException  error)
+        {
+            captureRepositoryErrorException(response, error);
+        }
+        catch (UserNotAuthorizedException error)
+        {
+            captureUserNotAuthorizedException(response, error);
+        }
+        catch (InvalidParameterException error)
+        {
+            captureInvalidParameterException(response, error);
+        }
+        catch (Throwable error)
+        {
+            captureThrowable(response, error, userId, serverName, methodName);
+        }
+
+        log.debug("Returning from method: " + methodName + " with response: " + response.toString());
+
+        return response;
+    }
+
+
+    /**
+     * Return the current version of each of the requested relationships.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the relationships.
+     * @return RelationshipListResponse:
+     * relationship structures in the order requested or
+     * InvalidParameterException one of the guids is null or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored or
+     * RelationshipNotKnownException the metadata collection does not have a relationship with
+     *                                         one of the requested GUIDs stored or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public RelationshipListResponse getRelationships(String          serverName,
+                                                     String          userId,
+                                                     GUIDListRequest guids)
+    {
+        final  String   methodName = "getRelationships";
+
+        log.debug("Calling method: " + methodName);
+
+        RelationshipListResponse response = new RelationshipListResponse();
+
+        try
+        {
+            OMRSMetadataCollection metadataCollection = validateRepository(userId, serverName, methodName);
+
+            if (guids != null)
+            {
+                response.setRelationships(metadataCollection.getRelationships(userId, guids.getGUIDs()));
+            }
+        }
+        catch (RepositoryErrorException  error)
+        {
+            captureRepositoryErrorException(response, error);
+        }
+        catch (UserNotAuthorizedException error)
+        {
+            captureUserNotAuthorizedException(response, error);
+        }
+        catch (InvalidParameterException error)
+        {
+            captureInvalidParameterException(response, error);
+        }
+        catch (RelationshipNotKnownException error)
+        {
+            captureRelationshipNotKnownException(response, error);
+        }
+        catch (Throwable error)
+        {
+            captureThrowable(response, error, userId, serverName, methodName);
+        }
+
+        log.debug("Returning from method: " + methodName + " with response: " + response.toString());
+
+        return response;
+    }
+
+
     /**
      * Return a list of relationships that match the requested conditions.  The results can be broken into pages.
      *
@@ -3870,6 +4490,94 @@ public class OMRSRepositoryRESTServices
     }
 
 
+    /**
+     * Return the number of relationships that match the supplied criteria without retrieving them.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param countRequestParameters count parameters used to select the relationships to count.
+     * @return CountResponse:
+     * count of the relationships or
+     * InvalidParameterException a parameter is invalid or null or
+     * TypeErrorException the type guid passed on the request is not known by the metadata collection or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored or
+     * PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  relationship or
+     * FunctionNotSupportedException the repository does not support this optional method or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public CountResponse countRelationships(String                serverName,
+                                            String                userId,
+                                            InstanceCountRequest  countRequestParameters)
+    {
+        final  String   methodName = "countRelationships";
+
+        log.debug("Calling method: " + methodName);
+
+        String                relationshipTypeGUID              = null;
+        List<String>          relationshipSubtypeGUIDs          = null;
+        SearchProperties      matchProperties                   = null;
+        List<InstanceStatus>  limitResultsByStatus              = null;
+        List<String>          excludedHomeMetadataCollectionIds = null;
+
+        CountResponse response = new CountResponse();
+
+        if (countRequestParameters != null)
+        {
+            relationshipTypeGUID              = countRequestParameters.getTypeGUID();
+            relationshipSubtypeGUIDs          = countRequestParameters.getSubtypeGUIDs();
+            matchProperties                   = countRequestParameters.getMatchProperties();
+            limitResultsByStatus              = countRequestParameters.getLimitResultsByStatus();
+            excludedHomeMetadataCollectionIds = countRequestParameters.getExcludedHomeMetadataCollectionIds();
+        }
+
+        try
+        {
+            OMRSMetadataCollection metadataCollection = validateRepository(userId, serverName, methodName);
+
+            response.setCount(metadataCollection.countRelationships(userId,
+                                                                    relationshipTypeGUID,
+                                                                    relationshipSubtypeGUIDs,
+                                                                    matchProperties,
+                                                                    limitResultsByStatus,
+                                                                    excludedHomeMetadataCollectionIds));
+        }
+        catch (RepositoryErrorException error)
+        {
+            captureRepositoryErrorException(response, error);
+        }
+        catch (FunctionNotSupportedException error)
+        {
+            captureFunctionNotSupportedException(response, error);
+        }
+        catch (UserNotAuthorizedException error)
+        {
+            captureUserNotAuthorizedException(response, error);
+        }
+        catch (InvalidParameterException error)
+        {
+            captureInvalidParameterException(response, error);
+        }
+        catch (PropertyErrorException error)
+        {
+            capturePropertyErrorException(response, error);
+        }
+        catch (TypeErrorException error)
+        {
+            captureTypeErrorException(response, error);
+        }
+        catch (Throwable error)
+        {
+            captureThrowable(response, error, userId, serverName, methodName);
+        }
+
+        log.debug("Returning from method: " + methodName + " with response: " + response.toString());
+
+        return response;
+    }
+
+
     /**
      * Return a list of relationships that match the requested properties by the matching criteria.   The results
      * can be broken into pages.
@@ -0,0 +1,354 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector;
+
+import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogDestination;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogRecord;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.OMRSMetadataCollectionBase;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.SequencingOrder;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.*;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchClassifications;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchProperties;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryConnector;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryValidator;
+import org.odpi.openmetadata.repositoryservices.ffdc.OMRSErrorCode;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
+import org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager.OMRSRepositoryContentHelper;
+import org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager.OMRSRepositoryContentManager;
+import org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager.OMRSRepositoryContentValidator;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+/**
+ * EnterpriseOMRSMetadataCollectionCountTest verifies that the enterprise counts add up the counts of the cohort
+ * members, counting each instance once even when reference copies of it are stored in several members.
+ */
+public class EnterpriseOMRSMetadataCollectionCountTest
+{
+    private static final String USER_ID     = "testUser";
+    private static final String ENTITY_GUID = "anchor-guid";
+
+
+    /**
+     * Cohort member that counts a fixed list of instances.  It can be set up to be unable to count, as a server
+     * running an older release is, in which case the instances are retrieved instead.
+     */
+    private static class TestMemberMetadataCollection extends OMRSMetadataCollectionBase
+    {
+        private final String             memberId;
+        private final List<EntityDetail> entities       = new ArrayList<>();
+        private final List<Relationship> relationships  = new ArrayList<>();
+        private boolean                  countSupported = true;
+        private boolean                  entityKnown    = true;
+        private List<String>             lastExcluded   = null;
+
+
+        TestMemberMetadataCollection(String metadataCollectionId, OMRSRepositoryValidator repositoryValidator)
+        {
+            super(null, metadataCollectionId, new OMRSRepositoryContentHelper(null), repositoryValidator, metadataCollectionId);
+
+            this.memberId = metadataCollectionId;
+        }
+
+
+        @Override
+        public String getMetadataCollectionId(String userId)
+        {
+            return memberId;
+        }
+
+
+        @Override
+        public int countEntities(String                userId,
+                                 String                entityTypeGUID,
+                                 List<String>          entitySubtypeGUIDs,
+                                 SearchProperties      matchProperties,
+                                 List<InstanceStatus>  limitResultsByStatus,
+                                 SearchClassifications matchClassifications,
+                                 List<String>          excludedHomeMetadataCollectionIds) throws FunctionNotSupportedException
+        {
+            this.checkCountSupported();
+
+            lastExcluded = excludedHomeMetadataCollectionIds;
+
+            return countHomeInstances(entities, excludedHomeMetadataCollectionIds);
+        }
+
+
+        @Override
+        public List<EntityDetail> findEntities(String                userId,
+                                               String                entityTypeGUID,
+                                               List<String>          entitySubtypeGUIDs,
+                                               SearchProperties      matchProperties,
+                                               int                   fromEntityElement,
+                                               List<InstanceStatus>  limitResultsByStatus,
+                                               SearchClassifications matchClassifications,
+                                               Date                  asOfTime,
+                                               String                sequencingProperty,
+                                               SequencingOrder       sequencingOrder,
+                                               int                   pageSize)
+        {
+            return new ArrayList<>(entities);
+        }
+
+
+        @Override
+        public int countRelationships(String               userId,
+                                      String               relationshipTypeGUID,
+                                      List<String>         relationshipSubtypeGUIDs,
+                                      SearchProperties     matchProperties,
+                                      List<InstanceStatus> limitResultsByStatus,
+                                      List<String>         excludedHomeMetadataCollectionIds) throws FunctionNotSupportedException
+        {
+            this.checkCountSupported();
+
+            lastExcluded = excludedHomeMetadataCollectionIds;
+
+            return countHomeInstances(relationships, excludedHomeMetadataCollectionIds);
+        }
+
+
+        @Override
+        public int countRelationshipsForEntity(String               userId,
+                                               String               entityGUID,
+                                               String               relationshipTypeGUID,
+                                               List<InstanceStatus> limitResultsByStatus,
+                                               List<String>         excludedHomeMetadataCollectionIds) throws EntityNotKnownException,
+                                                                                                              FunctionNotSupportedException
+        {
+            this.checkCountSupported();
+
+            if (! entityKnown)
+            {
+                throw new EntityNotKnownException(OMRSErrorCode.ENTITY_NOT_KNOWN.getMessageDefinition(ENTITY_GUID, "count", memberId),
+                                                  this.getClass().getName(),
+                                                  "count");
+            }
+
+            lastExcluded = excludedHomeMetadataCollectionIds;
+
+            return countHomeInstances(relationships, excludedHomeMetadataCollectionIds);
+        }
+
+
+        private void checkCountSupported() throws FunctionNotSupportedException
+        {
+            if (! countSupported)
+            {
+                throw new FunctionNotSupportedException(OMRSErrorCode.REST_API_NOT_SUPPORTED.getMessageDefinition("count", memberId),
+                                                        this.getClass().getName(),
+                                                        "count");
+            }
+        }
+
+
+        private static int countHomeInstances(List<? extends InstanceHeader> instances, List<String> excludedHomeMetadataCollectionIds)
+        {
+            int count = 0;
+
+            for (InstanceHeader instance : instances)
+            {
+                if ((excludedHomeMetadataCollectionIds == null) ||
+                    (! excludedHomeMetadataCollectionIds.contains(instance.getMetadataCollectionId())))
+                {
+                    count++;
+                }
+            }
+
+            return count;
+        }
+    }
+
+
+    /**
+     * Connector to a cohort member.
+     */
+    private static class TestMemberConnector extends OMRSRepositoryConnector
+    {
+        TestMemberConnector(String metadataCollectionId, TestMemberMetadataCollection metadataCollection)
+        {
+            super.metadataCollectionId = metadataCollectionId;
+            super.metadataCollection   = metadataCollection;
+        }
+    }
+
+
+    /**
+     * Enterprise connector with a fixed list of cohort members.
+     */
+    private static class TestEnterpriseConnector extends EnterpriseOMRSRepositoryConnector
+    {
+        private final List<OMRSRepositoryConnector> cohortConnectors = new ArrayList<>();
+
+        TestEnterpriseConnector()
+        {
+            super(null);
+        }
+
+        @Override
+        List<OMRSRepositoryConnector> getCohortConnectors(String methodName)
+        {
+            return cohortConnectors;
+        }
+
+        @Override
+        public void validateRepositoryIsActive(String methodName)
+        {
+        }
+    }
+
+
+    private final OMRSRepositoryValidator repositoryValidator = getRepositoryValidator();
+
+
+    private OMRSRepositoryValidator getRepositoryValidator()
+    {
+        AuditLog auditLog = new AuditLog(new AuditLogDestination(null)
+        {
+            @Override
+            public void addLogRecord(AuditLogRecord logRecord)
+            {
+            }
+        }, 0, "Test", "Test", null);
+
+        return new OMRSRepositoryContentValidator(new OMRSRepositoryContentManager(USER_ID, auditLog));
+    }
+
+
+    /**
+     * Set up a member that stores its own instances and reference copies of instances homed elsewhere.
+     *
+     * @param metadataCollectionId member's metadata collection id
+     * @param homeIds home metadata collection id of each instance the member stores
+     * @return member
+     */
+    private TestMemberMetadataCollection getMember(String metadataCollectionId, String... homeIds)
+    {
+        TestMemberMetadataCollection member = new TestMemberMetadataCollection(metadataCollectionId, repositoryValidator);
+
+        List<String> storedHomeIds = new ArrayList<>();
+        for (String homeId : homeIds)
+        {
+            /*
+             * The guid is made from the home metadata collection id and a sequence number for that home, so a
+             * reference copy has the same guid as the instance in its home repository.
+             */
+            String guid = homeId + "-" + Collections.frequency(storedHomeIds, homeId);
+
+            storedHomeIds.add(homeId);
+
+            EntityDetail entity = new EntityDetail();
+            entity.setGUID(guid);
+            entity.setMetadataCollectionId(homeId);
+            entity.setVersion(1L);
+            member.entities.add(entity);
+
+            Relationship relationship = new Relationship();
+            relationship.setGUID(guid);
+            relationship.setMetadataCollectionId(homeId);
+            relationship.setVersion(1L);
+            member.relationships.add(relationship);
+        }
+
+        return member;
+    }
+
+
+    private EnterpriseOMRSMetadataCollection getEnterpriseMetadataCollection(TestMemberMetadataCollection... members)
+    {
+        TestEnterpriseConnector enterpriseConnector = new TestEnterpriseConnector();
+
+        for (TestMemberMetadataCollection member : members)
+        {
+            enterpriseConnector.cohortConnectors.add(new TestMemberConnector(member.memberId, member));
+        }
+
+        return new EnterpriseOMRSMetadataCollection(enterpriseConnector,
+                                                    "TestEnterprise",
+                                                    new OMRSRepositoryContentHelper(null),
+                                                    repositoryValidator,
+                                                    "enterprise",
+                                                    null,
+                                                    null);
+    }
+
+
+    @Test
+    public void testReferenceCopiesAreCountedOnce() throws Exception
+    {
+        /*
+         * member1 holds two of its own instances, a reference copy of one of member2's instances and a reference
+         * copy of an instance whose home is outside the cohort.  member2 holds its own two instances.
+         */
+        TestMemberMetadataCollection member1 = getMember("member1", "member1", "member1", "member2", "outside");
+        TestMemberMetadataCollection member2 = getMember("member2", "member2", "member2");
+
+        EnterpriseOMRSMetadataCollection metadataCollection = getEnterpriseMetadataCollection(member1, member2);
+
+        assertEquals(metadataCollection.countEntities(USER_ID, null, null, null, null, null), 5);
+        assertEquals(member1.lastExcluded, Collections.singletonList("member2"));
+        assertEquals(member2.lastExcluded, Collections.singletonList("member1"));
+
+        assertEquals(metadataCollection.countRelationships(USER_ID, null, null, null, null), 5);
+        assertEquals(metadataCollection.countRelationshipsForEntity(USER_ID, ENTITY_GUID, null, null), 5);
+
+        /*
+         * A caller of the enterprise connector can exclude further metadata collections.
+         */
+        assertEquals(metadataCollection.countEntities(USER_ID, null, null, null, null, null, Collections.singletonList("outside")), 4);
+        assertEquals(new HashSet<>(member1.lastExcluded), new HashSet<>(Arrays.asList("member2", "outside")));
+    }
+
+
+    @Test
+    public void testMemberThatCannotCountFallsBackToRetrieval() throws Exception
+    {
+        TestMemberMetadataCollection member1 = getMember("member1", "member1", "member2", "outside");
+        TestMemberMetadataCollection member2 = getMember("member2", "member2", "member2");
+
+        member2.countSupported = false;
+
+        EnterpriseOMRSMetadataCollection metadataCollection = getEnterpriseMetadataCollection(member1, member2);
+
+        /*
+         * The reference copy of member2's instance held by member1 is the same instance as the one held by member2.
+         */
+        assertEquals(metadataCollection.countEntities(USER_ID, null, null, null, null, null), 4);
+    }
+
+
+    @Test
+    public void testEntityNotKnownOnlyWhenNoMemberKnowsIt() throws Exception
+    {
+        TestMemberMetadataCollection member1 = getMember("member1", "member1");
+        TestMemberMetadataCollection member2 = getMember("member2", "member2", "member2");
+
+        member1.entityKnown = false;
+
+        EnterpriseOMRSMetadataCollection metadataCollection = getEnterpriseMetadataCollection(member1, member2);
+
+        assertEquals(metadataCollection.countRelationshipsForEntity(USER_ID, ENTITY_GUID, null, null), 2);
+
+        member2.entityKnown = false;
+
+        try
+        {
+            metadataCollection.countRelationshipsForEntity(USER_ID, ENTITY_GUID, null, null);
+            fail("The entity is known");
+        }
+        catch (EntityNotKnownException expected)
+        {
+            // none of the members know the entity
+        }
+    }
+}
@@ -0,0 +1,565 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector;
+
+import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogDestination;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogRecord;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.OMRSMetadataCollectionBase;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.MatchCriteria;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.SequencingOrder;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.*;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryConnector;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryValidator;
+import org.odpi.openmetadata.repositoryservices.ffdc.OMRSErrorCode;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
+import org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager.OMRSRepositoryContentHelper;
+import org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager.OMRSRepositoryContentManager;
+import org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager.OMRSRepositoryContentValidator;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+
+/**
+ * EnterpriseOMRSMetadataCollectionCursorTest verifies that the cursor-based enterprise searches page through each
+ * of the cohort members in turn.
+ */
+public class EnterpriseOMRSMetadataCollectionCursorTest
+{
+    private static final String USER_ID     = "testUser";
+    private static final String ENTITY_GUID = "anchor-guid";
+    private static final int    PAGE_SIZE   = 2;
+
+
+    /**
+     * Cohort member that pages through a fixed list of instances.  It can be set up to reject cursors, as a server
+     * running an older release does, or to fail every request.
+     */
+    private static class TestMemberMetadataCollection extends OMRSMetadataCollectionBase
+    {
+        private final String             memberId;
+        private final List<EntityDetail> entities         = new ArrayList<>();
+        private final List<Relationship> relationships    = new ArrayList<>();
+        private boolean                  cursorsSupported = true;
+        private Exception                failure          = null;
+
+
+        TestMemberMetadataCollection(String metadataCollectionId, OMRSRepositoryValidator repositoryValidator)
+        {
+            super(null, metadataCollectionId, new OMRSRepositoryContentHelper(null), repositoryValidator, metadataCollectionId);
+
+            this.memberId = metadataCollectionId;
+        }
+
+
+        @Override
+        public InstancePage<EntityDetail> findEntitiesByPropertyWithCursor(String               userId,
+                                                                           String               entityTypeGUID,
+                                                                           InstanceProperties   matchProperties,
+                                                                           MatchCriteria        matchCriteria,
+                                                                           String               cursor,
+                                                                           List<InstanceStatus> limitResultsByStatus,
+                                                                           List<String>         limitResultsByClassification,
+                                                                           int                  pageSize) throws InvalidParameterException,
+                                                                                                                 RepositoryErrorException,
+                                                                                                                 FunctionNotSupportedException,
+                                                                                                                 UserNotAuthorizedException
+        {
+            this.checkRequest(true);
+
+            int fromElement = (cursor == null) ? 0 : Integer.parseInt(cursor.substring("member-cursor-".length()));
+
+            return new InstancePage<>(getPage(entities, fromElement, pageSize), getNextCursor(entities, fromElement, pageSize));
+        }
+
+
+        @Override
+        public List<EntityDetail> findEntitiesByProperty(String               userId,
+                                                         String               entityTypeGUID,
+                                                         InstanceProperties   matchProperties,
+                                                         MatchCriteria        matchCriteria,
+                                                         int                  fromEntityElement,
+                                                         List<InstanceStatus> limitResultsByStatus,
+                                                         List<String>         limitResultsByClassification,
+                                                         Date                 asOfTime,
+                                                         String               sequencingProperty,
+                                                         SequencingOrder      sequencingOrder,
+                                                         int                  pageSize) throws InvalidParameterException,
+                                                                                               RepositoryErrorException,
+                                                                                               FunctionNotSupportedException,
+                                                                                               UserNotAuthorizedException
+        {
+            this.checkRequest(false);
+
+            return getPage(entities, fromEntityElement, pageSize);
+        }
+
+
+        @Override
+        public InstancePage<Relationship> getRelationshipsForEntityWithCursor(String               userId,
+                                                                              String               entityGUID,
+                                                                              String               relationshipTypeGUID,
+                                                                              String               cursor,
+                                                                              List<InstanceStatus> limitResultsByStatus,
+                                                                              int                  pageSize) throws InvalidParameterException,
+                                                                                                                     RepositoryErrorException,
+                                                                                                                     EntityNotKnownException,
+                                                                                                                     FunctionNotSupportedException,
+                                                                                                                     UserNotAuthorizedException
+        {
+            this.checkRequest(true);
+            this.checkEntityKnown();
+
+            int fromElement = (cursor == null) ? 0 : Integer.parseInt(cursor.substring("member-cursor-".length()));
+
+            return new InstancePage<>(getPage(relationships, fromElement, pageSize), getNextCursor(relationships, fromElement, pageSize));
+        }
+
+
+        @Override
+        public List<Relationship> getRelationshipsForEntity(String               userId,
+                                                            String               entityGUID,
+                                                            String               relationshipTypeGUID,
+                                                            int                  fromRelationshipElement,
+                                                            List<InstanceStatus> limitResultsByStatus,
+                                                            Date                 asOfTime,
+                                                            String               sequencingProperty,
+                                                            SequencingOrder      sequencingOrder,
+                                                            int                  pageSize) throws InvalidParameterException,
+                                                                                                  RepositoryErrorException,
+                                                                                                  EntityNotKnownException,
+                                                                                                  FunctionNotSupportedException,
+                                                                                                  UserNotAuthorizedException
+        {
+            this.checkRequest(false);
+            this.checkEntityKnown();
+
+            return getPage(relationships, fromRelationshipElement, pageSize);
+        }
+
+
+        private void checkRequest(boolean withCursor) throws InvalidParameterException,
+                                                             RepositoryErrorException,
+                                                             FunctionNotSupportedException,
+                                                             UserNotAuthorizedException
+        {
+            if (failure instanceof RepositoryErrorException)
+            {
+                throw (RepositoryErrorException) failure;
+            }
+            else if (failure instanceof UserNotAuthorizedException)
+            {
+                throw (UserNotAuthorizedException) failure;
+            }
+            else if (failure instanceof InvalidParameterException)
+            {
+                throw (InvalidParameterException) failure;
+            }
+
+            if (withCursor && (! cursorsSupported))
+            {
+                throw new FunctionNotSupportedException(OMRSErrorCode.REST_API_NOT_SUPPORTED.getMessageDefinition("cursor", memberId),
+                                                        this.getClass().getName(),
+                                                        "cursor");
+            }
+        }
+
+
+        private void checkEntityKnown() throws EntityNotKnownException
+        {
+            if (relationships.isEmpty())
+            {
+                throw new EntityNotKnownException(OMRSErrorCode.ENTITY_NOT_KNOWN.getMessageDefinition(ENTITY_GUID, "cursor", memberId),
+                                                  this.getClass().getName(),
+                                                  "cursor");
+            }
+        }
+
+
+        private static <T> List<T> getPage(List<T> instances, int fromElement, int pageSize)
+        {
+            if (fromElement >= instances.size())
+            {
+                return null;
+            }
+
+            return new ArrayList<>(instances.subList(fromElement, Math.min(instances.size(), fromElement + pageSize)));
+        }
+
+
+        private static String getNextCursor(List<?> instances, int fromElement, int pageSize)
+        {
+            if (fromElement + pageSize < instances.size())
+            {
+                return "member-cursor-" + (fromElement + pageSize);
+            }
+
+            return null;
+        }
+    }
+
+
+    /**
+     * Connector to a cohort member.
+     */
+    private static class TestMemberConnector extends OMRSRepositoryConnector
+    {
+        TestMemberConnector(String metadataCollectionId, TestMemberMetadataCollection metadataCollection)
+        {
+            super.metadataCollectionId = metadataCollectionId;
+            super.metadataCollection   = metadataCollection;
+        }
+    }
+
+
+    /**
+     * Enterprise connector with a fixed list of cohort members.
+     */
+    private static class TestEnterpriseConnector extends EnterpriseOMRSRepositoryConnector
+    {
+        private final List<OMRSRepositoryConnector> cohortConnectors = new ArrayList<>();
+
+        TestEnterpriseConnector()
+        {
+            super(null);
+        }
+
+        @Override
+        List<OMRSRepositoryConnector> getCohortConnectors(String methodName)
+        {
+            return cohortConnectors;
+        }
+
+        @Override
+        public void validateRepositoryIsActive(String methodName)
+        {
+        }
+    }
+
+
+    private final OMRSRepositoryValidator repositoryValidator = getRepositoryValidator();
+
+
+    private OMRSRepositoryValidator getRepositoryValidator()
+    {
+        AuditLog auditLog = new AuditLog(new AuditLogDestination(null)
+        {
+            @Override
+            public void addLogRecord(AuditLogRecord logRecord)
+            {
+            }
+        }, 0, "Test", "Test", null);
+
+        return new OMRSRepositoryContentValidator(new OMRSRepositoryContentManager(USER_ID, auditLog));
+    }
+
+
+    private TestMemberMetadataCollection getMember(String metadataCollectionId, int instanceCount)
+    {
+        TestMemberMetadataCollection member = new TestMemberMetadataCollection(metadataCollectionId, repositoryValidator);
+
+        for (int i = 0; i < instanceCount; i++)
+        {
+            EntityDetail entity = new EntityDetail();
+            entity.setGUID(metadataCollectionId + "-entity-" + i);
+            entity.setMetadataCollectionId(metadataCollectionId);
+            member.entities.add(entity);
+
+            Relationship relationship = new Relationship();
+            relationship.setGUID(metadataCollectionId + "-relationship-" + i);
+            relationship.setMetadataCollectionId(metadataCollectionId);
+            member.relationships.add(relationship);
+        }
+
+        return member;
+    }
+
+
+    private EnterpriseOMRSMetadataCollection getEnterpriseMetadataCollection(TestMemberMetadataCollection... members)
+    {
+        TestEnterpriseConnector enterpriseConnector = new TestEnterpriseConnector();
+
+        for (TestMemberMetadataCollection member : members)
+        {
+            enterpriseConnector.cohortConnectors.add(new TestMemberConnector(member.memberId, member));
+        }
+
+        return new EnterpriseOMRSMetadataCollection(enterpriseConnector,
+                                                    "TestEnterprise",
+                                                    new OMRSRepositoryContentHelper(null),
+                                                    repositoryValidator,
+                                                    "enterprise",
+                                                    "member1",
+                                                    null);
+    }
+
+
+    private List<String> findAllEntities(EnterpriseOMRSMetadataCollection metadataCollection,
+                                         List<String>                     cursors) throws Exception
+    {
+        List<String> guids  = new ArrayList<>();
+        String       cursor = null;
+
+        do
+        {
+            InstancePage<EntityDetail> page = metadataCollection.findEntitiesByPropertyWithCursor(USER_ID,
+                                                                                                  null,
+                                                                                                  null,
+                                                                                                  null,
+                                                                                                  cursor,
+                                                                                                  null,
+                                                                                                  null,
+                                                                                                  PAGE_SIZE);
+            if (page.getInstances() != null)
+            {
+                for (EntityDetail entity : page.getInstances())
+                {
+                    guids.add(entity.getGUID());
+                }
+            }
+
+            cursor = page.getNextCursor();
+
+            if (cursor != null)
+            {
+                cursors.add(cursor);
+            }
+        }
+        while (cursor != null);
+
+        return guids;
+    }
+
+
+    private List<String> getAllRelationships(EnterpriseOMRSMetadataCollection metadataCollection) throws Exception
+    {
+        List<String> guids  = new ArrayList<>();
+        String       cursor = null;
+
+        do
+        {
+            InstancePage<Relationship> page = metadataCollection.getRelationshipsForEntityWithCursor(USER_ID,
+                                                                                                     ENTITY_GUID,
+                                                                                                     null,
+                                                                                                     cursor,
+                                                                                                     null,
+                                                                                                     PAGE_SIZE);
+            if (page.getInstances() != null)
+            {
+                for (Relationship relationship : page.getInstances())
+                {
+                    guids.add(relationship.getGUID());
+                }
+            }
+
+            cursor = page.getNextCursor();
+        }
+        while (cursor != null);
+
+        return guids;
+    }
+
+
+    private String encode(String value)
+    {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    @Test
+    public void testCursorRecordsMemberAndMemberCursor() throws Exception
+    {
+        EnterpriseOMRSMetadataCollection metadataCollection = getEnterpriseMetadataCollection(getMember("member1", 3),
+                                                                                              getMember("member2", 1));
+        List<String> cursors = new ArrayList<>();
+
+        assertEquals(findAllEntities(metadataCollection, cursors),
+                     Arrays.asList("member1-entity-0", "member1-entity-1", "member1-entity-2", "member2-entity-0"));
+
+        /*
+         * The cursor is the member's metadata collection id and the member's own cursor, separated by a dot.
+         * An empty member cursor means the member's first element.
+         */
+        assertEquals(cursors, Arrays.asList(encode("member1") + "." + encode("member-cursor-2"),
+                                            encode("member2") + "."));
+    }
+
+
+    @Test
+    public void testMemberWithoutCursorsIsPagedByOffset() throws Exception
+    {
+        TestMemberMetadataCollection olderMember = getMember("member2", 3);
+
+        olderMember.cursorsSupported = false;
+
+        EnterpriseOMRSMetadataCollection metadataCollection = getEnterpriseMetadataCollection(getMember("member1", 1),
+                                                                                              olderMember);
+        List<String> cursors = new ArrayList<>();
+
+        assertEquals(findAllEntities(metadataCollection, cursors),
+                     Arrays.asList("member1-entity-0", "member2-entity-0", "member2-entity-1", "member2-entity-2"));
+
+        assertEquals(cursors, Arrays.asList(encode("member2") + ".", encode("member2") + "..2"));
+
+        assertEquals(getAllRelationships(metadataCollection),
+                     Arrays.asList("member1-relationship-0", "member2-relationship-0", "member2-relationship-1", "member2-relationship-2"));
+    }
+
+
+    @Test
+    public void testFailingMemberIsSkipped() throws Exception
+    {
+        TestMemberMetadataCollection failingMember = getMember("member2", 3);
+
+        failingMember.failure = new RepositoryErrorException(OMRSErrorCode.NULL_METADATA_COLLECTION.getMessageDefinition("member2"),
+                                                             this.getClass().getName(),
+                                                             "test");
+
+        EnterpriseOMRSMetadataCollection metadataCollection = getEnterpriseMetadataCollection(getMember("member1", 1),
+                                                                                              failingMember,
+                                                                                              getMember("member3", 1));
+
+        assertEquals(findAllEntities(metadataCollection, new ArrayList<>()),
+                     Arrays.asList("member1-entity-0", "member3-entity-0"));
+        assertEquals(getAllRelationships(metadataCollection),
+                     Arrays.asList("member1-relationship-0", "member3-relationship-0"));
+    }
+
+
+    @Test
+    public void testReferenceCopiesReturnedWhenHomeMemberFails() throws Exception
+    {
+        TestMemberMetadataCollection member1 = getMember("member1", 1);
+        TestMemberMetadataCollection member2 = getMember("member2", 2);
+        TestMemberMetadataCollection member3 = getMember("member3", 1);
+
+        /*
+         * Member 1 holds a reference copy of one of member 2's entities and relationships.
+         */
+        member1.entities.add(member2.entities.get(1));
+        member1.relationships.add(member2.relationships.get(1));
+
+        EnterpriseOMRSMetadataCollection metadataCollection = getEnterpriseMetadataCollection(member1, member2, member3);
+
+        assertEquals(findAllEntities(metadataCollection, new ArrayList<>()),
+                     Arrays.asList("member1-entity-0", "member2-entity-0", "member2-entity-1", "member3-entity-0"));
+
+        member2.failure = new RepositoryErrorException(OMRSErrorCode.NULL_METADATA_COLLECTION.getMessageDefinition("member2"),
+                                                       this.getClass().getName(),
+                                                       "test");
+
+        List<String> cursors = new ArrayList<>();
+
+        assertEquals(findAllEntities(metadataCollection, cursors),
+                     Arrays.asList("member1-entity-0", "member3-entity-0", "member2-entity-1"));
+        assertEquals(getAllRelationships(metadataCollection),
+                     Arrays.asList("member1-relationship-0", "member3-relationship-0", "member2-relationship-1"));
+
+        /*
+         * Once member 2 has failed, the cursor records it, and whether the members are being visited again.
+         */
+        assertEquals(cursors, Arrays.asList(encode("member2") + ".",
+                                            encode("member1") + "...R" + encode("member2"),
+                                            encode("member3") + "...R" + encode("member2")));
+    }
+
+
+    @Test
+    public void testErrorsReturnedWhenNoMemberResponds() throws Exception
+    {
+        TestMemberMetadataCollection failingMember = getMember("member1", 3);
+        TestMemberMetadataCollection refusingMember = getMember("member2", 3);
+
+        failingMember.failure = new RepositoryErrorException(OMRSErrorCode.NULL_METADATA_COLLECTION.getMessageDefinition("member1"),
+                                                             this.getClass().getName(),
+                                                             "test");
+        refusingMember.failure = new UserNotAuthorizedException(OMRSErrorCode.NULL_METADATA_COLLECTION.getMessageDefinition("member2"),
+                                                                this.getClass().getName(),
+                                                                "test",
+                                                                USER_ID);
+
+        EnterpriseOMRSMetadataCollection metadataCollection = getEnterpriseMetadataCollection(failingMember, refusingMember);
+
+        try
+        {
+            findAllEntities(metadataCollection, new ArrayList<>());
+            fail("No exception returned");
+        }
+        catch (UserNotAuthorizedException expected)
+        {
+            // the user error takes precedence
+        }
+    }
+
+
+    @Test
+    public void testEntityNotKnownOnlyWhenNoMemberKnowsIt() throws Exception
+    {
+        EnterpriseOMRSMetadataCollection metadataCollection = getEnterpriseMetadataCollection(getMember("member1", 0),
+                                                                                              getMember("member2", 1));
+
+        assertEquals(getAllRelationships(metadataCollection), Arrays.asList("member2-relationship-0"));
+
+        metadataCollection = getEnterpriseMetadataCollection(getMember("member1", 0), getMember("member2", 0));
+
+        try
+        {
+            getAllRelationships(metadataCollection);
+            fail("The entity is known");
+        }
+        catch (EntityNotKnownException expected)
+        {
+            // none of the members know the entity
+        }
+    }
+
+
+    @Test
+    public void testLaterPagesIgnoreFailures() throws Exception
+    {
+        TestMemberMetadataCollection failingMember = getMember("member2", 3);
+
+        EnterpriseOMRSMetadataCollection metadataCollection = getEnterpriseMetadataCollection(getMember("member1", 1),
+                                                                                              failingMember);
+
+        InstancePage<EntityDetail> page = metadataCollection.findEntitiesByPropertyWithCursor(USER_ID, null, null, null, null, null, null, PAGE_SIZE);
+
+        failingMember.failure = new RepositoryErrorException(OMRSErrorCode.NULL_METADATA_COLLECTION.getMessageDefinition("member2"),
+                                                             this.getClass().getName(),
+                                                             "test");
+
+        page = metadataCollection.findEntitiesByPropertyWithCursor(USER_ID, null, null, null, page.getNextCursor(), null, null, PAGE_SIZE);
+
+        assertNull(page.getInstances());
+        assertNull(page.getNextCursor());
+    }
+
+
+    @Test
+    public void testInvalidCursorIsRejected() throws Exception
+    {
+        EnterpriseOMRSMetadataCollection metadataCollection = getEnterpriseMetadataCollection(getMember("member1", 1));
+
+        for (String cursor : Arrays.asList("not-a-cursor", encode("member9") + ".", encode("member1") + "..x"))
+        {
+            try
+            {
+                metadataCollection.findEntitiesByPropertyWithCursor(USER_ID, null, null, null, cursor, null, null, PAGE_SIZE);
+                fail("Cursor " + cursor + " was accepted");
+            }
+            catch (PagingErrorException expected)
+            {
+                // the cursor was not issued by the enterprise connector
+            }
+        }
+    }
+}
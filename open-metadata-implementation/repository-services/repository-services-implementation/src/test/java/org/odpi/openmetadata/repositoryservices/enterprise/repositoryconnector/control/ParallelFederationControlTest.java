@@ -0,0 +1,380 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.control;
+
+import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogDestination;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogRecord;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.OMRSMetadataCollectionBase;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.SequencingOrder;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceStatus;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchClassifications;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.search.SearchProperties;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryConnector;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryValidator;
+import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.executors.FindEntitiesExecutor;
+import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.executors.GetEntitiesExecutor;
+import org.odpi.openmetadata.repositoryservices.enterprise.repositoryconnector.executors.GetEntityExecutor;
+import org.odpi.openmetadata.repositoryservices.ffdc.OMRSErrorCode;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.EntityNotKnownException;
+import org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager.OMRSRepositoryContentHelper;
+import org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager.OMRSRepositoryContentManager;
+import org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager.OMRSRepositoryContentValidator;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * ParallelFederationControlTest verifies that the results of a federated request that is issued to the cohort
+ * members in parallel are resolved in the order of the cohort members.
+ */
+public class ParallelFederationControlTest
+{
+    private static final String USER_ID     = "testUser";
+    private static final String METHOD_NAME = "test";
+
+
+    /**
+     * Cohort member that knows a fixed set of entities and can be held up before it responds.
+     */
+    private static class TestMemberMetadataCollection extends OMRSMetadataCollectionBase
+    {
+        private final String             memberId;
+        private final List<String>       knownGUIDs;
+        private final CountDownLatch     release;
+        private final CountDownLatch     responded = new CountDownLatch(1);
+
+
+        TestMemberMetadataCollection(String                  metadataCollectionId,
+                                     OMRSRepositoryValidator repositoryValidator,
+                                     CountDownLatch          release,
+                                     String...               knownGUIDs)
+        {
+            super(null, metadataCollectionId, new OMRSRepositoryContentHelper(null), repositoryValidator, metadataCollectionId);
+
+            this.memberId   = metadataCollectionId;
+            this.release    = release;
+            this.knownGUIDs = Arrays.asList(knownGUIDs);
+        }
+
+
+        @Override
+        public String getMetadataCollectionId(String userId)
+        {
+            return memberId;
+        }
+
+
+        @Override
+        public EntityDetail getEntityDetail(String userId,
+                                            String guid) throws EntityNotKnownException
+        {
+            this.waitForRelease();
+
+            try
+            {
+                if (knownGUIDs.contains(guid))
+                {
+                    return getEntity(guid);
+                }
+
+                throw new EntityNotKnownException(OMRSErrorCode.ENTITY_NOT_KNOWN.getMessageDefinition(guid, METHOD_NAME, memberId),
+                                                  this.getClass().getName(),
+                                                  METHOD_NAME);
+            }
+            finally
+            {
+                responded.countDown();
+            }
+        }
+
+
+        @Override
+        public List<EntityDetail> areEntitiesKnown(String       userId,
+                                                   List<String> guids)
+        {
+            this.waitForRelease();
+
+            List<EntityDetail> entities = new ArrayList<>();
+
+            for (String guid : guids)
+            {
+                if (knownGUIDs.contains(guid))
+                {
+                    entities.add(getEntity(guid));
+                }
+            }
+
+            responded.countDown();
+
+            return entities;
+        }
+
+
+        @Override
+        public List<EntityDetail> findEntities(String                userId,
+                                               String                entityTypeGUID,
+                                               List<String>          entitySubtypeGUIDs,
+                                               SearchProperties      matchProperties,
+                                               int                   fromEntityElement,
+                                               List<InstanceStatus>  limitResultsByStatus,
+                                               SearchClassifications matchClassifications,
+                                               Date                  asOfTime,
+                                               String                sequencingProperty,
+                                               SequencingOrder       sequencingOrder,
+                                               int                   pageSize)
+        {
+            return this.areEntitiesKnown(userId, knownGUIDs);
+        }
+
+
+        private EntityDetail getEntity(String guid)
+        {
+            EntityDetail entity = new EntityDetail();
+
+            entity.setGUID(guid);
+            entity.setMetadataCollectionId(memberId);
+
+            return entity;
+        }
+
+
+        /**
+         * Wait until the test releases the member.  The wait continues if the call is cancelled so that the
+         * member can be made to respond after the request is complete.
+         */
+        private void waitForRelease()
+        {
+            boolean interrupted = false;
+
+            while (release.getCount() > 0)
+            {
+                try
+                {
+                    release.await();
+                }
+                catch (InterruptedException error)
+                {
+                    interrupted = true;
+                }
+            }
+
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    /**
+     * Connector to a cohort member.
+     */
+    private static class TestMemberConnector extends OMRSRepositoryConnector
+    {
+        TestMemberConnector(TestMemberMetadataCollection metadataCollection)
+        {
+            super.metadataCollectionId = metadataCollection.memberId;
+            super.metadataCollection   = metadataCollection;
+        }
+    }
+
+
+    private final OMRSRepositoryValidator repositoryValidator = getRepositoryValidator();
+
+
+    private OMRSRepositoryValidator getRepositoryValidator()
+    {
+        AuditLog auditLog = new AuditLog(new AuditLogDestination(null)
+        {
+            @Override
+            public void addLogRecord(AuditLogRecord logRecord)
+            {
+            }
+        }, 0, "Test", "Test", null);
+
+        return new OMRSRepositoryContentValidator(new OMRSRepositoryContentManager(USER_ID, auditLog));
+    }
+
+
+    private TestMemberMetadataCollection getMember(String metadataCollectionId, CountDownLatch release, String... knownGUIDs)
+    {
+        return new TestMemberMetadataCollection(metadataCollectionId, repositoryValidator, release, knownGUIDs);
+    }
+
+
+    private ParallelFederationControl getFederationControl(long memberTimeout, TestMemberMetadataCollection... members)
+    {
+        List<OMRSRepositoryConnector> cohortConnectors = new ArrayList<>();
+
+        for (TestMemberMetadataCollection member : members)
+        {
+            cohortConnectors.add(new TestMemberConnector(member));
+        }
+
+        return new ParallelFederationControl(USER_ID, cohortConnectors, METHOD_NAME, memberTimeout);
+    }
+
+
+    @Test public void testFirstMemberTakesPrecedence() throws Exception
+    {
+        CountDownLatch               release     = new CountDownLatch(1);
+        TestMemberMetadataCollection firstMember = getMember("member1", release, "guid1");
+        TestMemberMetadataCollection lastMember  = getMember("member2", new CountDownLatch(0), "guid1");
+        GetEntityExecutor            executor    = new GetEntityExecutor(USER_ID, "guid1", true, METHOD_NAME);
+
+        /*
+         * The later member responds first, but the request waits for the first member.
+         */
+        Thread releaser = new Thread(() ->
+                                     {
+                                         try
+                                         {
+                                             lastMember.responded.await(10, TimeUnit.SECONDS);
+                                             Thread.sleep(100);
+                                         }
+                                         catch (InterruptedException error)
+                                         {
+                                             Thread.currentThread().interrupt();
+                                         }
+
+                                         release.countDown();
+                                     });
+        releaser.start();
+
+        getFederationControl(10000, firstMember, lastMember).executeCommand(executor);
+
+        assertEquals(executor.getEntityDetail().getMetadataCollectionId(), "member1");
+
+        releaser.join();
+    }
+
+
+    @Test public void testLaterMemberUsedWhenEarlierMembersDoNotKnowInstance() throws Exception
+    {
+        TestMemberMetadataCollection firstMember  = getMember("member1", new CountDownLatch(0));
+        TestMemberMetadataCollection secondMember = getMember("member2", new CountDownLatch(0), "guid1");
+        TestMemberMetadataCollection thirdMember  = getMember("member3", new CountDownLatch(0), "guid1");
+        GetEntityExecutor            executor     = new GetEntityExecutor(USER_ID, "guid1", true, METHOD_NAME);
+
+        getFederationControl(10000, firstMember, secondMember, thirdMember).executeCommand(executor);
+
+        assertEquals(executor.getEntityDetail().getMetadataCollectionId(), "member2");
+    }
+
+
+    @Test public void testBatchResultsTakenFromFirstMemberThatReturnsThem() throws Exception
+    {
+        TestMemberMetadataCollection firstMember  = getMember("member1", new CountDownLatch(0), "guid1");
+        TestMemberMetadataCollection secondMember = getMember("member2", new CountDownLatch(0), "guid1", "guid2");
+        GetEntitiesExecutor          executor     = new GetEntitiesExecutor(USER_ID, Arrays.asList("guid1", "guid2"), METHOD_NAME);
+
+        getFederationControl(10000, firstMember, secondMember).executeCommand(executor);
+
+        List<EntityDetail> entities = executor.areEntitiesKnown();
+
+        assertEquals(entities.size(), 2);
+        assertEquals(entities.get(0).getMetadataCollectionId(), "member1");
+        assertEquals(entities.get(1).getMetadataCollectionId(), "member2");
+    }
+
+
+    @Test public void testFindResultsCombinedFromAllMembers() throws Exception
+    {
+        TestMemberMetadataCollection firstMember  = getMember("member1", new CountDownLatch(0), "guid1");
+        TestMemberMetadataCollection secondMember = getMember("member2", new CountDownLatch(0), "guid2");
+        TestMemberMetadataCollection thirdMember  = getMember("member3", new CountDownLatch(0), "guid3");
+        FindEntitiesExecutor         executor     = new FindEntitiesExecutor(USER_ID,
+                                                                             null,
+                                                                             null,
+                                                                             null,
+                                                                             0,
+                                                                             null,
+                                                                             null,
+                                                                             null,
+                                                                             null,
+                                                                             null,
+                                                                             0,
+                                                                             null,
+                                                                             null,
+                                                                             repositoryValidator,
+                                                                             METHOD_NAME);
+
+        getFederationControl(10000, firstMember, secondMember, thirdMember).executeCommand(executor);
+
+        List<EntityDetail> entities = executor.getResults(null);
+
+        assertEquals(entities.size(), 3);
+    }
+
+
+    @Test public void testResultsFromTimedOutMemberAreIgnored() throws Exception
+    {
+        CountDownLatch               release     = new CountDownLatch(1);
+        TestMemberMetadataCollection firstMember = getMember("member1", release, "guid1");
+        TestMemberMetadataCollection lastMember  = getMember("member2", new CountDownLatch(0), "guid1");
+        GetEntityExecutor            executor    = new GetEntityExecutor(USER_ID, "guid1", true, METHOD_NAME);
+
+        long startTime = System.currentTimeMillis();
+
+        getFederationControl(200, firstMember, lastMember).executeCommand(executor);
+
+        assertTrue(System.currentTimeMillis() - startTime < 5000);
+        assertEquals(executor.getEntityDetail().getMetadataCollectionId(), "member2");
+
+        /*
+         * The first member responds after the request is complete.  Its result does not replace the
+         * result that has already been returned.
+         */
+        release.countDown();
+
+        assertTrue(firstMember.responded.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        assertEquals(executor.getEntityDetail().getMetadataCollectionId(), "member2");
+    }
+
+
+    @Test public void testInterruptedCallerStopsWaiting() throws Exception
+    {
+        CountDownLatch               release     = new CountDownLatch(1);
+        TestMemberMetadataCollection firstMember = getMember("member1", release, "guid1");
+        TestMemberMetadataCollection lastMember  = getMember("member2", release, "guid1");
+        GetEntityExecutor            executor    = new GetEntityExecutor(USER_ID, "guid1", true, METHOD_NAME);
+
+        try
+        {
+            Thread.currentThread().interrupt();
+
+            getFederationControl(10000, firstMember, lastMember).executeCommand(executor);
+
+            /*
+             * The interrupt is kept for the caller and no result is returned.
+             */
+            assertTrue(Thread.interrupted());
+            assertNull(executor.isEntityKnown());
+        }
+        finally
+        {
+            Thread.interrupted();
+            release.countDown();
+        }
+
+        /*
+         * Any calls that were running when the caller was interrupted do not change the result.
+         */
+        Thread.sleep(200);
+
+        assertNull(executor.isEntityKnown());
+    }
+}
@@ -0,0 +1,317 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.eventmanagement;
+
+import org.odpi.openmetadata.repositoryservices.connectors.omrstopic.InternalOMRSEventProcessingContext;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Relationship;
+import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEvent;
+import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEventProcessorInterface;
+import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEventType;
+import org.odpi.openmetadata.repositoryservices.events.future.OMRSFuture;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * OMRSInstanceEventConsumerQueueTest verifies the ordering, back-pressure and shutdown of the queue that passes
+ * instance events to a consumer.
+ */
+public class OMRSInstanceEventConsumerQueueTest
+{
+    /**
+     * Consumer that records the events it receives and optionally waits before returning.  Only
+     * sendInstanceEvent() is called by the queue, so the consumer is a proxy that handles that method.
+     */
+    private static class RecordingConsumer implements InvocationHandler
+    {
+        private final List<OMRSInstanceEvent> events   = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch          release;
+        private final CountDownLatch          received;
+        private final CountDownLatch          started  = new CountDownLatch(1);
+
+        RecordingConsumer(CountDownLatch release, int expectedEvents)
+        {
+            this.release  = release;
+            this.received = new CountDownLatch(expectedEvents);
+        }
+
+        OMRSInstanceEventProcessorInterface getConsumer()
+        {
+            return (OMRSInstanceEventProcessorInterface) Proxy.newProxyInstance(this.getClass().getClassLoader(),
+                                                                                new Class<?>[]{OMRSInstanceEventProcessorInterface.class},
+                                                                                this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] arguments)
+        {
+            if ("sendInstanceEvent".equals(method.getName()))
+            {
+                started.countDown();
+
+                try
+                {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException error)
+                {
+                    Thread.currentThread().interrupt();
+                }
+
+                events.add((OMRSInstanceEvent) arguments[1]);
+                received.countDown();
+            }
+
+            return null;
+        }
+    }
+
+
+    private OMRSInstanceEvent getEntityEvent(String guid, long version)
+    {
+        EntityDetail entity = new EntityDetail();
+
+        entity.setGUID(guid);
+        entity.setVersion(version);
+
+        return new OMRSInstanceEvent(OMRSInstanceEventType.UPDATED_ENTITY_EVENT, entity);
+    }
+
+
+    private OMRSInstanceEvent getRelationshipEvent(String guid)
+    {
+        Relationship relationship = new Relationship();
+
+        relationship.setGUID(guid);
+
+        return new OMRSInstanceEvent(OMRSInstanceEventType.NEW_RELATIONSHIP_EVENT, relationship);
+    }
+
+
+    /**
+     * Add an event from a fresh processing context and return the future that tracks it.
+     */
+    private OMRSFuture addEvent(OMRSInstanceEventConsumerQueue queue, OMRSInstanceEvent event, String partitionKey)
+    {
+        InternalOMRSEventProcessingContext.clear();
+
+        queue.addEvent(event, partitionKey);
+
+        OMRSFuture future = InternalOMRSEventProcessingContext.getInstance().getOverallAsyncProcessingResult();
+
+        InternalOMRSEventProcessingContext.clear();
+
+        return future;
+    }
+
+
+    private void waitForFuture(OMRSFuture future) throws InterruptedException
+    {
+        long endTime = System.currentTimeMillis() + 10000;
+
+        while ((! future.isDone()) && (System.currentTimeMillis() < endTime))
+        {
+            Thread.sleep(10);
+        }
+
+        assertTrue(future.isDone());
+    }
+
+
+    @Test public void testEventsForEachInstanceAreProcessedInOrder() throws Exception
+    {
+        final int instanceCount     = 10;
+        final int eventsPerInstance = 50;
+        final int eventCount        = instanceCount * eventsPerInstance + 1;
+
+        RecordingConsumer              consumer = new RecordingConsumer(new CountDownLatch(0), eventCount);
+        OMRSInstanceEventConsumerQueue queue    = new OMRSInstanceEventConsumerQueue("Test", "Consumer", consumer.getConsumer(), 4, 100, null);
+
+        try
+        {
+            for (int version = 0; version < eventsPerInstance; version++)
+            {
+                for (int instance = 0; instance < instanceCount; instance++)
+                {
+                    String guid = "Entity " + instance;
+
+                    addEvent(queue, getEntityEvent(guid, version), guid);
+                }
+
+                if (version == eventsPerInstance / 2)
+                {
+                    addEvent(queue, getRelationshipEvent("Relationship"), null);
+                }
+            }
+
+            assertTrue(consumer.received.await(10, TimeUnit.SECONDS));
+
+            Map<String, Long> lastVersions = new HashMap<>();
+            int               eventsBeforeRelationship = 0;
+
+            for (OMRSInstanceEvent event : consumer.events)
+            {
+                if (event.getRelationship() != null)
+                {
+                    /*
+                     * The event without a partition key is processed after every event sent before it, and
+                     * before every event sent after it.
+                     */
+                    eventsBeforeRelationship = lastVersions.size();
+
+                    for (int instance = 0; instance < instanceCount; instance++)
+                    {
+                        assertEquals(lastVersions.get("Entity " + instance).longValue(), eventsPerInstance / 2);
+                    }
+                }
+                else
+                {
+                    String guid        = event.getEntity().getGUID();
+                    Long   lastVersion = lastVersions.get(guid);
+
+                    assertEquals(event.getEntity().getVersion(), lastVersion == null ? 0 : lastVersion + 1);
+
+                    lastVersions.put(guid, event.getEntity().getVersion());
+                }
+            }
+
+            assertEquals(eventsBeforeRelationship, instanceCount);
+            assertEquals(lastVersions.size(), instanceCount);
+        }
+        finally
+        {
+            queue.stop();
+        }
+    }
+
+
+    @Test public void testSenderWaitsWhenQueueIsFull() throws Exception
+    {
+        final int queueSize  = 2;
+        final int eventCount = 10;
+
+        CountDownLatch                 release  = new CountDownLatch(1);
+        RecordingConsumer              consumer = new RecordingConsumer(release, eventCount);
+        OMRSInstanceEventConsumerQueue queue    = new OMRSInstanceEventConsumerQueue("Test", "Consumer", consumer.getConsumer(), 1, queueSize, null);
+        ExecutorService                sender   = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            Future<?> result = sender.submit(() ->
+                                             {
+                                                 for (int i = 0; i < eventCount; i++)
+                                                 {
+                                                     addEvent(queue, getEntityEvent("Entity", i), "Entity");
+                                                 }
+                                             });
+
+            try
+            {
+                result.get(200, TimeUnit.MILLISECONDS);
+                fail("The sender did not wait for space in the queue");
+            }
+            catch (TimeoutException expected)
+            {
+                // the sender is waiting for the blocked consumer
+            }
+
+            assertTrue(queue.getQueueDepth() <= queueSize);
+
+            release.countDown();
+
+            result.get(10, TimeUnit.SECONDS);
+
+            assertTrue(consumer.received.await(10, TimeUnit.SECONDS));
+
+            for (int i = 0; i < eventCount; i++)
+            {
+                assertEquals(consumer.events.get(i).getEntity().getVersion(), i);
+            }
+        }
+        finally
+        {
+            release.countDown();
+            queue.stop();
+            sender.shutdownNow();
+        }
+    }
+
+
+    @Test public void testStoppedQueueRefusesEvents() throws Exception
+    {
+        CountDownLatch                 release  = new CountDownLatch(1);
+        RecordingConsumer              consumer = new RecordingConsumer(release, 1);
+        OMRSInstanceEventConsumerQueue queue    = new OMRSInstanceEventConsumerQueue("Test", "Consumer", consumer.getConsumer(), 2, 10, null);
+        ExecutorService                sender   = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            /*
+             * The first event holds up the consumer so the later events stay queued.
+             */
+            OMRSFuture       firstEvent   = addEvent(queue, getEntityEvent("Entity", 0), "Entity");
+            List<OMRSFuture> queuedEvents = new ArrayList<>();
+
+            assertTrue(consumer.started.await(10, TimeUnit.SECONDS));
+
+            queuedEvents.add(addEvent(queue, getEntityEvent("Entity", 1), "Entity"));
+            queuedEvents.add(addEvent(queue, getRelationshipEvent("Relationship"), null));
+
+            for (OMRSFuture queuedEvent : queuedEvents)
+            {
+                assertFalse(queuedEvent.isDone());
+            }
+
+            queue.stop();
+
+            /*
+             * The events that were waiting are discarded and their futures completed.
+             */
+            for (OMRSFuture queuedEvent : queuedEvents)
+            {
+                assertTrue(queuedEvent.isDone());
+            }
+
+            /*
+             * Later events are refused rather than queued, and the sender is not made to wait.
+             */
+            Future<OMRSFuture> result = sender.submit(() -> addEvent(queue, getEntityEvent("Entity", 2), "Entity"));
+
+            assertTrue(result.get(10, TimeUnit.SECONDS).isDone());
+            assertEquals(queue.getQueueDepth(), 0);
+
+            release.countDown();
+            waitForFuture(firstEvent);
+
+            Thread.sleep(100);
+
+            assertEquals(consumer.events.size(), 1);
+            assertEquals(consumer.events.get(0).getEntity().getVersion(), 0);
+        }
+        finally
+        {
+            release.countDown();
+            queue.stop();
+            sender.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.localrepository.repositoryconnector;
+
+import org.odpi.openmetadata.adminservices.configuration.properties.OpenMetadataExchangeRule;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLog;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogDestination;
+import org.odpi.openmetadata.frameworks.auditlog.AuditLogRecord;
+import org.odpi.openmetadata.repositoryservices.connectors.omrstopic.InternalOMRSEventProcessingContext;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.OMRSMetadataCollectionBase;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceGraph;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstanceType;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryConnector;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryHelper;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryValidator;
+import org.odpi.openmetadata.repositoryservices.eventmanagement.OMRSRepositoryEventExchangeRule;
+import org.odpi.openmetadata.repositoryservices.events.OMRSEventOriginator;
+import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEvent;
+import org.odpi.openmetadata.repositoryservices.events.OMRSInstanceEventType;
+import org.odpi.openmetadata.repositoryservices.ffdc.OMRSErrorCode;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.RepositoryErrorException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * LocalOMRSInstanceEventProcessorTest verifies when the batches of incoming reference copies are saved.
+ */
+public class LocalOMRSInstanceEventProcessorTest
+{
+    private static final String LOCAL_METADATA_COLLECTION_ID  = "LocalMetadataCollection";
+    private static final String REMOTE_METADATA_COLLECTION_ID = "RemoteMetadataCollection";
+    private static final String COHORT_NAME                   = "TestCohort";
+    private static final String TYPE_NAME                     = "TestEntityType";
+
+    private final Date createTime = new Date();
+
+    private LocalOMRSInstanceEventProcessor eventProcessor = null;
+
+
+    /**
+     * Local repository that records the calls made to it.
+     */
+    private static class RecordingMetadataCollection extends OMRSMetadataCollectionBase
+    {
+        private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        private       boolean      failBatches = false;
+
+
+        RecordingMetadataCollection()
+        {
+            super(null, LOCAL_METADATA_COLLECTION_ID, null, null, LOCAL_METADATA_COLLECTION_ID);
+        }
+
+
+        @Override
+        public Map<String, EntityDetail> getKnownEntities(String       userId,
+                                                          List<String> guids)
+        {
+            calls.add("getKnownEntities " + guids);
+
+            return new HashMap<>();
+        }
+
+
+        @Override
+        public EntityDetail isEntityKnown(String userId,
+                                          String guid)
+        {
+            calls.add("isEntityKnown " + guid);
+
+            return null;
+        }
+
+
+        @Override
+        public void saveInstanceReferenceCopies(String        userId,
+                                                InstanceGraph instances) throws RepositoryErrorException
+        {
+            List<String> instanceNames = new ArrayList<>();
+
+            for (EntityDetail entity : instances.getEntities())
+            {
+                instanceNames.add(entity.getGUID() + " v" + entity.getVersion());
+            }
+
+            calls.add("saveInstanceReferenceCopies " + instanceNames);
+
+            if (failBatches)
+            {
+                throw new RepositoryErrorException(OMRSErrorCode.METHOD_NOT_IMPLEMENTED.getMessageDefinition("saveInstanceReferenceCopies",
+                                                                                                             this.getClass().getName(),
+                                                                                                             LOCAL_METADATA_COLLECTION_ID),
+                                                   this.getClass().getName(),
+                                                   "saveInstanceReferenceCopies");
+            }
+        }
+
+
+        @Override
+        public void saveEntityReferenceCopy(String       userId,
+                                            EntityDetail entity)
+        {
+            calls.add("saveEntityReferenceCopy " + entity.getGUID() + " v" + entity.getVersion());
+        }
+
+
+        @Override
+        public void purgeEntityReferenceCopy(String userId,
+                                             String entityGUID,
+                                             String typeDefGUID,
+                                             String typeDefName,
+                                             String homeMetadataCollectionId)
+        {
+            calls.add("purgeEntityReferenceCopy " + entityGUID);
+        }
+
+
+        /**
+         * Wait for the number of calls to reach the expected count.
+         *
+         * @param expectedCalls number of calls
+         * @return calls made
+         * @throws InterruptedException interrupted while waiting
+         */
+        List<String> waitForCalls(int expectedCalls) throws InterruptedException
+        {
+            for (int i = 0; (i < 100) && (calls.size() < expectedCalls); i++)
+            {
+                Thread.sleep(50);
+            }
+
+            synchronized (calls)
+            {
+                return new ArrayList<>(calls);
+            }
+        }
+    }
+
+
+    /**
+     * Connector to the local repository.
+     */
+    private static class TestLocalConnector extends OMRSRepositoryConnector
+    {
+        TestLocalConnector(RecordingMetadataCollection metadataCollection)
+        {
+            super.metadataCollectionId = LOCAL_METADATA_COLLECTION_ID;
+            super.metadataCollection   = metadataCollection;
+        }
+    }
+
+
+    private LocalOMRSInstanceEventProcessor getEventProcessor(RecordingMetadataCollection metadataCollection,
+                                                              int                         referenceCopyBatchWindow,
+                                                              int                         referenceCopyBatchSize)
+    {
+        AuditLog auditLog = new AuditLog(new AuditLogDestination(null)
+        {
+            @Override
+            public void addLogRecord(AuditLogRecord logRecord)
+            {
+            }
+        }, 0, "Test", "Test", null);
+
+        /*
+         * The validator accepts every instance and type, and the helper is not used when saving reference copies.
+         */
+        OMRSRepositoryValidator repositoryValidator = (OMRSRepositoryValidator) Proxy.newProxyInstance(this.getClass().getClassLoader(),
+                                                                                                        new Class<?>[]{OMRSRepositoryValidator.class},
+                                                                                                        (proxy, method, arguments) -> method.getReturnType() == boolean.class ? true : null);
+        OMRSRepositoryHelper    repositoryHelper    = (OMRSRepositoryHelper) Proxy.newProxyInstance(this.getClass().getClassLoader(),
+                                                                                                     new Class<?>[]{OMRSRepositoryHelper.class},
+                                                                                                     (proxy, method, arguments) -> null);
+
+        eventProcessor = new LocalOMRSInstanceEventProcessor(LOCAL_METADATA_COLLECTION_ID,
+                                                             "LocalServer",
+                                                             new TestLocalConnector(metadataCollection),
+                                                             repositoryHelper,
+                                                             repositoryValidator,
+                                                             new OMRSRepositoryEventExchangeRule(OpenMetadataExchangeRule.ALL, null),
+                                                             null,
+                                                             auditLog);
+
+        eventProcessor.setReferenceCopyBatching(referenceCopyBatchWindow, referenceCopyBatchSize);
+
+        return eventProcessor;
+    }
+
+
+    @AfterMethod
+    public void disconnect()
+    {
+        if (eventProcessor != null)
+        {
+            eventProcessor.disconnect();
+            eventProcessor = null;
+        }
+
+        InternalOMRSEventProcessingContext.clear();
+    }
+
+
+    private OMRSInstanceEvent getEntityEvent(OMRSInstanceEventType eventType, String guid, long version)
+    {
+        InstanceType type = new InstanceType();
+
+        type.setTypeDefGUID(TYPE_NAME + "GUID");
+        type.setTypeDefName(TYPE_NAME);
+
+        EntityDetail entity = new EntityDetail();
+
+        entity.setGUID(guid);
+        entity.setType(type);
+        entity.setMetadataCollectionId(REMOTE_METADATA_COLLECTION_ID);
+        entity.setCreateTime(createTime);
+        entity.setVersion(version);
+
+        return getEvent(new OMRSInstanceEvent(eventType, entity));
+    }
+
+
+    private OMRSInstanceEvent getEvent(OMRSInstanceEvent event)
+    {
+        OMRSEventOriginator originator = new OMRSEventOriginator();
+
+        originator.setMetadataCollectionId(REMOTE_METADATA_COLLECTION_ID);
+        originator.setServerName("RemoteServer");
+
+        event.setEventOriginator(originator);
+
+        return event;
+    }
+
+
+    @Test public void testBatchSavedWhenFull() throws Exception
+    {
+        RecordingMetadataCollection     metadataCollection = new RecordingMetadataCollection();
+        LocalOMRSInstanceEventProcessor eventProcessor     = getEventProcessor(metadataCollection, 60000, 3);
+
+        eventProcessor.sendInstanceEvent(COHORT_NAME, getEntityEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT, "entity1", 1));
+        eventProcessor.sendInstanceEvent(COHORT_NAME, getEntityEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT, "entity2", 1));
+
+        assertEquals(metadataCollection.calls.size(), 0);
+
+        /*
+         * The third instance fills the batch, which is saved before the event is returned.
+         */
+        eventProcessor.sendInstanceEvent(COHORT_NAME, getEntityEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT, "entity3", 1));
+
+        assertEquals(metadataCollection.calls,
+                     Arrays.asList("getKnownEntities [entity1, entity2, entity3]",
+                                   "saveInstanceReferenceCopies [entity1 v1, entity2 v1, entity3 v1]"));
+    }
+
+
+    @Test public void testBatchSavedAfterWindow() throws Exception
+    {
+        RecordingMetadataCollection     metadataCollection = new RecordingMetadataCollection();
+        LocalOMRSInstanceEventProcessor eventProcessor     = getEventProcessor(metadataCollection, 200, 100);
+
+        eventProcessor.sendInstanceEvent(COHORT_NAME, getEntityEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT, "entity1", 1));
+        eventProcessor.sendInstanceEvent(COHORT_NAME, getEntityEvent(OMRSInstanceEventType.UPDATED_ENTITY_EVENT, "entity1", 2));
+        eventProcessor.sendInstanceEvent(COHORT_NAME, getEntityEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT, "entity2", 1));
+
+        assertEquals(metadataCollection.calls.size(), 0);
+
+        /*
+         * Only the latest version of each entity is saved.
+         */
+        assertEquals(metadataCollection.waitForCalls(2),
+                     Arrays.asList("getKnownEntities [entity1, entity2]",
+                                   "saveInstanceReferenceCopies [entity1 v2, entity2 v1]"));
+    }
+
+
+    @Test public void testBatchSavedBeforeEventThatIsNotBatched() throws Exception
+    {
+        RecordingMetadataCollection     metadataCollection = new RecordingMetadataCollection();
+        LocalOMRSInstanceEventProcessor eventProcessor     = getEventProcessor(metadataCollection, 60000, 100);
+
+        eventProcessor.sendInstanceEvent(COHORT_NAME, getEntityEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT, "entity1", 1));
+        eventProcessor.sendInstanceEvent(COHORT_NAME, getEvent(new OMRSInstanceEvent(OMRSInstanceEventType.PURGED_ENTITY_EVENT,
+                                                                                     TYPE_NAME + "GUID",
+                                                                                     TYPE_NAME,
+                                                                                     "entity1")));
+
+        assertEquals(metadataCollection.calls,
+                     Arrays.asList("getKnownEntities [entity1]",
+                                   "saveInstanceReferenceCopies [entity1 v1]",
+                                   "purgeEntityReferenceCopy entity1"));
+    }
+
+
+    @Test public void testInstancesSavedOneAtATimeWhenBatchFails() throws Exception
+    {
+        RecordingMetadataCollection     metadataCollection = new RecordingMetadataCollection();
+        LocalOMRSInstanceEventProcessor eventProcessor     = getEventProcessor(metadataCollection, 60000, 2);
+
+        metadataCollection.failBatches = true;
+
+        eventProcessor.sendInstanceEvent(COHORT_NAME, getEntityEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT, "entity1", 1));
+        eventProcessor.sendInstanceEvent(COHORT_NAME, getEntityEvent(OMRSInstanceEventType.NEW_ENTITY_EVENT, "entity2", 1));
+
+        assertEquals(metadataCollection.calls,
+                     Arrays.asList("getKnownEntities [entity1, entity2]",
+                                   "saveInstanceReferenceCopies [entity1 v1, entity2 v1]",
+                                   "isEntityKnown entity1",
+                                   "saveEntityReferenceCopy entity1 v1",
+                                   "isEntityKnown entity2",
+                                   "saveEntityReferenceCopy entity2 v1"));
+    }
+}
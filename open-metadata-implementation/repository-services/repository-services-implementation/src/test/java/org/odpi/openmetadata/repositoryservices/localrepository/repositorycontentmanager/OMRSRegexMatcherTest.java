@@ -0,0 +1,40 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.openmetadata.repositoryservices.localrepository.repositorycontentmanager;
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryHelper;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+public class OMRSRegexMatcherTest
+{
+    private static final List<String> VALUES = Arrays.asList("", "Fred", "fred", "Fred Bloggs", "Alfred", "A.Fred.B",
+                                                             "a\\Eb", "Fred\nBloggs", "x Fred", "Fred*");
+
+    @Test
+    void testMatchesGivesSameResultAsStringMatches()
+    {
+        OMRSRepositoryHelper helper = new OMRSRepositoryContentHelper(null);
+
+        List<String> regexes = new ArrayList<>(Arrays.asList("Fred", "", ".*", "Fr.d", "(?i)fred", "F[a-z]+", "Fred\\*"));
+
+        for (String searchString : Arrays.asList("Fred", "", ".", "a\\Eb", "Fred*")) {
+            regexes.add(helper.getExactMatchRegex(searchString));
+            regexes.add(helper.getContainsRegex(searchString));
+            regexes.add(helper.getStartsWithRegex(searchString));
+            regexes.add(helper.getEndsWithRegex(searchString));
+            regexes.add(helper.getContainsRegex(searchString, true));
+        }
+
+        for (String regex : regexes) {
+            for (String value : VALUES) {
+                assertEquals(OMRSRegexMatcher.matches(value, regex), value.matches(regex), "value '" + value + "' regex '" + regex + "'");
+            }
+        }
+    }
+}
@@ -112,6 +112,54 @@ public class OMRSRepositoryHelperTest
 
     }
 
+    @Test
+    void testformatEntityResultsSequencing() throws PropertyErrorException, PagingErrorException {
+        List<EntityDetail> fullResults = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            EntityDetail entity = new EntityDetail();
+            entity.setGUID("guid-" + i);
+            // leave some entities without the sequencing property
+            if (i % 7 != 0) {
+                entity.setProperties(createHelper().addStringPropertyToInstance("test", null, "rank", String.format("%02d", random.nextInt(50)), "testformatEntityResultsSequencing"));
+            }
+            fullResults.add(entity);
+        }
+
+        for (SequencingOrder sequencingOrder : Arrays.asList(SequencingOrder.PROPERTY_ASCENDING, SequencingOrder.PROPERTY_DESCENDING)) {
+            // the results must be the same as a stable sort of all of the entities
+            List<EntityDetail> sortedResults = new ArrayList<>(fullResults);
+            sortedResults.sort((entity1, entity2) -> {
+                String rank1 = getRank(entity1);
+                String rank2 = getRank(entity2);
+                int result = rank1 == null ? (rank2 == null ? 0 : -1) : (rank2 == null ? 1 : rank1.compareTo(rank2));
+                return sequencingOrder == SequencingOrder.PROPERTY_DESCENDING ? -result : result;
+            });
+
+            List<EntityDetail> entities = createHelper().formatEntityResults(new ArrayList<>(fullResults), 0, "rank", sequencingOrder, 10);
+            assertEquals(entities, sortedResults.subList(0, 10));
+
+            entities = createHelper().formatEntityResults(new ArrayList<>(fullResults), 95, "rank", sequencingOrder, 10);
+            assertEquals(entities, sortedResults.subList(95, 105));
+
+            entities = createHelper().formatEntityResults(new ArrayList<>(fullResults), 195, "rank", sequencingOrder, 10);
+            assertEquals(entities, sortedResults.subList(195, 200));
+        }
+
+        // without a sequencing property the page is taken in the order of the results
+        List<EntityDetail> entities = createHelper().formatEntityResults(fullResults, 20, null, SequencingOrder.ANY, 5);
+        assertEquals(entities, fullResults.subList(20, 25));
+
+        assertNull(createHelper().formatEntityResults(fullResults, 201, "rank", SequencingOrder.PROPERTY_ASCENDING, 5));
+    }
+
+    private String getRank(EntityDetail entity) {
+        if (entity.getProperties() == null) {
+            return null;
+        }
+        return (String) ((PrimitivePropertyValue) entity.getProperties().getPropertyValue("rank")).getPrimitiveValue();
+    }
+
     @Test
     void testRegexHelpers() {
 
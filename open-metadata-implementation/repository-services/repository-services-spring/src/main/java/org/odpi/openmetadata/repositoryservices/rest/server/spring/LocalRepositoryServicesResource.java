@@ -720,6 +720,54 @@ public class LocalRepositoryServicesResource
     }
 
 
+    /**
+     * Returns the entities from the requested list that are stored in the metadata collection.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the entities.
+     * @return EntityListResponse:
+     * the entities that are found in the metadata collection in the order requested or
+     * InvalidParameterException one of the guids is null or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @PostMapping(path = "/instances/entities/existence")
+
+    public EntityListResponse areEntitiesKnown(@PathVariable String          serverName,
+                                               @PathVariable String          userId,
+                                               @RequestBody  GUIDListRequest guids)
+    {
+        return restAPI.areEntitiesKnown(serverName, userId, guids);
+    }
+
+
+    /**
+     * Return the header, classifications and properties of each of the requested entities.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the entities.
+     * @return EntityListResponse:
+     * EntityDetail structures in the order requested or
+     * InvalidParameterException one of the guids is null or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                 the metadata collection is stored or
+     * EntityNotKnownException one of the requested entity instances is not known in the metadata collection or
+     * EntityProxyOnlyException one of the requested entity instances is only a proxy in the metadata collection or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @PostMapping(path = "/instances/entities/by-guid")
+
+    public EntityListResponse getEntityDetails(@PathVariable String          serverName,
+                                               @PathVariable String          userId,
+                                               @RequestBody  GUIDListRequest guids)
+    {
+        return restAPI.getEntityDetails(serverName, userId, guids);
+    }
+
+
     /**
      * Return the relationships for a specific entity.
      *
@@ -752,6 +800,68 @@ public class LocalRepositoryServicesResource
     }
 
 
+    /**
+     * Return a page of the relationships for a specific entity.  The page is located with the cursor returned
+     * with the previous page.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param entityGUID String unique identifier for the entity.
+     * @param findRequestParameters find parameters used to limit the returned results.
+     * @return RelationshipListResponse:
+     * Relationships list with the cursor for the next page.  A null cursor means there are no more results or
+     * InvalidParameterException a parameter is invalid or null or
+     * TypeErrorException the type guid passed on the request is not known by the metadata collection or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored or
+     * EntityNotKnownException the requested entity instance is not known in the metadata collection or
+     * PagingErrorException the cursor or page size is not valid or
+     * FunctionNotSupportedException the repository does not support this optional method or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @PostMapping(path = "/instances/entity/{entityGUID}/relationships/cursor")
+
+    public RelationshipListResponse getRelationshipsForEntityWithCursor(@PathVariable String                     serverName,
+                                                                        @PathVariable String                     userId,
+                                                                        @PathVariable String                     entityGUID,
+                                                                        @RequestBody  TypeLimitedFindRequest     findRequestParameters)
+    {
+        return restAPI.getRelationshipsForEntityWithCursor(serverName, userId,
+                                                           entityGUID,
+                                                           findRequestParameters);
+    }
+
+
+    /**
+     * Return the number of relationships for a specific entity without retrieving them.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param entityGUID String unique identifier for the entity.
+     * @param countRequestParameters count parameters used to select the relationships to count.
+     * @return CountResponse:
+     * count of the relationships or
+     * InvalidParameterException a parameter is invalid or null or
+     * TypeErrorException the type guid passed on the request is not known by the metadata collection or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored or
+     * EntityNotKnownException the requested entity instance is not known in the metadata collection or
+     * FunctionNotSupportedException the repository does not support this optional method or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @PostMapping(path = "/instances/entity/{entityGUID}/relationships/count")
+
+    public CountResponse countRelationshipsForEntity(@PathVariable String                serverName,
+                                                     @PathVariable String                userId,
+                                                     @PathVariable String                entityGUID,
+                                                     @RequestBody  InstanceCountRequest  countRequestParameters)
+    {
+        return restAPI.countRelationshipsForEntity(serverName, userId,
+                                                   entityGUID,
+                                                   countRequestParameters);
+    }
+
+
     /**
      * Return the relationships for a specific entity.
      *
@@ -870,6 +980,63 @@ public class LocalRepositoryServicesResource
     }
 
 
+    /**
+     * Return a page of the entities that match the supplied properties according to the match criteria.  The page
+     * is located with the cursor returned with the previous page.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param findRequestParameters find parameters used to limit the returned results.
+     * @return EntityListResponse:
+     * a list of entities matching the supplied criteria with the cursor for the next page.  A null cursor means
+     * there are no more results or
+     * InvalidParameterException a parameter is invalid or null or
+     * TypeErrorException the type guid passed on the request is not known by the metadata collection or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored or
+     * PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  entity or
+     * PagingErrorException the cursor or page size is not valid or
+     * FunctionNotSupportedException the repository does not support this optional method or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @PostMapping(path = "/instances/entities/by-property/cursor")
+
+    public  EntityListResponse findEntitiesByPropertyWithCursor(@PathVariable String                    serverName,
+                                                                @PathVariable String                    userId,
+                                                                @RequestBody  EntityPropertyFindRequest findRequestParameters)
+    {
+        return restAPI.findEntitiesByPropertyWithCursor(serverName, userId, findRequestParameters);
+    }
+
+
+    /**
+     * Return the number of entities that match the supplied criteria without retrieving them.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param countRequestParameters count parameters used to select the entities to count.
+     * @return CountResponse:
+     * count of the entities or
+     * InvalidParameterException a parameter is invalid or null or
+     * TypeErrorException the type guid passed on the request is not known by the metadata collection or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored or
+     * PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  entity or
+     * FunctionNotSupportedException the repository does not support this optional method or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @PostMapping(path = "/instances/entities/count")
+
+    public CountResponse countEntities(@PathVariable String                serverName,
+                                       @PathVariable String                userId,
+                                       @RequestBody  InstanceCountRequest  countRequestParameters)
+    {
+        return restAPI.countEntities(serverName, userId, countRequestParameters);
+    }
+
+
     /**
      * Return a list of entities that match the supplied properties according to the match criteria.  The results
      * can be returned over many pages.
@@ -1104,6 +1271,54 @@ public class LocalRepositoryServicesResource
     }
 
 
+    /**
+     * Returns the relationships from the requested list that are stored in the metadata collection.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the relationships.
+     * @return RelationshipListResponse:
+     * the relationships that are found in the metadata collection in the order requested or
+     * InvalidParameterException one of the guids is null or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @PostMapping(path = "/instances/relationships/existence")
+
+    public RelationshipListResponse areRelationshipsKnown(@PathVariable String          serverName,
+                                                          @PathVariable String          userId,
+                                                          @RequestBody  GUIDListRequest guids)
+    {
+        return restAPI.areRelationshipsKnown(serverName, userId, guids);
+    }
+
+
+    /**
+     * Return the current version of each of the requested relationships.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param guids list of unique identifiers for the relationships.
+     * @return RelationshipListResponse:
+     * relationship structures in the order requested or
+     * InvalidParameterException one of the guids is null or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored or
+     * RelationshipNotKnownException the metadata collection does not have a relationship with
+     *                                         one of the requested GUIDs stored or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @PostMapping(path = "/instances/relationships/by-guid")
+
+    public RelationshipListResponse getRelationships(@PathVariable String          serverName,
+                                                     @PathVariable String          userId,
+                                                     @RequestBody  GUIDListRequest guids)
+    {
+        return restAPI.getRelationships(serverName, userId, guids);
+    }
+
+
     /**
      * Return a list of relationships that match the requested conditions.  The results can be broken into pages.
      *
@@ -1187,6 +1402,33 @@ public class LocalRepositoryServicesResource
     }
 
 
+    /**
+     * Return the number of relationships that match the supplied criteria without retrieving them.
+     *
+     * @param serverName unique identifier for requested server.
+     * @param userId unique identifier for requesting user.
+     * @param countRequestParameters count parameters used to select the relationships to count.
+     * @return CountResponse:
+     * count of the relationships or
+     * InvalidParameterException a parameter is invalid or null or
+     * TypeErrorException the type guid passed on the request is not known by the metadata collection or
+     * RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored or
+     * PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  relationship or
+     * FunctionNotSupportedException the repository does not support this optional method or
+     * UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    @PostMapping(path = "/instances/relationships/count")
+
+    public CountResponse countRelationships(@PathVariable String                serverName,
+                                            @PathVariable String                userId,
+                                            @RequestBody  InstanceCountRequest  countRequestParameters)
+    {
+        return restAPI.countRelationships(serverName, userId, countRequestParameters);
+    }
+
+
     /**
      * Return a list of relationships that match the requested properties by the matching criteria.   The results
      * can be broken into pages.